@@ -17,6 +17,7 @@ package au.gov.asd.tac.constellation.plugins.algorithms;
 
 import au.gov.asd.tac.constellation.plugins.algorithms.clustering.chinesewhispers.ChineseWhispersPlugin;
 import au.gov.asd.tac.constellation.plugins.algorithms.clustering.infomap.InfoMapPlugin;
+import au.gov.asd.tac.constellation.plugins.algorithms.clustering.louvain.LouvainPlugin;
 import au.gov.asd.tac.constellation.plugins.algorithms.paths.DirectedShortestPathsPlugin;
 import au.gov.asd.tac.constellation.plugins.algorithms.paths.ShortestPathsPlugin;
 import au.gov.asd.tac.constellation.plugins.algorithms.sna.centrality.BetweennessCentralityPlugin;
@@ -67,6 +68,7 @@ public final class AlgorithmPluginRegistry {
     // clustering
     public static final String CLUSTER_CHINESE_WHISPERS = ChineseWhispersPlugin.class.getName();
     public static final String CLUSTER_INFO_MAP = InfoMapPlugin.class.getName();
+    public static final String CLUSTER_LOUVAIN = LouvainPlugin.class.getName();
 
     // global
     public static final String AVERAGE_DEGREE = AverageDegreePlugin.class.getName();
@@ -21,6 +21,7 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.apache.commons.lang3.StringUtils;
@@ -34,7 +35,7 @@ public class NodeBase {
 
     private static final Logger LOGGER = Logger.getLogger(NodeBase.class.getName());
 
-    private static int uid = 0;
+    private static final AtomicInteger UID = new AtomicInteger();
 
     private final int id;
     private final String name;
@@ -60,7 +61,7 @@ public class NodeBase {
     }
 
     public NodeBase(final String name) {
-        this.id = uid++;
+        this.id = UID.getAndIncrement();
         this.name = name;
         index = 0;
         codelength = 0;
@@ -75,7 +76,7 @@ public class NodeBase {
     }
 
     public static int uid() {
-        return uid;
+        return UID.get();
     }
 
     public int getId() {
@@ -16,9 +16,7 @@
 package au.gov.asd.tac.constellation.plugins.algorithms.clustering.infomap.flow;
 
 import au.gov.asd.tac.constellation.plugins.algorithms.clustering.infomap.io.Config;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -33,7 +31,10 @@ public class FlowNetwork {
 
     private double[] nodeFlow;
     private double[] nodeTeleportRates;
-    private Connection[] flowConns;
+    private int[] connSources;
+    private int[] connTargets;
+    private double[] connWeights;
+    private double[] connFlows;
 
     public void calculateFlow(final Network network, final Config config) {
         LOGGER.log(Level.INFO, "Calculating global flow... ");
@@ -44,37 +45,36 @@ public class FlowNetwork {
         nodeFlow = new double[numNodes];
         nodeTeleportRates = new double[numNodes];
         final int[] nodeOutDegree = new int[numNodes];
-        final Map<NodePair, Double> connMap = network.getMap();
-        final int numConns = connMap.size();
-        flowConns = new Connection[numConns];
+        final int numConns = network.getNumConnections();
+        connSources = network.getConnectionSources();
+        connTargets = network.getConnectionTargets();
+        connWeights = network.getConnectionWeights();
+        connFlows = Arrays.copyOf(connWeights, numConns);
         final double totalConnWeight = network.getTotalWeight();
         final double sumUndirConnWeight = (config.isUndirected() ? 1 : 2) * totalConnWeight;
 
-        int connIndex = 0;
-        for (final Map.Entry<NodePair, Double> entry : connMap.entrySet()) {
-            final NodePair ends = entry.getKey();
-            nodeOutDegree[ends.end1]++;
-            final double weight = entry.getValue();
-            sumLinkOutWeight[ends.end1] += weight;
+        for (int i = 0; i < numConns; i++) {
+            final int end1 = connSources[i];
+            final int end2 = connTargets[i];
+            nodeOutDegree[end1]++;
+            final double weight = connWeights[i];
+            sumLinkOutWeight[end1] += weight;
             if (config.isUndirected()) {
-                sumLinkOutWeight[ends.end2] += weight;
+                sumLinkOutWeight[end2] += weight;
             }
-            nodeFlow[ends.end1] += weight / sumUndirConnWeight;
+            nodeFlow[end1] += weight / sumUndirConnWeight;
             if (!config.isOutdirdir()) {
-                nodeFlow[ends.end2] += weight / sumUndirConnWeight;
+                nodeFlow[end2] += weight / sumUndirConnWeight;
             }
-            flowConns[connIndex] = new Connection(ends.end1, ends.end2, weight);
-
-            connIndex++;
         }
 
         if (config.isRawdir()) {
             // Treat the link weights as flow (after global normalization) and
             // do one power iteration to set the node flow.
             Arrays.fill(nodeFlow, 0);
-            for (final Connection conn : flowConns) {
-                conn.setFlow(conn.getFlow() / totalConnWeight);
-                nodeFlow[conn.getTarget()] += conn.getFlow();
+            for (int i = 0; i < numConns; i++) {
+                connFlows[i] /= totalConnWeight;
+                nodeFlow[connTargets[i]] += connFlows[i];
             }
 
             // Normalize node flow.
@@ -100,8 +100,8 @@ public class FlowNetwork {
                 //Take one last power iteration.
                 final double[] nodeFlowSteadyState = Arrays.copyOf(nodeFlow, numNodes);
                 Arrays.fill(nodeFlow, 0);
-                for (final Connection conn : flowConns) {
-                    nodeFlow[conn.getTarget()] += nodeFlowSteadyState[conn.getSource()] * conn.getFlow() / sumLinkOutWeight[conn.getSource()];
+                for (int i = 0; i < numConns; i++) {
+                    nodeFlow[connTargets[i]] += nodeFlowSteadyState[connSources[i]] * connFlows[i] / sumLinkOutWeight[connSources[i]];
                 }
 
                 //Normalize node flow.
@@ -116,14 +116,14 @@ public class FlowNetwork {
                     }
 
                     // Update link data to represent flow instead of weight.
-                    for (final Connection conn : flowConns) {
-                        conn.setFlow(conn.getFlow() * (nodeFlowSteadyState[conn.getSource()] / sumLinkOutWeight[conn.getSource()] / sumNodeRank));
+                    for (int i = 0; i < numConns; i++) {
+                        connFlows[i] *= nodeFlowSteadyState[connSources[i]] / sumLinkOutWeight[connSources[i]] / sumNodeRank;
                     }
                 }
 
             } else { // undirected
                 for (int i = 0; i < numConns; ++i) {
-                    flowConns[i].setFlow(flowConns[i].getFlow() / sumUndirConnWeight);
+                    connFlows[i] /= sumUndirConnWeight;
                 }
             }
 
@@ -148,22 +148,23 @@ public class FlowNetwork {
             }
         } else {
             // Teleport proportionally to out-degree, or in-degree if recorded teleportation.
-            for (final Connection conn : flowConns) {
-                final int toNode = config.isRecordedTeleportation() ? conn.getTarget() : conn.getSource();
-                nodeTeleportRates[toNode] += conn.getFlow() / totalConnWeight;
+            for (int i = 0; i < numConns; i++) {
+                final int toNode = config.isRecordedTeleportation() ? connTargets[i] : connSources[i];
+                nodeTeleportRates[toNode] += connFlows[i] / totalConnWeight;
             }
         }
 
         // Normalize link weights with respect to its source nodes total out-link weight.
-        for (final Connection conn : flowConns) {
-            conn.setFlow(conn.getFlow() / sumLinkOutWeight[conn.getSource()]);
+        for (int i = 0; i < numConns; i++) {
+            connFlows[i] /= sumLinkOutWeight[connSources[i]];
         }
 
         // Collect dangling nodes.
-        final ArrayList<Integer> danglings = new ArrayList<>();
+        int numDanglings = 0;
+        final int[] danglings = new int[numNodes];
         for (int i = 0; i < numNodes; ++i) {
             if (nodeOutDegree[i] == 0) {
-                danglings.add(i);
+                danglings[numDanglings++] = i;
             }
         }
 
@@ -178,8 +179,8 @@ public class FlowNetwork {
         do {
             // Calculate dangling rank.
             danglingRank = 0;
-            for (final int dangling : danglings) {
-                danglingRank += nodeFlow[dangling];
+            for (int i = 0; i < numDanglings; i++) {
+                danglingRank += nodeFlow[danglings[i]];
             }
 
             // Flow from teleportation.
@@ -188,8 +189,8 @@ public class FlowNetwork {
             }
 
             // Flow from links.
-            for (final Connection conn : flowConns) {
-                nodeFlowTmp[conn.getTarget()] += beta * conn.getFlow() * nodeFlow[conn.getSource()];
+            for (int i = 0; i < numConns; i++) {
+                nodeFlowTmp[connTargets[i]] += beta * connFlows[i] * nodeFlow[connSources[i]];
             }
 
             // Update node flow from the power iteration above and check if converged.
@@ -227,16 +228,16 @@ public class FlowNetwork {
             //Take one last power iteration excluding the teleportation (and normalize node flow to sum 1.0).
             sumNodeRank = 1.0 - danglingRank;
             Arrays.fill(nodeFlow, 0);
-            for (final Connection conn : flowConns) {
-                nodeFlow[conn.getTarget()] += conn.getFlow() * nodeFlowTmp[conn.getSource()] / sumNodeRank;
+            for (int i = 0; i < numConns; i++) {
+                nodeFlow[connTargets[i]] += connFlows[i] * nodeFlowTmp[connSources[i]] / sumNodeRank;
             }
 
             beta = 1.0;
         }
 
         // Update the links with their global flow from the PageRank values. (Note: beta is set to 1 if unrec).
-        for (final Connection conn : flowConns) {
-            conn.setFlow(conn.getFlow() * (beta * nodeFlowTmp[conn.getSource()] / sumNodeRank));
+        for (int i = 0; i < numConns; i++) {
+            connFlows[i] *= beta * nodeFlowTmp[connSources[i]] / sumNodeRank;
         }
 
         LOGGER.log(Level.INFO, "done in {0} iterations!", numIterations);
@@ -250,7 +251,23 @@ public class FlowNetwork {
         return nodeTeleportRates;
     }
 
-    public Connection[] getFlowConnections() {
-        return flowConns;
+    public int getNumConnections() {
+        return connSources.length;
+    }
+
+    public int[] getConnectionSources() {
+        return connSources;
+    }
+
+    public int[] getConnectionTargets() {
+        return connTargets;
+    }
+
+    public double[] getConnectionWeights() {
+        return connWeights;
+    }
+
+    public double[] getConnectionFlows() {
+        return connFlows;
     }
 }
@@ -21,13 +21,11 @@ import au.gov.asd.tac.constellation.graph.GraphReadMethods;
 import au.gov.asd.tac.constellation.plugins.algorithms.clustering.infomap.io.Config;
 import au.gov.asd.tac.constellation.plugins.algorithms.clustering.infomap.io.Config.ConnectionType;
 import java.util.Arrays;
-import java.util.Map;
-import java.util.TreeMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
- * Parse graph connections into a map ordered by (end1, end2).
+ * Parse graph connections into arrays ordered by (end1, end2).
  *
  * @author algol
  */
@@ -39,7 +37,10 @@ public class Network {
     private final GraphReadMethods rg;
     private final Iterable<Connection> graphConnections;
 
-    private final TreeMap<NodePair, Double> connectionMap;
+    private int numConnections;
+    private int[] connectionSources;
+    private int[] connectionTargets;
+    private double[] connectionWeights;
 
     private final int vxNameId;
 
@@ -53,7 +54,10 @@ public class Network {
 
         vxNameId = rg.getAttribute(GraphElementType.VERTEX, "Name");
 
-        connectionMap = new TreeMap<>();
+        numConnections = 0;
+        connectionSources = new int[0];
+        connectionTargets = new int[0];
+        connectionWeights = new double[0];
 
         // We assume that all vertices have weight 1.
         nodeWeights = new double[rg.getVertexCount()];
@@ -74,7 +78,7 @@ public class Network {
     }
 
     public void read() {
-        connectionMap.clear();
+        final int numNodes = rg.getVertexCount();
         int numSelfLinks = 0;
 
         int numDoubleLinks = 0;
@@ -84,6 +88,10 @@ public class Network {
         // Note that connection ends are StoreGraph positions, not vertex ids.
         // This gives us a nice 0..n-1 numbering which the algorithm pretty much relies on.
         // Don't forget to convert back when looking at the results.
+        int numRead = 0;
+        int[] sources = new int[Math.max(16, numNodes)];
+        int[] targets = new int[sources.length];
+        double[] weights = new double[sources.length];
         for (final Connection conn : graphConnections) {
             if (conn.getTarget() == conn.getSource()) {
                 numSelfLinks++;
@@ -104,21 +112,68 @@ public class Network {
                 totalWeight += conn.getWeight();
             }
 
-            // Aggregate link weights if they are defined more than once.
-            final NodePair nodePair = new NodePair(conn.getSource(), conn.getTarget());
-            final Double d = connectionMap.get(nodePair);
-            if (d == null) {
-                connectionMap.put(nodePair, conn.getWeight());
-            } else {
-                connectionMap.put(nodePair, d + conn.getWeight());
-                numDoubleLinks++;
-                if (conn.getTarget() == conn.getSource()) {
-                    numSelfLinks--;
+            if (numRead == sources.length) {
+                sources = Arrays.copyOf(sources, numRead * 2);
+                targets = Arrays.copyOf(targets, numRead * 2);
+                weights = Arrays.copyOf(weights, numRead * 2);
+            }
+            sources[numRead] = conn.getSource();
+            targets[numRead] = conn.getTarget();
+            weights[numRead] = conn.getWeight();
+            numRead++;
+        }
+
+        // Bucket the connections by source so that each source can be aggregated on its own.
+        final int[] sourceOffsets = new int[numNodes + 1];
+        for (int i = 0; i < numRead; i++) {
+            sourceOffsets[sources[i] + 1]++;
+        }
+        for (int node = 0; node < numNodes; node++) {
+            sourceOffsets[node + 1] += sourceOffsets[node];
+        }
+        final int[] bucketPositions = Arrays.copyOf(sourceOffsets, numNodes);
+        final int[] bucketTargets = new int[numRead];
+        final double[] bucketWeights = new double[numRead];
+        for (int i = 0; i < numRead; i++) {
+            final int position = bucketPositions[sources[i]]++;
+            bucketTargets[position] = targets[i];
+            bucketWeights[position] = weights[i];
+        }
+
+        // Aggregate link weights if they are defined more than once, keeping the (end1, end2) order.
+        connectionSources = new int[numRead];
+        connectionTargets = new int[numRead];
+        connectionWeights = new double[numRead];
+        numConnections = 0;
+        final int[] targetStamps = new int[numNodes];
+        final double[] targetWeights = new double[numNodes];
+        for (int source = 0; source < numNodes; source++) {
+            final int first = numConnections;
+            for (int position = sourceOffsets[source]; position < sourceOffsets[source + 1]; position++) {
+                final int target = bucketTargets[position];
+                if (targetStamps[target] == source + 1) {
+                    targetWeights[target] += bucketWeights[position];
+                    numDoubleLinks++;
+                    if (target == source) {
+                        numSelfLinks--;
+                    }
+                } else {
+                    targetStamps[target] = source + 1;
+                    targetWeights[target] = bucketWeights[position];
+                    connectionTargets[numConnections++] = target;
                 }
             }
+            Arrays.sort(connectionTargets, first, numConnections);
+            for (int i = first; i < numConnections; i++) {
+                connectionSources[i] = source;
+                connectionWeights[i] = targetWeights[connectionTargets[i]];
+            }
         }
+        connectionSources = Arrays.copyOf(connectionSources, numConnections);
+        connectionTargets = Arrays.copyOf(connectionTargets, numConnections);
+        connectionWeights = Arrays.copyOf(connectionWeights, numConnections);
 
-        final String formattedString = String.format("done! Found %d nodes and %d connections. ", rg.getVertexCount(), connectionMap.size());
+        final String formattedString = String.format("done! Found %d nodes and %d connections. ", numNodes, numConnections);
         LOGGER.log(Level.INFO, formattedString);
         if (numDoubleLinks > 0) {
             LOGGER.log(Level.INFO, "{0} connections was aggregated to existing connections.", numDoubleLinks);
@@ -136,8 +191,35 @@ public class Network {
         return totalWeight;
     }
 
-    public Map<NodePair, Double> getMap() {
-        return connectionMap;
+    public int getNumConnections() {
+        return numConnections;
+    }
+
+    /**
+     * The source of each connection, in (end1, end2) order.
+     *
+     * @return the connection sources.
+     */
+    public int[] getConnectionSources() {
+        return connectionSources;
+    }
+
+    /**
+     * The target of each connection, in (end1, end2) order.
+     *
+     * @return the connection targets.
+     */
+    public int[] getConnectionTargets() {
+        return connectionTargets;
+    }
+
+    /**
+     * The aggregated weight of each connection, in (end1, end2) order.
+     *
+     * @return the connection weights.
+     */
+    public double[] getConnectionWeights() {
+        return connectionWeights;
     }
 
     public double[] getNodeTeleportRates() {
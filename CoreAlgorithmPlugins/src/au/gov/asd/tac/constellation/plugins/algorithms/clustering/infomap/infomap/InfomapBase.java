@@ -19,7 +19,6 @@ import au.gov.asd.tac.constellation.graph.GraphReadMethods;
 import au.gov.asd.tac.constellation.plugins.algorithms.clustering.infomap.NodeBase;
 import au.gov.asd.tac.constellation.plugins.algorithms.clustering.infomap.NodeFactoryBase;
 import au.gov.asd.tac.constellation.plugins.algorithms.clustering.infomap.PartitionQueue;
-import au.gov.asd.tac.constellation.plugins.algorithms.clustering.infomap.flow.Connection;
 import au.gov.asd.tac.constellation.plugins.algorithms.clustering.infomap.flow.FlowNetwork;
 import au.gov.asd.tac.constellation.plugins.algorithms.clustering.infomap.flow.Network;
 import au.gov.asd.tac.constellation.plugins.algorithms.clustering.infomap.io.Config;
@@ -33,10 +32,16 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.PrintWriter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.IntStream;
 
 /**
  *
@@ -55,7 +60,7 @@ public abstract class InfomapBase {
 
     // Points either to m_nonLeafActiveNetwork or m_treeData.m_leafNodes
     protected List<NodeBase> activeNetwork;
-    protected List<Integer> moveTo;
+    protected int[] moveTo;
 
     protected double oneLevelCodelength;
     protected double codelength;
@@ -66,6 +71,12 @@ public abstract class InfomapBase {
     protected int subLevel;
     protected static final int TOP_LEVEL_ADDITION = 1 << 20;
 
+    // Rough sizes of the tree built for each trial, used to limit the number of trials held in memory at once.
+    private static final long TRIAL_BYTES_PER_NODE = 400;
+    private static final long TRIAL_BYTES_PER_LINK = 200;
+
+    private int trial;
+
     protected double hierarchicalCodelength;
     protected double moduleCodelength;
     protected double bestHierarchicalCodelength;
@@ -92,7 +103,7 @@ public abstract class InfomapBase {
         treeData = new TreeData(nodeFactory);
         nonLeafActiveNetwork = new ArrayList<>();
         activeNetwork = nonLeafActiveNetwork;
-        moveTo = new ArrayList<>();
+        moveTo = new int[0];
         isCoarseTune = false;
         iterationCount = 0;
         numNonTrivialTopModules = 0;
@@ -113,51 +124,54 @@ public abstract class InfomapBase {
     }
 
     public void run() {
-        if (!initNetwork()) {
-            return;
-        }
-
-        indexCodelength = calcCodelengthFromFlowWithinOrExit(getRoot());
-        getRoot().setCodelength(indexCodelength);
-        LOGGER.log(Level.INFO, "One-level codelength: {0}", indexCodelength);
-        oneLevelCodelength = indexCodelength;
-
-        final double[] codelengths = new double[config.getNumTrials()];
-        final StringBuilder bestSolutionStatistics = new StringBuilder();
-
-        for (int iTrial = 0; iTrial < config.getNumTrials(); iTrial++) {
-            LOGGER.log(Level.INFO, "Attempt: {0}", iTrial + 1);
-            iterationCount = 0;
+        final Network network = new Network(config, rg);
+        network.read();
 
-            // First clear existing modular structure.
-            while (treeData.getFirstLeaf().getParent() != getRoot()) {
-                getRoot().replaceChildrenWithGrandChildren();
-            }
+        final FlowNetwork flowNetwork = new FlowNetwork();
+        flowNetwork.calculateFlow(network, config);
 
-            if (config.getClusterDataFile() != null) {
-                throw new UnsupportedOperationException("Not supported.");
-            }
+        final String[] nodeNames = getNodeNames(network);
 
-            if (!config.isNoInfomap()) {
-                runPartition();
-            }
+        final int numTrials = Math.max(1, config.getNumTrials());
+        final double[] codelengths = new double[numTrials];
+        final StringBuilder bestSolutionStatistics = new StringBuilder();
 
-            codelengths[iTrial] = hierarchicalCodelength;
+        // Each trial partitions its own tree built from the shared flow network, so the trials are
+        // independent and can run in parallel. Each searcher takes the next trial until there are
+        // none left, and keeps the best of its trials.
+        final AtomicInteger nextTrial = new AtomicInteger();
+        final long trialBytes = TRIAL_BYTES_PER_NODE * nodeNames.length + TRIAL_BYTES_PER_LINK * flowNetwork.getNumConnections();
+        final int searcherCount = (int) Math.max(1, Math.min(Math.min(numTrials, ForkJoinPool.getCommonPoolParallelism()), getAffordableTrialCount(trialBytes) / 2));
+        final InfomapBase best = IntStream.range(0, searcherCount).parallel()
+                .mapToObj(searcher -> {
+                    InfomapBase searcherBest = null;
+                    for (int iTrial = nextTrial.getAndIncrement(); iTrial < numTrials; iTrial = nextTrial.getAndIncrement()) {
+                        final InfomapBase current = getNewInfomapInstance(config, rg);
+                        current.initNetwork(nodeNames, flowNetwork);
+                        current.runTrial(iTrial);
+                        codelengths[iTrial] = current.hierarchicalCodelength;
+
+                        if (searcherBest == null || current.hierarchicalCodelength < searcherBest.hierarchicalCodelength) {
+                            searcherBest = current;
+                        }
+                    }
+                    return searcherBest;
+                })
+                .filter(Objects::nonNull)
+                .min(Comparator.comparingDouble((InfomapBase infomap) -> infomap.hierarchicalCodelength).thenComparingInt(infomap -> infomap.trial))
+                .orElseThrow();
 
-            if (hierarchicalCodelength < bestHierarchicalCodelength) {
-                bestHierarchicalCodelength = hierarchicalCodelength;
-                bestSolutionStatistics.setLength(0);
-                printNetworkData(false);
-                printPerLevelCodelength(bestSolutionStatistics);
-            }
-        }
+        adoptTrial(best);
+        bestHierarchicalCodelength = hierarchicalCodelength;
+        printNetworkData(false);
+        printPerLevelCodelength(bestSolutionStatistics);
 
         if (DEBUG) {
-            if (config.getNumTrials() > 1) {
+            if (numTrials > 1) {
                 double averageCodelength = 0;
                 double minCodelength = codelengths[0];
                 double maxCodelength = 0;
-                LOGGER.log(Level.INFO, "Codelengths for %d trials: [{0}", config.getNumTrials());
+                LOGGER.log(Level.INFO, "Codelengths for %d trials: [{0}", numTrials);
                 for (final double mdl : codelengths) {
                     LOGGER.log(Level.INFO, NINE_FORMAT1, mdl);
                     averageCodelength += mdl;
@@ -165,7 +179,7 @@ public abstract class InfomapBase {
                     maxCodelength = Math.max(maxCodelength, mdl);
                 }
 
-                averageCodelength /= config.getNumTrials();
+                averageCodelength /= numTrials;
                 
                 final String formattedString = String.format("[min, average, max] codelength: [%.9f, %.9f, %.9f]%n%n",
                         minCodelength, averageCodelength, maxCodelength);
@@ -179,6 +193,56 @@ public abstract class InfomapBase {
         }
     }
 
+    /**
+     * Run one trial on a newly initialised network. The random number
+     * generator is seeded from the trial number so that each trial is
+     * independent of the others.
+     */
+    private void runTrial(final int trialNumber) {
+        LOGGER.log(Level.INFO, "Attempt: {0}", trialNumber + 1);
+        trial = trialNumber;
+        iterationCount = 0;
+        reseed(config.getSeedToRandomNumberGenerator() + trialNumber);
+
+        if (config.getClusterDataFile() != null) {
+            throw new UnsupportedOperationException("Not supported.");
+        }
+
+        if (!config.isNoInfomap()) {
+            runPartition();
+        }
+    }
+
+    /**
+     * Take the tree and codelengths of the best trial as the result of this
+     * instance.
+     */
+    private void adoptTrial(final InfomapBase best) {
+        treeData = best.treeData;
+        activeNetwork = best.activeNetwork;
+        moveTo = best.moveTo;
+        trial = best.trial;
+        oneLevelCodelength = best.oneLevelCodelength;
+        codelength = best.codelength;
+        indexCodelength = best.indexCodelength;
+        moduleCodelength = best.moduleCodelength;
+        hierarchicalCodelength = best.hierarchicalCodelength;
+        numNonTrivialTopModules = best.numNonTrivialTopModules;
+        bestIntermediateCodelength = best.bestIntermediateCodelength;
+        bestIntermediateStatistics = best.bestIntermediateStatistics;
+    }
+
+    /**
+     * The number of trial trees that fit in half of the memory currently
+     * available, so that a large network is partitioned with fewer threads
+     * rather than running out of memory.
+     */
+    private static long getAffordableTrialCount(final long trialBytes) {
+        final Runtime runtime = Runtime.getRuntime();
+        final long available = runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+        return available / (2 * Math.max(1, trialBytes));
+    }
+
     public void runPartition() {
         hierarchicalCodelength = oneLevelCodelength;
         indexCodelength = oneLevelCodelength;
@@ -347,7 +411,7 @@ public abstract class InfomapBase {
             }
 
             final InfomapBase superInfomap = getNewInfomapInstance(config, rg);
-            superInfomap.reseed(NodeBase.uid());
+            superInfomap.reseed(rand.nextInt());
             superInfomap.subLevel = subLevel + TOP_LEVEL_ADDITION;
             superInfomap.initSuperNetwork(getRoot());
             superInfomap.partition();
@@ -392,7 +456,7 @@ public abstract class InfomapBase {
             for (final NodeBase module : getRoot().getChildren()) {
                 final int superModuleIndex = superLeafIt.next().getParent().getIndex();
                 for (final NodeBase node : module.getChildren()) {
-                    moveTo.set(node.getIndex(), superModuleIndex);
+                    moveTo[node.getIndex()] = superModuleIndex;
                 }
             }
 
@@ -778,8 +842,8 @@ public abstract class InfomapBase {
             setActiveNetworkFromLeafs();
             int i = 0;
             for (final NodeBase leaf : treeData.getLeaves()) {
-                moveTo.set(i, leaf.getIndex());
-                assert moveTo.get(i) < activeNetwork.size();
+                moveTo[i] = leaf.getIndex();
+                assert moveTo[i] < activeNetwork.size();
                 i++;
             }
 
@@ -890,8 +954,8 @@ public abstract class InfomapBase {
 
         int i = 0;
         for (final NodeBase leaf : treeData.getLeaves()) {
-            moveTo.set(i, leaf.getParent().getIndex());
-            assert moveTo.get(i) < activeNetwork.size();
+            moveTo[i] = leaf.getParent().getIndex();
+            assert moveTo[i] < activeNetwork.size();
             i++;
         }
 
@@ -927,8 +991,8 @@ public abstract class InfomapBase {
         setActiveNetworkFromLeafs();
         int i = 0;
         for (final NodeBase leaf : treeData.getLeaves()) {
-            moveTo.set(i, leaf.getIndex());
-            assert moveTo.get(i) < activeNetwork.size();
+            moveTo[i] = leaf.getIndex();
+            assert moveTo[i] < activeNetwork.size();
             i++;
         }
 
@@ -940,11 +1004,11 @@ public abstract class InfomapBase {
 
         // Prepare the sub-modules to move into the former module structure and begin optimization from there.
         setActiveNetworkFromChildrenOfRoot();
-        Resizer.resize(moveTo, activeNetwork.size(), 0);
+        moveTo = Arrays.copyOf(moveTo, activeNetwork.size());
         i = 0;
         for (final NodeBase subModule : getRoot().getChildren()) {
-            moveTo.set(i, subModule.getIndex());
-            assert moveTo.get(i) < activeNetwork.size();
+            moveTo[i] = subModule.getIndex();
+            assert moveTo[i] < activeNetwork.size();
             i++;
         }
         initModuleOptimization();
@@ -984,7 +1048,7 @@ public abstract class InfomapBase {
             final InfomapBase subInfomap = getNewInfomapInstance(config, rg);
 
             // To not happen to get back the same network with the same seed.
-            subInfomap.reseed(NodeBase.uid());
+            subInfomap.reseed(rand.nextInt());
             subInfomap.subLevel = subLevel + 1;
             subInfomap.initSubNetwork(module);
             subInfomap.partition(recursiveCount, fast);
@@ -1053,8 +1117,8 @@ public abstract class InfomapBase {
         }
 
         activeNetwork = treeData.getLeaves();
-        Resizer.resize(moveTo, activeNetwork.size(), 0);
-        assert moveTo.size() == treeData.getLeaves().size();
+        moveTo = Arrays.copyOf(moveTo, activeNetwork.size());
+        assert moveTo.length == treeData.getLeaves().size();
     }
 
     public boolean initNetwork() {
@@ -1064,20 +1128,45 @@ public abstract class InfomapBase {
         final FlowNetwork flowNetwork = new FlowNetwork();
         flowNetwork.calculateFlow(network, config);
 
+        initNetwork(getNodeNames(network), flowNetwork);
+
+        return true;
+    }
+
+    private static String[] getNodeNames(final Network network) {
+        final String[] nodeNames = new String[network.getNumNodes()];
+        for (int position = 0; position < nodeNames.length; position++) {
+            nodeNames[position] = network.getNodeName(position);
+        }
+        return nodeNames;
+    }
+
+    /**
+     * Build the leaf nodes and links of the tree from a flow network, and
+     * calculate the one-level codelength. The flow network is only read, so
+     * it can be shared between instances.
+     */
+    private void initNetwork(final String[] nodeNames, final FlowNetwork flowNetwork) {
         final double[] nodeFlow = flowNetwork.getNodeFlow();
         final double[] nodeTeleportWeights = flowNetwork.getNodeTeleportRates();
-        for (int position = 0; position < network.getNumNodes(); position++) {
-            treeData.addNewNode(position, network.getNodeName(position), nodeFlow[position], nodeTeleportWeights[position]);
+        for (int position = 0; position < nodeNames.length; position++) {
+            treeData.addNewNode(position, nodeNames[position], nodeFlow[position], nodeTeleportWeights[position]);
         }
 
-        final Connection[] connections = flowNetwork.getFlowConnections();
-        for (final Connection c : connections) {
-            treeData.addEdge(c.getSource(), c.getTarget(), c.getWeight(), c.getFlow());
+        final int[] sources = flowNetwork.getConnectionSources();
+        final int[] targets = flowNetwork.getConnectionTargets();
+        final double[] weights = flowNetwork.getConnectionWeights();
+        final double[] flows = flowNetwork.getConnectionFlows();
+        for (int i = 0; i < sources.length; i++) {
+            treeData.addEdge(sources[i], targets[i], weights[i], flows[i]);
         }
 
         initEnterExitFlow();
 
-        return true;
+        indexCodelength = calcCodelengthFromFlowWithinOrExit(getRoot());
+        getRoot().setCodelength(indexCodelength);
+        LOGGER.log(Level.INFO, "One-level codelength: {0}", indexCodelength);
+        oneLevelCodelength = indexCodelength;
     }
 
     private void printNetworkData(final boolean sort) {
@@ -61,42 +61,36 @@ public class InfomapDirected extends InfomapGreedy {
     }
 
     @Override
-    protected void addTeleportationDeltaFlowOnOldModuleIfMove(final Node nodeToMove, final DeltaFlow oldModuleDeltaFlow) {
+    protected void addTeleportationDeltaFlowOnOldModuleIfMove(final Node nodeToMove, final int oldModuleSlot) {
         final FlowDirectedWithTeleportation nodeToMoveData = (FlowDirectedWithTeleportation) nodeToMove.getData();
-        final FlowDirectedWithTeleportation oldModuleFlowData = (FlowDirectedWithTeleportation) moduleFlowData[oldModuleDeltaFlow.getModule()];
-        oldModuleDeltaFlow.setDeltaExit(oldModuleDeltaFlow.getDeltaExit() + ((alpha * nodeToMoveData.getTeleportSourceFlow() + beta * nodeToMoveData.getDanglingFlow()) * (oldModuleFlowData.getTeleportWeight() - nodeToMoveData.getTeleportWeight())));
-        oldModuleDeltaFlow.setDeltaEnter(oldModuleDeltaFlow.getDeltaEnter()
-                + ((alpha * (oldModuleFlowData.getTeleportSourceFlow() - nodeToMoveData.getTeleportSourceFlow()) + beta * (oldModuleFlowData.getDanglingFlow() - nodeToMoveData.getDanglingFlow()))
-                * nodeToMoveData.getTeleportWeight()));
+        final FlowDirectedWithTeleportation oldModuleFlowData = (FlowDirectedWithTeleportation) moduleFlowData[deltaModules[oldModuleSlot]];
+        deltaExits[oldModuleSlot] += (alpha * nodeToMoveData.getTeleportSourceFlow() + beta * nodeToMoveData.getDanglingFlow()) * (oldModuleFlowData.getTeleportWeight() - nodeToMoveData.getTeleportWeight());
+        deltaEnters[oldModuleSlot] += (alpha * (oldModuleFlowData.getTeleportSourceFlow() - nodeToMoveData.getTeleportSourceFlow()) + beta * (oldModuleFlowData.getDanglingFlow() - nodeToMoveData.getDanglingFlow()))
+                * nodeToMoveData.getTeleportWeight();
     }
 
     @Override
-    protected void addTeleportationDeltaFlowOnNewModuleIfMove(final Node nodeToMove, final DeltaFlow newModuleDeltaFlow) {
+    protected void addTeleportationDeltaFlowOnNewModuleIfMove(final Node nodeToMove, final int newModuleSlot) {
         final FlowDirectedWithTeleportation nodeToMoveData = (FlowDirectedWithTeleportation) nodeToMove.getData();
-        final FlowDirectedWithTeleportation newModuleFlowData = (FlowDirectedWithTeleportation) moduleFlowData[newModuleDeltaFlow.getModule()];
-        newModuleDeltaFlow.setDeltaExit(newModuleDeltaFlow.getDeltaExit() + ((alpha * nodeToMoveData.getTeleportSourceFlow() + beta * nodeToMoveData.getDanglingFlow()) * newModuleFlowData.getTeleportWeight()));
-        newModuleDeltaFlow.setDeltaEnter(newModuleDeltaFlow.getDeltaEnter() + ((alpha * newModuleFlowData.getTeleportSourceFlow() + beta * newModuleFlowData.getDanglingFlow()) * nodeToMoveData.getTeleportWeight()));
+        final FlowDirectedWithTeleportation newModuleFlowData = (FlowDirectedWithTeleportation) moduleFlowData[deltaModules[newModuleSlot]];
+        deltaExits[newModuleSlot] += (alpha * nodeToMoveData.getTeleportSourceFlow() + beta * nodeToMoveData.getDanglingFlow()) * newModuleFlowData.getTeleportWeight();
+        deltaEnters[newModuleSlot] += (alpha * newModuleFlowData.getTeleportSourceFlow() + beta * newModuleFlowData.getDanglingFlow()) * nodeToMoveData.getTeleportWeight();
     }
 
     @Override
-    protected void addTeleportationDeltaFlowIfMove(final Node current, final DeltaFlow[] moduleDeltaExits, final int numModuleLinks) {
+    protected void addTeleportationDeltaFlowIfMove(final Node current, final int numModuleLinks) {
         for (int j = 0; j < numModuleLinks; ++j) {
-            final int moduleIndex = moduleDeltaExits[j].getModule();
-            if (moduleIndex == current.getIndex()) {
-                addTeleportationDeltaFlowOnOldModuleIfMove(current, moduleDeltaExits[j]);
+            if (deltaModules[j] == current.getIndex()) {
+                addTeleportationDeltaFlowOnOldModuleIfMove(current, j);
             } else {
-                addTeleportationDeltaFlowOnNewModuleIfMove(current, moduleDeltaExits[j]);
+                addTeleportationDeltaFlowOnNewModuleIfMove(current, j);
             }
         }
     }
 
     @Override
-    protected double getDeltaCodelength(final Node current, final DeltaFlow oldModuleDelta, final DeltaFlow newModuleDelta) {
-        final int oldModule = oldModuleDelta.getModule();
-        final int newModule = newModuleDelta.getModule();
-        final double deltaEnterExitOldModule = oldModuleDelta.getDeltaEnter() + oldModuleDelta.getDeltaExit();
-        final double deltaEnterExitNewModule = newModuleDelta.getDeltaEnter() + newModuleDelta.getDeltaExit();
-
+    protected double getDeltaCodelength(final Node current, final int oldModule, final double deltaEnterExitOldModule,
+            final int newModule, final double deltaEnterExitNewModule) {
         final double delta_exit = plogp(enterFlow + deltaEnterExitOldModule - deltaEnterExitNewModule) - enterFlowLogEnterFlow;
 
         final double delta_exit_log_exit
@@ -117,12 +111,8 @@ public class InfomapDirected extends InfomapGreedy {
     }
 
     @Override
-    protected void updateCodelength(final Node current, final DeltaFlow oldModuleDelta, final DeltaFlow newModuleDelta) {
-        final int oldModule = oldModuleDelta.getModule();
-        final int newModule = newModuleDelta.getModule();
-        final double deltaEnterExitOldModule = oldModuleDelta.getDeltaEnter() + oldModuleDelta.getDeltaExit();
-        final double deltaEnterExitNewModule = newModuleDelta.getDeltaEnter() + newModuleDelta.getDeltaExit();
-
+    protected void updateCodelength(final Node current, final int oldModule, final double deltaEnterExitOldModule,
+            final int newModule, final double deltaEnterExitNewModule) {
         enterFlow
                 -= moduleFlowData[oldModule].getEnterFlow()
                 + moduleFlowData[newModule].getEnterFlow();
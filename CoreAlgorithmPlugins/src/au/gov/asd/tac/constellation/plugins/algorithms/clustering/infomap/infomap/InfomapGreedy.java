@@ -26,12 +26,10 @@ import au.gov.asd.tac.constellation.plugins.algorithms.clustering.infomap.util.I
 import static au.gov.asd.tac.constellation.plugins.algorithms.clustering.infomap.util.InfoMath.plogp;
 import au.gov.asd.tac.constellation.plugins.algorithms.clustering.infomap.util.MultiMap;
 import au.gov.asd.tac.constellation.plugins.algorithms.clustering.infomap.util.Resizer;
-import au.gov.asd.tac.constellation.utilities.datastructure.Tuple;
 import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Map;
-import java.util.TreeMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -47,6 +45,27 @@ public abstract class InfomapGreedy extends InfomapBase {
     protected int[] moduleMembers;
     protected ArrayList<Integer> emptyModules;
 
+    // The active network in compressed sparse row form without self-links,
+    // indexed by position in the active network.
+    protected int[] outLinkOffsets;
+    protected int[] outLinkTargets;
+    protected double[] outLinkFlows;
+    protected int[] inLinkOffsets;
+    protected int[] inLinkSources;
+    protected double[] inLinkFlows;
+
+    // The dynamic module of each node in the active network.
+    protected int[] nodeModules;
+
+    // The modules that the current node may move into, with the change in
+    // exit and enter flow of each module if it does.
+    protected int[] deltaModules;
+    protected double[] deltaExits;
+    protected double[] deltaEnters;
+
+    private int[] redirect;
+    private int[] randomOrder;
+
     protected double nodeFlowLogNodeFlow; // Constant while the leaf network is the same.
     protected double flowLogFlow; // node.(flow + exitFlow)
     protected double exitLogExit;
@@ -62,6 +81,7 @@ public abstract class InfomapGreedy extends InfomapBase {
         super(config, nodeFactory, rg);
 
         moduleFlowData = new FlowBase[0];
+        nodeModules = new int[0];
     }
 
     @Override
@@ -111,10 +131,73 @@ public abstract class InfomapGreedy extends InfomapBase {
             i++;
         }
 
+        initActiveLinks();
+
         // Initiate codelength terms for the initial state of one module per node.
         calculateCodelengthFromActiveNetwork(hasDetailedBalance());
     }
 
+    /**
+     * Copy the links of the active network into flat arrays so that the
+     * optimization loops do not need to walk the edge objects of each node.
+     * Relies on the index of each node being its position in the active
+     * network.
+     */
+    private void initActiveLinks() {
+        final int numNodes = activeNetwork.size();
+        nodeModules = new int[numNodes];
+        outLinkOffsets = new int[numNodes + 1];
+        inLinkOffsets = new int[numNodes + 1];
+        for (int i = 0; i < numNodes; i++) {
+            final NodeBase node = activeNetwork.get(i);
+            nodeModules[i] = i;
+            outLinkOffsets[i + 1] = outLinkOffsets[i];
+            for (final Edge<NodeBase> edge : node.getOutEdges()) {
+                if (edge.getTarget() != node) {
+                    outLinkOffsets[i + 1]++;
+                }
+            }
+            inLinkOffsets[i + 1] = inLinkOffsets[i];
+            for (final Edge<NodeBase> edge : node.getInEdges()) {
+                if (edge.getSource() != node) {
+                    inLinkOffsets[i + 1]++;
+                }
+            }
+        }
+
+        outLinkTargets = new int[outLinkOffsets[numNodes]];
+        outLinkFlows = new double[outLinkOffsets[numNodes]];
+        inLinkSources = new int[inLinkOffsets[numNodes]];
+        inLinkFlows = new double[inLinkOffsets[numNodes]];
+        int outLink = 0;
+        int inLink = 0;
+        for (final NodeBase node : activeNetwork) {
+            for (final Edge<NodeBase> edge : node.getOutEdges()) {
+                if (edge.getTarget() != node) {
+                    outLinkTargets[outLink] = edge.getTarget().getIndex();
+                    outLinkFlows[outLink] = edge.getData().flow;
+                    outLink++;
+                }
+            }
+            for (final Edge<NodeBase> edge : node.getInEdges()) {
+                if (edge.getSource() != node) {
+                    inLinkSources[inLink] = edge.getSource().getIndex();
+                    inLinkFlows[inLink] = edge.getData().flow;
+                    inLink++;
+                }
+            }
+        }
+
+        final int scratchSize = Math.max(2, numNodes + 1);
+        if (deltaModules == null || deltaModules.length < scratchSize) {
+            deltaModules = new int[scratchSize];
+            deltaExits = new double[scratchSize];
+            deltaEnters = new double[scratchSize];
+        }
+        redirect = new int[numNodes];
+        randomOrder = new int[numNodes];
+    }
+
     protected void calculateCodelengthFromActiveNetwork(final boolean detailedBalance) {
         if (DEBUG) {
             final String log = String.format("%s.calculateCodelengthFromActiveNetwork(%s)%n", getClass().getSimpleName(), detailedBalance);
@@ -189,28 +272,38 @@ public abstract class InfomapGreedy extends InfomapBase {
         return numOptimizationRounds;
     }
 
-    protected void addTeleportationDeltaFlowOnOldModuleIfMove(final Node nodeToMove, final DeltaFlow oldModuleDeltaFlow) {
+    /**
+     * Add the teleportation flow to the delta flow in the given slot of
+     * {@link #deltaModules}, which holds the current module of the node.
+     *
+     * @param nodeToMove the node to move.
+     * @param oldModuleSlot the slot holding the old module.
+     */
+    protected void addTeleportationDeltaFlowOnOldModuleIfMove(final Node nodeToMove, final int oldModuleSlot) {
         // This method intentionally left blank.
         // Specialized implementation for InfomapDirected.
     }
 
-    protected void addTeleportationDeltaFlowOnNewModuleIfMove(final Node nodeToMove, final DeltaFlow newModuleDeltaFlow) {
+    /**
+     * Add the teleportation flow to the delta flow in the given slot of
+     * {@link #deltaModules}, which holds a module the node may move into.
+     *
+     * @param nodeToMove the node to move.
+     * @param newModuleSlot the slot holding the new module.
+     */
+    protected void addTeleportationDeltaFlowOnNewModuleIfMove(final Node nodeToMove, final int newModuleSlot) {
         // This method intentionally left blank.
         // Specialized implementation for InfomapDirected.
     }
 
-    protected void addTeleportationDeltaFlowIfMove(final Node current, final DeltaFlow[] moduleDeltaExits, final int numModuleLinks) {
+    protected void addTeleportationDeltaFlowIfMove(final Node current, final int numModuleLinks) {
         // This method intentionally left blank.
         // Specialized implementation for InfomapDirected.
     }
 
     // --- Helper methods ---
-    protected double getDeltaCodelength(final Node current, final DeltaFlow oldModuleDelta, final DeltaFlow newModuleDelta) {
-        final int oldModule = oldModuleDelta.getModule();
-        final int newModule = newModuleDelta.getModule();
-        double deltaEnterExitOldModule = oldModuleDelta.getDeltaEnter() + oldModuleDelta.getDeltaExit();
-        double deltaEnterExitNewModule = newModuleDelta.getDeltaEnter() + newModuleDelta.getDeltaExit();
-
+    protected double getDeltaCodelength(final Node current, final int oldModule, final double deltaEnterExitOldModule,
+            final int newModule, final double deltaEnterExitNewModule) {
         final double delta_enter = plogp(enterFlow + deltaEnterExitOldModule - deltaEnterExitNewModule) - enterFlowLogEnterFlow;
 
         final double delta_enter_log_enter
@@ -242,15 +335,15 @@ public abstract class InfomapGreedy extends InfomapBase {
      * when exitFlow == enterFlow
      *
      * @param current the current node.
-     * @param oldModuleDelta the old module delta flow.
-     * @param newModuleDelta the new module delta flow.
+     * @param oldModule the old module.
+     * @param deltaEnterExitOldModule the delta enter and exit flow of the old
+     * module.
+     * @param newModule the new module.
+     * @param deltaEnterExitNewModule the delta enter and exit flow of the new
+     * module.
      */
-    protected void updateCodelength(final Node current, final DeltaFlow oldModuleDelta, final DeltaFlow newModuleDelta) {
-        final int oldModule = oldModuleDelta.getModule();
-        final int newModule = newModuleDelta.getModule();
-        final double deltaEnterExitOldModule = oldModuleDelta.getDeltaEnter() + oldModuleDelta.getDeltaExit();
-        final double deltaEnterExitNewModule = newModuleDelta.getDeltaEnter() + newModuleDelta.getDeltaExit();
-
+    protected void updateCodelength(final Node current, final int oldModule, final double deltaEnterExitOldModule,
+            final int newModule, final double deltaEnterExitNewModule) {
         enterFlow
                 -= moduleFlowData[oldModule].getEnterFlow()
                 + moduleFlowData[newModule].getEnterFlow();
@@ -400,7 +493,7 @@ public abstract class InfomapGreedy extends InfomapBase {
         }
 
         // Size of active network and cluster array should match.
-        assert moveTo.size() == activeNetwork.size();
+        assert moveTo.length == activeNetwork.size();
 
         final int numNodes = activeNetwork.size();
 
@@ -413,42 +506,35 @@ public abstract class InfomapGreedy extends InfomapBase {
         int numMoved = 0;
         for (int k = 0; k < numNodes; k++) {
             final Node current = getNode(activeNetwork.get(k));
-            final int oldM = current.getIndex(); // == k
+            final int oldM = nodeModules[k]; // == k
             assert oldM == k;
-            final int newM = moveTo.get(k);
+            final int newM = moveTo[k];
 
             if (newM != oldM) {
-                final DeltaFlow oldModuleDelta = new DeltaFlow(oldM, 0, 0);
-                final DeltaFlow newModuleDelta = new DeltaFlow(newM, 0, 0);
+                // Use the first two slots for the old and the new module.
+                setDeltaFlow(0, oldM, 0, 0);
+                setDeltaFlow(1, newM, 0, 0);
 
-                addTeleportationDeltaFlowOnOldModuleIfMove(current, oldModuleDelta);
-                addTeleportationDeltaFlowOnNewModuleIfMove(current, newModuleDelta);
+                addTeleportationDeltaFlowOnOldModuleIfMove(current, 0);
+                addTeleportationDeltaFlowOnNewModuleIfMove(current, 1);
 
                 // For all outlinks.
-                for (final Edge<NodeBase> edge : current.getOutEdges()) {
-                    if (edge.isSelfPointing()) {
-                        continue;
-                    }
-
-                    final int otherModule = edge.getTarget().getIndex();
+                for (int link = outLinkOffsets[k]; link < outLinkOffsets[k + 1]; link++) {
+                    final int otherModule = nodeModules[outLinkTargets[link]];
                     if (otherModule == oldM) {
-                        oldModuleDelta.setDeltaExit(oldModuleDelta.getDeltaExit() + edge.getData().flow);
+                        deltaExits[0] += outLinkFlows[link];
                     } else if (otherModule == newM) {
-                        newModuleDelta.setDeltaExit(newModuleDelta.getDeltaExit() + edge.getData().flow);
+                        deltaExits[1] += outLinkFlows[link];
                     }
                 }
 
                 // For all inlinks.
-                for (final Edge<NodeBase> edge : current.getInEdges()) {
-                    if (edge.isSelfPointing()) {
-                        continue;
-                    }
-
-                    final int otherModule = edge.getSource().getIndex();
+                for (int link = inLinkOffsets[k]; link < inLinkOffsets[k + 1]; link++) {
+                    final int otherModule = nodeModules[inLinkSources[link]];
                     if (otherModule == oldM) {
-                        oldModuleDelta.setDeltaEnter(oldModuleDelta.getDeltaEnter() + edge.getData().flow);
+                        deltaEnters[0] += inLinkFlows[link];
                     } else if (otherModule == newM) {
-                        newModuleDelta.setDeltaEnter(newModuleDelta.getDeltaEnter() + edge.getData().flow);
+                        deltaEnters[1] += inLinkFlows[link];
                     }
                 }
 
@@ -462,11 +548,12 @@ public abstract class InfomapGreedy extends InfomapBase {
                     emptyModules.add(oldM);
                 }
 
-                updateCodelength(current, oldModuleDelta, newModuleDelta);
+                updateCodelength(current, oldM, deltaEnters[0] + deltaExits[0], newM, deltaEnters[1] + deltaExits[1]);
 
                 moduleMembers[oldM] -= 1;
                 moduleMembers[newM] += 1;
 
+                nodeModules[k] = newM;
                 current.setIndex(newM);
                 numMoved++;
             }
@@ -497,19 +584,14 @@ public abstract class InfomapGreedy extends InfomapBase {
     int tryMoveEachNodeIntoBestModule() {
         if (DEBUG) {
             LOGGER.log(Level.INFO, "{0}.tryMoveEachNodeIntoBestModule", getClass().getSimpleName());
+            dumpActiveNetwork("in");
         }
 
         final int numNodes = activeNetwork.size();
-        dumpActiveNetwork("in");
 
         // Get random enumeration of nodes.
-        final int[] randomOrder = new int[numNodes];
         InfoMath.getRandomizedIndexVector(randomOrder, rand);
 
-        final DeltaFlow[] moduleDeltaEnterExit = new DeltaFlow[numNodes];
-        Arrays.fill(moduleDeltaEnterExit, new DeltaFlow());
-
-        final int[] redirect = new int[numNodes];
         Arrays.fill(redirect, 0);
         int offset = 1;
         final int maxOffset = Integer.MAX_VALUE - 1 - numNodes;
@@ -525,14 +607,17 @@ public abstract class InfomapGreedy extends InfomapBase {
             // Pick nodes in random order.
             final int flip = randomOrder[i];
             final Node current = getNode(activeNetwork.get(flip));
+            final int currentModule = nodeModules[flip];
 
             // If no links connecting this node with other nodes, it won't move into others,
             // and others won't move into this. TODO: always best leave it alone?
             if (current.getDegree() == 0
                     || (config.isIncludeSelfLinks()
                     && (current.getOutDegree() == 1 && current.getInDegree() == 1)
-                    && current.getOutEdges().get(0).getTarget().equals(current))) {
-                LOGGER.log(Level.INFO, "SKIPPING isolated node {0}", current);
+                    && outLinkOffsets[flip] == outLinkOffsets[flip + 1])) {
+                if (DEBUG) {
+                    LOGGER.log(Level.INFO, "SKIPPING isolated node {0}", current);
+                }
                 //TODO: if not skipping self-links, this yields different results from moveNodesToPredefinedModules!!
                 assert !config.isIncludeSelfLinks();
                 continue;
@@ -541,134 +626,133 @@ public abstract class InfomapGreedy extends InfomapBase {
             // Create vector with module links.
             int numModuleLinks = 0;
             if (current.isDangling()) {
-                redirect[current.getIndex()] = offset + numModuleLinks;
-                moduleDeltaEnterExit[numModuleLinks].setModule(current.getIndex());
-                moduleDeltaEnterExit[numModuleLinks].setDeltaExit(0);
-                moduleDeltaEnterExit[numModuleLinks].setDeltaEnter(0);
+                redirect[currentModule] = offset + numModuleLinks;
+                setDeltaFlow(numModuleLinks, currentModule, 0, 0);
                 numModuleLinks++;
             } else {
                 // For all outlinks.
-                for (final Edge<NodeBase> edge : current.getOutEdges()) {
-                    if (edge.isSelfPointing()) {
-                        continue;
-                    }
-
-                    final NodeBase neighbour = edge.getTarget();
-
-                    if (redirect[neighbour.getIndex()] >= offset) {
-                        moduleDeltaEnterExit[redirect[neighbour.getIndex()] - offset].setDeltaExit(
-                                moduleDeltaEnterExit[redirect[neighbour.getIndex()] - offset].getDeltaExit() + edge.getData().flow);
+                for (int link = outLinkOffsets[flip]; link < outLinkOffsets[flip + 1]; link++) {
+                    final int otherModule = nodeModules[outLinkTargets[link]];
+                    if (redirect[otherModule] >= offset) {
+                        deltaExits[redirect[otherModule] - offset] += outLinkFlows[link];
                     } else {
-                        redirect[neighbour.getIndex()] = offset + numModuleLinks;
-                        moduleDeltaEnterExit[numModuleLinks].setModule(neighbour.getIndex());
-                        moduleDeltaEnterExit[numModuleLinks].setDeltaExit(edge.getData().flow);
-                        moduleDeltaEnterExit[numModuleLinks].setDeltaEnter(0);
+                        redirect[otherModule] = offset + numModuleLinks;
+                        setDeltaFlow(numModuleLinks, otherModule, outLinkFlows[link], 0);
                         numModuleLinks++;
                     }
                 }
             }
 
             // For all inlinks.
-            for (final Edge<NodeBase> edge : current.getInEdges()) {
-                if (edge.isSelfPointing()) {
-                    continue;
-                }
-
-                final Node neighbour = getNode(edge.getSource());
-
-                if (redirect[neighbour.getIndex()] >= offset) {
-                    moduleDeltaEnterExit[redirect[neighbour.getIndex()] - offset].setDeltaEnter(
-                            moduleDeltaEnterExit[redirect[neighbour.getIndex()] - offset].getDeltaEnter() + edge.getData().flow);
+            for (int link = inLinkOffsets[flip]; link < inLinkOffsets[flip + 1]; link++) {
+                final int otherModule = nodeModules[inLinkSources[link]];
+                if (redirect[otherModule] >= offset) {
+                    deltaEnters[redirect[otherModule] - offset] += inLinkFlows[link];
                 } else {
-                    redirect[neighbour.getIndex()] = offset + numModuleLinks;
-                    moduleDeltaEnterExit[numModuleLinks].setModule(neighbour.getIndex());
-                    moduleDeltaEnterExit[numModuleLinks].setDeltaExit(0);
-                    moduleDeltaEnterExit[numModuleLinks].setDeltaEnter(edge.getData().flow);
+                    redirect[otherModule] = offset + numModuleLinks;
+                    setDeltaFlow(numModuleLinks, otherModule, 0, inLinkFlows[link]);
                     numModuleLinks++;
                 }
             }
 
             // If alone in the module, add virtual link to the module (used when adding teleportation).
-            if (redirect[current.getIndex()] < offset) {
-                redirect[current.getIndex()] = offset + numModuleLinks;
-                moduleDeltaEnterExit[numModuleLinks].setModule(current.getIndex());
-                moduleDeltaEnterExit[numModuleLinks].setDeltaExit(0);
-                moduleDeltaEnterExit[numModuleLinks].setDeltaEnter(0);
+            if (redirect[currentModule] < offset) {
+                redirect[currentModule] = offset + numModuleLinks;
+                setDeltaFlow(numModuleLinks, currentModule, 0, 0);
                 numModuleLinks++;
             }
 
             // Empty function if no teleportation coding model.
-            addTeleportationDeltaFlowIfMove(current, moduleDeltaEnterExit, numModuleLinks);
+            addTeleportationDeltaFlowIfMove(current, numModuleLinks);
 
             // Option to move to empty module (if node not already alone).
-            if (moduleMembers[current.getIndex()] > 1 && !emptyModules.isEmpty()) {
-                moduleDeltaEnterExit[numModuleLinks].setModule(emptyModules.get(emptyModules.size() - 1));
-                moduleDeltaEnterExit[numModuleLinks].setDeltaExit(0);
-                moduleDeltaEnterExit[numModuleLinks].setDeltaEnter(0);
+            if (moduleMembers[currentModule] > 1 && !emptyModules.isEmpty()) {
+                setDeltaFlow(numModuleLinks, emptyModules.get(emptyModules.size() - 1), 0, 0);
                 numModuleLinks++;
             }
 
-            // Store the DeltaFlow of the current module.
-            final DeltaFlow oldModuleDelta = new DeltaFlow(moduleDeltaEnterExit[redirect[current.getIndex()] - offset]);
+            // Store the delta flow of the current module.
+            final int oldModuleSlot = redirect[currentModule] - offset;
+            final double oldDeltaEnterExit = deltaEnters[oldModuleSlot] + deltaExits[oldModuleSlot];
 
             if (DEBUG) {
                 for (int j = 0; j < numModuleLinks - 1; ++j) {
-                    LOGGER.log(Level.INFO, "{0}", moduleDeltaEnterExit[j].getModule());
+                    LOGGER.log(Level.INFO, "{0}", deltaModules[j]);
                 }
             }
 
             // Randomize link order for optimized search.
             for (int j = 0; j < numModuleLinks - 1; ++j) {
                 final int randPos = j + rand.randInt(numModuleLinks - j - 1);
-                final DeltaFlow t = moduleDeltaEnterExit[j];
-                moduleDeltaEnterExit[j] = moduleDeltaEnterExit[randPos];
-                moduleDeltaEnterExit[randPos] = t;
+                swapDeltaFlows(j, randPos);
             }
 
-            DeltaFlow bestDeltaModule = new DeltaFlow(oldModuleDelta);
+            int bestModule = currentModule;
+            double bestDeltaEnterExit = oldDeltaEnterExit;
             double bestDeltaCodelength = 0;
 
             // Find the move that minimizes the description length.
             for (int j = 0; j < numModuleLinks; ++j) {
-                final int otherModule = moduleDeltaEnterExit[j].getModule();
-                if (otherModule != current.getIndex()) {
-                    double deltaCodelength = getDeltaCodelength(current, oldModuleDelta, moduleDeltaEnterExit[j]);
+                final int otherModule = deltaModules[j];
+                if (otherModule != currentModule) {
+                    final double deltaEnterExit = deltaEnters[j] + deltaExits[j];
+                    final double deltaCodelength = getDeltaCodelength(current, currentModule, oldDeltaEnterExit, otherModule, deltaEnterExit);
 
                     if (deltaCodelength < bestDeltaCodelength) {
-                        bestDeltaModule = new DeltaFlow(moduleDeltaEnterExit[j]);
+                        bestModule = otherModule;
+                        bestDeltaEnterExit = deltaEnterExit;
                         bestDeltaCodelength = deltaCodelength;
                     }
-
                 }
             }
 
             // Make best possible move.
-            if (bestDeltaModule.getModule() != current.getIndex()) {
-                final int bestModuleIndex = bestDeltaModule.getModule();
+            if (bestModule != currentModule) {
                 // Update empty module vector.
-                if (moduleMembers[bestModuleIndex] == 0) {
+                if (moduleMembers[bestModule] == 0) {
                     emptyModules.remove(emptyModules.size() - 1);
                 }
-                if (moduleMembers[current.getIndex()] == 1) {
-                    emptyModules.add(current.getIndex());
+                if (moduleMembers[currentModule] == 1) {
+                    emptyModules.add(currentModule);
                 }
 
-                updateCodelength(current, oldModuleDelta, bestDeltaModule);
+                updateCodelength(current, currentModule, oldDeltaEnterExit, bestModule, bestDeltaEnterExit);
 
-                moduleMembers[current.getIndex()] -= 1;
-                moduleMembers[bestModuleIndex] += 1;
+                moduleMembers[currentModule] -= 1;
+                moduleMembers[bestModule] += 1;
 
-                current.setIndex(bestModuleIndex);
+                nodeModules[flip] = bestModule;
+                current.setIndex(bestModule);
                 numMoved++;
             }
 
             offset += numNodes;
         }
 
-        dumpActiveNetwork("");
+        if (DEBUG) {
+            dumpActiveNetwork("");
+        }
         return numMoved;
     }
 
+    private void setDeltaFlow(final int slot, final int module, final double deltaExit, final double deltaEnter) {
+        deltaModules[slot] = module;
+        deltaExits[slot] = deltaExit;
+        deltaEnters[slot] = deltaEnter;
+    }
+
+    private void swapDeltaFlows(final int slot1, final int slot2) {
+        final int module = deltaModules[slot1];
+        deltaModules[slot1] = deltaModules[slot2];
+        deltaModules[slot2] = module;
+        final double deltaExit = deltaExits[slot1];
+        deltaExits[slot1] = deltaExits[slot2];
+        deltaExits[slot2] = deltaExit;
+        final double deltaEnter = deltaEnters[slot1];
+        deltaEnters[slot1] = deltaEnters[slot2];
+        deltaEnters[slot2] = deltaEnter;
+    }
+
     @Override
     protected int consolidateModules(final boolean replaceExistingStructure, final boolean asSubModules) {
         if (DEBUG) {
@@ -677,8 +761,14 @@ public abstract class InfomapGreedy extends InfomapBase {
         }
 
         final int numNodes = activeNetwork.size();
+        assert nodeModules.length == numNodes;
         final NodeBase[] modules = new NodeBase[numNodes];
 
+        // The modules in the order they are created, which is also the order of their ids.
+        final NodeBase[] createdModules = new NodeBase[numNodes];
+        final int[] moduleRanks = new int[numNodes];
+        int numModules = 0;
+
         final boolean activeNetworkAlreadyHaveModuleLevel = activeNetwork.get(0).getParent() != getRoot();
         final boolean activeNetworkIsLeafNetwork = activeNetwork.get(0).isLeaf();
 
@@ -712,6 +802,8 @@ public abstract class InfomapGreedy extends InfomapBase {
                 modules[moduleIndex] = treeData.getNodeFactory().createNode(moduleFlowData[moduleIndex]);
                 node.getParent().addChild(modules[moduleIndex]);
                 modules[moduleIndex].setIndex(moduleIndex);
+                createdModules[numModules] = modules[moduleIndex];
+                moduleRanks[moduleIndex] = numModules++;
             }
 
             modules[moduleIndex].addChild(node);
@@ -739,62 +831,56 @@ public abstract class InfomapGreedy extends InfomapBase {
             }
         }
 
-        // Aggregate links from lower level to the new modular level
-        /*
-         typedef std::pair<NodeBase*, NodeBase*> NodePair
-         typedef std::map<NodePair, double> EdgeMap
-         EdgeMap moduleLinks
-         */
-        final Map<Tuple<NodeBase, NodeBase>, Double> moduleLinks = new TreeMap<>((lhs, rhs) -> {
-            if (lhs.getFirst().getId() < rhs.getFirst().getId()) {
-                return -1;
-            }
-            if (lhs.getFirst().getId() > rhs.getFirst().getId()) {
-                return 1;
-            }
-            if (lhs.getSecond().getId() < rhs.getSecond().getId()) {
-                return -1;
-            }
-            if (lhs.getSecond().getId() > rhs.getSecond().getId()) {
-                return 1;
+        // Aggregate links from lower level to the new modular level, bucketed by the rank of the source module.
+        final int[] linkOffsets = new int[numModules + 1];
+        for (int i = 0; i < numNodes; i++) {
+            final int module = nodeModules[i];
+            for (int link = outLinkOffsets[i]; link < outLinkOffsets[i + 1]; link++) {
+                final int otherModule = nodeModules[outLinkTargets[link]];
+                if (otherModule != module) {
+                    linkOffsets[moduleRanks[getAggregateSource(modules, module, otherModule)] + 1]++;
+                }
             }
-            return 0;
-        });
-        for (final NodeBase node : activeNetwork) {
-            final NodeBase parent = node.getParent();
-
-            for (final Edge<NodeBase> edge : node.getOutEdges()) {
-                final NodeBase otherParent = edge.getTarget().getParent();
-
-                if (otherParent != parent) {
-                    NodeBase m1 = parent;
-                    NodeBase m2 = otherParent;
-                    // If undirected, the order may be swapped to aggregate the edge on an opposite one.
-                    if (config.isUndirected() && m1.getIndex() > m2.getIndex()) {
-                        NodeBase t = m1;
-                        m1 = m2;
-                        m2 = t;
-                    }
-
-                    // Insert the node pair in the edge map.
-                    // If not inserted, add the flow value to existing node pair.
-                    final Tuple<NodeBase, NodeBase> key = Tuple.create(m1, m2);
-                    if (moduleLinks.containsKey(key)) {
-                        final double d = moduleLinks.get(key);
-                        moduleLinks.put(key, d + edge.getData().flow);
-                    } else {
-                        moduleLinks.put(key, edge.getData().flow);
-                    }
+        }
+        for (int rank = 0; rank < numModules; rank++) {
+            linkOffsets[rank + 1] += linkOffsets[rank];
+        }
+        final int[] linkPositions = Arrays.copyOf(linkOffsets, numModules);
+        final int[] linkTargets = new int[linkOffsets[numModules]];
+        final double[] linkFlows = new double[linkOffsets[numModules]];
+        for (int i = 0; i < numNodes; i++) {
+            final int module = nodeModules[i];
+            for (int link = outLinkOffsets[i]; link < outLinkOffsets[i + 1]; link++) {
+                final int otherModule = nodeModules[outLinkTargets[link]];
+                if (otherModule != module) {
+                    final int source = getAggregateSource(modules, module, otherModule);
+                    final int position = linkPositions[moduleRanks[source]]++;
+                    linkTargets[position] = moduleRanks[source == module ? otherModule : module];
+                    linkFlows[position] = outLinkFlows[link];
                 }
             }
         }
 
-        // Add the aggregated edge flow structure to the new modules.
-        for (final Map.Entry<Tuple<NodeBase, NodeBase>, Double> entry : moduleLinks.entrySet()) {
-            final Tuple<NodeBase, NodeBase> nodePair = entry.getKey();
-            final double value = entry.getValue();
-
-            nodePair.getFirst().addOutEdge(nodePair.getSecond(), 0, value);
+        // Add the aggregated edge flow structure to the new modules, ordered by the ids of the module pair.
+        final int[] targetStamps = new int[numModules];
+        final double[] targetFlows = new double[numModules];
+        final int[] targets = new int[numModules];
+        for (int rank = 0; rank < numModules; rank++) {
+            int numTargets = 0;
+            for (int position = linkOffsets[rank]; position < linkOffsets[rank + 1]; position++) {
+                final int target = linkTargets[position];
+                if (targetStamps[target] == rank + 1) {
+                    targetFlows[target] += linkFlows[position];
+                } else {
+                    targetStamps[target] = rank + 1;
+                    targetFlows[target] = linkFlows[position];
+                    targets[numTargets++] = target;
+                }
+            }
+            Arrays.sort(targets, 0, numTargets);
+            for (int j = 0; j < numTargets; j++) {
+                createdModules[rank].addOutEdge(createdModules[targets[j]], 0, targetFlows[targets[j]]);
+            }
         }
 
         // Replace active network with its children if not at leaf level.
@@ -867,6 +953,15 @@ public abstract class InfomapGreedy extends InfomapBase {
         }
     }
 
+    /**
+     * Get the module that an aggregated link between two modules leaves from.
+     * If undirected, the order may be swapped to aggregate the link on an
+     * opposite one.
+     */
+    private int getAggregateSource(final NodeBase[] modules, final int module, final int otherModule) {
+        return config.isUndirected() && modules[module].getIndex() > modules[otherModule].getIndex() ? otherModule : module;
+    }
+
     protected int getNumActiveModules() {
         return activeNetwork.size() - emptyModules.size();
     }
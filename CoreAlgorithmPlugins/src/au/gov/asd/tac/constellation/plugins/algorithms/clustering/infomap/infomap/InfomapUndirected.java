@@ -50,45 +50,37 @@ public class InfomapUndirected extends InfomapGreedy {
     }
 
     @Override
-    protected double getDeltaCodelength(final Node current, final DeltaFlow oldModuleDelta, final DeltaFlow newModuleDelta) {
-        final int oldModule = oldModuleDelta.getModule();
-        final int newModule = newModuleDelta.getModule();
-        double deltaEnterExitOldModule = oldModuleDelta.getDeltaEnter() + oldModuleDelta.getDeltaExit();
-        double deltaEnterExitNewModule = newModuleDelta.getDeltaEnter() + newModuleDelta.getDeltaExit();
-
+    protected double getDeltaCodelength(final Node current, final int oldModule, final double deltaEnterExitOldModule,
+            final int newModule, final double deltaEnterExitNewModule) {
         // Double the effect as each link works in both directions.
-        deltaEnterExitOldModule *= 2;
-        deltaEnterExitNewModule *= 2;
+        final double doubleDeltaEnterExitOldModule = 2 * deltaEnterExitOldModule;
+        final double doubleDeltaEnterExitNewModule = 2 * deltaEnterExitNewModule;
 
-        final double delta_exit = plogp(enterFlow + deltaEnterExitOldModule - deltaEnterExitNewModule) - enterFlowLogEnterFlow;
+        final double delta_exit = plogp(enterFlow + doubleDeltaEnterExitOldModule - doubleDeltaEnterExitNewModule) - enterFlowLogEnterFlow;
 
         final double delta_exit_log_exit
                 = -plogp(moduleFlowData[oldModule].getExitFlow())
                 - plogp(moduleFlowData[newModule].getExitFlow())
-                + plogp(moduleFlowData[oldModule].getExitFlow() - current.getData().getExitFlow() + deltaEnterExitOldModule)
-                + plogp(moduleFlowData[newModule].getExitFlow() + current.getData().getExitFlow() - deltaEnterExitNewModule);
+                + plogp(moduleFlowData[oldModule].getExitFlow() - current.getData().getExitFlow() + doubleDeltaEnterExitOldModule)
+                + plogp(moduleFlowData[newModule].getExitFlow() + current.getData().getExitFlow() - doubleDeltaEnterExitNewModule);
 
         final double delta_flow_log_flow
                 = -plogp(moduleFlowData[oldModule].getExitFlow() + moduleFlowData[oldModule].getFlow())
                 - plogp(moduleFlowData[newModule].getExitFlow() + moduleFlowData[newModule].getFlow())
                 + plogp(moduleFlowData[oldModule].getExitFlow() + moduleFlowData[oldModule].getFlow()
-                        - current.getData().getExitFlow() - current.getData().getFlow() + deltaEnterExitOldModule)
+                        - current.getData().getExitFlow() - current.getData().getFlow() + doubleDeltaEnterExitOldModule)
                 + plogp(moduleFlowData[newModule].getExitFlow() + moduleFlowData[newModule].getFlow()
-                        + current.getData().getExitFlow() + current.getData().getFlow() - deltaEnterExitNewModule);
+                        + current.getData().getExitFlow() + current.getData().getFlow() - doubleDeltaEnterExitNewModule);
 
         return delta_exit - 2.0 * delta_exit_log_exit + delta_flow_log_flow;
     }
 
     @Override
-    protected void updateCodelength(final Node current, final DeltaFlow oldModuleDelta, final DeltaFlow newModuleDelta) {
-        final int oldModule = oldModuleDelta.getModule();
-        final int newModule = newModuleDelta.getModule();
-        double deltaEnterExitOldModule = oldModuleDelta.getDeltaEnter() + oldModuleDelta.getDeltaExit();
-        double deltaEnterExitNewModule = newModuleDelta.getDeltaEnter() + newModuleDelta.getDeltaExit();
-
+    protected void updateCodelength(final Node current, final int oldModule, final double deltaEnterExitOldModule,
+            final int newModule, final double deltaEnterExitNewModule) {
         // Double the effect as each link works in both directions.
-        deltaEnterExitOldModule *= 2;
-        deltaEnterExitNewModule *= 2;
+        final double doubleDeltaEnterExitOldModule = 2 * deltaEnterExitOldModule;
+        final double doubleDeltaEnterExitNewModule = 2 * deltaEnterExitNewModule;
 
         enterFlow
                 -= moduleFlowData[oldModule].getEnterFlow()
@@ -103,8 +95,8 @@ public class InfomapUndirected extends InfomapGreedy {
         moduleFlowData[oldModule].sub(current.getData());
         moduleFlowData[newModule].add(current.getData());
 
-        moduleFlowData[oldModule].setExitFlow(moduleFlowData[oldModule].getExitFlow() + deltaEnterExitOldModule);
-        moduleFlowData[newModule].setExitFlow(moduleFlowData[newModule].getExitFlow() - deltaEnterExitNewModule);
+        moduleFlowData[oldModule].setExitFlow(moduleFlowData[oldModule].getExitFlow() + doubleDeltaEnterExitOldModule);
+        moduleFlowData[newModule].setExitFlow(moduleFlowData[newModule].getExitFlow() - doubleDeltaEnterExitNewModule);
 
         enterFlow
                 += moduleFlowData[oldModule].getEnterFlow()
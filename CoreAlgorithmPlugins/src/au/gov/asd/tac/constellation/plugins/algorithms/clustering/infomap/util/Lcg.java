@@ -42,7 +42,7 @@ public class Lcg {
 
     public void seed(final long newSeed) {
         s = newSeed;
-        LOGGER.log(Level.INFO, "Seed: {0}", newSeed);
+        LOGGER.log(Level.FINE, "Seed: {0}", newSeed);
     }
 
     public int nextInt() {
@@ -29,8 +29,8 @@ public class Resizer {
 
     public static <T> void resize(final List<T> al, final int size, final T value) {
         if (al instanceof ArrayList) {
-            while (al.size() > size) {
-                al.remove(size);
+            if (al.size() > size) {
+                al.subList(size, al.size()).clear();
             }
 
             ((ArrayList)al).ensureCapacity(size);
@@ -15,9 +15,9 @@
  */
 package au.gov.asd.tac.constellation.plugins.algorithms.clustering.ktruss;
 
-import au.gov.asd.tac.constellation.graph.Graph;
 import au.gov.asd.tac.constellation.graph.GraphWriteMethods;
 import au.gov.asd.tac.constellation.graph.schema.analytic.concept.ClusteringConcept;
+import au.gov.asd.tac.constellation.plugins.algorithms.triangles.TriangleEngine;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
@@ -138,10 +138,20 @@ public class KTruss {
 
     }
 
+    /**
+     * Find the k-trusses of a graph for every k, passing each vertex and
+     * transaction to the result handler along with the largest k-truss it is
+     * in, or 0 if it is not in any k-truss with k of at least 3.
+     * <p>
+     * The trussness of every link is calculated up front by a
+     * {@link TriangleEngine}, and the k-trusses are then replayed in order of
+     * increasing k. A vertex is in a k-truss if any of its links is.
+     *
+     * @param graph the graph.
+     * @param resultHandler the handler receiving the results.
+     */
     public static void run(final GraphWriteMethods graph, final KTrussResultHandler resultHandler) {
 
-        final BitSet vertices = new BitSet();
-        vertices.set(0, graph.getVertexCount());
         final BitSet links = new BitSet();
         links.set(0, graph.getLinkCount());
 
@@ -153,78 +163,45 @@ public class KTruss {
             }
         }
 
-        // Records whether or not there are graph elements that are present in a k-truss that are not present in a k+1-truss.
-        boolean modifiedThisK = false;
+        // Calculate the trussness of each link, and the trussness of each vertex as the highest trussness of its links
+        final TriangleEngine engine = TriangleEngine.of(graph);
+        final int[] edgeTrussness = engine.getTrussness();
+        final int vertexCount = engine.getVertexCount();
+        final int[] vertexTrussness = new int[vertexCount];
+        Arrays.fill(vertexTrussness, 2);
+        final int[] edgeLinks = new int[edgeTrussness.length];
+        for (int edge = 0; edge < edgeTrussness.length; edge++) {
+            final int lowPosition = engine.getEdgeLow(edge);
+            final int highPosition = engine.getEdgeHigh(edge);
+            edgeLinks[edge] = graph.getLink(graph.getVertex(lowPosition), graph.getVertex(highPosition));
+            vertexTrussness[lowPosition] = Math.max(vertexTrussness[lowPosition], edgeTrussness[edge]);
+            vertexTrussness[highPosition] = Math.max(vertexTrussness[highPosition], edgeTrussness[edge]);
+        }
+        final int[][] verticesByTrussness = groupByTrussness(vertexTrussness);
+        final int[][] edgesByTrussness = groupByTrussness(edgeTrussness);
+
+        int remainingVertices = vertexCount;
         int lastK = 0;
         int currentK = 3;
         resultHandler.initialise((BitSet) links.clone());
 
         while (true) {
-            boolean modified = false;
-
-            // Cull all vertices that do not have enough links
-            for (int vertexPosition = vertices.nextSetBit(0); vertexPosition >= 0; vertexPosition = vertices.nextSetBit(vertexPosition + 1)) {
-                final int vxID = graph.getVertex(vertexPosition);
-
-                // Count the number of surviving links connected to this vertex
-                int survivingLinkCount = 0;
-                final int vertexLinkCount = graph.getVertexLinkCount(vxID);
-                for (int vertexLinkPosition = 0; vertexLinkPosition < vertexLinkCount; vertexLinkPosition++) {
-                    int link = graph.getVertexLink(vxID, vertexLinkPosition);
-                    if (links.get(graph.getLinkPosition(link))) {
-                        survivingLinkCount++;
-                    }
-                }
-
-                // If the vertex does not have enough surviving links then cull the vertex and all its links
-                if (survivingLinkCount < currentK - 1) {
-
-                    vertices.clear(vertexPosition);
-                    modified = true;
-                    resultHandler.recordVertexCluster(vxID, lastK);
-
-                    for (int vertexLinkPosition = 0; vertexLinkPosition < vertexLinkCount; vertexLinkPosition++) {
-                        final int link = graph.getVertexLink(vxID, vertexLinkPosition);
-                        final int linkPosition = graph.getLinkPosition(link);
-
-                        // If this link was still alive then cull it and record its k-truss cluster.
-                        if (links.get(linkPosition)) {
-                            links.clear(linkPosition);
-
-                            final int transactionCount = graph.getLinkTransactionCount(link);
-                            for (int transactionPosition = 0; transactionPosition < transactionCount; transactionPosition++) {
-                                final int txID = graph.getLinkTransaction(link, transactionPosition);
-                                resultHandler.recordTransactionCluster(txID, lastK);
-                            }
-                        }
-                    }
+            // Records whether or not there are graph elements that are present in a k-1-truss that are not present in a k-truss.
+            boolean modifiedThisK = false;
+
+            // Cull all vertices and links that are in a k-1 truss but not a k-truss, recording their k-truss cluster.
+            if (currentK - 1 < verticesByTrussness.length) {
+                for (final int vertexPosition : verticesByTrussness[currentK - 1]) {
+                    resultHandler.recordVertexCluster(graph.getVertex(vertexPosition), lastK);
+                    remainingVertices--;
+                    modifiedThisK = true;
                 }
             }
-
-            // Cull all surviving links that do not have enough support
-            for (int linkPosition = links.nextSetBit(0); linkPosition >= 0; linkPosition = links.nextSetBit(linkPosition + 1)) {
-                final int link = graph.getLink(linkPosition);
-                final int lowVertex = graph.getLinkLowVertex(link);
-                final int highVertex = graph.getLinkHighVertex(link);
-
-                // Support is determined by counting the number of triangles that the link lies in
-                // This is determined by iterating through the neighbours of the lowVertex for the link
-                // (ensuring that the link joining the neighbours is still alive)
-                // and seeing how many are also neighbours of the highVertex for the link
-                int support = 0;
-                for (int neighbourPosition = 0; neighbourPosition < graph.getVertexNeighbourCount(lowVertex); neighbourPosition++) {
-                    final int lowNeighbour = graph.getVertexNeighbour(lowVertex, neighbourPosition);
-                    final int lowNeighbourLink = graph.getLink(lowVertex, lowNeighbour);
-                    final int triangleLink = graph.getLink(lowNeighbour, highVertex);
-                    if (triangleLink != Graph.NOT_FOUND && links.get(graph.getLinkPosition(triangleLink)) && links.get(graph.getLinkPosition(lowNeighbourLink))) {
-                        support++;
-                    }
-                }
-
-                // If the link lies in less than k - 2 triangles, then cull it and record the k-truss cluster for all of its transactions.
-                if (support < currentK - 2) {
-                    links.clear(linkPosition);
-                    modified = true;
+            if (currentK - 1 < edgesByTrussness.length) {
+                for (final int edge : edgesByTrussness[currentK - 1]) {
+                    final int link = edgeLinks[edge];
+                    links.clear(graph.getLinkPosition(link));
+                    modifiedThisK = true;
 
                     final int transactionCount = graph.getLinkTransactionCount(link);
                     for (int transactionPosition = 0; transactionPosition < transactionCount; transactionPosition++) {
@@ -234,18 +211,34 @@ public class KTruss {
                 }
             }
 
-            modifiedThisK |= modified;
-
-            // If the graph has not been modified (no links or vertices culled) then increase the value of k.
-            if (!modified) {
-                if (vertices.isEmpty() || !resultHandler.nextK(currentK, modifiedThisK, (BitSet) links.clone())) {
-                    resultHandler.finalise(lastK, (BitSet) links.clone());
-                    break;
-                }
-                modifiedThisK = false;
-                lastK = currentK++;
+            // Once the graph has been culled for this k, move on to the next value of k.
+            if (remainingVertices == 0 || !resultHandler.nextK(currentK, modifiedThisK, (BitSet) links.clone())) {
+                resultHandler.finalise(lastK, (BitSet) links.clone());
+                break;
             }
+            lastK = currentK++;
+        }
+    }
+
+    // Groups the positions of an array by their value.
+    private static int[][] groupByTrussness(final int[] trussness) {
+        int maximumTrussness = 0;
+        for (final int k : trussness) {
+            maximumTrussness = Math.max(maximumTrussness, k);
+        }
+        final int[] counts = new int[maximumTrussness + 1];
+        for (final int k : trussness) {
+            counts[k]++;
+        }
+        final int[][] groups = new int[maximumTrussness + 1][];
+        for (int k = 0; k <= maximumTrussness; k++) {
+            groups[k] = new int[counts[k]];
+            counts[k] = 0;
+        }
+        for (int index = 0; index < trussness.length; index++) {
+            groups[trussness[index]][counts[trussness[index]]++] = index;
         }
+        return groups;
     }
 
     // Calculates the connected components of the k-trusses in the graph as k increases.
@@ -0,0 +1,489 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.plugins.algorithms.clustering.louvain;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Modularity clustering using the Louvain method, optionally refined as in the
+ * Leiden algorithm.
+ * <p>
+ * Fast unfolding of communities in large networks. Vincent D. Blondel,
+ * Jean-Loup Guillaume, Renaud Lambiotte and Etienne Lefebvre. Journal of
+ * Statistical Mechanics, 2008.
+ * <p>
+ * From Louvain to Leiden: guaranteeing well-connected communities. V. A.
+ * Traag, L. Waltman and N. J. van Eck. Scientific Reports, 2019.
+ * <p>
+ * Each level starts with a local moving phase, in which every vertex is moved
+ * to the neighbouring community that most increases modularity until no move
+ * increases it. The best move for every vertex is found in parallel against
+ * the current communities, and the moves are then made one at a time, each
+ * being checked again against the communities as they stand so that
+ * modularity never decreases. When refining, each community is then split
+ * into well-connected sub-communities by merging its vertices together.
+ * Finally the graph is aggregated so that each community (or sub-community)
+ * becomes a single vertex of the next level, and the process repeats until no
+ * vertex moves.
+ * <p>
+ * The graph is given in compressed sparse row form: the neighbours of the
+ * vertex at position p are the targets from {@code offsets[p]} (inclusive) to
+ * {@code offsets[p + 1]} (exclusive). Every edge must appear in the neighbours
+ * of both of its vertices with the same weight, and loops are not allowed.
+ *
+ * @author sirius
+ */
+public final class Louvain {
+
+    private static final int MAX_LEVELS = 32;
+    private static final int MAX_SWEEPS = 64;
+
+    private final double resolution;
+    private final boolean refine;
+
+    /**
+     * Create a new Louvain clustering.
+     *
+     * @param resolution the resolution, where higher values give more, smaller
+     * communities. A resolution of 1 gives standard modularity.
+     * @param refine true to refine communities as in the Leiden algorithm,
+     * which guarantees that every community is connected.
+     */
+    public Louvain(final double resolution, final boolean refine) {
+        this.resolution = resolution;
+        this.refine = refine;
+    }
+
+    /**
+     * Cluster a graph.
+     *
+     * @param offsets the offset of the first neighbour of each vertex,
+     * followed by the total number of neighbours.
+     * @param targets the positions of the neighbours.
+     * @param weights the weights of the neighbours.
+     * @param initialCommunities the community each vertex starts in, where
+     * vertices with the same non-negative value start together and vertices
+     * with a negative value start alone, or null to start every vertex alone.
+     * @return the community of each vertex, numbered from 0 in the order of
+     * the first vertex of each community.
+     */
+    public int[] cluster(final int[] offsets, final int[] targets, final float[] weights, final int[] initialCommunities) {
+        final int vertexCount = offsets.length - 1;
+
+        final double[] levelWeights = new double[weights.length];
+        for (int entry = 0; entry < weights.length; entry++) {
+            levelWeights[entry] = weights[entry];
+        }
+        Level level = new Level(offsets, targets, levelWeights, new double[vertexCount]);
+
+        // The vertex of the current level that each original vertex has been aggregated into
+        final int[] membership = new int[vertexCount];
+        Arrays.setAll(membership, vertex -> vertex);
+
+        int[] communities = getInitialCommunities(vertexCount, initialCommunities);
+        if (level.totalWeight > 0) {
+            for (int levelIndex = 0; levelIndex < MAX_LEVELS; levelIndex++) {
+                final double[] totals = new double[level.vertexCount];
+                for (int vertex = 0; vertex < level.vertexCount; vertex++) {
+                    totals[communities[vertex]] += level.degrees[vertex];
+                }
+
+                moveVertices(level, communities, totals);
+
+                final int[] partition = renumber(refine ? refinePartition(level, communities, totals) : communities);
+                final int partitionCount = partition.length == 0 ? 0 : Arrays.stream(partition).max().getAsInt() + 1;
+                if (partitionCount == level.vertexCount) {
+                    break;
+                }
+
+                for (int vertex = 0; vertex < vertexCount; vertex++) {
+                    membership[vertex] = partition[membership[vertex]];
+                }
+
+                // Each vertex of the next level starts in the community that its vertices were moved to
+                final int[] aggregateCommunities = new int[partitionCount];
+                for (int vertex = 0; vertex < level.vertexCount; vertex++) {
+                    aggregateCommunities[partition[vertex]] = communities[vertex];
+                }
+
+                level = aggregate(level, partition, partitionCount);
+                communities = renumber(aggregateCommunities);
+            }
+        }
+
+        final int[] result = new int[vertexCount];
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            result[vertex] = communities[membership[vertex]];
+        }
+        return renumber(result);
+    }
+
+    /**
+     * Calculate the modularity of a clustering of a graph at the resolution of
+     * this clustering.
+     *
+     * @param offsets the offset of the first neighbour of each vertex,
+     * followed by the total number of neighbours.
+     * @param targets the positions of the neighbours.
+     * @param weights the weights of the neighbours.
+     * @param communities the community of each vertex.
+     * @return the modularity of the clustering.
+     */
+    public double getModularity(final int[] offsets, final int[] targets, final float[] weights, final int[] communities) {
+        final Map<Integer, Double> totals = new HashMap<>();
+        double internalWeight = 0;
+        double totalWeight = 0;
+        for (int vertex = 0; vertex < offsets.length - 1; vertex++) {
+            double degree = 0;
+            for (int entry = offsets[vertex]; entry < offsets[vertex + 1]; entry++) {
+                degree += weights[entry];
+                if (communities[targets[entry]] == communities[vertex]) {
+                    internalWeight += weights[entry];
+                }
+            }
+            totals.merge(communities[vertex], degree, Double::sum);
+            totalWeight += degree;
+        }
+
+        if (totalWeight == 0) {
+            return 0;
+        }
+
+        double expectedWeight = 0;
+        for (final double total : totals.values()) {
+            expectedWeight += total * total;
+        }
+        return internalWeight / totalWeight - resolution * expectedWeight / (totalWeight * totalWeight);
+    }
+
+    private static int[] getInitialCommunities(final int vertexCount, final int[] initialCommunities) {
+        final int[] communities = new int[vertexCount];
+        Arrays.setAll(communities, vertex -> vertex);
+        if (initialCommunities != null) {
+            // Every seeded community takes the position of its first vertex so that it can't clash with a lone vertex
+            final Map<Integer, Integer> seeds = new HashMap<>();
+            for (int vertex = 0; vertex < vertexCount; vertex++) {
+                if (initialCommunities[vertex] >= 0) {
+                    final int first = vertex;
+                    communities[vertex] = seeds.computeIfAbsent(initialCommunities[vertex], seed -> first);
+                }
+            }
+        }
+        return communities;
+    }
+
+    /**
+     * Renumber communities from 0 in the order of their first vertex.
+     */
+    private static int[] renumber(final int[] communities) {
+        final int[] numbers = new int[Arrays.stream(communities).max().orElse(-1) + 1];
+        Arrays.fill(numbers, -1);
+        final int[] result = new int[communities.length];
+        int count = 0;
+        for (int vertex = 0; vertex < communities.length; vertex++) {
+            if (numbers[communities[vertex]] < 0) {
+                numbers[communities[vertex]] = count++;
+            }
+            result[vertex] = numbers[communities[vertex]];
+        }
+        return result;
+    }
+
+    private void moveVertices(final Level level, final int[] communities, final double[] totals) {
+        final ThreadLocal<Neighbourhood> neighbourhoods = ThreadLocal.withInitial(() -> new Neighbourhood(level.vertexCount));
+        final Neighbourhood neighbourhood = new Neighbourhood(level.vertexCount);
+        final int[] proposals = new int[level.vertexCount];
+
+        // Only vertices with a neighbour that moved in the last sweep can have a better community
+        boolean[] active = new boolean[level.vertexCount];
+        Arrays.fill(active, true);
+
+        for (int sweep = 0; sweep < MAX_SWEEPS; sweep++) {
+            final boolean[] sweepActive = active;
+            IntStream.range(0, level.vertexCount).parallel()
+                    .forEach(vertex -> proposals[vertex] = sweepActive[vertex] ? getBestCommunity(level, vertex, communities, totals, neighbourhoods.get()) : communities[vertex]);
+
+            // Moves were chosen against the communities at the start of the sweep, so check each again before making it
+            active = new boolean[level.vertexCount];
+            int moves = 0;
+            for (int vertex = 0; vertex < level.vertexCount; vertex++) {
+                if (proposals[vertex] != communities[vertex]) {
+                    final int community = getBestCommunity(level, vertex, communities, totals, neighbourhood);
+                    if (community != communities[vertex]) {
+                        totals[communities[vertex]] -= level.degrees[vertex];
+                        totals[community] += level.degrees[vertex];
+                        communities[vertex] = community;
+                        for (int entry = level.offsets[vertex]; entry < level.offsets[vertex + 1]; entry++) {
+                            active[level.targets[entry]] = true;
+                        }
+                        moves++;
+                    }
+                }
+            }
+
+            if (moves == 0) {
+                break;
+            }
+        }
+    }
+
+    private int getBestCommunity(final Level level, final int vertex, final int[] communities, final double[] totals, final Neighbourhood neighbourhood) {
+        neighbourhood.add(level, vertex, communities);
+
+        final int currentCommunity = communities[vertex];
+        final double degree = level.degrees[vertex];
+        final double scale = resolution * degree / level.totalWeight;
+        int bestCommunity = currentCommunity;
+        double bestGain = neighbourhood.weights[currentCommunity] - scale * (totals[currentCommunity] - degree);
+        for (int index = 0; index < neighbourhood.size; index++) {
+            final int community = neighbourhood.communities[index];
+            final double gain = neighbourhood.weights[community] - scale * totals[community];
+            if (gain > bestGain) {
+                bestGain = gain;
+                bestCommunity = community;
+            }
+        }
+
+        neighbourhood.clear();
+        return bestCommunity;
+    }
+
+    /**
+     * Split each community into sub-communities that are well connected to
+     * the rest of the community, as in the Leiden algorithm. Each
+     * sub-community is numbered by the position of one of its vertices.
+     */
+    private int[] refinePartition(final Level level, final int[] communities, final double[] totals) {
+        final int[] counts = new int[level.vertexCount + 1];
+        for (int vertex = 0; vertex < level.vertexCount; vertex++) {
+            counts[communities[vertex] + 1]++;
+        }
+        for (int community = 0; community < level.vertexCount; community++) {
+            counts[community + 1] += counts[community];
+        }
+        final int[] members = new int[level.vertexCount];
+        final int[] next = Arrays.copyOf(counts, level.vertexCount);
+        for (int vertex = 0; vertex < level.vertexCount; vertex++) {
+            members[next[communities[vertex]]++] = vertex;
+        }
+
+        final int[] partition = new int[level.vertexCount];
+        final double[] partitionTotals = new double[level.vertexCount];
+        final double[] externalWeights = new double[level.vertexCount];
+        final int[] sizes = new int[level.vertexCount];
+        final ThreadLocal<Neighbourhood> neighbourhoods = ThreadLocal.withInitial(() -> new Neighbourhood(level.vertexCount));
+
+        // Communities share no vertices, so each can be refined independently
+        IntStream.range(0, level.vertexCount).parallel().forEach(community -> {
+            final Neighbourhood neighbourhood = neighbourhoods.get();
+            final double total = totals[community];
+            for (int index = counts[community]; index < counts[community + 1]; index++) {
+                final int vertex = members[index];
+                partition[vertex] = vertex;
+                partitionTotals[vertex] = level.degrees[vertex];
+                sizes[vertex] = 1;
+                double externalWeight = 0;
+                for (int entry = level.offsets[vertex]; entry < level.offsets[vertex + 1]; entry++) {
+                    if (communities[level.targets[entry]] == community) {
+                        externalWeight += level.weights[entry];
+                    }
+                }
+                externalWeights[vertex] = externalWeight;
+            }
+
+            for (int index = counts[community]; index < counts[community + 1]; index++) {
+                final int vertex = members[index];
+                final double degree = level.degrees[vertex];
+                final double scale = resolution / level.totalWeight;
+                if (sizes[partition[vertex]] > 1 || externalWeights[vertex] < scale * degree * (total - degree)) {
+                    continue;
+                }
+
+                neighbourhood.add(level, vertex, partition, communities, community);
+                int bestPartition = -1;
+                double bestGain = 0;
+                for (int neighbour = 0; neighbour < neighbourhood.size; neighbour++) {
+                    final int candidate = neighbourhood.communities[neighbour];
+                    final double candidateTotal = partitionTotals[candidate];
+                    if (externalWeights[candidate] >= scale * candidateTotal * (total - candidateTotal)) {
+                        final double gain = neighbourhood.weights[candidate] - scale * degree * candidateTotal;
+                        if (gain >= bestGain) {
+                            bestGain = gain;
+                            bestPartition = candidate;
+                        }
+                    }
+                }
+
+                if (bestPartition >= 0) {
+                    externalWeights[bestPartition] += externalWeights[vertex] - 2 * neighbourhood.weights[bestPartition];
+                    partitionTotals[bestPartition] += degree;
+                    sizes[bestPartition]++;
+                    sizes[vertex] = 0;
+                    partition[vertex] = bestPartition;
+                }
+                neighbourhood.clear();
+            }
+        });
+
+        return partition;
+    }
+
+    private static Level aggregate(final Level level, final int[] partition, final int partitionCount) {
+        final int[] counts = new int[partitionCount + 1];
+        for (int vertex = 0; vertex < level.vertexCount; vertex++) {
+            counts[partition[vertex] + 1]++;
+        }
+        for (int aggregate = 0; aggregate < partitionCount; aggregate++) {
+            counts[aggregate + 1] += counts[aggregate];
+        }
+        final int[] members = new int[level.vertexCount];
+        final int[] next = Arrays.copyOf(counts, partitionCount);
+        for (int vertex = 0; vertex < level.vertexCount; vertex++) {
+            members[next[partition[vertex]]++] = vertex;
+        }
+
+        final int[][] aggregateTargets = new int[partitionCount][];
+        final double[][] aggregateWeights = new double[partitionCount][];
+        final double[] loopWeights = new double[partitionCount];
+        final ThreadLocal<Neighbourhood> neighbourhoods = ThreadLocal.withInitial(() -> new Neighbourhood(partitionCount));
+        IntStream.range(0, partitionCount).parallel().forEach(aggregate -> {
+            final Neighbourhood neighbourhood = neighbourhoods.get();
+            double loopWeight = 0;
+            for (int index = counts[aggregate]; index < counts[aggregate + 1]; index++) {
+                final int vertex = members[index];
+                loopWeight += level.loopWeights[vertex];
+                for (int entry = level.offsets[vertex]; entry < level.offsets[vertex + 1]; entry++) {
+                    final int target = partition[level.targets[entry]];
+                    if (target == aggregate) {
+                        loopWeight += level.weights[entry];
+                    } else {
+                        neighbourhood.add(target, level.weights[entry]);
+                    }
+                }
+            }
+
+            loopWeights[aggregate] = loopWeight;
+            aggregateTargets[aggregate] = Arrays.copyOf(neighbourhood.communities, neighbourhood.size);
+            aggregateWeights[aggregate] = new double[neighbourhood.size];
+            for (int index = 0; index < neighbourhood.size; index++) {
+                aggregateWeights[aggregate][index] = neighbourhood.weights[neighbourhood.communities[index]];
+            }
+            neighbourhood.clear();
+        });
+
+        final int[] offsets = new int[partitionCount + 1];
+        for (int aggregate = 0; aggregate < partitionCount; aggregate++) {
+            offsets[aggregate + 1] = offsets[aggregate] + aggregateTargets[aggregate].length;
+        }
+        final int[] targets = new int[offsets[partitionCount]];
+        final double[] weights = new double[offsets[partitionCount]];
+        for (int aggregate = 0; aggregate < partitionCount; aggregate++) {
+            System.arraycopy(aggregateTargets[aggregate], 0, targets, offsets[aggregate], aggregateTargets[aggregate].length);
+            System.arraycopy(aggregateWeights[aggregate], 0, weights, offsets[aggregate], aggregateWeights[aggregate].length);
+        }
+
+        return new Level(offsets, targets, weights, loopWeights);
+    }
+
+    /**
+     * The graph at one level of aggregation. The loop weight of a vertex is
+     * the total weight of the edges between the vertices it was aggregated
+     * from, counted from both ends.
+     */
+    private static final class Level {
+
+        private final int vertexCount;
+        private final int[] offsets;
+        private final int[] targets;
+        private final double[] weights;
+        private final double[] loopWeights;
+        private final double[] degrees;
+        private final double totalWeight;
+
+        private Level(final int[] offsets, final int[] targets, final double[] weights, final double[] loopWeights) {
+            this.vertexCount = offsets.length - 1;
+            this.offsets = offsets;
+            this.targets = targets;
+            this.weights = weights;
+            this.loopWeights = loopWeights;
+
+            degrees = new double[vertexCount];
+            double total = 0;
+            for (int vertex = 0; vertex < vertexCount; vertex++) {
+                double degree = loopWeights[vertex];
+                for (int entry = offsets[vertex]; entry < offsets[vertex + 1]; entry++) {
+                    degree += weights[entry];
+                }
+                degrees[vertex] = degree;
+                total += degree;
+            }
+            totalWeight = total;
+        }
+    }
+
+    /**
+     * The total weight joining a vertex to each neighbouring community. The
+     * weights are indexed by community, and only the communities in the list
+     * need to be cleared afterwards.
+     */
+    private static final class Neighbourhood {
+
+        private final double[] weights;
+        private final boolean[] present;
+        private final int[] communities;
+        private int size = 0;
+
+        private Neighbourhood(final int communityCount) {
+            weights = new double[communityCount];
+            present = new boolean[communityCount];
+            communities = new int[communityCount];
+        }
+
+        private void add(final int community, final double weight) {
+            if (!present[community]) {
+                present[community] = true;
+                communities[size++] = community;
+            }
+            weights[community] += weight;
+        }
+
+        private void add(final Level level, final int vertex, final int[] vertexCommunities) {
+            for (int entry = level.offsets[vertex]; entry < level.offsets[vertex + 1]; entry++) {
+                add(vertexCommunities[level.targets[entry]], level.weights[entry]);
+            }
+        }
+
+        private void add(final Level level, final int vertex, final int[] vertexCommunities, final int[] restriction, final int restrictTo) {
+            for (int entry = level.offsets[vertex]; entry < level.offsets[vertex + 1]; entry++) {
+                final int target = level.targets[entry];
+                if (target != vertex && restriction[target] == restrictTo && vertexCommunities[target] != vertexCommunities[vertex]) {
+                    add(vertexCommunities[target], level.weights[entry]);
+                }
+            }
+        }
+
+        private void clear() {
+            for (int index = 0; index < size; index++) {
+                weights[communities[index]] = 0;
+                present[communities[index]] = false;
+            }
+            size = 0;
+        }
+    }
+}
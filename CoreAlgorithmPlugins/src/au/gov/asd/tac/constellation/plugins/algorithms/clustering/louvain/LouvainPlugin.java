@@ -0,0 +1,167 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.plugins.algorithms.clustering.louvain;
+
+import au.gov.asd.tac.constellation.graph.Graph;
+import au.gov.asd.tac.constellation.graph.GraphReadMethods;
+import au.gov.asd.tac.constellation.graph.GraphWriteMethods;
+import au.gov.asd.tac.constellation.graph.schema.analytic.concept.AnalyticConcept;
+import au.gov.asd.tac.constellation.graph.schema.analytic.concept.ClusteringConcept;
+import au.gov.asd.tac.constellation.graph.utilities.GraphTopology;
+import au.gov.asd.tac.constellation.plugins.Plugin;
+import au.gov.asd.tac.constellation.plugins.PluginInfo;
+import au.gov.asd.tac.constellation.plugins.PluginInteraction;
+import au.gov.asd.tac.constellation.plugins.PluginNotificationLevel;
+import au.gov.asd.tac.constellation.plugins.parameters.PluginParameter;
+import au.gov.asd.tac.constellation.plugins.parameters.PluginParameters;
+import au.gov.asd.tac.constellation.plugins.parameters.types.BooleanParameterType;
+import au.gov.asd.tac.constellation.plugins.parameters.types.BooleanParameterType.BooleanParameterValue;
+import au.gov.asd.tac.constellation.plugins.parameters.types.FloatParameterType;
+import au.gov.asd.tac.constellation.plugins.parameters.types.FloatParameterType.FloatParameterValue;
+import au.gov.asd.tac.constellation.plugins.templates.PluginTags;
+import au.gov.asd.tac.constellation.plugins.templates.SimpleEditPlugin;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.openide.util.NbBundle;
+import org.openide.util.lookup.ServiceProvider;
+
+/**
+ * Cluster a graph by maximising modularity with the Louvain method, optionally
+ * refining the clusters as in the Leiden algorithm. Transactions are treated
+ * as undirected and loops are ignored.
+ *
+ * @author sirius
+ */
+@ServiceProvider(service = Plugin.class)
+@PluginInfo(tags = {PluginTags.ANALYTIC})
+@NbBundle.Messages("LouvainPlugin=Louvain")
+public class LouvainPlugin extends SimpleEditPlugin {
+
+    private static final Logger LOGGER = Logger.getLogger(LouvainPlugin.class.getName());
+
+    public static final String RESOLUTION_PARAMETER_ID = PluginParameter.buildId(LouvainPlugin.class, "resolution");
+    public static final String REFINE_PARAMETER_ID = PluginParameter.buildId(LouvainPlugin.class, "refine");
+    public static final String WEIGHTED_PARAMETER_ID = PluginParameter.buildId(LouvainPlugin.class, "weighted");
+    public static final String SEEDED_PARAMETER_ID = PluginParameter.buildId(LouvainPlugin.class, "seeded");
+
+    @Override
+    public PluginParameters createParameters() {
+        final PluginParameters parameters = new PluginParameters();
+
+        final PluginParameter<FloatParameterValue> resolutionParameter = FloatParameterType.build(RESOLUTION_PARAMETER_ID);
+        resolutionParameter.setName("Resolution");
+        resolutionParameter.setDescription("Higher values give more, smaller clusters");
+        resolutionParameter.setFloatValue(1.0F);
+        FloatParameterType.setMinimum(resolutionParameter, 0.0F);
+        parameters.addParameter(resolutionParameter);
+
+        final PluginParameter<BooleanParameterValue> refineParameter = BooleanParameterType.build(REFINE_PARAMETER_ID);
+        refineParameter.setName("Refine Clusters");
+        refineParameter.setDescription("Refine clusters using the Leiden algorithm so that every cluster is connected");
+        refineParameter.setBooleanValue(true);
+        parameters.addParameter(refineParameter);
+
+        final PluginParameter<BooleanParameterValue> weightedParameter = BooleanParameterType.build(WEIGHTED_PARAMETER_ID);
+        weightedParameter.setName("Weighted");
+        weightedParameter.setDescription("Weight each transaction by its Weight attribute rather than counting it once");
+        weightedParameter.setBooleanValue(false);
+        parameters.addParameter(weightedParameter);
+
+        final PluginParameter<BooleanParameterValue> seededParameter = BooleanParameterType.build(SEEDED_PARAMETER_ID);
+        seededParameter.setName("Start From Existing Clusters");
+        seededParameter.setDescription("Start each vertex in the Louvain cluster it is already in, rather than in a cluster of its own");
+        seededParameter.setBooleanValue(false);
+        parameters.addParameter(seededParameter);
+
+        return parameters;
+    }
+
+    @Override
+    public void edit(final GraphWriteMethods graph, final PluginInteraction interaction, final PluginParameters parameters) throws InterruptedException {
+        final float resolution = parameters.getFloatValue(RESOLUTION_PARAMETER_ID);
+        final boolean refine = parameters.getBooleanValue(REFINE_PARAMETER_ID);
+        final boolean weighted = parameters.getBooleanValue(WEIGHTED_PARAMETER_ID);
+        final boolean seeded = parameters.getBooleanValue(SEEDED_PARAMETER_ID);
+
+        final int vertexCount = graph.getVertexCount();
+        if (vertexCount <= 0) {
+            interaction.notify(PluginNotificationLevel.ERROR, "The graph must have at least one vertex to run clustering on");
+            LOGGER.log(Level.WARNING, "{0} run on Empty Graph", Bundle.LouvainPlugin());
+            return;
+        }
+
+        final int clusterAttribute = ClusteringConcept.VertexAttribute.LOUVAIN_CLUSTER.ensure(graph);
+        final int weightAttribute = weighted ? AnalyticConcept.TransactionAttribute.WEIGHT.get(graph) : Graph.NOT_FOUND;
+
+        final int[] offsets;
+        final int[] targets;
+        final float[] weights;
+        if (weightAttribute == Graph.NOT_FOUND) {
+            final GraphTopology.Adjacency neighbours = GraphTopology.of(graph).getNeighbours();
+            offsets = neighbours.getOffsets();
+            targets = neighbours.getTargets();
+            weights = neighbours.getWeights();
+        } else {
+            offsets = new int[vertexCount + 1];
+            int entryCount = 0;
+            for (int position = 0; position < vertexCount; position++) {
+                entryCount += graph.getVertexLinkCount(graph.getVertex(position));
+            }
+            targets = new int[entryCount];
+            weights = new float[entryCount];
+            int entry = 0;
+            for (int position = 0; position < vertexCount; position++) {
+                offsets[position] = entry;
+                final int vertexId = graph.getVertex(position);
+                final int linkCount = graph.getVertexLinkCount(vertexId);
+                for (int linkPosition = 0; linkPosition < linkCount; linkPosition++) {
+                    final int linkId = graph.getVertexLink(vertexId, linkPosition);
+                    final int neighbourId = graph.getLinkHighVertex(linkId) == vertexId ? graph.getLinkLowVertex(linkId) : graph.getLinkHighVertex(linkId);
+                    final float weight = getLinkWeight(graph, linkId, weightAttribute);
+                    if (neighbourId != vertexId && weight > 0) {
+                        targets[entry] = graph.getVertexPosition(neighbourId);
+                        weights[entry] = weight;
+                        entry++;
+                    }
+                }
+            }
+            offsets[vertexCount] = entry;
+        }
+
+        int[] initialClusters = null;
+        if (seeded) {
+            initialClusters = new int[vertexCount];
+            for (int position = 0; position < vertexCount; position++) {
+                initialClusters[position] = graph.getIntValue(clusterAttribute, graph.getVertex(position));
+            }
+        }
+
+        final int[] clusters = new Louvain(resolution, refine).cluster(offsets, targets, weights, initialClusters);
+
+        for (int position = 0; position < vertexCount; position++) {
+            graph.setIntValue(clusterAttribute, graph.getVertex(position), clusters[position]);
+        }
+    }
+
+    private static float getLinkWeight(final GraphReadMethods graph, final int linkId, final int weightAttribute) {
+        float weight = 0;
+        final int transactionCount = graph.getLinkTransactionCount(linkId);
+        for (int transactionPosition = 0; transactionPosition < transactionCount; transactionPosition++) {
+            weight += Math.max(0, graph.getFloatValue(weightAttribute, graph.getLinkTransaction(linkId, transactionPosition)));
+        }
+        return weight;
+    }
+}
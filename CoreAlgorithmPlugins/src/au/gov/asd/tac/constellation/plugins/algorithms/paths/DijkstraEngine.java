@@ -0,0 +1,649 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.plugins.algorithms.paths;
+
+import au.gov.asd.tac.constellation.graph.Graph;
+import au.gov.asd.tac.constellation.graph.GraphConstants;
+import au.gov.asd.tac.constellation.graph.GraphReadMethods;
+import au.gov.asd.tac.constellation.graph.utilities.GraphTopology;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Finds shortest paths between vertices using Dijkstra's algorithm.
+ * <p>
+ * The graph is held in compressed sparse row form, along with its reverse, and
+ * the length of each entry. Each search keeps its distances in a primitive
+ * array and its frontier in an indexed 4-ary heap, and is reset by
+ * incrementing a version number rather than by clearing its arrays, so a
+ * search allocates nothing once its working arrays have been created.
+ * <p>
+ * A query from a source to a target searches forwards from the source and
+ * backwards from the target at the same time, stopping when the two frontiers
+ * can no longer improve the best path found. When a source has several targets
+ * and these searches have together settled as many vertices as the graph has,
+ * the remaining targets are found by a single search forwards from the source.
+ * Queries from several sources are run in parallel on the common fork-join
+ * pool, each thread keeping its own working arrays.
+ * <p>
+ * Rather than listing every shortest path, which can take exponential space,
+ * the union of the vertices and entries on every shortest path is returned.
+ *
+ * @author sirius
+ */
+public class DijkstraEngine {
+
+    private static final int ARITY = 4;
+    private static final double TOLERANCE = 1E-9;
+
+    // two frontiers of a double and four ints per vertex, plus the marks and stack
+    private static final long SEARCH_BYTES_PER_VERTEX = 2 * (8 + 4 * 4) + 2 * 4;
+
+    private final int vertexCount;
+    private final int[] offsets;
+    private final int[] targets;
+    private final double[] lengths;
+    private final int[] reverseOffsets;
+    private final int[] reverseTargets;
+    private final int[] reverseEntries;
+
+    /**
+     * The vertices and entries that lie on at least one shortest path.
+     */
+    public static final class Paths {
+
+        private final BitSet vertices;
+        private final BitSet entries;
+
+        private Paths(final BitSet vertices, final BitSet entries) {
+            this.vertices = vertices;
+            this.entries = entries;
+        }
+
+        /**
+         * The positions of the vertices on the paths, including the sources
+         * and targets of the paths.
+         *
+         * @return the positions of the vertices on the paths.
+         */
+        public BitSet getVertices() {
+            return vertices;
+        }
+
+        /**
+         * The entries of the graph on the paths.
+         *
+         * @return the entries on the paths.
+         */
+        public BitSet getEntries() {
+            return entries;
+        }
+    }
+
+    /**
+     * Create an engine from the neighbours of each vertex in compressed sparse
+     * row form.
+     *
+     * @param offsets the offset of the first neighbour of each vertex,
+     * followed by the total number of neighbours.
+     * @param targets the position of each neighbour.
+     * @param lengths the length of each entry, which cannot be negative, or
+     * null if every entry has a length of 1.
+     */
+    public DijkstraEngine(final int[] offsets, final int[] targets, final double[] lengths) {
+        this.vertexCount = offsets.length - 1;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.lengths = lengths;
+
+        reverseOffsets = new int[vertexCount + 1];
+        for (final int target : targets) {
+            reverseOffsets[target + 1]++;
+        }
+        for (int position = 0; position < vertexCount; position++) {
+            reverseOffsets[position + 1] += reverseOffsets[position];
+        }
+        reverseTargets = new int[targets.length];
+        reverseEntries = new int[targets.length];
+        final int[] next = Arrays.copyOf(reverseOffsets, vertexCount);
+        for (int position = 0; position < vertexCount; position++) {
+            for (int entry = offsets[position]; entry < offsets[position + 1]; entry++) {
+                final int reverseEntry = next[targets[entry]]++;
+                reverseTargets[reverseEntry] = position;
+                reverseEntries[reverseEntry] = entry;
+            }
+        }
+    }
+
+    /**
+     * Create an engine for a graph.
+     * <p>
+     * When a length attribute is given, the length of each entry is the
+     * shortest length of the transactions it follows. Lengths less than zero
+     * are treated as zero, and missing lengths are treated as 1.
+     *
+     * @param graph the graph.
+     * @param followDirection if true, only follow outgoing directed
+     * transactions, otherwise follow every transaction in either direction.
+     * @param lengthAttribute a numeric transaction attribute holding the
+     * length of each transaction, or {@link Graph#NOT_FOUND} to count the
+     * number of hops along each path.
+     * @return an engine for the graph.
+     */
+    public static DijkstraEngine of(final GraphReadMethods graph, final boolean followDirection, final int lengthAttribute) {
+        final GraphTopology topology = GraphTopology.of(graph);
+        final GraphTopology.Adjacency adjacency = followDirection
+                ? topology.getAdjacency(false, true, false)
+                : topology.getNeighbours();
+        final int[] offsets = adjacency.getOffsets();
+        final int[] targets = adjacency.getTargets();
+        if (lengthAttribute == Graph.NOT_FOUND) {
+            return new DijkstraEngine(offsets, targets, null);
+        }
+
+        final double[] lengths = new double[targets.length];
+        for (int position = 0; position < offsets.length - 1; position++) {
+            final int vxId = topology.getVertexId(position);
+            for (int entry = offsets[position]; entry < offsets[position + 1]; entry++) {
+                final int linkId = graph.getLink(vxId, topology.getVertexId(targets[entry]));
+                double length = Double.POSITIVE_INFINITY;
+                final int transactionCount = graph.getLinkTransactionCount(linkId);
+                for (int transactionPosition = 0; transactionPosition < transactionCount; transactionPosition++) {
+                    final int txId = graph.getLinkTransaction(linkId, transactionPosition);
+                    if (followDirection && (graph.getTransactionDirection(txId) == GraphConstants.FLAT || graph.getTransactionSourceVertex(txId) != vxId)) {
+                        continue;
+                    }
+                    final double value = graph.getDoubleValue(lengthAttribute, txId);
+                    length = Math.min(length, Double.isNaN(value) ? 1 : Math.max(0, value));
+                }
+                lengths[entry] = length;
+            }
+        }
+        return new DijkstraEngine(offsets, targets, lengths);
+    }
+
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    /**
+     * The position of the vertex an entry starts from.
+     *
+     * @param entry the entry.
+     * @return the position of the vertex the entry starts from.
+     */
+    public int getEntrySource(final int entry) {
+        int low = 0;
+        int high = vertexCount - 1;
+        while (low < high) {
+            final int middle = (low + high + 1) >>> 1;
+            if (offsets[middle] <= entry) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * The position of the vertex an entry leads to.
+     *
+     * @param entry the entry.
+     * @return the position of the vertex the entry leads to.
+     */
+    public int getEntryTarget(final int entry) {
+        return targets[entry];
+    }
+
+    /**
+     * The length of the shortest path from every vertex to a source.
+     *
+     * @param source the position of the source.
+     * @return the distance to each vertex, indexed by position, which is
+     * infinite for vertices that cannot be reached.
+     */
+    public double[] getDistances(final int source) {
+        final Search search = new Search();
+        final Frontier forward = search.forward;
+        forward.reset();
+        forward.reach(source, 0);
+        while (!forward.isEmpty()) {
+            forward.relax(forward.settle(), null);
+        }
+
+        final double[] distances = new double[vertexCount];
+        for (int position = 0; position < vertexCount; position++) {
+            distances[position] = forward.isReached(position) ? forward.distances[position] : Double.POSITIVE_INFINITY;
+        }
+        return distances;
+    }
+
+    /**
+     * The length of the shortest path from a source to a target, found by
+     * searching from both ends.
+     *
+     * @param source the position of the source.
+     * @param target the position of the target.
+     * @return the length of the shortest path, or infinity if there is none.
+     */
+    public double getDistance(final int source, final int target) {
+        return new Search().searchBothWays(source, target);
+    }
+
+    /**
+     * Find the vertices and entries on every shortest path from each source to
+     * each of its targets. Sources are searched in parallel.
+     *
+     * @param sources the positions of the sources.
+     * @param sourceTargets the positions of the targets of each source.
+     * @return the vertices and entries on the shortest paths.
+     * @throws InterruptedException if the calling thread is interrupted.
+     */
+    public Paths getShortestPaths(final int[] sources, final int[][] sourceTargets) throws InterruptedException {
+        final Thread caller = Thread.currentThread();
+        final AtomicInteger nextSource = new AtomicInteger();
+        final int searcherCount = (int) Math.max(1, Math.min(Math.min(sources.length, ForkJoinPool.getCommonPoolParallelism()), getAffordableSearcherCount()));
+
+        // each searcher takes the next unsearched source until there are none left
+        final Paths paths = IntStream.range(0, searcherCount).parallel()
+                .mapToObj(searcher -> {
+                    final Search search = new Search();
+                    for (int index = nextSource.getAndIncrement(); index < sources.length && !caller.isInterrupted(); index = nextSource.getAndIncrement()) {
+                        search.mark(sources[index], sourceTargets[index]);
+                    }
+                    return new Paths(search.vertices, search.entries);
+                })
+                .reduce((first, second) -> {
+                    first.vertices.or(second.vertices);
+                    first.entries.or(second.entries);
+                    return first;
+                })
+                .orElseGet(() -> new Paths(new BitSet(), new BitSet()));
+
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        return paths;
+    }
+
+    /**
+     * The number of searchers whose working arrays fit in half of the memory
+     * currently available, so that a large graph is searched with fewer
+     * threads rather than running out of memory.
+     */
+    private long getAffordableSearcherCount() {
+        final Runtime runtime = Runtime.getRuntime();
+        final long available = runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+        return available / (2 * Math.max(1, SEARCH_BYTES_PER_VERTEX * vertexCount));
+    }
+
+    private double getLength(final int entry) {
+        return lengths == null ? 1 : lengths[entry];
+    }
+
+    private static boolean isTight(final double distance, final double expected) {
+        return Math.abs(distance - expected) <= TOLERANCE * Math.max(1, Math.abs(expected));
+    }
+
+    /**
+     * One side of a search: the distances reached so far, which vertices have
+     * been settled and the heap of vertices yet to be settled.
+     */
+    private final class Frontier {
+
+        private final int[] frontierOffsets;
+        private final int[] frontierTargets;
+        private final int[] frontierEntries;
+
+        private final double[] distances = new double[vertexCount];
+        private final int[] states = new int[vertexCount];
+        private final int[] heap = new int[vertexCount];
+        private final int[] heapIndices = new int[vertexCount];
+        private final int[] settled = new int[vertexCount];
+        private int heapSize = 0;
+        private int settledCount = 0;
+        private int version = 0;
+
+        private Frontier(final boolean reverse) {
+            this.frontierOffsets = reverse ? reverseOffsets : offsets;
+            this.frontierTargets = reverse ? reverseTargets : targets;
+            this.frontierEntries = reverse ? reverseEntries : null;
+        }
+
+        private void reset() {
+            version++;
+            heapSize = 0;
+            settledCount = 0;
+        }
+
+        // a vertex is reached in this version when its state is 2 * version, and settled when it is one more
+        private boolean isReached(final int position) {
+            return states[position] >= 2 * version;
+        }
+
+        private boolean isSettled(final int position) {
+            return states[position] == 2 * version + 1;
+        }
+
+        private boolean isEmpty() {
+            return heapSize == 0;
+        }
+
+        private double getMinimum() {
+            return heapSize == 0 ? Double.POSITIVE_INFINITY : distances[heap[0]];
+        }
+
+        private void reach(final int position, final double distance) {
+            if (!isReached(position)) {
+                states[position] = 2 * version;
+                distances[position] = distance;
+                heapIndices[position] = heapSize;
+                heap[heapSize++] = position;
+                siftUp(heapIndices[position]);
+            } else if (!isSettled(position) && distance < distances[position]) {
+                distances[position] = distance;
+                siftUp(heapIndices[position]);
+            }
+        }
+
+        private int settle() {
+            final int position = heap[0];
+            heapSize--;
+            if (heapSize > 0) {
+                heap[0] = heap[heapSize];
+                heapIndices[heap[0]] = 0;
+                siftDown(0);
+            }
+            states[position] = 2 * version + 1;
+            settled[settledCount++] = position;
+            return position;
+        }
+
+        /**
+         * Reach the neighbours of a settled vertex, and return the length of
+         * the shortest path through this vertex to a vertex reached by the
+         * other side of the search.
+         */
+        private double relax(final int position, final Frontier other) {
+            double best = Double.POSITIVE_INFINITY;
+            if (other != null && other.isReached(position)) {
+                best = distances[position] + other.distances[position];
+            }
+            for (int frontierEntry = frontierOffsets[position]; frontierEntry < frontierOffsets[position + 1]; frontierEntry++) {
+                final int target = frontierTargets[frontierEntry];
+                final double distance = distances[position] + getLength(getEntry(frontierEntry));
+                reach(target, distance);
+                if (other != null && other.isReached(target)) {
+                    best = Math.min(best, distance + other.distances[target]);
+                }
+            }
+            return best;
+        }
+
+        private int getEntry(final int frontierEntry) {
+            return frontierEntries == null ? frontierEntry : frontierEntries[frontierEntry];
+        }
+
+        private void siftUp(final int index) {
+            final int position = heap[index];
+            final double distance = distances[position];
+            int current = index;
+            while (current > 0) {
+                final int parent = (current - 1) / ARITY;
+                if (distances[heap[parent]] <= distance) {
+                    break;
+                }
+                heap[current] = heap[parent];
+                heapIndices[heap[current]] = current;
+                current = parent;
+            }
+            heap[current] = position;
+            heapIndices[position] = current;
+        }
+
+        private void siftDown(final int index) {
+            final int position = heap[index];
+            final double distance = distances[position];
+            int current = index;
+            while (true) {
+                final int firstChild = current * ARITY + 1;
+                if (firstChild >= heapSize) {
+                    break;
+                }
+                int smallest = firstChild;
+                final int lastChild = Math.min(firstChild + ARITY, heapSize);
+                for (int child = firstChild + 1; child < lastChild; child++) {
+                    if (distances[heap[child]] < distances[heap[smallest]]) {
+                        smallest = child;
+                    }
+                }
+                if (distances[heap[smallest]] >= distance) {
+                    break;
+                }
+                heap[current] = heap[smallest];
+                heapIndices[heap[current]] = current;
+                current = smallest;
+            }
+            heap[current] = position;
+            heapIndices[position] = current;
+        }
+    }
+
+    /**
+     * The working arrays of a single thread, along with the vertices and
+     * entries it has found on shortest paths.
+     */
+    private final class Search {
+
+        private final Frontier forward = new Frontier(false);
+        private Frontier backward = null;
+        private final int[] marks = new int[vertexCount];
+        private final int[] stack = new int[vertexCount];
+        private int markVersion = 0;
+
+        private final BitSet vertices = new BitSet();
+        private final BitSet entries = new BitSet();
+
+        private Frontier getBackward() {
+            if (backward == null) {
+                backward = new Frontier(true);
+            }
+            return backward;
+        }
+
+        /**
+         * Search forwards from the source and backwards from the target,
+         * alternating between the sides with the smaller frontier. The search
+         * stops once the closest vertices on each frontier are together
+         * further apart than the best path, so every vertex closer to either
+         * end than its frontier has been settled.
+         */
+        private double searchBothWays(final int source, final int target) {
+            final Frontier back = getBackward();
+            forward.reset();
+            back.reset();
+            forward.reach(source, 0);
+            back.reach(target, 0);
+            if (source == target) {
+                return 0;
+            }
+
+            double best = Double.POSITIVE_INFINITY;
+            while (!forward.isEmpty() && !back.isEmpty() && forward.getMinimum() + back.getMinimum() <= best) {
+                if (forward.heapSize <= back.heapSize) {
+                    best = Math.min(best, forward.relax(forward.settle(), back));
+                } else {
+                    best = Math.min(best, back.relax(back.settle(), forward));
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Mark the shortest paths from a source to each of its targets. Each
+         * target is searched for from both ends until the searches have
+         * settled as many vertices as a single search forwards could, after
+         * which the remaining targets are found by searching forwards.
+         */
+        private void mark(final int source, final int[] sourceTargets) {
+            int budget = vertexCount;
+            for (int index = 0; index < sourceTargets.length; index++) {
+                if (budget <= 0 && index < sourceTargets.length - 1) {
+                    markForwards(source, sourceTargets, index);
+                    return;
+                }
+                budget -= markBothWays(source, sourceTargets[index]);
+            }
+        }
+
+        /**
+         * Mark the shortest paths from a source to a target, returning the
+         * number of vertices that were settled to find them.
+         */
+        private int markBothWays(final int source, final int target) {
+            final double distance = searchBothWays(source, target);
+            final Frontier back = backward;
+            final int settledCount = forward.settledCount + back.settledCount;
+            if (source == target || distance == Double.POSITIVE_INFINITY) {
+                return settledCount;
+            }
+
+            // find the entries that join a vertex settled forwards to a vertex settled backwards on a shortest path
+            markVersion++;
+            int forwardRoots = 0;
+            final int[] backwardRoots = new int[back.settledCount];
+            int backwardRootCount = 0;
+            for (int index = 0; index < back.settledCount; index++) {
+                final int position = back.settled[index];
+                boolean isRoot = false;
+                if (forward.isSettled(position) && isTight(forward.distances[position] + back.distances[position], distance)) {
+                    isRoot = true;
+                    if (marks[position] != markVersion) {
+                        marks[position] = markVersion;
+                        stack[forwardRoots++] = position;
+                    }
+                }
+                for (int reverseEntry = reverseOffsets[position]; reverseEntry < reverseOffsets[position + 1]; reverseEntry++) {
+                    final int previous = reverseTargets[reverseEntry];
+                    final int entry = reverseEntries[reverseEntry];
+                    if (forward.isSettled(previous) && isTight(forward.distances[previous] + getLength(entry) + back.distances[position], distance)) {
+                        entries.set(entry);
+                        isRoot = true;
+                        if (marks[previous] != markVersion) {
+                            marks[previous] = markVersion;
+                            stack[forwardRoots++] = previous;
+                        }
+                    }
+                }
+                if (isRoot) {
+                    backwardRoots[backwardRootCount++] = position;
+                }
+            }
+            if (forward.isSettled(target) && isTight(forward.distances[target], distance) && marks[target] != markVersion) {
+                marks[target] = markVersion;
+                stack[forwardRoots++] = target;
+            }
+            markPredecessors(forward, forwardRoots, false);
+
+            markVersion++;
+            int backwardCount = 0;
+            for (int index = 0; index < backwardRootCount; index++) {
+                marks[backwardRoots[index]] = markVersion;
+                stack[backwardCount++] = backwardRoots[index];
+            }
+            if (back.isSettled(source) && isTight(back.distances[source], distance) && marks[source] != markVersion) {
+                marks[source] = markVersion;
+                stack[backwardCount++] = source;
+            }
+            markPredecessors(back, backwardCount, true);
+            return settledCount;
+        }
+
+        /**
+         * Search forwards from the source until every target from the given
+         * index has been settled, along with any other vertices at the same
+         * distance as the furthest target, then mark the paths back from each
+         * target.
+         */
+        private void markForwards(final int source, final int[] sourceTargets, final int from) {
+            forward.reset();
+            forward.reach(source, 0);
+            markVersion++;
+            int remaining = 0;
+            for (int index = from; index < sourceTargets.length; index++) {
+                final int target = sourceTargets[index];
+                if (target != source && marks[target] != markVersion) {
+                    marks[target] = markVersion;
+                    remaining++;
+                }
+            }
+
+            double furthest = 0;
+            while (!forward.isEmpty()) {
+                if (remaining == 0 && forward.getMinimum() > furthest) {
+                    break;
+                }
+                final int position = forward.settle();
+                if (marks[position] == markVersion) {
+                    remaining--;
+                    furthest = forward.distances[position];
+                }
+                forward.relax(position, null);
+            }
+
+            markVersion++;
+            int rootCount = 0;
+            for (int index = from; index < sourceTargets.length; index++) {
+                final int target = sourceTargets[index];
+                if (target != source && forward.isSettled(target) && marks[target] != markVersion) {
+                    marks[target] = markVersion;
+                    stack[rootCount++] = target;
+                }
+            }
+            markPredecessors(forward, rootCount, false);
+        }
+
+        /**
+         * Mark every vertex and entry on a shortest path from the start of a
+         * side of the search to each of the vertices on the stack. The vertices
+         * on the stack must already be marked.
+         */
+        private void markPredecessors(final Frontier frontier, final int initialCount, final boolean reverse) {
+            final int[] previousOffsets = reverse ? offsets : reverseOffsets;
+            final int[] previousTargets = reverse ? targets : reverseTargets;
+            int stackSize = initialCount;
+            while (stackSize > 0) {
+                final int position = stack[--stackSize];
+                vertices.set(position);
+                for (int previousEntry = previousOffsets[position]; previousEntry < previousOffsets[position + 1]; previousEntry++) {
+                    final int previous = previousTargets[previousEntry];
+                    final int entry = reverse ? previousEntry : reverseEntries[previousEntry];
+                    if (frontier.isSettled(previous) && isTight(frontier.distances[previous] + getLength(entry), frontier.distances[position])) {
+                        entries.set(entry);
+                        if (marks[previous] != markVersion) {
+                            marks[previous] = markVersion;
+                            stack[stackSize++] = previous;
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
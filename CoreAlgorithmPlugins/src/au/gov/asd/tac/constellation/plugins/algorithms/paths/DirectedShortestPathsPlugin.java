@@ -49,6 +49,7 @@ import org.openide.util.lookup.ServiceProvider;
 public class DirectedShortestPathsPlugin extends SimpleEditPlugin {
 
     public static final String SOURCE_NODE_PARAMETER_ID = PluginParameter.buildId(DirectedShortestPathsPlugin.class, "source_node");
+    public static final String LENGTH_ATTRIBUTE_PARAMETER_ID = PluginParameter.buildId(DirectedShortestPathsPlugin.class, "length_attribute");
     
     private static final Integer SOURCE_NODE_NOT_SET = -1;
     
@@ -63,6 +64,11 @@ public class DirectedShortestPathsPlugin extends SimpleEditPlugin {
         sourceNode.setDescription("The source node is used to dictate the direction");
         params.addParameter(sourceNode);
 
+        final PluginParameter<SingleChoiceParameterValue> lengthAttribute = SingleChoiceParameterType.build(LENGTH_ATTRIBUTE_PARAMETER_ID);
+        lengthAttribute.setName("Length Attribute");
+        lengthAttribute.setDescription("The numeric transaction attribute holding the length of each transaction, or none to find the paths with the fewest transactions");
+        params.addParameter(lengthAttribute);
+
         return params;
     }
 
@@ -73,6 +79,17 @@ public class DirectedShortestPathsPlugin extends SimpleEditPlugin {
         @SuppressWarnings("unchecked") //SOURCE_NODE_PARAMETER is always of type SingleChoiceParameter
         final PluginParameter<SingleChoiceParameterValue> sourceNode = (PluginParameter<SingleChoiceParameterValue>) params.get(SOURCE_NODE_PARAMETER_ID);
         SingleChoiceParameterType.setOptions(sourceNode, Lists.newArrayList(getSelectedNodes(graph).keySet()));        
+
+        @SuppressWarnings("unchecked") //LENGTH_ATTRIBUTE_PARAMETER is always of type SingleChoiceParameter
+        final PluginParameter<SingleChoiceParameterValue> lengthAttribute = (PluginParameter<SingleChoiceParameterValue>) params.get(LENGTH_ATTRIBUTE_PARAMETER_ID);
+        if (graph != null) {
+            final ReadableGraph rg = graph.getReadableGraph();
+            try {
+                SingleChoiceParameterType.setOptions(lengthAttribute, DijkstraServices.getLengthAttributes(rg));
+            } finally {
+                rg.release();
+            }
+        }
     }
     
     /**
@@ -137,7 +154,10 @@ public class DirectedShortestPathsPlugin extends SimpleEditPlugin {
                     verticesToPath.add(0, sourceVertex);
                 }
 
-                final DijkstraServices ds = new DijkstraServices(graph, verticesToPath, true);
+                final String lengthAttributeName = params.get(LENGTH_ATTRIBUTE_PARAMETER_ID).getStringValue();
+                final int lengthAttribute = lengthAttributeName == null ? Graph.NOT_FOUND : graph.getAttribute(GraphElementType.TRANSACTION, lengthAttributeName);
+
+                final DijkstraServices ds = new DijkstraServices(graph, verticesToPath, true, lengthAttribute);
                 ds.queryPaths(true);
             }
         }
@@ -15,13 +15,17 @@
  */
 package au.gov.asd.tac.constellation.plugins.algorithms.paths;
 
+import au.gov.asd.tac.constellation.graph.Graph;
 import au.gov.asd.tac.constellation.graph.GraphWriteMethods;
+import au.gov.asd.tac.constellation.graph.schema.visual.concept.VisualConcept;
 import au.gov.asd.tac.constellation.plugins.PluginInfo;
 import au.gov.asd.tac.constellation.plugins.PluginInteraction;
 import au.gov.asd.tac.constellation.plugins.PluginType;
 import au.gov.asd.tac.constellation.plugins.parameters.PluginParameters;
 import au.gov.asd.tac.constellation.plugins.templates.PluginTags;
 import au.gov.asd.tac.constellation.plugins.templates.SimpleEditPlugin;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * This plugin selects nodes with highest betweenness
@@ -35,6 +39,22 @@ public class ShortestPaths2Plugin extends SimpleEditPlugin {
 
     @Override
     public void edit(final GraphWriteMethods graph, final PluginInteraction interaction, final PluginParameters parameters) throws InterruptedException {
-        SP2Traverse.traverse(graph);
+        final int vxSelectedAttr = VisualConcept.VertexAttribute.SELECTED.get(graph);
+        if (vxSelectedAttr == Graph.NOT_FOUND) {
+            return;
+        }
+
+        final List<Integer> verticesToPath = new ArrayList<>();
+        final int vxCount = graph.getVertexCount();
+        for (int position = 0; position < vxCount; position++) {
+            final int vxId = graph.getVertex(position);
+            if (graph.getBooleanValue(vxSelectedAttr, vxId)) {
+                verticesToPath.add(vxId);
+            }
+        }
+
+        // add the paths to the current selection
+        final DijkstraServices ds = new DijkstraServices(graph, verticesToPath, false);
+        ds.queryPaths(false);
     }
 }
@@ -16,13 +16,18 @@
 package au.gov.asd.tac.constellation.plugins.algorithms.paths;
 
 import au.gov.asd.tac.constellation.graph.Graph;
+import au.gov.asd.tac.constellation.graph.GraphElementType;
 import au.gov.asd.tac.constellation.graph.GraphReadMethods;
 import au.gov.asd.tac.constellation.graph.GraphWriteMethods;
+import au.gov.asd.tac.constellation.graph.ReadableGraph;
 import au.gov.asd.tac.constellation.graph.schema.visual.concept.VisualConcept;
 import au.gov.asd.tac.constellation.plugins.Plugin;
 import au.gov.asd.tac.constellation.plugins.PluginInfo;
 import au.gov.asd.tac.constellation.plugins.PluginInteraction;
+import au.gov.asd.tac.constellation.plugins.parameters.PluginParameter;
 import au.gov.asd.tac.constellation.plugins.parameters.PluginParameters;
+import au.gov.asd.tac.constellation.plugins.parameters.types.SingleChoiceParameterType;
+import au.gov.asd.tac.constellation.plugins.parameters.types.SingleChoiceParameterType.SingleChoiceParameterValue;
 import au.gov.asd.tac.constellation.plugins.templates.PluginTags;
 import au.gov.asd.tac.constellation.plugins.templates.SimpleEditPlugin;
 import java.util.ArrayList;
@@ -40,6 +45,34 @@ import org.openide.util.lookup.ServiceProvider;
 @Messages("ShortestPathsPlugin=Shortest Paths")
 public class ShortestPathsPlugin extends SimpleEditPlugin {
 
+    public static final String LENGTH_ATTRIBUTE_PARAMETER_ID = PluginParameter.buildId(ShortestPathsPlugin.class, "length_attribute");
+
+    @Override
+    public PluginParameters createParameters() {
+        final PluginParameters params = new PluginParameters();
+
+        final PluginParameter<SingleChoiceParameterValue> lengthAttribute = SingleChoiceParameterType.build(LENGTH_ATTRIBUTE_PARAMETER_ID);
+        lengthAttribute.setName("Length Attribute");
+        lengthAttribute.setDescription("The numeric transaction attribute holding the length of each transaction, or none to find the paths with the fewest transactions");
+        params.addParameter(lengthAttribute);
+
+        return params;
+    }
+
+    @Override
+    public void updateParameters(final Graph graph, final PluginParameters parameters) {
+        @SuppressWarnings("unchecked") //LENGTH_ATTRIBUTE_PARAMETER is always of type SingleChoiceParameter
+        final PluginParameter<SingleChoiceParameterValue> lengthAttribute = (PluginParameter<SingleChoiceParameterValue>) parameters.getParameters().get(LENGTH_ATTRIBUTE_PARAMETER_ID);
+        if (graph != null) {
+            final ReadableGraph rg = graph.getReadableGraph();
+            try {
+                SingleChoiceParameterType.setOptions(lengthAttribute, DijkstraServices.getLengthAttributes(rg));
+            } finally {
+                rg.release();
+            }
+        }
+    }
+
     /**
      * Returns true if the provided <code>Graph</code> has more than one vertex
      * selected.
@@ -91,7 +124,10 @@ public class ShortestPathsPlugin extends SimpleEditPlugin {
                     }
                 }
 
-                final DijkstraServices ds = new DijkstraServices(graph, verticesToPath, false);
+                final String lengthAttributeName = parameters.getStringValue(LENGTH_ATTRIBUTE_PARAMETER_ID);
+                final int lengthAttribute = lengthAttributeName == null ? Graph.NOT_FOUND : graph.getAttribute(GraphElementType.TRANSACTION, lengthAttributeName);
+
+                final DijkstraServices ds = new DijkstraServices(graph, verticesToPath, false, lengthAttribute);
                 ds.queryPaths(true);
             }
         }
@@ -27,12 +27,11 @@ import au.gov.asd.tac.constellation.plugins.parameters.PluginParameter;
 import au.gov.asd.tac.constellation.plugins.parameters.PluginParameters;
 import au.gov.asd.tac.constellation.plugins.parameters.types.BooleanParameterType;
 import au.gov.asd.tac.constellation.plugins.parameters.types.BooleanParameterType.BooleanParameterValue;
+import au.gov.asd.tac.constellation.plugins.parameters.types.IntegerParameterType;
+import au.gov.asd.tac.constellation.plugins.parameters.types.IntegerParameterType.IntegerParameterValue;
 import au.gov.asd.tac.constellation.plugins.templates.PluginTags;
 import au.gov.asd.tac.constellation.plugins.templates.SimpleEditPlugin;
 import au.gov.asd.tac.constellation.utilities.datastructure.Tuple;
-import java.util.BitSet;
-import java.util.HashMap;
-import java.util.Map;
 import org.openide.util.NbBundle.Messages;
 import org.openide.util.lookup.ServiceProvider;
 
@@ -59,6 +58,7 @@ public class BetweennessCentralityPlugin extends SimpleEditPlugin {
     public static final String NORMALISE_AVAILABLE_PARAMETER_ID = PluginParameter.buildId(BetweennessCentralityPlugin.class, "normalise_available");
     public static final String NORMALISE_CONNECTED_COMPONENTS_PARAMETER_ID = PluginParameter.buildId(BetweennessCentralityPlugin.class, "normalise_connected_components");
     public static final String SELECTED_ONLY_PARAMETER_ID = PluginParameter.buildId(BetweennessCentralityPlugin.class, "selected_only");
+    public static final String PIVOT_COUNT_PARAMETER_ID = PluginParameter.buildId(BetweennessCentralityPlugin.class, "pivot_count");
 
     @Override
     public PluginParameters createParameters() {
@@ -101,6 +101,13 @@ public class BetweennessCentralityPlugin extends SimpleEditPlugin {
         selectedOnlyParameter.setName("Selected Only");
         selectedOnlyParameter.setDescription("Calculate using only selected elements");
         parameters.addParameter(selectedOnlyParameter);
+
+        final PluginParameter<IntegerParameterValue> pivotCountParameter = IntegerParameterType.build(PIVOT_COUNT_PARAMETER_ID);
+        pivotCountParameter.setName("Sample Size");
+        pivotCountParameter.setDescription("Approximate scores using paths from this many randomly sampled vertices, or 0 to use paths from every vertex");
+        pivotCountParameter.setIntegerValue(0);
+        IntegerParameterType.setMinimum(pivotCountParameter, 0);
+        parameters.addParameter(pivotCountParameter);
         
         parameters.addController(NORMALISE_POSSIBLE_PARAMETER_ID, (master, params, change) -> {
             if (change == ParameterChange.VALUE && master.getBooleanValue()) {
@@ -128,26 +135,25 @@ public class BetweennessCentralityPlugin extends SimpleEditPlugin {
         final boolean normaliseByAvailable = parameters.getBooleanValue(NORMALISE_AVAILABLE_PARAMETER_ID);
         final boolean normaliseConnectedComponents = parameters.getBooleanValue(NORMALISE_CONNECTED_COMPONENTS_PARAMETER_ID);
         final boolean selectedOnly = parameters.getBooleanValue(SELECTED_ONLY_PARAMETER_ID);
+        final int pivotCount = parameters.getIntegerValue(PIVOT_COUNT_PARAMETER_ID);
 
         assert !normaliseByPossible || !normaliseByAvailable : "You should only select one method of normalisation";
 
         // calculate betweenness scores
-        final Tuple<BitSet[], float[]> scoreResult = PathScoringUtilities.calculateScores(graph, ScoreType.BETWEENNESS, includeConnectionsIn, includeConnectionsOut, treatUndirectedBidirectional, selectedOnly);
-        final BitSet[] subgraphs = scoreResult.getFirst();
+        final Tuple<int[], float[]> scoreResult = ShortestPathEngine.calculateScores(graph, ScoreType.BETWEENNESS, includeConnectionsIn, includeConnectionsOut, treatUndirectedBidirectional, selectedOnly, pivotCount);
+        final int[] components = scoreResult.getFirst();
         final float[] betweennesses = scoreResult.getSecond();
 
         // calculate the maximum betweenness
         float maxBetweenness = 0;
-        final Map<BitSet, Float> maxBetweennessConnectedComponents = new HashMap<>();
         final int vertexCount = graph.getVertexCount();
+        final float[] maxBetweennessConnectedComponents = new float[vertexCount];
+        final int[] connectedComponentSizes = new int[vertexCount];
         for (int vertexPosition = 0; vertexPosition < vertexCount; vertexPosition++) {
             final float betweenness = betweennesses[vertexPosition];
-            final BitSet subgraph = subgraphs[vertexPosition];
-            if (!maxBetweennessConnectedComponents.containsKey(subgraph)) {
-                maxBetweennessConnectedComponents.put(subgraph, betweenness);
-            } else {
-                maxBetweennessConnectedComponents.put(subgraph, Math.max(betweenness, maxBetweennessConnectedComponents.get(subgraph)));
-            }
+            final int component = components[vertexPosition];
+            maxBetweennessConnectedComponents[component] = Math.max(betweenness, maxBetweennessConnectedComponents[component]);
+            connectedComponentSizes[component]++;
             maxBetweenness = Math.max(betweenness, maxBetweenness);
         }
 
@@ -167,14 +173,14 @@ public class BetweennessCentralityPlugin extends SimpleEditPlugin {
             final float betweennessAttributeValue;
             if (normaliseByPossible) {
                 if (normaliseConnectedComponents) {
-                    final float subgraphVertexCount = subgraphs[vertexPosition].cardinality();
+                    final float subgraphVertexCount = connectedComponentSizes[components[vertexPosition]];
                     betweennessAttributeValue = betweennesses[vertexPosition] / (((subgraphVertexCount - 1) * (subgraphVertexCount - 2)) / 2);
                 } else {
                     betweennessAttributeValue = betweennesses[vertexPosition] / (((vertexCount - 1) * (vertexCount - 2)) / 2F);
                 }
             } else if (normaliseByAvailable && maxBetweenness > 0) {
                 if (normaliseConnectedComponents) {
-                    final float maxBetweennessConnectedComponent = maxBetweennessConnectedComponents.get(subgraphs[vertexPosition]);
+                    final float maxBetweennessConnectedComponent = maxBetweennessConnectedComponents[components[vertexPosition]];
                     betweennessAttributeValue = betweennesses[vertexPosition] / maxBetweennessConnectedComponent;
                 } else {
                     betweennessAttributeValue = betweennesses[vertexPosition] / maxBetweenness;
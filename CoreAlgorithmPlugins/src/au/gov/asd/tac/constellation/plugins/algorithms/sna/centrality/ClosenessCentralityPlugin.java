@@ -27,12 +27,11 @@ import au.gov.asd.tac.constellation.plugins.parameters.PluginParameter;
 import au.gov.asd.tac.constellation.plugins.parameters.PluginParameters;
 import au.gov.asd.tac.constellation.plugins.parameters.types.BooleanParameterType;
 import au.gov.asd.tac.constellation.plugins.parameters.types.BooleanParameterType.BooleanParameterValue;
+import au.gov.asd.tac.constellation.plugins.parameters.types.IntegerParameterType;
+import au.gov.asd.tac.constellation.plugins.parameters.types.IntegerParameterType.IntegerParameterValue;
 import au.gov.asd.tac.constellation.plugins.templates.PluginTags;
 import au.gov.asd.tac.constellation.plugins.templates.SimpleEditPlugin;
 import au.gov.asd.tac.constellation.utilities.datastructure.Tuple;
-import java.util.BitSet;
-import java.util.HashMap;
-import java.util.Map;
 import org.openide.util.NbBundle;
 import org.openide.util.lookup.ServiceProvider;
 
@@ -62,6 +61,7 @@ public class ClosenessCentralityPlugin extends SimpleEditPlugin {
     public static final String NORMALISE_AVAILABLE_PARAMETER_ID = PluginParameter.buildId(ClosenessCentralityPlugin.class, "normalise_available");
     public static final String NORMALISE_CONNECTED_COMPONENTS_PARAMETER_ID = PluginParameter.buildId(ClosenessCentralityPlugin.class, "normalise_connected_components");
     public static final String SELECTED_ONLY_PARAMETER_ID = PluginParameter.buildId(ClosenessCentralityPlugin.class, "selected_only");
+    public static final String PIVOT_COUNT_PARAMETER_ID = PluginParameter.buildId(ClosenessCentralityPlugin.class, "pivot_count");
 
     @Override
     public PluginParameters createParameters() {
@@ -110,6 +110,13 @@ public class ClosenessCentralityPlugin extends SimpleEditPlugin {
         selectedOnlyParameter.setName("Selected Only");
         selectedOnlyParameter.setDescription("Calculate using only selected elements");
         parameters.addParameter(selectedOnlyParameter);
+
+        final PluginParameter<IntegerParameterValue> pivotCountParameter = IntegerParameterType.build(PIVOT_COUNT_PARAMETER_ID);
+        pivotCountParameter.setName("Sample Size");
+        pivotCountParameter.setDescription("Approximate scores using paths to this many randomly sampled vertices, or 0 to use paths to every vertex");
+        pivotCountParameter.setIntegerValue(0);
+        IntegerParameterType.setMinimum(pivotCountParameter, 0);
+        parameters.addParameter(pivotCountParameter);
         
         parameters.addController(NORMALISE_POSSIBLE_PARAMETER_ID, (master, params, change) -> {
             if (change == ParameterChange.VALUE && master.getBooleanValue()) {
@@ -138,37 +145,29 @@ public class ClosenessCentralityPlugin extends SimpleEditPlugin {
         final boolean normaliseByAvailable = parameters.getBooleanValue(NORMALISE_AVAILABLE_PARAMETER_ID);
         final boolean normaliseConnectedComponents = parameters.getBooleanValue(NORMALISE_CONNECTED_COMPONENTS_PARAMETER_ID);
         final boolean selectedOnly = parameters.getBooleanValue(SELECTED_ONLY_PARAMETER_ID);
+        final int pivotCount = parameters.getIntegerValue(PIVOT_COUNT_PARAMETER_ID);
 
         final int selectedAttributeId = VisualConcept.VertexAttribute.SELECTED.get(graph);
 
         assert !normaliseByPossible || !normaliseByAvailable : "You should only select one method of normalisation";
 
         // calculate closeness scores
-        final BitSet[] subgraphs;
-        final float[] closenesses;
-        if (harmonic) {
-            final Tuple<BitSet[], float[]> scoreResult = PathScoringUtilities.calculateScores(graph, PathScoringUtilities.ScoreType.HARMONIC_CLOSENESS, includeConnectionsIn, includeConnectionsOut, treatUndirectedBidirectional, selectedOnly);
-            subgraphs = scoreResult.getFirst();
-            closenesses = scoreResult.getSecond();
-        } else {
-            final Tuple<BitSet[], float[]> scoreResult = PathScoringUtilities.calculateScores(graph, PathScoringUtilities.ScoreType.CLOSENESS, includeConnectionsIn, includeConnectionsOut, treatUndirectedBidirectional, selectedOnly);
-            subgraphs = scoreResult.getFirst();
-            closenesses = scoreResult.getSecond();
-        }
+        final PathScoringUtilities.ScoreType scoreType = harmonic ? PathScoringUtilities.ScoreType.HARMONIC_CLOSENESS : PathScoringUtilities.ScoreType.CLOSENESS;
+        final Tuple<int[], float[]> scoreResult = ShortestPathEngine.calculateScores(graph, scoreType, includeConnectionsIn, includeConnectionsOut, treatUndirectedBidirectional, selectedOnly, pivotCount);
+        final int[] components = scoreResult.getFirst();
+        final float[] closenesses = scoreResult.getSecond();
 
         // calculate the maximum closeness
         float maxCloseness = 0F;
-        final Map<BitSet, Float> maxClosenessConnectedComponents = new HashMap<>();
-        final Map<BitSet, Integer> connectedComponentSize = new HashMap<>();
         final int vertexCount = graph.getVertexCount();
+        final float[] maxClosenessConnectedComponents = new float[vertexCount];
+        final int[] connectedComponentSizes = new int[vertexCount];
         for (int vertexPosition = 0; vertexPosition < vertexCount; vertexPosition++) {
             final float closeness = closenesses[vertexPosition];
-            final BitSet subgraph = subgraphs[vertexPosition];
-            if (!maxClosenessConnectedComponents.containsKey(subgraph)) {
-                maxClosenessConnectedComponents.put(subgraph, closeness);
-                connectedComponentSize.put(subgraph, PathScoringUtilities.subgraphSize(graph, subgraph, selectedOnly));
-            } else {
-                maxClosenessConnectedComponents.put(subgraph, Math.max(closeness, maxClosenessConnectedComponents.get(subgraph)));
+            final int component = components[vertexPosition];
+            maxClosenessConnectedComponents[component] = Math.max(closeness, maxClosenessConnectedComponents[component]);
+            if (!selectedOnly || graph.getBooleanValue(selectedAttributeId, graph.getVertex(vertexPosition))) {
+                connectedComponentSizes[component]++;
             }
             maxCloseness = Math.max(closeness, maxCloseness);
         }
@@ -191,7 +190,7 @@ public class ClosenessCentralityPlugin extends SimpleEditPlugin {
         for (int vertexPosition = 0; vertexPosition < vertexCount; vertexPosition++) {
             final int vertexId = graph.getVertex(vertexPosition);
             if (normaliseByPossible) {
-                int subgraphSize = connectedComponentSize.get(subgraphs[vertexPosition]);
+                int subgraphSize = connectedComponentSizes[components[vertexPosition]];
                 final boolean vertexSelected = graph.getBooleanValue(selectedAttributeId, vertexId);
                 if (!selectedOnly || vertexSelected) {
                     subgraphSize -= 1;
@@ -205,7 +204,7 @@ public class ClosenessCentralityPlugin extends SimpleEditPlugin {
                 }
             } else if (normaliseByAvailable && maxCloseness > 0) {
                 if (normaliseConnectedComponents) {
-                    final float maxClosenessConnectedComponent = maxClosenessConnectedComponents.get(subgraphs[vertexPosition]);
+                    final float maxClosenessConnectedComponent = maxClosenessConnectedComponents[components[vertexPosition]];
                     graph.setFloatValue(closenessAttribute, vertexId, closenesses[vertexPosition] / maxClosenessConnectedComponent);
                 } else {
                     graph.setFloatValue(closenessAttribute, vertexId, closenesses[vertexPosition] / maxCloseness);
@@ -15,8 +15,10 @@
  */
 package au.gov.asd.tac.constellation.plugins.algorithms.sna.centrality;
 
+import au.gov.asd.tac.constellation.graph.Graph;
 import au.gov.asd.tac.constellation.graph.GraphWriteMethods;
 import au.gov.asd.tac.constellation.graph.schema.attribute.SchemaAttribute;
+import au.gov.asd.tac.constellation.graph.utilities.GraphTopology;
 import au.gov.asd.tac.constellation.plugins.Plugin;
 import au.gov.asd.tac.constellation.plugins.PluginInfo;
 import au.gov.asd.tac.constellation.plugins.PluginInteraction;
@@ -32,7 +34,6 @@ import au.gov.asd.tac.constellation.plugins.parameters.types.IntegerParameterTyp
 import au.gov.asd.tac.constellation.plugins.parameters.types.IntegerParameterType.IntegerParameterValue;
 import au.gov.asd.tac.constellation.plugins.templates.PluginTags;
 import au.gov.asd.tac.constellation.plugins.templates.SimpleEditPlugin;
-import java.util.Arrays;
 import org.openide.util.NbBundle.Messages;
 import org.openide.util.lookup.ServiceProvider;
 
@@ -54,6 +55,7 @@ public class EigenvectorCentralityPlugin extends SimpleEditPlugin {
     public static final String EPSILON_PARAMETER_ID = PluginParameter.buildId(EigenvectorCentralityPlugin.class, "epsilon");
     public static final String NORMALISE_POSSIBLE_PARAMETER_ID = PluginParameter.buildId(EigenvectorCentralityPlugin.class, "normalise_possible");
     public static final String NORMALISE_AVAILABLE_PARAMETER_ID = PluginParameter.buildId(EigenvectorCentralityPlugin.class, "normalise_available");
+    public static final String WARM_START_PARAMETER_ID = PluginParameter.buildId(EigenvectorCentralityPlugin.class, "warm_start");
 
     @Override
     public PluginParameters createParameters() {
@@ -81,6 +83,12 @@ public class EigenvectorCentralityPlugin extends SimpleEditPlugin {
         normaliseByAvailableParameter.setName("Normalise By Max Available Score");
         normaliseByAvailableParameter.setDescription("Normalise calculated scores by the maximum calculated score");
         parameters.addParameter(normaliseByAvailableParameter);
+
+        final PluginParameter<BooleanParameterValue> warmStartParameter = BooleanParameterType.build(WARM_START_PARAMETER_ID);
+        warmStartParameter.setName("Start From Previous Scores");
+        warmStartParameter.setDescription("Start from the scores of a previous run, which converges in fewer iterations after small changes to the graph");
+        warmStartParameter.setBooleanValue(false);
+        parameters.addParameter(warmStartParameter);
         
         parameters.addController(NORMALISE_POSSIBLE_PARAMETER_ID, (master, params, change) -> {
             if (change == ParameterChange.VALUE && master.getBooleanValue()) {
@@ -105,56 +113,23 @@ public class EigenvectorCentralityPlugin extends SimpleEditPlugin {
         final float epsilon = parameters.getFloatValue(EPSILON_PARAMETER_ID);
         final boolean normaliseByPossible = parameters.getBooleanValue(NORMALISE_POSSIBLE_PARAMETER_ID);
         final boolean normaliseByAvailable = parameters.getBooleanValue(NORMALISE_AVAILABLE_PARAMETER_ID);
+        final boolean warmStart = parameters.getBooleanValue(WARM_START_PARAMETER_ID);
 
         assert !normaliseByPossible || !normaliseByAvailable : "You should only select one method of normalisation";
 
-        // initialise eigenvector values
+        // initialise eigenvector values, optionally from a previous run
         final int vertexCount = graph.getVertexCount();
-        final double[] tempEigenvectors = new double[graph.getVertexCapacity()];
-        final double[] eigenvectors = new double[graph.getVertexCapacity()];
-        Arrays.fill(eigenvectors, (double) 1 / vertexCount);
+        final int eigenvectorAttribute = EIGENVECTOR_ATTRIBUTE.ensure(graph);
+        final double[] initialEigenvectors = PowerIterationEngine.getInitialScores(graph, warmStart ? eigenvectorAttribute : Graph.NOT_FOUND, 1.0 / vertexCount);
 
         // calculate eigenvector for each vertex
-        for (int iteration = 0; iteration < iterations; iteration++) {
-            Arrays.fill(tempEigenvectors, 0);
-
-            double sumEigenvector = 0;
-            double maxEigenvector = 0;
-            double delta = 0;
-            for (int vertexPosition = 0; vertexPosition < vertexCount; vertexPosition++) {
-                final int vertexId = graph.getVertex(vertexPosition);
-
-                final int neighbourCount = graph.getVertexNeighbourCount(vertexId);
-                for (int vertexNeighbourPosition = 0; vertexNeighbourPosition < neighbourCount; vertexNeighbourPosition++) {
-                    final int neighbourId = graph.getVertexNeighbour(vertexId, vertexNeighbourPosition);
-                    final int neighbourPosition = graph.getVertexPosition(neighbourId);
-                    if (vertexId != neighbourId) {
-                        tempEigenvectors[vertexPosition] += eigenvectors[neighbourPosition];
-                    }
-                }
-
-                sumEigenvector += tempEigenvectors[vertexPosition];
-                maxEigenvector = Math.max(tempEigenvectors[vertexPosition], maxEigenvector);
-                delta += Math.abs(eigenvectors[vertexPosition] - tempEigenvectors[vertexPosition]);
-            }
-
-            for (int vertexPosition = 0; vertexPosition < vertexCount; vertexPosition++) {
-                if (normaliseByPossible) {
-                    eigenvectors[vertexPosition] = tempEigenvectors[vertexPosition] / sumEigenvector;
-                } else if (normaliseByAvailable && maxEigenvector > 0) {
-                    eigenvectors[vertexPosition] = tempEigenvectors[vertexPosition] / maxEigenvector;
-                } else {
-                    eigenvectors[vertexPosition] = tempEigenvectors[vertexPosition];
-                }
-            }
-
-            if (delta < epsilon) {
-                break;
-            }
-        }
+        final PowerIterationEngine.Step step = new PowerIterationEngine.Step(GraphTopology.of(graph).getNeighbours(), false)
+                .setNormalisation(normaliseByPossible ? PowerIterationEngine.Normalisation.SUM
+                        : normaliseByAvailable ? PowerIterationEngine.Normalisation.MAXIMUM
+                                : PowerIterationEngine.Normalisation.NONE);
+        final double[] eigenvectors = PowerIterationEngine.iterate(step, initialEigenvectors, iterations, epsilon, interaction);
 
         // update the graph with eigenvector values
-        final int eigenvectorAttribute = EIGENVECTOR_ATTRIBUTE.ensure(graph);
         for (int vertexPosition = 0; vertexPosition < vertexCount; vertexPosition++) {
             final int vertexId = graph.getVertex(vertexPosition);
             graph.setFloatValue(eigenvectorAttribute, vertexId, (float) eigenvectors[vertexPosition]);
@@ -15,9 +15,10 @@
  */
 package au.gov.asd.tac.constellation.plugins.algorithms.sna.centrality;
 
-import au.gov.asd.tac.constellation.graph.GraphConstants;
+import au.gov.asd.tac.constellation.graph.Graph;
 import au.gov.asd.tac.constellation.graph.GraphWriteMethods;
 import au.gov.asd.tac.constellation.graph.schema.attribute.SchemaAttribute;
+import au.gov.asd.tac.constellation.graph.utilities.GraphTopology;
 import au.gov.asd.tac.constellation.plugins.Plugin;
 import au.gov.asd.tac.constellation.plugins.PluginInfo;
 import au.gov.asd.tac.constellation.plugins.PluginInteraction;
@@ -32,7 +33,6 @@ import au.gov.asd.tac.constellation.plugins.parameters.types.IntegerParameterTyp
 import au.gov.asd.tac.constellation.plugins.parameters.types.IntegerParameterType.IntegerParameterValue;
 import au.gov.asd.tac.constellation.plugins.templates.PluginTags;
 import au.gov.asd.tac.constellation.plugins.templates.SimpleEditPlugin;
-import java.util.Arrays;
 import org.openide.util.NbBundle;
 import org.openide.util.lookup.ServiceProvider;
 
@@ -53,6 +53,7 @@ public class HitsCentralityPlugin extends SimpleEditPlugin {
     public static final String ITERATIONS_PARAMETER_ID = PluginParameter.buildId(HitsCentralityPlugin.class, "iterations");
     public static final String EPSILON_PARAMETER_ID = PluginParameter.buildId(HitsCentralityPlugin.class, "epsilon");
     public static final String NORMALISE_AVAILABLE_PARAMETER_ID = PluginParameter.buildId(HitsCentralityPlugin.class, "normalise_available");
+    public static final String WARM_START_PARAMETER_ID = PluginParameter.buildId(HitsCentralityPlugin.class, "warm_start");
 
     @Override
     public PluginParameters createParameters() {
@@ -76,6 +77,12 @@ public class HitsCentralityPlugin extends SimpleEditPlugin {
         normaliseByAvailableParameter.setBooleanValue(false);
         parameters.addParameter(normaliseByAvailableParameter);
 
+        final PluginParameter<BooleanParameterValue> warmStartParameter = BooleanParameterType.build(WARM_START_PARAMETER_ID);
+        warmStartParameter.setName("Start From Previous Scores");
+        warmStartParameter.setDescription("Start from the scores of a previous run, which converges in fewer iterations after small changes to the graph");
+        warmStartParameter.setBooleanValue(false);
+        parameters.addParameter(warmStartParameter);
+
         return parameters;
     }
 
@@ -84,76 +91,25 @@ public class HitsCentralityPlugin extends SimpleEditPlugin {
         final int iterations = parameters.getIntegerValue(ITERATIONS_PARAMETER_ID);
         final float epsilon = parameters.getFloatValue(EPSILON_PARAMETER_ID);
         final boolean normaliseByAvailable = parameters.getBooleanValue(NORMALISE_AVAILABLE_PARAMETER_ID);
+        final boolean warmStart = parameters.getBooleanValue(WARM_START_PARAMETER_ID);
 
-        final double[] authorities = new double[graph.getVertexCapacity()];
-        Arrays.fill(authorities, 1);
-        final double[] hubs = new double[graph.getVertexCapacity()];
-        Arrays.fill(hubs, 1);
-
+        // initialise hits values, optionally from a previous run
         final int vertexCount = graph.getVertexCount();
-        for (int iteration = 0; iteration < iterations; iteration++) {
-            double authorityNorm = 0;
-            double authorityDelta = 0;
-            for (int vertexPosition = 0; vertexPosition < vertexCount; vertexPosition++) {
-                final int vertexId = graph.getVertex(vertexPosition);
-                final double previousAuthority = authorities[vertexPosition];
-                authorities[vertexPosition] = 0;
-
-                final int transactionCount = graph.getVertexTransactionCount(vertexId);
-                for (int transactionPosition = 0; transactionPosition < transactionCount; transactionPosition++) {
-                    final int transactionId = graph.getVertexTransaction(vertexId, transactionPosition);
-                    final int sourceVertexId = graph.getTransactionSourceVertex(transactionId);
-                    final int destinationVertexId = graph.getTransactionDestinationVertex(transactionId);
-                    if (sourceVertexId != destinationVertexId) {
-                        final int otherVertexId = vertexId == sourceVertexId ? destinationVertexId : sourceVertexId;
-                        if ((vertexId < otherVertexId && graph.getTransactionDirection(transactionId) == GraphConstants.DOWNHILL)
-                                || (vertexId > otherVertexId && graph.getTransactionDirection(transactionId) == GraphConstants.UPHILL)) {
-                            authorities[vertexPosition] += hubs[otherVertexId];
-                        }
-                    }
-                    authorityDelta += Math.abs(previousAuthority - authorities[vertexPosition]);
-                }
-                authorityNorm += Math.pow(authorities[vertexPosition], 2);
-            }
-            authorityNorm = Math.sqrt(authorityNorm);
-
-            for (int vertexPosition = 0; vertexPosition < vertexCount; vertexPosition++) {
-                authorities[vertexPosition] /= authorityNorm;
-            }
-
-            double hubNorm = 0;
-            double hubDelta = 0;
-            for (int vertexPosition = 0; vertexPosition < vertexCount; vertexPosition++) {
-                final int vertexId = graph.getVertex(vertexPosition);
-                final double previousHub = hubs[vertexPosition];
-                hubs[vertexPosition] = 0;
-
-                final int transactionCount = graph.getVertexTransactionCount(vertexId);
-                for (int transactionPosition = 0; transactionPosition < transactionCount; transactionPosition++) {
-                    final int transactionId = graph.getVertexTransaction(vertexId, transactionPosition);
-                    final int sourceVertexId = graph.getTransactionSourceVertex(transactionId);
-                    final int destinationVertexId = graph.getTransactionDestinationVertex(transactionId);
-                    if (sourceVertexId != destinationVertexId) {
-                        final int otherVertexId = vertexId == sourceVertexId ? destinationVertexId : sourceVertexId;
-                        if ((vertexId < otherVertexId && graph.getTransactionDirection(transactionId) == GraphConstants.UPHILL)
-                                || (vertexId > otherVertexId && graph.getTransactionDirection(transactionId) == GraphConstants.DOWNHILL)) {
-                            hubs[vertexPosition] += authorities[otherVertexId];
-                        }
-                    }
-                    hubDelta += Math.abs(previousHub - hubs[vertexPosition]);
-                }
-                hubNorm += Math.pow(hubs[vertexPosition], 2);
-            }
-            hubNorm = Math.sqrt(hubNorm);
-
-            for (int vertexPosition = 0; vertexPosition < vertexCount; vertexPosition++) {
-                hubs[vertexPosition] /= hubNorm;
-            }
-
-            if (authorityDelta < epsilon || hubDelta < epsilon) {
-                break;
-            }
-        }
+        final int hitsAuthorityAttribute = HITS_AUTHORITY_ATTRIBUTE.ensure(graph);
+        final int hitsHubAttribute = HITS_HUB_ATTRIBUTE.ensure(graph);
+        final double[] initialAuthorities = PowerIterationEngine.getInitialScores(graph, warmStart ? hitsAuthorityAttribute : Graph.NOT_FOUND, 1);
+        final double[] initialHubs = PowerIterationEngine.getInitialScores(graph, warmStart ? hitsHubAttribute : Graph.NOT_FOUND, 1);
+
+        // authorities are the sum of the hubs linking to them, and hubs are the sum of the authorities they link to
+        final GraphTopology topology = GraphTopology.of(graph);
+        final PowerIterationEngine.Step authorityStep = new PowerIterationEngine.Step(topology.getAdjacency(true, false, false), true)
+                .setNormalisation(PowerIterationEngine.Normalisation.EUCLIDEAN);
+        final PowerIterationEngine.Step hubStep = new PowerIterationEngine.Step(topology.getAdjacency(false, true, false), true)
+                .setNormalisation(PowerIterationEngine.Normalisation.EUCLIDEAN);
+        final double[][] hits = PowerIterationEngine.iterate(new PowerIterationEngine.Step[]{authorityStep, hubStep},
+                new double[][]{initialAuthorities, initialHubs}, iterations, epsilon, interaction);
+        final double[] authorities = hits[0];
+        final double[] hubs = hits[1];
 
         if (normaliseByAvailable) {
             double maxAuthority = 0;
@@ -172,8 +128,6 @@ public class HitsCentralityPlugin extends SimpleEditPlugin {
         }
 
         // update the graph with hits values
-        final int hitsAuthorityAttribute = HITS_AUTHORITY_ATTRIBUTE.ensure(graph);
-        final int hitsHubAttribute = HITS_HUB_ATTRIBUTE.ensure(graph);
         for (int vertexPosition = 0; vertexPosition < vertexCount; vertexPosition++) {
             final int vertexId = graph.getVertex(vertexPosition);
             graph.setFloatValue(hitsAuthorityAttribute, vertexId, (float) authorities[vertexPosition]);
@@ -15,8 +15,10 @@
  */
 package au.gov.asd.tac.constellation.plugins.algorithms.sna.centrality;
 
+import au.gov.asd.tac.constellation.graph.Graph;
 import au.gov.asd.tac.constellation.graph.GraphWriteMethods;
 import au.gov.asd.tac.constellation.graph.schema.attribute.SchemaAttribute;
+import au.gov.asd.tac.constellation.graph.utilities.GraphTopology;
 import au.gov.asd.tac.constellation.plugins.Plugin;
 import au.gov.asd.tac.constellation.plugins.PluginInfo;
 import au.gov.asd.tac.constellation.plugins.PluginInteraction;
@@ -32,7 +34,6 @@ import au.gov.asd.tac.constellation.plugins.parameters.types.IntegerParameterTyp
 import au.gov.asd.tac.constellation.plugins.parameters.types.IntegerParameterType.IntegerParameterValue;
 import au.gov.asd.tac.constellation.plugins.templates.PluginTags;
 import au.gov.asd.tac.constellation.plugins.templates.SimpleEditPlugin;
-import java.util.Arrays;
 import org.openide.util.NbBundle;
 import org.openide.util.lookup.ServiceProvider;
 
@@ -55,6 +56,7 @@ public class KatzCentralityPlugin extends SimpleEditPlugin {
     public static final String EPSILON_PARAMETER_ID = PluginParameter.buildId(KatzCentralityPlugin.class, "epsilon");
     public static final String NORMALISE_POSSIBLE_PARAMETER_ID = PluginParameter.buildId(KatzCentralityPlugin.class, "normalise_possible");
     public static final String NORMALISE_AVAILABLE_PARAMETER_ID = PluginParameter.buildId(KatzCentralityPlugin.class, "normalise_available");
+    public static final String WARM_START_PARAMETER_ID = PluginParameter.buildId(KatzCentralityPlugin.class, "warm_start");
 
     @Override
     public PluginParameters createParameters() {
@@ -94,6 +96,12 @@ public class KatzCentralityPlugin extends SimpleEditPlugin {
         normaliseByAvailableParameter.setName("Normalise By Max Available Score");
         normaliseByAvailableParameter.setDescription("Normalise calculated scores by the maximum calculated score");
         parameters.addParameter(normaliseByAvailableParameter);
+
+        final PluginParameter<BooleanParameterValue> warmStartParameter = BooleanParameterType.build(WARM_START_PARAMETER_ID);
+        warmStartParameter.setName("Start From Previous Scores");
+        warmStartParameter.setDescription("Start from the scores of a previous run, which converges in fewer iterations after small changes to the graph");
+        warmStartParameter.setBooleanValue(false);
+        parameters.addParameter(warmStartParameter);
         
         parameters.addController(NORMALISE_POSSIBLE_PARAMETER_ID, (master, params, change) -> {
             if (change == ParameterChange.VALUE && master.getBooleanValue()) {
@@ -120,59 +128,25 @@ public class KatzCentralityPlugin extends SimpleEditPlugin {
         final float epsilon = parameters.getFloatValue(EPSILON_PARAMETER_ID);
         final boolean normaliseByPossible = parameters.getBooleanValue(NORMALISE_POSSIBLE_PARAMETER_ID);
         final boolean normaliseByAvailable = parameters.getBooleanValue(NORMALISE_AVAILABLE_PARAMETER_ID);
+        final boolean warmStart = parameters.getBooleanValue(WARM_START_PARAMETER_ID);
 
         assert !normaliseByPossible || !normaliseByAvailable : "You should only select one method of normalisation";
 
-        // initialise katz values
+        // initialise katz values, optionally from a previous run
         final int vertexCount = graph.getVertexCount();
-        final double[] tempKatz = new double[graph.getVertexCapacity()];
-        final double[] katz = new double[graph.getVertexCapacity()];
-        Arrays.fill(katz, 1.0 / vertexCount);
+        final int katzAttribute = KATZ_ATTRIBUTE.ensure(graph);
+        final double[] initialKatz = PowerIterationEngine.getInitialScores(graph, warmStart ? katzAttribute : Graph.NOT_FOUND, 1.0 / vertexCount);
 
         // calculate katz for each vertex
-        for (int iteration = 0; iteration < iterations; iteration++) {
-            Arrays.fill(tempKatz, 0);
-
-            double sumSquaredKatz = 0;
-            double maxKatz = 0;
-            double delta = 0;
-            for (int vertexPosition = 0; vertexPosition < vertexCount; vertexPosition++) {
-                final int vertexId = graph.getVertex(vertexPosition);
-
-                final int neighbourCount = graph.getVertexNeighbourCount(vertexId);
-                for (int vertexNeighbourPosition = 0; vertexNeighbourPosition < neighbourCount; vertexNeighbourPosition++) {
-                    final int neighbourId = graph.getVertexNeighbour(vertexId, vertexNeighbourPosition);
-                    final int neighbourPosition = graph.getVertexPosition(neighbourId);
-                    if (vertexId != neighbourId) {
-                        tempKatz[neighbourPosition] += katz[vertexPosition];
-                    }
-                }
-            }
-
-            for (int vertexPosition = 0; vertexPosition < graph.getVertexCount(); vertexPosition++) {
-                tempKatz[vertexPosition] = (alpha * tempKatz[vertexPosition]) + beta;
-                sumSquaredKatz += Math.pow(tempKatz[vertexPosition], 2);
-                maxKatz = Math.max(tempKatz[vertexPosition], maxKatz);
-                delta += Math.abs(katz[vertexPosition] - tempKatz[vertexPosition]);
-            }
-
-            for (int vertexPosition = 0; vertexPosition < vertexCount; vertexPosition++) {
-                if (normaliseByPossible) {
-                    katz[vertexPosition] = tempKatz[vertexPosition] / Math.sqrt(sumSquaredKatz);
-                } else if (normaliseByAvailable && maxKatz > 0) {
-                    katz[vertexPosition] = tempKatz[vertexPosition] / maxKatz;
-                } else {
-                    katz[vertexPosition] = tempKatz[vertexPosition];
-                }
-            }
-
-            if (delta < epsilon) {
-                break;
-            }
-        }
+        final PowerIterationEngine.Step step = new PowerIterationEngine.Step(GraphTopology.of(graph).getNeighbours(), false)
+                .setScale(alpha)
+                .setOffset(beta)
+                .setNormalisation(normaliseByPossible ? PowerIterationEngine.Normalisation.EUCLIDEAN
+                        : normaliseByAvailable ? PowerIterationEngine.Normalisation.MAXIMUM
+                                : PowerIterationEngine.Normalisation.NONE);
+        final double[] katz = PowerIterationEngine.iterate(step, initialKatz, iterations, epsilon, interaction);
 
         // update the graph with katz values
-        final int katzAttribute = KATZ_ATTRIBUTE.ensure(graph);
         for (int vertexPosition = 0; vertexPosition < vertexCount; vertexPosition++) {
             final int vertexId = graph.getVertex(vertexPosition);
             graph.setFloatValue(katzAttribute, vertexId, (float) katz[vertexPosition]);
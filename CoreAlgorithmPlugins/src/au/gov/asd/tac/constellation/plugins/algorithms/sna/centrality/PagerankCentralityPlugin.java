@@ -15,9 +15,10 @@
  */
 package au.gov.asd.tac.constellation.plugins.algorithms.sna.centrality;
 
-import au.gov.asd.tac.constellation.graph.GraphConstants;
+import au.gov.asd.tac.constellation.graph.Graph;
 import au.gov.asd.tac.constellation.graph.GraphWriteMethods;
 import au.gov.asd.tac.constellation.graph.schema.attribute.SchemaAttribute;
+import au.gov.asd.tac.constellation.graph.utilities.GraphTopology;
 import au.gov.asd.tac.constellation.plugins.Plugin;
 import au.gov.asd.tac.constellation.plugins.PluginInfo;
 import au.gov.asd.tac.constellation.plugins.PluginInteraction;
@@ -32,10 +33,6 @@ import au.gov.asd.tac.constellation.plugins.parameters.types.IntegerParameterTyp
 import au.gov.asd.tac.constellation.plugins.parameters.types.IntegerParameterType.IntegerParameterValue;
 import au.gov.asd.tac.constellation.plugins.templates.PluginTags;
 import au.gov.asd.tac.constellation.plugins.templates.SimpleEditPlugin;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
 import org.openide.util.NbBundle;
 import org.openide.util.lookup.ServiceProvider;
 
@@ -57,6 +54,7 @@ public class PagerankCentralityPlugin extends SimpleEditPlugin {
     public static final String ITERATIONS_PARAMETER_ID = PluginParameter.buildId(PagerankCentralityPlugin.class, "iterations");
     public static final String EPSILON_PARAMETER_ID = PluginParameter.buildId(PagerankCentralityPlugin.class, "epsilon");
     public static final String NORMALISE_AVAILABLE_PARAMETER_ID = PluginParameter.buildId(PagerankCentralityPlugin.class, "normalise_available");
+    public static final String WARM_START_PARAMETER_ID = PluginParameter.buildId(PagerankCentralityPlugin.class, "warm_start");
 
     @Override
     public PluginParameters createParameters() {
@@ -92,182 +90,60 @@ public class PagerankCentralityPlugin extends SimpleEditPlugin {
         normaliseByAvailableParameter.setBooleanValue(false);
         parameters.addParameter(normaliseByAvailableParameter);
 
+        final PluginParameter<BooleanParameterValue> warmStartParameter = BooleanParameterType.build(WARM_START_PARAMETER_ID);
+        warmStartParameter.setName("Start From Previous Scores");
+        warmStartParameter.setDescription("Start from the scores of a previous run, which converges in fewer iterations after small changes to the graph");
+        warmStartParameter.setBooleanValue(false);
+        parameters.addParameter(warmStartParameter);
+
         return parameters;
     }
 
     @Override
     public void edit(final GraphWriteMethods graph, final PluginInteraction interaction, final PluginParameters parameters) throws InterruptedException {
+        final boolean treatUndirectedBidirectional = parameters.getBooleanValue(TREAT_UNDIRECTED_BIDIRECTIONAL_PARAMETER_ID);
         final float dampingFactor = parameters.getFloatValue(DAMPING_FACTOR_PARAMETER_ID);
         final int maxIterations = parameters.getIntegerValue(ITERATIONS_PARAMETER_ID);
         final float epsilon = parameters.getFloatValue(EPSILON_PARAMETER_ID);
         final boolean normaliseByAvailable = parameters.getBooleanValue(NORMALISE_AVAILABLE_PARAMETER_ID);
-
-        PagerankController.initialiseAllPagerankVertices(graph, parameters.getBooleanValue(TREAT_UNDIRECTED_BIDIRECTIONAL_PARAMETER_ID), dampingFactor, normaliseByAvailable);
-
-        // calculate pageranks
-        for (int currentIteration = 0; currentIteration < maxIterations; currentIteration++) {
-            interaction.setProgress(currentIteration, maxIterations, "Iteration " + currentIteration + " of " + maxIterations, true);
-
-            PagerankController.updateAllPageranks();
-
-            if (PagerankController.delta < epsilon) {
-                break;
-            }
-
-        }
-
-        // update the graph with pagerank values
-        PagerankController.commitPageranksToGraph();
-    }
-
-    private static class PagerankController {
-
-        private static final Set<PagerankVertex> sinks = new HashSet<>();
-        private static boolean treatUndirectedBidirectional;
-        private static boolean normaliseByAvailable;
-        private static final Map<Integer, PagerankVertex> pagerankVertices = new HashMap<>();
-        private static GraphWriteMethods graph;
-        private static double dampingFactor = 0;
-        private static int vertexCount = 0;
-        private static double sinkPagerankContribution = 0;
-        private static double delta = 0;
-        private static int pagerankAttribute;
-        private static double baseContribution;
-
-        public static void initialiseAllPagerankVertices(final GraphWriteMethods graph, final boolean treatUndirectedBidirectional, final double dampingFactor, final boolean normaliseByAvailable) {
-            PagerankController.graph = graph;
-            PagerankController.vertexCount = graph.getVertexCount();
-            PagerankController.treatUndirectedBidirectional = treatUndirectedBidirectional;
-            PagerankController.normaliseByAvailable = normaliseByAvailable;
-            PagerankController.pagerankAttribute = PAGERANK_ATTRIBUTE.ensure(graph);
-            PagerankController.dampingFactor = dampingFactor;
-            PagerankController.baseContribution = (1 - dampingFactor) / vertexCount;
-
-            graph.vertexStream().forEach(id -> {
-                final PagerankVertex prVertex = new PagerankVertex(id, vertexCount);
-                pagerankVertices.put(id, prVertex);
-            });
-
-            calculateAllOutgoingAndNeighboursAndPagerankContribution();
-            updateSinkPagerankContribution();
-        }
-
-        private static void calculateAllOutgoingAndNeighboursAndPagerankContribution() {
-            for (final PagerankVertex pgVertex : pagerankVertices.values()) {
-                // identify incoming connections and store connected vertices and their outgoing connection count
-                final int linkCount = graph.getVertexLinkCount(pgVertex.vertexId);
-                for (int linkPosition = 0; linkPosition < linkCount; linkPosition++) {
-                    //              For each link
-                    final int linkId = graph.getVertexLink(pgVertex.vertexId, linkPosition);
-                    final int linkLowId = graph.getLinkLowVertex(linkId);
-                    final int linkHighId = graph.getLinkHighVertex(linkId);
-                    if (linkLowId != linkHighId) {
-                        // If it isnt a link to itself
-                        final Integer neighbourId = pgVertex.vertexId == linkLowId ? linkHighId : linkLowId;
-                        final int edgeCount = graph.getLinkEdgeCount(linkId);
-                        for (int edgePosition = 0; edgePosition < edgeCount; edgePosition++) {
-                            // Then for every edge in the link
-                            final int edgeId = graph.getLinkEdge(linkId, edgePosition);
-                            final int edgeDirection = graph.getEdgeDirection(edgeId);
-                            if ((treatUndirectedBidirectional && edgeDirection == GraphConstants.FLAT)
-                                    || graph.getEdgeSourceVertex(edgeId) == pgVertex.vertexId) {
-                                // If egde is facing outwards, add 1 to outCount.
-                                pgVertex.outCount += 1;
-                            } else if ((treatUndirectedBidirectional && edgeDirection == GraphConstants.FLAT)
-                                    || graph.getEdgeDestinationVertex(edgeId) == pgVertex.vertexId) {
-                                // If edge is facing towards vertex add the source as a neighbour.
-                                pgVertex.neighbours.add(pagerankVertices.get(neighbourId));
-                            }
-                        }
-                    }
-                }
-                // If it is a sink (that is it has no outgoing transaction) then treat it as if it connect to every other vertex. Otherwise the total pagerank will gradually reduce from one to zero.
-                if (pgVertex.outCount == 0) {
-                    pgVertex.outCount = vertexCount - 1;
-                    sinks.add(pgVertex);
-                    pgVertex.isSink = true;
-                }
-                pgVertex.updatePagerankContribution();
-            }
+        final boolean warmStart = parameters.getBooleanValue(WARM_START_PARAMETER_ID);
+
+        final int vertexCount = graph.getVertexCount();
+        final int pagerankAttribute = PAGERANK_ATTRIBUTE.ensure(graph);
+
+        // each vertex shares its pagerank equally among the vertices it links to
+        final GraphTopology topology = GraphTopology.of(graph);
+        final GraphTopology.Adjacency outgoing = topology.getAdjacency(false, true, treatUndirectedBidirectional);
+        final GraphTopology.Adjacency incoming = topology.getAdjacency(true, false, treatUndirectedBidirectional);
+        final int[] incomingTargets = incoming.getTargets();
+        final double[] incomingWeights = new double[incomingTargets.length];
+        for (int entry = 0; entry < incomingTargets.length; entry++) {
+            incomingWeights[entry] = 1.0 / outgoing.getDegree(incomingTargets[entry]);
         }
 
-        private static void updateSinkPagerankContribution() {
-            sinkPagerankContribution = sinks.parallelStream().mapToDouble(pgVertex -> pgVertex.pagerankContribution).sum();
-        }
-
-        private static void updateAllPageranks() {
-            delta = 0;
-            double maxPagerank = 0;
-            for (final PagerankVertex pgVertex : pagerankVertices.values()) {
-                pgVertex.stageNewPagerank(sinkPagerankContribution, baseContribution, dampingFactor);
-                delta += Math.abs(pgVertex.pagerank - pgVertex.stagedPagerank);
-                if (pgVertex.stagedPagerank > maxPagerank) {
-                    maxPagerank = pgVertex.stagedPagerank;
-                }
-            }
-            for (final PagerankVertex pgVertex : pagerankVertices.values()) {
-                if (normaliseByAvailable && maxPagerank > 0) {
-                    pgVertex.pagerank = pgVertex.stagedPagerank / maxPagerank;
-                } else {
-                    pgVertex.pagerank = pgVertex.stagedPagerank;
+        // If a vertex is a sink (that is it has no outgoing transaction) then treat it as if it connects to every other vertex.
+        // Otherwise the total pagerank will gradually reduce from one to zero.
+        final double[] sinkWeights = new double[vertexCount];
+        if (vertexCount > 1) {
+            for (int position = 0; position < vertexCount; position++) {
+                if (outgoing.getDegree(position) == 0) {
+                    sinkWeights[position] = 1.0 / (vertexCount - 1);
                 }
-                pgVertex.updatePagerankContribution();
             }
-            updateSinkPagerankContribution();
-        }
-
-        private static void commitPageranksToGraph() {
-            for (final PagerankVertex pgVertex : pagerankVertices.values()) {
-                commitPagerankToGraph(pgVertex);
-            }
-            reset();
-        }
-
-        private static void commitPagerankToGraph(final PagerankVertex pagerankVertex) {
-            graph.setDoubleValue(pagerankAttribute, pagerankVertex.vertexId, pagerankVertex.pagerank);
-        }
-
-        private static void reset() {
-            graph = null;
-            sinks.clear();
-            dampingFactor = 0;
-            vertexCount = 0;
-            sinkPagerankContribution = 0;
-            delta = 0;
-            pagerankVertices.clear();
         }
-    }
-
-    private static class PagerankVertex {
-
-        private final int vertexId;
-        private final Set<PagerankVertex> neighbours = new HashSet<>();
-        private int outCount = 0;
-        private double pagerank;
-        private double pagerankContribution;
-        private double stagedPagerank;
-        private boolean isSink = false;
 
-        private PagerankVertex(final int vertexId, final int vertexCount) {
-            this.vertexId = vertexId;
-            this.pagerank = 1.0 / vertexCount;
-            this.pagerankContribution = 0;
-        }
-
-        private void updatePagerankContribution() {
-            pagerankContribution = pagerank / outCount;
-        }
-
-        private void stageNewPagerank(final double sinkPagerankContribution, final double baseContribution,
-                final double dampingFactor) {
-            double neighbourContribution = sinkPagerankContribution;
-            if (isSink) {
-                neighbourContribution -= pagerankContribution;
-            }
-
-            neighbourContribution += neighbours.parallelStream().mapToDouble(pgVertex -> pgVertex.pagerankContribution).sum();
+        // calculate pageranks
+        final PowerIterationEngine.Step step = new PowerIterationEngine.Step(incoming.getOffsets(), incomingTargets, incomingWeights)
+                .setScale(dampingFactor)
+                .setOffset((1 - dampingFactor) / vertexCount)
+                .setDanglingWeights(sinkWeights)
+                .setNormalisation(normaliseByAvailable ? PowerIterationEngine.Normalisation.MAXIMUM : PowerIterationEngine.Normalisation.NONE);
+        final double[] initialPageranks = PowerIterationEngine.getInitialScores(graph, warmStart ? pagerankAttribute : Graph.NOT_FOUND, 1.0 / vertexCount);
+        final double[] pageranks = PowerIterationEngine.iterate(step, initialPageranks, maxIterations, epsilon, interaction);
 
-            stagedPagerank = baseContribution + (dampingFactor * neighbourContribution);
+        // update the graph with pagerank values
+        for (int position = 0; position < vertexCount; position++) {
+            graph.setDoubleValue(pagerankAttribute, graph.getVertex(position), pageranks[position]);
         }
     }
 }
@@ -18,6 +18,7 @@ package au.gov.asd.tac.constellation.plugins.algorithms.sna.centrality;
 import au.gov.asd.tac.constellation.graph.GraphConstants;
 import au.gov.asd.tac.constellation.graph.GraphReadMethods;
 import au.gov.asd.tac.constellation.graph.schema.visual.concept.VisualConcept;
+import au.gov.asd.tac.constellation.graph.utilities.GraphTopology;
 import au.gov.asd.tac.constellation.utilities.datastructure.Tuple;
 import java.util.ArrayList;
 import java.util.BitSet;
@@ -99,6 +100,10 @@ public class PathScoringUtilities {
     }
 
     private static BitSet[] computeSubgraphPathsUndirected(final GraphReadMethods graph, final BitSet subgraph) {
+        final GraphTopology.Adjacency neighbours = GraphTopology.of(graph).getNeighbours();
+        final int[] neighbourOffsets = neighbours.getOffsets();
+        final int[] neighbourTargets = neighbours.getTargets();
+
         final int vxCount = graph.getVertexCount();
         final BitSet[] traversal = new BitSet[vxCount];
 
@@ -125,9 +130,8 @@ public class PathScoringUtilities {
 
             // for each neighbour, check if there is any new information it needs to receive
             for (int sourcePosition = update.nextSetBit(0); sourcePosition >= 0; sourcePosition = update.nextSetBit(sourcePosition + 1)) {
-                int vxId = graph.getVertex(sourcePosition);
-                for (int neighbourPosition = 0; neighbourPosition < graph.getVertexNeighbourCount(vxId); neighbourPosition++) {
-                    int destinationPosition = graph.getVertexPosition(graph.getVertexNeighbour(vxId, neighbourPosition));
+                for (int entry = neighbourOffsets[sourcePosition]; entry < neighbourOffsets[sourcePosition + 1]; entry++) {
+                    final int destinationPosition = neighbourTargets[entry];
                     if (!subgraph.get(destinationPosition)) {
                         continue;
                     }
@@ -0,0 +1,345 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.plugins.algorithms.sna.centrality;
+
+import au.gov.asd.tac.constellation.graph.Graph;
+import au.gov.asd.tac.constellation.graph.GraphReadMethods;
+import au.gov.asd.tac.constellation.graph.utilities.GraphTopology;
+import au.gov.asd.tac.constellation.plugins.PluginInteraction;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Power iteration over the vertices of a graph, shared by the centrality
+ * measures that are the fixed point of a repeated sparse matrix-vector
+ * product, such as eigenvector, Katz, PageRank and HITS centrality.
+ * <p>
+ * Each iteration applies a sequence of {@link Step}s, where each step
+ * multiplies the scores produced by the previous step (or by the last step of
+ * the previous iteration) by a sparse matrix, scales the result, adds a
+ * constant, redistributes the scores of dangling vertices and normalises. The
+ * matrix is held in compressed sparse row form, so the score of each vertex is
+ * a weighted sum of the scores of the targets in its row. Rows are split into
+ * fixed blocks which are calculated in parallel, and the partial sums of each
+ * block are combined in order so that the results do not depend on the number
+ * of threads.
+ * <p>
+ * Iteration stops after the maximum number of iterations, or as soon as the
+ * total absolute change in the scores of any step falls below epsilon.
+ *
+ * @author sirius
+ */
+public class PowerIterationEngine {
+
+    private static final int BLOCK_SIZE = 1024;
+
+    /**
+     * How the scores produced by a step are normalised.
+     */
+    public enum Normalisation {
+        /**
+         * The scores are not normalised.
+         */
+        NONE,
+        /**
+         * The scores are divided by their sum.
+         */
+        SUM,
+        /**
+         * The scores are divided by their Euclidean norm.
+         */
+        EUCLIDEAN,
+        /**
+         * The scores are divided by the maximum score.
+         */
+        MAXIMUM
+    }
+
+    private PowerIterationEngine() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * One sparse matrix-vector product and the adjustments made to its result.
+     * The score of the vertex at position p is
+     * {@code scale * (sum of weight * score of target over the row of p + dangling score) + offset},
+     * where the dangling score is the sum over all vertices q of
+     * {@code danglingWeights[q] * score of q}, excluding p itself.
+     */
+    public static final class Step {
+
+        private final int[] offsets;
+        private final int[] targets;
+        private final double[] weights;
+        private double scale = 1;
+        private double offset = 0;
+        private double[] danglingWeights = null;
+        private Normalisation normalisation = Normalisation.NONE;
+
+        /**
+         * Create a step over a matrix in compressed sparse row form.
+         *
+         * @param offsets the offset of the first entry of each row, followed by
+         * the total number of entries.
+         * @param targets the column of each entry.
+         * @param weights the weight of each entry, or null if every entry has a
+         * weight of 1.
+         */
+        public Step(final int[] offsets, final int[] targets, final double[] weights) {
+            this.offsets = offsets;
+            this.targets = targets;
+            this.weights = weights;
+        }
+
+        /**
+         * Create a step over the neighbours of each vertex.
+         *
+         * @param adjacency the neighbours of each vertex.
+         * @param weighted true to weight each neighbour by the number of
+         * transactions joining them, false to give each neighbour a weight of 1.
+         */
+        public Step(final GraphTopology.Adjacency adjacency, final boolean weighted) {
+            this(adjacency.getOffsets(), adjacency.getTargets(), weighted ? toDoubles(adjacency.getWeights()) : null);
+        }
+
+        public Step setScale(final double scale) {
+            this.scale = scale;
+            return this;
+        }
+
+        public Step setOffset(final double offset) {
+            this.offset = offset;
+            return this;
+        }
+
+        /**
+         * Set the weight with which the score of each vertex is added to the
+         * score of every other vertex. This is typically used to share the
+         * score of vertices without any outgoing entries among all other
+         * vertices.
+         *
+         * @param danglingWeights the weight of each vertex, or null if no
+         * score is shared.
+         * @return this step.
+         */
+        public Step setDanglingWeights(final double[] danglingWeights) {
+            this.danglingWeights = danglingWeights;
+            return this;
+        }
+
+        public Step setNormalisation(final Normalisation normalisation) {
+            this.normalisation = normalisation;
+            return this;
+        }
+
+        private int getVertexCount() {
+            return offsets.length - 1;
+        }
+
+        private double getDanglingScore(final double[] scores) {
+            double danglingScore = 0;
+            if (danglingWeights != null) {
+                for (int vertex = 0; vertex < scores.length; vertex++) {
+                    danglingScore += danglingWeights[vertex] * scores[vertex];
+                }
+            }
+            return danglingScore;
+        }
+
+        /**
+         * Calculate the unnormalised scores of a block of vertices, returning
+         * the sum, sum of squares and maximum of the scores in the block.
+         */
+        private double[] multiply(final int block, final double[] scores, final double danglingScore, final double[] result) {
+            final int start = block * BLOCK_SIZE;
+            final int end = Math.min(start + BLOCK_SIZE, getVertexCount());
+            double sum = 0;
+            double sumOfSquares = 0;
+            double max = 0;
+            for (int vertex = start; vertex < end; vertex++) {
+                double product = 0;
+                for (int entry = offsets[vertex]; entry < offsets[vertex + 1]; entry++) {
+                    product += (weights == null ? 1 : weights[entry]) * scores[targets[entry]];
+                }
+                if (danglingWeights != null) {
+                    product += danglingScore - danglingWeights[vertex] * scores[vertex];
+                }
+
+                final double score = scale * product + offset;
+                result[vertex] = score;
+                sum += score;
+                sumOfSquares += score * score;
+                max = Math.max(max, score);
+            }
+            return new double[]{sum, sumOfSquares, max};
+        }
+
+        private double getNormalisingFactor(final double[][] blockTotals) {
+            double sum = 0;
+            double sumOfSquares = 0;
+            double max = 0;
+            for (final double[] totals : blockTotals) {
+                sum += totals[0];
+                sumOfSquares += totals[1];
+                max = Math.max(max, totals[2]);
+            }
+
+            final double factor;
+            switch (normalisation) {
+                case SUM:
+                    factor = sum;
+                    break;
+                case EUCLIDEAN:
+                    factor = Math.sqrt(sumOfSquares);
+                    break;
+                case MAXIMUM:
+                    factor = max;
+                    break;
+                default:
+                    factor = 1;
+                    break;
+            }
+            return factor > 0 ? factor : 1;
+        }
+    }
+
+    /**
+     * Iterate a single step until it converges.
+     *
+     * @param step the step to iterate.
+     * @param initialScores the initial score of each vertex.
+     * @param maxIterations the maximum number of iterations.
+     * @param epsilon the total absolute change in scores below which the
+     * scores are considered to have converged.
+     * @param interaction the interaction to report progress to, or null.
+     * @return the score of each vertex.
+     * @throws InterruptedException if the iteration is cancelled.
+     */
+    public static double[] iterate(final Step step, final double[] initialScores, final int maxIterations, final double epsilon, final PluginInteraction interaction) throws InterruptedException {
+        return iterate(new Step[]{step}, new double[][]{initialScores}, maxIterations, epsilon, interaction)[0];
+    }
+
+    /**
+     * Iterate a sequence of steps until any of them converges. The first step
+     * of each iteration multiplies the scores produced by the last step of the
+     * previous iteration, or the initial scores of the last step in the first
+     * iteration.
+     *
+     * @param steps the steps to apply in each iteration.
+     * @param initialScores the initial scores of each step.
+     * @param maxIterations the maximum number of iterations.
+     * @param epsilon the total absolute change in scores below which the
+     * scores are considered to have converged.
+     * @param interaction the interaction to report progress to, or null.
+     * @return the scores produced by each step in the last iteration.
+     * @throws InterruptedException if the iteration is cancelled.
+     */
+    public static double[][] iterate(final Step[] steps, final double[][] initialScores, final int maxIterations, final double epsilon, final PluginInteraction interaction) throws InterruptedException {
+        final int vertexCount = steps[0].getVertexCount();
+        final int blockCount = (vertexCount + BLOCK_SIZE - 1) / BLOCK_SIZE;
+
+        final double[][] scores = new double[steps.length][];
+        final double[][] nextScores = new double[steps.length][];
+        for (int stepIndex = 0; stepIndex < steps.length; stepIndex++) {
+            scores[stepIndex] = Arrays.copyOf(initialScores[stepIndex], vertexCount);
+            nextScores[stepIndex] = new double[vertexCount];
+        }
+
+        for (int iteration = 0; iteration < maxIterations; iteration++) {
+            if (interaction != null) {
+                interaction.setProgress(iteration, maxIterations, "Iteration " + iteration + " of " + maxIterations, true);
+            } else if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+
+            boolean converged = false;
+            for (int stepIndex = 0; stepIndex < steps.length; stepIndex++) {
+                final Step step = steps[stepIndex];
+                final double[] input = scores[stepIndex == 0 ? steps.length - 1 : stepIndex - 1];
+                final double[] previous = scores[stepIndex];
+                final double[] next = nextScores[stepIndex];
+
+                final double danglingScore = step.getDanglingScore(input);
+                final double[][] blockTotals = IntStream.range(0, blockCount).parallel()
+                        .mapToObj(block -> step.multiply(block, input, danglingScore, next))
+                        .toArray(double[][]::new);
+
+                final double factor = step.getNormalisingFactor(blockTotals);
+                final double delta = IntStream.range(0, blockCount).parallel().mapToObj(block -> {
+                    final int end = Math.min((block + 1) * BLOCK_SIZE, vertexCount);
+                    double blockDelta = 0;
+                    for (int vertex = block * BLOCK_SIZE; vertex < end; vertex++) {
+                        next[vertex] /= factor;
+                        blockDelta += Math.abs(next[vertex] - previous[vertex]);
+                    }
+                    return blockDelta;
+                }).reduce(0.0, Double::sum);
+
+                scores[stepIndex] = next;
+                nextScores[stepIndex] = previous;
+                converged |= delta < epsilon;
+            }
+
+            if (converged) {
+                break;
+            }
+        }
+
+        return scores;
+    }
+
+    /**
+     * Get initial scores for an iteration, optionally starting from the scores
+     * a previous run left in an attribute so that a graph that has changed a
+     * little converges in fewer iterations.
+     *
+     * @param graph the graph.
+     * @param attribute the attribute holding the previous scores, or
+     * {@link Graph#NOT_FOUND}.
+     * @param defaultScore the score of each vertex when there are no usable
+     * previous scores.
+     * @return the initial score of each vertex, indexed by position.
+     */
+    public static double[] getInitialScores(final GraphReadMethods graph, final int attribute, final double defaultScore) {
+        final int vertexCount = graph.getVertexCount();
+        final double[] scores = new double[vertexCount];
+        boolean usable = false;
+        if (attribute != Graph.NOT_FOUND) {
+            usable = true;
+            boolean positive = false;
+            for (int position = 0; position < vertexCount && usable; position++) {
+                final double score = graph.getDoubleValue(attribute, graph.getVertex(position));
+                usable = Double.isFinite(score) && score >= 0;
+                positive |= score > 0;
+                scores[position] = score;
+            }
+            usable &= positive;
+        }
+
+        if (!usable) {
+            Arrays.fill(scores, defaultScore);
+        }
+        return scores;
+    }
+
+    private static double[] toDoubles(final float[] values) {
+        final double[] result = new double[values.length];
+        for (int index = 0; index < values.length; index++) {
+            result[index] = values[index];
+        }
+        return result;
+    }
+}
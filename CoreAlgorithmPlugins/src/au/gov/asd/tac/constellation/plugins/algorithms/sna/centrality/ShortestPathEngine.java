@@ -0,0 +1,428 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.plugins.algorithms.sna.centrality;
+
+import au.gov.asd.tac.constellation.graph.GraphConstants;
+import au.gov.asd.tac.constellation.graph.GraphReadMethods;
+import au.gov.asd.tac.constellation.graph.schema.visual.concept.VisualConcept;
+import au.gov.asd.tac.constellation.graph.utilities.GraphTopology;
+import au.gov.asd.tac.constellation.plugins.algorithms.sna.centrality.PathScoringUtilities.ScoreType;
+import au.gov.asd.tac.constellation.utilities.datastructure.Tuple;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Calculates scores on a graph based on shortest paths by running a breadth
+ * first search from each source vertex, accumulating betweenness using the
+ * algorithm of Brandes.
+ * <p>
+ * Searches are shared between the threads of the common fork-join pool, each
+ * of which keeps its own working arrays, so memory use grows linearly with the
+ * size of the graph. Scores can also be approximated by searching from a
+ * random sample of pivot vertices and scaling the result, which is unbiased
+ * and whose error can be bounded using {@link #getPivotCount}.
+ * <p>
+ * Unlike {@link PathScoringUtilities}, the average distance score of each
+ * vertex is the sum of its distances to the vertices it can reach, and
+ * connected components are returned as a component number for each vertex.
+ *
+ * @author sirius
+ */
+public class ShortestPathEngine {
+
+    private static final String SCORETYPE_ERROR_FORMAT = "The requested ScoreType, %s, is not supported.";
+    private static final String OUT_OF_BOUNDS_EXCEPTION_STRING = "The 'selected' attribute does not exist on the given graph.";
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private ShortestPathEngine() {
+    }
+
+    /**
+     * Calculates exact scores for each vertex of a graph.
+     *
+     * @param graph the graph.
+     * @param scoreType the score to calculate.
+     * @param includeConnectionsIn follow transactions into each vertex.
+     * @param includeConnectionsOut follow transactions out of each vertex.
+     * @param treatUndirectedBidirectional follow undirected transactions.
+     * @param selectedOnly only count paths between selected vertices.
+     * @return the connected component of each vertex position, and the score
+     * of each vertex position.
+     */
+    public static Tuple<int[], float[]> calculateScores(final GraphReadMethods graph, final ScoreType scoreType,
+            final boolean includeConnectionsIn, final boolean includeConnectionsOut, final boolean treatUndirectedBidirectional, final boolean selectedOnly) {
+        return calculateScores(graph, scoreType, includeConnectionsIn, includeConnectionsOut, treatUndirectedBidirectional, selectedOnly, 0);
+    }
+
+    /**
+     * Calculates scores for each vertex of a graph, approximating them from a
+     * random sample of pivot vertices if a pivot count is given.
+     * <p>
+     * Eccentricity is always calculated exactly as it cannot be estimated from
+     * a sample.
+     *
+     * @param graph the graph.
+     * @param scoreType the score to calculate.
+     * @param includeConnectionsIn follow transactions into each vertex.
+     * @param includeConnectionsOut follow transactions out of each vertex.
+     * @param treatUndirectedBidirectional follow undirected transactions.
+     * @param selectedOnly only count paths between selected vertices.
+     * @param pivotCount the number of pivot vertices to sample, or 0 to
+     * calculate exact scores.
+     * @return the connected component of each vertex position, and the score
+     * of each vertex position.
+     */
+    public static Tuple<int[], float[]> calculateScores(final GraphReadMethods graph, final ScoreType scoreType,
+            final boolean includeConnectionsIn, final boolean includeConnectionsOut, final boolean treatUndirectedBidirectional, final boolean selectedOnly,
+            final int pivotCount) {
+        return calculateScores(graph, scoreType, includeConnectionsIn, includeConnectionsOut, treatUndirectedBidirectional, selectedOnly, pivotCount, RANDOM);
+    }
+
+    static Tuple<int[], float[]> calculateScores(final GraphReadMethods graph, final ScoreType scoreType,
+            final boolean includeConnectionsIn, final boolean includeConnectionsOut, final boolean treatUndirectedBidirectional, final boolean selectedOnly,
+            final int pivotCount, final Random random) {
+        final GraphTopology topology = GraphTopology.of(graph);
+        final boolean undirected = includeConnectionsIn && includeConnectionsOut;
+        final GraphTopology.Adjacency forward = undirected ? topology.getNeighbours()
+                : topology.getAdjacency(includeConnectionsIn, includeConnectionsOut, treatUndirectedBidirectional);
+        final GraphTopology.Adjacency backward = undirected ? forward
+                : topology.getAdjacency(includeConnectionsOut, includeConnectionsIn, treatUndirectedBidirectional);
+
+        final int vertexCount = topology.getVertexCount();
+        final boolean[] counted = new boolean[vertexCount];
+        if (selectedOnly) {
+            final int selectedAttribute = VisualConcept.VertexAttribute.SELECTED.get(graph);
+            if (selectedAttribute == GraphConstants.NOT_FOUND) {
+                throw new ArrayIndexOutOfBoundsException(OUT_OF_BOUNDS_EXCEPTION_STRING);
+            }
+            for (int position = 0; position < vertexCount; position++) {
+                counted[position] = graph.getBooleanValue(selectedAttribute, topology.getVertexId(position));
+            }
+        } else {
+            Arrays.fill(counted, true);
+        }
+
+        final float[] scores = new float[vertexCount];
+        switch (scoreType) {
+            case BETWEENNESS:
+                // betweenness only counts paths that start at a counted vertex
+                final int[] candidates = IntStream.range(0, vertexCount).filter(position -> counted[position]).toArray();
+                final int[] sources = sample(candidates, pivotCount, random);
+                final double[] betweennesses = search(forward, counted, scoreType, undirected, false, sources, scores);
+                final double betweennessScale = (double) candidates.length / Math.max(sources.length, 1);
+                for (int position = 0; position < vertexCount; position++) {
+                    scores[position] = (float) (betweennesses[position] * betweennessScale);
+                }
+                break;
+            case ECCENTRICITY:
+                search(forward, counted, scoreType, undirected, false, IntStream.range(0, vertexCount).toArray(), scores);
+                break;
+            case AVERAGE_DISTANCE:
+            case CLOSENESS:
+            case FARNESS:
+            case HARMONIC_CLOSENESS:
+            case HARMONIC_FARNESS:
+                final int[] pivots = sample(IntStream.range(0, vertexCount).toArray(), pivotCount, random);
+                if (pivots.length < vertexCount) {
+                    // estimate the distances to every vertex from the distances to each pivot
+                    final double[] farnesses = search(backward, counted, scoreType, undirected, true, pivots, scores);
+                    final double farnessScale = (double) vertexCount / Math.max(pivots.length, 1);
+                    for (int position = 0; position < vertexCount; position++) {
+                        scores[position] = (float) (farnesses[position] * farnessScale);
+                    }
+                } else {
+                    search(forward, counted, scoreType, undirected, false, pivots, scores);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException(String.format(SCORETYPE_ERROR_FORMAT, scoreType));
+        }
+
+        // convert farness to closeness by taking the inverse of each score
+        if (scoreType == ScoreType.CLOSENESS) {
+            for (int position = 0; position < vertexCount; position++) {
+                scores[position] = scores[position] == 0 ? 0 : 1 / scores[position];
+            }
+        }
+
+        // convert harmonic farness to harmonic closeness by normalising each
+        // score by the number of vertices on the graph
+        if (scoreType == ScoreType.HARMONIC_CLOSENESS) {
+            for (int position = 0; position < vertexCount; position++) {
+                scores[position] = scores[position] == 0 ? 0 : scores[position] / vertexCount;
+            }
+        }
+
+        return Tuple.create(getComponents(forward, vertexCount), scores);
+    }
+
+    /**
+     * Returns the number of pivots needed so that, with the given confidence,
+     * every sampled score is within the given error of its exact value. The
+     * error is a fraction of the largest amount a single source can add to the
+     * score of a vertex, being the number of other vertices for betweenness and
+     * the diameter of the graph for farness. The bound follows from applying
+     * Hoeffding's inequality to each vertex.
+     *
+     * @param vertexCount the number of vertices in the graph.
+     * @param error the allowed error, between 0 and 1.
+     * @param confidence the probability that every score is within the allowed
+     * error, between 0 and 1.
+     * @return the number of pivots to sample, which is at most the number of
+     * vertices.
+     */
+    public static int getPivotCount(final int vertexCount, final double error, final double confidence) {
+        if (vertexCount == 0) {
+            return 0;
+        }
+        final double pivots = Math.ceil(Math.log(2 * vertexCount / (1 - confidence)) / (2 * error * error));
+        return (int) Math.min(vertexCount, pivots);
+    }
+
+    private static int[] sample(final int[] candidates, final int pivotCount, final Random random) {
+        if (pivotCount <= 0 || pivotCount >= candidates.length) {
+            return candidates;
+        }
+
+        // partial Fisher-Yates shuffle
+        for (int index = 0; index < pivotCount; index++) {
+            final int swap = index + random.nextInt(candidates.length - index);
+            final int candidate = candidates[swap];
+            candidates[swap] = candidates[index];
+            candidates[index] = candidate;
+        }
+        return Arrays.copyOf(candidates, pivotCount);
+    }
+
+    private static double[] search(final GraphTopology.Adjacency adjacency, final boolean[] counted, final ScoreType scoreType,
+            final boolean undirected, final boolean fromPivots, final int[] sources, final float[] scores) {
+        final int vertexCount = counted.length;
+        final AtomicInteger nextSource = new AtomicInteger();
+        final int searcherCount = Math.max(1, Math.min(sources.length, ForkJoinPool.getCommonPoolParallelism()));
+
+        // each searcher takes the next unsearched source until there are none left
+        return IntStream.range(0, searcherCount).parallel()
+                .mapToObj(searcher -> {
+                    final Search search = new Search(adjacency, counted, scoreType, undirected, fromPivots);
+                    for (int index = nextSource.getAndIncrement(); index < sources.length; index = nextSource.getAndIncrement()) {
+                        search.search(sources[index], scores);
+                    }
+                    return search.accumulated;
+                })
+                .reduce((first, second) -> {
+                    for (int position = 0; position < vertexCount; position++) {
+                        first[position] += second[position];
+                    }
+                    return first;
+                })
+                .orElseGet(() -> new double[vertexCount]);
+    }
+
+    private static int[] getComponents(final GraphTopology.Adjacency adjacency, final int vertexCount) {
+        final int[] offsets = adjacency.getOffsets();
+        final int[] targets = adjacency.getTargets();
+
+        final int[] parents = new int[vertexCount];
+        for (int position = 0; position < vertexCount; position++) {
+            parents[position] = position;
+        }
+        for (int position = 0; position < vertexCount; position++) {
+            for (int entry = offsets[position]; entry < offsets[position + 1]; entry++) {
+                final int root = findRoot(parents, position);
+                final int targetRoot = findRoot(parents, targets[entry]);
+                if (root != targetRoot) {
+                    parents[Math.max(root, targetRoot)] = Math.min(root, targetRoot);
+                }
+            }
+        }
+
+        // number the components in order of their first vertex
+        final int[] components = new int[vertexCount];
+        int componentCount = 0;
+        for (int position = 0; position < vertexCount; position++) {
+            final int root = findRoot(parents, position);
+            components[position] = root == position ? componentCount++ : components[root];
+        }
+        return components;
+    }
+
+    private static int findRoot(final int[] parents, final int position) {
+        int root = position;
+        while (parents[root] != root) {
+            parents[root] = parents[parents[root]];
+            root = parents[root];
+        }
+        return root;
+    }
+
+    /**
+     * The working arrays of a single thread, sized to the graph and reset
+     * after each search so that only the vertices reached need to be visited.
+     */
+    private static final class Search {
+
+        private final int[] offsets;
+        private final int[] targets;
+        private final boolean[] counted;
+        private final ScoreType scoreType;
+        private final boolean undirected;
+        private final boolean fromPivots;
+
+        private final int[] distances;
+        private final int[] order;
+        private final double[] pathCounts;
+        private final double[] dependencies;
+        private final double[] accumulated;
+
+        private Search(final GraphTopology.Adjacency adjacency, final boolean[] counted, final ScoreType scoreType,
+                final boolean undirected, final boolean fromPivots) {
+            this.offsets = adjacency.getOffsets();
+            this.targets = adjacency.getTargets();
+            this.counted = counted;
+            this.scoreType = scoreType;
+            this.undirected = undirected;
+            this.fromPivots = fromPivots;
+
+            final int vertexCount = counted.length;
+            this.distances = new int[vertexCount];
+            Arrays.fill(distances, -1);
+            this.order = new int[vertexCount];
+            this.pathCounts = scoreType == ScoreType.BETWEENNESS ? new double[vertexCount] : null;
+            this.dependencies = scoreType == ScoreType.BETWEENNESS ? new double[vertexCount] : null;
+            this.accumulated = new double[vertexCount];
+        }
+
+        private void search(final int source, final float[] scores) {
+            final int reached = traverse(source);
+
+            if (scoreType == ScoreType.BETWEENNESS) {
+                accumulateDependencies(source, reached);
+            } else if (fromPivots) {
+                accumulatePivotDistances(source, reached);
+            } else {
+                scores[source] = scoreDistances(source, reached);
+            }
+
+            for (int index = 0; index < reached; index++) {
+                final int position = order[index];
+                distances[position] = -1;
+                if (pathCounts != null) {
+                    pathCounts[position] = 0;
+                    dependencies[position] = 0;
+                }
+            }
+        }
+
+        private int traverse(final int source) {
+            int head = 0;
+            int tail = 0;
+            order[tail++] = source;
+            distances[source] = 0;
+            if (pathCounts != null) {
+                pathCounts[source] = 1;
+            }
+            while (head < tail) {
+                final int position = order[head++];
+                final int distance = distances[position] + 1;
+                for (int entry = offsets[position]; entry < offsets[position + 1]; entry++) {
+                    final int target = targets[entry];
+                    if (distances[target] < 0) {
+                        distances[target] = distance;
+                        order[tail++] = target;
+                    }
+                    if (pathCounts != null && distances[target] == distance) {
+                        pathCounts[target] += pathCounts[position];
+                    }
+                }
+            }
+            return tail;
+        }
+
+        private void accumulateDependencies(final int source, final int reached) {
+            // visit vertices furthest first, so each successor's dependency is complete
+            for (int index = reached - 1; index > 0; index--) {
+                final int position = order[index];
+                final int distance = distances[position] + 1;
+                double dependency = 0;
+                for (int entry = offsets[position]; entry < offsets[position + 1]; entry++) {
+                    final int target = targets[entry];
+                    if (distances[target] == distance) {
+                        dependency += (pathCounts[position] / pathCounts[target]) * ((counted[target] ? 1 : 0) + dependencies[target]);
+                    }
+                }
+                dependencies[position] = dependency;
+                accumulated[position] += dependency;
+            }
+        }
+
+        private void accumulatePivotDistances(final int pivot, final int reached) {
+            // the search followed transactions backwards, so each vertex reached is this far from the pivot
+            for (int index = 1; index < reached; index++) {
+                final int position = order[index];
+                final int distance = distances[position];
+                switch (scoreType) {
+                    case AVERAGE_DISTANCE:
+                        accumulated[position] += distance;
+                        break;
+                    case CLOSENESS:
+                    case FARNESS:
+                        accumulated[position] += counted[pivot] ? distance : 0;
+                        break;
+                    default:
+                        accumulated[position] += ((counted[pivot] ? 1 : 0) + (undirected && counted[position] ? 1 : 0)) / (double) distance;
+                        break;
+                }
+            }
+        }
+
+        private float scoreDistances(final int source, final int reached) {
+            if (scoreType == ScoreType.ECCENTRICITY) {
+                return distances[order[reached - 1]];
+            }
+
+            // vertices are visited nearest first, so the scores are summed in order of distance
+            float score = 0;
+            for (int index = 1; index < reached; index++) {
+                final int position = order[index];
+                final int distance = distances[position];
+                switch (scoreType) {
+                    case AVERAGE_DISTANCE:
+                        score += distance;
+                        break;
+                    case CLOSENESS:
+                    case FARNESS:
+                        score += counted[position] ? distance : 0;
+                        break;
+                    default:
+                        // undirected paths are counted from both ends
+                        if (counted[position]) {
+                            score += 1.0 / distance;
+                        }
+                        if (undirected && counted[source]) {
+                            score += 1.0 / distance;
+                        }
+                        break;
+                }
+            }
+            return score;
+        }
+    }
+}
@@ -22,6 +22,7 @@ import au.gov.asd.tac.constellation.plugins.PluginInfo;
 import au.gov.asd.tac.constellation.plugins.PluginInteraction;
 import au.gov.asd.tac.constellation.plugins.algorithms.sna.SnaConcept;
 import au.gov.asd.tac.constellation.plugins.algorithms.sna.centrality.PathScoringUtilities;
+import au.gov.asd.tac.constellation.plugins.algorithms.sna.centrality.ShortestPathEngine;
 import au.gov.asd.tac.constellation.plugins.parameters.PluginParameter;
 import au.gov.asd.tac.constellation.plugins.parameters.PluginParameters;
 import au.gov.asd.tac.constellation.plugins.parameters.types.BooleanParameterType;
@@ -29,8 +30,6 @@ import au.gov.asd.tac.constellation.plugins.parameters.types.BooleanParameterTyp
 import au.gov.asd.tac.constellation.plugins.templates.PluginTags;
 import au.gov.asd.tac.constellation.plugins.templates.SimpleEditPlugin;
 import au.gov.asd.tac.constellation.utilities.datastructure.Tuple;
-import java.util.BitSet;
-import java.util.HashMap;
 import org.openide.util.NbBundle.Messages;
 import org.openide.util.lookup.ServiceProvider;
 
@@ -99,23 +98,19 @@ public class EccentricityPlugin extends SimpleEditPlugin {
         final boolean normaliseConnectedComponents = parameters.getBooleanValue(NORMALISE_CONNECTED_COMPONENTS_PARAMETER_ID);
 
         // calculate eccentricities
-        final Tuple<BitSet[], float[]> scoreResult = PathScoringUtilities.calculateScores(graph, PathScoringUtilities.ScoreType.ECCENTRICITY, includeConnectionsIn, includeConnectionsOut, treatUndirectedBidirectional, false);
-        final BitSet[] subgraphs = scoreResult.getFirst();
+        final Tuple<int[], float[]> scoreResult = ShortestPathEngine.calculateScores(graph, PathScoringUtilities.ScoreType.ECCENTRICITY, includeConnectionsIn, includeConnectionsOut, treatUndirectedBidirectional, false);
+        final int[] components = scoreResult.getFirst();
         final float[] eccentricities = scoreResult.getSecond();
 
         // calculate the maximum eccentricity
         float maxEccentricity = 0;
-        final HashMap<BitSet, Float> maxEccentricityConnectedComponents = new HashMap<>();
         final int vertexCount = graph.getVertexCount();
+        final float[] maxEccentricityConnectedComponents = new float[vertexCount];
         for (int vertexPosition = 0; vertexPosition < vertexCount; vertexPosition++) {
-            final float betweenness = eccentricities[vertexPosition];
-            final BitSet subgraph = subgraphs[vertexPosition];
-            if (!maxEccentricityConnectedComponents.containsKey(subgraph)) {
-                maxEccentricityConnectedComponents.put(subgraph, betweenness);
-            } else {
-                maxEccentricityConnectedComponents.put(subgraph, Math.max(betweenness, maxEccentricityConnectedComponents.get(subgraph)));
-            }
-            maxEccentricity = Math.max(betweenness, maxEccentricity);
+            final float eccentricity = eccentricities[vertexPosition];
+            final int component = components[vertexPosition];
+            maxEccentricityConnectedComponents[component] = Math.max(eccentricity, maxEccentricityConnectedComponents[component]);
+            maxEccentricity = Math.max(eccentricity, maxEccentricity);
         }
 
         // update the graph with betweenness values
@@ -124,7 +119,7 @@ public class EccentricityPlugin extends SimpleEditPlugin {
             final int vertexId = graph.getVertex(vertexPosition);
             if (normaliseByAvailable && maxEccentricity > 0) {
                 if (normaliseConnectedComponents) {
-                    final float maxBetweennessConnectedComponent = maxEccentricityConnectedComponents.get(subgraphs[vertexPosition]);
+                    final float maxBetweennessConnectedComponent = maxEccentricityConnectedComponents[components[vertexPosition]];
                     graph.setFloatValue(betweennessAttribute, vertexId, 1 - (eccentricities[vertexPosition] / maxBetweennessConnectedComponent));
                 } else {
                     graph.setFloatValue(betweennessAttribute, vertexId, 1 - (eccentricities[vertexPosition] / maxEccentricity));
@@ -21,16 +21,13 @@ import au.gov.asd.tac.constellation.plugins.Plugin;
 import au.gov.asd.tac.constellation.plugins.PluginInfo;
 import au.gov.asd.tac.constellation.plugins.PluginInteraction;
 import au.gov.asd.tac.constellation.plugins.algorithms.sna.SnaConcept;
+import au.gov.asd.tac.constellation.plugins.algorithms.triangles.TriangleEngine;
 import au.gov.asd.tac.constellation.plugins.parameters.PluginParameter;
 import au.gov.asd.tac.constellation.plugins.parameters.PluginParameters;
 import au.gov.asd.tac.constellation.plugins.parameters.types.BooleanParameterType;
 import au.gov.asd.tac.constellation.plugins.parameters.types.BooleanParameterType.BooleanParameterValue;
 import au.gov.asd.tac.constellation.plugins.templates.PluginTags;
 import au.gov.asd.tac.constellation.plugins.templates.SimpleEditPlugin;
-import java.math.BigInteger;
-import java.util.BitSet;
-import java.util.HashMap;
-import java.util.Map;
 import org.openide.util.NbBundle;
 import org.openide.util.lookup.ServiceProvider;
 
@@ -67,75 +64,31 @@ public class LocalClusteringCoefficientPlugin extends SimpleEditPlugin {
         final boolean normaliseByAvailable = parameters.getBooleanValue(NORMALISE_AVAILABLE_PARAMETER_ID);
         final int localClusteringCoefficientAttribute = LOCAL_CLUSTERING_COEFFICIENT_ATTRIBUTE.ensure(graph);
 
-        // map each vertex to its neighbours
-        final Map<Integer, BitSet> neighbourMap = new HashMap<>();
-        final int vertexCount = graph.getVertexCount();
-        for (int vertexPosition = 0; vertexPosition < vertexCount; vertexPosition++) {
-            final int vertexId = graph.getVertex(vertexPosition);
-            final BitSet vertexNeighbours = new BitSet(vertexCount);
+        // count the triangles of each vertex, which are its connected neighbour pairs
+        final TriangleEngine engine = TriangleEngine.of(graph);
+        final long[] connectedNeighbourPairs = engine.getVertexTriangleCounts();
 
-            final int neighbourCount = graph.getVertexNeighbourCount(vertexId);
-            for (int neighbourPosition = 0; neighbourPosition < neighbourCount; neighbourPosition++) {
-                final int neighbourId = graph.getVertexNeighbour(vertexId, neighbourPosition);
-                final int actualNeighbourPosition = graph.getVertexPosition(neighbourId);
-                vertexNeighbours.set(actualNeighbourPosition);
-            }
-
-            neighbourMap.put(vertexPosition, vertexNeighbours);
-        }
-
-        // compute the local clustering coefficient for each vertex
+        // calculate the number of neighbour pairs and then the local clustering coefficient
+        final int vertexCount = engine.getVertexCount();
+        final float[] localClusteringCoefficients = new float[vertexCount];
         float maxLocalClusteringCoefficient = 0;
-        final Map<Integer, Float> localClusteringCoefficients = new HashMap<>();
-        for (final Map.Entry<Integer, BitSet> entry : neighbourMap.entrySet()) {
-            final int vertexId = graph.getVertex(entry.getKey());
-            final BitSet vertexNeighbours = entry.getValue();
-
-            // calculate the number of connected neighbours (remembering to divide
-            // by two as we will see each pair twice, once from each direction)
-            int connectedNeighbourPairs = 0;
-            for (int neighbourPosition = vertexNeighbours.nextSetBit(0); neighbourPosition >= 0; neighbourPosition = vertexNeighbours.nextSetBit(neighbourPosition + 1)) {
-                if (neighbourPosition == entry.getKey()) {
-                    continue;
-                }
-                final BitSet neighbourNeighbours = neighbourMap.get(neighbourPosition);
-                final BitSet intersection = (BitSet) neighbourNeighbours.clone();
-                intersection.and(vertexNeighbours);
-                connectedNeighbourPairs += intersection.cardinality();
-            }
-            connectedNeighbourPairs /= 2;
-
-            // calculate the number of neighbour pairs and then the local clustering coefficient
-            final int allNeighbourPairs = numberUniquePairs(vertexNeighbours.cardinality(), 2);
+        for (int vertexPosition = 0; vertexPosition < vertexCount; vertexPosition++) {
+            final long degree = engine.getDegree(vertexPosition);
+            final long allNeighbourPairs = degree * (degree - 1) / 2;
             final float localClusteringCoefficient = allNeighbourPairs == 0
-                    ? 0 : (float) connectedNeighbourPairs / allNeighbourPairs;
+                    ? 0 : (float) connectedNeighbourPairs[vertexPosition] / allNeighbourPairs;
             maxLocalClusteringCoefficient = Math.max(localClusteringCoefficient, maxLocalClusteringCoefficient);
-            localClusteringCoefficients.put(vertexId, localClusteringCoefficient);
+            localClusteringCoefficients[vertexPosition] = localClusteringCoefficient;
         }
 
         // update the graph with degree values
-        for (final Map.Entry<Integer, Float> entry : localClusteringCoefficients.entrySet()) {
+        for (int vertexPosition = 0; vertexPosition < vertexCount; vertexPosition++) {
+            final int vertexId = graph.getVertex(vertexPosition);
             if (normaliseByAvailable && maxLocalClusteringCoefficient > 0) {
-                graph.setFloatValue(localClusteringCoefficientAttribute, entry.getKey(), entry.getValue() / maxLocalClusteringCoefficient);
+                graph.setFloatValue(localClusteringCoefficientAttribute, vertexId, localClusteringCoefficients[vertexPosition] / maxLocalClusteringCoefficient);
             } else {
-                graph.setFloatValue(localClusteringCoefficientAttribute, entry.getKey(), entry.getValue());
+                graph.setFloatValue(localClusteringCoefficientAttribute, vertexId, localClusteringCoefficients[vertexPosition]);
             }
         }
     }
-
-    private int numberUniquePairs(final int numberItems, final int numberPerPair) {
-        return factorial(numberItems)
-                .divide(factorial(numberPerPair)
-                        .multiply(factorial(numberItems - numberPerPair))
-                ).intValueExact();
-    }
-
-    private static BigInteger factorial(final int n) {
-        BigInteger factorial = new BigInteger(String.valueOf(1));
-        for (int i = 1; i <= n; i++) {
-            factorial = factorial.multiply(new BigInteger(String.valueOf(i)));
-        }
-
-        return factorial;
-    }
 }
@@ -15,11 +15,9 @@
  */
 package au.gov.asd.tac.constellation.plugins.algorithms.sna.similarity;
 
-import au.gov.asd.tac.constellation.graph.GraphConstants;
 import au.gov.asd.tac.constellation.graph.GraphWriteMethods;
 import au.gov.asd.tac.constellation.graph.schema.attribute.SchemaAttribute;
 import au.gov.asd.tac.constellation.graph.schema.visual.VisualSchemaPluginRegistry;
-import au.gov.asd.tac.constellation.graph.schema.visual.concept.VisualConcept;
 import au.gov.asd.tac.constellation.plugins.Plugin;
 import au.gov.asd.tac.constellation.plugins.PluginException;
 import au.gov.asd.tac.constellation.plugins.PluginExecution;
@@ -34,7 +32,6 @@ import au.gov.asd.tac.constellation.plugins.parameters.types.IntegerParameterTyp
 import au.gov.asd.tac.constellation.plugins.parameters.types.IntegerParameterType.IntegerParameterValue;
 import au.gov.asd.tac.constellation.plugins.templates.PluginTags;
 import au.gov.asd.tac.constellation.plugins.templates.SimpleEditPlugin;
-import java.util.BitSet;
 import org.openide.util.NbBundle;
 import org.openide.util.lookup.ServiceProvider;
 
@@ -56,6 +53,8 @@ public class JaccardIndexPlugin extends SimpleEditPlugin {
     public static final String TREAT_UNDIRECTED_BIDIRECTIONAL_PARAMETER_ID = PluginParameter.buildId(JaccardIndexPlugin.class, "treat_undirected_bidirectional");
     public static final String MINIMUM_COMMON_FEATURES_PARAMETER_ID = PluginParameter.buildId(JaccardIndexPlugin.class, "minimum_common_features");
     public static final String SELECTED_ONLY_PARAMETER_ID = PluginParameter.buildId(JaccardIndexPlugin.class, "selected_only");
+    public static final String MAXIMUM_RESULTS_PARAMETER_ID = PluginParameter.buildId(JaccardIndexPlugin.class, "maximum_results");
+    public static final String APPROXIMATE_PARAMETER_ID = PluginParameter.buildId(JaccardIndexPlugin.class, "approximate");
 
     @Override
     public PluginParameters createParameters() {
@@ -92,6 +91,19 @@ public class JaccardIndexPlugin extends SimpleEditPlugin {
         selectedOnlyParameter.setBooleanValue(false);
         parameters.addParameter(selectedOnlyParameter);
 
+        final PluginParameter<IntegerParameterValue> maximumResultsParameter = IntegerParameterType.build(MAXIMUM_RESULTS_PARAMETER_ID);
+        maximumResultsParameter.setName("Maximum Results Per Node");
+        maximumResultsParameter.setDescription("Only add the most similar nodes to each node, or 0 to add every node meeting the other criteria");
+        maximumResultsParameter.setIntegerValue(0);
+        IntegerParameterType.setMinimum(maximumResultsParameter, 0);
+        parameters.addParameter(maximumResultsParameter);
+
+        final PluginParameter<BooleanParameterValue> approximateParameter = BooleanParameterType.build(APPROXIMATE_PARAMETER_ID);
+        approximateParameter.setName("Approximate");
+        approximateParameter.setDescription("Only compare nodes whose MinHash signatures match, which is much faster on large graphs but may miss pairs that share few features");
+        approximateParameter.setBooleanValue(false);
+        parameters.addParameter(approximateParameter);
+
         return parameters;
     }
 
@@ -102,76 +114,22 @@ public class JaccardIndexPlugin extends SimpleEditPlugin {
         final boolean treatUndirectedBidirectional = parameters.getBooleanValue(TREAT_UNDIRECTED_BIDIRECTIONAL_PARAMETER_ID);
         final int minCommonFeatures = parameters.getParameters().get(MINIMUM_COMMON_FEATURES_PARAMETER_ID).getIntegerValue();
         final boolean selectedOnly = parameters.getBooleanValue(SELECTED_ONLY_PARAMETER_ID);
+        final int maximumResults = parameters.getParameters().get(MAXIMUM_RESULTS_PARAMETER_ID).getIntegerValue();
+        final boolean approximate = parameters.getBooleanValue(APPROXIMATE_PARAMETER_ID);
+
+        // the direction of each connection is taken relative to the neighbour, so an incoming connection is a transaction from the vertex to the neighbour
+        final SimilarityEngine.Features features = SimilarityEngine.Features.of(graph, includeConnectionsOut, includeConnectionsIn, treatUndirectedBidirectional);
+
+        // calculate jaccard index for every pair of vertices sharing a neighbour
+        final SimilarityEngine.Scores scores = new SimilarityEngine(features)
+                .setMinimumCommonFeatures(minCommonFeatures)
+                .setSelected(selectedOnly ? SimilarityEngine.getSelectedVertices(graph) : null, false)
+                .setMaximumResults(maximumResults, SimilarityEngine.Measure.JACCARD)
+                .setApproximate(approximate)
+                .calculate();
+        final float[] values = scores.getScores(SimilarityEngine.Measure.JACCARD);
+        SimilarityUtilities.addScoresToGraph(graph, JACCARD_INDEX_ATTRIBUTE, scores, values);
 
-        final int vertexSelectedAttributeId = VisualConcept.VertexAttribute.SELECTED.get(graph);
-
-        // map each vertex to its neighbour count
-        final int vertexCount = graph.getVertexCount();
-        final BitSet[] neighbours = new BitSet[vertexCount];
-        final BitSet update = new BitSet(vertexCount);
-        final BitSet selected = new BitSet(vertexCount);
-        for (int vertexPosition = 0; vertexPosition < vertexCount; vertexPosition++) {
-            final int vertexId = graph.getVertex(vertexPosition);
-            neighbours[vertexPosition] = new BitSet(vertexCount);
-            for (int vertexNeighbourPosition = 0; vertexNeighbourPosition < graph.getVertexNeighbourCount(vertexId); vertexNeighbourPosition++) {
-                final int neighbourId = graph.getVertexNeighbour(vertexId, vertexNeighbourPosition);
-                final int neighbourPosition = graph.getVertexPosition(neighbourId);
-
-                if (vertexPosition == neighbourPosition) {
-                    continue;
-                }
-
-                final int linkId = graph.getLink(vertexId, neighbourId);
-                for (int linkEdgePosition = 0; linkEdgePosition < graph.getLinkEdgeCount(linkId); linkEdgePosition++) {
-                    final int edgeId = graph.getLinkEdge(linkId, linkEdgePosition);
-                    final int edgeDirection = graph.getEdgeDirection(edgeId);
-                    final boolean isRequestedDirection = (treatUndirectedBidirectional && edgeDirection == GraphConstants.UNDIRECTED
-                            || includeConnectionsIn && graph.getEdgeDestinationVertex(edgeId) == neighbourId
-                            || includeConnectionsOut && graph.getEdgeSourceVertex(edgeId) == neighbourId);
-                    if (isRequestedDirection) {
-                        if (!SimilarityUtilities.checkEdgeTypes(graph, edgeId)) {
-                            continue;
-                        }
-                        neighbours[vertexPosition].set(neighbourPosition, true);
-                        update.set(vertexPosition, true);
-                    }
-                }
-            }
-            final boolean vertexSelected = graph.getBooleanValue(vertexSelectedAttributeId, vertexId);
-            selected.set(vertexPosition, vertexSelected);
-        }
-
-        // calculate jaccard index for every pair of vertices on the graph
-        SimilarityUtilities.setGraphAndEnsureAttributes(graph, JACCARD_INDEX_ATTRIBUTE);
-        for (int vertexOnePosition = update.nextSetBit(0); vertexOnePosition >= 0; vertexOnePosition = update.nextSetBit(vertexOnePosition + 1)) {
-            for (int vertexTwoPosition = update.nextSetBit(0); vertexTwoPosition >= 0; vertexTwoPosition = update.nextSetBit(vertexTwoPosition + 1)) {
-                if (!selectedOnly || (selected.get(vertexOnePosition) || selected.get(vertexTwoPosition))) {
-                    if (vertexOnePosition >= vertexTwoPosition) {
-                        continue;
-                    }
-
-                    final BitSet intersection = (BitSet) neighbours[vertexOnePosition].clone();
-                    intersection.and(neighbours[vertexTwoPosition]);
-                    intersection.set(vertexOnePosition, false);
-                    intersection.set(vertexTwoPosition, false);
-
-                    if (intersection.cardinality() < minCommonFeatures) {
-                        continue;
-                    }
-
-                    final BitSet union = (BitSet) neighbours[vertexOnePosition].clone();
-                    union.or(neighbours[vertexTwoPosition]);
-                    union.set(vertexOnePosition, false);
-                    union.set(vertexTwoPosition, false);
-
-                    final int vertexOneId = graph.getVertex(vertexOnePosition);
-                    final int vertexTwoId = graph.getVertex(vertexTwoPosition);
-
-                    final float jaccardIndex = union.cardinality() == 0 ? 0F : (float) intersection.cardinality() / union.cardinality();
-                    SimilarityUtilities.addScoreToGraph(vertexOneId, vertexTwoId, jaccardIndex);
-                }
-            }
-        }
         // complete with schema
         PluginExecution.withPlugin(VisualSchemaPluginRegistry.COMPLETE_SCHEMA).executeNow(graph);
     }
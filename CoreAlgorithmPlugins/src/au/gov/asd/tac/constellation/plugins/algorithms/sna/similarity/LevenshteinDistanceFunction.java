@@ -18,11 +18,22 @@ package au.gov.asd.tac.constellation.plugins.algorithms.sna.similarity;
 import java.util.Arrays;
 
 /**
+ * Calculates the Levenshtein distance between two strings, up to a maximum
+ * distance k. Distances greater than k are returned as k + 1.
+ * <p>
+ * When the shorter string is at most 64 characters long, the distance is
+ * calculated with Myers' bit-parallel algorithm, which processes a whole
+ * column of the dynamic programming matrix per character. Longer strings fall
+ * back to a dynamic programming calculation restricted to a band of width 2k
+ * around the diagonal.
  *
  * @author canis_majoris
  */
 public class LevenshteinDistanceFunction implements DistanceFunction<String> {
 
+    private static final int WORD_SIZE = Long.SIZE;
+    private static final int TABLE_SIZE = WORD_SIZE * 2;
+
     private final int k;
 
     protected LevenshteinDistanceFunction(final int k) {
@@ -58,6 +69,13 @@ public class LevenshteinDistanceFunction implements DistanceFunction<String> {
             m = right.length();
         }
 
+        if (m - n > k) {
+            return k + 1.0;
+        }
+        if (n <= WORD_SIZE) {
+            return getBitParallelDistance(left, right, k);
+        }
+
         int[] p = new int[n + 1];
         int[] d = new int[n + 1];
         int[] tempD;
@@ -104,4 +122,62 @@ public class LevenshteinDistanceFunction implements DistanceFunction<String> {
         return k + 1.0;
     }
 
+    /**
+     * Calculate the distance between a pattern of at most 64 characters and a
+     * text using Myers' algorithm, as formulated by Hyyrö. Each bit of the
+     * vertical delta vectors holds the difference between adjacent rows of
+     * the current column, and the score tracks the last row. The calculation
+     * stops early once the score cannot come back within k.
+     */
+    private static int getBitParallelDistance(final CharSequence pattern, final CharSequence text, final int k) {
+        final int patternLength = pattern.length();
+        final int textLength = text.length();
+
+        // the positions of each character in the pattern, held in a small open addressing table
+        final char[] characters = new char[TABLE_SIZE];
+        final long[] matches = new long[TABLE_SIZE];
+        for (int i = 0; i < patternLength; i++) {
+            final char c = pattern.charAt(i);
+            final int slot = getSlot(characters, matches, c);
+            characters[slot] = c;
+            matches[slot] |= 1L << i;
+        }
+
+        final long lastBit = 1L << (patternLength - 1);
+        long positiveVertical = -1L;
+        long negativeVertical = 0L;
+        int score = patternLength;
+        for (int j = 0; j < textLength; j++) {
+            final long equal = matches[getSlot(characters, matches, text.charAt(j))];
+            final long verticalChange = equal | negativeVertical;
+            final long horizontalChange = (((equal & positiveVertical) + positiveVertical) ^ positiveVertical) | equal;
+            long positiveHorizontal = negativeVertical | ~(horizontalChange | positiveVertical);
+            long negativeHorizontal = positiveVertical & horizontalChange;
+
+            if ((positiveHorizontal & lastBit) != 0) {
+                score++;
+            } else if ((negativeHorizontal & lastBit) != 0) {
+                score--;
+            }
+            if (score - (textLength - j - 1) > k) {
+                return k + 1;
+            }
+
+            // the first row of the matrix increases by one in every column
+            positiveHorizontal = (positiveHorizontal << 1) | 1L;
+            negativeHorizontal <<= 1;
+            positiveVertical = negativeHorizontal | ~(verticalChange | positiveHorizontal);
+            negativeVertical = positiveHorizontal & verticalChange;
+        }
+
+        return score <= k ? score : k + 1;
+    }
+
+    private static int getSlot(final char[] characters, final long[] matches, final char c) {
+        int slot = c & (TABLE_SIZE - 1);
+        while (matches[slot] != 0 && characters[slot] != c) {
+            slot = (slot + 1) & (TABLE_SIZE - 1);
+        }
+        return slot;
+    }
 }
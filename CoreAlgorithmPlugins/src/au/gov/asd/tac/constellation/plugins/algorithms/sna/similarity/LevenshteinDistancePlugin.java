@@ -38,10 +38,9 @@ import au.gov.asd.tac.constellation.plugins.parameters.types.SingleChoiceParamet
 import au.gov.asd.tac.constellation.plugins.parameters.types.SingleChoiceParameterType.SingleChoiceParameterValue;
 import au.gov.asd.tac.constellation.plugins.templates.PluginTags;
 import au.gov.asd.tac.constellation.plugins.templates.SimpleEditPlugin;
-import au.gov.asd.tac.constellation.utilities.datastructure.Tuple;
 import au.gov.asd.tac.constellation.utilities.gui.NotifyDisplayer;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Map;
 import org.apache.commons.lang3.StringUtils;
@@ -130,7 +129,6 @@ public class LevenshteinDistancePlugin extends SimpleEditPlugin {
         final boolean caseInsensitive = parameters.getBooleanValue(CASE_INSENSITIVE_PARAMETER_ID);
         final boolean selectedOnly = parameters.getBooleanValue(SELECTED_ONLY_PARAMETER_ID);
 
-        final int vertexSelectedAttributeId = VisualConcept.VertexAttribute.SELECTED.get(graph);
         final int vertexCompareAttributeId = graph.getAttribute(GraphElementType.VERTEX, compareAttribute);
 
         if (vertexCompareAttributeId == Graph.NOT_FOUND) {
@@ -138,51 +136,28 @@ public class LevenshteinDistancePlugin extends SimpleEditPlugin {
             return;
         }
 
-        final Map<Tuple<Integer, Integer>, Integer> distances = new HashMap<>();
-
-        // compare each pair of vertices
+        // collect the value of each vertex to compare, leaving null those that should be ignored
         final int vertexCount = graph.getVertexCount();
-        for (int one = 0; one < vertexCount; one++) {
-            final int vxOneId = graph.getVertex(one);
-            if (selectedOnly && !graph.getBooleanValue(vertexSelectedAttributeId, vxOneId)) {
-                continue;
+        final BitSet selected = SimilarityEngine.getSelectedVertices(graph);
+        final String[] values = new String[vertexCount];
+        for (int position = 0; position < vertexCount; position++) {
+            final String value = graph.getStringValue(vertexCompareAttributeId, graph.getVertex(position));
+            if ((!selectedOnly || selected.get(position)) && !StringUtils.isBlank(value)) {
+                values[position] = caseInsensitive ? value.toLowerCase() : value;
             }
-            for (int two = one + 1; two < vertexCount; two++) {
-                final int vxTwoId = graph.getVertex(two);
-                if (selectedOnly && !graph.getBooleanValue(vertexSelectedAttributeId, vxTwoId)) {
-                    continue;
-                }
-
-                String stringOne = graph.getStringValue(vertexCompareAttributeId, vxOneId);
-                String stringTwo = graph.getStringValue(vertexCompareAttributeId, vxTwoId);
-
-                if (StringUtils.isBlank(stringOne)
-                        || StringUtils.isBlank(stringTwo)
-                        || Math.abs(stringOne.length() - stringTwo.length()) > maxDistance) {
-                    continue;
-                }
-
-                if (caseInsensitive) {
-                    stringOne = stringOne.toLowerCase();
-                    stringTwo = stringTwo.toLowerCase();
-                }
-
-                if (stringOne.equals(stringTwo)) {
-                    distances.put(Tuple.create(vxOneId, vxTwoId), 0);
-                    continue;
-                }
-
-                final LevenshteinDistanceFunction ldf = new LevenshteinDistanceFunction(maxDistance);
-                final double distance = ldf.getDistance(stringOne, stringTwo);
-                if (distance > maxDistance) {
-                    continue;
-                }
-
-                SimilarityUtilities.setGraphAndEnsureAttributes(graph, LEVENSHTEIN_DISTANCE_ATTRIBUTE);
-                SimilarityUtilities.addScoreToGraph(vxOneId, vxTwoId, (float) distance);
+        }
 
-            }
+        // find each pair of different values within the maximum distance
+        final LevenshteinIndex.Matches matches = new LevenshteinIndex(values, maxDistance).findMatches();
+        final int[] firstPositions = new int[matches.size()];
+        final int[] secondPositions = new int[matches.size()];
+        final float[] distances = new float[matches.size()];
+        for (int match = 0; match < matches.size(); match++) {
+            firstPositions[match] = matches.getFirst(match);
+            secondPositions[match] = matches.getSecond(match);
+            distances[match] = matches.getDistance(match);
         }
+        SimilarityUtilities.addScoresToGraph(graph, LEVENSHTEIN_DISTANCE_ATTRIBUTE, firstPositions, secondPositions, distances);
 
         // complete with schema
         PluginExecution.withPlugin(VisualSchemaPluginRegistry.COMPLETE_SCHEMA).executeNow(graph);
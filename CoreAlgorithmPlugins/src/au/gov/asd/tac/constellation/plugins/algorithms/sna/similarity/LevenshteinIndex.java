@@ -0,0 +1,277 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.plugins.algorithms.sna.similarity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Finds every pair of strings within a maximum Levenshtein distance of each
+ * other without comparing every pair.
+ * <p>
+ * Each distinct string of length L is split into k + 1 segments, where k is
+ * the maximum distance. If two strings are within distance k, at least one
+ * segment of the longer string is untouched by the edits and so appears in
+ * the shorter string, shifted by at most k characters. Segments are indexed by
+ * the length of their string, their number and their hash, so the candidates
+ * for a string are found by looking up each of its substrings near the
+ * position of each segment. Candidates are then verified in parallel using
+ * {@link LevenshteinDistanceFunction}. Strings shorter than k + 1 characters
+ * cannot be split into non-empty segments, and are compared with each other
+ * directly.
+ *
+ * @author sirius
+ */
+public class LevenshteinIndex {
+
+    private final int maximumDistance;
+    private final String[] distinctValues;
+    private final int[][] members;
+    private final Map<Long, int[]> segments;
+    private final int[] shortValues;
+
+    /**
+     * The pairs of values found to be within the maximum distance, ordered by
+     * the index of the first value of each pair and then by the index of the
+     * second. The first value of each pair always has the lower index.
+     */
+    public static final class Matches {
+
+        private final int[] firsts;
+        private final int[] seconds;
+        private final int[] distances;
+
+        private Matches(final int[] firsts, final int[] seconds, final int[] distances) {
+            this.firsts = firsts;
+            this.seconds = seconds;
+            this.distances = distances;
+        }
+
+        public int size() {
+            return firsts.length;
+        }
+
+        public int getFirst(final int match) {
+            return firsts[match];
+        }
+
+        public int getSecond(final int match) {
+            return seconds[match];
+        }
+
+        public int getDistance(final int match) {
+            return distances[match];
+        }
+    }
+
+    /**
+     * Index a set of values.
+     *
+     * @param values the values to index, where null values are ignored.
+     * @param maximumDistance the maximum distance between matching values.
+     */
+    public LevenshteinIndex(final String[] values, final int maximumDistance) {
+        if (maximumDistance < 0) {
+            throw new IllegalArgumentException("Maximum distance cannot be negative.");
+        }
+        this.maximumDistance = maximumDistance;
+
+        // group identical values so that each distinct value is only compared once
+        final Map<String, List<Integer>> groups = new LinkedHashMap<>();
+        for (int index = 0; index < values.length; index++) {
+            if (values[index] != null) {
+                groups.computeIfAbsent(values[index], value -> new ArrayList<>()).add(index);
+            }
+        }
+        distinctValues = groups.keySet().toArray(new String[groups.size()]);
+        members = groups.values().stream()
+                .map(group -> group.stream().mapToInt(Integer::intValue).toArray())
+                .toArray(int[][]::new);
+
+        final Map<Long, List<Integer>> segmentLists = new HashMap<>();
+        final List<Integer> shortList = new ArrayList<>();
+        for (int distinct = 0; distinct < distinctValues.length; distinct++) {
+            final String value = distinctValues[distinct];
+            final int length = value.length();
+            if (length <= maximumDistance) {
+                shortList.add(distinct);
+                continue;
+            }
+            for (int segment = 0; segment <= maximumDistance; segment++) {
+                final int start = getSegmentStart(length, segment);
+                final long key = getKey(length, segment, value, start, getSegmentStart(length, segment + 1) - start);
+                segmentLists.computeIfAbsent(key, k -> new ArrayList<>()).add(distinct);
+            }
+        }
+        segments = new HashMap<>(segmentLists.size() * 2);
+        segmentLists.forEach((key, list) -> segments.put(key, list.stream().mapToInt(Integer::intValue).toArray()));
+        shortValues = shortList.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Find every pair of values within the maximum distance of each other.
+     * Pairs of identical values are not returned.
+     *
+     * @return the matching pairs and their distances.
+     */
+    public Matches findMatches() {
+        final int distinctCount = distinctValues.length;
+        final ThreadLocal<int[]> seen = ThreadLocal.withInitial(() -> {
+            final int[] stamps = new int[distinctCount];
+            Arrays.fill(stamps, -1);
+            return stamps;
+        });
+
+        // each result holds pairs of (other distinct value, distance)
+        final int[][] distinctMatches = IntStream.range(0, distinctCount).parallel()
+                .mapToObj(distinct -> findMatches(distinct, seen.get()))
+                .toArray(int[][]::new);
+
+        int matchCount = 0;
+        for (int distinct = 0; distinct < distinctCount; distinct++) {
+            for (int index = 0; index < distinctMatches[distinct].length; index += 2) {
+                matchCount += members[distinct].length * members[distinctMatches[distinct][index]].length;
+            }
+        }
+
+        final int[] firsts = new int[matchCount];
+        final int[] seconds = new int[matchCount];
+        final int[] distances = new int[matchCount];
+        int match = 0;
+        for (int distinct = 0; distinct < distinctCount; distinct++) {
+            for (int index = 0; index < distinctMatches[distinct].length; index += 2) {
+                for (final int member : members[distinct]) {
+                    for (final int otherMember : members[distinctMatches[distinct][index]]) {
+                        firsts[match] = Math.min(member, otherMember);
+                        seconds[match] = Math.max(member, otherMember);
+                        distances[match++] = distinctMatches[distinct][index + 1];
+                    }
+                }
+            }
+        }
+
+        final Integer[] order = new Integer[matchCount];
+        Arrays.setAll(order, index -> index);
+        Arrays.sort(order, (a, b) -> firsts[a] != firsts[b]
+                ? Integer.compare(firsts[a], firsts[b])
+                : Integer.compare(seconds[a], seconds[b]));
+        return new Matches(
+                Arrays.stream(order).mapToInt(index -> firsts[index]).toArray(),
+                Arrays.stream(order).mapToInt(index -> seconds[index]).toArray(),
+                Arrays.stream(order).mapToInt(index -> distances[index]).toArray());
+    }
+
+    /**
+     * Find the distinct values matching a single distinct value. To find each
+     * pair once, only values that are longer, or of the same length and later
+     * in the index, are considered.
+     */
+    private int[] findMatches(final int distinct, final int[] seen) {
+        final String value = distinctValues[distinct];
+        final int length = value.length();
+        final LevenshteinDistanceFunction distanceFunction = new LevenshteinDistanceFunction(maximumDistance);
+        int[] result = new int[0];
+        int resultCount = 0;
+
+        if (length <= maximumDistance) {
+            for (final int other : shortValues) {
+                if (isLater(distinct, other)) {
+                    result = addMatch(result, resultCount, other, (int) distanceFunction.getDistance(value, distinctValues[other]));
+                    resultCount += 2;
+                }
+            }
+        }
+
+        for (int otherLength = Math.max(length, maximumDistance + 1); otherLength <= length + maximumDistance; otherLength++) {
+            for (int segment = 0; segment <= maximumDistance; segment++) {
+                final int segmentStart = getSegmentStart(otherLength, segment);
+                final int segmentLength = getSegmentStart(otherLength, segment + 1) - segmentStart;
+                final int firstStart = Math.max(0, segmentStart - maximumDistance);
+                final int lastStart = Math.min(length - segmentLength, segmentStart + maximumDistance);
+                for (int start = firstStart; start <= lastStart; start++) {
+                    // shifting the segment takes edits before it, and the rest of the length difference takes edits after it
+                    final int shift = start - segmentStart;
+                    if (Math.abs(shift) + Math.abs(shift + otherLength - length) > maximumDistance) {
+                        continue;
+                    }
+                    final int[] candidates = segments.get(getKey(otherLength, segment, value, start, segmentLength));
+                    if (candidates == null) {
+                        continue;
+                    }
+                    for (final int other : candidates) {
+                        if (seen[other] == distinct || !isLater(distinct, other)) {
+                            continue;
+                        }
+                        seen[other] = distinct;
+                        final int distance = (int) distanceFunction.getDistance(value, distinctValues[other]);
+                        if (distance <= maximumDistance) {
+                            result = addMatch(result, resultCount, other, distance);
+                            resultCount += 2;
+                        }
+                    }
+                }
+            }
+        }
+
+        return Arrays.copyOf(result, resultCount);
+    }
+
+    private boolean isLater(final int distinct, final int other) {
+        final int length = distinctValues[distinct].length();
+        final int otherLength = distinctValues[other].length();
+        return otherLength > length || (otherLength == length && other > distinct);
+    }
+
+    private static int[] addMatch(final int[] result, final int resultCount, final int other, final int distance) {
+        final int[] grown = resultCount + 2 > result.length ? Arrays.copyOf(result, Math.max(8, result.length * 2)) : result;
+        grown[resultCount] = other;
+        grown[resultCount + 1] = distance;
+        return grown;
+    }
+
+    /**
+     * Get the start of a segment of a string, where the segments are as even
+     * as possible and the longer segments come last.
+     */
+    private int getSegmentStart(final int length, final int segment) {
+        final int segmentCount = maximumDistance + 1;
+        final int shortLength = length / segmentCount;
+        final int shortCount = segmentCount - length % segmentCount;
+        return segment <= shortCount
+                ? segment * shortLength
+                : shortCount * shortLength + (segment - shortCount) * (shortLength + 1);
+    }
+
+    /**
+     * Hash a segment together with the length of its string and its number.
+     * Collisions only add candidates, which are rejected when verified.
+     */
+    private static long getKey(final int length, final int segment, final String value, final int start, final int segmentLength) {
+        long hash = length * 1_000_003L + segment;
+        for (int i = start; i < start + segmentLength; i++) {
+            hash = hash * 0x100000001B3L + value.charAt(i);
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
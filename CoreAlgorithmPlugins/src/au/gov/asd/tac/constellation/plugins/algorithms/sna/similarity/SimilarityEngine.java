@@ -0,0 +1,812 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.plugins.algorithms.sna.similarity;
+
+import au.gov.asd.tac.constellation.graph.Graph;
+import au.gov.asd.tac.constellation.graph.GraphConstants;
+import au.gov.asd.tac.constellation.graph.GraphReadMethods;
+import au.gov.asd.tac.constellation.graph.schema.analytic.concept.AnalyticConcept;
+import au.gov.asd.tac.constellation.graph.schema.visual.concept.VisualConcept;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Calculates neighbourhood similarity scores between pairs of vertices.
+ * <p>
+ * Rather than comparing every pair of vertices, each vertex is only compared
+ * with the vertices that share at least one of its features, found by joining
+ * its features with the vertices that have each of them. All of the supported
+ * measures are calculated in the same pass. Vertices are processed in
+ * parallel, each thread keeping its own working arrays, and the results are
+ * returned ordered by the positions of each pair.
+ * <p>
+ * Results can be limited to the highest scoring pairs of each vertex, and on
+ * graphs where some features are shared by very many vertices the candidate
+ * pairs can instead be found approximately using MinHash signatures and
+ * locality sensitive hashing, which finds pairs with a high Jaccard index
+ * with high probability.
+ *
+ * @author sirius
+ */
+public class SimilarityEngine {
+
+    /**
+     * The similarity measures calculated for each pair.
+     */
+    public enum Measure {
+        /**
+         * The number of features the pair have in common.
+         */
+        COMMON_NEIGHBOURS,
+        /**
+         * The number of common features divided by the number of features
+         * either vertex has, excluding the pair themselves.
+         */
+        JACCARD,
+        /**
+         * The number of common features divided by the average number of
+         * features of the pair.
+         */
+        DICE,
+        /**
+         * The cosine of the angle between the weighted features of the pair.
+         */
+        COSINE,
+        /**
+         * The sum over common features of the inverse logarithm of their
+         * neighbour count.
+         */
+        ADAMIC_ADAR,
+        /**
+         * The sum over common features of the inverse of their neighbour
+         * count.
+         */
+        RESOURCE_ALLOCATION
+    }
+
+    private static final int MEASURE_COUNT = Measure.values().length;
+    private static final int DEFAULT_BANDS = 32;
+    private static final int DEFAULT_ROWS = 4;
+    private static final long HASH_SEED = 42;
+
+    /**
+     * The largest band bucket whose members are all paired with each other.
+     * Each member of a larger bucket is only paired with this many others,
+     * chosen at random.
+     */
+    static final int MAXIMUM_BUCKET_SIZE = 256;
+
+    private final Features features;
+    private final int[] reverseOffsets;
+    private final int[] reverseTargets;
+    private final float[] reverseWeights;
+    private final ThreadLocal<Scratch> scratch;
+
+    private int minimumCommonFeatures = 1;
+    private BitSet selected = null;
+    private boolean bothSelected = false;
+    private int maximumResults = 0;
+    private Measure rankMeasure = Measure.JACCARD;
+    private int bands = 0;
+    private int rows = 0;
+
+    /**
+     * The features of each vertex in compressed sparse row form, with the
+     * features of each vertex sorted by position.
+     */
+    public static final class Features {
+
+        private final int[] offsets;
+        private final int[] targets;
+        private final float[] weights;
+        private final int[] neighbourCounts;
+        private final float[] magnitudes;
+
+        /**
+         * Create features from arrays.
+         *
+         * @param offsets the offset of the first feature of each vertex,
+         * followed by the total number of features.
+         * @param targets the position of the vertex that is each feature,
+         * sorted within each vertex and without duplicates.
+         * @param weights the weight of each feature, or null if every feature
+         * has a weight of 1.
+         * @param neighbourCounts the number of neighbours of each vertex used
+         * by the Adamic-Adar and resource allocation indices, or null to use
+         * the number of features of each vertex.
+         */
+        public Features(final int[] offsets, final int[] targets, final float[] weights, final int[] neighbourCounts) {
+            this.offsets = offsets;
+            this.targets = targets;
+            this.weights = weights;
+            final int vertexCount = offsets.length - 1;
+            if (neighbourCounts == null) {
+                this.neighbourCounts = new int[vertexCount];
+                Arrays.setAll(this.neighbourCounts, position -> offsets[position + 1] - offsets[position]);
+            } else {
+                this.neighbourCounts = neighbourCounts;
+            }
+
+            magnitudes = new float[vertexCount];
+            for (int position = 0; position < vertexCount; position++) {
+                float magnitude = 0;
+                for (int entry = offsets[position]; entry < offsets[position + 1]; entry++) {
+                    magnitude += Math.pow(getWeight(entry), 2);
+                }
+                magnitudes[position] = (float) Math.sqrt(magnitude);
+            }
+        }
+
+        /**
+         * Get the features of each vertex of a graph, which are the
+         * neighbours joined to it by the specified kinds of transaction.
+         * Similarity transactions and loops are ignored, and the weight of
+         * each feature is the number of transactions joining them.
+         *
+         * @param graph the graph.
+         * @param includeIncoming include directed transactions from the
+         * neighbour to the vertex.
+         * @param includeOutgoing include directed transactions from the vertex
+         * to the neighbour.
+         * @param includeUndirected include undirected transactions.
+         * @return the features of each vertex.
+         */
+        public static Features of(final GraphReadMethods graph, final boolean includeIncoming, final boolean includeOutgoing, final boolean includeUndirected) {
+            final int vertexCount = graph.getVertexCount();
+            final int typeAttribute = AnalyticConcept.TransactionAttribute.TYPE.get(graph);
+            final int[] offsets = new int[vertexCount + 1];
+            final int[] neighbourCounts = new int[vertexCount];
+            long[] entries = new long[Math.max(16, graph.getLinkCount() * 2)];
+            int entryCount = 0;
+            for (int position = 0; position < vertexCount; position++) {
+                offsets[position] = entryCount;
+                final int vertexId = graph.getVertex(position);
+                neighbourCounts[position] = graph.getVertexNeighbourCount(vertexId);
+
+                final int linkCount = graph.getVertexLinkCount(vertexId);
+                for (int linkPosition = 0; linkPosition < linkCount; linkPosition++) {
+                    final int linkId = graph.getVertexLink(vertexId, linkPosition);
+                    final int lowId = graph.getLinkLowVertex(linkId);
+                    final int highId = graph.getLinkHighVertex(linkId);
+                    if (lowId == highId) {
+                        continue;
+                    }
+
+                    int weight = 0;
+                    final int edgeCount = graph.getLinkEdgeCount(linkId);
+                    for (int edgePosition = 0; edgePosition < edgeCount; edgePosition++) {
+                        final int edgeId = graph.getLinkEdge(linkId, edgePosition);
+                        final boolean included;
+                        if (graph.getEdgeDirection(edgeId) == GraphConstants.UNDIRECTED) {
+                            included = includeUndirected;
+                        } else {
+                            included = graph.getEdgeSourceVertex(edgeId) == vertexId ? includeOutgoing : includeIncoming;
+                        }
+                        if (included) {
+                            weight += getNonSimilarityTransactionCount(graph, typeAttribute, edgeId);
+                        }
+                    }
+
+                    if (weight > 0) {
+                        if (entryCount == entries.length) {
+                            entries = Arrays.copyOf(entries, entries.length * 2);
+                        }
+                        final int neighbourPosition = graph.getVertexPosition(lowId == vertexId ? highId : lowId);
+                        entries[entryCount++] = ((long) neighbourPosition << 32) | weight;
+                    }
+                }
+
+                // sort the features of each vertex by position, keeping each weight with its feature
+                Arrays.sort(entries, offsets[position], entryCount);
+            }
+            offsets[vertexCount] = entryCount;
+
+            final int[] targets = new int[entryCount];
+            final float[] weights = new float[entryCount];
+            for (int entry = 0; entry < entryCount; entry++) {
+                targets[entry] = (int) (entries[entry] >>> 32);
+                weights[entry] = (int) entries[entry];
+            }
+            return new Features(offsets, targets, weights, neighbourCounts);
+        }
+
+        public int getVertexCount() {
+            return offsets.length - 1;
+        }
+
+        private int getFeatureCount(final int position) {
+            return offsets[position + 1] - offsets[position];
+        }
+
+        private float getWeight(final int entry) {
+            return weights == null ? 1 : weights[entry];
+        }
+
+        private static int getNonSimilarityTransactionCount(final GraphReadMethods graph, final int typeAttribute, final int edgeId) {
+            final int transactionCount = graph.getEdgeTransactionCount(edgeId);
+            if (typeAttribute == Graph.NOT_FOUND) {
+                return transactionCount;
+            }
+            int count = 0;
+            for (int transactionPosition = 0; transactionPosition < transactionCount; transactionPosition++) {
+                final int transactionId = graph.getEdgeTransaction(edgeId, transactionPosition);
+                if (!AnalyticConcept.TransactionType.SIMILARITY.equals(graph.getObjectValue(typeAttribute, transactionId))) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    /**
+     * The pairs of vertices found to be similar and their scores, ordered by
+     * the position of the first vertex of each pair and then by the position
+     * of the second. The first vertex of each pair always has the lower
+     * position.
+     */
+    public static final class Scores {
+
+        private final int[] firsts;
+        private final int[] seconds;
+        private final float[] values;
+
+        private Scores(final int[] firsts, final int[] seconds, final float[] values) {
+            this.firsts = firsts;
+            this.seconds = seconds;
+            this.values = values;
+        }
+
+        public int size() {
+            return firsts.length;
+        }
+
+        public int getFirst(final int pair) {
+            return firsts[pair];
+        }
+
+        public int getSecond(final int pair) {
+            return seconds[pair];
+        }
+
+        public float getScore(final Measure measure, final int pair) {
+            return values[pair * MEASURE_COUNT + measure.ordinal()];
+        }
+
+        public float[] getScores(final Measure measure) {
+            final float[] scores = new float[firsts.length];
+            for (int pair = 0; pair < scores.length; pair++) {
+                scores[pair] = getScore(measure, pair);
+            }
+            return scores;
+        }
+    }
+
+    /**
+     * Create an engine to compare the given features.
+     *
+     * @param features the features of each vertex.
+     */
+    public SimilarityEngine(final Features features) {
+        this.features = features;
+
+        // index the vertices that have each feature
+        final int vertexCount = features.getVertexCount();
+        reverseOffsets = new int[vertexCount + 1];
+        for (int entry = 0; entry < features.targets.length; entry++) {
+            reverseOffsets[features.targets[entry] + 1]++;
+        }
+        for (int position = 0; position < vertexCount; position++) {
+            reverseOffsets[position + 1] += reverseOffsets[position];
+        }
+        reverseTargets = new int[features.targets.length];
+        reverseWeights = new float[features.targets.length];
+        final int[] next = Arrays.copyOf(reverseOffsets, vertexCount);
+        for (int position = 0; position < vertexCount; position++) {
+            for (int entry = features.offsets[position]; entry < features.offsets[position + 1]; entry++) {
+                final int reverseEntry = next[features.targets[entry]]++;
+                reverseTargets[reverseEntry] = position;
+                reverseWeights[reverseEntry] = features.getWeight(entry);
+            }
+        }
+
+        scratch = ThreadLocal.withInitial(() -> new Scratch(vertexCount));
+    }
+
+    /**
+     * Only return pairs with at least this many features in common.
+     *
+     * @param minimumCommonFeatures the minimum number of common features.
+     * @return this engine.
+     */
+    public SimilarityEngine setMinimumCommonFeatures(final int minimumCommonFeatures) {
+        this.minimumCommonFeatures = Math.max(1, minimumCommonFeatures);
+        return this;
+    }
+
+    /**
+     * Only return pairs including selected vertices.
+     *
+     * @param selected the selected vertex positions, or null to return pairs
+     * regardless of selection.
+     * @param bothSelected true if both vertices of a pair must be selected,
+     * false if either may be.
+     * @return this engine.
+     */
+    public SimilarityEngine setSelected(final BitSet selected, final boolean bothSelected) {
+        this.selected = selected;
+        this.bothSelected = bothSelected;
+        return this;
+    }
+
+    /**
+     * Only return the highest scoring pairs of each vertex. A pair is
+     * returned if it is among the highest scoring pairs of either vertex.
+     *
+     * @param maximumResults the maximum number of pairs for each vertex, or 0
+     * to return all pairs.
+     * @param rankMeasure the measure by which pairs are ranked.
+     * @return this engine.
+     */
+    public SimilarityEngine setMaximumResults(final int maximumResults, final Measure rankMeasure) {
+        this.maximumResults = Math.max(0, maximumResults);
+        this.rankMeasure = rankMeasure;
+        return this;
+    }
+
+    /**
+     * Find candidate pairs using MinHash signatures rather than comparing each
+     * vertex with every vertex it shares a feature with. Scores are still
+     * calculated exactly for the candidates that are found.
+     *
+     * @param approximate true to find candidates approximately.
+     * @return this engine.
+     */
+    public SimilarityEngine setApproximate(final boolean approximate) {
+        return setApproximate(approximate ? DEFAULT_BANDS : 0, DEFAULT_ROWS);
+    }
+
+    /**
+     * Find candidate pairs using MinHash signatures divided into the given
+     * number of bands. Pairs whose signatures match in every row of any band
+     * become candidates, so a pair with a Jaccard index of j is found with
+     * probability {@code 1 - (1 - j^rows)^bands}.
+     * <p>
+     * Pairing every vertex in a bucket is quadratic in its size, so the
+     * members of a bucket of more than {@value #MAXIMUM_BUCKET_SIZE} vertices
+     * are each only paired with a random sample of about that many of the
+     * others. On graphs with large groups of near identical vertices some of
+     * their pairs will therefore be missed.
+     *
+     * @param bands the number of bands, or 0 to compare exactly.
+     * @param rows the number of rows in each band.
+     * @return this engine.
+     */
+    public SimilarityEngine setApproximate(final int bands, final int rows) {
+        this.bands = Math.max(0, bands);
+        this.rows = Math.max(1, rows);
+        return this;
+    }
+
+    /**
+     * Calculate the scores of every pair of vertices meeting the configured
+     * conditions.
+     *
+     * @return the pairs and their scores.
+     */
+    public Scores calculate() {
+        final int vertexCount = features.getVertexCount();
+        final int[][] candidates = bands > 0 ? getCandidates() : null;
+
+        final VertexScores[] vertexScores = IntStream.range(0, vertexCount).parallel()
+                .mapToObj(position -> calculate(position, candidates))
+                .toArray(VertexScores[]::new);
+
+        int pairCount = 0;
+        for (final VertexScores scores : vertexScores) {
+            pairCount += scores == null ? 0 : scores.others.length;
+        }
+        int[] firsts = new int[pairCount];
+        int[] seconds = new int[pairCount];
+        float[] values = new float[pairCount * MEASURE_COUNT];
+        int pair = 0;
+        for (int position = 0; position < vertexCount; position++) {
+            final VertexScores scores = vertexScores[position];
+            if (scores != null) {
+                for (int index = 0; index < scores.others.length; index++) {
+                    firsts[pair] = Math.min(position, scores.others[index]);
+                    seconds[pair] = Math.max(position, scores.others[index]);
+                    pair++;
+                }
+                System.arraycopy(scores.values, 0, values, (pair - scores.others.length) * MEASURE_COUNT, scores.values.length);
+            }
+        }
+
+        if (maximumResults > 0) {
+            // pairs were found from both of their vertices, so order them and remove duplicates
+            final int[] firstsToSort = firsts;
+            final int[] secondsToSort = seconds;
+            final Integer[] order = new Integer[pairCount];
+            Arrays.setAll(order, index -> index);
+            Arrays.sort(order, (a, b) -> firstsToSort[a] != firstsToSort[b]
+                    ? Integer.compare(firstsToSort[a], firstsToSort[b])
+                    : Integer.compare(secondsToSort[a], secondsToSort[b]));
+
+            final int[] uniqueFirsts = new int[pairCount];
+            final int[] uniqueSeconds = new int[pairCount];
+            final float[] uniqueValues = new float[values.length];
+            int uniqueCount = 0;
+            for (int index = 0; index < pairCount; index++) {
+                final int original = order[index];
+                if (uniqueCount > 0 && uniqueFirsts[uniqueCount - 1] == firsts[original] && uniqueSeconds[uniqueCount - 1] == seconds[original]) {
+                    continue;
+                }
+                uniqueFirsts[uniqueCount] = firsts[original];
+                uniqueSeconds[uniqueCount] = seconds[original];
+                System.arraycopy(values, original * MEASURE_COUNT, uniqueValues, uniqueCount * MEASURE_COUNT, MEASURE_COUNT);
+                uniqueCount++;
+            }
+            firsts = Arrays.copyOf(uniqueFirsts, uniqueCount);
+            seconds = Arrays.copyOf(uniqueSeconds, uniqueCount);
+            values = Arrays.copyOf(uniqueValues, uniqueCount * MEASURE_COUNT);
+        }
+
+        return new Scores(firsts, seconds, values);
+    }
+
+    /**
+     * Get the positions of the selected vertices of a graph.
+     *
+     * @param graph the graph.
+     * @return the selected vertex positions.
+     */
+    public static BitSet getSelectedVertices(final GraphReadMethods graph) {
+        final int vertexCount = graph.getVertexCount();
+        final BitSet selectedVertices = new BitSet(vertexCount);
+        final int selectedAttribute = VisualConcept.VertexAttribute.SELECTED.get(graph);
+        if (selectedAttribute != Graph.NOT_FOUND) {
+            for (int position = 0; position < vertexCount; position++) {
+                selectedVertices.set(position, graph.getBooleanValue(selectedAttribute, graph.getVertex(position)));
+            }
+        }
+        return selectedVertices;
+    }
+
+    /**
+     * Calculate the scores of the pairs of a single vertex. Unless the results
+     * of each vertex are limited, only pairs with vertices at a higher
+     * position are included, so that each pair is found once.
+     */
+    private VertexScores calculate(final int position, final int[][] candidates) {
+        if (features.getFeatureCount(position) == 0 || (selected != null && bothSelected && !selected.get(position))) {
+            return null;
+        }
+
+        final Scratch working = scratch.get();
+        final boolean allPairs = maximumResults > 0;
+        for (int entry = features.offsets[position]; entry < features.offsets[position + 1]; entry++) {
+            working.isFeature[features.targets[entry]] = true;
+        }
+        for (int entry = reverseOffsets[position]; entry < reverseOffsets[position + 1]; entry++) {
+            working.hasFeature[reverseTargets[entry]] = true;
+        }
+
+        if (candidates == null) {
+            join(position, allPairs, working);
+        } else {
+            for (final int other : candidates[position]) {
+                if (allPairs || other > position) {
+                    merge(position, other, working);
+                }
+            }
+        }
+
+        // score each pair with enough features in common
+        int pairCount = 0;
+        final int[] others = new int[working.touchedCount];
+        final float[] values = new float[working.touchedCount * MEASURE_COUNT];
+        for (int index = 0; index < working.touchedCount; index++) {
+            final int other = working.touched[index];
+            final int common = working.common[other];
+            if (common >= minimumCommonFeatures && isSelected(position, other)) {
+                final int featureCount = features.getFeatureCount(position);
+                final int otherFeatureCount = features.getFeatureCount(other);
+                final int union = featureCount + otherFeatureCount - common
+                        - (working.isFeature[other] ? 1 : 0) - (working.hasFeature[other] ? 1 : 0);
+                final float halfSumFeatures = (featureCount + otherFeatureCount) / 2F;
+                final float magnitude = features.magnitudes[position] * features.magnitudes[other];
+
+                final int offset = pairCount * MEASURE_COUNT;
+                values[offset + Measure.COMMON_NEIGHBOURS.ordinal()] = common;
+                values[offset + Measure.JACCARD.ordinal()] = union == 0 ? 0F : (float) common / union;
+                values[offset + Measure.DICE.ordinal()] = halfSumFeatures == 0 ? 0F : common / halfSumFeatures;
+                values[offset + Measure.COSINE.ordinal()] = magnitude == 0 ? 0F : working.dotProduct[other] / magnitude;
+                values[offset + Measure.ADAMIC_ADAR.ordinal()] = working.adamicAdar[other];
+                values[offset + Measure.RESOURCE_ALLOCATION.ordinal()] = working.resourceAllocation[other];
+                others[pairCount++] = other;
+            }
+            working.reset(other);
+        }
+        working.touchedCount = 0;
+
+        for (int entry = features.offsets[position]; entry < features.offsets[position + 1]; entry++) {
+            working.isFeature[features.targets[entry]] = false;
+        }
+        for (int entry = reverseOffsets[position]; entry < reverseOffsets[position + 1]; entry++) {
+            working.hasFeature[reverseTargets[entry]] = false;
+        }
+
+        if (pairCount == 0) {
+            return null;
+        }
+        return select(others, values, pairCount);
+    }
+
+    /**
+     * Accumulate common features with every vertex sharing a feature with the
+     * given vertex.
+     */
+    private void join(final int position, final boolean allPairs, final Scratch working) {
+        for (int entry = features.offsets[position]; entry < features.offsets[position + 1]; entry++) {
+            final int feature = features.targets[entry];
+            final float weight = features.getWeight(entry);
+            final int neighbourCount = features.neighbourCounts[feature];
+            for (int reverseEntry = reverseOffsets[feature]; reverseEntry < reverseOffsets[feature + 1]; reverseEntry++) {
+                final int other = reverseTargets[reverseEntry];
+                if (other == position || (!allPairs && other < position)) {
+                    continue;
+                }
+                working.accumulate(other, weight * reverseWeights[reverseEntry], neighbourCount);
+            }
+        }
+    }
+
+    /**
+     * Accumulate the common features of a single pair by merging their sorted
+     * features.
+     */
+    private void merge(final int position, final int other, final Scratch working) {
+        int entry = features.offsets[position];
+        int otherEntry = features.offsets[other];
+        final int end = features.offsets[position + 1];
+        final int otherEnd = features.offsets[other + 1];
+        while (entry < end && otherEntry < otherEnd) {
+            final int feature = features.targets[entry];
+            final int otherFeature = features.targets[otherEntry];
+            if (feature < otherFeature) {
+                entry++;
+            } else if (feature > otherFeature) {
+                otherEntry++;
+            } else {
+                working.accumulate(other, features.getWeight(entry) * features.getWeight(otherEntry), features.neighbourCounts[feature]);
+                entry++;
+                otherEntry++;
+            }
+        }
+    }
+
+    private boolean isSelected(final int position, final int other) {
+        if (selected == null) {
+            return true;
+        }
+        return bothSelected
+                ? selected.get(position) && selected.get(other)
+                : selected.get(position) || selected.get(other);
+    }
+
+    /**
+     * Order the pairs of a vertex by the position of the other vertex, or keep
+     * only the highest scoring pairs if results are limited.
+     */
+    private VertexScores select(final int[] others, final float[] values, final int pairCount) {
+        final Integer[] order = new Integer[pairCount];
+        Arrays.setAll(order, index -> index);
+        if (maximumResults > 0) {
+            final int rank = rankMeasure.ordinal();
+            Arrays.sort(order, (a, b) -> {
+                final int compare = Float.compare(values[b * MEASURE_COUNT + rank], values[a * MEASURE_COUNT + rank]);
+                return compare != 0 ? compare : Integer.compare(others[a], others[b]);
+            });
+        } else {
+            Arrays.sort(order, (a, b) -> Integer.compare(others[a], others[b]));
+        }
+
+        final int resultCount = maximumResults > 0 ? Math.min(maximumResults, pairCount) : pairCount;
+        final int[] selectedOthers = new int[resultCount];
+        final float[] selectedValues = new float[resultCount * MEASURE_COUNT];
+        for (int index = 0; index < resultCount; index++) {
+            selectedOthers[index] = others[order[index]];
+            System.arraycopy(values, order[index] * MEASURE_COUNT, selectedValues, index * MEASURE_COUNT, MEASURE_COUNT);
+        }
+        return new VertexScores(selectedOthers, selectedValues);
+    }
+
+    /**
+     * Find candidate pairs whose MinHash signatures match in every row of at
+     * least one band, sampling the pairs of very large buckets.
+     *
+     * @return the candidates of each vertex position, in both directions.
+     */
+    private int[][] getCandidates() {
+        final int vertexCount = features.getVertexCount();
+        final int hashCount = bands * rows;
+        final Random random = new Random(HASH_SEED);
+        final long[] multipliers = new long[hashCount];
+        final long[] increments = new long[hashCount];
+        for (int hash = 0; hash < hashCount; hash++) {
+            multipliers[hash] = random.nextLong() | 1;
+            increments[hash] = random.nextLong();
+        }
+
+        // the signature of a vertex is the minimum hash of its features under each hash function
+        final int[] signatures = new int[vertexCount * hashCount];
+        IntStream.range(0, vertexCount).parallel().forEach(position -> {
+            final int offset = position * hashCount;
+            Arrays.fill(signatures, offset, offset + hashCount, Integer.MAX_VALUE);
+            for (int entry = features.offsets[position]; entry < features.offsets[position + 1]; entry++) {
+                final int feature = features.targets[entry];
+                for (int hash = 0; hash < hashCount; hash++) {
+                    signatures[offset + hash] = Math.min(signatures[offset + hash], mix(feature * multipliers[hash] + increments[hash]));
+                }
+            }
+        });
+
+        // vertices whose signatures match within a band become candidates
+        final long[][] bandPairs = IntStream.range(0, bands).parallel().mapToObj(band -> {
+            final long[] keys = new long[vertexCount];
+            int keyCount = 0;
+            for (int position = 0; position < vertexCount; position++) {
+                if (features.getFeatureCount(position) > 0) {
+                    int bandHash = band;
+                    for (int row = 0; row < rows; row++) {
+                        bandHash = 31 * bandHash + signatures[position * hashCount + band * rows + row];
+                    }
+                    keys[keyCount++] = ((long) bandHash << 32) | position;
+                }
+            }
+            Arrays.sort(keys, 0, keyCount);
+
+            long[] pairs = new long[16];
+            int pairCount = 0;
+            for (int start = 0; start < keyCount;) {
+                int end = start + 1;
+                while (end < keyCount && (keys[end] >>> 32) == (keys[start] >>> 32)) {
+                    end++;
+                }
+                final int size = end - start;
+                if (size <= MAXIMUM_BUCKET_SIZE) {
+                    for (int first = start; first < end; first++) {
+                        for (int second = first + 1; second < end; second++) {
+                            if (pairCount == pairs.length) {
+                                pairs = Arrays.copyOf(pairs, pairs.length * 2);
+                            }
+                            pairs[pairCount++] = (keys[first] << 32) | (keys[second] & 0xFFFFFFFFL);
+                        }
+                    }
+                } else {
+                    // shuffle the bucket and pair each member with the members either side of it,
+                    // seeding every bucket alike so that a bucket repeated in each band gives the same pairs
+                    final Random sampler = new Random(HASH_SEED);
+                    final int[] members = new int[size];
+                    for (int member = 0; member < size; member++) {
+                        members[member] = (int) keys[start + member];
+                    }
+                    for (int member = size - 1; member > 0; member--) {
+                        final int swap = sampler.nextInt(member + 1);
+                        final int position = members[member];
+                        members[member] = members[swap];
+                        members[swap] = position;
+                    }
+                    final int span = MAXIMUM_BUCKET_SIZE / 2;
+                    if (pairCount + size * span > pairs.length) {
+                        pairs = Arrays.copyOf(pairs, Math.max(pairs.length * 2, pairCount + size * span));
+                    }
+                    for (int member = 0; member < size; member++) {
+                        for (int step = 1; step <= span; step++) {
+                            final int first = members[member];
+                            final int second = members[(member + step) % size];
+                            pairs[pairCount++] = ((long) Math.min(first, second) << 32) | Math.max(first, second);
+                        }
+                    }
+                }
+                start = end;
+            }
+            return Arrays.copyOf(pairs, pairCount);
+        }).toArray(long[][]::new);
+
+        final long[] pairs = Arrays.stream(bandPairs).flatMapToLong(Arrays::stream).sorted().distinct().toArray();
+        final int[] candidateCounts = new int[vertexCount];
+        for (final long pair : pairs) {
+            candidateCounts[(int) (pair >>> 32)]++;
+            candidateCounts[(int) pair]++;
+        }
+        final int[][] candidates = new int[vertexCount][];
+        for (int position = 0; position < vertexCount; position++) {
+            candidates[position] = new int[candidateCounts[position]];
+        }
+        Arrays.fill(candidateCounts, 0);
+        for (final long pair : pairs) {
+            final int first = (int) (pair >>> 32);
+            final int second = (int) pair;
+            candidates[first][candidateCounts[first]++] = second;
+            candidates[second][candidateCounts[second]++] = first;
+        }
+        return candidates;
+    }
+
+    private static int mix(final long value) {
+        long hash = value;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return (int) hash;
+    }
+
+    private static final class VertexScores {
+
+        private final int[] others;
+        private final float[] values;
+
+        private VertexScores(final int[] others, final float[] values) {
+            this.others = others;
+            this.values = values;
+        }
+    }
+
+    /**
+     * The working arrays of a single thread, indexed by vertex position.
+     */
+    private static final class Scratch {
+
+        private final int[] common;
+        private final float[] dotProduct;
+        private final float[] adamicAdar;
+        private final float[] resourceAllocation;
+        private final boolean[] isFeature;
+        private final boolean[] hasFeature;
+        private final int[] touched;
+        private int touchedCount = 0;
+
+        private Scratch(final int vertexCount) {
+            common = new int[vertexCount];
+            dotProduct = new float[vertexCount];
+            adamicAdar = new float[vertexCount];
+            resourceAllocation = new float[vertexCount];
+            isFeature = new boolean[vertexCount];
+            hasFeature = new boolean[vertexCount];
+            touched = new int[vertexCount];
+        }
+
+        private void accumulate(final int other, final float weight, final int neighbourCount) {
+            if (common[other]++ == 0) {
+                touched[touchedCount++] = other;
+            }
+            dotProduct[other] += weight;
+            adamicAdar[other] += 1F / Math.log(neighbourCount);
+            resourceAllocation[other] += 1F / neighbourCount;
+        }
+
+        private void reset(final int other) {
+            common[other] = 0;
+            dotProduct[other] = 0;
+            adamicAdar[other] = 0;
+            resourceAllocation[other] = 0;
+        }
+    }
+}
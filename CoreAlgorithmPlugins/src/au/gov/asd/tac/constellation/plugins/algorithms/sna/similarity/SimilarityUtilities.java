@@ -22,6 +22,7 @@ import au.gov.asd.tac.constellation.graph.schema.attribute.SchemaAttribute;
 import au.gov.asd.tac.constellation.graph.schema.visual.concept.VisualConcept;
 import au.gov.asd.tac.constellation.utilities.datastructure.Tuple;
 import java.util.Map;
+import java.util.stream.IntStream;
 
 /**
  * Utilities for adding similarity scores between vertex pairs to the graph.
@@ -65,6 +66,57 @@ public class SimilarityUtilities {
      * @param score - score to add
      */
     public static void addScoreToGraph(final int vertexOne, final int vertexTwo, final float score) {
+        addScoreToGraph(graph, uniqueIdAttribute, typeAttribute, similarityAttribute, vertexOne, vertexTwo, score);
+    }
+
+    /**
+     * Adds the scores calculated by a {@link SimilarityEngine} to the graph
+     * while ensuring there is only ever a single similarity transaction
+     * between any pair of nodes. Unlike
+     * {@link #setGraphAndEnsureAttributes(GraphWriteMethods, SchemaAttribute)},
+     * this keeps no state between calls, so plugins using it can run on
+     * several graphs at once.
+     *
+     * @param graph the graph to add the scores to
+     * @param schemaSimilarityAttribute the attribute to hold the scores
+     * @param scores the pairs of vertex positions to add scores for
+     * @param values the score of each pair
+     */
+    public static void addScoresToGraph(final GraphWriteMethods graph, final SchemaAttribute schemaSimilarityAttribute, final SimilarityEngine.Scores scores, final float[] values) {
+        final int[] firstPositions = IntStream.range(0, scores.size()).map(scores::getFirst).toArray();
+        final int[] secondPositions = IntStream.range(0, scores.size()).map(scores::getSecond).toArray();
+        addScoresToGraph(graph, schemaSimilarityAttribute, firstPositions, secondPositions, values);
+    }
+
+    /**
+     * Adds similarity scores between pairs of vertex positions to the graph
+     * while ensuring there is only ever a single similarity transaction
+     * between any pair of nodes. This keeps no state between calls.
+     *
+     * @param graph the graph to add the scores to
+     * @param schemaSimilarityAttribute the attribute to hold the scores
+     * @param firstPositions the position of the first vertex of each pair
+     * @param secondPositions the position of the second vertex of each pair
+     * @param values the score of each pair
+     */
+    public static void addScoresToGraph(final GraphWriteMethods graph, final SchemaAttribute schemaSimilarityAttribute,
+            final int[] firstPositions, final int[] secondPositions, final float[] values) {
+        final int uniqueIdAttributeId = VisualConcept.TransactionAttribute.IDENTIFIER.ensure(graph);
+        final int typeAttributeId = AnalyticConcept.TransactionAttribute.TYPE.ensure(graph);
+        final int similarityAttributeId = schemaSimilarityAttribute.ensure(graph);
+        final int[] vertexIds = new int[graph.getVertexCount()];
+        for (int position = 0; position < vertexIds.length; position++) {
+            vertexIds[position] = graph.getVertex(position);
+        }
+
+        for (int pair = 0; pair < values.length; pair++) {
+            addScoreToGraph(graph, uniqueIdAttributeId, typeAttributeId, similarityAttributeId,
+                    vertexIds[firstPositions[pair]], vertexIds[secondPositions[pair]], values[pair]);
+        }
+    }
+
+    private static void addScoreToGraph(final GraphWriteMethods graph, final int uniqueIdAttribute, final int typeAttribute,
+            final int similarityAttribute, final int vertexOne, final int vertexTwo, final float score) {
         final int linkId = graph.getLink(vertexOne, vertexTwo);
         if (linkId == GraphConstants.NOT_FOUND) {
             final int transactionId = graph.addTransaction(vertexOne, vertexTwo, false);
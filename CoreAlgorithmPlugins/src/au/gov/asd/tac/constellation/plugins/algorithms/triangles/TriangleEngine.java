@@ -0,0 +1,349 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.plugins.algorithms.triangles;
+
+import au.gov.asd.tac.constellation.graph.GraphReadMethods;
+import au.gov.asd.tac.constellation.graph.utilities.GraphTopology;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+/**
+ * Enumerates the triangles of a graph, ignoring the direction of transactions.
+ * <p>
+ * Each edge is oriented from the vertex of lower degree to the vertex of
+ * higher degree, with ties broken by position, so that every vertex has at
+ * most O(sqrt(m)) forward neighbours. Every triangle is then found exactly
+ * once, from its lowest ranked vertex, by intersecting the forward neighbours
+ * of that vertex with the forward neighbours of each of them. Vertices are
+ * processed in parallel, each thread keeping its own working arrays.
+ * <p>
+ * Each undirected edge is given an index, and the support of an edge is the
+ * number of triangles it lies in. Triangle counts for each vertex, the total
+ * number of triangles and the trussness of each edge are all derived from the
+ * support of the edges.
+ *
+ * @author sirius
+ */
+public class TriangleEngine {
+
+    private final int vertexCount;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] entryEdges;
+    private final int[] edgeLows;
+    private final int[] edgeHighs;
+    private final int[] forwardOffsets;
+    private final int[] forwardTargets;
+
+    private int[] support = null;
+
+    /**
+     * Create an engine from the neighbours of each vertex in compressed sparse
+     * row form. Every edge must appear in the neighbours of both of its vertices,
+     * and there must be no loops or duplicate neighbours.
+     *
+     * @param offsets the offset of the first neighbour of each vertex,
+     * followed by the total number of neighbours.
+     * @param targets the position of each neighbour, sorted within each
+     * vertex.
+     */
+    public TriangleEngine(final int[] offsets, final int[] targets) {
+        this.vertexCount = offsets.length - 1;
+        this.offsets = offsets;
+        this.targets = targets;
+
+        // rank vertices by degree, then by position
+        final int[] rank = new int[vertexCount];
+        final Integer[] order = new Integer[vertexCount];
+        Arrays.setAll(order, position -> position);
+        Arrays.sort(order, (a, b) -> {
+            final int degreeA = offsets[a + 1] - offsets[a];
+            final int degreeB = offsets[b + 1] - offsets[b];
+            return degreeA != degreeB ? Integer.compare(degreeA, degreeB) : Integer.compare(a, b);
+        });
+        for (int r = 0; r < vertexCount; r++) {
+            rank[order[r]] = r;
+        }
+
+        // each edge is held by its lower ranked vertex, and its index is its entry in the forward neighbours
+        forwardOffsets = new int[vertexCount + 1];
+        for (int position = 0; position < vertexCount; position++) {
+            int forwardCount = 0;
+            for (int entry = offsets[position]; entry < offsets[position + 1]; entry++) {
+                if (rank[targets[entry]] > rank[position]) {
+                    forwardCount++;
+                }
+            }
+            forwardOffsets[position + 1] = forwardOffsets[position] + forwardCount;
+        }
+        final int edgeCount = forwardOffsets[vertexCount];
+        forwardTargets = new int[edgeCount];
+        edgeLows = new int[edgeCount];
+        edgeHighs = new int[edgeCount];
+        entryEdges = new int[targets.length];
+        for (int position = 0; position < vertexCount; position++) {
+            int edge = forwardOffsets[position];
+            for (int entry = offsets[position]; entry < offsets[position + 1]; entry++) {
+                final int target = targets[entry];
+                if (rank[target] > rank[position]) {
+                    forwardTargets[edge] = target;
+                    edgeLows[edge] = Math.min(position, target);
+                    edgeHighs[edge] = Math.max(position, target);
+                    entryEdges[entry] = edge++;
+                }
+            }
+        }
+
+        // find the index of the edge for the entries of the higher ranked vertices
+        for (int position = 0; position < vertexCount; position++) {
+            for (int edge = forwardOffsets[position]; edge < forwardOffsets[position + 1]; edge++) {
+                final int target = forwardTargets[edge];
+                final int entry = Arrays.binarySearch(targets, offsets[target], offsets[target + 1], position);
+                entryEdges[entry] = edge;
+            }
+        }
+    }
+
+    /**
+     * Create an engine for the neighbours of each vertex of a graph,
+     * regardless of the direction of the transactions joining them.
+     *
+     * @param graph the graph.
+     * @return an engine for the graph.
+     */
+    public static TriangleEngine of(final GraphReadMethods graph) {
+        final GraphTopology.Adjacency neighbours = GraphTopology.of(graph).getNeighbours();
+        final int[] offsets = neighbours.getOffsets();
+        final int[] targets = neighbours.getTargets().clone();
+        for (int position = 0; position + 1 < offsets.length; position++) {
+            Arrays.sort(targets, offsets[position], offsets[position + 1]);
+        }
+        return new TriangleEngine(offsets, targets);
+    }
+
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    public int getEdgeCount() {
+        return edgeLows.length;
+    }
+
+    /**
+     * The position of the vertex of an edge with the lower position.
+     *
+     * @param edge the index of the edge.
+     * @return the lower position of the edge.
+     */
+    public int getEdgeLow(final int edge) {
+        return edgeLows[edge];
+    }
+
+    /**
+     * The position of the vertex of an edge with the higher position.
+     *
+     * @param edge the index of the edge.
+     * @return the higher position of the edge.
+     */
+    public int getEdgeHigh(final int edge) {
+        return edgeHighs[edge];
+    }
+
+    /**
+     * The number of neighbours of a vertex.
+     *
+     * @param position the position of the vertex.
+     * @return the number of neighbours of the vertex.
+     */
+    public int getDegree(final int position) {
+        return offsets[position + 1] - offsets[position];
+    }
+
+    /**
+     * The number of triangles each edge lies in, calculated the first time it
+     * is needed.
+     *
+     * @return the support of each edge, indexed by edge.
+     */
+    public synchronized int[] getSupport() {
+        if (support == null) {
+            final AtomicIntegerArray counts = new AtomicIntegerArray(getEdgeCount());
+            final ThreadLocal<int[][]> scratch = ThreadLocal.withInitial(() -> {
+                final int[] stamps = new int[vertexCount];
+                Arrays.fill(stamps, -1);
+                return new int[][]{stamps, new int[vertexCount]};
+            });
+
+            IntStream.range(0, vertexCount).parallel().forEach(position -> {
+                final int[][] arrays = scratch.get();
+                final int[] stamps = arrays[0];
+                final int[] stampEdges = arrays[1];
+                for (int edge = forwardOffsets[position]; edge < forwardOffsets[position + 1]; edge++) {
+                    stamps[forwardTargets[edge]] = position;
+                    stampEdges[forwardTargets[edge]] = edge;
+                }
+                for (int edge = forwardOffsets[position]; edge < forwardOffsets[position + 1]; edge++) {
+                    final int neighbour = forwardTargets[edge];
+                    for (int neighbourEdge = forwardOffsets[neighbour]; neighbourEdge < forwardOffsets[neighbour + 1]; neighbourEdge++) {
+                        final int third = forwardTargets[neighbourEdge];
+                        if (stamps[third] == position) {
+                            counts.incrementAndGet(edge);
+                            counts.incrementAndGet(neighbourEdge);
+                            counts.incrementAndGet(stampEdges[third]);
+                        }
+                    }
+                }
+            });
+
+            support = new int[getEdgeCount()];
+            Arrays.setAll(support, counts::get);
+        }
+        return support;
+    }
+
+    /**
+     * The number of triangles in the graph.
+     *
+     * @return the number of triangles.
+     */
+    public long getTriangleCount() {
+        long total = 0;
+        for (final int edgeSupport : getSupport()) {
+            total += edgeSupport;
+        }
+        return total / 3;
+    }
+
+    /**
+     * The number of triangles each vertex lies in.
+     *
+     * @return the number of triangles of each vertex, indexed by position.
+     */
+    public long[] getVertexTriangleCounts() {
+        final int[] edgeSupport = getSupport();
+        final long[] counts = new long[vertexCount];
+        for (int edge = 0; edge < edgeSupport.length; edge++) {
+            counts[edgeLows[edge]] += edgeSupport[edge];
+            counts[edgeHighs[edge]] += edgeSupport[edge];
+        }
+        for (int position = 0; position < vertexCount; position++) {
+            counts[position] /= 2;
+        }
+        return counts;
+    }
+
+    /**
+     * The number of triplets used by the global clustering coefficient. For
+     * each edge, this counts the vertices adjacent to either end of the edge
+     * whose positions are higher than the positions of both ends.
+     *
+     * @return the number of triplets.
+     */
+    public long getTripletCount() {
+        final long paths = IntStream.range(0, vertexCount).parallel().mapToLong(position -> {
+            final int start = offsets[position];
+            final int end = offsets[position + 1];
+            final int higherEntry = -Arrays.binarySearch(targets, start, end, position) - 1;
+            final long lower = higherEntry - start;
+            final long higher = end - higherEntry;
+            return lower * higher + higher * (higher - 1) / 2;
+        }).sum();
+        return paths - getTriangleCount();
+    }
+
+    /**
+     * Calculate the trussness of each edge, which is the largest k such that
+     * the edge is in the k-truss of the graph, being the largest subgraph in
+     * which every edge lies in at least k - 2 triangles. Every edge has a
+     * trussness of at least 2.
+     * <p>
+     * Edges are peeled in order of their support, which is kept in buckets
+     * so that removing an edge and decrementing the support of the other
+     * edges of its triangles takes constant time. The triangles of an edge
+     * are found by walking the neighbours of its endpoint of lower degree and
+     * binary searching the sorted neighbours of the other endpoint, so that
+     * a hub is never scanned for each of its edges.
+     *
+     * @return the trussness of each edge, indexed by edge.
+     */
+    public int[] getTrussness() {
+        final int edgeCount = getEdgeCount();
+        final int[] edgeSupport = Arrays.copyOf(getSupport(), edgeCount);
+        int maximumSupport = 0;
+        for (final int s : edgeSupport) {
+            maximumSupport = Math.max(maximumSupport, s);
+        }
+
+        // bucket sort the edges by support
+        final int[] bucketStarts = new int[maximumSupport + 2];
+        for (final int s : edgeSupport) {
+            bucketStarts[s + 1]++;
+        }
+        for (int s = 0; s <= maximumSupport; s++) {
+            bucketStarts[s + 1] += bucketStarts[s];
+        }
+        final int[] sorted = new int[edgeCount];
+        final int[] sortedPositions = new int[edgeCount];
+        final int[] next = Arrays.copyOf(bucketStarts, maximumSupport + 1);
+        for (int edge = 0; edge < edgeCount; edge++) {
+            sortedPositions[edge] = next[edgeSupport[edge]]++;
+            sorted[sortedPositions[edge]] = edge;
+        }
+
+        final int[] trussness = new int[edgeCount];
+        final boolean[] removed = new boolean[edgeCount];
+        for (int index = 0; index < edgeCount; index++) {
+            final int edge = sorted[index];
+            final int edgeS = edgeSupport[edge];
+            trussness[edge] = edgeS + 2;
+            removed[edge] = true;
+
+            // find the remaining triangles of the edge through the smaller neighbourhood of its vertices
+            final int low = getDegree(edgeLows[edge]) <= getDegree(edgeHighs[edge]) ? edgeLows[edge] : edgeHighs[edge];
+            final int high = low == edgeLows[edge] ? edgeHighs[edge] : edgeLows[edge];
+            for (int entry = offsets[low]; entry < offsets[low + 1]; entry++) {
+                final int third = targets[entry];
+                final int lowEdge = entryEdges[entry];
+                if (removed[lowEdge]) {
+                    continue;
+                }
+                final int highEntry = Arrays.binarySearch(targets, offsets[high], offsets[high + 1], third);
+                if (highEntry < 0 || removed[entryEdges[highEntry]]) {
+                    continue;
+                }
+                for (int side = 0; side < 2; side++) {
+                    final int other = side == 0 ? lowEdge : entryEdges[highEntry];
+                    final int otherS = edgeSupport[other];
+                    if (otherS > edgeS) {
+                        // swap the edge with the first edge of its bucket, then shrink the bucket
+                        final int first = bucketStarts[otherS];
+                        final int firstEdge = sorted[first];
+                        final int otherPosition = sortedPositions[other];
+                        sorted[first] = other;
+                        sortedPositions[other] = first;
+                        sorted[otherPosition] = firstEdge;
+                        sortedPositions[firstEdge] = otherPosition;
+                        bucketStarts[otherS]++;
+                        edgeSupport[other]--;
+                    }
+                }
+            }
+        }
+
+        return trussness;
+    }
+}
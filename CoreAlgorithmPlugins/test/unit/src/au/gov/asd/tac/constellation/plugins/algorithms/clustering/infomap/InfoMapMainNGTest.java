@@ -18,6 +18,7 @@ package au.gov.asd.tac.constellation.plugins.algorithms.clustering.infomap;
 import au.gov.asd.tac.constellation.graph.Graph;
 import au.gov.asd.tac.constellation.graph.GraphReadMethods;
 import au.gov.asd.tac.constellation.graph.ReadableGraph;
+import au.gov.asd.tac.constellation.graph.StoreGraph;
 import au.gov.asd.tac.constellation.graph.file.GraphDataObject;
 import au.gov.asd.tac.constellation.graph.file.io.GraphJsonReader;
 import au.gov.asd.tac.constellation.plugins.algorithms.clustering.infomap.infomap.InfomapBase;
@@ -26,6 +27,8 @@ import au.gov.asd.tac.constellation.plugins.algorithms.clustering.infomap.tree.T
 import au.gov.asd.tac.constellation.utilities.gui.TextIoProgress;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeClass;
@@ -111,4 +114,48 @@ public class InfoMapMainNGTest {
             rg.release();
         }
     }
+
+    /**
+     * Cliques joined by single transactions should each be found as a
+     * cluster, whether one or several trials are run.
+     */
+    @Test
+    public void testCliques() {
+        final int cliqueCount = 4;
+        final int cliqueSize = 6;
+        final StoreGraph graph = new StoreGraph();
+        final int[] vxIds = new int[cliqueCount * cliqueSize];
+        for (int i = 0; i < vxIds.length; i++) {
+            vxIds[i] = graph.addVertex();
+        }
+        for (int clique = 0; clique < cliqueCount; clique++) {
+            final int first = clique * cliqueSize;
+            for (int i = first; i < first + cliqueSize; i++) {
+                for (int j = i + 1; j < first + cliqueSize; j++) {
+                    graph.addTransaction(vxIds[i], vxIds[j], true);
+                }
+            }
+            graph.addTransaction(vxIds[first], vxIds[(first + cliqueSize) % vxIds.length], true);
+        }
+
+        for (final int numTrials : new int[]{1, 4}) {
+            final Config config = new Config();
+            config.setConnectionType(Config.ConnectionType.TRANSACTIONS);
+            config.setNumTrials(numTrials);
+            final InfoMapContext context = new InfoMapContext(config, graph);
+            context.getInfoMap().run();
+
+            final int[] clusters = new int[vxIds.length];
+            for (final NodeBase node : context.getInfoMap().getTreeData().getLeaves()) {
+                clusters[node.getOriginalIndex()] = node.getParent().getIndex();
+            }
+            for (int position = 0; position < vxIds.length; position++) {
+                final int clique = position / cliqueSize;
+                assertEquals(clusters[position], clusters[clique * cliqueSize]);
+                if (clique > 0) {
+                    assertNotEquals(clusters[position], clusters[(clique - 1) * cliqueSize]);
+                }
+            }
+        }
+    }
 }
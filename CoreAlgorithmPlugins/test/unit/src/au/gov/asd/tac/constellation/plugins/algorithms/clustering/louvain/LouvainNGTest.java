@@ -0,0 +1,206 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.plugins.algorithms.clustering.louvain;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Random;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Louvain Test.
+ *
+ * @author sirius
+ */
+public class LouvainNGTest {
+
+    private int[] offsets;
+    private int[] targets;
+    private float[] weights;
+
+    public LouvainNGTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+    }
+
+    @BeforeMethod
+    public void setUpMethod() throws Exception {
+        // two cliques of four vertices joined by a single edge
+        buildGraph(8, new int[][]{
+            {0, 1}, {0, 2}, {0, 3}, {1, 2}, {1, 3}, {2, 3},
+            {4, 5}, {4, 6}, {4, 7}, {5, 6}, {5, 7}, {6, 7},
+            {3, 4}
+        }, null);
+    }
+
+    @AfterMethod
+    public void tearDownMethod() throws Exception {
+    }
+
+    /**
+     * Each clique should become a cluster, with or without refinement.
+     */
+    @Test
+    public void testCliques() {
+        final int[] expected = {0, 0, 0, 0, 1, 1, 1, 1};
+        assertEquals(new Louvain(1, false).cluster(offsets, targets, weights, null), expected);
+        assertEquals(new Louvain(1, true).cluster(offsets, targets, weights, null), expected);
+        assertEquals(new Louvain(1, true).getModularity(offsets, targets, weights, expected), 0.42307692307692313, 1E-9);
+    }
+
+    /**
+     * A high resolution should prefer smaller clusters.
+     */
+    @Test
+    public void testResolution() {
+        final int[] clusters = new Louvain(100, true).cluster(offsets, targets, weights, null);
+        assertEquals(clusters, new int[]{0, 1, 2, 3, 4, 5, 6, 7});
+    }
+
+    /**
+     * Heavier edges should hold their vertices together.
+     */
+    @Test
+    public void testWeights() {
+        buildGraph(4, new int[][]{{0, 1}, {1, 2}, {2, 3}, {3, 0}}, new float[]{10, 1, 10, 1});
+        assertEquals(new Louvain(1, true).cluster(offsets, targets, weights, null), new int[]{0, 0, 1, 1});
+
+        buildGraph(4, new int[][]{{0, 1}, {1, 2}, {2, 3}, {3, 0}}, new float[]{1, 10, 1, 10});
+        assertEquals(new Louvain(1, true).cluster(offsets, targets, weights, null), new int[]{0, 1, 1, 0});
+    }
+
+    /**
+     * Vertices should start in their seeded clusters, and unseeded vertices
+     * should join the clusters around them.
+     */
+    @Test
+    public void testSeeded() {
+        final int[] seeds = {7, 7, 7, -1, 3, 3, 3, -1};
+        assertEquals(new Louvain(1, true).cluster(offsets, targets, weights, seeds), new int[]{0, 0, 0, 0, 1, 1, 1, 1});
+    }
+
+    /**
+     * Vertices without edges should be left in clusters of their own.
+     */
+    @Test
+    public void testIsolatedVertices() {
+        buildGraph(3, new int[0][], null);
+        assertEquals(new Louvain(1, true).cluster(offsets, targets, weights, null), new int[]{0, 1, 2});
+
+        buildGraph(0, new int[0][], null);
+        assertEquals(new Louvain(1, true).cluster(offsets, targets, weights, null), new int[0]);
+    }
+
+    /**
+     * On a larger graph with planted clusters, clustering should improve on
+     * the planted modularity or come close to it, and refined clusters should
+     * always be connected.
+     */
+    @Test
+    public void testPlantedClusters() {
+        final int clusterCount = 20;
+        final int clusterSize = 50;
+        final int vertexCount = clusterCount * clusterSize;
+        final Random random = new Random(42);
+        final int[][] edges = new int[vertexCount * 6][];
+        for (int edge = 0; edge < edges.length; edge++) {
+            final int source = random.nextInt(vertexCount);
+            int target;
+            do {
+                target = random.nextInt(10) < 9
+                        ? (source / clusterSize) * clusterSize + random.nextInt(clusterSize)
+                        : random.nextInt(vertexCount);
+            } while (target == source);
+            edges[edge] = new int[]{source, target};
+        }
+        buildGraph(vertexCount, edges, null);
+
+        final int[] planted = new int[vertexCount];
+        Arrays.setAll(planted, vertex -> vertex / clusterSize);
+
+        for (final boolean refine : new boolean[]{false, true}) {
+            final Louvain louvain = new Louvain(1, refine);
+            final int[] clusters = louvain.cluster(offsets, targets, weights, null);
+            assertTrue(louvain.getModularity(offsets, targets, weights, clusters) > louvain.getModularity(offsets, targets, weights, planted) - 0.01);
+            if (refine) {
+                assertConnected(clusters);
+            }
+        }
+    }
+
+    private void assertConnected(final int[] clusters) {
+        final int vertexCount = clusters.length;
+        final boolean[] visited = new boolean[vertexCount];
+        final boolean[] clusterSeen = new boolean[vertexCount];
+        for (int start = 0; start < vertexCount; start++) {
+            if (visited[start]) {
+                continue;
+            }
+            assertTrue(!clusterSeen[clusters[start]], "cluster " + clusters[start] + " is not connected");
+            clusterSeen[clusters[start]] = true;
+            final Deque<Integer> queue = new ArrayDeque<>();
+            queue.add(start);
+            visited[start] = true;
+            while (!queue.isEmpty()) {
+                final int vertex = queue.remove();
+                for (int entry = offsets[vertex]; entry < offsets[vertex + 1]; entry++) {
+                    final int target = targets[entry];
+                    if (!visited[target] && clusters[target] == clusters[start]) {
+                        visited[target] = true;
+                        queue.add(target);
+                    }
+                }
+            }
+        }
+    }
+
+    private void buildGraph(final int vertexCount, final int[][] edges, final float[] edgeWeights) {
+        offsets = new int[vertexCount + 1];
+        for (final int[] edge : edges) {
+            offsets[edge[0] + 1]++;
+            offsets[edge[1] + 1]++;
+        }
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            offsets[vertex + 1] += offsets[vertex];
+        }
+
+        targets = new int[offsets[vertexCount]];
+        weights = new float[offsets[vertexCount]];
+        final int[] next = Arrays.copyOf(offsets, vertexCount);
+        for (int edge = 0; edge < edges.length; edge++) {
+            final float weight = edgeWeights == null ? 1 : edgeWeights[edge];
+            final int source = edges[edge][0];
+            final int target = edges[edge][1];
+            targets[next[source]] = target;
+            weights[next[source]++] = weight;
+            targets[next[target]] = source;
+            weights[next[target]++] = weight;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.plugins.algorithms.paths;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import static org.testng.Assert.assertEquals;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Dijkstra Engine Test.
+ *
+ * @author sirius
+ */
+public class DijkstraEngineNGTest {
+
+    private static final double NO_ENTRY = -1;
+
+    public DijkstraEngineNGTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+    }
+
+    @BeforeMethod
+    public void setUpMethod() throws Exception {
+    }
+
+    @AfterMethod
+    public void tearDownMethod() throws Exception {
+    }
+
+    /**
+     * Two paths of equal length around a square, and a longer path with fewer
+     * hops.
+     *
+     * @throws InterruptedException
+     */
+    @Test
+    public void testSmallGraph() throws InterruptedException {
+        // 0 - 1 - 3 and 0 - 2 - 3 have length 2, 0 - 3 has length 5, 3 - 4 has length 1
+        final double[][] lengths = createLengths(5);
+        addEdge(lengths, 0, 1, 1, true);
+        addEdge(lengths, 1, 3, 1, true);
+        addEdge(lengths, 0, 2, 1, true);
+        addEdge(lengths, 2, 3, 1, true);
+        addEdge(lengths, 0, 3, 5, true);
+        addEdge(lengths, 3, 4, 1, true);
+        final DijkstraEngine engine = createEngine(lengths);
+
+        assertEquals(engine.getDistance(0, 3), 2.0);
+        assertEquals(engine.getDistance(4, 0), 3.0);
+        assertEquals(engine.getDistances(0), new double[]{0, 1, 1, 2, 3});
+
+        final DijkstraEngine.Paths paths = engine.getShortestPaths(new int[]{0}, new int[][]{{4}});
+        assertEquals(paths.getVertices(), bitSet(0, 1, 2, 3, 4));
+        final BitSet pairs = new BitSet();
+        final BitSet entries = paths.getEntries();
+        for (int entry = entries.nextSetBit(0); entry >= 0; entry = entries.nextSetBit(entry + 1)) {
+            pairs.set(engine.getEntrySource(entry) * 5 + engine.getEntryTarget(entry));
+        }
+        assertEquals(pairs, bitSet(0 * 5 + 1, 1 * 5 + 3, 0 * 5 + 2, 2 * 5 + 3, 3 * 5 + 4));
+
+        final DijkstraEngine unweighted = createEngine(lengths, false);
+        assertEquals(unweighted.getDistance(0, 4), 2.0);
+        assertEquals(unweighted.getShortestPaths(new int[]{0}, new int[][]{{4}}).getVertices(), bitSet(0, 3, 4));
+    }
+
+    /**
+     * Distances and the vertices and entries on shortest paths should match
+     * those found from all pairs distances, for both directed and undirected
+     * random graphs, and for queries with one and many targets.
+     *
+     * @throws InterruptedException
+     */
+    @Test
+    public void testRandomGraphs() throws InterruptedException {
+        final Random random = new Random(42);
+        for (int test = 0; test < 40; test++) {
+            final int vertexCount = 2 + random.nextInt(40);
+            final double density = 0.03 + random.nextDouble() * 0.2;
+            final boolean symmetric = test % 2 == 0;
+            final double[][] lengths = createLengths(vertexCount);
+            for (int i = 0; i < vertexCount; i++) {
+                for (int j = symmetric ? i + 1 : 0; j < vertexCount; j++) {
+                    if (i != j && random.nextDouble() < density) {
+                        addEdge(lengths, i, j, 1 + random.nextInt(3), symmetric);
+                    }
+                }
+            }
+            final DijkstraEngine engine = createEngine(lengths);
+            final double[][] distances = getAllDistances(lengths);
+
+            for (int source = 0; source < vertexCount; source++) {
+                assertEquals(engine.getDistances(source), distances[source]);
+                for (int target = 0; target < vertexCount; target++) {
+                    assertEquals(engine.getDistance(source, target), distances[source][target], source + " -> " + target);
+                }
+            }
+
+            // random queries with one and with several targets for each source
+            final int sourceCount = 1 + random.nextInt(Math.min(vertexCount, 6));
+            final int[] sources = new int[sourceCount];
+            final int[][] sourceTargets = new int[sourceCount][];
+            for (int index = 0; index < sourceCount; index++) {
+                sources[index] = random.nextInt(vertexCount);
+                sourceTargets[index] = new int[1 + random.nextInt(Math.min(vertexCount, 4))];
+                for (int target = 0; target < sourceTargets[index].length; target++) {
+                    sourceTargets[index][target] = random.nextInt(vertexCount);
+                }
+            }
+            final DijkstraEngine.Paths paths = engine.getShortestPaths(sources, sourceTargets);
+
+            final BitSet expectedVertices = new BitSet();
+            final BitSet expectedPairs = new BitSet();
+            for (int index = 0; index < sourceCount; index++) {
+                final int source = sources[index];
+                for (final int target : sourceTargets[index]) {
+                    final double distance = distances[source][target];
+                    if (source == target || distance == Double.POSITIVE_INFINITY) {
+                        continue;
+                    }
+                    for (int position = 0; position < vertexCount; position++) {
+                        if (distances[source][position] + distances[position][target] == distance) {
+                            expectedVertices.set(position);
+                        }
+                        for (int next = 0; next < vertexCount; next++) {
+                            if (lengths[position][next] != NO_ENTRY && distances[source][position] + lengths[position][next] + distances[next][target] == distance) {
+                                expectedPairs.set(position * vertexCount + next);
+                            }
+                        }
+                    }
+                }
+            }
+
+            final BitSet pairs = new BitSet();
+            final BitSet entries = paths.getEntries();
+            for (int entry = entries.nextSetBit(0); entry >= 0; entry = entries.nextSetBit(entry + 1)) {
+                pairs.set(engine.getEntrySource(entry) * vertexCount + engine.getEntryTarget(entry));
+            }
+            assertEquals(paths.getVertices(), expectedVertices);
+            assertEquals(pairs, expectedPairs);
+        }
+    }
+
+    private static double[][] createLengths(final int vertexCount) {
+        final double[][] lengths = new double[vertexCount][vertexCount];
+        for (final double[] row : lengths) {
+            Arrays.fill(row, NO_ENTRY);
+        }
+        return lengths;
+    }
+
+    private static void addEdge(final double[][] lengths, final int source, final int target, final double length, final boolean symmetric) {
+        lengths[source][target] = length;
+        if (symmetric) {
+            lengths[target][source] = length;
+        }
+    }
+
+    private static DijkstraEngine createEngine(final double[][] lengths) {
+        return createEngine(lengths, true);
+    }
+
+    private static DijkstraEngine createEngine(final double[][] lengths, final boolean weighted) {
+        final int vertexCount = lengths.length;
+        final int[] offsets = new int[vertexCount + 1];
+        final List<Integer> targets = new ArrayList<>();
+        final List<Double> entryLengths = new ArrayList<>();
+        // add each row backwards so that the rows are not sorted
+        for (int i = 0; i < vertexCount; i++) {
+            for (int j = vertexCount - 1; j >= 0; j--) {
+                if (lengths[i][j] != NO_ENTRY) {
+                    targets.add(j);
+                    entryLengths.add(lengths[i][j]);
+                }
+            }
+            offsets[i + 1] = targets.size();
+        }
+        return new DijkstraEngine(offsets, targets.stream().mapToInt(Integer::intValue).toArray(),
+                weighted ? entryLengths.stream().mapToDouble(Double::doubleValue).toArray() : null);
+    }
+
+    private static double[][] getAllDistances(final double[][] lengths) {
+        final int vertexCount = lengths.length;
+        final double[][] distances = new double[vertexCount][vertexCount];
+        for (int i = 0; i < vertexCount; i++) {
+            for (int j = 0; j < vertexCount; j++) {
+                distances[i][j] = i == j ? 0 : lengths[i][j] == NO_ENTRY ? Double.POSITIVE_INFINITY : lengths[i][j];
+            }
+        }
+        for (int k = 0; k < vertexCount; k++) {
+            for (int i = 0; i < vertexCount; i++) {
+                for (int j = 0; j < vertexCount; j++) {
+                    distances[i][j] = Math.min(distances[i][j], distances[i][k] + distances[k][j]);
+                }
+            }
+        }
+        return distances;
+    }
+
+    private static BitSet bitSet(final int... bits) {
+        final BitSet bitSet = new BitSet();
+        for (final int bit : bits) {
+            bitSet.set(bit);
+        }
+        return bitSet;
+    }
+}
@@ -15,7 +15,9 @@
  */
 package au.gov.asd.tac.constellation.plugins.algorithms.paths;
 
+import au.gov.asd.tac.constellation.graph.GraphElementType;
 import au.gov.asd.tac.constellation.graph.StoreGraph;
+import au.gov.asd.tac.constellation.graph.attribute.FloatAttributeDescription;
 import au.gov.asd.tac.constellation.graph.schema.SchemaFactoryUtilities;
 import au.gov.asd.tac.constellation.graph.schema.visual.VisualSchemaFactory;
 import au.gov.asd.tac.constellation.graph.schema.visual.concept.VisualConcept;
@@ -382,4 +384,49 @@ public class DijkstraServicesNGTest {
         assertFalse(graph.getBooleanValue(selectedTransactionAttr, tx4));
         assertFalse(graph.getBooleanValue(selectedTransactionAttr, tx5));
     }
+
+    /**
+     * Test of queryPaths method, of class DijkstraServices, with a length
+     * attribute.
+     *
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testQueryPathsWithLengths() throws Exception {
+        final int vx0, vx1, vx2, tx0, tx1, tx2;
+        final int selectedVertexAttr, selectedTransactionAttr, lengthAttr;
+
+        selectedVertexAttr = VisualConcept.VertexAttribute.SELECTED.ensure(graph);
+        selectedTransactionAttr = VisualConcept.TransactionAttribute.SELECTED.ensure(graph);
+        lengthAttr = graph.addAttribute(GraphElementType.TRANSACTION, FloatAttributeDescription.ATTRIBUTE_NAME, "length", null, 1F, null);
+
+        // Add 3 vertices
+        vx0 = graph.addVertex();
+        vx1 = graph.addVertex();
+        vx2 = graph.addVertex();
+
+        // the direct transaction is longer than the path through vx2
+        tx0 = graph.addTransaction(vx0, vx1, true);
+        tx1 = graph.addTransaction(vx0, vx2, true);
+        tx2 = graph.addTransaction(vx2, vx1, true);
+        graph.setFloatValue(lengthAttr, tx0, 5F);
+
+        final List<Integer> selectedNodes = new ArrayList<>();
+        selectedNodes.add(vx0);
+        selectedNodes.add(vx1);
+
+        boolean deselectCurrent = true;
+        final DijkstraServices instance = new DijkstraServices(graph, selectedNodes, false, lengthAttr);
+        instance.queryPaths(deselectCurrent);
+
+        // selected
+        assertTrue(graph.getBooleanValue(selectedVertexAttr, vx0));
+        assertTrue(graph.getBooleanValue(selectedVertexAttr, vx1));
+        assertTrue(graph.getBooleanValue(selectedVertexAttr, vx2));
+        assertTrue(graph.getBooleanValue(selectedTransactionAttr, tx1));
+        assertTrue(graph.getBooleanValue(selectedTransactionAttr, tx2));
+
+        // deselected
+        assertFalse(graph.getBooleanValue(selectedTransactionAttr, tx0));
+    }
 }
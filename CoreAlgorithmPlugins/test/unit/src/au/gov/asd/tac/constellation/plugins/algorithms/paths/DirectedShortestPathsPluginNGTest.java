@@ -21,6 +21,7 @@ import au.gov.asd.tac.constellation.graph.schema.Schema;
 import au.gov.asd.tac.constellation.graph.schema.SchemaFactoryUtilities;
 import au.gov.asd.tac.constellation.graph.schema.visual.VisualSchemaFactory;
 import au.gov.asd.tac.constellation.graph.schema.visual.concept.VisualConcept;
+import static au.gov.asd.tac.constellation.plugins.algorithms.paths.DirectedShortestPathsPlugin.LENGTH_ATTRIBUTE_PARAMETER_ID;
 import static au.gov.asd.tac.constellation.plugins.algorithms.paths.DirectedShortestPathsPlugin.SOURCE_NODE_PARAMETER_ID;
 import au.gov.asd.tac.constellation.plugins.parameters.PluginParameter;
 import au.gov.asd.tac.constellation.plugins.parameters.PluginParameters;
@@ -117,8 +118,9 @@ public class DirectedShortestPathsPluginNGTest {
         final DirectedShortestPathsPlugin instance = new DirectedShortestPathsPlugin();
         
         final PluginParameters params = instance.createParameters();
-        assertEquals(params.getParameters().size(), 1);
+        assertEquals(params.getParameters().size(), 2);
         assertTrue(params.getParameters().containsKey(SOURCE_NODE_PARAMETER_ID));
+        assertTrue(params.getParameters().containsKey(LENGTH_ATTRIBUTE_PARAMETER_ID));
     }
 
     /**
@@ -89,15 +89,15 @@ public class HitsCentralityPluginNGTest {
         PluginExecution.withPlugin(instance).withParameters(parameters).executeNow(graph);
 
         assertEquals(graph.getFloatValue(vertexHitsAuthorityAttribute, vxId0), 0f);
-        assertEquals(graph.getFloatValue(vertexHitsAuthorityAttribute, vxId1), 1.874E-42f);
+        assertEquals(graph.getFloatValue(vertexHitsAuthorityAttribute, vxId1), 1.9623108E-9f);
         assertEquals(graph.getFloatValue(vertexHitsAuthorityAttribute, vxId2), 0.5257311f);
         assertEquals(graph.getFloatValue(vertexHitsAuthorityAttribute, vxId3), 0.8506508f);
-        assertEquals(graph.getFloatValue(vertexHitsAuthorityAttribute, vxId4), 1.874E-42f);
+        assertEquals(graph.getFloatValue(vertexHitsAuthorityAttribute, vxId4), 1.9623108E-9f);
 
-        assertEquals(graph.getFloatValue(vertexHitsHubAttribute, vxId0), 1.158E-42f);
+        assertEquals(graph.getFloatValue(vertexHitsHubAttribute, vxId0), 1.2127748E-9f);
         assertEquals(graph.getFloatValue(vertexHitsHubAttribute, vxId1), 0.8506508f);
         assertEquals(graph.getFloatValue(vertexHitsHubAttribute, vxId2), 0.5257311f);
-        assertEquals(graph.getFloatValue(vertexHitsHubAttribute, vxId3), 1.158E-42f);
+        assertEquals(graph.getFloatValue(vertexHitsHubAttribute, vxId3), 1.2127748E-9f);
         assertEquals(graph.getFloatValue(vertexHitsHubAttribute, vxId4), 0f);
     }
 
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.plugins.algorithms.sna.centrality;
+
+import au.gov.asd.tac.constellation.graph.Graph;
+import au.gov.asd.tac.constellation.graph.StoreGraph;
+import au.gov.asd.tac.constellation.graph.schema.Schema;
+import au.gov.asd.tac.constellation.graph.schema.SchemaFactoryUtilities;
+import au.gov.asd.tac.constellation.graph.schema.analytic.AnalyticSchemaFactory;
+import au.gov.asd.tac.constellation.plugins.algorithms.sna.SnaConcept;
+import java.util.Arrays;
+import java.util.Random;
+import static org.testng.Assert.assertEquals;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Power Iteration Engine Test.
+ *
+ * @author sirius
+ */
+public class PowerIterationEngineNGTest {
+
+    public PowerIterationEngineNGTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+    }
+
+    @BeforeMethod
+    public void setUpMethod() throws Exception {
+    }
+
+    @AfterMethod
+    public void tearDownMethod() throws Exception {
+    }
+
+    /**
+     * The scores of a triangle with a pendant vertex should converge to its
+     * principal eigenvector.
+     */
+    @Test
+    public void testEigenvector() throws InterruptedException {
+        // 0 - 1 - 2 - 0, 2 - 3
+        final int[] offsets = {0, 2, 4, 7, 8};
+        final int[] targets = {1, 2, 0, 2, 0, 1, 3, 2};
+        final PowerIterationEngine.Step step = new PowerIterationEngine.Step(offsets, targets, null)
+                .setNormalisation(PowerIterationEngine.Normalisation.EUCLIDEAN);
+        final double[] scores = PowerIterationEngine.iterate(step, new double[]{1, 2, 3, 4}, 1000, 1E-12, null);
+
+        double norm = 0;
+        for (final double score : scores) {
+            norm += score * score;
+        }
+        assertEquals(norm, 1, 1E-9);
+
+        final double eigenvalue = scores[2] / scores[3];
+        for (int vertex = 0; vertex < scores.length; vertex++) {
+            double product = 0;
+            for (int entry = offsets[vertex]; entry < offsets[vertex + 1]; entry++) {
+                product += scores[targets[entry]];
+            }
+            assertEquals(product, eigenvalue * scores[vertex], 1E-9);
+        }
+    }
+
+    /**
+     * Iteration should stop when the scores stop changing, rather than running
+     * all iterations.
+     */
+    @Test
+    public void testConvergence() throws InterruptedException {
+        final PowerIterationEngine.Step step = new PowerIterationEngine.Step(new int[]{0, 1, 2}, new int[]{1, 0}, null)
+                .setScale(0.5)
+                .setOffset(1);
+        final double[] converged = PowerIterationEngine.iterate(step, new double[]{0, 0}, Integer.MAX_VALUE, 1E-6, null);
+        assertEquals(converged[0], 2, 1E-6);
+        assertEquals(converged[1], 2, 1E-6);
+
+        final double[] limited = PowerIterationEngine.iterate(step, new double[]{0, 0}, 1, 1E-6, null);
+        assertEquals(limited, new double[]{1, 1});
+    }
+
+    /**
+     * The score of a dangling vertex should be shared among the other vertices
+     * so that the total score is conserved.
+     */
+    @Test
+    public void testDanglingWeights() throws InterruptedException {
+        // 0 -> 1 -> 2, where 2 is a sink
+        final PowerIterationEngine.Step step = new PowerIterationEngine.Step(new int[]{0, 0, 1, 2}, new int[]{0, 1}, new double[]{1, 1})
+                .setScale(0.85)
+                .setOffset(0.15 / 3)
+                .setDanglingWeights(new double[]{0, 0, 0.5});
+        final double[] scores = PowerIterationEngine.iterate(step, new double[]{1.0 / 3, 1.0 / 3, 1.0 / 3}, 1000, 1E-12, null);
+
+        assertEquals(Arrays.stream(scores).sum(), 1, 1E-9);
+        assertEquals(scores[0], 0.05 + 0.85 * 0.5 * scores[2], 1E-9);
+        assertEquals(scores[1], 0.05 + 0.85 * (scores[0] + 0.5 * scores[2]), 1E-9);
+        assertEquals(scores[2], 0.05 + 0.85 * scores[1], 1E-9);
+    }
+
+    /**
+     * Alternating steps should each receive the scores of the step before.
+     */
+    @Test
+    public void testAlternatingSteps() throws InterruptedException {
+        // authorities and hubs of 0 -> 1, 0 -> 2
+        final PowerIterationEngine.Step authorityStep = new PowerIterationEngine.Step(new int[]{0, 0, 1, 2}, new int[]{0, 0}, null)
+                .setNormalisation(PowerIterationEngine.Normalisation.MAXIMUM);
+        final PowerIterationEngine.Step hubStep = new PowerIterationEngine.Step(new int[]{0, 2, 2, 2}, new int[]{1, 2}, null)
+                .setNormalisation(PowerIterationEngine.Normalisation.MAXIMUM);
+        final double[][] scores = PowerIterationEngine.iterate(new PowerIterationEngine.Step[]{authorityStep, hubStep},
+                new double[][]{{1, 1, 1}, {1, 1, 1}}, 100, 1E-9, null);
+
+        assertEquals(scores[0], new double[]{0, 1, 1});
+        assertEquals(scores[1], new double[]{1, 0, 0});
+    }
+
+    /**
+     * Scores calculated in parallel blocks should match a sequential
+     * calculation.
+     */
+    @Test
+    public void testLargeGraph() throws InterruptedException {
+        final int vertexCount = 5000;
+        final int degree = 4;
+        final Random random = new Random(42);
+        final int[] offsets = new int[vertexCount + 1];
+        final int[] targets = new int[vertexCount * degree];
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            offsets[vertex + 1] = offsets[vertex] + degree;
+            for (int entry = offsets[vertex]; entry < offsets[vertex + 1]; entry++) {
+                targets[entry] = random.nextInt(vertexCount);
+            }
+        }
+
+        final double[] initialScores = new double[vertexCount];
+        Arrays.fill(initialScores, 1.0 / vertexCount);
+        final PowerIterationEngine.Step step = new PowerIterationEngine.Step(offsets, targets, null)
+                .setScale(0.1)
+                .setOffset(1)
+                .setNormalisation(PowerIterationEngine.Normalisation.MAXIMUM);
+        final double[] scores = PowerIterationEngine.iterate(step, initialScores, 10, 0, null);
+
+        double[] expected = initialScores;
+        for (int iteration = 0; iteration < 10; iteration++) {
+            final double[] next = new double[vertexCount];
+            double max = 0;
+            for (int vertex = 0; vertex < vertexCount; vertex++) {
+                for (int entry = offsets[vertex]; entry < offsets[vertex + 1]; entry++) {
+                    next[vertex] += expected[targets[entry]];
+                }
+                next[vertex] = 0.1 * next[vertex] + 1;
+                max = Math.max(max, next[vertex]);
+            }
+            for (int vertex = 0; vertex < vertexCount; vertex++) {
+                next[vertex] /= max;
+            }
+            expected = next;
+        }
+        assertEquals(scores, expected);
+    }
+
+    /**
+     * Initial scores should come from a previous run when there is one.
+     */
+    @Test
+    public void testGetInitialScores() {
+        final Schema schema = SchemaFactoryUtilities.getSchemaFactory(AnalyticSchemaFactory.ANALYTIC_SCHEMA_ID).createSchema();
+        final StoreGraph graph = new StoreGraph(schema);
+        final int vxId0 = graph.addVertex();
+        final int vxId1 = graph.addVertex();
+
+        assertEquals(PowerIterationEngine.getInitialScores(graph, Graph.NOT_FOUND, 0.5), new double[]{0.5, 0.5});
+
+        final int attribute = SnaConcept.VertexAttribute.PAGERANK_CENTRALITY.ensure(graph);
+        assertEquals(PowerIterationEngine.getInitialScores(graph, attribute, 0.5), new double[]{0.5, 0.5});
+
+        graph.setDoubleValue(attribute, vxId0, 0.25);
+        graph.setDoubleValue(attribute, vxId1, 0.75);
+        assertEquals(PowerIterationEngine.getInitialScores(graph, attribute, 0.5), new double[]{0.25, 0.75});
+    }
+}
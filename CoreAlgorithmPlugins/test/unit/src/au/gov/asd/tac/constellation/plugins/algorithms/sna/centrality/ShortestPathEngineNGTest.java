@@ -0,0 +1,177 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.plugins.algorithms.sna.centrality;
+
+import au.gov.asd.tac.constellation.graph.StoreGraph;
+import au.gov.asd.tac.constellation.graph.schema.visual.concept.VisualConcept;
+import au.gov.asd.tac.constellation.plugins.algorithms.sna.centrality.PathScoringUtilities.ScoreType;
+import au.gov.asd.tac.constellation.utilities.datastructure.Tuple;
+import java.util.Random;
+import static org.testng.Assert.assertEquals;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Shortest Path Engine Test.
+ *
+ * @author sirius
+ */
+public class ShortestPathEngineNGTest {
+
+    private int vxId0, vxId1, vxId2, vxId3, vxId4;
+    private StoreGraph graph;
+
+    public ShortestPathEngineNGTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+    }
+
+    @BeforeMethod
+    public void setUpMethod() throws Exception {
+        graph = new StoreGraph();
+        vxId0 = graph.addVertex();
+        vxId1 = graph.addVertex();
+        vxId2 = graph.addVertex();
+        vxId3 = graph.addVertex();
+        vxId4 = graph.addVertex();
+        graph.addTransaction(vxId0, vxId1, true);
+        graph.addTransaction(vxId1, vxId2, true);
+        graph.addTransaction(vxId1, vxId3, true);
+        graph.addTransaction(vxId2, vxId3, true);
+        graph.addTransaction(vxId3, vxId4, true);
+    }
+
+    @AfterMethod
+    public void tearDownMethod() throws Exception {
+        graph = null;
+    }
+
+    /**
+     * Directed scores should follow transactions in the requested direction.
+     */
+    @Test
+    public void testDirectedScores() {
+        assertScores(ScoreType.BETWEENNESS, false, new float[]{0F, 3F, 0F, 3F, 0F});
+        assertScores(ScoreType.FARNESS, false, new float[]{8F, 4F, 3F, 1F, 0F});
+        assertScores(ScoreType.CLOSENESS, false, new float[]{0.125F, 0.25F, 0.33333334F, 1F, 0F});
+        assertScores(ScoreType.HARMONIC_CLOSENESS, false, new float[]{0.46666664F, 0.5F, 0.3F, 0.2F, 0F});
+        assertScores(ScoreType.ECCENTRICITY, false, new float[]{3F, 2F, 2F, 1F, 0F});
+    }
+
+    /**
+     * Undirected scores should follow every transaction and count paths from
+     * both ends.
+     */
+    @Test
+    public void testUndirectedScores() {
+        assertScores(ScoreType.BETWEENNESS, true, new float[]{0F, 6F, 0F, 6F, 0F});
+        assertScores(ScoreType.CLOSENESS, true, new float[]{0.125F, 0.2F, 0.16666667F, 0.2F, 0.125F});
+        assertScores(ScoreType.HARMONIC_CLOSENESS, true, new float[]{0.9333334F, 1.4F, 1.2F, 1.4F, 0.9333334F});
+        assertScores(ScoreType.ECCENTRICITY, true, new float[]{3F, 2F, 2F, 2F, 3F});
+        assertScores(ScoreType.AVERAGE_DISTANCE, true, new float[]{8F, 5F, 6F, 5F, 8F});
+    }
+
+    /**
+     * Betweenness should be shared between vertices on shortest paths of the
+     * same length.
+     */
+    @Test
+    public void testSharedBetweenness() {
+        graph.addTransaction(vxId2, vxId4, true);
+
+        final float[] scores = ShortestPathEngine.calculateScores(graph, ScoreType.BETWEENNESS, false, true, true, false).getSecond();
+        assertEquals(scores, new float[]{0F, 3F, 1F, 1F, 0F});
+    }
+
+    /**
+     * Only paths between selected vertices should be counted.
+     */
+    @Test
+    public void testSelectedOnly() {
+        final int selectedAttribute = VisualConcept.VertexAttribute.SELECTED.ensure(graph);
+        graph.setBooleanValue(selectedAttribute, vxId0, true);
+        graph.setBooleanValue(selectedAttribute, vxId4, true);
+
+        final float[] betweennesses = ShortestPathEngine.calculateScores(graph, ScoreType.BETWEENNESS, false, true, true, true).getSecond();
+        assertEquals(betweennesses, new float[]{0F, 1F, 0F, 1F, 0F});
+
+        final float[] farnesses = ShortestPathEngine.calculateScores(graph, ScoreType.FARNESS, false, true, true, true).getSecond();
+        assertEquals(farnesses, new float[]{3F, 2F, 2F, 1F, 0F});
+    }
+
+    /**
+     * Sampling every vertex should give the exact scores, and sampled scores
+     * should be scaled up to estimate the exact scores.
+     */
+    @Test
+    public void testPivotSampling() {
+        for (final ScoreType scoreType : new ScoreType[]{ScoreType.BETWEENNESS, ScoreType.FARNESS, ScoreType.HARMONIC_FARNESS}) {
+            final float[] exact = ShortestPathEngine.calculateScores(graph, scoreType, true, true, true, false).getSecond();
+            final float[] sampled = ShortestPathEngine.calculateScores(graph, scoreType, true, true, true, false, 5, new Random(1)).getSecond();
+            assertEquals(sampled, exact, scoreType.name());
+        }
+
+        // always sample the first remaining vertex, so the pivots are the vertices at the lowest positions
+        final Random first = new Random() {
+            @Override
+            public int nextInt(final int bound) {
+                return 0;
+            }
+        };
+
+        final float[] betweennesses = ShortestPathEngine.calculateScores(graph, ScoreType.BETWEENNESS, false, true, true, false, 2, first).getSecond();
+        assertEquals(betweennesses, new float[]{0F, 7.5F, 0F, 5F, 0F});
+
+        final float[] undirectedFarnesses = ShortestPathEngine.calculateScores(graph, ScoreType.FARNESS, true, true, true, false, 4, first).getSecond();
+        assertEquals(undirectedFarnesses, new float[]{6.25F, 3.75F, 5F, 5F, 10F});
+
+        final float[] directedFarnesses = ShortestPathEngine.calculateScores(graph, ScoreType.FARNESS, false, true, true, false, 4, first).getSecond();
+        assertEquals(directedFarnesses, new float[]{6.25F, 2.5F, 1.25F, 0F, 0F});
+
+        assertEquals(ShortestPathEngine.getPivotCount(0, 0.1, 0.9), 0);
+        assertEquals(ShortestPathEngine.getPivotCount(100, 0.1, 0.9), 100);
+        assertEquals(ShortestPathEngine.getPivotCount(1000000, 0.1, 0.9), 841);
+    }
+
+    /**
+     * Vertices joined in either direction should share a component.
+     */
+    @Test
+    public void testComponents() {
+        final int vxId5 = graph.addVertex();
+        final int vxId6 = graph.addVertex();
+        graph.addTransaction(vxId6, vxId5, true);
+
+        final Tuple<int[], float[]> result = ShortestPathEngine.calculateScores(graph, ScoreType.ECCENTRICITY, false, true, false, false);
+        assertEquals(result.getFirst(), new int[]{0, 0, 0, 0, 0, 1, 1});
+        assertEquals(result.getSecond()[graph.getVertexPosition(vxId5)], 0F);
+        assertEquals(result.getSecond()[graph.getVertexPosition(vxId6)], 1F);
+    }
+
+    private void assertScores(final ScoreType scoreType, final boolean undirected, final float[] expected) {
+        final float[] scores = ShortestPathEngine.calculateScores(graph, scoreType, undirected, true, true, false).getSecond();
+        assertEquals(scores, expected, scoreType.name());
+    }
+}
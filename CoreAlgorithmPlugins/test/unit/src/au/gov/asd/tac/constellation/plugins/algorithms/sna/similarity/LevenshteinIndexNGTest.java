@@ -0,0 +1,165 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.plugins.algorithms.sna.similarity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import static org.testng.Assert.assertEquals;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Levenshtein Index Test.
+ *
+ * @author sirius
+ */
+public class LevenshteinIndexNGTest {
+
+    public LevenshteinIndexNGTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+    }
+
+    @BeforeMethod
+    public void setUpMethod() throws Exception {
+    }
+
+    @AfterMethod
+    public void tearDownMethod() throws Exception {
+    }
+
+    /**
+     * The bounded distance should match a full calculation, both for strings
+     * short enough for the bit-parallel calculation and for longer strings.
+     */
+    @Test
+    public void testDistanceFunction() {
+        final Random random = new Random(42);
+        for (int test = 0; test < 2000; test++) {
+            final String first = randomString(random, 1 + random.nextInt(test % 2 == 0 ? 20 : 100), 4);
+            final String second = mutate(random, first, random.nextInt(6), 4);
+            final int maximumDistance = random.nextInt(5);
+            final int expected = getDistance(first, second);
+            final double distance = new LevenshteinDistanceFunction(maximumDistance).getDistance(first, second);
+            assertEquals(distance, expected <= maximumDistance ? expected : maximumDistance + 1.0, first + " " + second);
+        }
+
+        assertEquals(new LevenshteinDistanceFunction(3).getDistance("kitten", "sitting"), 3.0);
+        assertEquals(new LevenshteinDistanceFunction(2).getDistance("kitten", "sitting"), 3.0);
+        assertEquals(new LevenshteinDistanceFunction(2).getDistance("", "ab"), 2.0);
+    }
+
+    /**
+     * The index should find exactly the pairs a comparison of every pair
+     * finds, in order, and skip identical and null values.
+     */
+    @Test
+    public void testFindMatches() {
+        final Random random = new Random(42);
+        final List<String> generated = new ArrayList<>();
+        for (int index = 0; index < 300; index++) {
+            if (index > 0 && random.nextInt(3) == 0) {
+                generated.add(mutate(random, generated.get(random.nextInt(index)), random.nextInt(4), 3));
+            } else {
+                generated.add(randomString(random, 1 + random.nextInt(8), 3));
+            }
+        }
+        generated.set(7, null);
+        generated.set(8, generated.get(9));
+        final String[] values = generated.toArray(new String[generated.size()]);
+
+        for (int maximumDistance = 0; maximumDistance <= 3; maximumDistance++) {
+            final LevenshteinIndex.Matches matches = new LevenshteinIndex(values, maximumDistance).findMatches();
+            int match = 0;
+            for (int first = 0; first < values.length; first++) {
+                for (int second = first + 1; second < values.length; second++) {
+                    if (values[first] == null || values[second] == null || values[first].equals(values[second])) {
+                        continue;
+                    }
+                    final int distance = getDistance(values[first], values[second]);
+                    if (distance <= maximumDistance) {
+                        assertEquals(matches.getFirst(match), first);
+                        assertEquals(matches.getSecond(match), second);
+                        assertEquals(matches.getDistance(match), distance);
+                        match++;
+                    }
+                }
+            }
+            assertEquals(matches.size(), match);
+        }
+    }
+
+    private static String randomString(final Random random, final int length, final int alphabet) {
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            builder.append((char) ('a' + random.nextInt(alphabet)));
+        }
+        return builder.toString();
+    }
+
+    private static String mutate(final Random random, final String value, final int edits, final int alphabet) {
+        final StringBuilder builder = new StringBuilder(value);
+        for (int edit = 0; edit < edits; edit++) {
+            final int position = random.nextInt(builder.length() + 1);
+            final char c = (char) ('a' + random.nextInt(alphabet));
+            switch (random.nextInt(3)) {
+                case 0:
+                    builder.insert(position, c);
+                    break;
+                case 1:
+                    if (position < builder.length() && builder.length() > 1) {
+                        builder.deleteCharAt(position);
+                    }
+                    break;
+                default:
+                    if (position < builder.length()) {
+                        builder.setCharAt(position, c);
+                    }
+                    break;
+            }
+        }
+        return builder.toString();
+    }
+
+    private static int getDistance(final String first, final String second) {
+        int[] previous = new int[second.length() + 1];
+        int[] current = new int[second.length() + 1];
+        for (int j = 0; j <= second.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= first.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= second.length(); j++) {
+                final int substitution = previous[j - 1] + (first.charAt(i - 1) == second.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            final int[] temp = previous;
+            previous = current;
+            current = temp;
+        }
+        return previous[second.length()];
+    }
+}
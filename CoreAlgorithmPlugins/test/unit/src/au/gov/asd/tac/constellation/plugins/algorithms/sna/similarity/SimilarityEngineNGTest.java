@@ -0,0 +1,313 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.plugins.algorithms.sna.similarity;
+
+import au.gov.asd.tac.constellation.graph.StoreGraph;
+import au.gov.asd.tac.constellation.graph.schema.Schema;
+import au.gov.asd.tac.constellation.graph.schema.SchemaFactoryUtilities;
+import au.gov.asd.tac.constellation.graph.schema.analytic.AnalyticSchemaFactory;
+import au.gov.asd.tac.constellation.graph.schema.analytic.concept.AnalyticConcept;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Similarity Engine Test.
+ *
+ * @author sirius
+ */
+public class SimilarityEngineNGTest {
+
+    public SimilarityEngineNGTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+    }
+
+    @BeforeMethod
+    public void setUpMethod() throws Exception {
+    }
+
+    @AfterMethod
+    public void tearDownMethod() throws Exception {
+    }
+
+    /**
+     * Every measure should be calculated for each pair sharing a feature, and
+     * pairs should be ordered by position.
+     */
+    @Test
+    public void testScores() {
+        // 0 and 1 share neighbours 2 and 3, 1 also neighbours 4
+        final SimilarityEngine.Features features = buildFeatures(5, new int[][]{
+            {0, 2}, {0, 3}, {1, 2}, {1, 3}, {1, 4}
+        }, new float[]{1, 2, 1, 1, 1});
+        final SimilarityEngine.Scores scores = new SimilarityEngine(features).calculate();
+
+        assertEquals(scores.size(), 4);
+        assertEquals(new int[]{scores.getFirst(0), scores.getSecond(0)}, new int[]{0, 1});
+        assertEquals(new int[]{scores.getFirst(1), scores.getSecond(1)}, new int[]{2, 3});
+        assertEquals(new int[]{scores.getFirst(2), scores.getSecond(2)}, new int[]{2, 4});
+        assertEquals(new int[]{scores.getFirst(3), scores.getSecond(3)}, new int[]{3, 4});
+
+        assertEquals(scores.getScore(SimilarityEngine.Measure.COMMON_NEIGHBOURS, 0), 2F);
+        assertEquals(scores.getScore(SimilarityEngine.Measure.JACCARD, 0), 2F / 3F);
+        assertEquals(scores.getScore(SimilarityEngine.Measure.DICE, 0), 2F / 2.5F);
+        assertEquals(scores.getScore(SimilarityEngine.Measure.COSINE, 0), (float) (3 / (Math.sqrt(5) * Math.sqrt(3))), 1E-6F);
+        assertEquals(scores.getScore(SimilarityEngine.Measure.ADAMIC_ADAR, 0), (float) (2 / Math.log(2)), 1E-6F);
+        assertEquals(scores.getScore(SimilarityEngine.Measure.RESOURCE_ALLOCATION, 0), 1F);
+        assertEquals(scores.getScore(SimilarityEngine.Measure.JACCARD, 1), 1F);
+        assertEquals(scores.getScore(SimilarityEngine.Measure.JACCARD, 2), 0.5F);
+    }
+
+    /**
+     * Pairs should only be returned if they share enough features and include
+     * the selected vertices.
+     */
+    @Test
+    public void testMinimumCommonFeaturesAndSelection() {
+        final SimilarityEngine.Features features = buildFeatures(5, new int[][]{
+            {0, 2}, {0, 3}, {1, 2}, {1, 3}, {1, 4}
+        }, null);
+
+        final SimilarityEngine.Scores common = new SimilarityEngine(features).setMinimumCommonFeatures(2).calculate();
+        assertEquals(common.size(), 2);
+        assertEquals(new int[]{common.getFirst(0), common.getSecond(0)}, new int[]{0, 1});
+        assertEquals(new int[]{common.getFirst(1), common.getSecond(1)}, new int[]{2, 3});
+
+        final BitSet selected = new BitSet();
+        selected.set(4);
+        final SimilarityEngine.Scores either = new SimilarityEngine(features).setSelected(selected, false).calculate();
+        assertEquals(either.size(), 2);
+        assertEquals(new int[]{either.getFirst(0), either.getSecond(0)}, new int[]{2, 4});
+        assertEquals(new int[]{either.getFirst(1), either.getSecond(1)}, new int[]{3, 4});
+
+        selected.set(3);
+        final SimilarityEngine.Scores both = new SimilarityEngine(features).setSelected(selected, true).calculate();
+        assertEquals(both.size(), 1);
+        assertEquals(new int[]{both.getFirst(0), both.getSecond(0)}, new int[]{3, 4});
+    }
+
+    /**
+     * Each vertex should keep only its highest scoring pairs, but a pair kept
+     * by either vertex should be returned once.
+     */
+    @Test
+    public void testMaximumResults() {
+        // 0 shares three neighbours with 1, two with 2 and one with 3
+        final SimilarityEngine.Features features = buildFeatures(10, new int[][]{
+            {0, 4}, {0, 5}, {0, 6},
+            {1, 4}, {1, 5}, {1, 6},
+            {2, 4}, {2, 5},
+            {3, 4}
+        }, null);
+        final SimilarityEngine.Scores scores = new SimilarityEngine(features)
+                .setMaximumResults(1, SimilarityEngine.Measure.COMMON_NEIGHBOURS)
+                .calculate();
+
+        final TreeSet<String> pairs = new TreeSet<>();
+        for (int pair = 0; pair < scores.size(); pair++) {
+            pairs.add(scores.getFirst(pair) + "-" + scores.getSecond(pair));
+        }
+        // ties are broken by the lower position, so 2 keeps 0 rather than 1 and 6 keeps 4 rather than 5
+        assertEquals(pairs, new TreeSet<>(Arrays.asList("0-1", "0-2", "0-3", "4-5", "4-6")));
+        for (int pair = 1; pair < scores.size(); pair++) {
+            assertTrue(scores.getFirst(pair - 1) < scores.getFirst(pair)
+                    || (scores.getFirst(pair - 1) == scores.getFirst(pair) && scores.getSecond(pair - 1) < scores.getSecond(pair)));
+        }
+    }
+
+    /**
+     * On a larger graph, the join should match comparing every pair, and the
+     * approximate scores should be a subset of the exact ones that includes
+     * the most similar pairs.
+     */
+    @Test
+    public void testLargeGraph() {
+        final int vertexCount = 402;
+        final Random random = new Random(42);
+        final int[][] allEdges = new int[1206][];
+        for (int edge = 0; edge < 1200; edge++) {
+            final int source = random.nextInt(400);
+            int target;
+            do {
+                target = random.nextInt(400);
+            } while (target == source);
+            allEdges[edge] = new int[]{source, target};
+        }
+        // 400 and 401 have identical neighbours
+        for (int edge = 0; edge < 3; edge++) {
+            allEdges[1200 + edge * 2] = new int[]{400, edge * 10};
+            allEdges[1201 + edge * 2] = new int[]{401, edge * 10};
+        }
+        final SimilarityEngine.Features features = buildFeatures(vertexCount, allEdges, null);
+
+        final Map<Long, Float> expected = new HashMap<>();
+        final BitSet[] neighbours = new BitSet[vertexCount];
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            neighbours[vertex] = new BitSet(vertexCount);
+        }
+        for (final int[] edge : allEdges) {
+            neighbours[edge[0]].set(edge[1]);
+            neighbours[edge[1]].set(edge[0]);
+        }
+        for (int first = 0; first < vertexCount; first++) {
+            for (int second = first + 1; second < vertexCount; second++) {
+                final BitSet intersection = (BitSet) neighbours[first].clone();
+                intersection.and(neighbours[second]);
+                if (!intersection.isEmpty()) {
+                    final BitSet union = (BitSet) neighbours[first].clone();
+                    union.or(neighbours[second]);
+                    union.clear(first);
+                    union.clear(second);
+                    expected.put(((long) first << 32) | second, (float) intersection.cardinality() / union.cardinality());
+                }
+            }
+        }
+
+        final SimilarityEngine.Scores exact = new SimilarityEngine(features).calculate();
+        assertEquals(exact.size(), expected.size());
+        for (int pair = 0; pair < exact.size(); pair++) {
+            final long key = ((long) exact.getFirst(pair) << 32) | exact.getSecond(pair);
+            assertEquals(exact.getScore(SimilarityEngine.Measure.JACCARD, pair), expected.get(key));
+        }
+
+        final SimilarityEngine.Scores approximate = new SimilarityEngine(features).setApproximate(true).calculate();
+        assertTrue(approximate.size() < exact.size());
+        boolean foundIdentical = false;
+        for (int pair = 0; pair < approximate.size(); pair++) {
+            final long key = ((long) approximate.getFirst(pair) << 32) | approximate.getSecond(pair);
+            assertEquals(approximate.getScore(SimilarityEngine.Measure.JACCARD, pair), expected.get(key));
+            foundIdentical |= key == ((400L << 32) | 401);
+        }
+        assertTrue(foundIdentical);
+    }
+
+    /**
+     * The pairs of a band bucket holding very many identical vertices should
+     * be sampled rather than all being compared.
+     */
+    @Test
+    public void testLargeBucket() {
+        final int leafCount = SimilarityEngine.MAXIMUM_BUCKET_SIZE * 4;
+        final int[][] allEdges = new int[leafCount * 2][];
+        for (int leaf = 0; leaf < leafCount; leaf++) {
+            allEdges[leaf * 2] = new int[]{0, leaf + 2};
+            allEdges[leaf * 2 + 1] = new int[]{1, leaf + 2};
+        }
+        final SimilarityEngine.Features features = buildFeatures(leafCount + 2, allEdges, null);
+
+        final SimilarityEngine.Scores approximate = new SimilarityEngine(features).setApproximate(true).calculate();
+        assertTrue(approximate.size() <= leafCount * SimilarityEngine.MAXIMUM_BUCKET_SIZE / 2 + 1);
+        final BitSet paired = new BitSet(leafCount + 2);
+        for (int pair = 0; pair < approximate.size(); pair++) {
+            assertEquals(approximate.getScore(SimilarityEngine.Measure.JACCARD, pair), 1.0F);
+            paired.set(approximate.getFirst(pair));
+            paired.set(approximate.getSecond(pair));
+        }
+        assertEquals(paired.cardinality(), leafCount + 2);
+    }
+
+    /**
+     * Features read from a graph should follow the requested directions,
+     * ignore loops and similarity transactions, and be weighted by the number
+     * of transactions.
+     */
+    @Test
+    public void testFeaturesOf() {
+        final Schema schema = SchemaFactoryUtilities.getSchemaFactory(AnalyticSchemaFactory.ANALYTIC_SCHEMA_ID).createSchema();
+        final StoreGraph graph = new StoreGraph(schema);
+        final int typeAttribute = AnalyticConcept.TransactionAttribute.TYPE.ensure(graph);
+        final int vxId0 = graph.addVertex();
+        final int vxId1 = graph.addVertex();
+        final int vxId2 = graph.addVertex();
+        final int vxId3 = graph.addVertex();
+        graph.addTransaction(vxId0, vxId1, true);
+        graph.addTransaction(vxId0, vxId1, true);
+        graph.addTransaction(vxId2, vxId0, true);
+        graph.addTransaction(vxId0, vxId3, false);
+        final int vxId4 = graph.addVertex();
+        graph.addTransaction(vxId4, vxId1, true);
+        graph.addTransaction(vxId0, vxId0, true);
+        final int similarityId = graph.addTransaction(vxId1, vxId2, false);
+        graph.setObjectValue(typeAttribute, similarityId, AnalyticConcept.TransactionType.SIMILARITY);
+
+        final SimilarityEngine.Features outgoing = SimilarityEngine.Features.of(graph, false, true, false);
+        final SimilarityEngine.Features all = SimilarityEngine.Features.of(graph, true, true, true);
+        final BitSet target = new BitSet();
+        target.set(graph.getVertexPosition(vxId1));
+
+        // 0 and 4 both send to 1 when only outgoing transactions are included
+        assertEquals(new SimilarityEngine(outgoing).calculate().size(), 1);
+        final SimilarityEngine.Scores scores = new SimilarityEngine(all).setSelected(target, false).calculate();
+        // 1 shares 0 with 2 and 3, and the similarity transaction to 2 is ignored
+        assertEquals(scores.size(), 2);
+        assertEquals(new int[]{scores.getFirst(0), scores.getSecond(0)}, new int[]{1, 2});
+        assertEquals(scores.getScore(SimilarityEngine.Measure.COSINE, 0), (float) (2 / Math.sqrt(5)), 1E-6F);
+        assertEquals(scores.getScore(SimilarityEngine.Measure.RESOURCE_ALLOCATION, 0), 1F / graph.getVertexNeighbourCount(vxId0));
+    }
+
+    private static SimilarityEngine.Features buildFeatures(final int vertexCount, final int[][] edges, final float[] edgeWeights) {
+        final long[][] rows = new long[vertexCount][0];
+        for (int edge = 0; edge < edges.length; edge++) {
+            final int weight = edgeWeights == null ? 1 : (int) edgeWeights[edge];
+            for (int end = 0; end < 2; end++) {
+                final int vertex = edges[edge][end];
+                final int neighbour = edges[edge][1 - end];
+                rows[vertex] = Arrays.copyOf(rows[vertex], rows[vertex].length + 1);
+                rows[vertex][rows[vertex].length - 1] = ((long) neighbour << 32) | weight;
+            }
+        }
+
+        final int[] offsets = new int[vertexCount + 1];
+        final TreeSet<Long>[] sorted = new TreeSet[vertexCount];
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            sorted[vertex] = new TreeSet<>();
+            for (final long entry : rows[vertex]) {
+                // keep the first weight given to each neighbour
+                if (sorted[vertex].subSet(entry & ~0xFFFFFFFFL, (entry | 0xFFFFFFFFL) + 1).isEmpty()) {
+                    sorted[vertex].add(entry);
+                }
+            }
+            offsets[vertex + 1] = offsets[vertex] + sorted[vertex].size();
+        }
+        final int[] targets = new int[offsets[vertexCount]];
+        final float[] weights = new float[offsets[vertexCount]];
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            int entry = offsets[vertex];
+            for (final long value : sorted[vertex]) {
+                targets[entry] = (int) (value >>> 32);
+                weights[entry++] = (int) value;
+            }
+        }
+        return new SimilarityEngine.Features(offsets, targets, weights, null);
+    }
+}
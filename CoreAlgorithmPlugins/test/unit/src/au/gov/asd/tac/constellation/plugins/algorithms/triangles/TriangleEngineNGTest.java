@@ -0,0 +1,198 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.plugins.algorithms.triangles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import static org.testng.Assert.assertEquals;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Triangle Engine Test.
+ *
+ * @author sirius
+ */
+public class TriangleEngineNGTest {
+
+    public TriangleEngineNGTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+    }
+
+    @BeforeMethod
+    public void setUpMethod() throws Exception {
+    }
+
+    @AfterMethod
+    public void tearDownMethod() throws Exception {
+    }
+
+    /**
+     * A 4-clique with a pendant triangle and a pendant edge.
+     */
+    @Test
+    public void testSmallGraph() {
+        // 0 - 1 - 2 - 3 form a clique, 3 - 4 - 5 form a triangle, 5 - 6
+        final boolean[][] adjacent = new boolean[7][7];
+        final int[][] edges = {{0, 1}, {0, 2}, {0, 3}, {1, 2}, {1, 3}, {2, 3}, {3, 4}, {3, 5}, {4, 5}, {5, 6}};
+        for (final int[] edge : edges) {
+            adjacent[edge[0]][edge[1]] = true;
+            adjacent[edge[1]][edge[0]] = true;
+        }
+        final TriangleEngine engine = createEngine(adjacent);
+
+        assertEquals(engine.getEdgeCount(), 10);
+        assertEquals(engine.getTriangleCount(), 5);
+        assertEquals(engine.getVertexTriangleCounts(), new long[]{3, 3, 3, 4, 1, 1, 0});
+
+        final int[] trussness = engine.getTrussness();
+        for (int edge = 0; edge < engine.getEdgeCount(); edge++) {
+            final int low = engine.getEdgeLow(edge);
+            final int high = engine.getEdgeHigh(edge);
+            final int expected = high <= 3 ? 4 : high == 6 ? 2 : 3;
+            assertEquals(trussness[edge], expected, low + " - " + high);
+        }
+    }
+
+    /**
+     * Triangle counts, triplet counts and trussness should match a direct
+     * calculation on random graphs.
+     */
+    @Test
+    public void testRandomGraphs() {
+        final Random random = new Random(42);
+        for (int test = 0; test < 20; test++) {
+            final int vertexCount = 5 + random.nextInt(60);
+            final double density = 0.05 + random.nextDouble() * 0.4;
+            final boolean[][] adjacent = new boolean[vertexCount][vertexCount];
+            for (int i = 0; i < vertexCount; i++) {
+                for (int j = i + 1; j < vertexCount; j++) {
+                    if (random.nextDouble() < density) {
+                        adjacent[i][j] = true;
+                        adjacent[j][i] = true;
+                    }
+                }
+            }
+            final TriangleEngine engine = createEngine(adjacent);
+
+            long triangles = 0;
+            long triplets = 0;
+            final long[] vertexTriangles = new long[vertexCount];
+            for (int one = 0; one < vertexCount; one++) {
+                for (int two = one + 1; two < vertexCount; two++) {
+                    if (!adjacent[one][two]) {
+                        continue;
+                    }
+                    for (int three = two + 1; three < vertexCount; three++) {
+                        if (adjacent[one][three] && adjacent[two][three]) {
+                            triangles++;
+                            vertexTriangles[one]++;
+                            vertexTriangles[two]++;
+                            vertexTriangles[three]++;
+                        }
+                        if (adjacent[one][three] || adjacent[two][three]) {
+                            triplets++;
+                        }
+                    }
+                }
+            }
+            assertEquals(engine.getTriangleCount(), triangles);
+            assertEquals(engine.getTripletCount(), triplets);
+            assertEquals(engine.getVertexTriangleCounts(), vertexTriangles);
+
+            final int[] trussness = engine.getTrussness();
+            final int[][] expectedTrussness = getTrussness(adjacent);
+            for (int edge = 0; edge < engine.getEdgeCount(); edge++) {
+                assertEquals(trussness[edge], expectedTrussness[engine.getEdgeLow(edge)][engine.getEdgeHigh(edge)]);
+            }
+        }
+    }
+
+    private static TriangleEngine createEngine(final boolean[][] adjacent) {
+        final int vertexCount = adjacent.length;
+        final int[] offsets = new int[vertexCount + 1];
+        final List<Integer> targets = new ArrayList<>();
+        for (int i = 0; i < vertexCount; i++) {
+            for (int j = 0; j < vertexCount; j++) {
+                if (adjacent[i][j]) {
+                    targets.add(j);
+                }
+            }
+            offsets[i + 1] = targets.size();
+        }
+        return new TriangleEngine(offsets, targets.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * Find the trussness of each edge by culling the edges with too little
+     * support for each k in turn.
+     */
+    private static int[][] getTrussness(final boolean[][] adjacent) {
+        final int vertexCount = adjacent.length;
+        final int[][] trussness = new int[vertexCount][vertexCount];
+        final boolean[][] remaining = new boolean[vertexCount][];
+        for (int i = 0; i < vertexCount; i++) {
+            remaining[i] = adjacent[i].clone();
+        }
+        for (int k = 3;; k++) {
+            boolean anyRemaining = false;
+            for (int i = 0; i < vertexCount; i++) {
+                for (int j = i + 1; j < vertexCount; j++) {
+                    if (remaining[i][j]) {
+                        trussness[i][j] = k - 1;
+                        anyRemaining = true;
+                    }
+                }
+            }
+            if (!anyRemaining) {
+                return trussness;
+            }
+            boolean culled = true;
+            while (culled) {
+                culled = false;
+                for (int i = 0; i < vertexCount; i++) {
+                    for (int j = i + 1; j < vertexCount; j++) {
+                        if (!remaining[i][j]) {
+                            continue;
+                        }
+                        int support = 0;
+                        for (int third = 0; third < vertexCount; third++) {
+                            if (remaining[i][third] && remaining[j][third]) {
+                                support++;
+                            }
+                        }
+                        if (support < k - 2) {
+                            remaining[i][j] = false;
+                            remaining[j][i] = false;
+                            culled = true;
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
@@ -91,6 +91,13 @@ public class ClusteringConcept extends SchemaConcept {
         public static final SchemaAttribute INFOMAP_COLOR = new SchemaAttribute.Builder(GraphElementType.VERTEX, ColorAttributeDescription.ATTRIBUTE_NAME, "Cluster.Infomap.Color")
                 .setDescription("The Infomap cluster color")
                 .build();
+        public static final SchemaAttribute LOUVAIN_CLUSTER = new SchemaAttribute.Builder(GraphElementType.VERTEX, IntegerAttributeDescription.ATTRIBUTE_NAME, "Cluster.Louvain")
+                .setDescription("The Louvain cluster this node belongs to")
+                .setDefaultValue(-1)
+                .build();
+        public static final SchemaAttribute LOUVAIN_COLOR = new SchemaAttribute.Builder(GraphElementType.VERTEX, ColorAttributeDescription.ATTRIBUTE_NAME, "Cluster.Louvain.Color")
+                .setDescription("The Louvain cluster color")
+                .build();
     }
 
     public static class TransactionAttribute {
@@ -126,6 +133,13 @@ public class ClusteringConcept extends SchemaConcept {
         public static final SchemaAttribute INFOMAP_COLOR = new SchemaAttribute.Builder(GraphElementType.TRANSACTION, ColorAttributeDescription.ATTRIBUTE_NAME, "Cluster.Infomap.Color")
                 .setDescription("The Infomap cluster color")
                 .build();
+        public static final SchemaAttribute LOUVAIN_CLUSTER = new SchemaAttribute.Builder(GraphElementType.TRANSACTION, IntegerAttributeDescription.ATTRIBUTE_NAME, "Cluster.Louvain")
+                .setDescription("The Louvain cluster this transaction belongs to")
+                .setDefaultValue(-1)
+                .build();
+        public static final SchemaAttribute LOUVAIN_COLOR = new SchemaAttribute.Builder(GraphElementType.TRANSACTION, ColorAttributeDescription.ATTRIBUTE_NAME, "Cluster.Louvain.Color")
+                .setDescription("The Louvain cluster color")
+                .build();
     }
 
     @Override
@@ -142,6 +156,8 @@ public class ClusteringConcept extends SchemaConcept {
         schemaAttributes.add(VertexAttribute.CHINESE_WHISPERS_COLOR);
         schemaAttributes.add(VertexAttribute.INFOMAP_CLUSTER);
         schemaAttributes.add(VertexAttribute.INFOMAP_COLOR);
+        schemaAttributes.add(VertexAttribute.LOUVAIN_CLUSTER);
+        schemaAttributes.add(VertexAttribute.LOUVAIN_COLOR);
         schemaAttributes.add(TransactionAttribute.NAMED_CLUSTER);
         schemaAttributes.add(TransactionAttribute.K_TRUSS_CLUSTER);
         schemaAttributes.add(TransactionAttribute.K_TRUSS_COLOR);
@@ -151,6 +167,8 @@ public class ClusteringConcept extends SchemaConcept {
         schemaAttributes.add(TransactionAttribute.CHINESE_WHISPERS_COLOR);
         schemaAttributes.add(TransactionAttribute.INFOMAP_CLUSTER);
         schemaAttributes.add(TransactionAttribute.INFOMAP_COLOR);
+        schemaAttributes.add(TransactionAttribute.LOUVAIN_CLUSTER);
+        schemaAttributes.add(TransactionAttribute.LOUVAIN_COLOR);
         return Collections.unmodifiableCollection(schemaAttributes);
     }
 }
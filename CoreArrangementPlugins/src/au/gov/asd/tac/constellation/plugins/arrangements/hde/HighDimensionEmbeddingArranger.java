@@ -18,9 +18,11 @@ package au.gov.asd.tac.constellation.plugins.arrangements.hde;
 import au.gov.asd.tac.constellation.graph.GraphElementType;
 import au.gov.asd.tac.constellation.graph.GraphWriteMethods;
 import au.gov.asd.tac.constellation.graph.schema.visual.concept.VisualConcept;
+import au.gov.asd.tac.constellation.graph.utilities.GraphTopology;
 import au.gov.asd.tac.constellation.plugins.arrangements.Arranger;
 import java.security.SecureRandom;
 import java.util.Arrays;
+import java.util.stream.IntStream;
 
 /**
  * Arrange by high dimension embedding.
@@ -30,6 +32,11 @@ import java.util.Arrays;
  * 2528 of Lecture Notes in Computer Science, pp. 207-219,<br>
  * Springer Verlag, 2002.
  * <p>
+ * The distances from each pivot are found by breadth first searches over a
+ * snapshot of the neighbours of each vertex, and the covariance and projection
+ * steps are spread over the common fork-join pool. All working arrays are
+ * indexed by vertex position.
+ * <p>
  * TODO: scale x,y,z after arrangement so the graph isn't cramped.
  *
  * @author algol
@@ -47,12 +54,15 @@ public class HighDimensionEmbeddingArranger implements Arranger {
     private final int dimensions;
 
     // These should all be final, but can't be set until arrange().
-    private GraphWriteMethods wg;
+    private GraphTopology topology;
+    private int vxCount;
+    private int[] offsets;
+    private int[] neighbours;
     private int[] centres;
     private double[] mean;
-    private boolean[] known;
     private boolean[] pivot;
     private int[] distance;
+    private int[] queue;
 
     // Coordinates of each node relative to pivot.
     private double[][] xMatrix;
@@ -66,37 +76,38 @@ public class HighDimensionEmbeddingArranger implements Arranger {
     }
 
     private void set(final GraphWriteMethods wg) {
-        this.wg = wg;
-        final int vxCapacity = wg.getVertexCapacity();
+        // The components being arranged are usually temporary copies of the
+        // graph, so build a snapshot rather than caching one against them.
+        topology = GraphTopology.build(wg);
+        vxCount = topology.getVertexCount();
+        final GraphTopology.Adjacency adjacency = topology.getNeighbours();
+        offsets = adjacency.getOffsets();
+        neighbours = adjacency.getTargets();
 
         centres = new int[M];
         mean = new double[M];
-        known = new boolean[vxCapacity];
-        pivot = new boolean[vxCapacity];
-        distance = new int[vxCapacity];
+        pivot = new boolean[vxCount];
+        distance = new int[vxCount];
+        queue = new int[vxCount];
 
-        xMatrix = new double[M][vxCapacity];
+        xMatrix = new double[M][vxCount];
     }
 
     @Override
-    public void arrange(final GraphWriteMethods wg) {
+    public void arrange(final GraphWriteMethods wg) throws InterruptedException {
         set(wg);
-
-        final int vxCount = wg.getVertexCount();
-        for (int position = 0; position < vxCount; position++) {
-            final int vxId = wg.getVertex(position);
-
-            distance[vxId] = Integer.MAX_VALUE;
-            pivot[vxId] = false;
-            known[vxId] = false;
+        if (vxCount == 0) {
+            return;
         }
 
-        centres[0] = wg.getVertex(0);
-        pivot[wg.getVertex(0)] = true;
-        int currx = 0;
+        final Thread caller = Thread.currentThread();
+        Arrays.fill(distance, Integer.MAX_VALUE);
+
+        centres[0] = 0;
+        pivot[0] = true;
 
         // Find coordinates of nodes relative to first pivot.
-        positionFrom(0, xMatrix[currx]);
+        positionFrom(0, xMatrix[0]);
 
         // For the remaining pivot points...
         for (int m = 1; m < M; m++) {
@@ -104,19 +115,14 @@ public class HighDimensionEmbeddingArranger implements Arranger {
             // distances for a non-pivot point at the furthest
             // distance from that of any other pivot.
             int pdist = 0;
-            int pnode = wg.getVertex(0);
-            for (int npos = 0; npos < vxCount; npos++) {
-                final int n = wg.getVertex(npos);
-
+            int pnode = 0;
+            for (int n = 0; n < vxCount; n++) {
                 // Choose node if its distance is at least that of the current best candidate.
                 // and it is not already a pivot.
                 if (distance[n] >= pdist && !pivot[n]) {
                     pnode = n;
                     pdist = distance[n];
                 }
-
-                // Clear known flag for next round.
-                known[n] = false;
             }
 
             // Mark the chosen node as a pivot.
@@ -124,40 +130,47 @@ public class HighDimensionEmbeddingArranger implements Arranger {
             pivot[pnode] = true;
 
             // View the graph relative to this new pivot.
-            currx++;
-            positionFrom(m, xMatrix[currx]);
+            positionFrom(m, xMatrix[m]);
         }
 
         // Centre the coordinates by subtracting the mean.
-        currx = 0;
-        for (int a = 0; a < M; a++) {
+        IntStream.range(0, M).parallel().forEach(a -> {
             mean[a] /= vxCount;
-            for (int vpos = 0; vpos < vxCount; vpos++) {
-                final int v = wg.getVertex(vpos);
-
-                xMatrix[currx][v] -= mean[a];
+            final double[] coords = xMatrix[a];
+            for (int v = 0; v < vxCount; v++) {
+                coords[v] -= mean[a];
             }
-
-            currx++;
-        }
+        });
 
         // Compute the covariance matrix.
         // S = *X*X^T)/n.
+        // S is symmetric, so each entry of the upper triangle is computed once.
         final double[][] sMatrix = new double[M][M];
 
-        for (int r = 0; r < M; r++) {
-            for (int c = 0; c < M; c++) {
-                sMatrix[r][c] = 0;
-                for (int vpos = 0; vpos < vxCount; vpos++) {
-                    final int v = wg.getVertex(vpos);
+        IntStream.range(0, M * M).parallel()
+                .filter(rc -> rc / M <= rc % M)
+                .forEach(rc -> {
+                    final int r = rc / M;
+                    final int c = rc % M;
+                    if (caller.isInterrupted()) {
+                        return;
+                    }
 
-                    sMatrix[r][c] += xMatrix[r][v] * xMatrix[c][v];
-                }
+                    final double[] row = xMatrix[r];
+                    final double[] column = xMatrix[c];
+                    double sum = 0;
+                    for (int v = 0; v < vxCount; v++) {
+                        sum += row[v] * column[v];
+                    }
 
-                // Not necessary because multiplication by a constant does not change the eigenvectors?
-                // But we said we're computing the covariance matrix, so do it.
-                sMatrix[r][c] /= vxCount;
-            }
+                    // Not necessary because multiplication by a constant does not change the eigenvectors?
+                    // But we said we're computing the covariance matrix, so do it.
+                    sMatrix[r][c] = sum / vxCount;
+                    sMatrix[c][r] = sMatrix[r][c];
+                });
+
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
         }
 
         if (PART_ONLY) {
@@ -206,6 +219,7 @@ public class HighDimensionEmbeddingArranger implements Arranger {
                         norm += ui[m] * ui[m];
                     }
 
+                    norm = Math.sqrt(norm);
                     for (int m = 0; m < M; m++) {
                         ui[m] /= norm;
                     }
@@ -232,74 +246,92 @@ public class HighDimensionEmbeddingArranger implements Arranger {
                     uihat[r] /= norm;
                     dot += uihat[r] * ui[r];
                 }
-            } while ((dot < (1 - epsilon) && Math.abs(dot - prevDot) > epsilon) && --counter == 0);
+            } while ((dot < (1 - epsilon) && Math.abs(dot - prevDot) > epsilon) && --counter > 0);
 
             System.arraycopy(uihat, 0, uMatrix[u], 0, M);
         }
 
         // Now compute actual coordinates.
         // Initialise coordinates in case C<3.
-        final double[] pos = new double[3];
-        Arrays.fill(pos, 0);
-
-        final int xId = wg.getAttribute(GraphElementType.VERTEX, VisualConcept.VertexAttribute.X.getName());
-        final int yId = wg.getAttribute(GraphElementType.VERTEX, VisualConcept.VertexAttribute.Y.getName());
-        final int zId = wg.getAttribute(GraphElementType.VERTEX, VisualConcept.VertexAttribute.Z.getName());
+        final float[][] pos = new float[3][vxCount];
 
         // pos = X * U^T.
-        for (int npos = 0; npos < vxCount; npos++) {
-            final int n = wg.getVertex(npos);
+        IntStream.range(0, vxCount).parallel().forEach(n -> {
+            if (caller.isInterrupted()) {
+                return;
+            }
 
             for (int c = 0; c < dimensions; c++) {
-                pos[c] = 0;
+                double coord = 0;
                 for (int m = 0; m < M; m++) {
-                    pos[c] += xMatrix[m][n] * uMatrix[c][m];
+                    coord += xMatrix[m][n] * uMatrix[c][m];
                 }
+                pos[c][n] = SCALE * (float) coord;
             }
+        });
+
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
 
-            wg.setFloatValue(xId, n, SCALE * (float) pos[0]);
-            wg.setFloatValue(yId, n, SCALE * (float) pos[1]);
-            wg.setFloatValue(zId, n, SCALE * (float) pos[2]);
+        final int xId = wg.getAttribute(GraphElementType.VERTEX, VisualConcept.VertexAttribute.X.getName());
+        final int yId = wg.getAttribute(GraphElementType.VERTEX, VisualConcept.VertexAttribute.Y.getName());
+        final int zId = wg.getAttribute(GraphElementType.VERTEX, VisualConcept.VertexAttribute.Z.getName());
+
+        for (int n = 0; n < vxCount; n++) {
+            final int vxId = topology.getVertexId(n);
+            wg.setFloatValue(xId, vxId, pos[0][n]);
+            wg.setFloatValue(yId, vxId, pos[1][n]);
+            wg.setFloatValue(zId, vxId, pos[2][n]);
         }
     }
 
     /**
+     * Find the distance of every vertex from a pivot by breadth first search,
+     * lowering the distance of each vertex from its nearest pivot as it goes.
      *
-     * @param axis The index in the centres array of the vertex id to use as an
-     * axis.
-     * @param coord
+     * @param axis The index in the centres array of the vertex position to use
+     * as an axis.
+     * @param coord The distance of each vertex from the pivot, or -1 if it
+     * can't be reached.
+     * @throws InterruptedException If the calling thread is interrupted.
      */
-    private void positionFrom(final int axis, final double[] coord) {
+    private void positionFrom(final int axis, final double[] coord) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+
         Arrays.fill(coord, -1);
 
         int node = centres[axis];
         coord[node] = 0;
         distance[node] = 0;
-        mean[axis] = 0;
+        double sum = 0;
 
         // Queue for use in breadth-first traversal.
-        final int[] queue = new int[wg.getVertexCount()];
         int head = 0;
         int tail = 0;
         queue[head++] = node;
 
         while (head != tail) {
             node = queue[tail++];
-            final int neighbours = wg.getVertexNeighbourCount(node);
-            for (int npos = 0; npos < neighbours; npos++) {
-                final int neighbour = wg.getVertexNeighbour(node, npos);
+            final double next = coord[node] + 1;
+            for (int entry = offsets[node]; entry < offsets[node + 1]; entry++) {
+                final int neighbour = neighbours[entry];
 
                 if (coord[neighbour] < 0) {
-                    coord[neighbour] = coord[node] + 1;
-                    mean[axis] += coord[neighbour];
-                    if (distance[neighbour] > coord[neighbour]) {
-                        distance[neighbour] = (int) coord[neighbour];
+                    coord[neighbour] = next;
+                    sum += next;
+                    if (distance[neighbour] > next) {
+                        distance[neighbour] = (int) next;
                     }
 
                     queue[head++] = neighbour;
                 }
             }
         }
+
+        mean[axis] = sum;
     }
 
     @Override
@@ -22,7 +22,10 @@ import au.gov.asd.tac.constellation.plugins.PluginInteraction;
 import au.gov.asd.tac.constellation.plugins.PluginType;
 import au.gov.asd.tac.constellation.plugins.arrangements.Arranger;
 import au.gov.asd.tac.constellation.plugins.arrangements.SelectedInclusionGraph;
+import au.gov.asd.tac.constellation.plugins.parameters.PluginParameter;
 import au.gov.asd.tac.constellation.plugins.parameters.PluginParameters;
+import au.gov.asd.tac.constellation.plugins.parameters.types.FloatParameterType;
+import au.gov.asd.tac.constellation.plugins.parameters.types.FloatParameterType.FloatParameterValue;
 import au.gov.asd.tac.constellation.plugins.templates.PluginTags;
 import au.gov.asd.tac.constellation.plugins.templates.SimpleEditPlugin;
 import org.openide.util.NbBundle.Messages;
@@ -38,12 +41,28 @@ import org.openide.util.lookup.ServiceProvider;
 @PluginInfo(pluginType = PluginType.DISPLAY, tags = {PluginTags.MODIFY})
 public class ArrangeByProximityPlugin extends SimpleEditPlugin {
 
+    public static final String THETA_PARAMETER_ID = PluginParameter.buildId(ArrangeByProximityPlugin.class, "theta");
+
     @Override
     public void edit(final GraphWriteMethods wg, final PluginInteraction interaction, final PluginParameters parameters) throws InterruptedException {
-        final Arranger arranger = new FR2DArranger(interaction);
+        final Arranger arranger = new FR2DArranger(interaction, parameters.getFloatValue(THETA_PARAMETER_ID));
         final SelectedInclusionGraph selectedGraph = new SelectedInclusionGraph(wg, SelectedInclusionGraph.Connections.LINKS);
         arranger.setMaintainMean(!selectedGraph.isArrangingAll());
         arranger.arrange(selectedGraph.getInclusionGraph());
         selectedGraph.retrieveCoords();
     }
+
+    @Override
+    public PluginParameters createParameters() {
+        final PluginParameters parameters = new PluginParameters();
+
+        final PluginParameter<FloatParameterValue> thetaParam = FloatParameterType.build(THETA_PARAMETER_ID);
+        thetaParam.setName("Theta");
+        thetaParam.setDescription("The accuracy of the approximated repulsive forces: 0 calculates them exactly, larger values are faster but less accurate, the default is " + FR2DArranger.DEFAULT_THETA);
+        thetaParam.setFloatValue(FR2DArranger.DEFAULT_THETA);
+        FloatParameterType.setMinimum(thetaParam, 0);
+        parameters.addParameter(thetaParam);
+
+        return parameters;
+    }
 }
@@ -0,0 +1,278 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.plugins.arrangements.proximity;
+
+import java.util.Arrays;
+
+/**
+ * A Barnes-Hut tree used to approximate the repulsive forces of the
+ * Fruchterman-Reingold arrangers.
+ * <p>
+ * The tree is a quadtree in two dimensions and an octree in three dimensions.
+ * Every cell records the number of bodies it contains and their centre of
+ * mass, so that when a cell is far enough away from a body the whole cell can
+ * be treated as a single body. A cell is considered far enough away when the
+ * ratio of its width to its distance from the body is less than theta, so a
+ * theta of zero visits every body and gives the exact result.
+ * <p>
+ * All cells are stored in primitive arrays indexed by cell id, and the
+ * children of a cell occupy consecutive ids, so building the tree allocates
+ * nothing once the arrays have grown to fit. The tree is immutable between
+ * calls to {@link #build}, so forces can be calculated from many threads at
+ * once.
+ *
+ * @author sirius
+ */
+final class BarnesHutTree {
+
+    /**
+     * Bodies closer together than the smallest cell at this depth share a
+     * cell; this stops coincident bodies from subdividing forever.
+     */
+    private static final int MAX_DEPTH = 32;
+
+    private static final double EPSILON = 0.000001;
+
+    private final int dimensions;
+    private final int childCount;
+
+    private float[][] coordinates;
+
+    private double[] centres;
+    private double[] halfWidths;
+    private double[] massCentres;
+    private int[] masses;
+    private int[] firstChildren;
+    private int[] bodies;
+    private int cellCount;
+
+    /**
+     * Creates a new tree.
+     *
+     * @param dimensions the number of dimensions, either 2 or 3.
+     */
+    BarnesHutTree(final int dimensions) {
+        if (dimensions != 2 && dimensions != 3) {
+            throw new IllegalArgumentException("Barnes-Hut trees only support 2 or 3 dimensions: " + dimensions);
+        }
+        this.dimensions = dimensions;
+        this.childCount = 1 << dimensions;
+        allocate(childCount + 1);
+    }
+
+    private void allocate(final int capacity) {
+        centres = new double[capacity * dimensions];
+        halfWidths = new double[capacity];
+        massCentres = new double[capacity * dimensions];
+        masses = new int[capacity];
+        firstChildren = new int[capacity];
+        bodies = new int[capacity];
+    }
+
+    private void ensureCapacity(final int capacity) {
+        if (capacity > masses.length) {
+            final int newCapacity = Math.max(capacity, masses.length << 1);
+            centres = Arrays.copyOf(centres, newCapacity * dimensions);
+            halfWidths = Arrays.copyOf(halfWidths, newCapacity);
+            massCentres = Arrays.copyOf(massCentres, newCapacity * dimensions);
+            masses = Arrays.copyOf(masses, newCapacity);
+            firstChildren = Arrays.copyOf(firstChildren, newCapacity);
+            bodies = Arrays.copyOf(bodies, newCapacity);
+        }
+    }
+
+    /**
+     * Rebuilds the tree from the current body positions.
+     *
+     * @param coordinates the body positions, one array per dimension, each
+     * indexed by body id. The arrays are referenced rather than copied and
+     * must not be modified until the tree is no longer used.
+     * @param bodyIds the ids of the bodies to include in the tree.
+     * @param bodyCount the number of ids in bodyIds to use.
+     */
+    void build(final float[][] coordinates, final int[] bodyIds, final int bodyCount) {
+        this.coordinates = coordinates;
+
+        // Size the root cell to contain every body.
+        double halfWidth = 0;
+        for (int d = 0; d < dimensions; d++) {
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            final float[] values = coordinates[d];
+            for (int i = 0; i < bodyCount; i++) {
+                final float value = values[bodyIds[i]];
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+            centres[d] = bodyCount == 0 ? 0 : (min + max) / 2;
+            halfWidth = Math.max(halfWidth, (max - min) / 2);
+        }
+
+        cellCount = 1;
+        initialiseCell(0, Math.max(halfWidth, EPSILON) * (1 + EPSILON));
+
+        for (int i = 0; i < bodyCount; i++) {
+            insert(bodyIds[i]);
+        }
+
+        // Turn the accumulated positions into centres of mass.
+        for (int cell = 0; cell < cellCount; cell++) {
+            final int mass = masses[cell];
+            if (mass > 1) {
+                for (int d = 0; d < dimensions; d++) {
+                    massCentres[cell * dimensions + d] /= mass;
+                }
+            }
+        }
+    }
+
+    private void initialiseCell(final int cell, final double halfWidth) {
+        halfWidths[cell] = halfWidth;
+        masses[cell] = 0;
+        firstChildren[cell] = -1;
+        bodies[cell] = -1;
+        Arrays.fill(massCentres, cell * dimensions, (cell + 1) * dimensions, 0);
+    }
+
+    private void insert(final int body) {
+        int cell = 0;
+        int depth = 0;
+        while (true) {
+            masses[cell]++;
+            for (int d = 0; d < dimensions; d++) {
+                massCentres[cell * dimensions + d] += coordinates[d][body];
+            }
+
+            if (firstChildren[cell] >= 0) {
+                cell = getChild(cell, body);
+                depth++;
+                continue;
+            }
+
+            if (masses[cell] == 1) {
+                bodies[cell] = body;
+                return;
+            }
+
+            // This leaf already holds a body so split it, unless doing so
+            // would never separate the bodies.
+            final int existing = bodies[cell];
+            if (depth >= MAX_DEPTH || samePosition(existing, body)) {
+                return;
+            }
+
+            subdivide(cell);
+            final int existingChild = getChild(cell, existing);
+            final int existingMass = masses[cell] - 1;
+            masses[existingChild] = existingMass;
+            for (int d = 0; d < dimensions; d++) {
+                massCentres[existingChild * dimensions + d] = coordinates[d][existing] * (double) existingMass;
+            }
+            bodies[existingChild] = existing;
+            bodies[cell] = -1;
+
+            cell = getChild(cell, body);
+            depth++;
+        }
+    }
+
+    private boolean samePosition(final int body1, final int body2) {
+        for (int d = 0; d < dimensions; d++) {
+            if (coordinates[d][body1] != coordinates[d][body2]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void subdivide(final int cell) {
+        ensureCapacity(cellCount + childCount);
+        final int firstChild = cellCount;
+        cellCount += childCount;
+        firstChildren[cell] = firstChild;
+
+        final double childHalfWidth = halfWidths[cell] / 2;
+        for (int child = 0; child < childCount; child++) {
+            final int childCell = firstChild + child;
+            initialiseCell(childCell, childHalfWidth);
+            for (int d = 0; d < dimensions; d++) {
+                final double offset = (child & (1 << d)) == 0 ? -childHalfWidth : childHalfWidth;
+                centres[childCell * dimensions + d] = centres[cell * dimensions + d] + offset;
+            }
+        }
+    }
+
+    private int getChild(final int cell, final int body) {
+        int child = 0;
+        for (int d = 0; d < dimensions; d++) {
+            if (coordinates[d][body] >= centres[cell * dimensions + d]) {
+                child |= 1 << d;
+            }
+        }
+        return firstChildren[cell] + child;
+    }
+
+    /**
+     * Calculates the Fruchterman-Reingold repulsive force acting on a body,
+     * where each other body contributes a force of k<sup>2</sup>/distance
+     * directed away from it.
+     *
+     * @param body the body to calculate the force on; this must be in the
+     * tree.
+     * @param k2 the square of the repulsion constant.
+     * @param theta the accuracy parameter; zero gives the exact force and
+     * larger values are faster but less accurate.
+     * @param force an array of length dimensions that the force is added to.
+     */
+    void repulse(final int body, final double k2, final double theta, final double[] force) {
+        repulse(0, body, k2, theta * theta, force);
+    }
+
+    private void repulse(final int cell, final int body, final double k2, final double theta2, final double[] force) {
+        final int mass = masses[cell];
+        if (mass == 0) {
+            return;
+        }
+
+        final int firstChild = firstChildren[cell];
+        if (firstChild < 0 && bodies[cell] == body) {
+            // Any other bodies in this leaf are at the same position, so they
+            // exert no force in any particular direction.
+            return;
+        }
+
+        double distance2 = 0;
+        for (int d = 0; d < dimensions; d++) {
+            final double delta = coordinates[d][body] - massCentres[cell * dimensions + d];
+            distance2 += delta * delta;
+        }
+
+        final double width = halfWidths[cell] * 2;
+        if (firstChild < 0 || width * width < theta2 * distance2) {
+            // Treat the cell as a single body at its centre of mass.
+            // The force is (k2 / distance) in the direction of the unit vector (delta / distance).
+            final double distance = Math.max(EPSILON, Math.sqrt(distance2));
+            final double scale = mass * k2 / (distance * distance);
+            for (int d = 0; d < dimensions; d++) {
+                force[d] += (coordinates[d][body] - massCentres[cell * dimensions + d]) * scale;
+            }
+        } else {
+            for (int child = firstChild; child < firstChild + childCount; child++) {
+                repulse(child, body, k2, theta2, force);
+            }
+        }
+    }
+}
@@ -23,18 +23,22 @@ import au.gov.asd.tac.constellation.graph.schema.visual.concept.VisualConcept;
 import au.gov.asd.tac.constellation.plugins.PluginInteraction;
 import au.gov.asd.tac.constellation.plugins.arrangements.Arranger;
 import au.gov.asd.tac.constellation.plugins.arrangements.utilities.ArrangementUtilities;
-import java.awt.geom.Point2D;
 import java.security.SecureRandom;
-import java.util.ArrayList;
+import java.util.stream.IntStream;
 
 /**
  * main module to arrange a graph using the FR2D algorithm
+ * <p>
+ * Repulsion between every pair of vertices is approximated using a
+ * {@link BarnesHutTree}, with accuracy controlled by theta. A theta of zero
+ * calculates every pairwise force exactly.
  *
  * @author algol
  */
 class FR2DArranger implements Arranger {
 
     public static final int MAX_ITERATIONS = 10;
+    public static final float DEFAULT_THETA = 0.8F;
     private static final int BORDER = 1;
 
     private double temperature;
@@ -46,8 +50,12 @@ class FR2DArranger implements Arranger {
 
     private GraphWriteMethods graph;
     private int vxCount;
-    private ArrayList<Point2D.Float> points;
-    private ArrayList<Point2D.Float> offsets;
+    // Positions and offsets are indexed by dimension and then by vertex id.
+    private float[][] points;
+    private float[][] offsets;
+    private int[] vertices;
+    private final float theta;
+    private final BarnesHutTree tree = new BarnesHutTree(2);
     private boolean maintainMean;
 
     private final PluginInteraction interaction;
@@ -61,7 +69,21 @@ class FR2DArranger implements Arranger {
      * when the layout is finished.
      */
     public FR2DArranger(final PluginInteraction interaction) {
+        this(interaction, DEFAULT_THETA);
+    }
+
+    /**
+     *
+     * @param interaction The interaction used to report progress.
+     * @param theta The Barnes-Hut accuracy parameter. Zero calculates the
+     * repulsive forces exactly; larger values are faster but less accurate.
+     */
+    public FR2DArranger(final PluginInteraction interaction, final float theta) {
+        if (theta < 0) {
+            throw new IllegalArgumentException("theta must not be negative: " + theta);
+        }
         this.interaction = interaction;
+        this.theta = theta;
     }
 
     @Override
@@ -90,26 +112,20 @@ class FR2DArranger implements Arranger {
         attractionConstant = ATTRACTION_MULTIPLIER * forceConstant;
         repulsionConstant = REPULSION_MULTIPLIER * forceConstant;
 
-        // Create an array of points to match the array of nodes.
-        // This means we have to allow for gaps in the array where nodes have been removed.
-        // Pre-fill the ArrayLists so we can treat them like arrays.
+        // Create arrays of points to match the array of nodes.
+        // This means we have to allow for gaps in the arrays where nodes have been removed.
         final int capacity = graph.getVertexCapacity();
-        points = new ArrayList<>(capacity);
-        offsets = new ArrayList<>(capacity);
-        for (int i = 0; i < capacity; i++) {
-            points.add(null);
-            offsets.add(null);
-        }
+        points = new float[2][capacity];
+        offsets = new float[2][capacity];
+        vertices = new int[vxCount];
 
         for (int position = 0; position < vxCount; position++) {
             final int vxId = graph.getVertex(position);
+            vertices[position] = vxId;
 
             // Start each point at a random position.
-            final Point2D.Float p = new Point2D.Float(
-                    BORDER + (float) r.nextInt(width - BORDER * 2),
-                    BORDER + (float) r.nextInt(height - BORDER * 2));
-            points.set(vxId, p);
-            offsets.set(vxId, new Point2D.Float(0, 0));
+            points[0][vxId] = BORDER + (float) r.nextInt(width - BORDER * 2);
+            points[1][vxId] = BORDER + (float) r.nextInt(height - BORDER * 2);
         }
     }
 
@@ -117,25 +133,25 @@ class FR2DArranger implements Arranger {
         for (int i = 0; i < MAX_ITERATIONS; i++) {
             interaction.setProgress(i + 1, MAX_ITERATIONS, "Arranging...", true);
 
-            for (int position = 0; position < vxCount; position++) {
-                final int vxId = graph.getVertex(position);
-
-                repulse(vxId);
+            if (theta > 0) {
+                tree.build(points, vertices, vxCount);
             }
 
-            for (int position = 0; position < graph.getLinkCount(); position++) {
-                final int linkId = graph.getLink(position);
-                final int vxlId = graph.getLinkLowVertex(linkId);
-                final int vxhId = graph.getLinkHighVertex(linkId);
-                attract(vxlId, vxhId);
+            IntStream.range(0, vxCount).parallel().forEach(position -> repulse(vertices[position]));
+
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
             }
 
-            for (int position = 0; position < vxCount; position++) {
-                final int vxId = graph.getVertex(position);
+            // Each vertex only updates its own offset, so there is no contention between threads.
+            IntStream.range(0, vxCount).parallel().forEach(position -> attract(vertices[position]));
 
-                position(vxId);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
             }
 
+            IntStream.range(0, vxCount).parallel().forEach(position -> position(vertices[position]));
+
             cool(i);
         }
     }
@@ -159,14 +175,13 @@ class FR2DArranger implements Arranger {
 
         for (int position = 0; position < vxCount; position++) {
             final int vxId = graph.getVertex(position);
-            final Point2D.Float point = points.get(vxId);
 
             graph.setFloatValue(x2Attr, vxId, graph.getFloatValue(xAttr, vxId));
             graph.setFloatValue(y2Attr, vxId, graph.getFloatValue(yAttr, vxId));
             graph.setFloatValue(z2Attr, vxId, graph.getFloatValue(zAttr, vxId));
 
-            graph.setFloatValue(xAttr, vxId, point.x);
-            graph.setFloatValue(yAttr, vxId, point.y);
+            graph.setFloatValue(xAttr, vxId, points[0][vxId]);
+            graph.setFloatValue(yAttr, vxId, points[1][vxId]);
             graph.setFloatValue(zAttr, vxId, 0);
         }
     }
@@ -177,64 +192,81 @@ class FR2DArranger implements Arranger {
      * @param vxOrigin The vertex to repulse from.
      */
     private void repulse(final int vxOrigin) {
-        final Point2D.Float p1 = points.get(vxOrigin);
-        final Point2D.Float offset = new Point2D.Float(0, 0);
+        final double k2 = repulsionConstant * repulsionConstant;
+        final double[] offset = new double[2];
+
+        if (theta > 0) {
+            tree.repulse(vxOrigin, k2, theta, offset);
+        } else {
+            final float x1 = points[0][vxOrigin];
+            final float y1 = points[1][vxOrigin];
+            for (int position = 0; position < vxCount; position++) {
+                final int vxId = vertices[position];
 
-        for (int position = 0; position < vxCount; position++) {
-            final int vxId = graph.getVertex(position);
+                if (vxId != vxOrigin) {
+                    final double xDelta = x1 - points[0][vxId];
+                    final double yDelta = y1 - points[1][vxId];
+                    final double lenDelta = Math.max(EPSILON, Math.sqrt(xDelta * xDelta + yDelta * yDelta));
+                    final double force = k2 / lenDelta;
 
-            if (vxId != vxOrigin) {
-                final Point2D p2 = points.get(vxId);
-                final double xDelta = p1.getX() - p2.getX();
-                final double yDelta = p1.getY() - p2.getY();
-                final double lenDelta = Math.max(EPSILON, Math.sqrt(xDelta * xDelta + yDelta * yDelta));
-                final double force = (repulsionConstant * repulsionConstant) / lenDelta;
-                if (Double.isNaN(force)) {
-                    throw new IllegalArgumentException("Bad value: isNaN(force)");
+                    offset[0] += (xDelta / lenDelta) * force;
+                    offset[1] += (yDelta / lenDelta) * force;
                 }
-
-                offset.setLocation(
-                        offset.getX() + (xDelta / lenDelta) * force,
-                        offset.getY() + (yDelta / lenDelta) * force);
             }
         }
 
-        offsets.set(vxOrigin, offset);
+        if (Double.isNaN(offset[0]) || Double.isNaN(offset[1])) {
+            throw new IllegalArgumentException("Bad value: isNaN(force)");
+        }
+
+        offsets[0][vxOrigin] = (float) offset[0];
+        offsets[1][vxOrigin] = (float) offset[1];
     }
 
     /**
-     * Attract nodes along their edges.
+     * Attract a node towards its neighbours along its links.
      *
-     * @param txId
+     * @param vxId The vertex to attract.
      */
-    private void attract(final int vx0Id, final int vx1Id) {
-        final Point2D point1 = points.get(vx0Id);
-        final Point2D point2 = points.get(vx1Id);
-        final double xDelta = point1.getX() - point2.getX();
-        final double yDelta = point1.getY() - point2.getY();
-        final double lenDelta = Math.max(EPSILON, Math.sqrt(xDelta * xDelta + yDelta * yDelta));
-        final double force = (lenDelta * lenDelta) / attractionConstant;
-        if (Double.isNaN(force)) {
-            throw new IllegalArgumentException(String.format("Bad value: force %f %f isNan(force)", lenDelta, attractionConstant));
+    private void attract(final int vxId) {
+        final float x1 = points[0][vxId];
+        final float y1 = points[1][vxId];
+        double dx = 0;
+        double dy = 0;
+
+        final int linkCount = graph.getVertexLinkCount(vxId);
+        for (int i = 0; i < linkCount; i++) {
+            final int linkId = graph.getVertexLink(vxId, i);
+            final int vxlId = graph.getLinkLowVertex(linkId);
+            final int otherId = vxlId == vxId ? graph.getLinkHighVertex(linkId) : vxlId;
+            if (otherId == vxId) {
+                continue;
+            }
+
+            final double xDelta = x1 - points[0][otherId];
+            final double yDelta = y1 - points[1][otherId];
+            final double lenDelta = Math.max(EPSILON, Math.sqrt(xDelta * xDelta + yDelta * yDelta));
+            final double force = (lenDelta * lenDelta) / attractionConstant;
+            if (Double.isNaN(force)) {
+                throw new IllegalArgumentException(String.format("Bad value: force %f %f isNan(force)", lenDelta, attractionConstant));
+            }
+
+            dx += (xDelta / lenDelta) * force;
+            dy += (yDelta / lenDelta) * force;
         }
 
-        final double dx = (xDelta / lenDelta) * force;
-        final double dy = (yDelta / lenDelta) * force;
-        final Point2D.Float offset1 = offsets.get(vx0Id);
-        final Point2D.Float offset2 = offsets.get(vx1Id);
-        offset1.setLocation(offset1.getX() - dx, offset1.getY() - dy);
-        offset2.setLocation(offset2.getX() + dx, offset2.getY() + dy);
+        offsets[0][vxId] -= dx;
+        offsets[1][vxId] -= dy;
     }
 
     private void position(final int vxId) {
-        final Point2D.Float p = offsets.get(vxId);
-        final Point2D.Float xyDelta = points.get(vxId);
-        final double lenDelta = Math.max(EPSILON, Math.sqrt(p.getX() * p.getX() + p.getY() * p.getY()));
-        final double xDelta = p.getX() / lenDelta * Math.min(lenDelta, temperature);
-        final double yDelta = p.getY() / lenDelta * Math.min(lenDelta, temperature);
-        final double newX = xyDelta.getX() + xDelta;
-        final double newY = xyDelta.getY() + yDelta;
-        xyDelta.setLocation(newX, newY);
+        final double px = offsets[0][vxId];
+        final double py = offsets[1][vxId];
+        final double lenDelta = Math.max(EPSILON, Math.sqrt(px * px + py * py));
+        final double xDelta = px / lenDelta * Math.min(lenDelta, temperature);
+        final double yDelta = py / lenDelta * Math.min(lenDelta, temperature);
+        points[0][vxId] += xDelta;
+        points[1][vxId] += yDelta;
     }
 
     private void cool(final int i) {
@@ -23,9 +23,8 @@ import au.gov.asd.tac.constellation.graph.schema.visual.concept.VisualConcept;
 import au.gov.asd.tac.constellation.plugins.PluginInteraction;
 import au.gov.asd.tac.constellation.plugins.arrangements.Arranger;
 import au.gov.asd.tac.constellation.plugins.arrangements.utilities.ArrangementUtilities;
-import au.gov.asd.tac.constellation.plugins.arrangements.utilities.Point3D;
 import java.security.SecureRandom;
-import java.util.ArrayList;
+import java.util.stream.IntStream;
 
 /**
  * Implements a 3D version of the Fruchterman-Reingold force-directed algorithm
@@ -43,6 +42,11 @@ import java.util.ArrayList;
  * Each of the first two defaults to 0.75; the maximum number of iterations
  * defaults to 700.
  * <p>
+ * Repulsion between every pair of vertices is approximated using a
+ * {@link BarnesHutTree} so that each iteration takes O(n log n) time rather
+ * than O(n<sup>2</sup>). The accuracy of the approximation is controlled by
+ * theta; a theta of zero calculates every pairwise force exactly.
+ * <p>
  *
  * "Fruchterman and Reingold, 'Graph Drawing by Force-directed Placement'"
  * "http://i11www.ilkd.uni-karlsruhe.de/teaching/SS_04/visualisierung/papers/fruchterman91graph.pdf"
@@ -61,6 +65,11 @@ public class FR3DArranger implements Arranger {
 
     private static final String ARRANGING_INTERACTION = "Arranging...";
 
+    /**
+     * The default Barnes-Hut accuracy parameter.
+     */
+    public static final float DEFAULT_THETA = 0.8F;
+
     private static final int MAX_PSEUDO_SIZE = 100;
     public static final int MAX_ITERATIONS = 10;
     private static final int BORDER = 1;
@@ -70,8 +79,14 @@ public class FR3DArranger implements Arranger {
     private double attractionConstant;
     private double repulsionConstant;
     private static final double EPSILON = 0.000001;
-    private ArrayList<Point3D.Float> points;
-    private ArrayList<Point3D.Float> offsets;
+
+    // Positions and offsets are indexed by dimension and then by vertex id.
+    private float[][] points;
+    private float[][] offsets;
+    private int[] vertices;
+    private int vxCount;
+    private final float theta;
+    private final BarnesHutTree tree = new BarnesHutTree(3);
     private volatile boolean stopWork;
 
     private final PluginInteraction interaction;
@@ -88,8 +103,25 @@ public class FR3DArranger implements Arranger {
      * use.
      */
     public FR3DArranger(final PluginInteraction interaction) {
+        this(interaction, DEFAULT_THETA);
+    }
+
+    /**
+     * Creates a new arranger using the specified {@link PluginInteraction}
+     * and Barnes-Hut accuracy parameter.
+     *
+     * @param interaction The {@link PluginInteraction} that this arranger will
+     * use.
+     * @param theta The Barnes-Hut accuracy parameter. Zero calculates the
+     * repulsive forces exactly; larger values are faster but less accurate.
+     */
+    public FR3DArranger(final PluginInteraction interaction, final float theta) {
+        if (theta < 0) {
+            throw new IllegalArgumentException("theta must not be negative: " + theta);
+        }
         stopWork = false;
         this.interaction = interaction;
+        this.theta = theta;
     }
 
     @Override
@@ -139,53 +171,52 @@ public class FR3DArranger implements Arranger {
     }
 
     private void initialise(final int width, final int height, final int depth) {
-        final double forceConstant = Math.pow(height * width * depth / (double) wg.getVertexCount(), 1.0 / 3.0);
+        vxCount = wg.getVertexCount();
+        final double forceConstant = Math.pow(height * width * depth / (double) vxCount, 1.0 / 3.0);
         temperature = width / 10.0;
         attractionConstant = ATTRACTION_MULTIPLIER * forceConstant;
         repulsionConstant = REPULSION_MULTIPLIER * forceConstant;
 
-        // Create an array of points to match the array of nodes.
-        // This means we have to allow for gaps in the array where nodes have been removed.
-        // Pre-fill the ArrayLists so we can treat them like arrays.
+        // Create arrays of points to match the array of nodes.
+        // This means we have to allow for gaps in the arrays where nodes have been removed.
         final int capacity = wg.getVertexCapacity();
-        points = new ArrayList<>(capacity);
-        offsets = new ArrayList<>(capacity);
-        for (int i = 0; i < capacity; i++) {
-            points.add(null);
-            offsets.add(null);
-        }
+        points = new float[3][capacity];
+        offsets = new float[3][capacity];
+        vertices = new int[vxCount];
+
+        for (int position = 0; position < vxCount; position++) {
+            final int node = wg.getVertex(position);
+            vertices[position] = node;
 
-        wg.vertexStream().parallel().forEach(node -> {
             // Start each point at a random position.
-            final Point3D.Float p = new Point3D.Float(
-                    BORDER + r.nextInt(width - BORDER * 2),
-                    BORDER + r.nextInt(height - BORDER * 2),
-                    BORDER + r.nextInt(depth - BORDER * 2));
-            points.set(node, p);
-            offsets.set(node, new Point3D.Float(0.0F, 0.0F, 0.0F));
-        });
+            points[0][node] = BORDER + (float) r.nextInt(width - BORDER * 2);
+            points[1][node] = BORDER + (float) r.nextInt(height - BORDER * 2);
+            points[2][node] = BORDER + (float) r.nextInt(depth - BORDER * 2);
+        }
     }
 
     public void layout() throws InterruptedException {
         for (int i = 0; i < MAX_ITERATIONS; i++) {
             interaction.setProgress(i + 1, MAX_ITERATIONS, ARRANGING_INTERACTION, true);
 
-            wg.vertexStream().parallel().forEach(vertexId -> repulse(vertexId)
-            );
+            if (theta > 0) {
+                tree.build(points, vertices, vxCount);
+            }
+
+            IntStream.range(0, vxCount).parallel().forEach(position -> repulse(vertices[position]));
 
             if (Thread.interrupted()) {
                 throw new InterruptedException();
             }
 
-            wg.linkStream().parallel().forEach(txId -> attract(txId)
-            );
+            // Each vertex only updates its own offset, so there is no contention between threads.
+            IntStream.range(0, vxCount).parallel().forEach(position -> attract(vertices[position]));
 
             if (Thread.interrupted()) {
                 throw new InterruptedException();
             }
 
-            wg.vertexStream().parallel().forEach(vertexId -> position(vertexId)
-            );
+            IntStream.range(0, vxCount).parallel().forEach(position -> position(vertices[position]));
 
             cool(i);
         }
@@ -210,15 +241,14 @@ public class FR3DArranger implements Arranger {
 
         for (int position = 0; position < wg.getVertexCount(); position++) {
             final int nodeId = wg.getVertex(position);
-            final Point3D.Float point = points.get(nodeId);
 
             wg.setFloatValue(x2Attr, nodeId, wg.getFloatValue(xAttr, nodeId));
             wg.setFloatValue(y2Attr, nodeId, wg.getFloatValue(yAttr, nodeId));
             wg.setFloatValue(z2Attr, nodeId, wg.getFloatValue(zAttr, nodeId));
 
-            wg.setFloatValue(xAttr, nodeId, point.getFloatX());
-            wg.setFloatValue(yAttr, nodeId, point.getFloatY());
-            wg.setFloatValue(zAttr, nodeId, point.getFloatZ());
+            wg.setFloatValue(xAttr, nodeId, points[0][nodeId]);
+            wg.setFloatValue(yAttr, nodeId, points[1][nodeId]);
+            wg.setFloatValue(zAttr, nodeId, points[2][nodeId]);
         }
     }
 
@@ -228,74 +258,92 @@ public class FR3DArranger implements Arranger {
      * @param nodeOrigin The node that other nodes will be repulsed from.
      */
     private void repulse(final int nodeOrigin) {
-        final Point3D.Float p1 = points.get(nodeOrigin);
-        final Point3D.Float offset = new Point3D.Float(0, 0, 0);
-
-        for (int position = 0; position < wg.getVertexCount(); position++) {
-            final int node = wg.getVertex(position);
-            if (node != nodeOrigin) {
-                final Point3D p2 = points.get(node);
-                final double xDelta = p1.getX() - p2.getX();
-                final double yDelta = p1.getY() - p2.getY();
-                final double zDelta = p1.getZ() - p2.getZ();
-                final double lenDelta = Math.max(EPSILON, Math.sqrt(xDelta * xDelta + yDelta * yDelta + zDelta * zDelta));
-                final double force = (repulsionConstant * repulsionConstant) / lenDelta;
-                if (Double.isNaN(force)) {
-                    throw new IllegalArgumentException("Bad value: isNaN(force)");
+        final double k2 = repulsionConstant * repulsionConstant;
+        final double[] offset = new double[3];
+
+        if (theta > 0) {
+            tree.repulse(nodeOrigin, k2, theta, offset);
+        } else {
+            final float x1 = points[0][nodeOrigin];
+            final float y1 = points[1][nodeOrigin];
+            final float z1 = points[2][nodeOrigin];
+            for (int position = 0; position < vxCount; position++) {
+                final int node = vertices[position];
+                if (node != nodeOrigin) {
+                    final double xDelta = x1 - points[0][node];
+                    final double yDelta = y1 - points[1][node];
+                    final double zDelta = z1 - points[2][node];
+                    final double lenDelta = Math.max(EPSILON, Math.sqrt(xDelta * xDelta + yDelta * yDelta + zDelta * zDelta));
+                    final double force = k2 / lenDelta;
+
+                    offset[0] += (xDelta / lenDelta) * force;
+                    offset[1] += (yDelta / lenDelta) * force;
+                    offset[2] += (zDelta / lenDelta) * force;
                 }
-
-                offset.setLocation(
-                        offset.getX() + (xDelta / lenDelta) * force,
-                        offset.getY() + (yDelta / lenDelta) * force,
-                        offset.getZ() + (zDelta / lenDelta) * force);
             }
         }
 
-        offsets.set(nodeOrigin, offset);
+        if (Double.isNaN(offset[0]) || Double.isNaN(offset[1]) || Double.isNaN(offset[2])) {
+            throw new IllegalArgumentException("Bad value: isNaN(force)");
+        }
+
+        offsets[0][nodeOrigin] = (float) offset[0];
+        offsets[1][nodeOrigin] = (float) offset[1];
+        offsets[2][nodeOrigin] = (float) offset[2];
     }
 
     /**
-     * Attract nodes along their edges.
+     * Attract a node towards its neighbours along its links.
      *
-     * @param edge
+     * @param node The node to attract.
      */
-    private void attract(final int edge) {
-        final int[] endNodes = new int[]{
-            wg.getLinkLowVertex(edge), wg.getLinkHighVertex(edge)
-        };
-        final int node1 = endNodes[0];
-        final int node2 = endNodes[1];
-        final Point3D point1 = points.get(node1);
-        final Point3D point2 = points.get(node2);
-        final double xDelta = point1.getX() - point2.getX();
-        final double yDelta = point1.getY() - point2.getY();
-        final double zDelta = point1.getZ() - point2.getZ();
-        final double lenDelta = Math.max(EPSILON, Math.sqrt(xDelta * xDelta + yDelta * yDelta + zDelta * zDelta));
-        final double force = (lenDelta * lenDelta) / attractionConstant;
-        if (Double.isNaN(force)) {
-            throw new IllegalArgumentException(String.format("Bad value: force %f %f isNan(force)", lenDelta, attractionConstant));
+    private void attract(final int node) {
+        final float x1 = points[0][node];
+        final float y1 = points[1][node];
+        final float z1 = points[2][node];
+        double dx = 0;
+        double dy = 0;
+        double dz = 0;
+
+        final int linkCount = wg.getVertexLinkCount(node);
+        for (int i = 0; i < linkCount; i++) {
+            final int link = wg.getVertexLink(node, i);
+            final int lowNode = wg.getLinkLowVertex(link);
+            final int otherNode = lowNode == node ? wg.getLinkHighVertex(link) : lowNode;
+            if (otherNode == node) {
+                continue;
+            }
+
+            final double xDelta = x1 - points[0][otherNode];
+            final double yDelta = y1 - points[1][otherNode];
+            final double zDelta = z1 - points[2][otherNode];
+            final double lenDelta = Math.max(EPSILON, Math.sqrt(xDelta * xDelta + yDelta * yDelta + zDelta * zDelta));
+            final double force = (lenDelta * lenDelta) / attractionConstant;
+            if (Double.isNaN(force)) {
+                throw new IllegalArgumentException(String.format("Bad value: force %f %f isNan(force)", lenDelta, attractionConstant));
+            }
+
+            dx += (xDelta / lenDelta) * force;
+            dy += (yDelta / lenDelta) * force;
+            dz += (zDelta / lenDelta) * force;
         }
 
-        final double dx = (xDelta / lenDelta) * force;
-        final double dy = (yDelta / lenDelta) * force;
-        final double dz = (zDelta / lenDelta) * force;
-        final Point3D.Float offset1 = offsets.get(node1);
-        final Point3D.Float offset2 = offsets.get(node2);
-        offset1.setLocation(offset1.getX() - dx, offset1.getY() - dy, offset1.getZ() - dz);
-        offset2.setLocation(offset2.getX() + dx, offset2.getY() + dy, offset2.getZ() + dz);
+        offsets[0][node] -= dx;
+        offsets[1][node] -= dy;
+        offsets[2][node] -= dz;
     }
 
     private void position(final int node) {
-        final Point3D.Float p = offsets.get(node);
-        final Point3D.Float xyzDelta = points.get(node);
-        final double lenDelta = Math.max(EPSILON, Math.sqrt(p.getX() * p.getX() + p.getY() * p.getY() + p.getZ() * p.getZ()));
-        final double xDelta = p.getX() / lenDelta * Math.min(lenDelta, temperature);
-        final double yDelta = p.getY() / lenDelta * Math.min(lenDelta, temperature);
-        final double zDelta = p.getZ() / lenDelta * Math.min(lenDelta, temperature);
-        final double newX = xyzDelta.getX() + xDelta;
-        final double newY = xyzDelta.getY() + yDelta;
-        final double newZ = xyzDelta.getZ() + zDelta;
-        xyzDelta.setLocation(newX, newY, newZ);
+        final double px = offsets[0][node];
+        final double py = offsets[1][node];
+        final double pz = offsets[2][node];
+        final double lenDelta = Math.max(EPSILON, Math.sqrt(px * px + py * py + pz * pz));
+        final double xDelta = px / lenDelta * Math.min(lenDelta, temperature);
+        final double yDelta = py / lenDelta * Math.min(lenDelta, temperature);
+        final double zDelta = pz / lenDelta * Math.min(lenDelta, temperature);
+        points[0][node] += xDelta;
+        points[1][node] += yDelta;
+        points[2][node] += zDelta;
     }
 
     private void cool(final int i) {
@@ -16,21 +16,36 @@
 package au.gov.asd.tac.constellation.plugins.arrangements.spectral;
 
 import au.gov.asd.tac.constellation.graph.GraphReadMethods;
-import java.util.Collection;
+import au.gov.asd.tac.constellation.plugins.PluginInteraction;
+import au.gov.asd.tac.constellation.plugins.PluginNotificationLevel;
+import au.gov.asd.tac.constellation.plugins.arrangements.spectral.LanczosEigenSolver.SymmetricOperator;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
-import org.apache.commons.math3.linear.EigenDecomposition;
-import org.apache.commons.math3.linear.MatrixUtils;
+import java.util.logging.Logger;
 
 /**
+ * Embeds a set of vertices in the plane using the eigenvectors of the graph
+ * Laplacian with the smallest non-zero eigenvalues.
+ * <p>
+ * The Laplacian is stored in compressed sparse row form and the eigenvectors
+ * are found iteratively by {@link LanczosEigenSolver}, so the memory required
+ * is proportional to the number of vertices and links rather than the square
+ * of the number of vertices.
  *
  * @author twilight_sparkle
  */
 public class GraphSpectrumEmbedder {
 
-    public static Map<Integer, double[]> spectralEmbedding(final GraphReadMethods rg, final Set<Integer> includedVertices) {
+    private static final Logger LOGGER = Logger.getLogger(GraphSpectrumEmbedder.class.getName());
+
+    private static final int EMBEDDING_DIMENSIONS = 2;
+
+    // The typical distance between neighbouring vertices in the embedding.
+    private static final double SPACING = 2;
+
+    public static Map<Integer, double[]> spectralEmbedding(final GraphReadMethods rg, final Set<Integer> includedVertices, final PluginInteraction interaction) throws InterruptedException {
 
         final Map<Integer, double[]> vertexPositions = new HashMap<>();
 
@@ -39,116 +54,109 @@ public class GraphSpectrumEmbedder {
             return vertexPositions;
         }
 
-        final GraphMatrix l = GraphMatrix.adjacencyFromGraph(rg, includedVertices, new HashSet<>());
-
-        final EigenDecomposition e = new EigenDecomposition(MatrixUtils.createRealMatrix(l.laplacianMatrix));
-        final int numVectors = e.getRealEigenvalues().length;
+        final LaplacianMatrix l = LaplacianMatrix.fromGraph(rg, includedVertices);
+
+        // The constant vector is always an eigenvector of a Laplacian with eigenvalue zero,
+        // and places every vertex in the same position, so leave it out of the embedding.
+        final LanczosEigenSolver solver = new LanczosEigenSolver(l);
+        final double[] constant = new double[l.dimension];
+        Arrays.fill(constant, 1);
+        solver.deflate(constant);
+        if (!solver.solve(EMBEDDING_DIMENSIONS, interaction)) {
+            // The best approximation found is still a reasonable layout, but the user should know it is not exact.
+            final String message = String.format("The spectral embedding of %d vertices did not converge; the arrangement is approximate.", l.dimension);
+            LOGGER.warning(message);
+            if (interaction != null) {
+                interaction.notify(PluginNotificationLevel.WARNING, message);
+            }
+        }
+        final double[][] eigenvectors = solver.getEigenvectors();
 
+        // The eigenvectors are unit length, so their entries are of the order of 1/sqrt(n).
+        // Scale them so that the embedding covers an area proportional to the number of vertices.
+        final double scale = SPACING * l.dimension;
         for (int i = 0; i < l.dimension; i++) {
-            double xPos = 0;
-            double yPos = 0;
-            double norm = 0;
-            for (int j = 0; j < numVectors - 1; j++) {
-                xPos += e.getRealEigenvalue(j) * e.getEigenvector(j).getEntry(i);
-                yPos += e.getRealEigenvalue(j) * e.getEigenvector(j).getEntry(i) * (j % 2 == 0 ? -1 : 1);
-                norm += Math.abs(e.getRealEigenvalue(j)) * (Math.pow(e.getEigenvector(j).getEntry(i), 2));
-            }
-            norm = Math.sqrt(norm);
-            vertexPositions.put(l.matrixPositionToID.get(i), new double[]{norm * xPos, norm * yPos});
+            final double xPos = eigenvectors.length > 0 ? eigenvectors[0][i] * scale : 0;
+            final double yPos = eigenvectors.length > 1 ? eigenvectors[1][i] * scale : 0;
+            vertexPositions.put(l.matrixPositionToID[i], new double[]{xPos, yPos});
         }
 
         return vertexPositions;
 
     }
 
-    private enum MatrixType {
-
-        ADJACENCY_MATRIX,
-        LAPLACIAN_MATRIX,;
-    }
-
-    private static class GraphMatrix {
+    /**
+     * The Laplacian of the subgraph induced by a set of vertices, stored in
+     * compressed sparse row form.
+     */
+    private static class LaplacianMatrix implements SymmetricOperator {
 
-        private final Map<Integer, Integer> matrixPositionToID;
-        private final double[][] laplacianMatrix;
+        private final int[] matrixPositionToID;
+        private final int[] rowStarts;
+        private final int[] columns;
         private final int dimension;
 
-        private GraphMatrix(final double[][] laplacianMatrix, final Map<Integer, Integer> matrixPositionToID) {
-            this.laplacianMatrix = laplacianMatrix;
+        private LaplacianMatrix(final int[] matrixPositionToID, final int[] rowStarts, final int[] columns) {
             this.matrixPositionToID = matrixPositionToID;
-            this.dimension = laplacianMatrix.length;
-        }
-
-        public static GraphMatrix adjacencyFromGraph(final GraphReadMethods rg, final Set<Integer> includedVertices, final Set<Integer> excludedLinks) {
-            return matrixFromGraph(rg, includedVertices, excludedLinks, MatrixType.ADJACENCY_MATRIX);
+            this.rowStarts = rowStarts;
+            this.columns = columns;
+            this.dimension = matrixPositionToID.length;
         }
 
-        public static GraphMatrix laplacianFromGraph(final GraphReadMethods rg, final Set<Integer> includedVertices, final Set<Integer> excludedLinks) {
-            return matrixFromGraph(rg, includedVertices, excludedLinks, MatrixType.LAPLACIAN_MATRIX);
-        }
-
-        public static GraphMatrix matrixFromGraph(final GraphReadMethods rg, final Collection<Integer> includedVertices, final Collection<Integer> excludedLinks, final MatrixType type) {
+        public static LaplacianMatrix fromGraph(final GraphReadMethods rg, final Set<Integer> includedVertices) {
 
             final int numVertices = includedVertices.size();
-            final double[][] matrixEntries = new double[numVertices][];
-            for (int i = 0; i < numVertices; i++) {
-                matrixEntries[i] = new double[numVertices];
-            }
-            final Map<Integer, Integer> idToMatrixPosition = new HashMap<>();
-            final Map<Integer, Integer> matrixPositionToID = new HashMap<>();
+            final int[] idToMatrixPosition = new int[rg.getVertexCapacity()];
+            Arrays.fill(idToMatrixPosition, -1);
+            final int[] matrixPositionToID = new int[numVertices];
 
-            int skips = 0;
+            int position = 0;
             for (int i = 0; i < rg.getVertexCount(); i++) {
                 final int vxID = rg.getVertex(i);
-                if (!includedVertices.contains(vxID)) {
-                    skips++;
-                    continue;
+                if (includedVertices.contains(vxID)) {
+                    idToMatrixPosition[vxID] = position;
+                    matrixPositionToID[position++] = vxID;
                 }
-                idToMatrixPosition.put(vxID, i - skips);
-                matrixPositionToID.put(i - skips, vxID);
             }
 
+            // Each row holds the included neighbours of a vertex; self loops are ignored.
+            final int[] rowStarts = new int[numVertices + 1];
+            int[] columns = new int[numVertices];
+            int entries = 0;
             for (int i = 0; i < numVertices; i++) {
-                final int vxID = matrixPositionToID.get(i);
-                int neighbourCount = 0;
-                for (int j = 0; j < rg.getVertexNeighbourCount(vxID); j++) {
-                    final int neighbourID = rg.getVertexNeighbour(vxID, j);
-                    if (excludedLinks.contains(rg.getLink(vxID, neighbourID))) {
-                        continue;
-                    } else if (!includedVertices.contains(neighbourID)) {
-                        neighbourCount++;
-                        continue;
-                    } else if (idToMatrixPosition.get(neighbourID) == i) {
-                        continue;
-                    }
-                    neighbourCount++;
-                    if (type != null) {
-                        switch (type) {
-                            case LAPLACIAN_MATRIX:
-                                matrixEntries[i][idToMatrixPosition.get(neighbourID)] = -1;
-                                break;
-                            case ADJACENCY_MATRIX:
-                                matrixEntries[i][idToMatrixPosition.get(neighbourID)] = 1;
-                                break;
-                            default:
-                                break;
+                final int vxID = matrixPositionToID[i];
+                final int neighbourCount = rg.getVertexNeighbourCount(vxID);
+                for (int j = 0; j < neighbourCount; j++) {
+                    final int neighbourPosition = idToMatrixPosition[rg.getVertexNeighbour(vxID, j)];
+                    if (neighbourPosition >= 0 && neighbourPosition != i) {
+                        if (entries == columns.length) {
+                            columns = Arrays.copyOf(columns, columns.length * 2);
                         }
+                        columns[entries++] = neighbourPosition;
                     }
                 }
-                if (type != null) {
-                    switch (type) {
-                        case LAPLACIAN_MATRIX:
-                            matrixEntries[i][i] = neighbourCount;
-                            break;
-                        case ADJACENCY_MATRIX:
-                            matrixEntries[i][i] = 0;
-                            break;
-                        default:
-                            break;
-                    }
+                rowStarts[i + 1] = entries;
+            }
+
+            return new LaplacianMatrix(matrixPositionToID, rowStarts, Arrays.copyOf(columns, entries));
+        }
+
+        @Override
+        public int getDimension() {
+            return dimension;
+        }
+
+        @Override
+        public void multiply(final double[] x, final double[] y) {
+            for (int i = 0; i < dimension; i++) {
+                final int start = rowStarts[i];
+                final int end = rowStarts[i + 1];
+                double sum = (end - start) * x[i];
+                for (int k = start; k < end; k++) {
+                    sum -= x[columns[k]];
                 }
+                y[i] = sum;
             }
-            return new GraphMatrix(matrixEntries, matrixPositionToID);
         }
     }
 }
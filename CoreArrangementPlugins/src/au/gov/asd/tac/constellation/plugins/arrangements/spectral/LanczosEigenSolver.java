@@ -0,0 +1,301 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.plugins.arrangements.spectral;
+
+import au.gov.asd.tac.constellation.plugins.PluginInteraction;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.apache.commons.math3.linear.EigenDecomposition;
+import org.apache.commons.math3.linear.MatrixUtils;
+
+/**
+ * Computes the smallest eigenpairs of a large sparse symmetric matrix using
+ * the thick-restart Lanczos method.
+ * <p>
+ * The matrix is only accessed through matrix-vector products, so it never
+ * needs to be stored densely. A Krylov basis of at most
+ * {@link #MAX_BASIS_SIZE} vectors is kept, fully reorthogonalised, and the
+ * small projected matrix is solved with commons-math. When the basis is full
+ * the best Ritz vectors are kept and the iteration restarts from them, so
+ * memory use is proportional to the matrix dimension rather than its square.
+ * <p>
+ * Known eigenvectors, such as the constant vector of a graph Laplacian, can be
+ * deflated so that the solver only looks for eigenvectors orthogonal to them.
+ *
+ * @author sirius
+ */
+final class LanczosEigenSolver {
+
+    /**
+     * A symmetric linear operator.
+     */
+    interface SymmetricOperator {
+
+        /**
+         * The dimension of the operator.
+         *
+         * @return the number of rows (and columns) of the operator.
+         */
+        int getDimension();
+
+        /**
+         * Calculates y = Ax.
+         *
+         * @param x the vector to multiply; this must not be modified.
+         * @param y the array to store the result in.
+         */
+        void multiply(final double[] x, final double[] y);
+    }
+
+    private static final int MAX_BASIS_SIZE = 40;
+    private static final int MAX_MULTIPLICATIONS = 20000;
+    private static final double TOLERANCE = 1E-8;
+    private static final double BREAKDOWN = 1E-12;
+
+    private final SymmetricOperator operator;
+    private final int dimension;
+    private final List<double[]> deflation = new ArrayList<>();
+    private final Random random = new Random(0);
+
+    private double[] eigenvalues;
+    private double[][] eigenvectors;
+
+    LanczosEigenSolver(final SymmetricOperator operator) {
+        this.operator = operator;
+        this.dimension = operator.getDimension();
+    }
+
+    /**
+     * Excludes an eigenvector from the results. The vector must be an
+     * eigenvector of the operator and must be orthogonal to any vectors
+     * already deflated.
+     *
+     * @param vector the eigenvector, which will be normalised.
+     */
+    void deflate(final double[] vector) {
+        final double[] v = Arrays.copyOf(vector, dimension);
+        final double norm = Math.sqrt(dot(v, v));
+        scale(v, 1 / norm);
+        deflation.add(v);
+    }
+
+    /**
+     * Computes the eigenvectors with the smallest eigenvalues.
+     *
+     * @param count the number of eigenvectors to compute.
+     * @param interaction used to report progress, or null.
+     * @return true if every eigenvector converged; otherwise the best
+     * approximations found are still available.
+     * @throws InterruptedException if the thread is interrupted or the user
+     * cancels the computation.
+     */
+    boolean solve(final int count, final PluginInteraction interaction) throws InterruptedException {
+        final int available = dimension - deflation.size();
+        final int wanted = Math.min(count, available);
+        eigenvalues = new double[wanted];
+        eigenvectors = new double[wanted][];
+        if (wanted <= 0) {
+            return true;
+        }
+
+        final int basisSize = Math.min(available, Math.max(MAX_BASIS_SIZE, 2 * wanted + 1));
+        final int keep = Math.min(basisSize - 1, wanted + (basisSize - wanted) / 2);
+
+        final double[][] basis = new double[basisSize + 1][];
+        // projection[i][j] = basis[i] . A basis[j], maintained for i <= j.
+        final double[][] projection = new double[basisSize][basisSize];
+        final double[] couplings = new double[basisSize];
+
+        int size = 0;
+        int multiplications = 0;
+        basis[0] = randomOrthogonalVector(basis, 0);
+        double normEstimate = 0;
+
+        while (true) {
+            // Extend the Krylov basis until it is full.
+            while (size < basisSize && basis[size] != null) {
+                final double[] w = new double[dimension];
+                operator.multiply(basis[size], w);
+                multiplications++;
+
+                // Orthogonalise twice against the whole basis to maintain orthogonality in floating point.
+                for (int pass = 0; pass < 2; pass++) {
+                    orthogonalise(w, deflation, deflation.size());
+                    for (int i = 0; i <= size; i++) {
+                        final double h = dot(basis[i], w);
+                        projection[i][size] += h;
+                        axpy(-h, basis[i], w);
+                    }
+                }
+
+                final double beta = Math.sqrt(dot(w, w));
+                size++;
+                if (beta > BREAKDOWN * Math.max(1, normEstimate)) {
+                    scale(w, 1 / beta);
+                    basis[size] = w;
+                    couplings[size - 1] = beta;
+                } else if (size < basisSize) {
+                    // The basis spans an invariant subspace, so continue with any new direction.
+                    basis[size] = randomOrthogonalVector(basis, size);
+                    couplings[size - 1] = 0;
+                } else {
+                    basis[size] = null;
+                    couplings[size - 1] = 0;
+                }
+
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+
+            // Solve the projected problem.
+            final double[][] symmetric = new double[size][size];
+            for (int i = 0; i < size; i++) {
+                for (int j = i; j < size; j++) {
+                    symmetric[i][j] = symmetric[j][i] = projection[i][j];
+                }
+            }
+            final EigenDecomposition decomposition = new EigenDecomposition(MatrixUtils.createRealMatrix(symmetric));
+            final double[] ritzValues = new double[size];
+            final Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                ritzValues[i] = decomposition.getRealEigenvalue(i);
+                normEstimate = Math.max(normEstimate, Math.abs(ritzValues[i]));
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Double.compare(ritzValues[a], ritzValues[b]));
+
+            // The residual of a Ritz vector is the coupling to the next basis vector times its last component.
+            final double beta = couplings[size - 1];
+            boolean converged = true;
+            for (int i = 0; i < wanted; i++) {
+                final double residual = Math.abs(beta * decomposition.getEigenvector(order[i]).getEntry(size - 1));
+                if (residual > TOLERANCE * Math.max(1, normEstimate)) {
+                    converged = false;
+                }
+            }
+
+            final boolean finished = converged || basis[size] == null || size == available || multiplications >= MAX_MULTIPLICATIONS;
+            final int retained = finished ? wanted : keep;
+
+            // Form the Ritz vectors that are either the result or the start of the next cycle.
+            final double[][] ritzVectors = new double[retained][];
+            for (int r = 0; r < retained; r++) {
+                final double[] vector = new double[dimension];
+                for (int i = 0; i < size; i++) {
+                    axpy(decomposition.getEigenvector(order[r]).getEntry(i), basis[i], vector);
+                }
+                ritzVectors[r] = vector;
+            }
+
+            if (finished) {
+                for (int r = 0; r < wanted; r++) {
+                    eigenvalues[r] = ritzValues[order[r]];
+                    eigenvectors[r] = ritzVectors[r];
+                }
+                return converged || size == available;
+            }
+
+            if (interaction != null) {
+                interaction.setProgress(multiplications, MAX_MULTIPLICATIONS, "Computing eigenvectors...", true);
+            }
+
+            // Restart with the retained Ritz vectors followed by the last Lanczos vector.
+            // The Ritz vectors diagonalise the projected matrix; their coupling to
+            // the last vector is recalculated when the basis is next extended.
+            final double[] next = basis[size];
+            for (final double[] row : projection) {
+                Arrays.fill(row, 0);
+            }
+            for (int r = 0; r < retained; r++) {
+                basis[r] = ritzVectors[r];
+                projection[r][r] = ritzValues[order[r]];
+            }
+            basis[retained] = next;
+            for (int i = retained + 1; i <= basisSize; i++) {
+                basis[i] = null;
+            }
+            size = retained;
+        }
+    }
+
+    /**
+     * The eigenvalues found by the last call to {@link #solve}, in ascending
+     * order.
+     *
+     * @return the eigenvalues.
+     */
+    double[] getEigenvalues() {
+        return eigenvalues;
+    }
+
+    /**
+     * The unit eigenvectors found by the last call to {@link #solve}, in the
+     * same order as {@link #getEigenvalues()}.
+     *
+     * @return the eigenvectors.
+     */
+    double[][] getEigenvectors() {
+        return eigenvectors;
+    }
+
+    private double[] randomOrthogonalVector(final double[][] basis, final int size) {
+        for (int attempt = 0; attempt < 10; attempt++) {
+            final double[] v = new double[dimension];
+            for (int i = 0; i < dimension; i++) {
+                v[i] = random.nextDouble() - 0.5;
+            }
+            for (int pass = 0; pass < 2; pass++) {
+                orthogonalise(v, deflation, deflation.size());
+                orthogonalise(v, Arrays.asList(basis), size);
+            }
+            final double norm = Math.sqrt(dot(v, v));
+            if (norm > BREAKDOWN) {
+                scale(v, 1 / norm);
+                return v;
+            }
+        }
+        return null;
+    }
+
+    private static void orthogonalise(final double[] v, final List<double[]> vectors, final int count) {
+        for (int i = 0; i < count; i++) {
+            axpy(-dot(vectors.get(i), v), vectors.get(i), v);
+        }
+    }
+
+    private static double dot(final double[] a, final double[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    private static void axpy(final double alpha, final double[] x, final double[] y) {
+        for (int i = 0; i < y.length; i++) {
+            y[i] += alpha * x[i];
+        }
+    }
+
+    private static void scale(final double[] v, final double alpha) {
+        for (int i = 0; i < v.length; i++) {
+            v[i] *= alpha;
+        }
+    }
+}
@@ -51,7 +51,7 @@ public class SpectralArrangementPlugin extends SimpleEditPlugin {
             final SetRadiusForArrangement radiusSetter = new SetRadiusForArrangement(graph);
             radiusSetter.setRadii();
 
-            final Arranger inner = new SpectralArranger();
+            final Arranger inner = new SpectralArranger(interaction);
             final Arranger outer = new GridArranger();
 
             final GraphTaxonomyArranger arranger = new GraphComponentArranger(inner, outer, Connections.LINKS);
@@ -17,6 +17,7 @@ package au.gov.asd.tac.constellation.plugins.arrangements.spectral;
 
 import au.gov.asd.tac.constellation.graph.GraphWriteMethods;
 import au.gov.asd.tac.constellation.graph.schema.visual.concept.VisualConcept;
+import au.gov.asd.tac.constellation.plugins.PluginInteraction;
 import au.gov.asd.tac.constellation.plugins.algorithms.clustering.ktruss.KTruss;
 import au.gov.asd.tac.constellation.plugins.algorithms.clustering.ktruss.KTruss.KTrussResultHandler;
 import au.gov.asd.tac.constellation.plugins.arrangements.Arranger;
@@ -38,8 +39,23 @@ import java.util.Set;
  */
 public class SpectralArranger implements Arranger {
 
+    private final PluginInteraction interaction;
     private boolean maintainMean = false;
 
+    public SpectralArranger() {
+        this(null);
+    }
+
+    /**
+     * Creates a new arranger that reports the progress of the spectral
+     * embedding, and can be cancelled, through the given interaction.
+     *
+     * @param interaction The interaction to report progress to, or null.
+     */
+    public SpectralArranger(final PluginInteraction interaction) {
+        this.interaction = interaction;
+    }
+
     @Override
     public void setMaintainMean(final boolean b) {
         maintainMean = b;
@@ -152,7 +168,7 @@ public class SpectralArranger implements Arranger {
         }
 
         // Otherwise calculate the spectral (eigenvector) embedding of the most interconnected truss
-        final Map<Integer, double[]> vertexToCoordinates = GraphSpectrumEmbedder.spectralEmbedding(wg, handler.verticesInHighestTruss);
+        final Map<Integer, double[]> vertexToCoordinates = GraphSpectrumEmbedder.spectralEmbedding(wg, handler.verticesInHighestTruss, interaction);
         if (vertexToCoordinates.isEmpty()) {
             return;
         }
@@ -280,11 +280,26 @@ public class ComponentSubgraph implements GraphWriteMethods {
         return proxy.getStructureModificationCounter();
     }
 
+    @Override
+    public long getStructureGeneration() {
+        return proxy.getStructureGeneration();
+    }
+
     @Override
     public long getValueModificationCounter(final int attribute) {
         return proxy.getValueModificationCounter(attribute);
     }
 
+    @Override
+    public long getValueGeneration(final int attribute) {
+        return proxy.getValueGeneration(attribute);
+    }
+
+    @Override
+    public int[] getValueChanges(final int attribute, final long modificationCounter) {
+        return proxy.getValueChanges(attribute, modificationCounter);
+    }
+
     @Override
     public int getEdgeCapacity() {
         return proxy.getEdgeCapacity();
@@ -23,7 +23,10 @@ import au.gov.asd.tac.constellation.graph.schema.visual.concept.VisualConcept;
 import au.gov.asd.tac.constellation.plugins.arrangements.Arranger;
 import au.gov.asd.tac.constellation.plugins.arrangements.utilities.ArrangementUtilities;
 import java.security.SecureRandom;
-import java.util.BitSet;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
 import org.openide.util.NotImplementedException;
 
 /**
@@ -44,6 +47,12 @@ import org.openide.util.NotImplementedException;
  * A and B times scaleFactor. The value of scaleFactor is 100 * scaleSetting
  * (which may be set).
  *
+ * Vertices are referred to by a one-up index in order of vertex id, so the
+ * distance matrix is sized by the number of vertices rather than the vertex
+ * capacity. The distances from each vertex are found in parallel, and each
+ * minimization step is spread over the common fork-join pool once there are
+ * enough vertices for it to pay off.
+ *
  * @author algol
  * @author sol
  */
@@ -55,6 +64,9 @@ public class MdsArranger implements Arranger {
     private static final float RADIUS_INFLATION_AT_100_PERCENT = 1.5F;
     private static final float EXTENTS_SIZE_INFLATION = 1.2F;
 
+    // The number of vertex pairs in a step before it is worth running in parallel.
+    private static final int PARALLEL_PAIRS = 1 << 14;
+
     private final MDSChoiceParameters params;
 
     public MdsArranger(final MDSChoiceParameters params) {
@@ -67,7 +79,9 @@ public class MdsArranger implements Arranger {
             return;
         }
 
-        final BitSet verticesToArrange = ArrangementUtilities.vertexBits(wg);
+        // The vertex id of each one-up index.
+        final int[] vxIds = ArrangementUtilities.vertexBits(wg).stream().toArray();
+        final int vxCount = vxIds.length;
 
         // Parameter setup.
         int maxTrialsPerStage = params.maxTrialsPerStage;
@@ -104,7 +118,7 @@ public class MdsArranger implements Arranger {
                 minSpacing = Math.max(1, 3 * ArrangementUtilities.FUNDAMENTAL_SIZE);
             } else {
                 float min = 0;
-                for (int vxId = verticesToArrange.nextSetBit(0); vxId >= 0; vxId = verticesToArrange.nextSetBit(vxId + 1)) {
+                for (final int vxId : vxIds) {
                     final float r = wg.getFloatValue(nradiusAttr, vxId);
                     if (r > min) {
                         min = r;
@@ -126,12 +140,12 @@ public class MdsArranger implements Arranger {
         // and 2 more vectors for the whole thing
         //  totVxsToArrange: first numTotVxsToArrange entries will act on vertices
         //  totVxsToInfluence: first numTotVxsToInfluence entries will act on vertices
-        final int[] vxsToArrange = new int[wg.getVertexCapacity()];
-        final int[] vxsToInfluence = new int[wg.getVertexCapacity()];
-        final int[] vxsToArrangeLater = new int[wg.getVertexCapacity()];
+        final int[] vxsToArrange = new int[vxCount];
+        final int[] vxsToInfluence = new int[vxCount];
+        final int[] vxsToArrangeLater = new int[vxCount];
 
-        final int[] totVxsToArrange = new int[wg.getVertexCapacity()];
-        final int[] totVxsToInfluence = new int[wg.getVertexCapacity()];
+        final int[] totVxsToArrange = new int[vxCount];
+        final int[] totVxsToInfluence = new int[vxCount];
 
         int numVxsToInfluence = 0;
         int numVxsToArrange = 0;
@@ -140,8 +154,7 @@ public class MdsArranger implements Arranger {
         int numTotVxsToArrange = 0;
         int numTotVxsToInfluence = 0;
 
-        final int vxCount = wg.getVertexCount();
-        for (int vxId = verticesToArrange.nextSetBit(0); vxId >= 0; vxId = verticesToArrange.nextSetBit(vxId + 1)) {
+        for (int vx = 0; vx < vxCount; vx++) {
 
             if (Thread.interrupted()) {
                 throw new InterruptedException();
@@ -151,39 +164,39 @@ public class MdsArranger implements Arranger {
             final boolean influence = true; //verticesThatInfluence.contains( thisVertex )
             final boolean useLocs = false; //verticesToUseExistingLoc.contains( thisVertex )
             if (arrangeIt && useLocs) {
-                vxsToArrange[numVxsToArrange++] = vxId;
+                vxsToArrange[numVxsToArrange++] = vx;
             } else if (arrangeIt && !useLocs) {
-                vxsToArrangeLater[numVxsLater++] = vxId;
+                vxsToArrangeLater[numVxsLater++] = vx;
             }
             if (influence && (useLocs || !arrangeIt)) {
-                vxsToInfluence[numVxsToInfluence++] = vxId;
+                vxsToInfluence[numVxsToInfluence++] = vx;
             }
             if (arrangeIt) {
-                totVxsToArrange[numTotVxsToArrange++] = vxId;
+                totVxsToArrange[numTotVxsToArrange++] = vx;
             }
             if (influence) {
-                totVxsToInfluence[numTotVxsToInfluence++] = vxId;
+                totVxsToInfluence[numTotVxsToInfluence++] = vx;
             }
         }
 
         // Get all distances in a matrix represented as a vector.
-        // Index 0 is source vxId, index 1 is destination (influence) vxId.
-        final float[][] distanceMatrix = calcDistanceMatrix(wg, verticesToArrange, params.linkWeight, scaleFactor);
+        // Index 0 is source vertex, index 1 is destination (influence) vertex.
+        final float[][] distanceMatrix = calcDistanceMatrix(wg, vxIds, params.linkWeight, scaleFactor);
         if (setMinByRadii) {
-            setMinDistancesByRadii(wg, verticesToArrange, distanceMatrix, radiusInflation);
+            setMinDistancesByRadii(wg, vxIds, distanceMatrix, radiusInflation);
         }
 
-        final float[] gains = new float[wg.getVertexCapacity()];
-        final float[] currentX = new float[wg.getVertexCapacity()];
-        final float[] currentY = new float[wg.getVertexCapacity()];
-        final float[] radii = new float[wg.getVertexCapacity()];
-        final float[] bestX = new float[wg.getVertexCapacity()];
-        final float[] bestY = new float[wg.getVertexCapacity()];
-        final float[] startX = new float[wg.getVertexCapacity()];
-        final float[] startY = new float[wg.getVertexCapacity()];
-        final int[] closestVertices = new int[wg.getVertexCapacity()];
-        final int[] nextClosestVertices = new int[wg.getVertexCapacity()];
-        final float[] gammas = new float[wg.getVertexCapacity()];
+        final float[] gains = new float[vxCount];
+        final float[] currentX = new float[vxCount];
+        final float[] currentY = new float[vxCount];
+        final float[] radii = new float[vxCount];
+        final float[] bestX = new float[vxCount];
+        final float[] bestY = new float[vxCount];
+        final float[] startX = new float[vxCount];
+        final float[] startY = new float[vxCount];
+        final int[] closestVertices = new int[vxCount];
+        final int[] nextClosestVertices = new int[vxCount];
+        final float[] gammas = new float[vxCount];
 
         if (wg.getAttribute(GraphElementType.VERTEX, "x") == Graph.NOT_FOUND) {
             wg.addAttribute(GraphElementType.VERTEX, FloatAttributeDescription.ATTRIBUTE_NAME, "x", "x", null, null);
@@ -199,9 +212,9 @@ public class MdsArranger implements Arranger {
         final int zAttr = wg.getAttribute(GraphElementType.VERTEX, VisualConcept.VertexAttribute.Z.getName());
 
         // Remember the old locations.
-        for (int vxId = verticesToArrange.nextSetBit(0); vxId >= 0; vxId = verticesToArrange.nextSetBit(vxId + 1)) {
-            currentX[vxId] = wg.getFloatValue(xAttr, vxId);
-            currentY[vxId] = wg.getFloatValue(yAttr, vxId);
+        for (int vx = 0; vx < vxCount; vx++) {
+            currentX[vx] = wg.getFloatValue(xAttr, vxIds[vx]);
+            currentY[vx] = wg.getFloatValue(yAttr, vxIds[vx]);
         }
 
         // Find first subset size and skip factor for filling in remainder.
@@ -220,8 +233,8 @@ public class MdsArranger implements Arranger {
             final int numberOfLocationsSaved = numVxsToArrange;
 
             for (int i = 0; i < numberOfLocationsSaved; i++) {
-                startX[i] = currentX[i];
-                startY[i] = currentY[i];
+                startX[i] = currentX[vxsToArrange[i]];
+                startY[i] = currentY[vxsToArrange[i]];
             }
 
             // Number of vertices to add.
@@ -232,17 +245,17 @@ public class MdsArranger implements Arranger {
                 if (Thread.interrupted()) {
                     throw new InterruptedException();
                 }
-                final int newVxId = vxsToDo[i + startOfRemainingVertices];
-                vxsToArrange[numVxsToArrange++] = newVxId;
+                final int newVx = vxsToDo[i + startOfRemainingVertices];
+                vxsToArrange[numVxsToArrange++] = newVx;
 
                 if (true) { // verticesThatInfluence.contains(atomArray[newIndex])
-                    vxsToInfluence[numVxsToInfluence++] = newVxId;
+                    vxsToInfluence[numVxsToInfluence++] = newVx;
                 }
 
                 // Find info about closest vertices that are already there
                 // (fill in an entry in each of indicesOfClosestVertices,
                 // indicesOfNextClosestVertices, and gammas).
-                initialPositioningInfoThisVertex(wg, verticesToArrange, newVxId, distanceMatrix, closestVertices, nextClosestVertices, gammas);
+                initialPositioningInfoThisVertex(newVx, distanceMatrix, closestVertices, nextClosestVertices, gammas);
 
                 remainingVertices--;
             }
@@ -271,8 +284,8 @@ public class MdsArranger implements Arranger {
                 // Restore starting locations.
                 if (trial > 0) {
                     for (int i = 0; i < numberOfLocationsSaved; i++) {
-                        currentX[i] = startX[i];
-                        currentY[i] = startY[i];
+                        currentX[vxsToArrange[i]] = startX[i];
+                        currentY[vxsToArrange[i]] = startY[i];
                     }
                 }
 
@@ -346,10 +359,10 @@ public class MdsArranger implements Arranger {
                 // If this is the best stress, keep it.
                 if (stress < bestStress) {
                     for (int i = 0; i < numVxsToArrange; i++) {
-                        final int vxId = vxsToArrange[i];
+                        final int vx = vxsToArrange[i];
 
-                        bestX[vxId] = currentX[vxId];
-                        bestY[vxId] = currentY[vxId];
+                        bestX[vx] = currentX[vx];
+                        bestY[vx] = currentY[vx];
                     }
 
                     bestStress = stress;
@@ -358,10 +371,10 @@ public class MdsArranger implements Arranger {
 
             // Keep the best configuration.
             for (int i = 0; i < numVxsToArrange; i++) {
-                final int vxId = vxsToArrange[i];
+                final int vx = vxsToArrange[i];
 
-                currentX[vxId] = bestX[vxId];
-                currentY[vxId] = bestY[vxId];
+                currentX[vx] = bestX[vx];
+                currentY[vx] = bestY[vx];
             }
 
             if (remainingVertices == 0) {
@@ -372,16 +385,16 @@ public class MdsArranger implements Arranger {
         }
 
         // Apply the new coordinates.
-        for (int vxId = verticesToArrange.nextSetBit(0); vxId >= 0; vxId = verticesToArrange.nextSetBit(vxId + 1)) {
-            wg.setFloatValue(xAttr, vxId, currentX[vxId]);
-            wg.setFloatValue(yAttr, vxId, currentY[vxId]);
-            wg.setFloatValue(zAttr, vxId, 0);
+        for (int vx = 0; vx < vxCount; vx++) {
+            wg.setFloatValue(xAttr, vxIds[vx], currentX[vx]);
+            wg.setFloatValue(yAttr, vxIds[vx], currentY[vx]);
+            wg.setFloatValue(zAttr, vxIds[vx], 0);
         }
     }
 
-    private static float[][] calcDistanceMatrix(final GraphWriteMethods graph, final BitSet verticesToArrange, final LinkWeight linkWeight, final float scaleFactor) {
+    private static float[][] calcDistanceMatrix(final GraphWriteMethods graph, final int[] vxIds, final LinkWeight linkWeight, final float scaleFactor) throws InterruptedException {
         if (linkWeight == LinkWeight.USE_EXTENTS) {
-            return calcDistanceMatrixByExtent(graph, verticesToArrange, scaleFactor);
+            return calcDistanceMatrixByExtent(graph, vxIds, scaleFactor);
         } else {
             throw new NotImplementedException(String.format("Link weight %s not implemented", linkWeight));
         }
@@ -392,21 +405,92 @@ public class MdsArranger implements Arranger {
      * edges by the sum of the extents of the vertices they join.
      * <p>
      * Usual edge weights, multiple edges, etc, are not considered.
+     * <p>
+     * The edges of each vertex are copied into primitive arrays up front so
+     * that the breadth first search from each vertex can run in parallel
+     * without touching the graph.
      */
-    private static float[][] calcDistanceMatrixByExtent(final GraphWriteMethods graph, final BitSet verticesToArrange, final float scaleFactor) {
+    private static float[][] calcDistanceMatrixByExtent(final GraphWriteMethods graph, final int[] vxIds, final float scaleFactor) throws InterruptedException {
         final float minRadius = 1.5F * ArrangementUtilities.FUNDAMENTAL_SIZE;
+        final int nradiusAttr = VisualConcept.VertexAttribute.LABEL_RADIUS.get(graph);
+        final int vxCount = vxIds.length;
+
+        final int[] indices = new int[graph.getVertexCapacity()];
+        final float[] forwardRadii = new float[vxCount];
+        final float[] backwardRadii = new float[vxCount];
+        final int[] outOffsets = new int[vxCount + 1];
+        final int[] inOffsets = new int[vxCount + 1];
+        for (int vx = 0; vx < vxCount; vx++) {
+            final int vxId = vxIds[vx];
+            final float radius = nradiusAttr != Graph.NOT_FOUND ? graph.getFloatValue(nradiusAttr, vxId) : 1;
+            indices[vxId] = vx;
+            forwardRadii[vx] = Math.max(minRadius, radius);
+            backwardRadii[vx] = 1.5F * radius;
+            outOffsets[vx + 1] = outOffsets[vx] + graph.getVertexEdgeCount(vxId, Graph.OUTGOING);
+            inOffsets[vx + 1] = inOffsets[vx] + graph.getVertexEdgeCount(vxId, Graph.INCOMING);
+        }
+
+        // The destination of each outgoing edge and the source of each incoming edge.
+        final int[] outTargets = new int[outOffsets[vxCount]];
+        final int[] inTargets = new int[inOffsets[vxCount]];
+        for (int vx = 0; vx < vxCount; vx++) {
+            final int vxId = vxIds[vx];
+            for (int entry = outOffsets[vx]; entry < outOffsets[vx + 1]; entry++) {
+                outTargets[entry] = indices[graph.getEdgeDestinationVertex(graph.getVertexEdge(vxId, Graph.OUTGOING, entry - outOffsets[vx]))];
+            }
+            for (int entry = inOffsets[vx]; entry < inOffsets[vx + 1]; entry++) {
+                inTargets[entry] = indices[graph.getEdgeSourceVertex(graph.getVertexEdge(vxId, Graph.INCOMING, entry - inOffsets[vx]))];
+            }
+        }
 
         // Record distances here.
-        final float[][] distanceMatrix = new float[graph.getVertexCapacity()][graph.getVertexCapacity()];
+        final float[][] distanceMatrix = new float[vxCount][];
+
+        // Each searcher takes the next vertex without distances until there are none left.
+        final Thread caller = Thread.currentThread();
+        final AtomicInteger nextVx = new AtomicInteger();
+        final int searcherCount = Math.max(1, Math.min(vxCount, ForkJoinPool.getCommonPoolParallelism()));
+        IntStream.range(0, searcherCount).parallel().forEach(searcher -> {
+            final int[] queue = new int[vxCount];
+            for (int vx = nextVx.getAndIncrement(); vx < vxCount && !caller.isInterrupted(); vx = nextVx.getAndIncrement()) {
+                // -1 indicates "unknown distance".
+                final float[] distances = new float[vxCount];
+                Arrays.fill(distances, -1);
+                distances[vx] = 0;
+
+                int head = 0;
+                int tail = 0;
+                queue[head++] = vx;
+                while (head != tail) {
+                    final int parent = queue[tail++];
+                    final float parentDistance = distances[parent] + forwardRadii[parent];
+
+                    for (int entry = outOffsets[parent]; entry < outOffsets[parent + 1]; entry++) {
+                        final int child = outTargets[entry];
+                        if (distances[child] == -1) {
+                            distances[child] = parentDistance + forwardRadii[child];
+                            queue[head++] = child;
+                        }
+                    }
 
-        // Loop through each arrange vertex, recording distances to each influence vertex.
-        for (int vxId = verticesToArrange.nextSetBit(0); vxId >= 0; vxId = verticesToArrange.nextSetBit(vxId + 1)) {
-            final float[] distancesFromVertex = ArrangementUtilities.getMinDistancesToReachableVertices(graph, vxId, true, true, minRadius);
+                    for (int entry = inOffsets[parent]; entry < inOffsets[parent + 1]; entry++) {
+                        final int child = inTargets[entry];
+                        if (distances[child] == -1) {
+                            distances[child] = parentDistance + backwardRadii[child];
+                            queue[head++] = child;
+                        }
+                    }
+                }
 
-            // Loop through each influence vertex.
-            for (int inflVxId = verticesToArrange.nextSetBit(0); inflVxId >= 0; inflVxId = verticesToArrange.nextSetBit(inflVxId + 1)) {
-                distanceMatrix[vxId][inflVxId] = scaleFactor * distancesFromVertex[inflVxId] * EXTENTS_SIZE_INFLATION;
+                for (int inflVx = 0; inflVx < vxCount; inflVx++) {
+                    distances[inflVx] = scaleFactor * distances[inflVx] * EXTENTS_SIZE_INFLATION;
+                }
+                distanceMatrix[vx] = distances;
             }
+        });
+
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
         }
 
         return distanceMatrix;
@@ -466,18 +550,30 @@ public class MdsArranger implements Arranger {
      * @param graph
      * @param distanceMatrix
      */
-    private static void setMinDistancesByRadii(final GraphWriteMethods graph, final BitSet verticesToArrange, final float[][] distanceMatrix, final float radiusInflation) {
+    private static void setMinDistancesByRadii(final GraphWriteMethods graph, final int[] vxIds, final float[][] distanceMatrix, final float radiusInflation) throws InterruptedException {
         final int radiusAttr = VisualConcept.VertexAttribute.LABEL_RADIUS.get(graph);
+        final int vxCount = vxIds.length;
+
+        final float[] radii = new float[vxCount];
+        for (int vx = 0; vx < vxCount; vx++) {
+            radii[vx] = CIRC_RADIUS * (radiusAttr != Graph.NOT_FOUND ? graph.getFloatValue(radiusAttr, vxIds[vx]) : 1);
+        }
 
-        for (int vxId = verticesToArrange.nextSetBit(0); vxId >= 0; vxId = verticesToArrange.nextSetBit(vxId + 1)) {
-            final float radius = CIRC_RADIUS * (radiusAttr != Graph.NOT_FOUND ? graph.getFloatValue(radiusAttr, vxId) : 1);
+        final Thread caller = Thread.currentThread();
+        rows(vxCount, vxCount).forEach(vx -> {
+            if (caller.isInterrupted()) {
+                return;
+            }
 
-            for (int inflVxId = verticesToArrange.nextSetBit(0); inflVxId >= 0; inflVxId = verticesToArrange.nextSetBit(inflVxId + 1)) {
-                final float inflRadius = CIRC_RADIUS * (radiusAttr != Graph.NOT_FOUND ? graph.getFloatValue(radiusAttr, inflVxId) : 1);
-                final float distance = distanceMatrix[vxId][inflVxId];
-                final float minDistance = radiusInflation * (radius + inflRadius);
-                distanceMatrix[vxId][inflVxId] = Math.max(distance, minDistance);
+            final float[] distances = distanceMatrix[vx];
+            for (int inflVx = 0; inflVx < vxCount; inflVx++) {
+                final float minDistance = radiusInflation * (radii[vx] + radii[inflVx]);
+                distances[inflVx] = Math.max(distances[inflVx], minDistance);
             }
+        });
+
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
         }
     }
 
@@ -490,8 +586,6 @@ public class MdsArranger implements Arranger {
      * each time it is called.
      */
     private static void initialPositioningInfoThisVertex(
-            final GraphWriteMethods graph,
-            final BitSet verticesToArrange,
             final int vxId,
             final float[][] distanceMatrix,
             final int[] closestVertices,
@@ -502,7 +596,7 @@ public class MdsArranger implements Arranger {
         int nextClosestVxId = Graph.NOT_FOUND;
         float distanceToClosest = Float.MAX_VALUE;
         float distanceToNextClosest = Float.MAX_VALUE;
-        for (int inflVxId = verticesToArrange.nextSetBit(0); inflVxId >= 0; inflVxId = verticesToArrange.nextSetBit(inflVxId + 1)) {
+        for (int inflVxId = 0; inflVxId < distanceMatrix.length; inflVxId++) {
             if (inflVxId != vxId) {
                 final float thisDist = distanceMatrix[vxId][inflVxId];
                 if (thisDist < distanceToClosest) {
@@ -545,9 +639,10 @@ public class MdsArranger implements Arranger {
             final int numVxsToArrange,
             final int[] vxsToInfluence,
             final int numVxsToInfluence) throws InterruptedException {
-        for (int i = 0; i < numVxsToArrange; i++) {
-            if (Thread.interrupted()) {
-                throw new InterruptedException();
+        final Thread caller = Thread.currentThread();
+        rows(numVxsToArrange, numVxsToInfluence).forEach(i -> {
+            if (caller.isInterrupted()) {
+                return;
             }
             final int vxId = vxsToArrange[i];
             float sum = 0;
@@ -566,6 +661,10 @@ public class MdsArranger implements Arranger {
             if (sum > 0) {
                 gains[vxId] = 1.0F / (2.0F * sum);
             }
+        });
+
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
         }
     }
 
@@ -638,23 +737,25 @@ public class MdsArranger implements Arranger {
             final int numIterations,
             final boolean setMinByRadii,
             final float radiusInflation) throws InterruptedException {
-        float[] newX = new float[currentX.length];
-        float[] newY = new float[currentY.length];
+        final float[] newX = new float[currentX.length];
+        final float[] newY = new float[currentY.length];
+        final Thread caller = Thread.currentThread();
 
         for (int iteration = 0; iteration < numIterations; iteration++) {
             // Begin loop for vertex to move.
-            for (int i = 0; i < numVxsToArrange; i++) {
+            // Each vertex moves relative to the current locations, so the vertices can be moved in parallel.
+            rows(numVxsToArrange, numVxsToInfluence).forEach(i -> {
                 float xInc = 0;
                 float yInc = 0;
                 final int vxId = vxsToArrange[i];
 
-                if (Thread.interrupted()) {
-                    throw new InterruptedException();
+                if (caller.isInterrupted()) {
+                    return;
                 }
 
                 // Begin vertex influence loop.
                 for (int j = 0; j < numVxsToInfluence; j++) {
-                    int inflvxId = vxsToInfluence[j];
+                    final int inflvxId = vxsToInfluence[j];
 
                     if (vxId != inflvxId) {
                         final float xDelta = currentX[vxId] - currentX[inflvxId];
@@ -697,12 +798,17 @@ public class MdsArranger implements Arranger {
 
                 newX[vxId] = currentX[vxId] - (2.0F * gains[vxId] * xInc);
                 newY[vxId] = currentY[vxId] - (2.0F * gains[vxId] * yInc);
+            });
+
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
             }
 
             // Update current values from new ones.
             for (int i = 0; i < numVxsToArrange; i++) {
-                currentX[i] = newX[i];
-                currentY[i] = newY[i];
+                final int vxId = vxsToArrange[i];
+                currentX[vxId] = newX[vxId];
+                currentY[vxId] = newY[vxId];
             }
         }
     }
@@ -719,16 +825,19 @@ public class MdsArranger implements Arranger {
             final int numVxsToArrange,
             final int[] vxsToInfluence,
             final int numVxsToInfluence) throws InterruptedException {
-        float stress = 0;
-        int numContributions = 0;
+        final float[] rowStresses = new float[numVxsToArrange];
+        final int[] rowContributions = new int[numVxsToArrange];
+        final Thread caller = Thread.currentThread();
 
-        for (int i = 0; i < numVxsToArrange; i++) {
+        rows(numVxsToArrange, numVxsToInfluence).forEach(i -> {
             final int vxId = vxsToArrange[i];
 
-            if (Thread.interrupted()) {
-                throw new InterruptedException();
+            if (caller.isInterrupted()) {
+                return;
             }
 
+            float stress = 0;
+            int numContributions = 0;
             for (int j = 0; j < numVxsToInfluence; j++) {
                 final int inflVxId = vxsToInfluence[j];
 
@@ -745,6 +854,20 @@ public class MdsArranger implements Arranger {
                     numContributions++;
                 }
             }
+
+            rowStresses[i] = stress;
+            rowContributions[i] = numContributions;
+        });
+
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+
+        float stress = 0;
+        int numContributions = 0;
+        for (int i = 0; i < numVxsToArrange; i++) {
+            stress += rowStresses[i];
+            numContributions += rowContributions[i];
         }
 
         if (numContributions == 0) {
@@ -754,6 +877,16 @@ public class MdsArranger implements Arranger {
         return stress / numContributions;
     }
 
+    /**
+     * A stream of the indices of the rows of a step, which is only parallel
+     * when the step covers enough vertex pairs to be worth spreading over the
+     * common fork-join pool.
+     */
+    private static IntStream rows(final int rowCount, final int rowLength) {
+        final IntStream rows = IntStream.range(0, rowCount);
+        return (long) rowCount * rowLength >= PARALLEL_PAIRS ? rows.parallel() : rows;
+    }
+
     @Override
     public void setMaintainMean(final boolean b) {
         // Required for Arranger, intentionally left blank
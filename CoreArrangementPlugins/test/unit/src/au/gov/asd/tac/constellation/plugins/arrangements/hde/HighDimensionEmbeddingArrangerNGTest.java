@@ -0,0 +1,135 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.plugins.arrangements.hde;
+
+import au.gov.asd.tac.constellation.graph.StoreGraph;
+import au.gov.asd.tac.constellation.graph.schema.visual.concept.VisualConcept;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * High Dimension Embedding Arranger Test.
+ *
+ * @author sirius
+ */
+public class HighDimensionEmbeddingArrangerNGTest {
+
+    public HighDimensionEmbeddingArrangerNGTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+    }
+
+    @BeforeMethod
+    public void setUpMethod() throws Exception {
+    }
+
+    @AfterMethod
+    public void tearDownMethod() throws Exception {
+    }
+
+    /**
+     * The arrangement of a grid should keep the grid distances between its
+     * vertices, even when vertex ids and positions differ.
+     *
+     * @throws InterruptedException
+     */
+    @Test
+    public void testGrid() throws InterruptedException {
+        final StoreGraph graph = new StoreGraph();
+        final int xAttr = VisualConcept.VertexAttribute.X.ensure(graph);
+        final int yAttr = VisualConcept.VertexAttribute.Y.ensure(graph);
+        VisualConcept.VertexAttribute.Z.ensure(graph);
+
+        final int[] removed = new int[5];
+        for (int i = 0; i < removed.length; i++) {
+            removed[i] = graph.addVertex();
+        }
+        final int side = 15;
+        final int[] grid = new int[side * side];
+        for (int i = 0; i < grid.length; i++) {
+            grid[i] = graph.addVertex();
+        }
+        for (final int vxId : removed) {
+            graph.removeVertex(vxId);
+        }
+        for (int i = 0; i < grid.length; i++) {
+            if (i % side > 0) {
+                graph.addTransaction(grid[i - 1], grid[i], i % 2 == 0);
+            }
+            if (i >= side) {
+                graph.addTransaction(grid[i], grid[i - side], true);
+            }
+        }
+
+        new HighDimensionEmbeddingArranger(2).arrange(graph);
+
+        // correlation between the grid distance and the arranged distance of every pair
+        double sumGrid = 0;
+        double sumArranged = 0;
+        double sumGridSquared = 0;
+        double sumArrangedSquared = 0;
+        double sumProduct = 0;
+        int pairs = 0;
+        for (int i = 0; i < grid.length; i++) {
+            for (int j = i + 1; j < grid.length; j++) {
+                final double gridDistance = Math.abs(i / side - j / side) + Math.abs(i % side - j % side);
+                final double arrangedDistance = Math.hypot(graph.getFloatValue(xAttr, grid[i]) - graph.getFloatValue(xAttr, grid[j]),
+                        graph.getFloatValue(yAttr, grid[i]) - graph.getFloatValue(yAttr, grid[j]));
+                sumGrid += gridDistance;
+                sumArranged += arrangedDistance;
+                sumGridSquared += gridDistance * gridDistance;
+                sumArrangedSquared += arrangedDistance * arrangedDistance;
+                sumProduct += gridDistance * arrangedDistance;
+                pairs++;
+            }
+        }
+        final double correlation = (pairs * sumProduct - sumGrid * sumArranged)
+                / Math.sqrt((pairs * sumGridSquared - sumGrid * sumGrid) * (pairs * sumArrangedSquared - sumArranged * sumArranged));
+        assertTrue(correlation > 0.9, "correlation " + correlation);
+    }
+
+    /**
+     * Arranging on an interrupted thread should stop with an
+     * InterruptedException.
+     *
+     * @throws InterruptedException
+     */
+    @Test(expectedExceptions = InterruptedException.class)
+    public void testInterrupted() throws InterruptedException {
+        final StoreGraph graph = new StoreGraph();
+        VisualConcept.VertexAttribute.X.ensure(graph);
+        VisualConcept.VertexAttribute.Y.ensure(graph);
+        VisualConcept.VertexAttribute.Z.ensure(graph);
+        graph.addTransaction(graph.addVertex(), graph.addVertex(), true);
+
+        Thread.currentThread().interrupt();
+        try {
+            new HighDimensionEmbeddingArranger(2).arrange(graph);
+        } finally {
+            Thread.interrupted();
+        }
+    }
+}
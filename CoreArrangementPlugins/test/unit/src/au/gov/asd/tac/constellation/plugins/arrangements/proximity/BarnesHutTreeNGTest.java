@@ -0,0 +1,184 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.plugins.arrangements.proximity;
+
+import java.util.Random;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Barnes-Hut Tree Test.
+ *
+ * @author sirius
+ */
+public class BarnesHutTreeNGTest {
+
+    private static final double K2 = 2.5;
+
+    public BarnesHutTreeNGTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+    }
+
+    @BeforeMethod
+    public void setUpMethod() throws Exception {
+    }
+
+    @AfterMethod
+    public void tearDownMethod() throws Exception {
+    }
+
+    private static float[][] randomCoordinates(final int dimensions, final int count, final long seed) {
+        final Random random = new Random(seed);
+        final float[][] coordinates = new float[dimensions][count];
+        for (int d = 0; d < dimensions; d++) {
+            for (int i = 0; i < count; i++) {
+                coordinates[d][i] = random.nextFloat() * 100;
+            }
+        }
+        return coordinates;
+    }
+
+    private static int[] identity(final int count) {
+        final int[] ids = new int[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = i;
+        }
+        return ids;
+    }
+
+    private static double[] exactForce(final float[][] coordinates, final int body, final int count) {
+        final double[] force = new double[coordinates.length];
+        for (int other = 0; other < count; other++) {
+            double distance2 = 0;
+            for (int d = 0; d < coordinates.length; d++) {
+                final double delta = coordinates[d][body] - coordinates[d][other];
+                distance2 += delta * delta;
+            }
+            if (distance2 > 0) {
+                for (int d = 0; d < coordinates.length; d++) {
+                    force[d] += (coordinates[d][body] - coordinates[d][other]) * K2 / distance2;
+                }
+            }
+        }
+        return force;
+    }
+
+    private static double length(final double[] vector) {
+        double length2 = 0;
+        for (final double value : vector) {
+            length2 += value * value;
+        }
+        return Math.sqrt(length2);
+    }
+
+    private void assertForces(final int dimensions, final double theta, final double tolerance) {
+        final int count = 500;
+        final float[][] coordinates = randomCoordinates(dimensions, count, 42);
+        final BarnesHutTree tree = new BarnesHutTree(dimensions);
+        tree.build(coordinates, identity(count), count);
+
+        for (int body = 0; body < count; body++) {
+            final double[] expected = exactForce(coordinates, body, count);
+            final double[] actual = new double[dimensions];
+            tree.repulse(body, K2, theta, actual);
+
+            final double[] error = new double[dimensions];
+            for (int d = 0; d < dimensions; d++) {
+                error[d] = actual[d] - expected[d];
+            }
+            assertTrue(length(error) <= tolerance * Math.max(1, length(expected)),
+                    "body " + body + " error " + length(error) + " force " + length(expected));
+        }
+    }
+
+    /**
+     * A theta of zero opens every cell, so the forces must match the exact
+     * calculation.
+     */
+    @Test
+    public void testExactForces2D() {
+        assertForces(2, 0, 1e-6);
+    }
+
+    @Test
+    public void testExactForces3D() {
+        assertForces(3, 0, 1e-6);
+    }
+
+    @Test
+    public void testApproximateForces2D() {
+        assertForces(2, 0.5, 0.1);
+    }
+
+    @Test
+    public void testApproximateForces3D() {
+        assertForces(3, 0.5, 0.1);
+    }
+
+    /**
+     * Coincident bodies must share a cell rather than subdividing forever, and
+     * should still repel bodies elsewhere with their combined mass.
+     */
+    @Test
+    public void testCoincidentBodies() {
+        final float[][] coordinates = {{1, 1, 1, 5}, {2, 2, 2, 2}};
+        final BarnesHutTree tree = new BarnesHutTree(2);
+        tree.build(coordinates, identity(4), 4);
+
+        final double[] force = new double[2];
+        tree.repulse(0, K2, 0, force);
+        assertEquals(force[0], -K2 / 4, 1e-9);
+        assertEquals(force[1], 0, 1e-9);
+
+        final double[] other = new double[2];
+        tree.repulse(3, K2, 0, other);
+        assertEquals(other[0], 3 * K2 / 4, 1e-9);
+        assertEquals(other[1], 0, 1e-9);
+    }
+
+    /**
+     * Only the specified bodies take part, so gaps left by removed vertices
+     * are ignored.
+     */
+    @Test
+    public void testBodySubset() {
+        final float[][] coordinates = {{0, 1000, 3}, {0, 1000, 4}};
+        final BarnesHutTree tree = new BarnesHutTree(2);
+        tree.build(coordinates, new int[]{0, 2}, 2);
+
+        final double[] force = new double[2];
+        tree.repulse(2, K2, 0.8, force);
+        assertEquals(force[0], 3 * K2 / 25, 1e-9);
+        assertEquals(force[1], 4 * K2 / 25, 1e-9);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidDimensions() {
+        new BarnesHutTree(4);
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.plugins.arrangements.spectral;
+
+import au.gov.asd.tac.constellation.graph.StoreGraph;
+import au.gov.asd.tac.constellation.plugins.arrangements.spectral.LanczosEigenSolver.SymmetricOperator;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Lanczos Eigen Solver Test.
+ *
+ * @author sirius
+ */
+public class LanczosEigenSolverNGTest {
+
+    public LanczosEigenSolverNGTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+    }
+
+    @BeforeMethod
+    public void setUpMethod() throws Exception {
+    }
+
+    @AfterMethod
+    public void tearDownMethod() throws Exception {
+    }
+
+    /**
+     * The Laplacian of a path of n vertices.
+     */
+    private static SymmetricOperator pathLaplacian(final int n) {
+        return new SymmetricOperator() {
+            @Override
+            public int getDimension() {
+                return n;
+            }
+
+            @Override
+            public void multiply(final double[] x, final double[] y) {
+                for (int i = 0; i < n; i++) {
+                    double sum = 0;
+                    if (i > 0) {
+                        sum += x[i] - x[i - 1];
+                    }
+                    if (i < n - 1) {
+                        sum += x[i] - x[i + 1];
+                    }
+                    y[i] = sum;
+                }
+            }
+        };
+    }
+
+    private static double[] ones(final int n) {
+        final double[] v = new double[n];
+        Arrays.fill(v, 1);
+        return v;
+    }
+
+    private static void assertEigenpair(final SymmetricOperator operator, final double value, final double[] vector, final double tolerance) {
+        final double[] product = new double[vector.length];
+        operator.multiply(vector, product);
+        double residual = 0;
+        double norm = 0;
+        for (int i = 0; i < vector.length; i++) {
+            residual += Math.pow(product[i] - value * vector[i], 2);
+            norm += vector[i] * vector[i];
+        }
+        assertEquals(norm, 1, 1e-9);
+        assertTrue(Math.sqrt(residual) < tolerance, "residual " + Math.sqrt(residual));
+    }
+
+    /**
+     * The eigenvalues of the Laplacian of a path are 2 - 2cos(k pi / n).
+     */
+    @Test
+    public void testPathLaplacian() throws InterruptedException {
+        final int n = 500;
+        final SymmetricOperator operator = pathLaplacian(n);
+        final LanczosEigenSolver solver = new LanczosEigenSolver(operator);
+        solver.deflate(ones(n));
+
+        assertTrue(solver.solve(3, null));
+        final double[] values = solver.getEigenvalues();
+        final double[][] vectors = solver.getEigenvectors();
+        assertEquals(values.length, 3);
+        for (int k = 1; k <= 3; k++) {
+            assertEquals(values[k - 1], 2 - 2 * Math.cos(k * Math.PI / n), 1e-9);
+            assertEigenpair(operator, values[k - 1], vectors[k - 1], 1e-6);
+        }
+
+        // Deflated vectors are excluded from the results.
+        double sum = 0;
+        for (final double entry : vectors[0]) {
+            sum += entry;
+        }
+        assertEquals(sum, 0, 1e-6);
+    }
+
+    /**
+     * Small operators are solved exactly once the basis spans the whole space.
+     */
+    @Test
+    public void testSmallOperator() throws InterruptedException {
+        final SymmetricOperator operator = pathLaplacian(4);
+        final LanczosEigenSolver solver = new LanczosEigenSolver(operator);
+        solver.deflate(ones(4));
+
+        assertTrue(solver.solve(5, null));
+        final double[] values = solver.getEigenvalues();
+        assertEquals(values.length, 3);
+        for (int k = 1; k <= 3; k++) {
+            assertEquals(values[k - 1], 2 - 2 * Math.cos(k * Math.PI / 4), 1e-9);
+        }
+    }
+
+    @Test(expectedExceptions = InterruptedException.class)
+    public void testInterrupted() throws InterruptedException {
+        final LanczosEigenSolver solver = new LanczosEigenSolver(pathLaplacian(100));
+        Thread.currentThread().interrupt();
+        solver.solve(2, null);
+    }
+
+    /**
+     * The first non-trivial eigenvector of a path orders its vertices, so the
+     * embedding should lay them out monotonically along the x axis.
+     */
+    @Test
+    public void testSpectralEmbeddingOfPath() throws InterruptedException {
+        final StoreGraph graph = new StoreGraph();
+        final int[] vertices = new int[50];
+        final Set<Integer> included = new HashSet<>();
+        for (int i = 0; i < vertices.length; i++) {
+            vertices[i] = graph.addVertex();
+            included.add(vertices[i]);
+            if (i > 0) {
+                graph.addTransaction(vertices[i - 1], vertices[i], false);
+            }
+        }
+
+        final Map<Integer, double[]> positions = GraphSpectrumEmbedder.spectralEmbedding(graph, included, null);
+        assertEquals(positions.size(), vertices.length);
+
+        final double direction = Math.signum(positions.get(vertices[1])[0] - positions.get(vertices[0])[0]);
+        for (int i = 1; i < vertices.length; i++) {
+            final double step = positions.get(vertices[i])[0] - positions.get(vertices[i - 1])[0];
+            assertTrue(step * direction > 0);
+        }
+    }
+}
@@ -33,6 +33,7 @@ import au.gov.asd.tac.constellation.plugins.parameters.types.FileParameterType.F
 import au.gov.asd.tac.constellation.plugins.parameters.types.SingleChoiceParameterType;
 import au.gov.asd.tac.constellation.plugins.parameters.types.SingleChoiceParameterType.SingleChoiceParameterValue;
 import au.gov.asd.tac.constellation.plugins.reporting.PluginReportUtilities;
+import au.gov.asd.tac.constellation.preferences.ApplicationPreferenceKeys;
 import au.gov.asd.tac.constellation.views.dataaccess.plugins.DataAccessPlugin;
 import au.gov.asd.tac.constellation.views.dataaccess.plugins.DataAccessPluginCoreType;
 import au.gov.asd.tac.constellation.views.dataaccess.plugins.importing.file.GraphFileImportProcessor;
@@ -46,6 +47,7 @@ import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.openide.util.Lookup;
+import org.openide.util.NbPreferences;
 import org.openide.util.NbBundle.Messages;
 import org.openide.util.lookup.ServiceProvider;
 import org.openide.util.lookup.ServiceProviders;
@@ -98,6 +100,11 @@ public class ImportGraphFilePlugin extends RecordStoreQueryPlugin implements Dat
         return "Import a Graph File";
     }
 
+    @Override
+    protected boolean isUndoRecorded() {
+        return NbPreferences.forModule(ApplicationPreferenceKeys.class).getBoolean(ApplicationPreferenceKeys.UNDO_RECORD_IMPORTS, ApplicationPreferenceKeys.UNDO_RECORD_IMPORTS_DEFAULT);
+    }
+
     @Override
     public PluginParameters createParameters() {
         final PluginParameters params = new PluginParameters();
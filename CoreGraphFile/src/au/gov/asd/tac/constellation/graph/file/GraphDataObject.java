@@ -15,6 +15,7 @@
  */
 package au.gov.asd.tac.constellation.graph.file;
 
+import au.gov.asd.tac.constellation.graph.file.io.GraphBinaryReader;
 import au.gov.asd.tac.constellation.graph.file.nebula.NebulaDataObject;
 import au.gov.asd.tac.constellation.graph.file.opener.GraphOpener;
 import java.awt.Color;
@@ -123,6 +124,11 @@ public final class GraphDataObject extends MultiDataObject implements OpenCookie
      */
     private Color graphColor;
 
+    /**
+     * Is the graph saved in binary format? Null until it is known.
+     */
+    private Boolean binaryFormat;
+
     /**
      * Create a MultiFileObject.
      *
@@ -136,6 +142,7 @@ public final class GraphDataObject extends MultiDataObject implements OpenCookie
         super(primaryFile, loader);
         gdo = null;
         graphColor = null;
+        binaryFormat = null;
     }
 
     @Override
@@ -190,6 +197,32 @@ public final class GraphDataObject extends MultiDataObject implements OpenCookie
         return s;
     }
 
+    /**
+     * Is the graph in this DataObject saved in binary format rather than JSON?
+     * <p>
+     * Unless it has been set, the format is determined from the contents of the
+     * file.
+     *
+     * @return True if the graph is saved in binary format, false otherwise.
+     */
+    public boolean isBinaryFormat() {
+        if (binaryFormat == null) {
+            binaryFormat = !isInMemory() && GraphBinaryReader.isBinaryGraph(FileUtil.toFile(getPrimaryFile()));
+        }
+
+        return binaryFormat;
+    }
+
+    /**
+     * Set the format that the graph in this DataObject is saved in.
+     *
+     * @param binaryFormat True to save the graph in binary format, false to
+     * save it as JSON.
+     */
+    public void setBinaryFormat(final boolean binaryFormat) {
+        this.binaryFormat = binaryFormat;
+    }
+
     public NebulaDataObject getNebulaDataObject() {
         return gdo;
     }
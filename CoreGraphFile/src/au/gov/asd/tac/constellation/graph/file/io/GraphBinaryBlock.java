@@ -0,0 +1,327 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.file.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A block of a binary graph file.
+ * <p>
+ * A block is written as a one byte codec, the length of its content, the
+ * number of bytes stored and then the stored bytes. Values are little-endian so
+ * that primitive columns can be copied in bulk on the common platforms.
+ *
+ * @author algol
+ */
+final class GraphBinaryBlock {
+
+    private static final byte RAW = 0;
+    private static final byte DEFLATED = 1;
+    private static final int HEADER_SIZE = 9;
+
+    // Blocks smaller than this aren't worth compressing.
+    private static final int MIN_COMPRESSED_SIZE = 1024;
+
+    private ByteBuffer buffer;
+
+    /**
+     * Create an empty block to write to.
+     *
+     * @param capacity The initial capacity of the block in bytes.
+     */
+    GraphBinaryBlock(final int capacity) {
+        buffer = ByteBuffer.allocate(Math.max(capacity, 16)).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private GraphBinaryBlock(final ByteBuffer buffer) {
+        this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private void ensureRemaining(final int bytes) {
+        if (buffer.remaining() < bytes) {
+            final long required = (long) buffer.position() + bytes;
+            final int capacity = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(required, buffer.capacity() * 2L));
+            if (capacity < required) {
+                throw new IllegalStateException("Graph block is too large");
+            }
+            final ByteBuffer grown = ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.flip();
+            grown.put(buffer);
+            buffer = grown;
+        }
+    }
+
+    void putByte(final byte value) {
+        ensureRemaining(Byte.BYTES);
+        buffer.put(value);
+    }
+
+    void putInt(final int value) {
+        ensureRemaining(Integer.BYTES);
+        buffer.putInt(value);
+    }
+
+    void putLong(final long value) {
+        ensureRemaining(Long.BYTES);
+        buffer.putLong(value);
+    }
+
+    void putDouble(final double value) {
+        ensureRemaining(Double.BYTES);
+        buffer.putDouble(value);
+    }
+
+    /**
+     * Write a String as its UTF-8 length followed by its bytes; null is
+     * written as a length of -1.
+     *
+     * @param value The String to write.
+     */
+    void putString(final String value) {
+        if (value == null) {
+            putInt(-1);
+        } else {
+            final byte[] bytes = IoUtilities.encode(value);
+            putInt(bytes.length);
+            ensureRemaining(bytes.length);
+            buffer.put(bytes);
+        }
+    }
+
+    void putBytes(final byte[] values, final int length) {
+        ensureRemaining(length);
+        buffer.put(values, 0, length);
+    }
+
+    void putShorts(final short[] values, final int length) {
+        ensureRemaining(length * Short.BYTES);
+        buffer.asShortBuffer().put(values, 0, length);
+        buffer.position(buffer.position() + length * Short.BYTES);
+    }
+
+    void putInts(final int[] values, final int length) {
+        ensureRemaining(length * Integer.BYTES);
+        buffer.asIntBuffer().put(values, 0, length);
+        buffer.position(buffer.position() + length * Integer.BYTES);
+    }
+
+    void putLongs(final long[] values, final int length) {
+        ensureRemaining(length * Long.BYTES);
+        buffer.asLongBuffer().put(values, 0, length);
+        buffer.position(buffer.position() + length * Long.BYTES);
+    }
+
+    void putFloats(final float[] values, final int length) {
+        ensureRemaining(length * Float.BYTES);
+        buffer.asFloatBuffer().put(values, 0, length);
+        buffer.position(buffer.position() + length * Float.BYTES);
+    }
+
+    void putDoubles(final double[] values, final int length) {
+        ensureRemaining(length * Double.BYTES);
+        buffer.asDoubleBuffer().put(values, 0, length);
+        buffer.position(buffer.position() + length * Double.BYTES);
+    }
+
+    byte getByte() {
+        return buffer.get();
+    }
+
+    int getInt() {
+        return buffer.getInt();
+    }
+
+    long getLong() {
+        return buffer.getLong();
+    }
+
+    double getDouble() {
+        return buffer.getDouble();
+    }
+
+    String getString() {
+        final int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        final String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, IoUtilities.UTF8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    byte[] getBytes(final int length) {
+        final byte[] values = new byte[length];
+        buffer.get(values);
+        return values;
+    }
+
+    short[] getShorts(final int length) {
+        final short[] values = new short[length];
+        buffer.asShortBuffer().get(values);
+        buffer.position(buffer.position() + length * Short.BYTES);
+        return values;
+    }
+
+    int[] getInts(final int length) {
+        final int[] values = new int[length];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + length * Integer.BYTES);
+        return values;
+    }
+
+    long[] getLongs(final int length) {
+        final long[] values = new long[length];
+        buffer.asLongBuffer().get(values);
+        buffer.position(buffer.position() + length * Long.BYTES);
+        return values;
+    }
+
+    float[] getFloats(final int length) {
+        final float[] values = new float[length];
+        buffer.asFloatBuffer().get(values);
+        buffer.position(buffer.position() + length * Float.BYTES);
+        return values;
+    }
+
+    double[] getDoubles(final int length) {
+        final double[] values = new double[length];
+        buffer.asDoubleBuffer().get(values);
+        buffer.position(buffer.position() + length * Double.BYTES);
+        return values;
+    }
+
+    /**
+     * Write this block to a channel.
+     *
+     * @param channel The channel to write to.
+     * @param compress If true, the block will be deflated if it is large
+     * enough to benefit.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    void write(final WritableByteChannel channel, final boolean compress) throws IOException {
+        buffer.flip();
+        final int rawLength = buffer.remaining();
+
+        ByteBuffer stored = buffer;
+        byte codec = RAW;
+        if (compress && rawLength >= MIN_COMPRESSED_SIZE) {
+            final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try {
+                deflater.setInput(buffer.array(), buffer.arrayOffset(), rawLength);
+                deflater.finish();
+                final byte[] out = new byte[rawLength];
+                int length = 0;
+                while (!deflater.finished() && length < out.length) {
+                    length += deflater.deflate(out, length, out.length - length);
+                }
+
+                // Keep the raw bytes if deflating didn't make them smaller.
+                if (deflater.finished()) {
+                    stored = ByteBuffer.wrap(out, 0, length);
+                    codec = DEFLATED;
+                }
+            } finally {
+                deflater.end();
+            }
+        }
+
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(codec);
+        header.putInt(rawLength);
+        header.putInt(stored.remaining());
+        header.flip();
+        writeFully(channel, header);
+        writeFully(channel, stored);
+    }
+
+    /**
+     * Read the next block from a channel.
+     *
+     * @param channel The channel to read from.
+     *
+     * @return The block, positioned at the start of its content.
+     *
+     * @throws IOException If an I/O error occurs.
+     * @throws GraphParseException If the block is corrupt.
+     */
+    static GraphBinaryBlock read(final ReadableByteChannel channel) throws IOException, GraphParseException {
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(channel, header);
+        header.flip();
+        final byte codec = header.get();
+        final int rawLength = header.getInt();
+        final int storedLength = header.getInt();
+        if (rawLength < 0 || storedLength < 0) {
+            throw new GraphParseException(String.format("Invalid block lengths %d and %d", rawLength, storedLength));
+        }
+
+        final ByteBuffer stored = ByteBuffer.allocate(storedLength);
+        readFully(channel, stored);
+        stored.flip();
+
+        switch (codec) {
+            case RAW:
+                return new GraphBinaryBlock(stored);
+            case DEFLATED:
+                final Inflater inflater = new Inflater();
+                try {
+                    inflater.setInput(stored.array(), 0, storedLength);
+                    final byte[] raw = new byte[rawLength];
+                    int length = 0;
+                    while (length < rawLength && !inflater.finished()) {
+                        final int inflated = inflater.inflate(raw, length, rawLength - length);
+                        if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                            break;
+                        }
+                        length += inflated;
+                    }
+                    if (length != rawLength) {
+                        throw new GraphParseException(String.format("Expected %d bytes in block, found %d", rawLength, length));
+                    }
+                    return new GraphBinaryBlock(ByteBuffer.wrap(raw));
+                } catch (final DataFormatException ex) {
+                    throw new GraphParseException(ex.getMessage(), ex);
+                } finally {
+                    inflater.end();
+                }
+            default:
+                throw new GraphParseException(String.format("Unknown block codec %d", codec));
+        }
+    }
+
+    private static void writeFully(final WritableByteChannel channel, final ByteBuffer src) throws IOException {
+        while (src.hasRemaining()) {
+            channel.write(src);
+        }
+    }
+
+    private static void readFully(final ReadableByteChannel channel, final ByteBuffer dst) throws IOException {
+        while (dst.hasRemaining()) {
+            if (channel.read(dst) < 0) {
+                throw new EOFException("Unexpected end of graph file");
+            }
+        }
+    }
+}
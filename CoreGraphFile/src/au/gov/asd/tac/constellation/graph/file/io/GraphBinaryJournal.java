@@ -0,0 +1,753 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.file.io;
+
+import au.gov.asd.tac.constellation.graph.Attribute;
+import au.gov.asd.tac.constellation.graph.Graph;
+import au.gov.asd.tac.constellation.graph.GraphElementType;
+import au.gov.asd.tac.constellation.graph.GraphReadMethods;
+import au.gov.asd.tac.constellation.graph.ReadableGraph;
+import au.gov.asd.tac.constellation.graph.StoreGraph;
+import au.gov.asd.tac.constellation.graph.attribute.io.AbstractGraphIOProvider;
+import au.gov.asd.tac.constellation.graph.attribute.io.GraphByteReader;
+import au.gov.asd.tac.constellation.graph.locking.DualGraph;
+import au.gov.asd.tac.constellation.utilities.gui.IoProgress;
+import au.gov.asd.tac.constellation.utilities.stream.ExtendedBuffer;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * An incremental autosave of a graph: a binary snapshot of the graph and a
+ * journal of the changes made since the snapshot was written.
+ * <p>
+ * Each checkpoint appends a segment to the journal containing the elements and
+ * attributes that have been removed and added since the previous checkpoint,
+ * followed by the attribute columns whose values have changed. Changes are
+ * found with the generations of the graph rather than its modification
+ * counters, since undo winds the counters back and a later edit could then
+ * bring them back to the values they had at the checkpoint. The segment is
+ * encoded directly from the graph while a read lock is held, so the graph is
+ * not copied.
+ * <p>
+ * Elements are identified in the journal by their index in journal order: the
+ * order of the elements in the snapshot, with removed elements dropped and
+ * added elements appended. Replay reproduces this order without needing the
+ * element ids of the saved graph, which aren't kept when a snapshot is read.
+ * An attribute whose definition has changed is removed and added again, and
+ * its whole column is written.
+ * <p>
+ * A full snapshot is written instead, and the journal discarded, when the
+ * journal has grown large enough that replaying it would cost more than
+ * reading a new snapshot, or when a column needs ancillary files.
+ * <p>
+ * {@link #readGraph} reads the snapshot and replays the journal. A segment
+ * that was only partly written when the application stopped is ignored.
+ *
+ * @author algol
+ */
+public final class GraphBinaryJournal {
+
+    private static final Logger LOGGER = Logger.getLogger(GraphBinaryJournal.class.getName());
+
+    /**
+     * The first int of every journal segment, "CSTJ" in little-endian order.
+     */
+    static final int MAGIC = 0x4a545343;
+
+    /**
+     * The number of segments after which the journal is compacted into a new
+     * snapshot.
+     */
+    public static final int MAX_SEGMENTS = 32;
+
+    private static final List<GraphElementType> ELEMENT_TYPES_FILE_ORDER = Arrays.asList(GraphElementType.GRAPH, GraphElementType.VERTEX, GraphElementType.TRANSACTION, GraphElementType.META);
+
+    private final File snapshotFile;
+    private final File journalFile;
+    private final GraphBinaryWriter writer = new GraphBinaryWriter();
+
+    private boolean hasSnapshot = false;
+    private long snapshotModificationCounter;
+    private int segmentCount;
+
+    // The state of the graph at the most recent checkpoint, with elements in journal order.
+    private long structureGeneration;
+    private int[] vertices;
+    private int[] transactions;
+    private int[] sources;
+    private int[] destinations;
+    private boolean[] directed;
+    private final Map<Integer, Attribute> attributes = new HashMap<>();
+    private final Map<Integer, Long> valueGenerations = new HashMap<>();
+
+    /**
+     * Construct a new journal for the given snapshot file.
+     * <p>
+     * The first checkpoint always writes a full snapshot, so any existing
+     * snapshot and journal will be replaced.
+     *
+     * @param snapshotFile The file to write snapshots to.
+     */
+    public GraphBinaryJournal(final File snapshotFile) {
+        this.snapshotFile = snapshotFile;
+        this.journalFile = getJournalFile(snapshotFile);
+    }
+
+    /**
+     * The journal file that belongs to a snapshot file.
+     *
+     * @param snapshotFile A snapshot file.
+     *
+     * @return The journal file for the snapshot.
+     */
+    public static File getJournalFile(final File snapshotFile) {
+        return new File(snapshotFile.getPath() + "_journal");
+    }
+
+    /**
+     * The number of segments written to the journal since the last snapshot.
+     *
+     * @return The number of segments in the journal.
+     */
+    public int getSegmentCount() {
+        return segmentCount;
+    }
+
+    /**
+     * Persist the changes made to a graph since the previous checkpoint.
+     *
+     * @param graph The graph to checkpoint.
+     * @param progress A progress indicator used when a snapshot is written.
+     *
+     * @return True if a full snapshot was written, false if the changes were
+     * appended to the journal or there were no changes.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    public boolean checkpoint(final Graph graph, final IoProgress progress) throws IOException {
+        final Segment segment;
+        final ReadableGraph rg = graph.getReadableGraph();
+        try {
+            if (isCompactionRequired()) {
+                writeSnapshot(rg, progress);
+                return true;
+            }
+
+            segment = encodeChanges(rg);
+            if (segment == null) {
+                return false;
+            }
+
+            // Ancillary files can't be journalled, so fall back to a snapshot.
+            if (!writer.getByteWriter().getFileMap().isEmpty()) {
+                writer.getByteWriter().reset();
+                writeSnapshot(rg, progress);
+                return true;
+            }
+        } finally {
+            rg.release();
+        }
+
+        appendSegment(segment);
+
+        structureGeneration = segment.structureGeneration;
+        vertices = segment.vertices;
+        transactions = segment.transactions;
+        sources = segment.sources;
+        destinations = segment.destinations;
+        directed = segment.directed;
+        attributes.clear();
+        attributes.putAll(segment.attributes);
+        valueGenerations.keySet().retainAll(attributes.keySet());
+        valueGenerations.putAll(segment.valueGenerations);
+        segmentCount++;
+
+        return false;
+    }
+
+    /**
+     * Delete the snapshot and the journal.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    public void delete() throws IOException {
+        Files.deleteIfExists(journalFile.toPath());
+        Files.deleteIfExists(snapshotFile.toPath());
+        hasSnapshot = false;
+    }
+
+    /**
+     * Must a full snapshot be written rather than a journal segment?
+     */
+    private boolean isCompactionRequired() {
+        return !hasSnapshot || !snapshotFile.isFile() || segmentCount >= MAX_SEGMENTS || journalFile.length() > snapshotFile.length();
+    }
+
+    /**
+     * Encode the changes made to the graph since the previous checkpoint as a
+     * journal segment.
+     *
+     * @param graph The graph.
+     *
+     * @return The segment, or null if nothing has changed.
+     */
+    private Segment encodeChanges(final GraphReadMethods graph) throws IOException {
+        final Segment segment = new Segment();
+        segment.header.putInt(MAGIC);
+        segment.header.putLong(snapshotModificationCounter);
+        segment.header.putLong(graph.getGlobalModificationCounter());
+        segment.header.putLong(graph.getStructureModificationCounter());
+        segment.header.putLong(graph.getAttributeModificationCounter());
+
+        // An attribute whose definition has changed is removed and added again.
+        segment.attributes = getAttributes(graph);
+        final List<Attribute> removedAttributes = new ArrayList<>();
+        for (final Attribute attr : attributes.values()) {
+            if (!attr.equals(segment.attributes.get(attr.getId()))) {
+                removedAttributes.add(attr);
+            }
+        }
+        final List<Attribute> addedAttributes = new ArrayList<>();
+        for (final Attribute attr : segment.attributes.values()) {
+            if (!attr.equals(attributes.get(attr.getId()))) {
+                addedAttributes.add(attr);
+            }
+        }
+
+        segment.structure.putInt(removedAttributes.size());
+        for (final Attribute attr : removedAttributes) {
+            segment.structure.putByte((byte) attr.getElementType().ordinal());
+            segment.structure.putString(attr.getName());
+        }
+
+        boolean isStructureChanged = false;
+        segment.structureGeneration = graph.getStructureGeneration();
+        if (segment.structureGeneration == -1 || segment.structureGeneration != structureGeneration) {
+            isStructureChanged = encodeElements(graph, segment);
+        } else {
+            segment.vertices = vertices;
+            segment.transactions = transactions;
+            segment.sources = sources;
+            segment.destinations = destinations;
+            segment.directed = directed;
+            segment.structure.putInt(0);
+            segment.structure.putInt(0);
+            segment.structure.putInt(0);
+            segment.structure.putInt(0);
+        }
+
+        segment.structure.putInt(addedAttributes.size());
+        for (final Attribute attr : addedAttributes) {
+            segment.structure.putByte((byte) attr.getElementType().ordinal());
+            GraphBinaryWriter.putDefinition(segment.structure, attr);
+        }
+
+        final List<Attribute> changedAttributes = new ArrayList<>();
+        for (final Attribute attr : segment.attributes.values()) {
+            final long valueGeneration = getValueGeneration(graph, attr.getId());
+            if (addedAttributes.contains(attr) || !Objects.equals(valueGenerations.get(attr.getId()), valueGeneration)) {
+                changedAttributes.add(attr);
+                segment.valueGenerations.put(attr.getId(), valueGeneration);
+            }
+        }
+
+        if (changedAttributes.isEmpty() && removedAttributes.isEmpty() && addedAttributes.isEmpty() && !isStructureChanged) {
+            return null;
+        }
+
+        segment.header.putInt(changedAttributes.size());
+        for (final Attribute attr : changedAttributes) {
+            segment.header.putByte((byte) attr.getElementType().ordinal());
+            segment.header.putString(attr.getName());
+            segment.header.putLong(graph.getValueModificationCounter(attr.getId()));
+            segment.columns.add(writer.encodeColumn(graph, attr, getElements(attr.getElementType(), segment.vertices, segment.transactions)));
+        }
+
+        return segment;
+    }
+
+    /**
+     * Encode the elements removed and added since the previous checkpoint, and
+     * work out the new journal order of the elements.
+     * <p>
+     * An element keeps its place in journal order for as long as it exists. A
+     * transaction id that has been reused for a transaction between different
+     * vertices is a removal and an addition; a reused vertex id needs no such
+     * care, since removing a vertex clears its values and removes its
+     * transactions, which changes their columns anyway.
+     *
+     * @return True if any elements were removed or added.
+     */
+    private boolean encodeElements(final GraphReadMethods graph, final Segment segment) {
+        final int[] vertexIndices = new int[graph.getVertexCapacity()];
+        Arrays.fill(vertexIndices, -1);
+        segment.vertices = new int[graph.getVertexCount()];
+        final int[] removedVertices = new int[vertices.length];
+        int removedVertexCount = 0;
+        int vertexCount = 0;
+        for (int i = 0; i < vertices.length; i++) {
+            if (graph.vertexExists(vertices[i])) {
+                vertexIndices[vertices[i]] = vertexCount;
+                segment.vertices[vertexCount++] = vertices[i];
+            } else {
+                removedVertices[removedVertexCount++] = i;
+            }
+        }
+        final int addedVertexCount = segment.vertices.length - vertexCount;
+        for (int position = 0; position < segment.vertices.length; position++) {
+            final int vxId = graph.getVertex(position);
+            if (vertexIndices[vxId] == -1) {
+                vertexIndices[vxId] = vertexCount;
+                segment.vertices[vertexCount++] = vxId;
+            }
+        }
+
+        final boolean[] isKnownTransaction = new boolean[graph.getTransactionCapacity()];
+        final int transactionCount = graph.getTransactionCount();
+        segment.transactions = new int[transactionCount];
+        segment.sources = new int[transactionCount];
+        segment.destinations = new int[transactionCount];
+        segment.directed = new boolean[transactionCount];
+        final int[] removedTransactions = new int[transactions.length];
+        int removedTransactionCount = 0;
+        int keptTransactionCount = 0;
+        for (int i = 0; i < transactions.length; i++) {
+            final int txId = transactions[i];
+            if (graph.transactionExists(txId) && graph.getTransactionSourceVertex(txId) == sources[i]
+                    && graph.getTransactionDestinationVertex(txId) == destinations[i] && isDirected(graph, txId) == directed[i]) {
+                isKnownTransaction[txId] = true;
+                segment.transactions[keptTransactionCount] = txId;
+                segment.sources[keptTransactionCount] = sources[i];
+                segment.destinations[keptTransactionCount] = destinations[i];
+                segment.directed[keptTransactionCount] = directed[i];
+                keptTransactionCount++;
+            } else {
+                removedTransactions[removedTransactionCount++] = i;
+            }
+        }
+        final int addedTransactionCount = transactionCount - keptTransactionCount;
+        final int[] addedSources = new int[addedTransactionCount];
+        final int[] addedDestinations = new int[addedTransactionCount];
+        final byte[] addedDirected = new byte[addedTransactionCount];
+        int i = keptTransactionCount;
+        for (int position = 0; position < transactionCount; position++) {
+            final int txId = graph.getTransaction(position);
+            if (!isKnownTransaction[txId]) {
+                segment.transactions[i] = txId;
+                segment.sources[i] = graph.getTransactionSourceVertex(txId);
+                segment.destinations[i] = graph.getTransactionDestinationVertex(txId);
+                segment.directed[i] = isDirected(graph, txId);
+                addedSources[i - keptTransactionCount] = vertexIndices[segment.sources[i]];
+                addedDestinations[i - keptTransactionCount] = vertexIndices[segment.destinations[i]];
+                addedDirected[i - keptTransactionCount] = segment.directed[i] ? (byte) 1 : (byte) 0;
+                i++;
+            }
+        }
+
+        segment.structure.putInt(removedTransactionCount);
+        segment.structure.putInts(removedTransactions, removedTransactionCount);
+        segment.structure.putInt(removedVertexCount);
+        segment.structure.putInts(removedVertices, removedVertexCount);
+        segment.structure.putInt(addedVertexCount);
+        segment.structure.putInt(addedTransactionCount);
+        segment.structure.putInts(addedSources, addedTransactionCount);
+        segment.structure.putInts(addedDestinations, addedTransactionCount);
+        segment.structure.putBytes(addedDirected, addedTransactionCount);
+
+        return removedTransactionCount > 0 || removedVertexCount > 0 || addedVertexCount > 0 || addedTransactionCount > 0;
+    }
+
+    /**
+     * Append a segment to the journal.
+     * <p>
+     * If the segment can't be written completely, the journal is truncated to
+     * its previous length.
+     */
+    private void appendSegment(final Segment segment) throws IOException {
+        try (final FileChannel channel = FileChannel.open(journalFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            final long start = channel.size();
+            try {
+                segment.header.write(channel, false);
+                segment.structure.write(channel, true);
+                for (final GraphBinaryBlock column : segment.columns) {
+                    column.write(channel, true);
+                }
+                channel.force(false);
+            } catch (final IOException ex) {
+                channel.truncate(start);
+                throw ex;
+            }
+        }
+    }
+
+    /**
+     * Write a full snapshot and discard the journal.
+     * <p>
+     * The snapshot is streamed from the graph, so the caller must hold a read
+     * lock for as long as this takes. The journal is deleted first: if the
+     * snapshot can't be written, the previous snapshot is at worst out of date
+     * rather than mismatched with its journal.
+     */
+    private void writeSnapshot(final GraphReadMethods graph, final IoProgress progress) throws IOException {
+        hasSnapshot = false;
+        Files.deleteIfExists(journalFile.toPath());
+
+        writer.writeGraphToZip(graph, snapshotFile.getPath(), progress);
+
+        vertices = new int[graph.getVertexCount()];
+        for (int position = 0; position < vertices.length; position++) {
+            vertices[position] = graph.getVertex(position);
+        }
+        transactions = new int[graph.getTransactionCount()];
+        sources = new int[transactions.length];
+        destinations = new int[transactions.length];
+        directed = new boolean[transactions.length];
+        for (int position = 0; position < transactions.length; position++) {
+            transactions[position] = graph.getTransaction(position);
+            sources[position] = graph.getTransactionSourceVertex(transactions[position]);
+            destinations[position] = graph.getTransactionDestinationVertex(transactions[position]);
+            directed[position] = isDirected(graph, transactions[position]);
+        }
+        attributes.clear();
+        attributes.putAll(getAttributes(graph));
+        valueGenerations.clear();
+        for (final int attrId : attributes.keySet()) {
+            valueGenerations.put(attrId, getValueGeneration(graph, attrId));
+        }
+
+        snapshotModificationCounter = graph.getGlobalModificationCounter();
+        structureGeneration = graph.getStructureGeneration();
+        segmentCount = 0;
+        hasSnapshot = true;
+    }
+
+    /**
+     * The attributes that are written, by id, in the order that they are
+     * written.
+     */
+    private Map<Integer, Attribute> getAttributes(final GraphReadMethods graph) throws IOException {
+        final Map<Integer, Attribute> attrs = new LinkedHashMap<>();
+        for (final GraphElementType elementType : ELEMENT_TYPES_FILE_ORDER) {
+            for (final Attribute attr : writer.getAttributes(graph, elementType)) {
+                attrs.put(attr.getId(), attr);
+            }
+        }
+
+        return attrs;
+    }
+
+    /**
+     * The value generation of an attribute, or its value modification counter
+     * for graphs that don't track generations.
+     */
+    private static long getValueGeneration(final GraphReadMethods graph, final int attrId) {
+        final long valueGeneration = graph.getValueGeneration(attrId);
+        return valueGeneration != -1 ? valueGeneration : graph.getValueModificationCounter(attrId);
+    }
+
+    private static boolean isDirected(final GraphReadMethods graph, final int txId) {
+        return graph.getTransactionDirection(txId) != Graph.UNDIRECTED;
+    }
+
+    private static int[] getElements(final GraphElementType elementType, final int[] vertices, final int[] transactions) {
+        switch (elementType) {
+            case VERTEX:
+                return vertices;
+            case TRANSACTION:
+                return transactions;
+            default:
+                return new int[]{0};
+        }
+    }
+
+    /**
+     * A journal segment encoded while the read lock was held, and the state
+     * of the graph that it brings the journal up to.
+     */
+    private static final class Segment {
+
+        private final GraphBinaryBlock header = new GraphBinaryBlock(1024);
+        private final GraphBinaryBlock structure = new GraphBinaryBlock(1024);
+        private final List<GraphBinaryBlock> columns = new ArrayList<>();
+
+        private long structureGeneration;
+        private int[] vertices;
+        private int[] transactions;
+        private int[] sources;
+        private int[] destinations;
+        private boolean[] directed;
+        private Map<Integer, Attribute> attributes;
+        private final Map<Integer, Long> valueGenerations = new HashMap<>();
+    }
+
+    /**
+     * Read an autosaved graph: the snapshot, with the journal replayed over
+     * it.
+     * <p>
+     * Snapshots that aren't in binary format, such as those written before
+     * autosaves were journalled, are read by {@link GraphJsonReader} and have
+     * no journal.
+     *
+     * @param snapshotFile The snapshot file.
+     * @param progress A progress indicator.
+     *
+     * @return A new Graph.
+     *
+     * @throws IOException If an I/O error occurs.
+     * @throws GraphParseException On graph parsing errors.
+     */
+    public static Graph readGraph(final File snapshotFile, final IoProgress progress) throws IOException, GraphParseException {
+        if (!GraphBinaryReader.isBinaryGraph(snapshotFile)) {
+            return new GraphJsonReader().readGraphZip(snapshotFile, progress);
+        }
+
+        final GraphByteReader byteReader;
+        try (final InputStream in = new BufferedInputStream(new FileInputStream(snapshotFile))) {
+            progress.start(100);
+            byteReader = new GraphByteReader(in);
+        }
+
+        final ExtendedBuffer binary = byteReader.read(GraphFileConstants.BINARY_GRAPH_ENTRY);
+        final GraphBinaryReader reader = new GraphBinaryReader();
+        final StoreGraph storeGraph;
+        try (final ReadableByteChannel channel = Channels.newChannel(binary.getInputStream())) {
+            storeGraph = reader.readStoreGraph(snapshotFile.getPath(), channel, byteReader, progress);
+        }
+
+        final File journalFile = getJournalFile(snapshotFile);
+        if (journalFile.isFile()) {
+            progress.progress("Replaying autosave journal...");
+            try (final FileChannel channel = FileChannel.open(journalFile.toPath(), StandardOpenOption.READ)) {
+                replay(channel, reader, storeGraph, byteReader);
+            }
+        }
+
+        final Graph graph = new DualGraph(storeGraph.getSchema().getFactory().createSchema(), storeGraph);
+        progress.finish();
+
+        return graph;
+    }
+
+    /**
+     * Rewrite an autosaved graph as a single graph file in the requested
+     * format, replaying and deleting its journal.
+     * <p>
+     * This is done before an autosave replaces the file it was made from, so
+     * that the file keeps the format it was saved in. Nothing is done if there
+     * is no journal and the snapshot is already in the requested format.
+     *
+     * @param snapshotFile The snapshot file.
+     * @param binary True to write the graph in binary format, false to write
+     * it as JSON.
+     * @param progress A progress indicator.
+     *
+     * @throws IOException If an I/O error occurs.
+     * @throws GraphParseException On graph parsing errors.
+     */
+    public static void compact(final File snapshotFile, final boolean binary, final IoProgress progress) throws IOException, GraphParseException {
+        final File journalFile = getJournalFile(snapshotFile);
+        if (!journalFile.exists() && GraphBinaryReader.isBinaryGraph(snapshotFile) == binary) {
+            return;
+        }
+
+        final Graph graph = readGraph(snapshotFile, progress);
+        final ReadableGraph rg = graph.getReadableGraph();
+        try {
+            if (binary) {
+                new GraphBinaryWriter().writeGraphToZip(rg, snapshotFile.getPath(), progress);
+            } else {
+                new GraphJsonWriter().writeGraphToZip(rg, snapshotFile.getPath(), progress);
+            }
+        } finally {
+            rg.release();
+        }
+
+        Files.deleteIfExists(journalFile.toPath());
+    }
+
+    /**
+     * Replay the segments of a journal over the snapshot they belong to.
+     * <p>
+     * Replay stops at the first segment that is incomplete or that doesn't
+     * belong to the snapshot; the graph is left as it was after the last
+     * complete segment.
+     */
+    private static void replay(final FileChannel channel, final GraphBinaryReader reader, final StoreGraph graph, final GraphByteReader byteReader) throws IOException {
+        final long snapshotModificationCounter = graph.getGlobalModificationCounter();
+        int[] vertices = new int[graph.getVertexCount()];
+        for (int position = 0; position < vertices.length; position++) {
+            vertices[position] = graph.getVertex(position);
+        }
+        int[] transactions = new int[graph.getTransactionCount()];
+        for (int position = 0; position < transactions.length; position++) {
+            transactions[position] = graph.getTransaction(position);
+        }
+
+        while (channel.position() < channel.size()) {
+            // Read the whole segment before applying any of it.
+            final long[] counters = new long[3];
+            final GraphElementType[] elementTypes;
+            final String[] labels;
+            final long[] valueCounters;
+            final GraphBinaryBlock structure;
+            final GraphBinaryBlock[] columns;
+            try {
+                final GraphBinaryBlock header = GraphBinaryBlock.read(channel);
+                if (header.getInt() != MAGIC || header.getLong() != snapshotModificationCounter) {
+                    LOGGER.log(Level.WARNING, "Autosave journal segment does not belong to snapshot; ignoring the rest of the journal");
+                    return;
+                }
+                for (int i = 0; i < counters.length; i++) {
+                    counters[i] = header.getLong();
+                }
+
+                final int columnCount = header.getInt();
+                elementTypes = new GraphElementType[columnCount];
+                labels = new String[columnCount];
+                valueCounters = new long[columnCount];
+                columns = new GraphBinaryBlock[columnCount];
+                for (int i = 0; i < columnCount; i++) {
+                    elementTypes[i] = GraphElementType.values()[header.getByte()];
+                    labels[i] = header.getString();
+                    valueCounters[i] = header.getLong();
+                }
+                structure = GraphBinaryBlock.read(channel);
+                for (int i = 0; i < columnCount; i++) {
+                    columns[i] = GraphBinaryBlock.read(channel);
+                }
+            } catch (final IOException | GraphParseException ex) {
+                LOGGER.log(Level.WARNING, "Incomplete autosave journal segment ignored", ex);
+                return;
+            }
+
+            try {
+                final int removedAttributeCount = structure.getInt();
+                for (int i = 0; i < removedAttributeCount; i++) {
+                    final int attrId = graph.getAttribute(GraphElementType.values()[structure.getByte()], structure.getString());
+                    if (attrId != Graph.NOT_FOUND) {
+                        graph.removeAttribute(attrId);
+                    }
+                }
+
+                final int[] removedTransactions = structure.getInts(structure.getInt());
+                for (final int index : removedTransactions) {
+                    graph.removeTransaction(transactions[index]);
+                }
+                transactions = removeElements(transactions, removedTransactions);
+
+                final int[] removedVertices = structure.getInts(structure.getInt());
+                for (final int index : removedVertices) {
+                    graph.removeVertex(vertices[index]);
+                }
+                vertices = removeElements(vertices, removedVertices);
+
+                final int addedVertexCount = structure.getInt();
+                vertices = Arrays.copyOf(vertices, vertices.length + addedVertexCount);
+                for (int i = vertices.length - addedVertexCount; i < vertices.length; i++) {
+                    vertices[i] = graph.addVertex();
+                }
+
+                final int addedTransactionCount = structure.getInt();
+                final int[] sources = structure.getInts(addedTransactionCount);
+                final int[] destinations = structure.getInts(addedTransactionCount);
+                final byte[] directed = structure.getBytes(addedTransactionCount);
+                final int keptTransactionCount = transactions.length;
+                transactions = Arrays.copyOf(transactions, keptTransactionCount + addedTransactionCount);
+                for (int i = 0; i < addedTransactionCount; i++) {
+                    transactions[keptTransactionCount + i] = graph.addTransaction(vertices[sources[i]], vertices[destinations[i]], directed[i] != 0);
+                }
+
+                final int addedAttributeCount = structure.getInt();
+                for (int i = 0; i < addedAttributeCount; i++) {
+                    final GraphElementType elementType = GraphElementType.values()[structure.getByte()];
+                    final String label = structure.getString();
+                    final String attrType = structure.getString();
+                    final String description = structure.getString();
+                    final Object defaultValue = GraphBinaryReader.getDefaultValue(structure, IoUtilities.getGraphElementTypeString(elementType), label);
+                    final String attributeMergerId = structure.getString();
+                    try {
+                        graph.addAttribute(elementType, attrType, label, description, defaultValue, attributeMergerId);
+                    } catch (final IllegalArgumentException ex) {
+                        // As when the snapshot is read, unknown META attribute types are skipped.
+                        if (elementType != GraphElementType.META) {
+                            throw ex;
+                        }
+                        LOGGER.warning(String.format("While adding %s attribute: %s", elementType, ex.getMessage()));
+                    }
+                }
+
+                for (int i = 0; i < columns.length; i++) {
+                    final int attrId = graph.getAttribute(elementTypes[i], labels[i]);
+                    if (attrId == Graph.NOT_FOUND) {
+                        // Unknown META attribute types are skipped when the snapshot is read.
+                        continue;
+                    }
+                    final AbstractGraphIOProvider ioProvider = reader.getProvider(graph.getAttributeType(attrId));
+                    if (ioProvider == null) {
+                        throw new GraphParseException("No IO provider found for attribute type: " + graph.getAttributeType(attrId));
+                    }
+                    reader.readColumn(columns[i], graph, attrId, labels[i], ioProvider, getElements(elementTypes[i], vertices, transactions), byteReader);
+                    graph.setValueModificationCounter(attrId, valueCounters[i]);
+                }
+            } catch (final GraphParseException ex) {
+                throw new IOException(ex.getMessage(), ex);
+            }
+
+            graph.setModificationCounters(counters[0], counters[1], counters[2]);
+        }
+    }
+
+    /**
+     * The elements that remain, in order, after removing those at the given
+     * indices.
+     *
+     * @param elements Elements in journal order.
+     * @param removed The indices of the removed elements, in ascending order.
+     *
+     * @return The remaining elements.
+     */
+    private static int[] removeElements(final int[] elements, final int[] removed) {
+        final int[] remaining = new int[elements.length - removed.length];
+        int r = 0;
+        int k = 0;
+        for (int i = 0; i < elements.length; i++) {
+            if (r < removed.length && removed[r] == i) {
+                r++;
+            } else {
+                remaining[k++] = elements[i];
+            }
+        }
+
+        return remaining;
+    }
+}
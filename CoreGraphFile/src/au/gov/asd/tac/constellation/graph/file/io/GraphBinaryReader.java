@@ -0,0 +1,416 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.file.io;
+
+import au.gov.asd.tac.constellation.graph.Graph;
+import au.gov.asd.tac.constellation.graph.GraphElementType;
+import au.gov.asd.tac.constellation.graph.StoreGraph;
+import au.gov.asd.tac.constellation.graph.attribute.io.AbstractGraphIOProvider;
+import au.gov.asd.tac.constellation.graph.attribute.io.GraphByteReader;
+import au.gov.asd.tac.constellation.graph.locking.DualGraph;
+import au.gov.asd.tac.constellation.graph.schema.SchemaFactory;
+import au.gov.asd.tac.constellation.graph.schema.SchemaFactoryUtilities;
+import au.gov.asd.tac.constellation.utilities.datastructure.ImmutableObjectCache;
+import au.gov.asd.tac.constellation.utilities.gui.IoProgress;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.ZipFile;
+import org.openide.util.Lookup;
+
+/**
+ * Read a graph in the binary columnar format written by
+ * {@link GraphBinaryWriter}.
+ *
+ * @author algol
+ */
+public final class GraphBinaryReader {
+
+    private static final Logger LOGGER = Logger.getLogger(GraphBinaryReader.class.getName());
+
+    private static final List<GraphElementType> ELEMENT_TYPES_FILE_ORDER = Arrays.asList(GraphElementType.GRAPH, GraphElementType.VERTEX, GraphElementType.TRANSACTION, GraphElementType.META);
+
+    // Track classes that know how to read particular types from JSON.
+    private final Map<String, AbstractGraphIOProvider> providers;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Map<Integer, Long> attrValCount = new HashMap<>();
+    private final Map<Integer, Integer> vertexMap = new HashMap<>();
+    private final Map<Integer, Integer> transactionMap = new HashMap<>();
+    private final ImmutableObjectCache immutableObjectCache = new ImmutableObjectCache();
+
+    /**
+     * Construct a new GraphBinaryReader.
+     */
+    public GraphBinaryReader() {
+        providers = new HashMap<>();
+
+        final Lookup.Result<AbstractGraphIOProvider> providerResults = Lookup.getDefault().lookupResult(AbstractGraphIOProvider.class);
+        providerResults.allInstances().forEach(provider -> providers.put(provider.getName(), provider));
+    }
+
+    /**
+     * Does the given file contain a graph in binary format?
+     *
+     * @param graphFile A graph file.
+     *
+     * @return True if the file is a zip file containing a binary graph, false
+     * otherwise.
+     */
+    public static boolean isBinaryGraph(final File graphFile) {
+        if (graphFile == null || !graphFile.isFile() || graphFile.length() == 0) {
+            return false;
+        }
+
+        try (final ZipFile zFile = new ZipFile(graphFile)) {
+            return zFile.getEntry(GraphFileConstants.BINARY_GRAPH_ENTRY) != null;
+        } catch (final IOException ex) {
+            LOGGER.log(Level.FINE, ex.getLocalizedMessage(), ex);
+            return false;
+        }
+    }
+
+    /**
+     * Read a binary graph into a graph.
+     * <p>
+     * As with {@link GraphJsonReader#readGraph}, element ids in the file are
+     * mapped to the ids of the newly added elements, and that mapping is given
+     * to the IO providers that read values.
+     *
+     * @param path The name of the file being read.
+     * @param channel The channel to read from.
+     * @param byteReader The reader for ancillary files in the graph file.
+     * @param progress A progress indicator.
+     *
+     * @return A new Graph.
+     *
+     * @throws IOException If an I/O error occurs.
+     * @throws GraphParseException On graph parsing errors.
+     */
+    public Graph readGraph(final String path, final ReadableByteChannel channel, final GraphByteReader byteReader, final IoProgress progress) throws IOException, GraphParseException {
+        final StoreGraph storeGraph = readStoreGraph(path, channel, byteReader, progress);
+        final Graph graph = new DualGraph(storeGraph.getSchema().getFactory().createSchema(), storeGraph);
+
+        if (progress != null) {
+            progress.finish();
+        }
+
+        return graph;
+    }
+
+    /**
+     * Read a binary graph into a StoreGraph.
+     * <p>
+     * The mapping of element ids in the file to element ids in the StoreGraph
+     * is retained by this reader so that further columns, such as those in an
+     * autosave journal, can be read with {@link #readColumn}.
+     *
+     * @param path The name of the file being read.
+     * @param channel The channel to read from.
+     * @param byteReader The reader for ancillary files in the graph file.
+     * @param progress A progress indicator.
+     *
+     * @return A new StoreGraph.
+     *
+     * @throws IOException If an I/O error occurs.
+     * @throws GraphParseException On graph parsing errors.
+     */
+    StoreGraph readStoreGraph(final String path, final ReadableByteChannel channel, final GraphByteReader byteReader, final IoProgress progress) throws IOException, GraphParseException {
+        final GraphBinaryBlock header = GraphBinaryBlock.read(channel);
+        if (header.getInt() != GraphBinaryWriter.MAGIC) {
+            throw new GraphParseException(String.format("%s is not a binary graph file", path));
+        }
+
+        final int version = header.getInt();
+        if (version < 1 || version > GraphBinaryWriter.VERSION) {
+            throw new GraphParseException(String.format("Version number %d is unknown.", version));
+        }
+
+        final Map<String, Integer> versionedItems = new HashMap<>();
+        final int itemCount = header.getInt();
+        for (int i = 0; i < itemCount; i++) {
+            final String item = header.getString();
+            versionedItems.put(item, header.getInt());
+        }
+
+        final String schemaFactoryName = header.getString();
+        final long globalModCount = header.getLong();
+        final long structModCount = header.getLong();
+        final long attrModCount = header.getLong();
+
+        SchemaFactory schemaFactory = SchemaFactoryUtilities.getSchemaFactory(schemaFactoryName);
+        if (schemaFactory == null) {
+            final SchemaFactory defaultSchemaFactory = SchemaFactoryUtilities.getDefaultSchemaFactory();
+            LOGGER.warning(String.format("Unknown schema factory '%s'; falling back to '%s'", schemaFactoryName, defaultSchemaFactory.getName()));
+            schemaFactory = defaultSchemaFactory;
+        }
+
+        final StoreGraph storeGraph = new StoreGraph(schemaFactory.createSchema());
+        GraphJsonReader.configureGraph(storeGraph, versionedItems);
+
+        vertexMap.clear();
+        transactionMap.clear();
+        for (final GraphElementType elementType : ELEMENT_TYPES_FILE_ORDER) {
+            readElements(channel, storeGraph, elementType, byteReader, progress);
+        }
+
+        storeGraph.setModificationCounters(globalModCount, structModCount, attrModCount);
+        for (final Map.Entry<Integer, Long> e : attrValCount.entrySet()) {
+            storeGraph.setValueModificationCounter(e.getKey(), e.getValue());
+        }
+
+        GraphJsonReader.updateGraph(storeGraph, versionedItems);
+
+        return storeGraph;
+    }
+
+    /**
+     * Read the attributes and elements of one element type.
+     */
+    private void readElements(final ReadableByteChannel channel, final StoreGraph graph, final GraphElementType elementType,
+            final GraphByteReader byteReader, final IoProgress progress) throws IOException, GraphParseException {
+        final String elementTypeLabel = IoUtilities.getGraphElementTypeString(elementType);
+        if (progress != null) {
+            progress.progress("Reading " + elementTypeLabel + " elements...");
+        }
+
+        final GraphBinaryBlock definitions = GraphBinaryBlock.read(channel);
+        final int attrCount = definitions.getInt();
+        final int[] attrIds = new int[attrCount];
+        final String[] attrLabels = new String[attrCount];
+        final String[] attrTypes = new String[attrCount];
+        final Map<String, Integer> attributes = new HashMap<>();
+        for (int i = 0; i < attrCount; i++) {
+            attrLabels[i] = definitions.getString();
+            attrTypes[i] = definitions.getString();
+            final String attrDesc = definitions.getString();
+            final Object attrDefault = getDefaultValue(definitions, elementTypeLabel, attrLabels[i]);
+            final String attributeMergerId = definitions.getString();
+            final long modCount = definitions.getLong();
+
+            try {
+                attrIds[i] = graph.addAttribute(elementType, attrTypes[i], attrLabels[i], attrDesc, attrDefault, attributeMergerId);
+                attributes.put(attrLabels[i], attrIds[i]);
+                attrValCount.put(attrIds[i], modCount);
+            } catch (final IllegalArgumentException ex) {
+                // As with JSON graphs, unknown META attribute types are skipped rather than losing the rest of the graph.
+                if (elementType != GraphElementType.META) {
+                    throw ex;
+                }
+
+                LOGGER.warning(String.format("While adding %s attribute: %s", elementType, ex.getMessage()));
+                attrIds[i] = Graph.NOT_FOUND;
+            }
+
+            if (attrIds[i] != Graph.NOT_FOUND && !providers.containsKey(attrTypes[i])) {
+                throw new GraphParseException("No IO provider found for attribute type: " + attrTypes[i]);
+            }
+        }
+
+        final int keyLength = definitions.getInt();
+        if (keyLength > 0) {
+            final int[] keyAttributes = new int[keyLength];
+            for (int i = 0; i < keyLength; i++) {
+                final String keyLabel = definitions.getString();
+                if (!attributes.containsKey(keyLabel)) {
+                    throw new GraphParseException(String.format("Key '%s' is not a valid attribute", keyLabel));
+                }
+                keyAttributes[i] = attributes.get(keyLabel);
+            }
+            graph.setPrimaryKey(elementType, keyAttributes);
+        }
+
+        final int elementCount = definitions.getInt();
+        final int[] elements;
+        if (elementType == GraphElementType.VERTEX) {
+            final GraphBinaryBlock structure = GraphBinaryBlock.read(channel);
+            final int[] fileIds = structure.getInts(elementCount);
+            elements = new int[elementCount];
+            for (int i = 0; i < elementCount; i++) {
+                elements[i] = graph.addVertex();
+                vertexMap.put(fileIds[i], elements[i]);
+            }
+        } else if (elementType == GraphElementType.TRANSACTION) {
+            final GraphBinaryBlock structure = GraphBinaryBlock.read(channel);
+            final int[] fileIds = structure.getInts(elementCount);
+            final int[] sources = structure.getInts(elementCount);
+            final int[] destinations = structure.getInts(elementCount);
+            final byte[] directed = structure.getBytes(elementCount);
+            elements = new int[elementCount];
+            for (int i = 0; i < elementCount; i++) {
+                final Integer src = vertexMap.get(sources[i]);
+                final Integer dst = vertexMap.get(destinations[i]);
+                if (src == null || dst == null) {
+                    throw new GraphParseException(String.format("Transaction %d refers to a missing vertex", fileIds[i]));
+                }
+                elements[i] = graph.addTransaction(src, dst, directed[i] != 0);
+                transactionMap.put(fileIds[i], elements[i]);
+            }
+        } else {
+            elements = new int[elementCount];
+        }
+
+        for (int i = 0; i < attrCount; i++) {
+            final GraphBinaryBlock column = GraphBinaryBlock.read(channel);
+            if (attrIds[i] != Graph.NOT_FOUND) {
+                readColumn(column, graph, attrIds[i], attrLabels[i], providers.get(attrTypes[i]), elements, byteReader);
+            }
+        }
+
+        if (progress != null && (elementType == GraphElementType.VERTEX || elementType == GraphElementType.TRANSACTION)) {
+            progress.progress(String.format("Vertices: %d; Transactions %d", graph.getVertexCount(), graph.getTransactionCount()));
+        }
+    }
+
+    /**
+     * Decode the default value of an attribute definition written by
+     * {@link GraphBinaryWriter#putDefinition}.
+     *
+     * @param block The block containing the definition.
+     * @param elementTypeLabel The element type of the attribute, for errors.
+     * @param attrLabel The label of the attribute, for errors.
+     *
+     * @return The default value.
+     *
+     * @throws GraphParseException If the default encoding is unknown.
+     */
+    static Object getDefaultValue(final GraphBinaryBlock block, final String elementTypeLabel, final String attrLabel) throws GraphParseException {
+        final byte defaultEncoding = block.getByte();
+        switch (defaultEncoding) {
+            case GraphBinaryWriter.NULL_DEFAULT:
+                return null;
+            case GraphBinaryWriter.NUMBER_DEFAULT:
+                return block.getDouble();
+            case GraphBinaryWriter.BOOLEAN_DEFAULT:
+                return block.getByte() != 0;
+            case GraphBinaryWriter.STRING_DEFAULT:
+                return block.getString();
+            default:
+                throw new GraphParseException(String.format("Unknown default encoding %d for '%s' attribute '%s'", defaultEncoding, elementTypeLabel, attrLabel));
+        }
+    }
+
+    /**
+     * The IO provider for an attribute type.
+     *
+     * @param attrType The attribute type.
+     *
+     * @return The IO provider, or null if there is none.
+     */
+    AbstractGraphIOProvider getProvider(final String attrType) {
+        return providers.get(attrType);
+    }
+
+    /**
+     * Set the values of an attribute from a column block.
+     */
+    void readColumn(final GraphBinaryBlock column, final StoreGraph graph, final int attrId, final String attrLabel,
+            final AbstractGraphIOProvider ioProvider, final int[] elements, final GraphByteReader byteReader) throws IOException, GraphParseException {
+        final int n = elements.length;
+        final byte encoding = column.getByte();
+        switch (encoding) {
+            case GraphBinaryWriter.INT_COLUMN: {
+                final int[] values = column.getInts(n);
+                for (int i = 0; i < n; i++) {
+                    graph.setIntValue(attrId, elements[i], values[i]);
+                }
+                break;
+            }
+            case GraphBinaryWriter.LONG_COLUMN: {
+                final long[] values = column.getLongs(n);
+                for (int i = 0; i < n; i++) {
+                    graph.setLongValue(attrId, elements[i], values[i]);
+                }
+                break;
+            }
+            case GraphBinaryWriter.FLOAT_COLUMN: {
+                final float[] values = column.getFloats(n);
+                for (int i = 0; i < n; i++) {
+                    graph.setFloatValue(attrId, elements[i], values[i]);
+                }
+                break;
+            }
+            case GraphBinaryWriter.DOUBLE_COLUMN: {
+                final double[] values = column.getDoubles(n);
+                for (int i = 0; i < n; i++) {
+                    graph.setDoubleValue(attrId, elements[i], values[i]);
+                }
+                break;
+            }
+            case GraphBinaryWriter.BOOLEAN_COLUMN: {
+                final byte[] values = column.getBytes(n);
+                for (int i = 0; i < n; i++) {
+                    graph.setBooleanValue(attrId, elements[i], values[i] != 0);
+                }
+                break;
+            }
+            case GraphBinaryWriter.BYTE_COLUMN: {
+                final byte[] values = column.getBytes(n);
+                for (int i = 0; i < n; i++) {
+                    graph.setByteValue(attrId, elements[i], values[i]);
+                }
+                break;
+            }
+            case GraphBinaryWriter.SHORT_COLUMN: {
+                final short[] values = column.getShorts(n);
+                for (int i = 0; i < n; i++) {
+                    graph.setShortValue(attrId, elements[i], values[i]);
+                }
+                break;
+            }
+            case GraphBinaryWriter.STRING_COLUMN: {
+                final String[] dictionary = readDictionary(column);
+                final int[] indices = column.getInts(n);
+                for (int i = 0; i < n; i++) {
+                    graph.setStringValue(attrId, elements[i], indices[i] < 0 ? null : dictionary[indices[i]]);
+                }
+                break;
+            }
+            case GraphBinaryWriter.PROVIDER_COLUMN: {
+                // Each distinct value is parsed once and handed to the IO provider for every element that has it.
+                final String[] dictionary = readDictionary(column);
+                final JsonNode[] nodes = new JsonNode[dictionary.length];
+                for (int d = 0; d < dictionary.length; d++) {
+                    nodes[d] = mapper.readTree(dictionary[d]).get(attrLabel);
+                }
+                final int[] indices = column.getInts(n);
+                for (int i = 0; i < n; i++) {
+                    if (indices[i] >= 0 && nodes[indices[i]] != null) {
+                        ioProvider.readObject(attrId, elements[i], nodes[indices[i]], graph, vertexMap, transactionMap, byteReader, immutableObjectCache);
+                    }
+                }
+                break;
+            }
+            default:
+                throw new GraphParseException(String.format("Unknown column encoding %d for attribute '%s'", encoding, attrLabel));
+        }
+    }
+
+    private static String[] readDictionary(final GraphBinaryBlock column) {
+        final String[] dictionary = new String[column.getInt()];
+        for (int d = 0; d < dictionary.length; d++) {
+            dictionary[d] = column.getString();
+        }
+        return dictionary;
+    }
+}
@@ -0,0 +1,633 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.file.io;
+
+import au.gov.asd.tac.constellation.graph.Attribute;
+import au.gov.asd.tac.constellation.graph.Graph;
+import au.gov.asd.tac.constellation.graph.GraphAttribute;
+import au.gov.asd.tac.constellation.graph.GraphElementType;
+import au.gov.asd.tac.constellation.graph.GraphReadMethods;
+import au.gov.asd.tac.constellation.graph.attribute.BooleanAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.ByteAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.DoubleAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.FloatAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.IntegerAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.LongAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.ShortAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.StringAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.io.AbstractGraphIOProvider;
+import au.gov.asd.tac.constellation.graph.attribute.io.GraphByteWriter;
+import au.gov.asd.tac.constellation.graph.schema.BareSchemaFactory;
+import au.gov.asd.tac.constellation.graph.schema.Schema;
+import au.gov.asd.tac.constellation.graph.versioning.UpdateProviderManager;
+import au.gov.asd.tac.constellation.utilities.file.FileExtensionConstants;
+import au.gov.asd.tac.constellation.utilities.gui.IoProgress;
+import au.gov.asd.tac.constellation.utilities.icon.DefaultCustomIconProvider;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.openide.util.Cancellable;
+
+/**
+ * Write a graph in a binary columnar format.
+ * <p>
+ * The graph is written as a sequence of blocks: a header, then for each element
+ * type a block of attribute definitions, a block of element ids and a block per
+ * attribute containing the values of that attribute for every element. Values
+ * of primitive attribute types are written in their native encoding, strings
+ * are dictionary encoded, and every other attribute type is written by its
+ * {@link AbstractGraphIOProvider} and dictionary encoded. Blocks may be
+ * individually compressed.
+ * <p>
+ * The graph is written to the same zip container as {@link GraphJsonWriter},
+ * so ancillary files and custom icons are stored exactly as they are for JSON
+ * graphs. {@link GraphJsonReader#readGraphZip} reads either format; JSON
+ * remains the interchange format.
+ *
+ * @author algol
+ */
+public final class GraphBinaryWriter implements Cancellable {
+
+    /**
+     * The current binary file format version.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * The first int of a binary graph file, "CSTB" in little-endian order.
+     */
+    static final int MAGIC = 0x42545343;
+
+    // Column encodings.
+    static final byte INT_COLUMN = 1;
+    static final byte LONG_COLUMN = 2;
+    static final byte FLOAT_COLUMN = 3;
+    static final byte DOUBLE_COLUMN = 4;
+    static final byte BOOLEAN_COLUMN = 5;
+    static final byte BYTE_COLUMN = 6;
+    static final byte SHORT_COLUMN = 7;
+    static final byte STRING_COLUMN = 8;
+    static final byte PROVIDER_COLUMN = 9;
+
+    // Default value encodings.
+    static final byte NULL_DEFAULT = 0;
+    static final byte NUMBER_DEFAULT = 1;
+    static final byte BOOLEAN_DEFAULT = 2;
+    static final byte STRING_DEFAULT = 3;
+
+    private static final List<GraphElementType> ELEMENT_TYPES_FILE_ORDER = Arrays.asList(GraphElementType.GRAPH, GraphElementType.VERTEX, GraphElementType.TRANSACTION, GraphElementType.META);
+
+    private final boolean compress;
+    private IoProgress progress;
+    private int counter;
+    private volatile boolean isCancelled;
+    private final GraphByteWriter byteWriter;
+    private final Map<String, AbstractGraphIOProvider> graphIoProviders = new HashMap<>();
+    private final List<String> customIconList = new ArrayList<>();
+
+    /**
+     * Construct a new GraphBinaryWriter that compresses its blocks.
+     */
+    public GraphBinaryWriter() {
+        this(true);
+    }
+
+    /**
+     * Construct a new GraphBinaryWriter.
+     *
+     * @param compress If true, blocks are deflated when that makes them
+     * smaller.
+     */
+    public GraphBinaryWriter(final boolean compress) {
+        this.compress = compress;
+        byteWriter = new GraphByteWriter();
+        for (final AbstractGraphIOProvider agiop : AbstractGraphIOProvider.getProviders()) {
+            graphIoProviders.put(agiop.getName(), agiop);
+        }
+    }
+
+    /**
+     * Serialise a graph to a zip file.
+     *
+     * @param graph The graph to serialise.
+     * @param path The path name of the file to write the graph to.
+     * @param progress A progress indicator.
+     *
+     * @return True if the user cancelled the write, false otherwise.
+     *
+     * @throws IOException If there was a problem writing.
+     */
+    public boolean writeGraphToZip(final GraphReadMethods graph, final String path, final IoProgress progress) throws IOException {
+        final OutputStream out = new FileOutputStream(path);
+        return writeGraphToZip(graph, out, progress);
+    }
+
+    /**
+     * Serialise a graph to a zip file.
+     * <p>
+     * The OutputStream will be wrapped in a ZipOutputStream. The graph is
+     * written to a temporary file first so that it can be stored in the zip
+     * file without being compressed a second time.
+     *
+     * @param graph The graph to serialise.
+     * @param out The OutputStream to write a zip file to.
+     * @param progress A progress indicator.
+     *
+     * @return True if the user cancelled the write, false otherwise.
+     *
+     * @throws IOException If there was a problem writing.
+     */
+    public boolean writeGraphToZip(final GraphReadMethods graph, final OutputStream out, final IoProgress progress) throws IOException {
+        this.progress = progress;
+
+        final File tmp = File.createTempFile("graph", FileExtensionConstants.BINARY);
+        try (final ZipOutputStream zout = new ZipOutputStream(out)) {
+            final CrcChannel crcChannel;
+            try (final FileChannel channel = FileChannel.open(tmp.toPath(), StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                crcChannel = new CrcChannel(channel);
+                writeGraphToChannel(graph, crcChannel);
+            }
+
+            if (!isCancelled) {
+                final ZipEntry zentry = new ZipEntry(GraphFileConstants.BINARY_GRAPH_ENTRY);
+                zentry.setMethod(ZipEntry.STORED);
+                zentry.setSize(crcChannel.size);
+                zentry.setCompressedSize(crcChannel.size);
+                zentry.setCrc(crcChannel.crc.getValue());
+                zout.putNextEntry(zentry);
+                try (final FileChannel channel = FileChannel.open(tmp.toPath(), StandardOpenOption.READ)) {
+                    final WritableByteChannel zchannel = Channels.newChannel(zout);
+                    long position = 0;
+                    while (position < crcChannel.size) {
+                        position += channel.transferTo(position, crcChannel.size - position, zchannel);
+                    }
+                }
+                zout.closeEntry();
+
+                GraphJsonWriter.writeAncillaryEntries(zout, byteWriter, customIconList);
+            }
+        } finally {
+            byteWriter.reset();
+            Files.deleteIfExists(tmp.toPath());
+        }
+
+        return isCancelled;
+    }
+
+    /**
+     * Serialise a graph in binary format to a channel.
+     * <p>
+     * Ancillary files are not written: only the graph is done here.
+     *
+     * @param graph The graph to serialise.
+     * @param channel The channel to write to.
+     *
+     * @return True if the user cancelled the write, false otherwise.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    public boolean writeGraphToChannel(final GraphReadMethods graph, final WritableByteChannel channel) throws IOException {
+        counter = 0;
+        isCancelled = false;
+
+        try {
+            if (progress != null) {
+                progress.start(graph.getVertexCount() + graph.getTransactionCount());
+            }
+
+            final GraphBinaryBlock header = new GraphBinaryBlock(1024);
+            header.putInt(MAGIC);
+            header.putInt(VERSION);
+
+            final Map<String, Integer> versionedItems = UpdateProviderManager.getLatestVersions();
+            header.putInt(versionedItems.size());
+            for (final Entry<String, Integer> itemVersion : versionedItems.entrySet()) {
+                header.putString(itemVersion.getKey());
+                header.putInt(itemVersion.getValue());
+            }
+
+            final Schema schema = graph.getSchema();
+            header.putString(schema == null ? new BareSchemaFactory().getName() : schema.getFactory().getName());
+            header.putLong(graph.getGlobalModificationCounter());
+            header.putLong(graph.getStructureModificationCounter());
+            header.putLong(graph.getAttributeModificationCounter());
+            header.write(channel, false);
+
+            for (final GraphElementType elementType : ELEMENT_TYPES_FILE_ORDER) {
+                if (!isCancelled) {
+                    writeElements(channel, graph, elementType);
+                }
+            }
+        } finally {
+            if (progress != null) {
+                progress.finish();
+            }
+        }
+
+        return isCancelled;
+    }
+
+    /**
+     * Write the attributes and elements of one element type.
+     *
+     * @param channel The channel to write to.
+     * @param graph The graph.
+     * @param elementType The GraphElementType being written.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    private void writeElements(final WritableByteChannel channel, final GraphReadMethods graph, final GraphElementType elementType) throws IOException {
+        final String elementTypeLabel = IoUtilities.getGraphElementTypeString(elementType);
+
+        if (progress != null) {
+            progress.progress("Writing " + elementTypeLabel + " elements...");
+        }
+
+        final List<Attribute> attrs = getAttributes(graph, elementType);
+
+        // The attribute definitions and primary key.
+        final GraphBinaryBlock definitions = new GraphBinaryBlock(256 * (attrs.size() + 1));
+        definitions.putInt(attrs.size());
+        for (final Attribute attr : attrs) {
+            putDefinition(definitions, attr);
+            definitions.putLong(graph.getValueModificationCounter(attr.getId()));
+        }
+
+        final int[] key = elementType == GraphElementType.VERTEX || elementType == GraphElementType.TRANSACTION ? graph.getPrimaryKey(elementType) : new int[0];
+        definitions.putInt(key.length);
+        for (final int keyAttribute : key) {
+            definitions.putString(graph.getAttributeName(keyAttribute));
+        }
+
+        // The elements: vertex ids, or transaction ids and their endpoints.
+        final int[] elements;
+        if (elementType == GraphElementType.VERTEX) {
+            elements = new int[graph.getVertexCount()];
+            for (int position = 0; position < elements.length; position++) {
+                elements[position] = graph.getVertex(position);
+            }
+        } else if (elementType == GraphElementType.TRANSACTION) {
+            elements = new int[graph.getTransactionCount()];
+            for (int position = 0; position < elements.length; position++) {
+                elements[position] = graph.getTransaction(position);
+            }
+        } else {
+            elements = new int[]{0};
+        }
+
+        definitions.putInt(elements.length);
+        definitions.write(channel, false);
+
+        if (elementType == GraphElementType.VERTEX || elementType == GraphElementType.TRANSACTION) {
+            final GraphBinaryBlock structure = new GraphBinaryBlock(elements.length * 13);
+            structure.putInts(elements, elements.length);
+            if (elementType == GraphElementType.TRANSACTION) {
+                final int[] endpoints = new int[elements.length];
+                for (int i = 0; i < elements.length; i++) {
+                    endpoints[i] = graph.getTransactionSourceVertex(elements[i]);
+                }
+                structure.putInts(endpoints, elements.length);
+                for (int i = 0; i < elements.length; i++) {
+                    endpoints[i] = graph.getTransactionDestinationVertex(elements[i]);
+                }
+                structure.putInts(endpoints, elements.length);
+                final byte[] directed = new byte[elements.length];
+                for (int i = 0; i < elements.length; i++) {
+                    directed[i] = graph.getTransactionDirection(elements[i]) != Graph.UNDIRECTED ? (byte) 1 : (byte) 0;
+                }
+                structure.putBytes(directed, elements.length);
+            }
+            structure.write(channel, compress);
+        }
+
+        if (elementType == GraphElementType.VERTEX) {
+            customIconList.clear();
+        }
+
+        // The values, one column per attribute.
+        for (final Attribute attr : attrs) {
+            if (isCancelled) {
+                return;
+            }
+
+            if (elementType == GraphElementType.VERTEX && "icon".equals(attr.getName())) {
+                for (final int vxId : elements) {
+                    // get each of the custom icon images present in the graph being saved
+                    final String iconName = graph.getStringValue(attr.getId(), vxId);
+                    if (!customIconList.contains(iconName) && DefaultCustomIconProvider.containsIcon(iconName)) {
+                        customIconList.add(iconName);
+                    }
+                }
+            }
+
+            encodeColumn(graph, attr, elements).write(channel, compress);
+        }
+
+        if (elementType == GraphElementType.VERTEX || elementType == GraphElementType.TRANSACTION) {
+            counter += elements.length;
+            if (progress != null) {
+                progress.progress(counter);
+            }
+        }
+    }
+
+    /**
+     * The attributes of an element type that are written, in the order that
+     * they are written.
+     *
+     * @param graph The graph.
+     * @param elementType The GraphElementType being written.
+     *
+     * @return The attributes to write.
+     *
+     * @throws IOException If an attribute type has no IO provider.
+     */
+    List<Attribute> getAttributes(final GraphReadMethods graph, final GraphElementType elementType) throws IOException {
+        final List<Attribute> attrs = new ArrayList<>();
+        for (int position = 0; position < graph.getAttributeCount(elementType); position++) {
+            final Attribute attr = new GraphAttribute(graph, graph.getAttribute(elementType, position));
+
+            // Don't write non-META object types; we don't know what they are.
+            if (!"object".equals(attr.getAttributeType()) || elementType == GraphElementType.META) {
+                if (!graphIoProviders.containsKey(attr.getAttributeType())) {
+                    throw new IOException("No IO provider found for attribute type: " + attr.getAttributeType());
+                }
+                attrs.add(attr);
+            }
+        }
+
+        return attrs;
+    }
+
+    /**
+     * Encode the definition of an attribute: its name, type, description,
+     * default value and merger.
+     *
+     * @param block The block to encode the definition in.
+     * @param attr The attribute.
+     */
+    static void putDefinition(final GraphBinaryBlock block, final Attribute attr) {
+        block.putString(attr.getName());
+        block.putString(attr.getAttributeType());
+        block.putString(attr.getDescription());
+
+        // Defaults are written the same way as GraphJsonWriter writes them.
+        final Object defaultValue = attr.getDefaultValue();
+        if (defaultValue == null) {
+            block.putByte(NULL_DEFAULT);
+        } else if (IntegerAttributeDescription.ATTRIBUTE_NAME.equals(attr.getAttributeType()) || FloatAttributeDescription.ATTRIBUTE_NAME.equals(attr.getAttributeType())) {
+            block.putByte(NUMBER_DEFAULT);
+            block.putDouble(((Number) defaultValue).doubleValue());
+        } else if (BooleanAttributeDescription.ATTRIBUTE_NAME.equals(attr.getAttributeType())) {
+            block.putByte(BOOLEAN_DEFAULT);
+            block.putByte((Boolean) defaultValue ? (byte) 1 : (byte) 0);
+        } else {
+            block.putByte(STRING_DEFAULT);
+            block.putString(defaultValue.toString());
+        }
+
+        block.putString(attr.getAttributeMerger() != null ? attr.getAttributeMerger().getId() : null);
+    }
+
+    /**
+     * The writer that IO providers write ancillary files to.
+     *
+     * @return The GraphByteWriter used by this writer.
+     */
+    GraphByteWriter getByteWriter() {
+        return byteWriter;
+    }
+
+    /**
+     * Encode the values of an attribute for the given elements as a block.
+     *
+     * @param graph The graph.
+     * @param attr The attribute to encode.
+     * @param elements The ids of the elements to encode values for.
+     *
+     * @return A block containing the column.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    GraphBinaryBlock encodeColumn(final GraphReadMethods graph, final Attribute attr, final int[] elements) throws IOException {
+        final int attrId = attr.getId();
+        final int n = elements.length;
+        final GraphBinaryBlock column;
+        switch (attr.getAttributeType()) {
+            case IntegerAttributeDescription.ATTRIBUTE_NAME: {
+                final int[] values = new int[n];
+                for (int i = 0; i < n; i++) {
+                    values[i] = graph.getIntValue(attrId, elements[i]);
+                }
+                column = new GraphBinaryBlock(1 + n * Integer.BYTES);
+                column.putByte(INT_COLUMN);
+                column.putInts(values, n);
+                break;
+            }
+            case LongAttributeDescription.ATTRIBUTE_NAME: {
+                final long[] values = new long[n];
+                for (int i = 0; i < n; i++) {
+                    values[i] = graph.getLongValue(attrId, elements[i]);
+                }
+                column = new GraphBinaryBlock(1 + n * Long.BYTES);
+                column.putByte(LONG_COLUMN);
+                column.putLongs(values, n);
+                break;
+            }
+            case FloatAttributeDescription.ATTRIBUTE_NAME: {
+                final float[] values = new float[n];
+                for (int i = 0; i < n; i++) {
+                    values[i] = graph.getFloatValue(attrId, elements[i]);
+                }
+                column = new GraphBinaryBlock(1 + n * Float.BYTES);
+                column.putByte(FLOAT_COLUMN);
+                column.putFloats(values, n);
+                break;
+            }
+            case DoubleAttributeDescription.ATTRIBUTE_NAME: {
+                final double[] values = new double[n];
+                for (int i = 0; i < n; i++) {
+                    values[i] = graph.getDoubleValue(attrId, elements[i]);
+                }
+                column = new GraphBinaryBlock(1 + n * Double.BYTES);
+                column.putByte(DOUBLE_COLUMN);
+                column.putDoubles(values, n);
+                break;
+            }
+            case BooleanAttributeDescription.ATTRIBUTE_NAME: {
+                final byte[] values = new byte[n];
+                for (int i = 0; i < n; i++) {
+                    values[i] = graph.getBooleanValue(attrId, elements[i]) ? (byte) 1 : (byte) 0;
+                }
+                column = new GraphBinaryBlock(1 + n);
+                column.putByte(BOOLEAN_COLUMN);
+                column.putBytes(values, n);
+                break;
+            }
+            case ByteAttributeDescription.ATTRIBUTE_NAME: {
+                final byte[] values = new byte[n];
+                for (int i = 0; i < n; i++) {
+                    values[i] = graph.getByteValue(attrId, elements[i]);
+                }
+                column = new GraphBinaryBlock(1 + n);
+                column.putByte(BYTE_COLUMN);
+                column.putBytes(values, n);
+                break;
+            }
+            case ShortAttributeDescription.ATTRIBUTE_NAME: {
+                final short[] values = new short[n];
+                for (int i = 0; i < n; i++) {
+                    values[i] = graph.getShortValue(attrId, elements[i]);
+                }
+                column = new GraphBinaryBlock(1 + n * Short.BYTES);
+                column.putByte(SHORT_COLUMN);
+                column.putShorts(values, n);
+                break;
+            }
+            case StringAttributeDescription.ATTRIBUTE_NAME: {
+                final Dictionary dictionary = new Dictionary(n);
+                for (int i = 0; i < n; i++) {
+                    dictionary.add(i, graph.getStringValue(attrId, elements[i]));
+                }
+                column = dictionary.toBlock(STRING_COLUMN);
+                break;
+            }
+            default: {
+                // Anything else is written by its IO provider, one JSON object per element.
+                final AbstractGraphIOProvider ioProvider = graphIoProviders.get(attr.getAttributeType());
+                final Dictionary dictionary = new Dictionary(n);
+                final ByteArrayOutputStream json = new ByteArrayOutputStream();
+                try (final JsonGenerator jg = new JsonFactory().createGenerator(json, JsonEncoding.UTF8)) {
+                    for (int i = 0; i < n; i++) {
+                        jg.writeStartObject();
+                        ioProvider.writeObject(attr, elements[i], jg, graph, byteWriter, false);
+                        jg.writeEndObject();
+                        jg.flush();
+
+                        // Separators between root values are irrelevant here.
+                        final String value = json.toString(IoUtilities.UTF8.name()).trim();
+                        json.reset();
+
+                        // An empty object means the provider didn't write the value because it is the default.
+                        dictionary.add(i, "{}".equals(value) ? null : value);
+                    }
+                }
+                column = dictionary.toBlock(PROVIDER_COLUMN);
+                break;
+            }
+        }
+
+        return column;
+    }
+
+    @Override
+    public boolean cancel() {
+        isCancelled = true;
+
+        return true;
+    }
+
+    /**
+     * A column of Strings stored as indices into a table of distinct values.
+     */
+    private static class Dictionary {
+
+        private final Map<String, Integer> indices = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+        private final int[] column;
+
+        Dictionary(final int size) {
+            column = new int[size];
+        }
+
+        void add(final int position, final String value) {
+            if (value == null) {
+                column[position] = -1;
+            } else {
+                column[position] = indices.computeIfAbsent(value, v -> {
+                    values.add(v);
+                    return values.size() - 1;
+                });
+            }
+        }
+
+        GraphBinaryBlock toBlock(final byte encoding) {
+            final GraphBinaryBlock block = new GraphBinaryBlock(5 + column.length * Integer.BYTES + values.size() * 16);
+            block.putByte(encoding);
+            block.putInt(values.size());
+            for (final String value : values) {
+                block.putString(value);
+            }
+            block.putInts(column, column.length);
+            return block;
+        }
+    }
+
+    /**
+     * A channel that calculates the size and CRC-32 of the bytes written to
+     * it, as required to store an entry in a zip file.
+     */
+    private static class CrcChannel implements WritableByteChannel {
+
+        private final WritableByteChannel channel;
+        private final CRC32 crc = new CRC32();
+        private long size = 0;
+
+        CrcChannel(final WritableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public int write(final ByteBuffer src) throws IOException {
+            final ByteBuffer written = src.duplicate();
+            final int count = channel.write(src);
+            written.limit(written.position() + count);
+            crc.update(written);
+            size += count;
+            return count;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return channel.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
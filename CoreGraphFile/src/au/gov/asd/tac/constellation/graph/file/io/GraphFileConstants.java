@@ -34,6 +34,10 @@ public final class GraphFileConstants {
      * The file extensions for ZipEntry files.
      */
     public static final String FILE_EXTENSION = FileExtensionConstants.TEXT;
+    /**
+     * The name of the ZipEntry holding a graph in binary format.
+     */
+    public static final String BINARY_GRAPH_ENTRY = "graph" + FileExtensionConstants.BINARY;
     /**
      * The field separator in CSV files.
      */
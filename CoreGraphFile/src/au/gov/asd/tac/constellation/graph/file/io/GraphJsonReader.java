@@ -43,6 +43,8 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -58,6 +60,9 @@ import org.openide.util.Lookup;
 
 /**
  * Read a graph in JSON format.
+ * <p>
+ * Graph files containing a graph in binary format are read with
+ * {@link GraphBinaryReader}.
  *
  * @author algol
  */
@@ -165,6 +170,15 @@ public final class GraphJsonReader {
                 DefaultCustomIconProvider.reloadIcons();
             }
 
+            // Graphs saved in binary format are read by GraphBinaryReader.
+            final ExtendedBuffer binary = byteReader.read(GraphFileConstants.BINARY_GRAPH_ENTRY);
+            if (binary != null) {
+                try (final ReadableByteChannel channel = Channels.newChannel(binary.getInputStream())) {
+                    graph = new GraphBinaryReader().readGraph(name, channel, byteReader, progress);
+                }
+                return graph;
+            }
+
             // Get the graph next.
             final String graphEntry = "graph" + GraphFileConstants.FILE_EXTENSION;
             final ExtendedBuffer in = byteReader.read(graphEntry);
@@ -374,14 +388,7 @@ public final class GraphJsonReader {
         }
 
         storeGraph = new StoreGraph(schemaFactory.createSchema());
-        UpdateProviderManager.getRegisteredProviders().forEach((item, itemProviders) -> {
-            if (item.appliesToGraph(storeGraph)) {
-                final int currentVersion = versionedItems.containsKey(item.getName()) ? versionedItems.get(item.getName()) : UpdateProvider.DEFAULT_VERSION;
-                if (itemProviders.containsKey(currentVersion)) {
-                    itemProviders.get(currentVersion).configure(storeGraph);
-                }
-            }
-        });
+        configureGraph(storeGraph, versionedItems);
 
         try {
             // Depending on the version number, different things could happen.
@@ -491,8 +498,46 @@ public final class GraphJsonReader {
             }
         }
 
+        updateGraph(storeGraph, versionedItems);
+
+        graph = new DualGraph(schemaFactory.createSchema(), storeGraph);
+
+        if (progress != null) {
+            progress.finish();
+        }
+
+        LOGGER.log(Level.FINE, "immutableObjectCache={0}", immutableObjectCache);
+
+        return graph;
+    }
+
+    /**
+     * Allow any relevant version providers to configure a newly created graph
+     * before it is read.
+     *
+     * @param storeGraph The graph being read.
+     * @param versionedItems The versions of items recorded in the file.
+     */
+    static void configureGraph(final StoreGraph storeGraph, final Map<String, Integer> versionedItems) {
+        UpdateProviderManager.getRegisteredProviders().forEach((item, itemProviders) -> {
+            if (item.appliesToGraph(storeGraph)) {
+                final int currentVersion = versionedItems.containsKey(item.getName()) ? versionedItems.get(item.getName()) : UpdateProvider.DEFAULT_VERSION;
+                if (itemProviders.containsKey(currentVersion)) {
+                    itemProviders.get(currentVersion).configure(storeGraph);
+                }
+            }
+        });
+    }
+
+    /**
+     * Allow any relevant version providers to update a graph that has been
+     * read if necessary.
+     *
+     * @param storeGraph The graph that has been read.
+     * @param versionedItems The versions of items recorded in the file.
+     */
+    static void updateGraph(final StoreGraph storeGraph, final Map<String, Integer> versionedItems) {
         try {
-            // Allow any relevant version providers to update the graph if necessary.
             UpdateProviderManager.getRegisteredProviders().forEach((item, itemProviders) -> {
                 if (item.appliesToGraph(storeGraph)) {
                     int currentVersion = versionedItems.containsKey(item.getName()) ? versionedItems.get(item.getName()) : UpdateProvider.DEFAULT_VERSION;
@@ -509,16 +554,6 @@ public final class GraphJsonReader {
 //            throw new PluginException(PluginNotificationLevel.ERROR, msg);
             LOGGER.log(Level.WARNING, msg, ex);
         }
-
-        graph = new DualGraph(schemaFactory.createSchema(), storeGraph);
-
-        if (progress != null) {
-            progress.finish();
-        }
-
-        LOGGER.log(Level.FINE, "immutableObjectCache={0}", immutableObjectCache);
-
-        return graph;
     }
 
     /**
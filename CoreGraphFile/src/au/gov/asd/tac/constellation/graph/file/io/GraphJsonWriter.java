@@ -182,34 +182,7 @@ public final class GraphJsonWriter implements Cancellable {
             zout.closeEntry();
             try {
                 if (!isCancelled) {
-                    for (final Map.Entry<String, File> entry : byteWriter.getFileMap().entrySet()) {
-                        final String reference = entry.getKey();
-                        final File f = entry.getValue();
-                        final ZipEntry ze = new ZipEntry(reference);
-                        zout.putNextEntry(ze);
-                        GraphByteWriter.copy(new FileInputStream(f), zout);
-                        zout.closeEntry();
-                    }
-                    for (final String iconName : customIconList) {
-                        // get each of the custom icon images present in the graph being saved
-                        final ConstellationIcon icon = IconManager.getIcon(iconName);
-                        final IconData iconData = icon.getIconData();
-                        String filePath = "";
-                        if (iconData instanceof FileIconData) {
-                            filePath = ((FileIconData) iconData).getFilePath();
-                        }
-                        if (!filePath.isEmpty()) {
-                            // prepare to put the icon image into the star/zip file
-                            try (final FileInputStream is = new FileInputStream(filePath)) {
-                                final ZipEntry zent = new ZipEntry(DefaultCustomIconProvider.USER_ICON_DIR + "/" + icon.getExtendedName() + FileExtensionConstants.PNG);
-                                // create an entry in the zip archive to store the icon image
-                                zout.putNextEntry(zent);
-                                // copy the icon image from the constellation folder to the zip archive
-                                IOUtils.copy(is, zout);
-                            }
-                            zout.closeEntry();
-                        }
-                    }
+                    writeAncillaryEntries(zout, byteWriter, customIconList);
                 }
             } finally {
                 byteWriter.reset();
@@ -219,6 +192,46 @@ public final class GraphJsonWriter implements Cancellable {
         return isCancelled;
     }
 
+    /**
+     * Write the ancillary files and custom icons of a graph to a zip file.
+     *
+     * @param zout The zip file being written.
+     * @param byteWriter The GraphByteWriter holding the ancillary files.
+     * @param customIconList The names of the custom icons used by the graph.
+     *
+     * @throws IOException If there was a problem writing.
+     */
+    static void writeAncillaryEntries(final ZipOutputStream zout, final GraphByteWriter byteWriter, final List<String> customIconList) throws IOException {
+        for (final Map.Entry<String, File> entry : byteWriter.getFileMap().entrySet()) {
+            final String reference = entry.getKey();
+            final File f = entry.getValue();
+            final ZipEntry ze = new ZipEntry(reference);
+            zout.putNextEntry(ze);
+            GraphByteWriter.copy(new FileInputStream(f), zout);
+            zout.closeEntry();
+        }
+        for (final String iconName : customIconList) {
+            // get each of the custom icon images present in the graph being saved
+            final ConstellationIcon icon = IconManager.getIcon(iconName);
+            final IconData iconData = icon.getIconData();
+            String filePath = "";
+            if (iconData instanceof FileIconData) {
+                filePath = ((FileIconData) iconData).getFilePath();
+            }
+            if (!filePath.isEmpty()) {
+                // prepare to put the icon image into the star/zip file
+                try (final FileInputStream is = new FileInputStream(filePath)) {
+                    final ZipEntry zent = new ZipEntry(DefaultCustomIconProvider.USER_ICON_DIR + "/" + icon.getExtendedName() + FileExtensionConstants.PNG);
+                    // create an entry in the zip archive to store the icon image
+                    zout.putNextEntry(zent);
+                    // copy the icon image from the constellation folder to the zip archive
+                    IOUtils.copy(is, zout);
+                }
+                zout.closeEntry();
+            }
+        }
+    }
+
     /**
      * Serialise a graph in JSON format to an OutputStream.
      * <p>
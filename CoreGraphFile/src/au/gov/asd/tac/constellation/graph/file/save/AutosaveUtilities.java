@@ -15,6 +15,7 @@
  */
 package au.gov.asd.tac.constellation.graph.file.save;
 
+import au.gov.asd.tac.constellation.graph.file.io.GraphBinaryJournal;
 import au.gov.asd.tac.constellation.preferences.ApplicationPreferenceKeys;
 import au.gov.asd.tac.constellation.utilities.file.FileExtensionConstants;
 import java.io.File;
@@ -23,7 +24,9 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.prefs.Preferences;
@@ -46,6 +49,7 @@ public final class AutosaveUtilities {
     public static final String DT = "dt";
     private static final Logger LOGGER = Logger.getLogger(AutosaveUtilities.class.getName());
     private static final String AUTOSAVE_DIR = "Autosave";
+    private static final Map<String, GraphBinaryJournal> JOURNALS = new ConcurrentHashMap<>();
 
     private AutosaveUtilities() {
         throw new IllegalStateException("Utility class");
@@ -85,6 +89,20 @@ public final class AutosaveUtilities {
         return saveDir.listFiles((dir, name) -> name.endsWith(ext));
     }
 
+    /**
+     * The autosave journal of a graph.
+     * <p>
+     * The journal writes the graph's autosave (.star) file, and records the
+     * changes made since then in a .star_journal file.
+     *
+     * @param id The id of the graph from ReadableGraph.getId().
+     *
+     * @return The autosave journal of the graph.
+     */
+    public static GraphBinaryJournal getJournal(final String id) {
+        return JOURNALS.computeIfAbsent(id, k -> new GraphBinaryJournal(new File(getAutosaveDir(), id + FileExtensionConstants.STAR)));
+    }
+
     /**
      * Delete the 
      * files belonging to the specified graph id.
@@ -97,6 +115,7 @@ public final class AutosaveUtilities {
     public static void deleteAutosave(final String id) {
         final File dir = getAutosaveDir();
         final File f = new File(dir, id + FileExtensionConstants.STAR_AUTOSAVE);
+        JOURNALS.remove(id);
         deleteAutosave(f);
     }
 
@@ -104,7 +123,7 @@ public final class AutosaveUtilities {
      * Delete a pair of autosave files.
      * <p>
      * If the .star is given, the matching .star_auto will be deleted, and vice
-     * versa.
+     * versa. Any .star_journal is also deleted.
      *
      * @param f A .star or .star_auto to be deleted.
      */
@@ -129,6 +148,15 @@ public final class AutosaveUtilities {
             if (!f2IsDeleted) {
                 //TODO: Handle case where file not successfully deleted
             }
+
+            final File star = path.endsWith(FileExtensionConstants.STAR) ? f : f2;
+            final File journal = GraphBinaryJournal.getJournalFile(star);
+            if (journal.exists()) {
+                final boolean journalIsDeleted = journal.delete();
+                if (!journalIsDeleted) {
+                    LOGGER.log(Level.WARNING, "Unable to remove autosave journal: {0}", journal);
+                }
+            }
         }
     }
 
@@ -240,5 +268,17 @@ public final class AutosaveUtilities {
                 }
             }
         }
+
+        // Find .star_journal files without a .star.
+        for (final File journal : getAutosaves(FileExtensionConstants.STAR_JOURNAL)) {
+            final String journals = journal.getPath();
+            final File star = new File(journals.substring(0, journals.length() - 8));
+            if (!star.exists()) {
+                final boolean journalIsDeleted = journal.delete();
+                if (!journalIsDeleted) {
+                    LOGGER.log(Level.WARNING, "Unable to remove autosave journal: {0}", journal);
+                }
+            }
+        }
     }
 }
@@ -0,0 +1,407 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.file.io;
+
+import au.gov.asd.tac.constellation.graph.Graph;
+import au.gov.asd.tac.constellation.graph.GraphElementType;
+import au.gov.asd.tac.constellation.graph.ReadableGraph;
+import au.gov.asd.tac.constellation.graph.StoreGraph;
+import au.gov.asd.tac.constellation.graph.WritableGraph;
+import au.gov.asd.tac.constellation.graph.attribute.FloatAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.StringAttributeDescription;
+import au.gov.asd.tac.constellation.graph.locking.DualGraph;
+import au.gov.asd.tac.constellation.utilities.file.FileExtensionConstants;
+import au.gov.asd.tac.constellation.utilities.gui.TextIoProgress;
+import java.io.File;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import javax.swing.SwingUtilities;
+import javax.swing.undo.UndoManager;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Graph Binary Journal Test.
+ *
+ * @author algol
+ */
+public class GraphBinaryJournalNGTest {
+
+    private static final int VERTEX_COUNT = 100;
+
+    private Graph graph;
+    private File snapshotFile;
+    private GraphBinaryJournal journal;
+
+    public GraphBinaryJournalNGTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+    }
+
+    @BeforeMethod
+    public void setUpMethod() throws Exception {
+        final StoreGraph storeGraph = new StoreGraph();
+        final int nameAttr = storeGraph.addAttribute(GraphElementType.VERTEX, StringAttributeDescription.ATTRIBUTE_NAME, "name", null, null, null);
+        final int xAttr = storeGraph.addAttribute(GraphElementType.VERTEX, FloatAttributeDescription.ATTRIBUTE_NAME, "x", null, 0.0, null);
+        for (int i = 0; i < VERTEX_COUNT; i++) {
+            final int vxId = storeGraph.addVertex();
+            storeGraph.setStringValue(nameAttr, vxId, "name" + i);
+            storeGraph.setFloatValue(xAttr, vxId, i);
+        }
+        graph = new DualGraph(null, storeGraph);
+
+        snapshotFile = File.createTempFile("journal", FileExtensionConstants.STAR);
+        journal = new GraphBinaryJournal(snapshotFile);
+    }
+
+    @AfterMethod
+    public void tearDownMethod() throws Exception {
+        journal.delete();
+    }
+
+    /**
+     * Value changes should be appended to the journal and replayed when the
+     * graph is read.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testValueChangesAreJournalled() throws Exception {
+        assertTrue(journal.checkpoint(graph, new TextIoProgress(false)));
+        final long snapshotLength = snapshotFile.length();
+
+        setX(1, 1000F);
+        assertFalse(journal.checkpoint(graph, new TextIoProgress(false)));
+        setX(2, 2000F);
+        assertFalse(journal.checkpoint(graph, new TextIoProgress(false)));
+
+        // Nothing has changed, so nothing is written.
+        assertFalse(journal.checkpoint(graph, new TextIoProgress(false)));
+
+        assertEquals(journal.getSegmentCount(), 2);
+        assertEquals(snapshotFile.length(), snapshotLength);
+        assertTrue(GraphBinaryJournal.getJournalFile(snapshotFile).isFile());
+
+        final Graph readGraph = GraphBinaryJournal.readGraph(snapshotFile, new TextIoProgress(false));
+        assertX(readGraph, 1, 1000F);
+        assertX(readGraph, 2, 2000F);
+        assertX(readGraph, 3, 3F);
+        assertModificationCounters(readGraph);
+    }
+
+    /**
+     * A change made after an undo should be journalled even though the undo
+     * has wound the modification counters back to their values at the
+     * previous checkpoint.
+     *
+     * @throws Exception
+     */
+    @Test(timeOut = 30000)
+    public void testChangeAfterUndoIsJournalled() throws Exception {
+        final UndoManager undoManager = new UndoManager();
+        ((DualGraph) graph).setUndoManager(undoManager);
+
+        journal.checkpoint(graph, new TextIoProgress(false));
+        setX(1, 1000F);
+        assertFalse(journal.checkpoint(graph, new TextIoProgress(false)));
+
+        // Undo happens on a thread of its own, so wait for the old value to come back.
+        SwingUtilities.invokeAndWait(undoManager::undo);
+        while (getX(graph, 1) != 1F) {
+            Thread.sleep(10);
+        }
+
+        setX(1, 2000F);
+        assertFalse(journal.checkpoint(graph, new TextIoProgress(false)));
+        assertEquals(journal.getSegmentCount(), 2);
+
+        final Graph readGraph = GraphBinaryJournal.readGraph(snapshotFile, new TextIoProgress(false));
+        assertX(readGraph, 1, 2000F);
+    }
+
+    /**
+     * Added and removed elements should be appended to the journal rather
+     * than writing a new snapshot.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testStructureChangesAreJournalled() throws Exception {
+        journal.checkpoint(graph, new TextIoProgress(false));
+        final long snapshotLength = snapshotFile.length();
+
+        WritableGraph wg = graph.getWritableGraph("Add", true);
+        try {
+            final int nameAttr = wg.getAttribute(GraphElementType.VERTEX, "name");
+            final int xAttr = wg.getAttribute(GraphElementType.VERTEX, "x");
+            final int vxId = wg.addVertex();
+            wg.setStringValue(nameAttr, vxId, "name" + VERTEX_COUNT);
+            wg.setFloatValue(xAttr, vxId, 5000F);
+            wg.addTransaction(wg.getVertex(1), vxId, true);
+            wg.addTransaction(wg.getVertex(2), wg.getVertex(3), false);
+        } finally {
+            wg.commit();
+        }
+        assertFalse(journal.checkpoint(graph, new TextIoProgress(false)));
+
+        wg = graph.getWritableGraph("Remove", true);
+        try {
+            wg.removeVertex(wg.getVertex(0));
+            wg.removeTransaction(wg.getTransaction(1));
+        } finally {
+            wg.commit();
+        }
+        setX(4, 4000F);
+        assertFalse(journal.checkpoint(graph, new TextIoProgress(false)));
+
+        assertEquals(journal.getSegmentCount(), 2);
+        assertEquals(snapshotFile.length(), snapshotLength);
+
+        final Graph readGraph = GraphBinaryJournal.readGraph(snapshotFile, new TextIoProgress(false));
+        assertSameGraph(readGraph);
+        assertX(readGraph, VERTEX_COUNT, 5000F);
+        assertX(readGraph, 4, 4000F);
+        assertModificationCounters(readGraph);
+    }
+
+    /**
+     * A transaction id reused for a transaction between different vertices
+     * should be journalled as a removal and an addition.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testReusedTransactionIsJournalled() throws Exception {
+        WritableGraph wg = graph.getWritableGraph("Add", true);
+        try {
+            wg.addTransaction(wg.getVertex(1), wg.getVertex(2), true);
+        } finally {
+            wg.commit();
+        }
+        journal.checkpoint(graph, new TextIoProgress(false));
+
+        wg = graph.getWritableGraph("Replace", true);
+        try {
+            final int txId = wg.getTransaction(0);
+            wg.removeTransaction(txId);
+            assertEquals(wg.addTransaction(wg.getVertex(3), wg.getVertex(4), true), txId);
+        } finally {
+            wg.commit();
+        }
+        assertFalse(journal.checkpoint(graph, new TextIoProgress(false)));
+
+        assertSameGraph(GraphBinaryJournal.readGraph(snapshotFile, new TextIoProgress(false)));
+    }
+
+    /**
+     * Added, removed and redefined attributes should be appended to the
+     * journal rather than writing a new snapshot.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testAttributeChangesAreJournalled() throws Exception {
+        journal.checkpoint(graph, new TextIoProgress(false));
+
+        final WritableGraph wg = graph.getWritableGraph("Attributes", true);
+        try {
+            final int yAttr = wg.addAttribute(GraphElementType.VERTEX, FloatAttributeDescription.ATTRIBUTE_NAME, "y", "The y coordinate", 1.0F, null);
+            wg.setFloatValue(yAttr, wg.getVertex(5), 500F);
+            final int labelAttr = wg.addAttribute(GraphElementType.TRANSACTION, StringAttributeDescription.ATTRIBUTE_NAME, "label", null, null, null);
+            wg.setStringValue(labelAttr, wg.addTransaction(wg.getVertex(5), wg.getVertex(6), true), "label");
+            wg.updateAttributeDefaultValue(wg.getAttribute(GraphElementType.VERTEX, "x"), 7.0F);
+        } finally {
+            wg.commit();
+        }
+        assertFalse(journal.checkpoint(graph, new TextIoProgress(false)));
+
+        final Graph readGraph = GraphBinaryJournal.readGraph(snapshotFile, new TextIoProgress(false));
+        assertSameGraph(readGraph);
+        final ReadableGraph rg = readGraph.getReadableGraph();
+        try {
+            final int yAttr = rg.getAttribute(GraphElementType.VERTEX, "y");
+            assertEquals(rg.getAttributeDescription(yAttr), "The y coordinate");
+            assertEquals(rg.getAttributeDefaultValue(yAttr), 1.0F);
+            assertEquals(rg.getAttributeDefaultValue(rg.getAttribute(GraphElementType.VERTEX, "x")), 7.0F);
+            assertEquals(rg.getStringValue(rg.getAttribute(GraphElementType.TRANSACTION, "label"), rg.getTransaction(0)), "label");
+        } finally {
+            rg.release();
+        }
+        assertX(readGraph, 1, 1F);
+    }
+
+    /**
+     * Once the journal has grown too long, the next checkpoint should write a
+     * new snapshot and discard the journal.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testLongJournalWritesSnapshot() throws Exception {
+        journal.checkpoint(graph, new TextIoProgress(false));
+
+        boolean isSnapshot = false;
+        float x = 1000F;
+        for (int i = 0; i <= GraphBinaryJournal.MAX_SEGMENTS && !isSnapshot; i++) {
+            x = 1000F + i;
+            setX(1, x);
+            isSnapshot = journal.checkpoint(graph, new TextIoProgress(false));
+        }
+
+        assertTrue(isSnapshot);
+        assertEquals(journal.getSegmentCount(), 0);
+        assertFalse(GraphBinaryJournal.getJournalFile(snapshotFile).exists());
+        assertX(GraphBinaryJournal.readGraph(snapshotFile, new TextIoProgress(false)), 1, x);
+    }
+
+    /**
+     * A segment that was only partly written should be ignored.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testIncompleteSegmentIgnored() throws Exception {
+        journal.checkpoint(graph, new TextIoProgress(false));
+        setX(1, 1000F);
+        journal.checkpoint(graph, new TextIoProgress(false));
+        final File journalFile = GraphBinaryJournal.getJournalFile(snapshotFile);
+        final long completeLength = journalFile.length();
+        setX(2, 2000F);
+        journal.checkpoint(graph, new TextIoProgress(false));
+
+        try (final FileChannel channel = FileChannel.open(journalFile.toPath(), StandardOpenOption.WRITE)) {
+            channel.truncate(completeLength + (journalFile.length() - completeLength) / 2);
+        }
+
+        final Graph readGraph = GraphBinaryJournal.readGraph(snapshotFile, new TextIoProgress(false));
+        assertX(readGraph, 1, 1000F);
+        assertX(readGraph, 2, 2F);
+    }
+
+    /**
+     * Compacting should replay the journal into a graph file of the requested
+     * format.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testCompact() throws Exception {
+        journal.checkpoint(graph, new TextIoProgress(false));
+        setX(1, 1000F);
+        journal.checkpoint(graph, new TextIoProgress(false));
+
+        GraphBinaryJournal.compact(snapshotFile, false, new TextIoProgress(false));
+        assertFalse(GraphBinaryReader.isBinaryGraph(snapshotFile));
+        assertFalse(GraphBinaryJournal.getJournalFile(snapshotFile).exists());
+
+        assertX(new GraphJsonReader().readGraphZip(snapshotFile, new TextIoProgress(false)), 1, 1000F);
+        Files.deleteIfExists(snapshotFile.toPath());
+    }
+
+    private void setX(final int position, final float x) throws Exception {
+        final WritableGraph wg = graph.getWritableGraph("Move", true);
+        try {
+            wg.setFloatValue(wg.getAttribute(GraphElementType.VERTEX, "x"), wg.getVertex(position), x);
+        } finally {
+            wg.commit();
+        }
+    }
+
+    private void assertX(final Graph readGraph, final int i, final float x) {
+        assertEquals(getX(readGraph, i), x);
+    }
+
+    private float getX(final Graph readGraph, final int i) {
+        final ReadableGraph rg = readGraph.getReadableGraph();
+        try {
+            final int nameAttr = rg.getAttribute(GraphElementType.VERTEX, "name");
+            final int xAttr = rg.getAttribute(GraphElementType.VERTEX, "x");
+            for (int position = 0; position < rg.getVertexCount(); position++) {
+                final int vxId = rg.getVertex(position);
+                if (("name" + i).equals(rg.getStringValue(nameAttr, vxId))) {
+                    return rg.getFloatValue(xAttr, vxId);
+                }
+            }
+            throw new AssertionError("Vertex name" + i + " not found");
+        } finally {
+            rg.release();
+        }
+    }
+
+    private void assertSameGraph(final Graph readGraph) {
+        final ReadableGraph original = graph.getReadableGraph();
+        final ReadableGraph rg = readGraph.getReadableGraph();
+        try {
+            assertEquals(rg.getVertexCount(), original.getVertexCount());
+            assertEquals(getTransactions(rg), getTransactions(original));
+            for (final GraphElementType elementType : new GraphElementType[]{GraphElementType.VERTEX, GraphElementType.TRANSACTION}) {
+                assertEquals(rg.getAttributeCount(elementType), original.getAttributeCount(elementType));
+                for (int position = 0; position < original.getAttributeCount(elementType); position++) {
+                    final int attrId = original.getAttribute(elementType, position);
+                    assertEquals(rg.getAttributeType(rg.getAttribute(elementType, original.getAttributeName(attrId))), original.getAttributeType(attrId));
+                }
+            }
+        } finally {
+            rg.release();
+            original.release();
+        }
+    }
+
+    /**
+     * The transactions of a graph as the names of their endpoints, sorted.
+     */
+    private static List<String> getTransactions(final ReadableGraph rg) {
+        final int nameAttr = rg.getAttribute(GraphElementType.VERTEX, "name");
+        final List<String> transactions = new ArrayList<>();
+        for (int position = 0; position < rg.getTransactionCount(); position++) {
+            final int txId = rg.getTransaction(position);
+            transactions.add(rg.getStringValue(nameAttr, rg.getTransactionSourceVertex(txId)) + (rg.getTransactionDirection(txId) != Graph.UNDIRECTED ? "->" : "--")
+                    + rg.getStringValue(nameAttr, rg.getTransactionDestinationVertex(txId)));
+        }
+        Collections.sort(transactions);
+
+        return transactions;
+    }
+
+    private void assertModificationCounters(final Graph readGraph) {
+        final ReadableGraph original = graph.getReadableGraph();
+        final ReadableGraph rg = readGraph.getReadableGraph();
+        try {
+            assertEquals(rg.getGlobalModificationCounter(), original.getGlobalModificationCounter());
+            assertEquals(rg.getValueModificationCounter(rg.getAttribute(GraphElementType.VERTEX, "x")),
+                    original.getValueModificationCounter(original.getAttribute(GraphElementType.VERTEX, "x")));
+        } finally {
+            rg.release();
+            original.release();
+        }
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.file.io;
+
+import au.gov.asd.tac.constellation.graph.Graph;
+import au.gov.asd.tac.constellation.graph.GraphElementType;
+import au.gov.asd.tac.constellation.graph.ReadableGraph;
+import au.gov.asd.tac.constellation.graph.StoreGraph;
+import au.gov.asd.tac.constellation.graph.attribute.BooleanAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.FloatAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.IntegerAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.LongAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.StringAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.ZonedDateTimeAttributeDescription;
+import au.gov.asd.tac.constellation.utilities.file.FileExtensionConstants;
+import au.gov.asd.tac.constellation.utilities.gui.TextIoProgress;
+import java.io.File;
+import java.nio.file.Files;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Graph Binary Test.
+ *
+ * @author algol
+ */
+public class GraphBinaryNGTest {
+
+    private static final int VERTEX_COUNT = 2000;
+    private static final ZonedDateTime WHEN = ZonedDateTime.of(2020, 9, 13, 22, 26, 40, 0, ZoneId.of("Australia/Brisbane"));
+
+    private StoreGraph graph;
+    private File graphFile;
+
+    public GraphBinaryNGTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+    }
+
+    @BeforeMethod
+    public void setUpMethod() throws Exception {
+        graph = new StoreGraph();
+        final int nameAttr = graph.addAttribute(GraphElementType.VERTEX, StringAttributeDescription.ATTRIBUTE_NAME, "name", "descr", null, null);
+        final int xAttr = graph.addAttribute(GraphElementType.VERTEX, FloatAttributeDescription.ATTRIBUTE_NAME, "x", "x", 0.0, null);
+        final int countAttr = graph.addAttribute(GraphElementType.VERTEX, IntegerAttributeDescription.ATTRIBUTE_NAME, "count", null, 7, null);
+        final int sizeAttr = graph.addAttribute(GraphElementType.VERTEX, LongAttributeDescription.ATTRIBUTE_NAME, "size", null, null, null);
+        final int selectedAttr = graph.addAttribute(GraphElementType.TRANSACTION, BooleanAttributeDescription.ATTRIBUTE_NAME, "selected", null, false, null);
+        final int whenAttr = graph.addAttribute(GraphElementType.TRANSACTION, ZonedDateTimeAttributeDescription.ATTRIBUTE_NAME, "when", null, null, null);
+        graph.setPrimaryKey(GraphElementType.VERTEX, nameAttr);
+
+        for (int i = 0; i < VERTEX_COUNT; i++) {
+            final int vxId = graph.addVertex();
+            graph.setStringValue(nameAttr, vxId, "name" + i);
+            graph.setFloatValue(xAttr, vxId, i / 4F);
+            graph.setIntValue(countAttr, vxId, i % 10);
+            graph.setLongValue(sizeAttr, vxId, i * 10_000_000_000L);
+        }
+
+        // Leave a gap in the vertex ids so that they must be mapped when read.
+        graph.removeVertex(graph.getVertex(0));
+
+        for (int position = 1; position < graph.getVertexCount(); position++) {
+            final int txId = graph.addTransaction(graph.getVertex(position - 1), graph.getVertex(position), position % 2 == 0);
+            graph.setBooleanValue(selectedAttr, txId, position % 3 == 0);
+            if (position % 5 == 0) {
+                graph.setObjectValue(whenAttr, txId, WHEN.plusDays(position));
+            }
+        }
+
+        graphFile = File.createTempFile("binary", FileExtensionConstants.STAR);
+    }
+
+    @AfterMethod
+    public void tearDownMethod() throws Exception {
+        Files.deleteIfExists(graphFile.toPath());
+    }
+
+    /**
+     * A graph written in binary format should be read back by
+     * GraphJsonReader.readGraphZip with the same structure and values.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testRoundTrip() throws Exception {
+        assertFalse(new GraphBinaryWriter().writeGraphToZip(graph, graphFile.getPath(), new TextIoProgress(false)));
+        assertTrue(GraphBinaryReader.isBinaryGraph(graphFile));
+
+        assertRead(new GraphJsonReader().readGraphZip(graphFile, new TextIoProgress(false)));
+    }
+
+    /**
+     * Uncompressed blocks should be read the same way as compressed blocks.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testRoundTripUncompressed() throws Exception {
+        new GraphBinaryWriter(false).writeGraphToZip(graph, graphFile.getPath(), new TextIoProgress(false));
+        final long uncompressedLength = graphFile.length();
+        assertRead(new GraphJsonReader().readGraphZip(graphFile, new TextIoProgress(false)));
+
+        new GraphBinaryWriter(true).writeGraphToZip(graph, graphFile.getPath(), new TextIoProgress(false));
+        assertTrue(graphFile.length() < uncompressedLength);
+    }
+
+    /**
+     * JSON graph files should not be mistaken for binary graph files.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testIsBinaryGraph() throws Exception {
+        new GraphJsonWriter().writeGraphToZip(graph, graphFile.getPath(), new TextIoProgress(false));
+        assertFalse(GraphBinaryReader.isBinaryGraph(graphFile));
+        assertFalse(GraphBinaryReader.isBinaryGraph(null));
+        assertFalse(GraphBinaryReader.isBinaryGraph(new File(graphFile.getPath() + ".missing")));
+    }
+
+    private void assertRead(final Graph readGraph) {
+        final ReadableGraph rg = readGraph.getReadableGraph();
+        try {
+            assertEquals(rg.getVertexCount(), graph.getVertexCount());
+            assertEquals(rg.getTransactionCount(), graph.getTransactionCount());
+
+            final int nameAttr = rg.getAttribute(GraphElementType.VERTEX, "name");
+            final int xAttr = rg.getAttribute(GraphElementType.VERTEX, "x");
+            final int countAttr = rg.getAttribute(GraphElementType.VERTEX, "count");
+            final int sizeAttr = rg.getAttribute(GraphElementType.VERTEX, "size");
+            final int selectedAttr = rg.getAttribute(GraphElementType.TRANSACTION, "selected");
+            final int whenAttr = rg.getAttribute(GraphElementType.TRANSACTION, "when");
+            assertEquals(rg.getAttributeDescription(nameAttr), "descr");
+            assertEquals(rg.getAttributeDefaultValue(countAttr), 7);
+            assertEquals(rg.getPrimaryKey(GraphElementType.VERTEX).length, 1);
+            assertEquals(rg.getPrimaryKey(GraphElementType.VERTEX)[0], nameAttr);
+            assertEquals(rg.getValueModificationCounter(xAttr), graph.getValueModificationCounter(graph.getAttribute(GraphElementType.VERTEX, "x")));
+
+            // Element ids may differ, so match elements to the original graph by name.
+            final int originalNameAttr = graph.getAttribute(GraphElementType.VERTEX, "name");
+            final Map<String, Integer> originalVertices = new HashMap<>();
+            for (int position = 0; position < graph.getVertexCount(); position++) {
+                final int vxId = graph.getVertex(position);
+                originalVertices.put(graph.getStringValue(originalNameAttr, vxId), vxId);
+            }
+
+            for (int position = 0; position < rg.getVertexCount(); position++) {
+                final int vxId = rg.getVertex(position);
+                final int original = originalVertices.get(rg.getStringValue(nameAttr, vxId));
+                assertEquals(rg.getFloatValue(xAttr, vxId), graph.getFloatValue(graph.getAttribute(GraphElementType.VERTEX, "x"), original));
+                assertEquals(rg.getIntValue(countAttr, vxId), graph.getIntValue(graph.getAttribute(GraphElementType.VERTEX, "count"), original));
+                assertEquals(rg.getLongValue(sizeAttr, vxId), graph.getLongValue(graph.getAttribute(GraphElementType.VERTEX, "size"), original));
+            }
+
+            for (int position = 0; position < rg.getTransactionCount(); position++) {
+                final int txId = rg.getTransaction(position);
+                final int source = originalVertices.get(rg.getStringValue(nameAttr, rg.getTransactionSourceVertex(txId)));
+                final int destination = originalVertices.get(rg.getStringValue(nameAttr, rg.getTransactionDestinationVertex(txId)));
+                final int original = graph.getLink(source, destination) == Graph.NOT_FOUND
+                        ? Graph.NOT_FOUND : graph.getLinkTransaction(graph.getLink(source, destination), 0);
+                assertTrue(original != Graph.NOT_FOUND);
+                assertEquals(rg.getTransactionDirection(txId) != Graph.UNDIRECTED, graph.getTransactionDirection(original) != Graph.UNDIRECTED);
+                assertEquals(rg.getBooleanValue(selectedAttr, txId), graph.getBooleanValue(graph.getAttribute(GraphElementType.TRANSACTION, "selected"), original));
+                final ZonedDateTime when = graph.getObjectValue(graph.getAttribute(GraphElementType.TRANSACTION, "when"), original);
+                assertEquals((ZonedDateTime) rg.getObjectValue(whenAttr, txId), when);
+            }
+        } finally {
+            rg.release();
+        }
+    }
+}
@@ -17,6 +17,8 @@ package au.gov.asd.tac.constellation.graph;
 
 import au.gov.asd.tac.constellation.graph.monitor.GraphChangeListener;
 import au.gov.asd.tac.constellation.graph.schema.Schema;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import javax.swing.undo.UndoManager;
 
 /**
@@ -216,6 +218,39 @@ public interface Graph extends GraphConstants {
      */
     public WritableGraph getWritableGraph(final String name, final boolean significant, final Object editor) throws InterruptedException;
 
+    /**
+     * Queues a small edit to be applied to the graph together with other small
+     * edits, such as selection changes made while brushing across views. The
+     * edits queued within a short window are applied in the order they were
+     * queued in one write lock, so a burst of edits costs one commit and one
+     * graph change event rather than one of each per edit. The window becomes a
+     * single edit on the undo stack, named after the first edit in it.
+     * <p>
+     * This method never blocks, so unlike {@link #getWritableGraph} it can be
+     * called from the event dispatch thread. Graphs that do not coalesce
+     * edits apply each one in its own write lock on another thread, so the
+     * order in which they are applied is not guaranteed.
+     *
+     * @param name the name of the edit.
+     * @param significant is the edit significant as far as the undo stack is
+     * concerned?
+     * @param editor an object that can be used to identify the process
+     * performing the edit.
+     * @param writer the edit to apply.
+     * @return a future that completes once the edit has been committed, or
+     * completes exceptionally if the edit failed and was rolled back.
+     */
+    public default CompletableFuture<Void> writeCoalesced(final String name, final boolean significant, final Object editor, final GraphWriter<?> writer) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                writeToGraph(name, significant, writer);
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(ex);
+            }
+        });
+    }
+
     /**
      * Gets a write lock on the graph and returns a WritableGraph that provides
      * methods to modify the graph. This method does not block, returning null
@@ -274,4 +309,31 @@ public interface Graph extends GraphConstants {
      * @param undoManager the new UndoManager.
      */
     public void setUndoManager(final UndoManager undoManager);
+
+    /**
+     * Sets the number of bytes of undo state that this graph keeps in memory.
+     * Once the undo history is larger than this, the oldest edits are moved to
+     * disk and read back when they are undone or redone. Graphs that do not
+     * keep an undo history ignore this.
+     *
+     * @param bytes the number of bytes of undo state to keep in memory.
+     */
+    public default void setUndoMemoryBudget(final long bytes) {
+        // Graphs without an undo history have nothing to budget.
+    }
+
+    /**
+     * Sets whether edits on this graph are recorded for undo. Called while
+     * holding the write lock, this applies to the edit in progress only;
+     * otherwise it applies to the edits started from now on. Turning recording
+     * off for a bulk load saves holding its undo state. Edits that are not recorded can't be undone, and clear the undo
+     * history when they are committed since the edits before them can no
+     * longer be undone either. Graphs that do not keep an undo history ignore
+     * this.
+     *
+     * @param recordUndo true to record edits for undo.
+     */
+    public default void setUndoRecording(final boolean recordUndo) {
+        // Graphs without an undo history have nothing to record.
+    }
 }
@@ -63,10 +63,10 @@ public interface GraphIndex {
      * Returns a graph index result holding all elements that have attribute
      * values with in the specified range, or null if this index is not capable
      * of performing this type of query. This range is considered to be
-     * inclusive of the start object but exclusive of the end value.
+     * inclusive of both the start and end values.
      *
      * @param start of the beginning of the range (inclusive).
-     * @param end the end of the range (exclusive).
+     * @param end the end of the range (inclusive).
      *
      * @return a graph index result holding all elements that have attribute
      * values with in the specified range, or null if this index is not capable
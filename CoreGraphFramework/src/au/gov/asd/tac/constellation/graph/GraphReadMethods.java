@@ -253,6 +253,45 @@ public interface GraphReadMethods extends GraphConstants {
      */
     long getStructureModificationCounter();
 
+    /**
+     * Returns a number that identifies the current structure of the graph.
+     * Unlike the structure modification counter, a new number is taken every
+     * time a vertex or transaction is added or removed, including by undo and
+     * redo, and numbers are never reused, even by a copy of the graph that is
+     * changed independently of the original. The only graphs that share a
+     * structure generation are copies, and the two copies of a graph that are
+     * brought into the same state by replaying its edits. Two graphs with the
+     * same structure generation therefore have the same vertices and
+     * transactions at the same positions.
+     * <p>
+     * Graphs that do not track their structure in this way return -1.
+     *
+     * @return the structure generation of the graph, or -1 if it is not
+     * tracked.
+     */
+    default long getStructureGeneration() {
+        return -1;
+    }
+
+    /**
+     * Returns a number that identifies the current values of the specified
+     * attribute. Unlike the value modification counter, a new number is taken
+     * every time a value of the attribute is changed, including by undo and
+     * redo, and numbers are never reused. Two graphs that share a value
+     * generation for an attribute, such as the two copies of a graph brought
+     * into the same state by replaying its edits, therefore have the same
+     * values for that attribute.
+     * <p>
+     * Graphs that do not track their values in this way return -1.
+     *
+     * @param attribute the id of the attribute.
+     * @return the value generation of the attribute, or -1 if it is not
+     * tracked.
+     */
+    default long getValueGeneration(final int attribute) {
+        return -1;
+    }
+
     /**
      * Returns the modification counter for the specified attribute. This
      * counter is increased every time the value of the attribute is set for any
@@ -267,6 +306,30 @@ public interface GraphReadMethods extends GraphConstants {
      */
     long getValueModificationCounter(final int attribute);
 
+    /**
+     * Returns the ids of the elements whose value for the specified attribute
+     * has been set since the attribute's value modification counter had the
+     * specified value. This allows listeners to process only the elements that
+     * have changed rather than every element in the graph.
+     * <p>
+     * Only a bounded number of recent changes are remembered, so null is
+     * returned if the changes are not known, for example because too many
+     * values have been set. An undo winds the counter back, after which it can
+     * return to a value it had before with a different set of values, so null
+     * is also returned for any counter that was reached before an undo, even
+     * when it is the current counter. Callers should then treat every element
+     * as changed.
+     *
+     * @param attribute the attribute.
+     * @param modificationCounter an earlier value of the attribute's value
+     * modification counter.
+     * @return the distinct ids of the changed elements in ascending order, or
+     * null if they are not known.
+     */
+    default int[] getValueChanges(final int attribute, final long modificationCounter) {
+        return modificationCounter == getValueModificationCounter(attribute) ? new int[0] : null;
+    }
+
     /**
      * Creates a complete deep copy of the graph that has the same id as this
      * graph. The copy is represented by a GraphReadMethods object meaning that
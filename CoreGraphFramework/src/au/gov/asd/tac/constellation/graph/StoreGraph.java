@@ -36,6 +36,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.IntStream;
 import java.util.stream.StreamSupport;
 
@@ -63,6 +64,9 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
     private static final int[] CATEGORY_TO_STATE = new int[]{6, 4, 5, 1, 3, 7, 2};
     private static final int[] STATE_TO_CATEGORY = new int[]{-1, 3, 6, 4, 1, 2, 0, 5};
 
+    // Shared by every graph so that a copy that is changed independently of its original never reuses a generation.
+    private static final AtomicLong GENERATIONS = new AtomicLong();
+
     private final ElementStore vStore;
     private final ElementStore lStore;
     private final ElementStore eStore;
@@ -88,10 +92,14 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
     private GraphIndex[] attributeIndices;
     private final Map<String, int[]> attributeNames;
     private long[] attributeModificationCounters;
+    private ValueChangeLog[] attributeChangeLogs;
+    private long[] attributeValueGenerations;
     private AttributeRegistry attributeRegistry;
     private long globalModificationCounter = 0;
     private long attributeModificationCounter = 0;
     private long structureModificationCounter = 0;
+    private long structureGeneration = GENERATIONS.incrementAndGet();
+    private long pendingGeneration = 0;
     private long lastFiredModificationCount = Long.MIN_VALUE;
     protected final int[][] primaryKeys;
     private int[] primaryKeyLookup;
@@ -183,6 +191,8 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
         attributes = new GraphAttribute[attributeCapacity];
         attributeNames = new HashMap<>();
         attributeModificationCounters = new long[attributeCapacity];
+        attributeChangeLogs = new ValueChangeLog[attributeCapacity];
+        attributeValueGenerations = new long[attributeCapacity];
 
         attributeIndices = new GraphIndex[attributeCapacity];
         Arrays.fill(attributeIndices, AttributeDescription.NULL_GRAPH_INDEX);
@@ -322,6 +332,9 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
         this.globalModificationCounter = original.globalModificationCounter;
         this.attributeModificationCounter = original.attributeModificationCounter;
         this.structureModificationCounter = original.structureModificationCounter;
+        this.structureGeneration = original.structureGeneration;
+        // The original must not give the generations it shares with this copy to its own later changes.
+        original.pendingGeneration = 0;
 
         this.lastFiredModificationCount = original.lastFiredModificationCount;
 
@@ -343,6 +356,8 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
             this.attributeNames.put(e.getKey(), Arrays.copyOf(e.getValue(), e.getValue().length));
         }
         this.attributeModificationCounters = Arrays.copyOf(original.attributeModificationCounters, original.attributeModificationCounters.length);
+        this.attributeChangeLogs = new ValueChangeLog[original.attributeChangeLogs.length];
+        this.attributeValueGenerations = Arrays.copyOf(original.attributeValueGenerations, original.attributeValueGenerations.length);
 
         this.primaryKeys = new int[original.primaryKeys.length][];
         for (int i = 0; i < this.primaryKeys.length; i++) {
@@ -385,11 +400,15 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
     public void setModificationCounters(final long globalModificationCounter, final long structureModificationCounter, final long attributeModificationCounter) {
         this.globalModificationCounter = globalModificationCounter;
         this.structureModificationCounter = structureModificationCounter;
+        this.structureGeneration = nextGeneration();
         this.attributeModificationCounter = attributeModificationCounter;
     }
 
     public void setValueModificationCounter(final int attribute, final long modificationCounter) {
+        final ValueChangeLog changeLog = getValueChangeLog(attribute);
         attributeModificationCounters[attribute] = modificationCounter;
+        attributeValueGenerations[attribute] = nextGeneration();
+        changeLog.reset(modificationCounter);
     }
 
     @Override
@@ -555,11 +574,102 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
         return structureModificationCounter;
     }
 
+    @Override
+    public long getStructureGeneration() {
+        pendingGeneration = 0;
+        return structureGeneration;
+    }
+
+    @Override
+    public long getValueGeneration(final int attribute) {
+        pendingGeneration = 0;
+        return attributeValueGenerations[attribute];
+    }
+
+    @Override
+    public Object getGenerations() {
+        pendingGeneration = 0;
+        return new Generations(structureGeneration, Arrays.copyOf(attributeValueGenerations, aStore.getCapacity()));
+    }
+
+    @Override
+    public void setGenerations(final Object generations) {
+        pendingGeneration = 0;
+        final Generations other = (Generations) generations;
+        structureGeneration = other.structureGeneration;
+        System.arraycopy(other.valueGenerations, 0, attributeValueGenerations, 0, Math.min(other.valueGenerations.length, attributeValueGenerations.length));
+    }
+
+    /**
+     * Returns the generation to give to a change. Every change made since the
+     * generations were last handed out shares one generation, so a write
+     * takes a single generation from the shared counter however many values
+     * it sets, while a change made after a generation has been read always
+     * gets a new one.
+     *
+     * @return the generation to give to a change.
+     */
+    private long nextGeneration() {
+        if (pendingGeneration == 0) {
+            pendingGeneration = GENERATIONS.incrementAndGet();
+        }
+        return pendingGeneration;
+    }
+
+    private static final class Generations {
+
+        private final long structureGeneration;
+        private final long[] valueGenerations;
+
+        private Generations(final long structureGeneration, final long[] valueGenerations) {
+            this.structureGeneration = structureGeneration;
+            this.valueGenerations = valueGenerations;
+        }
+    }
+
     @Override
     public long getValueModificationCounter(final int attribute) {
         return attributeModificationCounters[attribute];
     }
 
+    @Override
+    public int[] getValueChanges(final int attribute, final long modificationCounter) {
+        final long currentModificationCounter = attributeModificationCounters[attribute];
+        final ValueChangeLog changeLog = attributeChangeLogs[attribute];
+        if (changeLog == null) {
+            // The counter has not moved since the attribute was added or the graph was copied
+            return modificationCounter == currentModificationCounter ? new int[0] : null;
+        }
+        if (changeLog.getModificationCounter() != currentModificationCounter) {
+            return null;
+        }
+        return changeLog.getChanges(modificationCounter);
+    }
+
+    private void updateValueModificationCounter(final int attribute, final int id) {
+        final ValueChangeLog changeLog = getValueChangeLog(attribute);
+        final long previousModificationCounter = attributeModificationCounters[attribute];
+        attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+        attributeValueGenerations[attribute] = nextGeneration();
+        changeLog.record(id, previousModificationCounter, attributeModificationCounters[attribute]);
+    }
+
+    /**
+     * Returns the change log of an attribute, creating it if this is the first
+     * time its value modification counter has moved. Every movement of the
+     * counter has to pass through the log so that it knows which counters no
+     * longer identify a single state of the attribute.
+     *
+     * @param attribute the attribute.
+     * @return the change log of the attribute.
+     */
+    private ValueChangeLog getValueChangeLog(final int attribute) {
+        if (attributeChangeLogs[attribute] == null) {
+            attributeChangeLogs[attribute] = new ValueChangeLog(attributeModificationCounters[attribute]);
+        }
+        return attributeChangeLogs[attribute];
+    }
+
     @Override
     public int getVertexCapacity() {
         return vStore.getCapacity();
@@ -690,6 +800,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
         }
 
         structureModificationCounter += operationMode.getModificationIncrement();
+        structureGeneration = nextGeneration();
         globalModificationCounter += operationMode.getModificationIncrement();
 
         vStore.setUID(vertex, structureModificationCounter);
@@ -758,6 +869,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
         vStore.remove(vertex);
 
         structureModificationCounter += operationMode.getModificationIncrement();
+        structureGeneration = nextGeneration();
         globalModificationCounter += operationMode.getModificationIncrement();
 
         if (graphEdit != null) {
@@ -824,6 +936,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
         }
 
         structureModificationCounter += operationMode.getModificationIncrement();
+        structureGeneration = nextGeneration();
         globalModificationCounter += operationMode.getModificationIncrement();
 
         tStore.setUID(transaction, structureModificationCounter);
@@ -1058,6 +1171,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
         }
 
         structureModificationCounter += operationMode.getModificationIncrement();
+        structureGeneration = nextGeneration();
         globalModificationCounter += operationMode.getModificationIncrement();
 
         if (graphEdit != null) {
@@ -1400,6 +1514,8 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
             attributeDescriptions = Arrays.copyOf(attributeDescriptions, aStore.getCapacity());
             attributes = Arrays.copyOf(attributes, aStore.getCapacity());
             attributeModificationCounters = Arrays.copyOf(attributeModificationCounters, aStore.getCapacity());
+            attributeChangeLogs = Arrays.copyOf(attributeChangeLogs, aStore.getCapacity());
+            attributeValueGenerations = Arrays.copyOf(attributeValueGenerations, aStore.getCapacity());
 
             attributeIndices = Arrays.copyOf(attributeIndices, aStore.getCapacity());
             Arrays.fill(attributeIndices, oldAttributeCapacity, aStore.getCapacity(), AttributeDescription.NULL_GRAPH_INDEX);
@@ -1602,6 +1718,8 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
         aStore.setUID(attributeId, globalModificationCounter);
 
         attributeModificationCounters[attributeId] = 0;
+        attributeChangeLogs[attributeId] = null;
+        attributeValueGenerations[attributeId] = nextGeneration();
 
         typeAttributes.addElement(elementType.ordinal(), attributeId, 0);
 
@@ -1824,7 +1942,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
         if (graphEdit == null) {
             attributeDescriptions[attribute].clear(id);
             attributeIndices[attribute].updateElement(id);
-            attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+            updateValueModificationCounter(attribute, id);
             globalModificationCounter += operationMode.getModificationIncrement();
             int keyType = primaryKeyLookup[attribute];
             if (keyType >= 0) {
@@ -1839,7 +1957,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
 
             if (nativeType.addEdit(this, graphEdit, attribute, id, oldValue)) {
                 attributeIndices[attribute].updateElement(id);
-                attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+                updateValueModificationCounter(attribute, id);
                 globalModificationCounter += operationMode.getModificationIncrement();
                 int keyType = primaryKeyLookup[attribute];
                 if (keyType >= 0) {
@@ -1854,7 +1972,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
         if (graphEdit == null) {
             attributeDescriptions[attribute].setByte(id, value);
             attributeIndices[attribute].updateElement(id);
-            attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+            updateValueModificationCounter(attribute, id);
             globalModificationCounter += operationMode.getModificationIncrement();
             int keyType = primaryKeyLookup[attribute];
             if (keyType >= 0) {
@@ -1869,7 +1987,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
 
             if (nativeType.addEdit(this, graphEdit, attribute, id, oldValue)) {
                 attributeIndices[attribute].updateElement(id);
-                attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+                updateValueModificationCounter(attribute, id);
                 globalModificationCounter += operationMode.getModificationIncrement();
                 int keyType = primaryKeyLookup[attribute];
                 if (keyType >= 0) {
@@ -1884,7 +2002,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
         if (graphEdit == null) {
             attributeDescriptions[attribute].setShort(id, value);
             attributeIndices[attribute].updateElement(id);
-            attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+            updateValueModificationCounter(attribute, id);
             globalModificationCounter += operationMode.getModificationIncrement();
             int keyType = primaryKeyLookup[attribute];
             if (keyType >= 0) {
@@ -1899,7 +2017,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
 
             if (nativeType.addEdit(this, graphEdit, attribute, id, oldValue)) {
                 attributeIndices[attribute].updateElement(id);
-                attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+                updateValueModificationCounter(attribute, id);
                 globalModificationCounter += operationMode.getModificationIncrement();
                 int keyType = primaryKeyLookup[attribute];
                 if (keyType >= 0) {
@@ -1914,7 +2032,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
         if (graphEdit == null) {
             attributeDescriptions[attribute].setInt(id, value);
             attributeIndices[attribute].updateElement(id);
-            attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+            updateValueModificationCounter(attribute, id);
             globalModificationCounter += operationMode.getModificationIncrement();
             int keyType = primaryKeyLookup[attribute];
             if (keyType >= 0) {
@@ -1929,7 +2047,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
 
             if (nativeType.addEdit(this, graphEdit, attribute, id, oldValue)) {
                 attributeIndices[attribute].updateElement(id);
-                attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+                updateValueModificationCounter(attribute, id);
                 globalModificationCounter += operationMode.getModificationIncrement();
                 int keyType = primaryKeyLookup[attribute];
                 if (keyType >= 0) {
@@ -1944,7 +2062,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
         if (graphEdit == null) {
             attributeDescriptions[attribute].setLong(id, value);
             attributeIndices[attribute].updateElement(id);
-            attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+            updateValueModificationCounter(attribute, id);
             globalModificationCounter += operationMode.getModificationIncrement();
             int keyType = primaryKeyLookup[attribute];
             if (keyType >= 0) {
@@ -1959,7 +2077,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
 
             if (nativeType.addEdit(this, graphEdit, attribute, id, oldValue)) {
                 attributeIndices[attribute].updateElement(id);
-                attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+                updateValueModificationCounter(attribute, id);
                 globalModificationCounter += operationMode.getModificationIncrement();
                 int keyType = primaryKeyLookup[attribute];
                 if (keyType >= 0) {
@@ -1974,7 +2092,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
         if (graphEdit == null) {
             attributeDescriptions[attribute].setFloat(id, value);
             attributeIndices[attribute].updateElement(id);
-            attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+            updateValueModificationCounter(attribute, id);
             globalModificationCounter += operationMode.getModificationIncrement();
             int keyType = primaryKeyLookup[attribute];
             if (keyType >= 0) {
@@ -1989,7 +2107,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
 
             if (nativeType.addEdit(this, graphEdit, attribute, id, oldValue)) {
                 attributeIndices[attribute].updateElement(id);
-                attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+                updateValueModificationCounter(attribute, id);
                 globalModificationCounter += operationMode.getModificationIncrement();
                 int keyType = primaryKeyLookup[attribute];
                 if (keyType >= 0) {
@@ -2004,7 +2122,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
         if (graphEdit == null) {
             attributeDescriptions[attribute].setDouble(id, value);
             attributeIndices[attribute].updateElement(id);
-            attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+            updateValueModificationCounter(attribute, id);
             globalModificationCounter += operationMode.getModificationIncrement();
             int keyType = primaryKeyLookup[attribute];
             if (keyType >= 0) {
@@ -2019,7 +2137,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
 
             if (nativeType.addEdit(this, graphEdit, attribute, id, oldValue)) {
                 attributeIndices[attribute].updateElement(id);
-                attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+                updateValueModificationCounter(attribute, id);
                 globalModificationCounter += operationMode.getModificationIncrement();
                 int keyType = primaryKeyLookup[attribute];
                 if (keyType >= 0) {
@@ -2034,7 +2152,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
         if (graphEdit == null) {
             attributeDescriptions[attribute].setBoolean(id, value);
             attributeIndices[attribute].updateElement(id);
-            attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+            updateValueModificationCounter(attribute, id);
             globalModificationCounter += operationMode.getModificationIncrement();
             int keyType = primaryKeyLookup[attribute];
             if (keyType >= 0) {
@@ -2049,7 +2167,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
 
             if (nativeType.addEdit(this, graphEdit, attribute, id, oldValue)) {
                 attributeIndices[attribute].updateElement(id);
-                attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+                updateValueModificationCounter(attribute, id);
                 globalModificationCounter += operationMode.getModificationIncrement();
                 int keyType = primaryKeyLookup[attribute];
                 if (keyType >= 0) {
@@ -2065,7 +2183,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
         if (graphEdit == null) {
             attributeDescriptions[attribute].setChar(id, value);
             attributeIndices[attribute].updateElement(id);
-            attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+            updateValueModificationCounter(attribute, id);
             globalModificationCounter += operationMode.getModificationIncrement();
             int keyType = primaryKeyLookup[attribute];
             if (keyType >= 0) {
@@ -2080,7 +2198,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
 
             if (nativeType.addEdit(this, graphEdit, attribute, id, oldValue)) {
                 attributeIndices[attribute].updateElement(id);
-                attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+                updateValueModificationCounter(attribute, id);
                 globalModificationCounter += operationMode.getModificationIncrement();
                 int keyType = primaryKeyLookup[attribute];
                 if (keyType >= 0) {
@@ -2095,7 +2213,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
         if (graphEdit == null) {
             attributeDescriptions[attribute].setString(id, value);
             attributeIndices[attribute].updateElement(id);
-            attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+            updateValueModificationCounter(attribute, id);
             globalModificationCounter += operationMode.getModificationIncrement();
             int keyType = primaryKeyLookup[attribute];
             if (keyType >= 0) {
@@ -2110,7 +2228,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
 
             if (nativeType.addEdit(this, graphEdit, attribute, id, oldValue)) {
                 attributeIndices[attribute].updateElement(id);
-                attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+                updateValueModificationCounter(attribute, id);
                 globalModificationCounter += operationMode.getModificationIncrement();
                 int keyType = primaryKeyLookup[attribute];
                 if (keyType >= 0) {
@@ -2125,7 +2243,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
         if (graphEdit == null) {
             attributeDescriptions[attribute].setObject(id, value);
             attributeIndices[attribute].updateElement(id);
-            attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+            updateValueModificationCounter(attribute, id);
             globalModificationCounter += operationMode.getModificationIncrement();
             int keyType = primaryKeyLookup[attribute];
             if (keyType >= 0) {
@@ -2140,7 +2258,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
 
             if (nativeType.addEdit(this, graphEdit, attribute, id, oldValue)) {
                 attributeIndices[attribute].updateElement(id);
-                attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+                updateValueModificationCounter(attribute, id);
                 globalModificationCounter += operationMode.getModificationIncrement();
                 int keyType = primaryKeyLookup[attribute];
                 if (keyType >= 0) {
@@ -2161,7 +2279,10 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
         int[] oldPrimaryKeys = primaryKeys[elementType.ordinal()];
         for (int oldPrimaryKey : oldPrimaryKeys) {
             primaryKeyLookup[oldPrimaryKey] = -1;
+            final ValueChangeLog changeLog = getValueChangeLog(oldPrimaryKey);
             attributeModificationCounters[oldPrimaryKey]++;
+            attributeValueGenerations[oldPrimaryKey] = nextGeneration();
+            changeLog.reset(attributeModificationCounters[oldPrimaryKey]);
             attributeModificationCounter++;
         }
 
@@ -2169,7 +2290,10 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
 
         for (int attribute : newPrimaryKeys) {
             primaryKeyLookup[attribute] = elementType.ordinal();
+            final ValueChangeLog changeLog = getValueChangeLog(attribute);
             attributeModificationCounters[attribute]++;
+            attributeValueGenerations[attribute] = nextGeneration();
+            changeLog.reset(attributeModificationCounters[attribute]);
             attributeModificationCounter++;
         }
 
@@ -2329,7 +2453,8 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
 
     protected void restore(final int attribute, final int id, final ParameterReadAccess access) {
         attributeDescriptions[attribute].restore(id, access);
-        attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+        attributeIndices[attribute].updateElement(id);
+        updateValueModificationCounter(attribute, id);
         globalModificationCounter += operationMode.getModificationIncrement();
     }
 
@@ -2339,7 +2464,14 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
 
     protected void restoreData(final int attribute, final Object savedData) {
         attributeDescriptions[attribute].restoreData(savedData);
+        if (attributeIndexTypes[attribute] != GraphIndexType.NONE) {
+            // The whole data array has been replaced so the index must be rebuilt
+            attributeIndices[attribute] = createAttributeIndex(attribute, attributeIndexTypes[attribute]);
+        }
+        final ValueChangeLog changeLog = getValueChangeLog(attribute);
         attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+        attributeValueGenerations[attribute] = nextGeneration();
+        changeLog.reset(attributeModificationCounters[attribute]);
         globalModificationCounter += operationMode.getModificationIncrement();
     }
 
@@ -2377,14 +2509,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
             AttributeDescription attributeDescription = attributeDescriptions[attribute];
             if (attributeDescription.supportsIndexType(indexType)) {
                 attributeIndexTypes[attribute] = indexType;
-                GraphIndex index = attributeIndices[attribute] = attributeDescription.createIndex(indexType);
-
-                GraphElementType elementType = attributes[attribute].getElementType();
-                int elementCount = elementType.getElementCount(this);
-                for (int i = 0; i < elementCount; i++) {
-                    int element = elementType.getElement(this, i);
-                    index.addElement(element);
-                }
+                attributeIndices[attribute] = createAttributeIndex(attribute, indexType);
 
                 if (graphEdit != null) {
                     graphEdit.setAttributeIndexType(attribute, oldIndexType, indexType);
@@ -2393,6 +2518,19 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
         }
     }
 
+    private GraphIndex createAttributeIndex(final int attribute, final GraphIndexType indexType) {
+        final GraphIndex index = attributeDescriptions[attribute].createIndex(indexType);
+
+        final GraphElementType elementType = attributes[attribute].getElementType();
+        final int elementCount = elementType.getElementCount(this);
+        for (int i = 0; i < elementCount; i++) {
+            final int element = elementType.getElement(this, i);
+            index.addElement(element);
+        }
+
+        return index;
+    }
+
     public AttributeRegistry getAttributeRegistry() {
         return attributeRegistry;
     }
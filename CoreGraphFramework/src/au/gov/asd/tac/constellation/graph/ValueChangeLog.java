@@ -0,0 +1,159 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph;
+
+import java.util.Arrays;
+
+/**
+ * A bounded record of the elements whose value has been set for a single
+ * attribute, keyed by the value modification counter of that attribute.
+ * <p>
+ * Every value change increments the attribute's modification counter by one,
+ * so the element changed at counter <code>c</code> is held at offset
+ * <code>c - startModificationCounter - 1</code> of a ring buffer, whose
+ * capacity is always a power of two so that offsets wrap with a mask. When the
+ * buffer is full the oldest changes are discarded, and when the counter moves
+ * in any other way (for example during an undo) the log is restarted. An undo
+ * winds the counter back, so the values it passes through on the way up again
+ * no longer identify a single state of the attribute: every counter reached
+ * before a restart is therefore treated as unknown, even when the counter has
+ * since returned to it. A request for changes that are not known returns null,
+ * telling the caller to treat every element as changed.
+ *
+ * @author sirius
+ */
+final class ValueChangeLog {
+
+    private static final int INITIAL_CAPACITY = 16;
+    static final int MAX_CAPACITY = 4096;
+
+    private int[] elements = new int[INITIAL_CAPACITY];
+    private int mask = INITIAL_CAPACITY - 1;
+    private int first = 0;
+    private int size = 0;
+    private long startModificationCounter;
+    private long modificationCounter;
+    private long highestModificationCounter = Long.MIN_VALUE;
+    private long unknownModificationCounter = Long.MIN_VALUE;
+
+    /**
+     * Creates a new empty ValueChangeLog starting at the specified
+     * modification counter.
+     *
+     * @param modificationCounter the current value modification counter of
+     * the attribute.
+     */
+    ValueChangeLog(final long modificationCounter) {
+        reset(modificationCounter);
+    }
+
+    /**
+     * Returns the modification counter of the most recently recorded change.
+     *
+     * @return the modification counter of the most recently recorded change.
+     */
+    long getModificationCounter() {
+        return modificationCounter;
+    }
+
+    /**
+     * Discards all recorded changes and restarts the log at the specified
+     * modification counter. Changes since any counter reached before the
+     * restart are unknown from now on.
+     *
+     * @param modificationCounter the current value modification counter of
+     * the attribute.
+     */
+    void reset(final long modificationCounter) {
+        first = 0;
+        size = 0;
+        unknownModificationCounter = Math.max(unknownModificationCounter, highestModificationCounter);
+        highestModificationCounter = Math.max(highestModificationCounter, modificationCounter);
+        startModificationCounter = modificationCounter;
+        this.modificationCounter = modificationCounter;
+    }
+
+    /**
+     * Records that the value of an element has been changed.
+     *
+     * @param element the id of the element whose value changed.
+     * @param previousModificationCounter the value modification counter before
+     * the change.
+     * @param modificationCounter the value modification counter after the
+     * change.
+     */
+    void record(final int element, final long previousModificationCounter, final long modificationCounter) {
+        if (modificationCounter != previousModificationCounter + 1) {
+            reset(modificationCounter);
+            return;
+        }
+        if (previousModificationCounter != this.modificationCounter) {
+            reset(previousModificationCounter);
+        }
+
+        if (size == elements.length) {
+            if (elements.length < MAX_CAPACITY) {
+                final int[] newElements = new int[Math.min(elements.length * 2, MAX_CAPACITY)];
+                for (int i = 0; i < size; i++) {
+                    newElements[i] = elements[(first + i) & mask];
+                }
+                elements = newElements;
+                mask = newElements.length - 1;
+                first = 0;
+            } else {
+                first = (first + 1) & mask;
+                size--;
+                startModificationCounter++;
+            }
+        }
+
+        elements[(first + size) & mask] = element;
+        size++;
+        highestModificationCounter = Math.max(highestModificationCounter, modificationCounter);
+        this.modificationCounter = modificationCounter;
+    }
+
+    /**
+     * Returns the distinct ids of the elements that have been changed since
+     * the specified modification counter, in ascending order.
+     *
+     * @param modificationCounter an earlier value of the attribute's
+     * modification counter.
+     * @return the ids of the elements changed since the specified
+     * modification counter, or null if these changes are no longer known.
+     */
+    int[] getChanges(final long modificationCounter) {
+        if (modificationCounter <= unknownModificationCounter
+                || modificationCounter < startModificationCounter || modificationCounter > this.modificationCounter) {
+            return null;
+        }
+
+        final int offset = (int) (modificationCounter - startModificationCounter);
+        final int[] changes = new int[size - offset];
+        for (int i = 0; i < changes.length; i++) {
+            changes[i] = elements[(first + offset + i) & mask];
+        }
+        Arrays.sort(changes);
+
+        int distinct = 0;
+        for (int i = 0; i < changes.length; i++) {
+            if (i == 0 || changes[i] != changes[i - 1]) {
+                changes[distinct++] = changes[i];
+            }
+        }
+        return distinct == changes.length ? changes : Arrays.copyOf(changes, distinct);
+    }
+}
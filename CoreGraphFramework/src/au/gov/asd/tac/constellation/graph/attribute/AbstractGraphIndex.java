@@ -0,0 +1,358 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.attribute;
+
+import au.gov.asd.tac.constellation.graph.Graph;
+import au.gov.asd.tac.constellation.graph.GraphIndex;
+import au.gov.asd.tac.constellation.graph.GraphIndexResult;
+import java.util.Arrays;
+
+/**
+ * A base class for {@link GraphIndex} implementations that group elements by
+ * their attribute value.
+ * <p>
+ * Each distinct value held in the index is assigned a group, and the elements
+ * holding that value are kept in a doubly linked list threaded through
+ * primitive arrays indexed by element id. Because every element remembers its
+ * group, an element can be removed or moved to a new group without knowing the
+ * value it was previously indexed under. This is required as
+ * {@link GraphIndex#updateElement} is only called after the attribute value
+ * has already changed.
+ * <p>
+ * Ordered indexes also keep the groups sorted by value so that range queries
+ * only visit matching elements. The sorted order is rebuilt lazily on the
+ * first range query after a value is added to or disappears from the index, so
+ * a bulk modification only pays for a single sort.
+ * <p>
+ * Subclasses are responsible for mapping values to groups.
+ *
+ * @author sirius
+ */
+public abstract class AbstractGraphIndex implements GraphIndex {
+
+    protected static final int INITIAL_GROUP_CAPACITY = 16;
+
+    private final boolean ordered;
+
+    private int[] elementGroups;
+    private int[] next;
+    private int[] prev;
+
+    private int[] groupHeads = new int[INITIAL_GROUP_CAPACITY];
+    private int[] groupSizes = new int[INITIAL_GROUP_CAPACITY];
+    private int groupCapacity = 0;
+    private int[] freeGroups = new int[INITIAL_GROUP_CAPACITY];
+    private int freeGroupCount = 0;
+    private int liveGroupCount = 0;
+
+    private int[] sortedGroups = new int[0];
+    private boolean sortedGroupsValid = true;
+
+    /**
+     * Creates a new index.
+     *
+     * @param capacity the initial element capacity of the index.
+     * @param ordered true if this index should support range queries.
+     */
+    protected AbstractGraphIndex(final int capacity, final boolean ordered) {
+        this.ordered = ordered;
+        elementGroups = new int[capacity];
+        Arrays.fill(elementGroups, -1);
+        next = new int[capacity];
+        prev = new int[capacity];
+    }
+
+    /**
+     * Returns true if this index supports range queries.
+     *
+     * @return true if this index supports range queries.
+     */
+    public final boolean isOrdered() {
+        return ordered;
+    }
+
+    /**
+     * Returns the group representing the current attribute value of the
+     * specified element, creating a new group with
+     * {@link #allocateGroup()} if no element in the index currently holds
+     * that value.
+     *
+     * @param element the element id.
+     * @return the group representing the value of the element.
+     */
+    protected abstract int getOrCreateGroup(final int element);
+
+    /**
+     * Returns the group representing the specified value, or -1 if no element
+     * in the index holds that value.
+     *
+     * @param value the value, as supplied to
+     * {@link #getElementsWithAttributeValue(java.lang.Object)}.
+     * @return the group representing the value, or -1.
+     */
+    protected abstract int getGroup(final Object value);
+
+    /**
+     * Called when a group no longer contains any elements. Subclasses should
+     * forget the value associated with the group as the group id will be
+     * reused.
+     *
+     * @param group the group being released.
+     */
+    protected abstract void releaseGroup(final int group);
+
+    /**
+     * Sorts the specified groups by the value they represent. This is only
+     * called for ordered indexes.
+     *
+     * @param groups the groups to sort in place.
+     */
+    protected abstract void sortGroups(final int[] groups);
+
+    /**
+     * Compares the value represented by a group to a range boundary. This is
+     * only called for ordered indexes.
+     *
+     * @param group the group.
+     * @param value the range boundary, as supplied to
+     * {@link #getElementsWithAttributeValueRange(java.lang.Object, java.lang.Object)}.
+     * @return a negative integer, zero, or a positive integer as the value of
+     * the group is less than, equal to, or greater than the boundary.
+     */
+    protected abstract int compareGroup(final int group, final Object value);
+
+    /**
+     * Allocates a new, empty group. Subclasses call this from
+     * {@link #getOrCreateGroup(int)} and record the value the group
+     * represents against the returned id.
+     *
+     * @return the id of the new group.
+     */
+    protected final int allocateGroup() {
+        final int group;
+        if (freeGroupCount > 0) {
+            group = freeGroups[--freeGroupCount];
+        } else {
+            group = groupCapacity++;
+            if (group == groupHeads.length) {
+                final int newLength = groupHeads.length << 1;
+                groupHeads = Arrays.copyOf(groupHeads, newLength);
+                groupSizes = Arrays.copyOf(groupSizes, newLength);
+                groupCapacityChanged(newLength);
+            }
+        }
+        groupHeads[group] = -1;
+        groupSizes[group] = 0;
+        liveGroupCount++;
+        sortedGroupsValid = false;
+        return group;
+    }
+
+    /**
+     * Called when the number of groups this index can hold grows so that
+     * subclasses can grow any per-group storage. The initial group capacity is
+     * {@link #INITIAL_GROUP_CAPACITY}.
+     *
+     * @param newGroupCapacity the new group capacity.
+     */
+    protected abstract void groupCapacityChanged(final int newGroupCapacity);
+
+    @Override
+    public void addElement(final int element) {
+        if (elementGroups[element] >= 0) {
+            unlinkElement(element);
+        }
+        linkElement(element, getOrCreateGroup(element));
+    }
+
+    @Override
+    public void removeElement(final int element) {
+        if (elementGroups[element] >= 0) {
+            unlinkElement(element);
+        }
+    }
+
+    @Override
+    public void updateElement(final int element) {
+        final int oldGroup = elementGroups[element];
+        if (oldGroup >= 0) {
+            final int newGroup = getOrCreateGroup(element);
+            if (newGroup != oldGroup) {
+                unlinkElement(element);
+                linkElement(element, newGroup);
+            }
+        }
+    }
+
+    private void linkElement(final int element, final int group) {
+        final int head = groupHeads[group];
+        next[element] = head;
+        prev[element] = -1;
+        if (head >= 0) {
+            prev[head] = element;
+        }
+        groupHeads[group] = element;
+        groupSizes[group]++;
+        elementGroups[element] = group;
+    }
+
+    private void unlinkElement(final int element) {
+        final int group = elementGroups[element];
+        final int p = prev[element];
+        final int n = next[element];
+        if (p >= 0) {
+            next[p] = n;
+        } else {
+            groupHeads[group] = n;
+        }
+        if (n >= 0) {
+            prev[n] = p;
+        }
+        elementGroups[element] = -1;
+
+        if (--groupSizes[group] == 0) {
+            releaseGroup(group);
+            if (freeGroupCount == freeGroups.length) {
+                freeGroups = Arrays.copyOf(freeGroups, freeGroups.length << 1);
+            }
+            freeGroups[freeGroupCount++] = group;
+            liveGroupCount--;
+            sortedGroupsValid = false;
+        }
+    }
+
+    @Override
+    public GraphIndexResult getElementsWithAttributeValue(final Object value) {
+        final int group = getGroup(value);
+        if (group < 0) {
+            return new IndexResult(new int[0], 0, 0);
+        }
+        return new IndexResult(new int[]{group}, 1, groupSizes[group]);
+    }
+
+    @Override
+    public GraphIndexResult getElementsWithAttributeValueRange(final Object start, final Object end) {
+        if (!ordered) {
+            return null;
+        }
+
+        if (!sortedGroupsValid) {
+            sortedGroups = new int[liveGroupCount];
+            int position = 0;
+            for (int group = 0; group < groupCapacity; group++) {
+                if (groupSizes[group] > 0) {
+                    sortedGroups[position++] = group;
+                }
+            }
+            sortGroups(sortedGroups);
+            sortedGroupsValid = true;
+        }
+
+        final int first = start == null ? 0 : lowerBound(start);
+        final int last = end == null ? sortedGroups.length : upperBound(end);
+        if (first >= last) {
+            return new IndexResult(new int[0], 0, 0);
+        }
+
+        final int[] groups = Arrays.copyOfRange(sortedGroups, first, last);
+        int count = 0;
+        for (final int group : groups) {
+            count += groupSizes[group];
+        }
+        return new IndexResult(groups, groups.length, count);
+    }
+
+    /**
+     * Returns the position of the first sorted group whose value is not less
+     * than the specified boundary.
+     */
+    private int lowerBound(final Object value) {
+        int low = 0;
+        int high = sortedGroups.length;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (compareGroup(sortedGroups[mid], value) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the position of the first sorted group whose value is greater
+     * than the specified boundary.
+     */
+    private int upperBound(final Object value) {
+        int low = 0;
+        int high = sortedGroups.length;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (compareGroup(sortedGroups[mid], value) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    @Override
+    public void expandCapacity(final int newCapacity) {
+        final int oldCapacity = elementGroups.length;
+        elementGroups = Arrays.copyOf(elementGroups, newCapacity);
+        if (newCapacity > oldCapacity) {
+            Arrays.fill(elementGroups, oldCapacity, newCapacity, -1);
+        }
+        next = Arrays.copyOf(next, newCapacity);
+        prev = Arrays.copyOf(prev, newCapacity);
+    }
+
+    private class IndexResult implements GraphIndexResult {
+
+        private final int[] groups;
+        private final int groupCount;
+        private final int count;
+        private int currentGroup = 0;
+        private int nextElement;
+
+        public IndexResult(final int[] groups, final int groupCount, final int count) {
+            this.groups = groups;
+            this.groupCount = groupCount;
+            this.count = count;
+            this.nextElement = groupCount > 0 ? groupHeads[groups[0]] : -1;
+        }
+
+        @Override
+        public int getCount() {
+            return count;
+        }
+
+        @Override
+        public int getNextElement() {
+            while (nextElement < 0) {
+                if (++currentGroup >= groupCount) {
+                    return Graph.NOT_FOUND;
+                }
+                nextElement = groupHeads[groups[currentGroup]];
+            }
+            final int element = nextElement;
+            nextElement = next[element];
+            return element;
+        }
+    }
+}
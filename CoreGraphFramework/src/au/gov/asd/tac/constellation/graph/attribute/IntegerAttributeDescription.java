@@ -15,6 +15,8 @@
  */
 package au.gov.asd.tac.constellation.graph.attribute;
 
+import au.gov.asd.tac.constellation.graph.GraphIndex;
+import au.gov.asd.tac.constellation.graph.GraphIndexType;
 import au.gov.asd.tac.constellation.graph.GraphReadMethods;
 import au.gov.asd.tac.constellation.graph.GraphWriteMethods;
 import au.gov.asd.tac.constellation.graph.NativeAttributeType;
@@ -285,6 +287,33 @@ public final class IntegerAttributeDescription extends AbstractAttributeDescript
         data = Arrays.copyOf(sd, sd.length);
     }
 
+    @Override
+    public boolean supportsIndexType(final GraphIndexType indexType) {
+        return true;
+    }
+
+    @Override
+    public GraphIndex createIndex(final GraphIndexType indexType) {
+        return indexType == GraphIndexType.NONE ? NULL_GRAPH_INDEX : new Index(indexType == GraphIndexType.ORDERED);
+    }
+
+    private class Index extends LongKeyGraphIndex {
+
+        public Index(final boolean ordered) {
+            super(data.length, ordered);
+        }
+
+        @Override
+        protected long getElementKey(final int element) {
+            return data[element];
+        }
+
+        @Override
+        protected long getValueKey(final Object value) {
+            return convertFromObject(value);
+        }
+    }
+
     @Override
     public Object createReadObject(final IntReadable indexReadable) {
         return (IntReadable) () -> data[indexReadable.readInt()];
@@ -15,6 +15,8 @@
  */
 package au.gov.asd.tac.constellation.graph.attribute;
 
+import au.gov.asd.tac.constellation.graph.GraphIndex;
+import au.gov.asd.tac.constellation.graph.GraphIndexType;
 import au.gov.asd.tac.constellation.utilities.temporal.TemporalConstants;
 import au.gov.asd.tac.constellation.utilities.temporal.TemporalFormatting;
 import au.gov.asd.tac.constellation.utilities.temporal.TimeZoneUtilities;
@@ -22,6 +24,7 @@ import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.Calendar;
+import java.util.Comparator;
 import java.util.Date;
 import org.apache.commons.lang3.StringUtils;
 import org.openide.util.lookup.ServiceProvider;
@@ -129,4 +132,31 @@ public final class LocalDateTimeAttributeDescription extends AbstractObjectAttri
     public int hashCode(final int id) {
         return (int) data[id];
     }
+
+    @Override
+    public boolean supportsIndexType(final GraphIndexType indexType) {
+        return true;
+    }
+
+    @Override
+    public GraphIndex createIndex(final GraphIndexType indexType) {
+        return indexType == GraphIndexType.NONE ? NULL_GRAPH_INDEX : new Index(indexType == GraphIndexType.ORDERED);
+    }
+
+    private class Index extends ObjectKeyGraphIndex<LocalDateTime> {
+
+        public Index(final boolean ordered) {
+            super(data.length, ordered ? Comparator.nullsFirst(Comparator.naturalOrder()) : null);
+        }
+
+        @Override
+        protected LocalDateTime getElementKey(final int element) {
+            return (LocalDateTime) data[element];
+        }
+
+        @Override
+        protected LocalDateTime getValueKey(final Object value) {
+            return convertFromObject(value);
+        }
+    }
 }
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.attribute;
+
+import java.util.Arrays;
+
+/**
+ * A {@link AbstractGraphIndex} for attributes whose values can be represented
+ * as primitive long keys.
+ * <p>
+ * Keys are held in an open addressing hash table of primitive arrays so that
+ * maintaining the index does not box attribute values. For ordered indexes the
+ * natural ordering of the keys must match the ordering of the attribute
+ * values; {@link #sortableKey(double)} provides such a mapping for floating
+ * point values.
+ *
+ * @author sirius
+ */
+public abstract class LongKeyGraphIndex extends AbstractGraphIndex {
+
+    private static final int EMPTY = -1;
+
+    private long[] groupKeys = new long[INITIAL_GROUP_CAPACITY];
+    private int[] table = new int[INITIAL_GROUP_CAPACITY << 1];
+    private int tableMask = table.length - 1;
+    private int size = 0;
+
+    /**
+     * Creates a new index.
+     *
+     * @param capacity the initial element capacity of the index.
+     * @param ordered true if this index should support range queries.
+     */
+    protected LongKeyGraphIndex(final int capacity, final boolean ordered) {
+        super(capacity, ordered);
+        Arrays.fill(table, EMPTY);
+    }
+
+    /**
+     * Returns the key for the current attribute value of the specified
+     * element.
+     *
+     * @param element the element id.
+     * @return the key for the value of the element.
+     */
+    protected abstract long getElementKey(final int element);
+
+    /**
+     * Converts a query value to a key.
+     *
+     * @param value the query value.
+     * @return the key for the query value.
+     */
+    protected abstract long getValueKey(final Object value);
+
+    /**
+     * Maps a double to a long such that the natural ordering of the resulting
+     * longs matches the numerical ordering of the doubles. Positive and
+     * negative zero are mapped to the same key and all NaN values are mapped
+     * to a single key greater than positive infinity.
+     *
+     * @param value the double value.
+     * @return a key whose ordering matches the ordering of the value.
+     */
+    public static long sortableKey(final double value) {
+        final long bits = Double.doubleToLongBits(value == 0.0 ? 0.0 : value);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    private static int hash(final long key) {
+        final long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private int find(final long key) {
+        int slot = hash(key) & tableMask;
+        while (true) {
+            final int group = table[slot];
+            if (group == EMPTY || groupKeys[group] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & tableMask;
+        }
+    }
+
+    @Override
+    protected int getOrCreateGroup(final int element) {
+        final long key = getElementKey(element);
+        final int slot = find(key);
+        if (table[slot] != EMPTY) {
+            return table[slot];
+        }
+
+        final int group = allocateGroup();
+        groupKeys[group] = key;
+        table[slot] = group;
+        if (++size << 1 > table.length) {
+            rehash(table.length << 1);
+        }
+        return group;
+    }
+
+    @Override
+    protected int getGroup(final Object value) {
+        return table[find(getValueKey(value))];
+    }
+
+    @Override
+    protected void releaseGroup(final int group) {
+        // Remove the key using backward shift deletion so that no tombstones are needed
+        int slot = find(groupKeys[group]);
+        int gap = slot;
+        while (true) {
+            slot = (slot + 1) & tableMask;
+            final int candidate = table[slot];
+            if (candidate == EMPTY) {
+                break;
+            }
+            final int home = hash(groupKeys[candidate]) & tableMask;
+            if (((slot - home) & tableMask) >= ((slot - gap) & tableMask)) {
+                table[gap] = candidate;
+                gap = slot;
+            }
+        }
+        table[gap] = EMPTY;
+        size--;
+    }
+
+    private void rehash(final int newLength) {
+        final int[] oldTable = table;
+        table = new int[newLength];
+        Arrays.fill(table, EMPTY);
+        tableMask = newLength - 1;
+        for (final int group : oldTable) {
+            if (group != EMPTY) {
+                table[find(groupKeys[group])] = group;
+            }
+        }
+    }
+
+    @Override
+    protected void groupCapacityChanged(final int newGroupCapacity) {
+        groupKeys = Arrays.copyOf(groupKeys, newGroupCapacity);
+    }
+
+    @Override
+    protected void sortGroups(final int[] groups) {
+        // Keys are unique per group so sort the keys and map them back to their groups
+        final long[] keys = new long[groups.length];
+        for (int i = 0; i < groups.length; i++) {
+            keys[i] = groupKeys[groups[i]];
+        }
+        Arrays.sort(keys);
+        for (int i = 0; i < keys.length; i++) {
+            groups[i] = table[find(keys[i])];
+        }
+    }
+
+    @Override
+    protected int compareGroup(final int group, final Object value) {
+        return Long.compare(groupKeys[group], getValueKey(value));
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.attribute;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A {@link AbstractGraphIndex} for attributes whose values are objects.
+ * <p>
+ * Values are matched using {@link Object#equals(java.lang.Object)} and, for
+ * ordered indexes, sorted using the comparator supplied at construction. The
+ * comparator must be consistent with equals and must accept null values if
+ * the attribute can hold null.
+ *
+ * @param <T> the type of the attribute values.
+ *
+ * @author sirius
+ */
+public abstract class ObjectKeyGraphIndex<T> extends AbstractGraphIndex {
+
+    private final Comparator<? super T> comparator;
+    private final Map<T, Integer> groups = new HashMap<>();
+    private Object[] groupKeys = new Object[INITIAL_GROUP_CAPACITY];
+
+    /**
+     * Creates a new index.
+     *
+     * @param capacity the initial element capacity of the index.
+     * @param comparator the comparator used to order values, or null if this
+     * index does not support range queries.
+     */
+    protected ObjectKeyGraphIndex(final int capacity, final Comparator<? super T> comparator) {
+        super(capacity, comparator != null);
+        this.comparator = comparator;
+    }
+
+    /**
+     * Returns the current attribute value of the specified element.
+     *
+     * @param element the element id.
+     * @return the value of the element.
+     */
+    protected abstract T getElementKey(final int element);
+
+    /**
+     * Converts a query value to the type of the attribute values.
+     *
+     * @param value the query value.
+     * @return the converted value.
+     */
+    protected abstract T getValueKey(final Object value);
+
+    @SuppressWarnings("unchecked") // groupKeys only holds values of type T
+    private T getGroupKey(final int group) {
+        return (T) groupKeys[group];
+    }
+
+    @Override
+    protected int getOrCreateGroup(final int element) {
+        final T key = getElementKey(element);
+        final Integer existingGroup = groups.get(key);
+        if (existingGroup != null) {
+            return existingGroup;
+        }
+
+        final int group = allocateGroup();
+        groupKeys[group] = key;
+        groups.put(key, group);
+        return group;
+    }
+
+    @Override
+    protected int getGroup(final Object value) {
+        final Integer group = groups.get(getValueKey(value));
+        return group == null ? -1 : group;
+    }
+
+    @Override
+    protected void releaseGroup(final int group) {
+        groups.remove(getGroupKey(group));
+        groupKeys[group] = null;
+    }
+
+    @Override
+    protected void groupCapacityChanged(final int newGroupCapacity) {
+        groupKeys = Arrays.copyOf(groupKeys, newGroupCapacity);
+    }
+
+    @Override
+    protected void sortGroups(final int[] groupsToSort) {
+        final Object[] keys = new Object[groupsToSort.length];
+        for (int i = 0; i < groupsToSort.length; i++) {
+            keys[i] = groupKeys[groupsToSort[i]];
+        }
+        @SuppressWarnings("unchecked") // keys only holds values of type T
+        final Comparator<Object> keyComparator = (Comparator<Object>) comparator;
+        Arrays.sort(keys, keyComparator);
+        for (int i = 0; i < keys.length; i++) {
+            groupsToSort[i] = groups.get(keys[i]);
+        }
+    }
+
+    @Override
+    protected int compareGroup(final int group, final Object value) {
+        return comparator.compare(getGroupKey(group), getValueKey(value));
+    }
+}
@@ -15,6 +15,8 @@
  */
 package au.gov.asd.tac.constellation.graph.attribute;
 
+import au.gov.asd.tac.constellation.graph.GraphIndex;
+import au.gov.asd.tac.constellation.graph.GraphIndexType;
 import au.gov.asd.tac.constellation.graph.GraphReadMethods;
 import au.gov.asd.tac.constellation.graph.GraphWriteMethods;
 import au.gov.asd.tac.constellation.graph.NativeAttributeType;
@@ -24,6 +26,7 @@ import au.gov.asd.tac.constellation.graph.value.readables.IntReadable;
 import au.gov.asd.tac.constellation.graph.value.readables.StringReadable;
 import au.gov.asd.tac.constellation.graph.value.variables.StringVariable;
 import java.util.Arrays;
+import java.util.Comparator;
 import org.openide.util.lookup.ServiceProvider;
 
 /**
@@ -254,6 +257,33 @@ public final class StringAttributeDescription extends AbstractAttributeDescripti
         data = Arrays.copyOf(sd, sd.length);
     }
 
+    @Override
+    public boolean supportsIndexType(final GraphIndexType indexType) {
+        return true;
+    }
+
+    @Override
+    public GraphIndex createIndex(final GraphIndexType indexType) {
+        return indexType == GraphIndexType.NONE ? NULL_GRAPH_INDEX : new Index(indexType == GraphIndexType.ORDERED);
+    }
+
+    private class Index extends ObjectKeyGraphIndex<String> {
+
+        public Index(final boolean ordered) {
+            super(data.length, ordered ? Comparator.nullsFirst(Comparator.naturalOrder()) : null);
+        }
+
+        @Override
+        protected String getElementKey(final int element) {
+            return data[element];
+        }
+
+        @Override
+        protected String getValueKey(final Object value) {
+            return convertFromObject(value);
+        }
+    }
+
     @Override
     public Object createReadObject(final IntReadable indexReadable) {
         return (StringReadable) () -> data[indexReadable.readInt()];
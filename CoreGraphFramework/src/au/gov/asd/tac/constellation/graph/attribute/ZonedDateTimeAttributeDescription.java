@@ -15,6 +15,8 @@
  */
 package au.gov.asd.tac.constellation.graph.attribute;
 
+import au.gov.asd.tac.constellation.graph.GraphIndex;
+import au.gov.asd.tac.constellation.graph.GraphIndexType;
 import au.gov.asd.tac.constellation.utilities.temporal.TemporalConstants;
 import au.gov.asd.tac.constellation.utilities.temporal.TemporalFormatting;
 import au.gov.asd.tac.constellation.utilities.temporal.TimeZoneUtilities;
@@ -24,6 +26,7 @@ import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.util.Calendar;
+import java.util.Comparator;
 import java.util.Date;
 import org.apache.commons.lang3.StringUtils;
 import org.openide.util.lookup.ServiceProvider;
@@ -144,4 +147,36 @@ public final class ZonedDateTimeAttributeDescription extends AbstractObjectAttri
     public int hashCode(final int id) {
         return data[id] == null ? 0 : ((ZonedDateTime) data[id]).toInstant().hashCode();
     }
+
+    @Override
+    public boolean supportsIndexType(final GraphIndexType indexType) {
+        return true;
+    }
+
+    @Override
+    public GraphIndex createIndex(final GraphIndexType indexType) {
+        return indexType == GraphIndexType.NONE ? NULL_GRAPH_INDEX : new Index(indexType == GraphIndexType.ORDERED);
+    }
+
+    /**
+     * Indexes datetimes by their instant, to match {@link #hashCode(int)}, so
+     * the same moment in different time zones is treated as one value.
+     */
+    private class Index extends ObjectKeyGraphIndex<Instant> {
+
+        public Index(final boolean ordered) {
+            super(data.length, ordered ? Comparator.nullsFirst(Comparator.naturalOrder()) : null);
+        }
+
+        @Override
+        protected Instant getElementKey(final int element) {
+            return data[element] == null ? null : ((ZonedDateTime) data[element]).toInstant();
+        }
+
+        @Override
+        protected Instant getValueKey(final Object value) {
+            final ZonedDateTime dateTime = convertFromObject(value);
+            return dateTime == null ? null : dateTime.toInstant();
+        }
+    }
 }
@@ -16,6 +16,7 @@
 package au.gov.asd.tac.constellation.graph.locking;
 
 import au.gov.asd.tac.constellation.graph.Graph;
+import au.gov.asd.tac.constellation.graph.GraphWriter;
 import au.gov.asd.tac.constellation.graph.ReadableGraph;
 import au.gov.asd.tac.constellation.graph.StoreGraph;
 import au.gov.asd.tac.constellation.graph.WritableGraph;
@@ -25,6 +26,7 @@ import au.gov.asd.tac.constellation.graph.schema.Schema;
 import au.gov.asd.tac.constellation.utilities.memory.MemoryManager;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javafx.application.Platform;
@@ -77,6 +79,7 @@ public class DualGraph implements Graph, Serializable {
     private final LockingStoreGraph a;
     private final LockingStoreGraph b;
     private final LockingManager<LockingStoreGraph> lockingManager;
+    private final WriteCoalescer writeCoalescer = new WriteCoalescer(this, WriteCoalescer.DEFAULT_LATENCY_MILLIS);
     private final String id;
     private GraphChangeEvent previousEvent = null;
     private final Schema schema;
@@ -108,6 +111,7 @@ public class DualGraph implements Graph, Serializable {
         lockingManager.setTargets(a, b);
 
         this.id = a.getId();
+        lockingManager.getStatistics().setGraphId(id);
 
         this.schema = schema;
 
@@ -143,6 +147,7 @@ public class DualGraph implements Graph, Serializable {
         lockingManager.setTargets(a, b);
 
         this.id = a.getId();
+        lockingManager.getStatistics().setGraphId(id);
 
         this.schema = schema == null ? null : schema.getFactory().createSchema();
 
@@ -207,6 +212,11 @@ public class DualGraph implements Graph, Serializable {
         return lockingManager.startWriting(name, significant, editor);
     }
 
+    @Override
+    public CompletableFuture<Void> writeCoalesced(final String name, final boolean significant, final Object editor, final GraphWriter<?> writer) {
+        return writeCoalescer.submit(name, significant, editor, writer);
+    }
+
     @Override
     public WritableGraph getWritableGraphNow(final String name, final boolean significant) {
         return getWritableGraphNow(name, significant, null);
@@ -221,8 +231,27 @@ public class DualGraph implements Graph, Serializable {
         return lockingManager.tryStartWriting(name, significant, editor);
     }
 
+    /**
+     * Returns the locking manager of this graph.
+     *
+     * @return the locking manager of this graph.
+     */
+    LockingManager<LockingStoreGraph> getLockingManager() {
+        return lockingManager;
+    }
+
     @Override
     public void setUndoManager(final UndoManager undoManager) {
         lockingManager.setUndoManager(undoManager);
     }
+
+    @Override
+    public void setUndoMemoryBudget(final long bytes) {
+        lockingManager.setUndoMemoryBudget(bytes);
+    }
+
+    @Override
+    public void setUndoRecording(final boolean recordUndo) {
+        lockingManager.setUndoRecording(recordUndo);
+    }
 }
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.locking;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder events for graph locks. The duration of each event is the
+ * time the lock was held, and the thread of each event is the thread that
+ * held it.
+ *
+ * @author sirius
+ */
+final class GraphLockEvents {
+
+    private GraphLockEvents() {
+    }
+
+    @Name("au.gov.asd.tac.constellation.graph.ReadLock")
+    @Label("Graph Read Lock")
+    @Description("A read lock held on a graph")
+    @Category({"Constellation", "Graph"})
+    static final class ReadLockEvent extends Event {
+
+        @Label("Graph Id")
+        String graphId;
+
+        @Label("Wait Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long waitTime;
+    }
+
+    @Name("au.gov.asd.tac.constellation.graph.WriteLock")
+    @Label("Graph Write Lock")
+    @Description("The write lock held on a graph")
+    @Category({"Constellation", "Graph"})
+    static final class WriteLockEvent extends Event {
+
+        @Label("Graph Id")
+        String graphId;
+
+        @Label("Operation")
+        String operation;
+
+        @Label("Wait Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long waitTime;
+
+        @Label("Committed")
+        boolean committed;
+    }
+
+    @Name("au.gov.asd.tac.constellation.graph.CatchUp")
+    @Label("Graph Catch Up")
+    @Description("Replaying a commit onto the previous read copy of a graph")
+    @Category({"Constellation", "Graph"})
+    static final class CatchUpEvent extends Event {
+
+        @Label("Graph Id")
+        String graphId;
+
+        @Label("Wait Time")
+        @Description("Time spent waiting for readers of the previous read copy to finish")
+        @Timespan(Timespan.NANOSECONDS)
+        long waitTime;
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.locking;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Keeps track of the {@link LockStatistics} of every graph and publishes them
+ * through JMX, so that the views and plugins that are holding up a graph can
+ * be found with a tool such as JConsole or Mission Control.
+ * <p>
+ * Graphs are held weakly, so a graph that has been closed drops out of the
+ * monitor once it has been garbage collected. The lock holders of every graph
+ * are checked every second, and a lock held for longer than
+ * {@link #getLongHoldMillis()} is logged as a warning while it is still held.
+ *
+ * @author sirius
+ */
+public final class GraphLockMonitor implements GraphLockMonitorMXBean {
+
+    private static final Logger LOGGER = Logger.getLogger(GraphLockMonitor.class.getName());
+
+    public static final String OBJECT_NAME = "au.gov.asd.tac.constellation.graph:type=GraphLockMonitor";
+    public static final long DEFAULT_LONG_HOLD_MILLIS = 5000;
+
+    private static final GraphLockMonitor INSTANCE = new GraphLockMonitor();
+
+    // A daemon thread so that the monitor doesn't keep the application alive.
+    private static final ScheduledExecutorService LONG_HOLD_CHECKER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "Graph Lock Monitor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        LONG_HOLD_CHECKER.scheduleWithFixedDelay(INSTANCE::reportLongHolds, 1, 1, TimeUnit.SECONDS);
+
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+        } catch (final JMException ex) {
+            LOGGER.log(Level.WARNING, "Unable to register the graph lock monitor", ex);
+        }
+    }
+
+    private final Map<LockStatistics, Boolean> statistics = Collections.synchronizedMap(new WeakHashMap<>());
+    private volatile long longHoldMillis = DEFAULT_LONG_HOLD_MILLIS;
+
+    private GraphLockMonitor() {
+    }
+
+    public static GraphLockMonitor getDefault() {
+        return INSTANCE;
+    }
+
+    /**
+     * Creates the lock statistics for a new graph.
+     *
+     * @return the new lock statistics.
+     */
+    LockStatistics createStatistics() {
+        final LockStatistics graphStatistics = new LockStatistics();
+        statistics.put(graphStatistics, Boolean.TRUE);
+        return graphStatistics;
+    }
+
+    @Override
+    public List<LockStatistics> getGraphs() {
+        synchronized (statistics) {
+            return new ArrayList<>(statistics.keySet());
+        }
+    }
+
+    @Override
+    public long getLongHoldMillis() {
+        return longHoldMillis;
+    }
+
+    @Override
+    public void setLongHoldMillis(final long longHoldMillis) {
+        this.longHoldMillis = longHoldMillis;
+    }
+
+    private void reportLongHolds() {
+        final long longHold = TimeUnit.MILLISECONDS.toNanos(longHoldMillis);
+        for (final LockStatistics graphStatistics : getGraphs()) {
+            try {
+                graphStatistics.reportLongHolds(longHold);
+            } catch (final RuntimeException ex) {
+                // a failure must not stop the checks that are scheduled after it
+                LOGGER.log(Level.WARNING, "Unable to check for long lock holds", ex);
+            }
+        }
+    }
+
+    @Override
+    public void reset() {
+        getGraphs().forEach(LockStatistics::reset);
+    }
+}
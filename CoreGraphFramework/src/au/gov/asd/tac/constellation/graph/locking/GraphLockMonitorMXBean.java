@@ -0,0 +1,53 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.locking;
+
+import java.util.List;
+
+/**
+ * The management interface of the {@link GraphLockMonitor}, registered with
+ * the platform MBean server as {@value GraphLockMonitor#OBJECT_NAME}.
+ *
+ * @author sirius
+ */
+public interface GraphLockMonitorMXBean {
+
+    /**
+     * Returns the lock statistics of every graph that is still in memory.
+     *
+     * @return the lock statistics of every graph.
+     */
+    List<LockStatistics> getGraphs();
+
+    /**
+     * Returns how long a lock can be held before it is logged as a warning.
+     *
+     * @return the long hold threshold in milliseconds.
+     */
+    long getLongHoldMillis();
+
+    /**
+     * Sets how long a lock can be held before it is logged as a warning.
+     *
+     * @param longHoldMillis the long hold threshold in milliseconds.
+     */
+    void setLongHoldMillis(final long longHoldMillis);
+
+    /**
+     * Clears the times recorded for every graph.
+     */
+    void reset();
+}
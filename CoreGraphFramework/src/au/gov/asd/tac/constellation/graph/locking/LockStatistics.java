@@ -0,0 +1,326 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.locking;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+
+/**
+ * Lock statistics for a single graph: how long threads wait for and hold its
+ * read and write locks, how long it takes to bring the previous read copy up
+ * to date after a commit, and which threads are holding its locks right now.
+ * <p>
+ * Read locks are taken very often, so each thread reuses a single record of
+ * its read hold and only creates a Flight Recorder event for a hold while that
+ * event is enabled. The {@link GraphLockMonitor} checks the holders of every
+ * graph periodically, and a thread that has held a lock for longer than
+ * {@link GraphLockMonitor#getLongHoldMillis()} is logged as a warning, once
+ * for each hold, along with the stack of the holding thread.
+ *
+ * @author sirius
+ */
+public final class LockStatistics {
+
+    private static final Logger LOGGER = Logger.getLogger(LockStatistics.class.getName());
+
+    private static final EventType READ_LOCK_EVENT = EventType.getEventType(GraphLockEvents.ReadLockEvent.class);
+    private static final EventType WRITE_LOCK_EVENT = EventType.getEventType(GraphLockEvents.WriteLockEvent.class);
+    private static final EventType CATCH_UP_EVENT = EventType.getEventType(GraphLockEvents.CatchUpEvent.class);
+
+    private volatile String graphId = null;
+
+    private final LockTimer readWait = new LockTimer();
+    private final LockTimer readHold = new LockTimer();
+    private final LockTimer writeWait = new LockTimer();
+    private final LockTimer writeHold = new LockTimer();
+    private final LockTimer catchUpWait = new LockTimer();
+    private final LockTimer replay = new LockTimer();
+
+    // The read hold of every thread that has read the graph, which is only changed by that thread.
+    private final Map<Thread, Hold> readHolders = Collections.synchronizedMap(new WeakHashMap<>());
+    private final ThreadLocal<Hold> threadReadHold = ThreadLocal.withInitial(() -> {
+        final Hold hold = new Hold();
+        readHolders.put(Thread.currentThread(), hold);
+        return hold;
+    });
+    private volatile Hold writeHolder = null;
+
+    /**
+     * A lock held by a thread. The hold of a read lock is reused each time
+     * its thread takes the lock again.
+     */
+    static final class Hold {
+
+        private Thread thread;
+        private String name;
+        private volatile long acquired;
+        private long waited;
+        private Event event;
+        private volatile int depth = 0;
+        private volatile boolean reported;
+
+        private void start(final Thread thread, final String name, final long requested, final Event event) {
+            this.thread = thread;
+            this.name = name;
+            this.acquired = System.nanoTime();
+            this.waited = acquired - requested;
+            this.event = event;
+            this.reported = false;
+            if (event != null) {
+                event.begin();
+            }
+        }
+
+        private void commit() {
+            if (event != null) {
+                event.commit();
+                event = null;
+            }
+        }
+
+        private String describe(final Thread holder, final long now) {
+            final String description = name == null ? holder.getName() : name + " (" + holder.getName() + ")";
+            return String.format("%s for %d ms", description, TimeUnit.NANOSECONDS.toMillis(now - acquired));
+        }
+    }
+
+    LockStatistics() {
+    }
+
+    void setGraphId(final String graphId) {
+        this.graphId = graphId;
+    }
+
+    /**
+     * Returns the id of the graph these statistics are for.
+     *
+     * @return the id of the graph these statistics are for.
+     */
+    public String getGraphId() {
+        return graphId;
+    }
+
+    /**
+     * Returns the times spent waiting for read locks.
+     *
+     * @return the times spent waiting for read locks.
+     */
+    public LockTiming getReadWait() {
+        return readWait.getTiming();
+    }
+
+    /**
+     * Returns the times that read locks were held.
+     *
+     * @return the times that read locks were held.
+     */
+    public LockTiming getReadHold() {
+        return readHold.getTiming();
+    }
+
+    /**
+     * Returns the times spent waiting for the write lock.
+     *
+     * @return the times spent waiting for the write lock.
+     */
+    public LockTiming getWriteWait() {
+        return writeWait.getTiming();
+    }
+
+    /**
+     * Returns the times that the write lock was held.
+     *
+     * @return the times that the write lock was held.
+     */
+    public LockTiming getWriteHold() {
+        return writeHold.getTiming();
+    }
+
+    /**
+     * Returns the times that the previous read copy spent waiting for its
+     * readers to finish before it could be brought up to date.
+     *
+     * @return the times spent waiting for readers of the previous read copy.
+     */
+    public LockTiming getCatchUpWait() {
+        return catchUpWait.getTiming();
+    }
+
+    /**
+     * Returns the times taken to replay a commit onto the previous read copy.
+     *
+     * @return the times taken to replay a commit.
+     */
+    public LockTiming getReplay() {
+        return replay.getTiming();
+    }
+
+    /**
+     * Returns the threads that are holding a read lock, and for how long they
+     * have held it.
+     *
+     * @return the threads holding a read lock.
+     */
+    public List<String> getReadHolders() {
+        final long now = System.nanoTime();
+        final List<String> holders = new ArrayList<>();
+        synchronized (readHolders) {
+            readHolders.forEach((thread, hold) -> {
+                if (hold.depth > 0) {
+                    holders.add(hold.describe(thread, now));
+                }
+            });
+        }
+        return holders;
+    }
+
+    /**
+     * Returns the operation and thread holding the write lock, and for how
+     * long it has held it, or null if the write lock is not held.
+     *
+     * @return the holder of the write lock, or null.
+     */
+    public String getWriteHolder() {
+        final Hold hold = writeHolder;
+        return hold == null ? null : hold.describe(hold.thread, System.nanoTime());
+    }
+
+    /**
+     * Clears the recorded times.
+     */
+    public void reset() {
+        readWait.reset();
+        readHold.reset();
+        writeWait.reset();
+        writeHold.reset();
+        catchUpWait.reset();
+        replay.reset();
+    }
+
+    void readAcquired(final long requested) {
+        final Hold hold = threadReadHold.get();
+        if (hold.depth == 0) {
+            GraphLockEvents.ReadLockEvent event = null;
+            if (READ_LOCK_EVENT.isEnabled()) {
+                event = new GraphLockEvents.ReadLockEvent();
+                event.graphId = graphId;
+            }
+            hold.start(null, null, requested, event);
+            if (event != null) {
+                event.waitTime = hold.waited;
+            }
+            readWait.record(hold.waited);
+        }
+        hold.depth++;
+    }
+
+    void readReleased() {
+        final Hold hold = threadReadHold.get();
+        if (hold.depth == 0 || --hold.depth > 0) {
+            return;
+        }
+        hold.commit();
+        readHold.record(System.nanoTime() - hold.acquired);
+    }
+
+    void writeAcquired(final long requested, final String name) {
+        GraphLockEvents.WriteLockEvent event = null;
+        if (WRITE_LOCK_EVENT.isEnabled()) {
+            event = new GraphLockEvents.WriteLockEvent();
+            event.graphId = graphId;
+            event.operation = name;
+        }
+        final Hold hold = new Hold();
+        hold.start(Thread.currentThread(), name, requested, event);
+        if (event != null) {
+            event.waitTime = hold.waited;
+        }
+        writeWait.record(hold.waited);
+        writeHolder = hold;
+    }
+
+    void writeReleased(final boolean committed) {
+        final Hold hold = writeHolder;
+        if (hold == null) {
+            return;
+        }
+        writeHolder = null;
+        if (hold.event != null) {
+            ((GraphLockEvents.WriteLockEvent) hold.event).committed = committed;
+        }
+        hold.commit();
+        writeHold.record(System.nanoTime() - hold.acquired);
+    }
+
+    Hold catchUpStarted(final long requested) {
+        GraphLockEvents.CatchUpEvent event = null;
+        if (CATCH_UP_EVENT.isEnabled()) {
+            event = new GraphLockEvents.CatchUpEvent();
+            event.graphId = graphId;
+        }
+        final Hold hold = new Hold();
+        hold.start(Thread.currentThread(), null, requested, event);
+        if (event != null) {
+            event.waitTime = hold.waited;
+        }
+        catchUpWait.record(hold.waited);
+        return hold;
+    }
+
+    void catchUpFinished(final Hold hold) {
+        hold.commit();
+        replay.record(System.nanoTime() - hold.acquired);
+    }
+
+    /**
+     * Logs a warning for each lock that has been held for longer than the
+     * given time and has not been reported yet.
+     *
+     * @param longHold the long hold threshold in nanoseconds.
+     */
+    void reportLongHolds(final long longHold) {
+        final long now = System.nanoTime();
+        synchronized (readHolders) {
+            readHolders.forEach((thread, hold) -> {
+                if (hold.depth > 0 && !hold.reported && now - hold.acquired > longHold) {
+                    report("Read", thread, hold, now);
+                }
+            });
+        }
+        final Hold hold = writeHolder;
+        if (hold != null && !hold.reported && now - hold.acquired > longHold) {
+            report("Write", hold.thread, hold, now);
+        }
+    }
+
+    private void report(final String kind, final Thread thread, final Hold hold, final long now) {
+        hold.reported = true;
+        if (LOGGER.isLoggable(Level.WARNING)) {
+            final String message = String.format("%s lock on graph %s has been held by %s", kind, graphId, hold.describe(thread, now));
+            final Throwable location = new Throwable("Lock holder is here");
+            location.setStackTrace(thread.getStackTrace());
+            LOGGER.log(Level.WARNING, message, location);
+        }
+    }
+}
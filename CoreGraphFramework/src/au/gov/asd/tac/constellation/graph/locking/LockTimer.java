@@ -0,0 +1,70 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.locking;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records times into a histogram whose buckets double in width, starting from
+ * one microsecond. Recording is lock free so that it can be done from any
+ * thread that takes or releases a graph lock.
+ *
+ * @author sirius
+ */
+final class LockTimer {
+
+    private static final int BUCKETS = 40;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Returns the upper bound of a bucket in nanoseconds.
+     *
+     * @param bucket the bucket.
+     * @return the upper bound of the bucket in nanoseconds.
+     */
+    static long getUpperBoundNanos(final int bucket) {
+        return (1L << bucket) * 1000;
+    }
+
+    void record(final long nanos) {
+        final long micros = Math.max(0, nanos) / 1000;
+        final int bucket = Math.min(BUCKETS - 1, Long.SIZE - Long.numberOfLeadingZeros(micros));
+        counts.incrementAndGet(bucket);
+        totalNanos.add(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    LockTiming getTiming() {
+        final long[] snapshot = new long[BUCKETS];
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            snapshot[bucket] = counts.get(bucket);
+        }
+        return new LockTiming(snapshot, totalNanos.sum(), maxNanos.get());
+    }
+
+    void reset() {
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            counts.set(bucket, 0);
+        }
+        totalNanos.reset();
+        maxNanos.set(0);
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.locking;
+
+/**
+ * A snapshot of the times recorded for one kind of lock operation, such as
+ * waiting for or holding the read lock of a graph.
+ * <p>
+ * Times are kept in a histogram with buckets that double in width, so
+ * percentiles are accurate to within a factor of two.
+ *
+ * @author sirius
+ */
+public final class LockTiming {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final long[] counts;
+    private final long count;
+    private final long totalNanos;
+    private final long maxNanos;
+
+    LockTiming(final long[] counts, final long totalNanos, final long maxNanos) {
+        this.counts = counts;
+        long sum = 0;
+        for (final long bucketCount : counts) {
+            sum += bucketCount;
+        }
+        this.count = sum;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+    }
+
+    /**
+     * Returns the number of times recorded.
+     *
+     * @return the number of times recorded.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the sum of the times recorded in milliseconds.
+     *
+     * @return the sum of the times recorded in milliseconds.
+     */
+    public double getTotalMillis() {
+        return totalNanos / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Returns the mean of the times recorded in milliseconds.
+     *
+     * @return the mean of the times recorded in milliseconds.
+     */
+    public double getMeanMillis() {
+        return count == 0 ? 0 : totalNanos / NANOS_PER_MILLI / count;
+    }
+
+    /**
+     * Returns the longest time recorded in milliseconds.
+     *
+     * @return the longest time recorded in milliseconds.
+     */
+    public double getMaxMillis() {
+        return maxNanos / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Returns an upper bound on the median time in milliseconds.
+     *
+     * @return an upper bound on the median time in milliseconds.
+     */
+    public double getMedianMillis() {
+        return getPercentileMillis(0.5);
+    }
+
+    /**
+     * Returns an upper bound on the 99th percentile time in milliseconds.
+     *
+     * @return an upper bound on the 99th percentile time in milliseconds.
+     */
+    public double getPercentile99Millis() {
+        return getPercentileMillis(0.99);
+    }
+
+    private double getPercentileMillis(final double fraction) {
+        if (count == 0) {
+            return 0;
+        }
+        final long rank = (long) Math.ceil(count * fraction);
+        long seen = 0;
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            seen += counts[bucket];
+            if (seen >= rank) {
+                return Math.min(LockTimer.getUpperBoundNanos(bucket), maxNanos) / NANOS_PER_MILLI;
+            }
+        }
+        return getMaxMillis();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d mean=%.3fms median<=%.3fms p99<=%.3fms max=%.3fms",
+                count, getMeanMillis(), getMedianMillis(), getPercentile99Millis(), getMaxMillis());
+    }
+}
@@ -20,13 +20,24 @@ import au.gov.asd.tac.constellation.graph.GraphWriteMethods;
 import au.gov.asd.tac.constellation.graph.reporting.UndoRedoReport;
 import au.gov.asd.tac.constellation.graph.reporting.UndoRedoReportManager;
 import au.gov.asd.tac.constellation.graph.undo.UndoGraphEdit;
+import au.gov.asd.tac.constellation.graph.undo.UndoSpillFile;
+import au.gov.asd.tac.constellation.utilities.threadpool.ManagedBlocking;
+import java.io.IOException;
 import java.io.Serializable;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.swing.SwingUtilities;
@@ -39,6 +50,27 @@ import javax.swing.undo.UndoableEdit;
 /**
  * The LockingManager manages the locking and unlocking of a graph in response
  * to requests for read and/or write access by plugins.
+ * <p>
+ * Readers and writers work on two copies of the graph. When a write is
+ * committed, the copy that was written becomes the copy for readers, and the
+ * edit is replayed onto the old read copy so that it can be written next. This
+ * replay has to wait for readers of the old copy to finish, so it is done in
+ * the background and a commit returns as soon as the new read copy is
+ * published. The next writer waits for the replay to finish before it is given
+ * the write copy.
+ * <p>
+ * Committed edits are kept for undo. Once their primitive state takes up more
+ * than the undo memory budget, the oldest edits are spilled to a temporary
+ * file and read back whenever they are undone or redone. The file is deleted
+ * once every edit spilled to it has died, for instance when the undo history is
+ * discarded or the graph is closed, and a new one is created the next time an
+ * edit is spilled. Undo recording can
+ * also be turned off, for instance during a bulk load, in which case committed
+ * edits are discarded once they have been replayed and the undo history is
+ * cleared.
+ * <p>
+ * Waits for and holds on every lock are timed into the {@link LockStatistics}
+ * of the graph, which are published through the {@link GraphLockMonitor}.
  *
  * @author sirius
  * @param <T>
@@ -48,6 +80,20 @@ public class LockingManager<T extends LockingTarget> implements Serializable {
     private static final Logger LOGGER = Logger.getLogger(LockingManager.class.getName());
 
     public static final boolean VERBOSE = false;
+
+    /**
+     * The default number of bytes of undo state that a graph keeps in memory
+     * before older edits are spilled to disk.
+     */
+    public static final long DEFAULT_UNDO_MEMORY_BUDGET = 256L * 1024 * 1024;
+
+    // Daemon threads so that an idle catch up thread doesn't keep the application alive.
+    private static final ExecutorService CATCH_UP_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        final Thread thread = new Thread(runnable, "Graph Catch Up");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private final ReentrantLock globalWriteLock = new ReentrantLock(true);
     private Context a;
     private Context b;
@@ -56,6 +102,19 @@ public class LockingManager<T extends LockingTarget> implements Serializable {
     private LockingEdit currentEdit = null;
     private LockingEdit initialEdit = null;
     private UndoManager undoManager;
+    private volatile CompletableFuture<Void> catchUp = CompletableFuture.completedFuture(null);
+    private volatile long undoMemoryBudget = DEFAULT_UNDO_MEMORY_BUDGET;
+    private volatile boolean recordingUndo = true;
+
+    // Committed edits whose state is still in memory, oldest first, which are only touched by catch ups.
+    private final ArrayDeque<LockingEdit> residentEdits = new ArrayDeque<>();
+    private long residentBytes = 0;
+
+    // Spilled edits die on the EDT while catch ups spill more, so the spill file is guarded by its own lock.
+    private final Object spillLock = new Object();
+    private UndoSpillFile spillFile = null;
+    private int spillFileEdits = 0;
+    private final LockStatistics statistics = GraphLockMonitor.getDefault().createStatistics();
     public static final String UNDO = "Undo";
     public static final String REDO = "Redo";
 
@@ -64,12 +123,55 @@ public class LockingManager<T extends LockingTarget> implements Serializable {
         b = writeContext = new Context(targetB);
         readContext.target.lock = readContext.lock.readLock();
         writeContext.target.lock = writeContext.lock.readLock();
+        readContext.target.statistics = statistics;
+        writeContext.target.statistics = statistics;
+    }
+
+    /**
+     * Returns the statistics of the locks managed by this locking manager.
+     *
+     * @return the lock statistics.
+     */
+    public LockStatistics getStatistics() {
+        return statistics;
     }
 
     public final void setUndoManager(final UndoManager undoManager) {
         this.undoManager = undoManager;
     }
 
+    /**
+     * Set the number of bytes of undo state to keep in memory before older
+     * edits are spilled to disk.
+     *
+     * @param undoMemoryBudget the number of bytes of undo state to keep in
+     * memory.
+     */
+    public void setUndoMemoryBudget(final long undoMemoryBudget) {
+        this.undoMemoryBudget = undoMemoryBudget;
+    }
+
+    /**
+     * Set whether edits are recorded for undo. If the calling thread is
+     * writing, this applies to the edit in progress only, so other writers are
+     * unaffected; otherwise it applies to the edits started from now on. Edits
+     * that are not recorded are discarded once committed, and clear the undo
+     * history since the edits before them can no longer be undone.
+     *
+     * @param recordingUndo true to record edits for undo.
+     */
+    public void setUndoRecording(final boolean recordingUndo) {
+        if (globalWriteLock.isHeldByCurrentThread() && currentEdit != null) {
+            LockingEdit edit = currentEdit;
+            while (edit.parent != null) {
+                edit = edit.parent;
+            }
+            edit.undoable = recordingUndo;
+        } else {
+            this.recordingUndo = recordingUndo;
+        }
+    }
+
     private final class Context {
 
         ReentrantReadWriteLock lock = new ReentrantReadWriteLock(true);
@@ -85,10 +187,28 @@ public class LockingManager<T extends LockingTarget> implements Serializable {
             throw new IllegalMonitorStateException("attempting to write while reading");
         }
 
-        globalWriteLock.lockInterruptibly();
+        final long requested = System.nanoTime();
+        if (!globalWriteLock.tryLock(0, TimeUnit.SECONDS)) {
+            // Plugins write from a bounded pool, which can start another thread while this one waits for the lock.
+            ManagedBlocking.block(() -> {
+                globalWriteLock.lockInterruptibly();
+                return null;
+            });
+        }
+        try {
+            catchUp.get();
+        } catch (final InterruptedException ex) {
+            globalWriteLock.unlock();
+            throw ex;
+        } catch (final ExecutionException ex) {
+            // Failures are logged by the catch up itself.
+        }
+
         if (currentEdit == null) {
             currentEdit = new LockingEdit(name, significant, source);
+            currentEdit.undoable = recordingUndo;
             initialEdit = currentEdit;
+            statistics.writeAcquired(requested, name);
         } else {
             LockingEdit childEdit = new LockingEdit(name, significant, source);
             childEdit.parent = currentEdit;
@@ -113,10 +233,19 @@ public class LockingManager<T extends LockingTarget> implements Serializable {
         }
 
         try {
+            final long requested = System.nanoTime();
             if (globalWriteLock.tryLock(0, TimeUnit.SECONDS)) {
+                // Waiting for the write copy to catch up with the last commit would block, so give up like a busy lock.
+                if (!catchUp.isDone()) {
+                    globalWriteLock.unlock();
+                    return null;
+                }
+
                 if (currentEdit == null) {
                     currentEdit = new LockingEdit(name, significant, source);
+                    currentEdit.undoable = recordingUndo;
                     initialEdit = currentEdit;
+                    statistics.writeAcquired(requested, name);
                 } else {
                     LockingEdit childEdit = new LockingEdit(name, significant, source);
                     childEdit.parent = currentEdit;
@@ -141,8 +270,10 @@ public class LockingManager<T extends LockingTarget> implements Serializable {
     }
 
     public T startReading() {
+        final long requested = System.nanoTime();
         final Context c = globalWriteLock.isHeldByCurrentThread() ? writeContext : readContext;
         c.lock.readLock().lock();
+        statistics.readAcquired(requested);
 
         if (VERBOSE) {
             LOGGER.log(Level.INFO,"Read lock aquired by {0}",Thread.currentThread());
@@ -183,14 +314,160 @@ public class LockingManager<T extends LockingTarget> implements Serializable {
         currentEdit.rollBack();
     }
 
+    /**
+     * Publish the write context to readers and make the original read context
+     * the write context, then bring the original read context up to date in
+     * the background once its readers have finished. This must be called while
+     * holding the global write lock, and the next holder of the global write
+     * lock waits for the catch up before using the write context.
+     *
+     * @param replay Replays the changes made to the write context onto the
+     * original read context.
+     * @param committed The edit that has just been committed, or null if an
+     * edit is being undone or redone.
+     */
+    private void switchContexts(final Consumer<T> replay, final LockingEdit committed) {
+        final Context originalReadContext = readContext;
+        readContext = writeContext;
+        writeContext = originalReadContext;
+
+        // Once caught up, both copies are in the same state, so they share generations and caches keyed on them stay valid.
+        final Object generations = readContext.target.getGenerations();
+
+        catchUp = CompletableFuture.runAsync(() -> {
+            final long requested = System.nanoTime();
+            originalReadContext.lock.writeLock().lock();
+            final LockStatistics.Hold hold = statistics.catchUpStarted(requested);
+            try {
+                replay.accept(originalReadContext.target);
+                originalReadContext.target.setGenerations(generations);
+            } catch (final RuntimeException ex) {
+                LOGGER.log(Level.SEVERE, "Failed to bring the graph copy up to date", ex);
+            } finally {
+                originalReadContext.lock.writeLock().unlock();
+                statistics.catchUpFinished(hold);
+            }
+
+            if (committed != null) {
+                try {
+                    keepForUndo(committed);
+                } catch (final RuntimeException ex) {
+                    LOGGER.log(Level.SEVERE, "Failed to keep the committed edit for undo", ex);
+                }
+            }
+        }, CATCH_UP_EXECUTOR);
+    }
+
+    /**
+     * Wait for the write context to catch up with the previous commit. The
+     * catch up logs its own failures, so they are not thrown again here.
+     */
+    private void awaitCatchUp() {
+        try {
+            catchUp.join();
+        } catch (final CompletionException | CancellationException ex) {
+            // Failures are logged by the catch up itself.
+        }
+    }
+
+    /**
+     * Keep a committed edit in the undo history, spilling the oldest edits to
+     * disk while the history is over the memory budget. An edit that is not
+     * undoable, or that has no undo history to go in, clears the history
+     * instead.
+     *
+     * @param edit The committed edit.
+     */
+    private void keepForUndo(final LockingEdit edit) {
+        if (!edit.undoable || undoManager == null) {
+            residentEdits.clear();
+            residentBytes = 0;
+            return;
+        }
+
+        // Edits that have dropped off the end of the undo history no longer need to be kept.
+        residentEdits.removeIf(resident -> {
+            if (!resident.alive) {
+                residentBytes -= resident.residentSize;
+                return true;
+            }
+            return false;
+        });
+
+        edit.residentSize = edit.graphEdit.getPrimitiveSize();
+        residentEdits.addLast(edit);
+        residentBytes += edit.residentSize;
+
+        // Always keep the newest edit in memory since it is the most likely to be undone.
+        while (residentBytes > undoMemoryBudget && residentEdits.size() > 1) {
+            final LockingEdit oldest = residentEdits.removeFirst();
+            residentBytes -= oldest.residentSize;
+            if (!spill(oldest)) {
+                // Whatever the edit still holds stays in memory and counts against the budget.
+                oldest.residentSize = oldest.graphEdit.getPrimitiveSize();
+                residentEdits.addFirst(oldest);
+                residentBytes += oldest.residentSize;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Spill the state of a live edit to disk, creating the spill file if no
+     * other edit is using it.
+     *
+     * @param edit The edit to spill.
+     * @return false if the edit could not be spilled.
+     */
+    private boolean spill(final LockingEdit edit) {
+        synchronized (spillLock) {
+            if (!edit.alive || edit.spilled) {
+                return true;
+            }
+            try {
+                if (spillFile == null) {
+                    spillFile = new UndoSpillFile();
+                }
+                // Counted before writing, since a failed spill can leave part of the edit in the file.
+                if (!edit.inSpillFile) {
+                    edit.inSpillFile = true;
+                    spillFileEdits++;
+                }
+                edit.graphEdit.spill(spillFile);
+                edit.spilled = true;
+                return true;
+            } catch (final IOException ex) {
+                LOGGER.log(Level.WARNING, "Unable to spill undo state to disk", ex);
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of bytes of undo state that have been spilled to the
+     * current spill file.
+     *
+     * @return the size of the spill file, or 0 if there is none.
+     */
+    long getSpilledBytes() {
+        synchronized (spillLock) {
+            return spillFile == null ? 0 : spillFile.getSize();
+        }
+    }
+
     public final class LockingEdit implements UndoableEdit {
 
         private String name;
         private final boolean significant;
         private final Object editor;
         private final AtomicBoolean executed = new AtomicBoolean(true);
-        private boolean alive = true;
+        private volatile boolean alive = true;
         private LockingEdit parent;
+        private boolean undoable = true;
+        private long residentSize;
+        // Whether any of the state of this edit is in the spill file, and whether all of it is.
+        private boolean inSpillFile = false;
+        private boolean spilled = false;
 
         private long modificationCounter;
 
@@ -246,31 +523,26 @@ public class LockingManager<T extends LockingTarget> implements Serializable {
 
             new Thread(() -> {
                 // Get the global write lock because we will change the graph
+                final long requested = System.nanoTime();
                 globalWriteLock.lock();
+                statistics.writeAcquired(requested, getUndoPresentationName());
                 try {
+                    awaitCatchUp();
                     writeContext.target.setOperationMode(GraphOperationMode.UNDO);
                     undo(writeContext.target);
                     writeContext.target.validateKeys();
                     writeContext.target.setOperationMode(GraphOperationMode.EXECUTE);
 
-                    // Switch the read context to the write context
-                    final Context originalReadContext = readContext;
-                    readContext = writeContext;
-
-                    originalReadContext.lock.writeLock().lock();
-                    try {
-                        originalReadContext.target.setOperationMode(GraphOperationMode.UNDO);
-                        undo(originalReadContext.target);
-                        originalReadContext.target.validateKeys();
-                        originalReadContext.target.setOperationMode(GraphOperationMode.EXECUTE);
-                    } finally {
-                        originalReadContext.lock.writeLock().unlock();
-                    }
-
-                    // Switch the write context
-                    writeContext = originalReadContext;
+                    // Switch the read context to the write context, and the write context to the original read context
+                    switchContexts(target -> {
+                        target.setOperationMode(GraphOperationMode.UNDO);
+                        undo(target);
+                        target.validateKeys();
+                        target.setOperationMode(GraphOperationMode.EXECUTE);
+                    }, null);
                 } finally {
                     // Unlock the global write lock so new write requests can begin on the new write context
+                    statistics.writeReleased(true);
                     globalWriteLock.unlock();
                 }
                 fireUndoRedoReport(UNDO, (GraphWriteMethods) writeContext.target, getPresentationName());
@@ -300,31 +572,26 @@ public class LockingManager<T extends LockingTarget> implements Serializable {
 
             new Thread(() -> {
                 // Get the global write lock because we will change the graph
+                final long requested = System.nanoTime();
                 globalWriteLock.lock();
+                statistics.writeAcquired(requested, getRedoPresentationName());
                 try {
+                    awaitCatchUp();
                     writeContext.target.setOperationMode(GraphOperationMode.REDO);
                     execute(writeContext.target);
                     writeContext.target.validateKeys();
                     writeContext.target.setOperationMode(GraphOperationMode.EXECUTE);
 
-                    // Switch the read context to the write context
-                    final Context originalReadContext = readContext;
-                    readContext = writeContext;
-
-                    originalReadContext.lock.writeLock().lock();
-                    try {
-                        originalReadContext.target.setOperationMode(GraphOperationMode.REDO);
-                        execute(originalReadContext.target);
-                        originalReadContext.target.validateKeys();
-                        originalReadContext.target.setOperationMode(GraphOperationMode.EXECUTE);
-                    } finally {
-                        originalReadContext.lock.writeLock().unlock();
-                    }
-
-                    // Switch the write context
-                    writeContext = originalReadContext;
+                    // Switch the read context to the write context, and the write context to the original read context
+                    switchContexts(target -> {
+                        target.setOperationMode(GraphOperationMode.REDO);
+                        execute(target);
+                        target.validateKeys();
+                        target.setOperationMode(GraphOperationMode.EXECUTE);
+                    }, null);
                 } finally {
                     // Unlock the global write lock so new write requests can begin on the new write context
+                    statistics.writeReleased(true);
                     globalWriteLock.unlock();
                 }
                 fireUndoRedoReport(REDO, (GraphWriteMethods) writeContext.target, getPresentationName());
@@ -340,7 +607,24 @@ public class LockingManager<T extends LockingTarget> implements Serializable {
 
         @Override
         public void die() {
-            alive = false;
+            synchronized (spillLock) {
+                alive = false;
+                // The file is deleted with the last edit in it, rather than reusing its space.
+                if (inSpillFile) {
+                    inSpillFile = false;
+                    if (--spillFileEdits == 0) {
+                        spillFile.close();
+                        spillFile = null;
+                    }
+                }
+            }
+
+            // Children were absorbed into this edit, so the undo manager never tells them.
+            if (followingChildren != null) {
+                for (final LockingEdit followingChild : followingChildren) {
+                    followingChild.die();
+                }
+            }
         }
 
         @Override
@@ -402,24 +686,15 @@ public class LockingManager<T extends LockingTarget> implements Serializable {
 
                 writeContext.target.setGraphEdit(null);
 
-                Context originalReadContext = readContext;
-                readContext = writeContext;
+                switchContexts(target -> {
+                    execute(target);
+                    target.validateKeys();
+                }, this);
 
-                originalReadContext.lock.writeLock().lock();
-                try {
-                    execute(originalReadContext.target);
-                    originalReadContext.target.validateKeys();
-                } finally {
-                    originalReadContext.lock.writeLock().unlock();
-                }
-
-                writeContext = originalReadContext;
-
-                if (undoManager != null) {
-                    SwingUtilities.invokeLater(() -> undoManager.undoableEditHappened(new UndoableEditEvent(LockingManager.this, LockingEdit.this)));
-                }
+                announceUndoableEdit();
                 currentEdit = null;
                 initialEdit = null;
+                statistics.writeReleased(true);
                 globalWriteLock.unlock();
 
                 update(description, editor);
@@ -433,6 +708,20 @@ public class LockingManager<T extends LockingTarget> implements Serializable {
             }
         }
 
+        /**
+         * Add this committed edit to the undo history, or clear the history if
+         * this edit is not being recorded for undo.
+         */
+        private void announceUndoableEdit() {
+            if (undoManager != null) {
+                if (undoable) {
+                    SwingUtilities.invokeLater(() -> undoManager.undoableEditHappened(new UndoableEditEvent(LockingManager.this, LockingEdit.this)));
+                } else {
+                    SwingUtilities.invokeLater(undoManager::discardAllEdits);
+                }
+            }
+        }
+
         public T flush(final Object description, final boolean announce) {
             try {
                 writeContext.target.validateKeys();
@@ -446,23 +735,16 @@ public class LockingManager<T extends LockingTarget> implements Serializable {
 
             if (parent == null) {
 
-                Context originalReadContext = readContext;
-                readContext = writeContext;
-
-                originalReadContext.lock.writeLock().lock();
-                try {
-                    execute(originalReadContext.target);
-                    originalReadContext.target.validateKeys();
-                } finally {
-                    originalReadContext.lock.writeLock().unlock();
-                }
-
-                writeContext = originalReadContext;
+                // The writer carries on with the original read context, so it has to catch up straight away.
+                switchContexts(target -> {
+                    execute(target);
+                    target.validateKeys();
+                }, this);
+                awaitCatchUp();
 
-                if (undoManager != null) {
-                    SwingUtilities.invokeLater(() -> undoManager.undoableEditHappened(new UndoableEditEvent(LockingManager.this, LockingEdit.this)));
-                }
+                announceUndoableEdit();
                 currentEdit = new LockingEdit(name, false, editor);
+                currentEdit.undoable = undoable;
                 writeContext.target.setGraphEdit(currentEdit.graphEdit);
 
                 if (announce) {
@@ -497,6 +779,10 @@ public class LockingManager<T extends LockingTarget> implements Serializable {
             currentEdit = parent;
             if (currentEdit == null) {
                 initialEdit = null;
+                statistics.writeReleased(false);
+            } else {
+                // The enclosing edit carries on, so the graph has to keep recording into it.
+                writeContext.target.setGraphEdit(currentEdit.graphEdit);
             }
             globalWriteLock.unlock();
         }
@@ -28,11 +28,15 @@ import java.util.concurrent.locks.Lock;
 public abstract class LockingTarget implements ReadingInterface {
 
     Lock lock;
+    LockStatistics statistics;
     protected GraphOperationMode operationMode = GraphOperationMode.EXECUTE;
 
     @Override
     public void release() {
         lock.unlock();
+        if (statistics != null) {
+            statistics.readReleased();
+        }
 
         if (VERBOSE) {
             System.out.println("Read lock released by " + Thread.currentThread());
@@ -48,6 +52,28 @@ public abstract class LockingTarget implements ReadingInterface {
 
     public abstract void setGraphEdit(final GraphEdit graphEdit);
 
+    /**
+     * Returns the generations that identify the current state of this target,
+     * so that they can be given to another target once it has been brought
+     * into the same state.
+     *
+     * @return the generations of this target, or null if it does not track
+     * any.
+     */
+    public Object getGenerations() {
+        return null;
+    }
+
+    /**
+     * Takes on the generations of another target that is in the same state as
+     * this target.
+     *
+     * @param generations the generations returned by
+     * {@link #getGenerations()} of the other target.
+     */
+    public void setGenerations(final Object generations) {
+    }
+
     public void setOperationMode(final GraphOperationMode operationMode) {
         this.operationMode = operationMode;
     }
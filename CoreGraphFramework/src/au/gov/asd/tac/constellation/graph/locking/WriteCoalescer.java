@@ -0,0 +1,170 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.locking;
+
+import au.gov.asd.tac.constellation.graph.DuplicateKeyException;
+import au.gov.asd.tac.constellation.graph.Graph;
+import au.gov.asd.tac.constellation.graph.GraphWriter;
+import au.gov.asd.tac.constellation.graph.WritableGraph;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects small writes to a graph and applies them together, so that a burst
+ * of small edits costs one write lock, one commit and one graph change event
+ * instead of one of each per edit.
+ * <p>
+ * The first write submitted after a flush schedules the next flush, which
+ * happens after the latency of the coalescer. Every write submitted before
+ * then is applied by that flush in the order it was submitted, in a single
+ * transaction that takes the name, significance and editor of the first of
+ * them. The window therefore becomes one edit on the undo stack and one graph
+ * change event, whatever the names of the writes in it. Each write runs in a
+ * nested transaction of its own, so a write that fails is rolled back without
+ * losing the writes around it.
+ *
+ * @author sirius
+ */
+public final class WriteCoalescer {
+
+    public static final long DEFAULT_LATENCY_MILLIS = 16;
+
+    // Daemon threads so that an idle flush thread doesn't keep the application alive.
+    private static final ExecutorService FLUSH_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        final Thread thread = new Thread(runnable, "Graph Write Coalescer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Graph graph;
+    private final Executor delayedExecutor;
+    private List<PendingWrite> pending = new ArrayList<>();
+    private boolean scheduled = false;
+
+    private static final class PendingWrite {
+
+        private final String name;
+        private final boolean significant;
+        private final Object editor;
+        private final GraphWriter<?> writer;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        private PendingWrite(final String name, final boolean significant, final Object editor, final GraphWriter<?> writer) {
+            this.name = name;
+            this.significant = significant;
+            this.editor = editor;
+            this.writer = writer;
+        }
+    }
+
+    /**
+     * Creates a new coalescer for writes to the specified graph.
+     *
+     * @param graph the graph to write to.
+     * @param latencyMillis how long to collect writes for before applying
+     * them.
+     */
+    public WriteCoalescer(final Graph graph, final long latencyMillis) {
+        this.graph = graph;
+        this.delayedExecutor = CompletableFuture.delayedExecutor(latencyMillis, TimeUnit.MILLISECONDS, FLUSH_EXECUTOR);
+    }
+
+    /**
+     * Queues a write to be applied with the other writes submitted before the
+     * next flush. This never blocks, so it can be called from the event
+     * dispatch thread.
+     *
+     * @param name the name of the edit.
+     * @param significant is the edit significant as far as the undo stack is
+     * concerned?
+     * @param editor an object identifying the process performing the edit.
+     * @param writer the edit to apply.
+     * @return a future that completes once the edit has been committed, or
+     * completes exceptionally if the edit failed and was rolled back.
+     */
+    public CompletableFuture<Void> submit(final String name, final boolean significant, final Object editor, final GraphWriter<?> writer) {
+        final PendingWrite write = new PendingWrite(name, significant, editor, writer);
+        synchronized (this) {
+            pending.add(write);
+            if (!scheduled) {
+                scheduled = true;
+                delayedExecutor.execute(this::flush);
+            }
+        }
+        return write.future;
+    }
+
+    private void flush() {
+        final List<PendingWrite> writes;
+        synchronized (this) {
+            writes = pending;
+            pending = new ArrayList<>();
+        }
+
+        try {
+            apply(writes);
+        } finally {
+            // Only one flush runs at a time so that writes are applied in the order they were submitted.
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    scheduled = false;
+                } else {
+                    delayedExecutor.execute(this::flush);
+                }
+            }
+        }
+    }
+
+    private void apply(final List<PendingWrite> writes) {
+        final PendingWrite first = writes.get(0);
+        final List<PendingWrite> applied = new ArrayList<>();
+        try {
+            final WritableGraph wg = graph.getWritableGraph(first.name, first.significant, first.editor);
+            try {
+                for (final PendingWrite write : writes) {
+                    final WritableGraph nested = graph.getWritableGraph(write.name, write.significant, write.editor);
+                    try {
+                        write.writer.write(nested);
+                    } catch (final InterruptedException | RuntimeException ex) {
+                        nested.rollBack();
+                        write.future.completeExceptionally(ex);
+                        continue;
+                    }
+                    try {
+                        nested.commit();
+                        applied.add(write);
+                    } catch (final DuplicateKeyException ex) {
+                        // The nested edit has already been rolled back.
+                        write.future.completeExceptionally(ex);
+                    }
+                }
+            } finally {
+                wg.commit();
+            }
+            applied.forEach(write -> write.future.complete(null));
+        } catch (final InterruptedException ex) {
+            // Nothing else runs on the flush thread, so there is no one else to pass the interrupt on to.
+            writes.forEach(write -> write.future.completeExceptionally(ex));
+        } catch (final RuntimeException ex) {
+            writes.forEach(write -> write.future.completeExceptionally(ex));
+        }
+    }
+}
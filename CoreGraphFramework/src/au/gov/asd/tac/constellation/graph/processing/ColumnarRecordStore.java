@@ -0,0 +1,875 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.processing;
+
+import au.gov.asd.tac.constellation.utilities.temporal.TemporalFormatting;
+import au.gov.asd.tac.constellation.utilities.temporal.TimeZoneUtilities;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An implementation of {@link RecordStore} that stores each column in
+ * primitive arrays of a single type.
+ * <p>
+ * The type of a column is fixed by the first value set in it: values set with
+ * {@link #setInt}, {@link #setLong}, {@link #setDouble}, {@link #setBoolean}
+ * or {@link #setDateTime} create columns of the corresponding
+ * {@link ColumnType}, while values set as strings create
+ * {@link ColumnType#STRING} columns. String values are dictionary encoded
+ * across the whole record store, so repeated values such as identifiers and
+ * types are only stored once.
+ * <p>
+ * Every value can still be read and written as a String, so this class can be
+ * used anywhere a {@link RecordStore} is expected. Setting a long value, or
+ * a String that only fits in a long, in an {@link ColumnType#INTEGER} column
+ * widens it to a {@link ColumnType#LONG} column. Setting a String that does
+ * not exactly represent a value of a typed column, or a value of any other
+ * type, converts the column to a {@link ColumnType#STRING} column so that no
+ * information is lost.
+ * <p>
+ * {@link GraphRecordStoreUtilities#addRecordStoreToGraph} recognises this
+ * record store and writes typed columns directly to the graph using the native
+ * attribute setters, avoiding the conversion of every value to and from a
+ * String.
+ *
+ * @author sirius
+ */
+public class ColumnarRecordStore implements RecordStore {
+
+    /**
+     * The types of value a column can hold.
+     */
+    public enum ColumnType {
+        INTEGER,
+        LONG,
+        DOUBLE,
+        BOOLEAN,
+        /**
+         * Datetimes stored as milliseconds since the epoch, in UTC.
+         */
+        DATETIME,
+        STRING
+    }
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final Map<String, Column> columns = new LinkedHashMap<>();
+    private final List<String> dictionary = new ArrayList<>();
+    private final Map<String, Integer> dictionaryCodes = new HashMap<>();
+    private int size = 0;
+    private int capacity = INITIAL_CAPACITY;
+    private int currentRecord = -1;
+
+    /**
+     * A single column. Values are held in the array matching the column type,
+     * with strings held as codes into the record store dictionary.
+     */
+    private final class Column {
+
+        private ColumnType type;
+        private final BitSet present = new BitSet();
+        private final BitSet nulls = new BitSet();
+        private int[] ints;
+        private long[] longs;
+        private double[] doubles;
+
+        private Column(final ColumnType type) {
+            this.type = type;
+            allocate();
+        }
+
+        private void allocate() {
+            ints = null;
+            longs = null;
+            doubles = null;
+            switch (type) {
+                case LONG:
+                case DATETIME:
+                    longs = new long[capacity];
+                    break;
+                case DOUBLE:
+                    doubles = new double[capacity];
+                    break;
+                default:
+                    ints = new int[capacity];
+                    break;
+            }
+        }
+
+        private void ensureCapacity() {
+            if (ints != null && ints.length < capacity) {
+                ints = Arrays.copyOf(ints, capacity);
+            } else if (longs != null && longs.length < capacity) {
+                longs = Arrays.copyOf(longs, capacity);
+            } else if (doubles != null && doubles.length < capacity) {
+                doubles = Arrays.copyOf(doubles, capacity);
+            } else {
+                // Do nothing
+            }
+        }
+
+        private boolean isNull(final int record) {
+            return !present.get(record) || nulls.get(record);
+        }
+
+        private String getString(final int record) {
+            if (isNull(record)) {
+                return null;
+            }
+            switch (type) {
+                case INTEGER:
+                    return Integer.toString(ints[record]);
+                case LONG:
+                    return Long.toString(longs[record]);
+                case DOUBLE:
+                    return Double.toString(doubles[record]);
+                case BOOLEAN:
+                    return Boolean.toString(ints[record] != 0);
+                case DATETIME:
+                    return ZonedDateTime.ofInstant(Instant.ofEpochMilli(longs[record]), TimeZoneUtilities.UTC)
+                            .format(TemporalFormatting.ZONED_DATE_TIME_FORMATTER);
+                default:
+                    return dictionary.get(ints[record]);
+            }
+        }
+
+        private void setNull(final int record) {
+            present.set(record);
+            nulls.set(record);
+        }
+
+        private void setPresent(final int record) {
+            present.set(record);
+            nulls.clear(record);
+        }
+
+        /**
+         * Converts this INTEGER column to a LONG column, preserving every
+         * value.
+         */
+        private void convertToLong() {
+            final long[] values = new long[capacity];
+            for (int record = present.nextSetBit(0); record >= 0; record = present.nextSetBit(record + 1)) {
+                values[record] = ints[record];
+            }
+            type = ColumnType.LONG;
+            allocate();
+            longs = values;
+        }
+
+        /**
+         * Converts this column to a STRING column, preserving the String form
+         * of every value.
+         */
+        private void convertToString() {
+            if (type == ColumnType.STRING) {
+                return;
+            }
+            final int[] codes = new int[capacity];
+            for (int record = present.nextSetBit(0); record >= 0; record = present.nextSetBit(record + 1)) {
+                if (!nulls.get(record)) {
+                    codes[record] = encode(getString(record));
+                }
+            }
+            type = ColumnType.STRING;
+            allocate();
+            ints = codes;
+        }
+    }
+
+    /**
+     * Construct a new, empty ColumnarRecordStore.
+     */
+    public ColumnarRecordStore() {
+        // Intentionally left blank
+    }
+
+    private int encode(final String value) {
+        Integer code = dictionaryCodes.get(value);
+        if (code == null) {
+            code = dictionary.size();
+            dictionary.add(value);
+            dictionaryCodes.put(value, code);
+        }
+        return code;
+    }
+
+    private void checkRecord(final String key, final int record) {
+        if (key == null) {
+            throw new IllegalArgumentException("Key cannot be null.");
+        }
+        if (record < 0 || record >= size) {
+            throw new IllegalArgumentException("Invalid record: " + record);
+        }
+    }
+
+    /**
+     * Returns the column for the specified key, creating it with the specified
+     * type if it does not exist. If the column exists with a different type it
+     * is converted to a STRING column unless either the column or the value can
+     * be widened without loss.
+     */
+    private Column getColumn(final String key, final ColumnType type) {
+        Column column = columns.get(key);
+        if (column == null) {
+            column = new Column(type);
+            columns.put(key, column);
+        } else if (type == ColumnType.LONG && column.type == ColumnType.INTEGER) {
+            column.ensureCapacity();
+            column.convertToLong();
+        } else if (column.type != type && !(type == ColumnType.INTEGER && column.type == ColumnType.LONG)) {
+            column.convertToString();
+        } else {
+            column.ensureCapacity();
+        }
+        return column;
+    }
+
+    /**
+     * Get the type of the column with the specified key.
+     *
+     * @param key The key of the column.
+     * @return The type of the column, or null if no value has been set for
+     * the key.
+     */
+    public ColumnType getColumnType(final String key) {
+        final Column column = columns.get(key);
+        return column == null ? null : column.type;
+    }
+
+    @Override
+    public int add() {
+        currentRecord = size++;
+        if (size > capacity) {
+            capacity <<= 1;
+        }
+        return currentRecord;
+    }
+
+    @Override
+    public void add(final RecordStore recordStore) {
+        if (recordStore instanceof ColumnarRecordStore) {
+            final ColumnarRecordStore other = (ColumnarRecordStore) recordStore;
+            for (int record = 0; record < other.size; record++) {
+                final int newRecord = add();
+                for (final Map.Entry<String, Column> entry : other.columns.entrySet()) {
+                    final Column column = entry.getValue();
+                    if (column.present.get(record)) {
+                        copyValue(column, record, entry.getKey(), newRecord);
+                    }
+                }
+            }
+        } else {
+            for (int record = 0; record < recordStore.size(); record++) {
+                final int newRecord = add();
+                for (final String key : recordStore.keys()) {
+                    if (recordStore.hasValue(record, key)) {
+                        set(newRecord, key, recordStore.get(record, key));
+                    }
+                }
+            }
+        }
+    }
+
+    private void copyValue(final Column column, final int record, final String key, final int newRecord) {
+        if (column.nulls.get(record)) {
+            final Column target = getColumn(key, column.type);
+            target.setNull(newRecord);
+            return;
+        }
+        switch (column.type) {
+            case INTEGER:
+                setInt(newRecord, key, column.ints[record]);
+                break;
+            case LONG:
+                setLong(newRecord, key, column.longs[record]);
+                break;
+            case DOUBLE:
+                setDouble(newRecord, key, column.doubles[record]);
+                break;
+            case BOOLEAN:
+                setBoolean(newRecord, key, column.ints[record] != 0);
+                break;
+            case DATETIME:
+                setDateTime(newRecord, key, column.longs[record]);
+                break;
+            default:
+                set(newRecord, key, column.getString(record));
+                break;
+        }
+    }
+
+    @Override
+    public int index() {
+        return currentRecord;
+    }
+
+    @Override
+    public boolean next() {
+        if (++currentRecord >= size) {
+            currentRecord = size;
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void reset() {
+        currentRecord = -1;
+    }
+
+    @Override
+    public void close() {
+        // Nothing to release
+    }
+
+    @Override
+    public boolean hasValue(final String key) {
+        return hasValue(currentRecord, key);
+    }
+
+    @Override
+    public boolean hasValue(final int record, final String key) {
+        final Column column = columns.get(key);
+        return column != null && record >= 0 && column.present.get(record);
+    }
+
+    @Override
+    public String get(final String key) {
+        return get(currentRecord, key);
+    }
+
+    @Override
+    public String get(final int record, final String key) {
+        final Column column = columns.get(key);
+        return column == null || record < 0 ? null : column.getString(record);
+    }
+
+    @Override
+    public void set(final String key, final String value) {
+        set(currentRecord, key, value);
+    }
+
+    @Override
+    public void set(final int record, final String key, final String value) {
+        checkRecord(key, record);
+        Column column = columns.get(key);
+        if (column == null) {
+            column = getColumn(key, ColumnType.STRING);
+        } else {
+            column.ensureCapacity();
+        }
+
+        if (value == null) {
+            column.setNull(record);
+            return;
+        }
+
+        // Keep the column typed if the string is exactly the form of a typed value.
+        if (column.type != ColumnType.STRING) {
+            if (setParsed(column, record, value)) {
+                return;
+            }
+            if (column.type == ColumnType.INTEGER) {
+                column.convertToLong();
+                if (setParsed(column, record, value)) {
+                    return;
+                }
+            }
+            column.convertToString();
+        }
+        column.ints[record] = encode(value);
+        column.setPresent(record);
+    }
+
+    private static boolean setParsed(final Column column, final int record, final String value) {
+        try {
+            switch (column.type) {
+                case INTEGER:
+                    final int intValue = Integer.parseInt(value);
+                    if (!Integer.toString(intValue).equals(value)) {
+                        return false;
+                    }
+                    column.ints[record] = intValue;
+                    break;
+                case LONG:
+                    final long longValue = Long.parseLong(value);
+                    if (!Long.toString(longValue).equals(value)) {
+                        return false;
+                    }
+                    column.longs[record] = longValue;
+                    break;
+                case DOUBLE:
+                    final double doubleValue = Double.parseDouble(value);
+                    if (!Double.toString(doubleValue).equals(value)) {
+                        return false;
+                    }
+                    column.doubles[record] = doubleValue;
+                    break;
+                case BOOLEAN:
+                    if (!"true".equals(value) && !"false".equals(value)) {
+                        return false;
+                    }
+                    column.ints[record] = "true".equals(value) ? 1 : 0;
+                    break;
+                default:
+                    // Only UTC datetimes in the standard format can be stored without losing their zone.
+                    final ZonedDateTime dateTimeValue = ZonedDateTime.parse(value, TemporalFormatting.ZONED_DATE_TIME_FORMATTER);
+                    if (!dateTimeValue.getZone().equals(TimeZoneUtilities.UTC)
+                            || !value.equals(dateTimeValue.format(TemporalFormatting.ZONED_DATE_TIME_FORMATTER))) {
+                        return false;
+                    }
+                    column.longs[record] = dateTimeValue.toInstant().toEpochMilli();
+                    break;
+            }
+        } catch (final RuntimeException ex) {
+            return false;
+        }
+        column.setPresent(record);
+        return true;
+    }
+
+    @Override
+    public void set(final String key, final Object value) {
+        set(currentRecord, key, value);
+    }
+
+    /**
+     * Set a key/value pair for the specified record with an Object value.
+     * Integers, longs, floating point numbers, booleans, dates and instants
+     * are stored in typed columns; any other value is stored as its String
+     * representation.
+     *
+     * @param record The index of the record
+     * @param key The key whose value is being set
+     * @param value The value to set.
+     */
+    @Override
+    public void set(final int record, final String key, final Object value) {
+        if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            setInt(record, key, ((Number) value).intValue());
+        } else if (value instanceof Long) {
+            setLong(record, key, (Long) value);
+        } else if (value instanceof Double || value instanceof Float) {
+            setDouble(record, key, ((Number) value).doubleValue());
+        } else if (value instanceof Boolean) {
+            setBoolean(record, key, (Boolean) value);
+        } else if (value instanceof Instant) {
+            setDateTime(record, key, ((Instant) value).toEpochMilli());
+        } else if (value instanceof Date) {
+            setDateTime(record, key, ((Date) value).getTime());
+        } else {
+            set(record, key, value == null ? null : value.toString());
+        }
+    }
+
+    /**
+     * Set an integer value in the current record.
+     *
+     * @param key The key whose value is being set
+     * @param value The value to set.
+     */
+    public void setInt(final String key, final int value) {
+        setInt(currentRecord, key, value);
+    }
+
+    /**
+     * Set an integer value in the specified record.
+     *
+     * @param record The index of the record
+     * @param key The key whose value is being set
+     * @param value The value to set.
+     */
+    public void setInt(final int record, final String key, final int value) {
+        checkRecord(key, record);
+        final Column column = getColumn(key, ColumnType.INTEGER);
+        switch (column.type) {
+            case INTEGER:
+                column.ints[record] = value;
+                column.setPresent(record);
+                break;
+            case LONG:
+                column.longs[record] = value;
+                column.setPresent(record);
+                break;
+            default:
+                set(record, key, Integer.toString(value));
+                break;
+        }
+    }
+
+    /**
+     * Set a long value in the current record.
+     *
+     * @param key The key whose value is being set
+     * @param value The value to set.
+     */
+    public void setLong(final String key, final long value) {
+        setLong(currentRecord, key, value);
+    }
+
+    /**
+     * Set a long value in the specified record.
+     *
+     * @param record The index of the record
+     * @param key The key whose value is being set
+     * @param value The value to set.
+     */
+    public void setLong(final int record, final String key, final long value) {
+        checkRecord(key, record);
+        final Column column = getColumn(key, ColumnType.LONG);
+        if (column.type == ColumnType.LONG) {
+            column.longs[record] = value;
+            column.setPresent(record);
+        } else {
+            set(record, key, Long.toString(value));
+        }
+    }
+
+    /**
+     * Set a double value in the current record.
+     *
+     * @param key The key whose value is being set
+     * @param value The value to set.
+     */
+    public void setDouble(final String key, final double value) {
+        setDouble(currentRecord, key, value);
+    }
+
+    /**
+     * Set a double value in the specified record.
+     *
+     * @param record The index of the record
+     * @param key The key whose value is being set
+     * @param value The value to set.
+     */
+    public void setDouble(final int record, final String key, final double value) {
+        checkRecord(key, record);
+        final Column column = getColumn(key, ColumnType.DOUBLE);
+        if (column.type == ColumnType.DOUBLE) {
+            column.doubles[record] = value;
+            column.setPresent(record);
+        } else {
+            set(record, key, Double.toString(value));
+        }
+    }
+
+    /**
+     * Set a boolean value in the current record.
+     *
+     * @param key The key whose value is being set
+     * @param value The value to set.
+     */
+    public void setBoolean(final String key, final boolean value) {
+        setBoolean(currentRecord, key, value);
+    }
+
+    /**
+     * Set a boolean value in the specified record.
+     *
+     * @param record The index of the record
+     * @param key The key whose value is being set
+     * @param value The value to set.
+     */
+    public void setBoolean(final int record, final String key, final boolean value) {
+        checkRecord(key, record);
+        final Column column = getColumn(key, ColumnType.BOOLEAN);
+        if (column.type == ColumnType.BOOLEAN) {
+            column.ints[record] = value ? 1 : 0;
+            column.setPresent(record);
+        } else {
+            set(record, key, Boolean.toString(value));
+        }
+    }
+
+    /**
+     * Set a datetime value in the current record.
+     *
+     * @param key The key whose value is being set
+     * @param epochMillis The value to set, as milliseconds since the epoch.
+     */
+    public void setDateTime(final String key, final long epochMillis) {
+        setDateTime(currentRecord, key, epochMillis);
+    }
+
+    /**
+     * Set a datetime value in the specified record.
+     *
+     * @param record The index of the record
+     * @param key The key whose value is being set
+     * @param epochMillis The value to set, as milliseconds since the epoch.
+     */
+    public void setDateTime(final int record, final String key, final long epochMillis) {
+        checkRecord(key, record);
+        final Column column = getColumn(key, ColumnType.DATETIME);
+        if (column.type == ColumnType.DATETIME) {
+            column.longs[record] = epochMillis;
+            column.setPresent(record);
+        } else {
+            set(record, key, ZonedDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), TimeZoneUtilities.UTC)
+                    .format(TemporalFormatting.ZONED_DATE_TIME_FORMATTER));
+        }
+    }
+
+    /**
+     * Get a value from the current record as an integer.
+     *
+     * @param key The key to lookup
+     * @return The value, or 0 if there is no value.
+     * @see #getInt(int, java.lang.String)
+     */
+    public int getInt(final String key) {
+        return getInt(currentRecord, key);
+    }
+
+    /**
+     * Get a value from the specified record as an integer. Values in other
+     * numeric columns are narrowed and values in STRING columns are parsed.
+     *
+     * @param record The index of the record
+     * @param key The key to lookup
+     * @return The value, or 0 if there is no value.
+     * @throws NumberFormatException if the value is a String that is not an
+     * integer.
+     */
+    public int getInt(final int record, final String key) {
+        return (int) getLong(record, key);
+    }
+
+    /**
+     * Get a value from the current record as a long.
+     *
+     * @param key The key to lookup
+     * @return The value, or 0 if there is no value.
+     * @see #getLong(int, java.lang.String)
+     */
+    public long getLong(final String key) {
+        return getLong(currentRecord, key);
+    }
+
+    /**
+     * Get a value from the specified record as a long. Doubles are narrowed,
+     * booleans are 1 or 0, datetimes are milliseconds since the epoch and
+     * values in STRING columns are parsed.
+     *
+     * @param record The index of the record
+     * @param key The key to lookup
+     * @return The value, or 0 if there is no value.
+     * @throws NumberFormatException if the value is a String that is not an
+     * integer.
+     */
+    public long getLong(final int record, final String key) {
+        final Column column = columns.get(key);
+        if (column == null || record < 0 || column.isNull(record)) {
+            return 0;
+        }
+        switch (column.type) {
+            case INTEGER:
+            case BOOLEAN:
+                return column.ints[record];
+            case LONG:
+            case DATETIME:
+                return column.longs[record];
+            case DOUBLE:
+                return (long) column.doubles[record];
+            default:
+                return Long.parseLong(dictionary.get(column.ints[record]));
+        }
+    }
+
+    /**
+     * Get a value from the current record as a double.
+     *
+     * @param key The key to lookup
+     * @return The value, or 0 if there is no value.
+     * @see #getDouble(int, java.lang.String)
+     */
+    public double getDouble(final String key) {
+        return getDouble(currentRecord, key);
+    }
+
+    /**
+     * Get a value from the specified record as a double. Values in STRING
+     * columns are parsed.
+     *
+     * @param record The index of the record
+     * @param key The key to lookup
+     * @return The value, or 0 if there is no value.
+     * @throws NumberFormatException if the value is a String that is not a
+     * number.
+     */
+    public double getDouble(final int record, final String key) {
+        final Column column = columns.get(key);
+        if (column == null || record < 0 || column.isNull(record)) {
+            return 0;
+        }
+        switch (column.type) {
+            case DOUBLE:
+                return column.doubles[record];
+            case STRING:
+                return Double.parseDouble(dictionary.get(column.ints[record]));
+            default:
+                return getLong(record, key);
+        }
+    }
+
+    /**
+     * Get a value from the current record as a boolean.
+     *
+     * @param key The key to lookup
+     * @return The value, or false if there is no value.
+     * @see #getBoolean(int, java.lang.String)
+     */
+    public boolean getBoolean(final String key) {
+        return getBoolean(currentRecord, key);
+    }
+
+    /**
+     * Get a value from the specified record as a boolean. Numbers are true if
+     * they are not zero and Strings are true if they equal "true", ignoring
+     * case.
+     *
+     * @param record The index of the record
+     * @param key The key to lookup
+     * @return The value, or false if there is no value.
+     */
+    public boolean getBoolean(final int record, final String key) {
+        final Column column = columns.get(key);
+        if (column == null || record < 0 || column.isNull(record)) {
+            return false;
+        }
+        switch (column.type) {
+            case STRING:
+                return Boolean.parseBoolean(dictionary.get(column.ints[record]));
+            case DOUBLE:
+                return column.doubles[record] != 0;
+            default:
+                return getLong(record, key) != 0;
+        }
+    }
+
+    /**
+     * Get a datetime value from the current record.
+     *
+     * @param key The key to lookup
+     * @return The value as milliseconds since the epoch, or 0 if there is no
+     * value.
+     * @see #getDateTime(int, java.lang.String)
+     */
+    public long getDateTime(final String key) {
+        return getDateTime(currentRecord, key);
+    }
+
+    /**
+     * Get a datetime value from the specified record. Values in STRING columns
+     * are parsed using the standard CONSTELLATION datetime format.
+     *
+     * @param record The index of the record
+     * @param key The key to lookup
+     * @return The value as milliseconds since the epoch, or 0 if there is no
+     * value.
+     * @throws java.time.format.DateTimeParseException if the value is a String
+     * that is not a datetime.
+     */
+    public long getDateTime(final int record, final String key) {
+        final Column column = columns.get(key);
+        if (column != null && column.type == ColumnType.STRING && !column.isNull(record)) {
+            return ZonedDateTime.parse(dictionary.get(column.ints[record]), TemporalFormatting.ZONED_DATE_TIME_FORMATTER).toInstant().toEpochMilli();
+        }
+        return getLong(record, key);
+    }
+
+    /**
+     * Check if the value of the specified key in the specified record is null.
+     *
+     * @param record The index of the record
+     * @param key The key to lookup
+     * @return True if the record has no value, or a null value, for the key.
+     */
+    public boolean isNull(final int record, final String key) {
+        final Column column = columns.get(key);
+        return column == null || record < 0 || column.isNull(record);
+    }
+
+    @Override
+    public List<String> values() {
+        return values(currentRecord);
+    }
+
+    @Override
+    public List<String> values(final int record) {
+        final List<String> values = new ArrayList<>(columns.size());
+        for (final Column column : columns.values()) {
+            values.add(record < 0 ? null : column.getString(record));
+        }
+        return values;
+    }
+
+    @Override
+    public List<String> keys() {
+        return new ArrayList<>(columns.keySet());
+    }
+
+    @Override
+    public List<String> getAll(final String key) {
+        final Column column = columns.get(key);
+        final List<String> result = new ArrayList<>(size);
+        for (int record = 0; record < size; record++) {
+            result.add(column == null ? null : column.getString(record));
+        }
+        return result;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return "Columnar Record Store with " + size + " rows and " + columns.size() + " columns.";
+    }
+
+    @Override
+    public String toStringVerbose() {
+        final StringBuilder out = new StringBuilder();
+        for (int record = 0; record < size; record++) {
+            boolean first = true;
+            for (final Map.Entry<String, Column> e : columns.entrySet()) {
+                if (e.getValue().present.get(record)) {
+                    if (!first) {
+                        out.append(", ");
+                    } else {
+                        first = false;
+                    }
+                    out.append(e.getKey());
+                    out.append(" = ");
+                    out.append(e.getValue().getString(record));
+                }
+            }
+            out.append('\n');
+        }
+        return out.toString();
+    }
+}
@@ -21,6 +21,11 @@ import au.gov.asd.tac.constellation.graph.GraphAttribute;
 import au.gov.asd.tac.constellation.graph.GraphElementType;
 import au.gov.asd.tac.constellation.graph.GraphReadMethods;
 import au.gov.asd.tac.constellation.graph.GraphWriteMethods;
+import au.gov.asd.tac.constellation.graph.attribute.BooleanAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.DoubleAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.IntegerAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.LongAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.ZonedDateTimeAttributeDescription;
 import au.gov.asd.tac.constellation.graph.schema.type.SchemaTransactionType;
 import au.gov.asd.tac.constellation.graph.schema.type.SchemaTransactionTypeUtilities;
 import au.gov.asd.tac.constellation.graph.schema.type.SchemaVertexTypeUtilities;
@@ -32,6 +37,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -74,6 +80,9 @@ public class GraphRecordStoreUtilities {
     private static final String SELECTED_ATTRIBUTE_NAME = "selected";
     private static final String FALSE = "false";
     private static final String NUMBER_STRING_STRING_FORMAT = "%d:%s:%s";
+    private static final String SOURCE_DESCRIPTOR = "source";
+    private static final String DESTINATION_DESCRIPTOR = "destination";
+    private static final String TRANSACTION_DESCRIPTOR = "transaction";
 
     private static final Charset UTF8 = StandardCharsets.UTF_8;
 
@@ -93,7 +102,8 @@ public class GraphRecordStoreUtilities {
 
     private static int addVertex(final GraphWriteMethods graph, final Map<String, String> values,
             final Map<String, Integer> vertexMap, final boolean initializeWithSchema, boolean completeWithSchema,
-            final List<Integer> newVertices, final Set<Integer> ghostVertices, final List<String> vertexIdAttributes) {
+            final List<Integer> newVertices, final Set<Integer> ghostVertices, final List<String> vertexIdAttributes,
+            final TypedColumnWriter typedColumns, final String descriptor) {
         String idValue = values.remove(ID);
 
         // If the idValue has not been set and we have vertexIdAttributes then create an idValue automatically
@@ -161,6 +171,9 @@ public class GraphRecordStoreUtilities {
         }
 
         copyValues(graph, GraphElementType.VERTEX, vertex, values);
+        if (typedColumns != null) {
+            typedColumns.write(graph, descriptor, GraphElementType.VERTEX, vertex);
+        }
 
         if (completeWithSchema && graph.getSchema() != null) {
             graph.getSchema().completeVertex(graph, vertex);
@@ -212,7 +225,8 @@ public class GraphRecordStoreUtilities {
     }
 
     private static int addTransaction(final GraphWriteMethods graph, final int source, final int destination, final Map<String, String> values,
-            final Map<String, Integer> transactionMap, final boolean initializeWithSchema, boolean completeWithSchema) {
+            final Map<String, Integer> transactionMap, final boolean initializeWithSchema, boolean completeWithSchema,
+            final TypedColumnWriter typedColumns) {
         final String type = values.get(TYPE_KEY);
         final String directedValue = values.get(DIRECTED_KEY);
         boolean directed = true;
@@ -243,6 +257,9 @@ public class GraphRecordStoreUtilities {
         }
 
         copyValues(graph, GraphElementType.TRANSACTION, transaction, values);
+        if (typedColumns != null) {
+            typedColumns.write(graph, TRANSACTION_DESCRIPTOR, GraphElementType.TRANSACTION, transaction);
+        }
 
         if (completeWithSchema && graph.getSchema() != null) {
             graph.getSchema().completeTransaction(graph, transaction);
@@ -350,6 +367,156 @@ public class GraphRecordStoreUtilities {
         });
     }
 
+    /**
+     * Writes the typed columns of a {@link ColumnarRecordStore} directly to
+     * graph attributes using the native setters, so that their values do not
+     * need to be converted to and from Strings.
+     * <p>
+     * Columns holding special keys (such as {@link #ID}) or vertex labels and
+     * types, which need to be processed as Strings, are left to the String
+     * path.
+     */
+    private static final class TypedColumnWriter {
+
+        private final ColumnarRecordStore recordStore;
+        private final Map<String, List<String>> keysByDescriptor = new HashMap<>();
+        private final Map<String, String> attributeNames = new HashMap<>();
+        private final Map<String, String> attributeTypes = new HashMap<>();
+        private final Map<GraphElementType, Map<String, Integer>> attributes = new EnumMap<>(GraphElementType.class);
+        private final Map<GraphElementType, Map<String, Boolean>> nativeSetters = new EnumMap<>(GraphElementType.class);
+
+        private TypedColumnWriter(final ColumnarRecordStore recordStore, final List<String> keys) {
+            this.recordStore = recordStore;
+            for (final String key : keys) {
+                final ColumnarRecordStore.ColumnType columnType = recordStore.getColumnType(key);
+                final int dividerPosition = key.indexOf('.');
+                if (columnType == null || columnType == ColumnarRecordStore.ColumnType.STRING || dividerPosition <= 0
+                        || LabelTypes.contains(key.split("<")[0])) {
+                    continue;
+                }
+
+                final String descriptor = key.substring(0, dividerPosition).toLowerCase();
+                String attributeName = key.substring(dividerPosition + 1);
+                if (attributeName.startsWith("[")) {
+                    continue;
+                }
+
+                String type = getDefaultAttributeType(columnType);
+                if (attributeName.endsWith(">")) {
+                    final int typeStart = attributeName.lastIndexOf('<');
+                    if (typeStart > 0) {
+                        type = attributeName.substring(typeStart + 1, attributeName.length() - 1);
+                        attributeName = attributeName.substring(0, typeStart);
+                    }
+                }
+
+                keysByDescriptor.computeIfAbsent(descriptor, d -> new ArrayList<>()).add(key);
+                attributeNames.put(key, attributeName);
+                attributeTypes.put(key, type);
+            }
+        }
+
+        private static String getDefaultAttributeType(final ColumnarRecordStore.ColumnType columnType) {
+            switch (columnType) {
+                case INTEGER:
+                    return IntegerAttributeDescription.ATTRIBUTE_NAME;
+                case LONG:
+                    return LongAttributeDescription.ATTRIBUTE_NAME;
+                case DOUBLE:
+                    return DoubleAttributeDescription.ATTRIBUTE_NAME;
+                case BOOLEAN:
+                    return BooleanAttributeDescription.ATTRIBUTE_NAME;
+                case DATETIME:
+                    return ZonedDateTimeAttributeDescription.ATTRIBUTE_NAME;
+                default:
+                    return "string";
+            }
+        }
+
+        /**
+         * Returns true if the current record has typed values for the
+         * specified descriptor.
+         */
+        private boolean hasValues(final String descriptor) {
+            final List<String> keys = keysByDescriptor.get(descriptor);
+            if (keys != null) {
+                for (final String key : keys) {
+                    if (recordStore.hasValue(key)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        private boolean isTyped(final String key) {
+            return attributeNames.containsKey(key);
+        }
+
+        private void write(final GraphWriteMethods graph, final String descriptor, final GraphElementType elementType, final int element) {
+            final List<String> keys = keysByDescriptor.get(descriptor);
+            if (keys == null || element == NO_ELEMENT) {
+                return;
+            }
+
+            final int record = recordStore.index();
+            final Map<String, Integer> elementAttributes = attributes.computeIfAbsent(elementType, t -> new HashMap<>());
+            final Map<String, Boolean> elementNativeSetters = nativeSetters.computeIfAbsent(elementType, t -> new HashMap<>());
+            for (final String key : keys) {
+                if (!recordStore.hasValue(record, key)) {
+                    continue;
+                }
+
+                Integer attribute = elementAttributes.get(key);
+                if (attribute == null) {
+                    final String attributeName = attributeNames.get(key);
+                    attribute = graph.getAttribute(elementType, attributeName);
+                    if (attribute == Graph.NOT_FOUND) {
+                        attribute = graph.getSchema() != null ? graph.getSchema().getFactory().ensureAttribute(graph, elementType, attributeName) : Graph.NOT_FOUND;
+                        if (attribute == Graph.NOT_FOUND) {
+                            attribute = graph.addAttribute(elementType, attributeTypes.get(key), attributeName, attributeName, null, null);
+                        }
+                    }
+                    elementAttributes.put(key, attribute);
+
+                    // The native setters are only safe when the attribute has the type the column was written for;
+                    // an attribute that already exists with another type gets the same String value as before.
+                    elementNativeSetters.put(key, attribute != Graph.NOT_FOUND
+                            && getDefaultAttributeType(recordStore.getColumnType(key)).equals(graph.getAttributeType(attribute)));
+                }
+
+                try {
+                    if (recordStore.isNull(record, key)) {
+                        graph.setStringValue(attribute, element, null);
+                        continue;
+                    }
+                    if (!elementNativeSetters.get(key)) {
+                        graph.setStringValue(attribute, element, recordStore.get(record, key));
+                        continue;
+                    }
+                    switch (recordStore.getColumnType(key)) {
+                        case INTEGER:
+                            graph.setIntValue(attribute, element, recordStore.getInt(record, key));
+                            break;
+                        case DOUBLE:
+                            graph.setDoubleValue(attribute, element, recordStore.getDouble(record, key));
+                            break;
+                        case BOOLEAN:
+                            graph.setBooleanValue(attribute, element, recordStore.getBoolean(record, key));
+                            break;
+                        default:
+                            // Datetime attributes store longs as milliseconds since the epoch in UTC.
+                            graph.setLongValue(attribute, element, recordStore.getLong(record, key));
+                            break;
+                    }
+                } catch (final Exception ex) {
+                    // keeping this as an Exception to catch broad exceptions that can be thrown due to bad data
+                    LOGGER.log(Level.SEVERE, "Discarding unexpected value {0} seen in attribute {1}", new Object[]{recordStore.get(record, key), graph.getAttributeName(attribute)});
+                }
+            }
+        }
+    }
+
     /**
      * Adds the contents of the specified {@link RecordStore} to the specified
      * graph.
@@ -395,6 +562,11 @@ public class GraphRecordStoreUtilities {
      * from transaction id in the {@link RecordStore} (or created transaction id
      * if no id was provided in the {@link RecordStore}) to transaction id on
      * the graph.
+     * <p>
+     * If the record store is a {@link ColumnarRecordStore} and no
+     * vertexIdAttributes are specified, its typed columns are written to the
+     * graph with the native attribute setters rather than as Strings.
+     *
      * @return A {@link List} of {@link Integer} objects representing the vertex
      * id's of the newly added vertices.
      */
@@ -407,6 +579,10 @@ public class GraphRecordStoreUtilities {
         recordStore.reset();
         final List<String> keys = (recordStore instanceof GraphRecordStore) ? ((GraphRecordStore) recordStore).keysWithType() : recordStore.keys();
 
+        // Typed values can only be written directly when they are not needed to build vertex ids.
+        final TypedColumnWriter typedColumns = recordStore instanceof ColumnarRecordStore && vertexIdAttributes == null
+                ? new TypedColumnWriter((ColumnarRecordStore) recordStore, keys) : null;
+
         if (vertexMap == null) {
             vertexMap = new HashMap<>();
         }
@@ -419,6 +595,9 @@ public class GraphRecordStoreUtilities {
             final Map<String, String> destinationValues = new TreeMap<>();
             final Map<String, String> transactionValues = new TreeMap<>();
             for (String key : keys) {
+                if (typedColumns != null && typedColumns.isTyped(key)) {
+                    continue;
+                }
                 if (recordStore.hasValue(key)) {
                     String value = recordStore.get(key);
                     final int dividerPosition = key.indexOf('.');
@@ -450,17 +629,19 @@ public class GraphRecordStoreUtilities {
                 }
             }
 
-            if (sourceValues.isEmpty() && destinationValues.isEmpty() && transactionValues.containsKey(ID)) {
+            final boolean hasSource = !sourceValues.isEmpty() || (typedColumns != null && typedColumns.hasValues(SOURCE_DESCRIPTOR));
+            final boolean hasDestination = !destinationValues.isEmpty() || (typedColumns != null && typedColumns.hasValues(DESTINATION_DESCRIPTOR));
+            if (!hasSource && !hasDestination && transactionValues.containsKey(ID)) {
                 // This will not add a new transaction to the graph (as source and destination are both -1), but if the transaction exists already it will be returned allowing it to be selected.
-                addTransaction(graph, NO_ELEMENT, NO_ELEMENT, transactionValues, transactionMap, initializeWithSchema, completeWithSchema);
-            } else if (!sourceValues.isEmpty() && !destinationValues.isEmpty()) {
-                final int source = addVertex(graph, sourceValues, vertexMap, initializeWithSchema, completeWithSchema, newVertices, ghostVertices, vertexIdAttributes);
-                final int destination = addVertex(graph, destinationValues, vertexMap, initializeWithSchema, completeWithSchema, newVertices, ghostVertices, vertexIdAttributes);
-                addTransaction(graph, source, destination, transactionValues, transactionMap, initializeWithSchema, completeWithSchema);
-            } else if (!sourceValues.isEmpty()) {
-                addVertex(graph, sourceValues, vertexMap, initializeWithSchema, completeWithSchema, newVertices, ghostVertices, vertexIdAttributes);
-            } else if (!destinationValues.isEmpty()) {
-                addVertex(graph, destinationValues, vertexMap, initializeWithSchema, completeWithSchema, newVertices, ghostVertices, vertexIdAttributes);
+                addTransaction(graph, NO_ELEMENT, NO_ELEMENT, transactionValues, transactionMap, initializeWithSchema, completeWithSchema, typedColumns);
+            } else if (hasSource && hasDestination) {
+                final int source = addVertex(graph, sourceValues, vertexMap, initializeWithSchema, completeWithSchema, newVertices, ghostVertices, vertexIdAttributes, typedColumns, SOURCE_DESCRIPTOR);
+                final int destination = addVertex(graph, destinationValues, vertexMap, initializeWithSchema, completeWithSchema, newVertices, ghostVertices, vertexIdAttributes, typedColumns, DESTINATION_DESCRIPTOR);
+                addTransaction(graph, source, destination, transactionValues, transactionMap, initializeWithSchema, completeWithSchema, typedColumns);
+            } else if (hasSource) {
+                addVertex(graph, sourceValues, vertexMap, initializeWithSchema, completeWithSchema, newVertices, ghostVertices, vertexIdAttributes, typedColumns, SOURCE_DESCRIPTOR);
+            } else if (hasDestination) {
+                addVertex(graph, destinationValues, vertexMap, initializeWithSchema, completeWithSchema, newVertices, ghostVertices, vertexIdAttributes, typedColumns, DESTINATION_DESCRIPTOR);
             } else {
                 // Do nothing
             }
@@ -21,7 +21,10 @@ import au.gov.asd.tac.constellation.graph.GraphWriteMethods;
 import au.gov.asd.tac.constellation.graph.operations.GraphOperation;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -36,6 +39,7 @@ public class UndoGraphEdit implements GraphEdit {
     private static final boolean VERBOSE = false;
 
     private final UndoGraphEditState state;
+    private final List<UndoGraphEdit> children = new ArrayList<>();
 
     public UndoGraphEdit() {
         state = new UndoGraphEditState();
@@ -47,6 +51,9 @@ public class UndoGraphEdit implements GraphEdit {
 
     @Override
     public void addChild(final GraphEdit childEdit) {
+        if (childEdit instanceof UndoGraphEdit) {
+            children.add((UndoGraphEdit) childEdit);
+        }
         int childIndex = state.addObject(childEdit);
         UndoGraphEditOperation.EXECUTE_CHILD.addOperation(state, state.getCurrentAttribute(),
                 state.getCurrentId(), state.getCurrentInt(), state.getCurrentLong(), childIndex);
@@ -326,4 +333,35 @@ public class UndoGraphEdit implements GraphEdit {
     public void write(final DataOutputStream out) throws Exception {
         state.write(out);
     }
+
+    /**
+     * Returns the number of bytes of memory held by the primitive state of
+     * this edit and its children. Objects recorded by the edit, such as
+     * attribute values, are not included.
+     *
+     * @return the number of bytes held by this edit.
+     */
+    public long getPrimitiveSize() {
+        long size = state.getPrimitiveSize();
+        for (final UndoGraphEdit child : children) {
+            size += child.getPrimitiveSize();
+        }
+        return size;
+    }
+
+    /**
+     * Moves the primitive state of this finished edit and its children out of
+     * memory and into a spill file, from which it is read back whenever the
+     * edit is executed or undone.
+     *
+     * @param file the file to spill to.
+     * @throws IOException if the state could not be written, in which case
+     * some of it may still be held in memory.
+     */
+    public void spill(final UndoSpillFile file) throws IOException {
+        state.spill(file);
+        for (final UndoGraphEdit child : children) {
+            child.spill(file);
+        }
+    }
 }
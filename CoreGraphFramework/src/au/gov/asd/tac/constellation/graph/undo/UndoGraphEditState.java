@@ -20,6 +20,7 @@ import au.gov.asd.tac.constellation.graph.operations.GraphOperation;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
@@ -87,6 +88,10 @@ public class UndoGraphEditState {
     private short currentOperation = 0xFF;
     private int extraOperationsCount = 0;
 
+    // Where the primitive stacks have been spilled to, or null if they are only held in memory.
+    private UndoSpillFile spillFile = null;
+    private long spillPosition;
+
     public UndoGraphEditState() {
         // do nothing
     }
@@ -336,6 +341,89 @@ public class UndoGraphEditState {
         return objectIndex;
     }
 
+    /**
+     * Returns the number of bytes of memory held by the primitive stacks, which
+     * is 0 once they have been spilled.
+     *
+     * @return the number of bytes held by the primitive stacks.
+     */
+    public long getPrimitiveSize() {
+        if (operationStack == null) {
+            return 0;
+        }
+        return (operationStack.length * 2L) + byteStack.length + (shortStack.length * 2L) + (intStack.length * 4L) + (longStack.length * 8L);
+    }
+
+    /**
+     * Moves the primitive stacks of a finished edit out of memory and into a
+     * spill file. They are read back in whenever the edit is executed or
+     * undone, and released again afterwards.
+     *
+     * @param file the file to spill to.
+     * @throws IOException if the stacks could not be written, in which case
+     * they are still held in memory.
+     */
+    public void spill(final UndoSpillFile file) throws IOException {
+        if (spillFile == null) {
+            final long length = (longCount * 8L) + (intCount * 4L) + ((operationCount + shortCount) * 2L) + byteCount;
+            final long position = file.allocate(length);
+            long next = file.write(position, longStack, longCount);
+            next = file.write(next, intStack, intCount);
+            next = file.write(next, operationStack, operationCount);
+            next = file.write(next, shortStack, shortCount);
+            file.write(next, byteStack, byteCount);
+
+            spillFile = file;
+            spillPosition = position;
+        }
+
+        release();
+    }
+
+    /**
+     * Reads the primitive stacks back in if they have been spilled and are
+     * not already in memory.
+     *
+     * @return true if the stacks were read in, and so should be released
+     * again.
+     */
+    private boolean fault() {
+        if (operationStack != null) {
+            return false;
+        }
+
+        try {
+            final long[] longs = new long[longCount];
+            long next = spillFile.read(spillPosition, longs);
+            final int[] ints = new int[intCount];
+            next = spillFile.read(next, ints);
+            final short[] operations = new short[operationCount];
+            next = spillFile.read(next, operations);
+            final short[] shorts = new short[shortCount];
+            next = spillFile.read(next, shorts);
+            final byte[] bytes = new byte[byteCount];
+            spillFile.read(next, bytes);
+            longStack = longs;
+            intStack = ints;
+            shortStack = shorts;
+            byteStack = bytes;
+            operationStack = operations;
+        } catch (final IOException ex) {
+            throw new UncheckedIOException("Unable to read spilled undo state", ex);
+        }
+        return true;
+    }
+
+    private void release() {
+        if (spillFile != null) {
+            operationStack = null;
+            byteStack = null;
+            shortStack = null;
+            intStack = null;
+            longStack = null;
+        }
+    }
+
     public void finish() {
         operationStack = Arrays.copyOf(operationStack, operationCount);
         byteStack = Arrays.copyOf(byteStack, byteCount);
@@ -419,6 +507,17 @@ public class UndoGraphEditState {
     }
 
     public void execute(final GraphWriteMethods graph) {
+        final boolean faulted = fault();
+        try {
+            executeResident(graph);
+        } finally {
+            if (faulted) {
+                release();
+            }
+        }
+    }
+
+    private void executeResident(final GraphWriteMethods graph) {
 
         bytePointer = 0;
         shortPointer = 0;
@@ -443,6 +542,17 @@ public class UndoGraphEditState {
     }
 
     public void undo(final GraphWriteMethods graph) {
+        final boolean faulted = fault();
+        try {
+            undoResident(graph);
+        } finally {
+            if (faulted) {
+                release();
+            }
+        }
+    }
+
+    private void undoResident(final GraphWriteMethods graph) {
 
         bytePointer = byteCount;
         shortPointer = shortCount;
@@ -468,6 +578,17 @@ public class UndoGraphEditState {
     }
 
     public void write(final DataOutputStream out) throws IOException {
+        final boolean faulted = fault();
+        try {
+            writeResident(out);
+        } finally {
+            if (faulted) {
+                release();
+            }
+        }
+    }
+
+    private void writeResident(final DataOutputStream out) throws IOException {
         out.writeInt(operationCount);
         for (int i = 0; i < operationCount; i++) {
             out.writeShort(operationStack[i]);
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.undo;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A temporary file holding the primitive state of undo edits that have been
+ * moved out of memory.
+ * <p>
+ * Space in the file is handed out in regions that are only ever appended.
+ * Arrays are written to and read from a region with positional reads and
+ * writes through one small direct buffer, so the file never holds memory
+ * mappings open and an edit is not copied whole onto the heap on its way in
+ * or out. The file is deleted when it is closed or when the application
+ * exits.
+ *
+ * @author sirius
+ */
+public final class UndoSpillFile implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(UndoSpillFile.class.getName());
+
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.nativeOrder());
+    private long size = 0;
+
+    /**
+     * Copies part of an array to or from the buffer.
+     */
+    @FunctionalInterface
+    private interface Transfer {
+
+        void transfer(final ByteBuffer buffer, final int offset, final int count);
+    }
+
+    /**
+     * Creates a new empty spill file in the temporary directory.
+     *
+     * @throws IOException if the file could not be created.
+     */
+    public UndoSpillFile() throws IOException {
+        path = Files.createTempFile("constellation-undo-", ".bin");
+        path.toFile().deleteOnExit();
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Reserves a new region at the end of the file. Regions start on a
+     * multiple of 8 bytes.
+     *
+     * @param length the length of the region in bytes.
+     * @return the position of the region in the file.
+     */
+    synchronized long allocate(final long length) {
+        final long position = size;
+        size += (length + 7) & ~7L;
+        return position;
+    }
+
+    synchronized long write(final long position, final long[] values, final int count) throws IOException {
+        return write(position, count, Long.BYTES, (b, offset, n) -> b.asLongBuffer().put(values, offset, n));
+    }
+
+    synchronized long write(final long position, final int[] values, final int count) throws IOException {
+        return write(position, count, Integer.BYTES, (b, offset, n) -> b.asIntBuffer().put(values, offset, n));
+    }
+
+    synchronized long write(final long position, final short[] values, final int count) throws IOException {
+        return write(position, count, Short.BYTES, (b, offset, n) -> b.asShortBuffer().put(values, offset, n));
+    }
+
+    synchronized long write(final long position, final byte[] values, final int count) throws IOException {
+        return write(position, count, Byte.BYTES, (b, offset, n) -> b.put(values, offset, n));
+    }
+
+    synchronized long read(final long position, final long[] values) throws IOException {
+        return read(position, values.length, Long.BYTES, (b, offset, n) -> b.asLongBuffer().get(values, offset, n));
+    }
+
+    synchronized long read(final long position, final int[] values) throws IOException {
+        return read(position, values.length, Integer.BYTES, (b, offset, n) -> b.asIntBuffer().get(values, offset, n));
+    }
+
+    synchronized long read(final long position, final short[] values) throws IOException {
+        return read(position, values.length, Short.BYTES, (b, offset, n) -> b.asShortBuffer().get(values, offset, n));
+    }
+
+    synchronized long read(final long position, final byte[] values) throws IOException {
+        return read(position, values.length, Byte.BYTES, (b, offset, n) -> b.get(values, offset, n));
+    }
+
+    /**
+     * Writes values to the file a buffer at a time.
+     *
+     * @param position the position to write the first value to.
+     * @param count the number of values to write.
+     * @param width the number of bytes in each value.
+     * @param transfer copies values from the array into the buffer.
+     * @return the position after the last value.
+     * @throws IOException if the values could not be written.
+     */
+    private long write(long position, final int count, final int width, final Transfer transfer) throws IOException {
+        for (int offset = 0; offset < count;) {
+            final int n = Math.min(count - offset, BUFFER_SIZE / width);
+            buffer.clear();
+            transfer.transfer(buffer, offset, n);
+            buffer.limit(n * width);
+            buffer.position(0);
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            offset += n;
+        }
+        return position;
+    }
+
+    /**
+     * Reads values from the file a buffer at a time.
+     *
+     * @param position the position of the first value.
+     * @param count the number of values to read.
+     * @param width the number of bytes in each value.
+     * @param transfer copies values from the buffer into the array.
+     * @return the position after the last value.
+     * @throws IOException if the values could not be read.
+     */
+    private long read(long position, final int count, final int width, final Transfer transfer) throws IOException {
+        for (int offset = 0; offset < count;) {
+            final int n = Math.min(count - offset, BUFFER_SIZE / width);
+            buffer.clear();
+            buffer.limit(n * width);
+            while (buffer.hasRemaining()) {
+                final int read = channel.read(buffer, position);
+                if (read < 0) {
+                    throw new EOFException("Unexpected end of undo spill file " + path);
+                }
+                position += read;
+            }
+            buffer.position(0);
+            transfer.transfer(buffer, offset, n);
+            offset += n;
+        }
+        return position;
+    }
+
+    /**
+     * Returns the number of bytes handed out so far.
+     *
+     * @return the size of the file.
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            channel.close();
+            Files.deleteIfExists(path);
+        } catch (final IOException ex) {
+            LOGGER.log(Level.WARNING, "Unable to delete undo spill file " + path, ex);
+        }
+    }
+}
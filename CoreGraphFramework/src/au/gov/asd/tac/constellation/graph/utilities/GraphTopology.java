@@ -0,0 +1,358 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.utilities;
+
+import au.gov.asd.tac.constellation.graph.GraphConstants;
+import au.gov.asd.tac.constellation.graph.GraphReadMethods;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * An immutable snapshot of the vertices of a graph and the neighbours of each
+ * vertex, held in compressed sparse row form.
+ * <p>
+ * Vertices are referred to by their position in the graph at the time the
+ * snapshot was taken. For each vertex position, the neighbours of that vertex
+ * are stored contiguously in a single array of target positions, starting at
+ * the offset of the vertex. A snapshot records, for every pair of neighbours,
+ * how many directed transactions go each way and how many undirected
+ * transactions join them. From these it creates an {@link Adjacency} for any
+ * combination of incoming, outgoing and undirected transactions. Loops are not
+ * included.
+ * <p>
+ * A snapshot does not refer to the graph it was taken from, so the lock on the
+ * graph can be released as soon as it has been taken. Snapshots taken with
+ * {@link #of(GraphReadMethods)} are cached against the structure generation
+ * of the graph so that algorithms run one after another on an unchanged graph
+ * share the same snapshot.
+ *
+ * @author sirius
+ */
+public final class GraphTopology {
+
+    private static final int CACHE_SIZE = 4;
+
+    private static final Map<String, GraphTopology> CACHE = new LinkedHashMap<>(CACHE_SIZE, 0.75F, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, GraphTopology> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private final String graphId;
+    private final long structureModificationCounter;
+    private final long structureGeneration;
+    private final int transactionCount;
+
+    private final int[] vertexIds;
+    private final int[] vertexPositions;
+
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] outgoingCounts;
+    private final int[] incomingCounts;
+    private final int[] undirectedCounts;
+
+    private final Adjacency[] adjacencies = new Adjacency[8];
+
+    private GraphTopology(final GraphReadMethods graph) {
+        this.graphId = graph.getId();
+        this.structureModificationCounter = graph.getStructureModificationCounter();
+        this.structureGeneration = graph.getStructureGeneration();
+        this.transactionCount = graph.getTransactionCount();
+
+        final int vertexCount = graph.getVertexCount();
+        vertexIds = new int[vertexCount];
+        vertexPositions = new int[graph.getVertexCapacity()];
+        Arrays.fill(vertexPositions, -1);
+        int linkEnds = 0;
+        for (int position = 0; position < vertexCount; position++) {
+            final int vertexId = graph.getVertex(position);
+            vertexIds[position] = vertexId;
+            vertexPositions[vertexId] = position;
+            linkEnds += graph.getVertexLinkCount(vertexId);
+        }
+
+        offsets = new int[vertexCount + 1];
+        int[] neighbourTargets = new int[linkEnds];
+        int[] outgoing = new int[linkEnds];
+        int[] incoming = new int[linkEnds];
+        int[] undirected = new int[linkEnds];
+        int entry = 0;
+        for (int position = 0; position < vertexCount; position++) {
+            offsets[position] = entry;
+            final int vertexId = vertexIds[position];
+            final int linkCount = graph.getVertexLinkCount(vertexId);
+            for (int linkPosition = 0; linkPosition < linkCount; linkPosition++) {
+                final int linkId = graph.getVertexLink(vertexId, linkPosition);
+                final int lowId = graph.getLinkLowVertex(linkId);
+                final int highId = graph.getLinkHighVertex(linkId);
+                if (lowId == highId) {
+                    continue;
+                }
+
+                // Uphill transactions go from the lower vertex id to the higher one
+                final int uphill = graph.getLinkTransactionCount(linkId, GraphConstants.UPHILL);
+                final int downhill = graph.getLinkTransactionCount(linkId, GraphConstants.DOWNHILL);
+                final boolean isLow = vertexId == lowId;
+                neighbourTargets[entry] = vertexPositions[isLow ? highId : lowId];
+                outgoing[entry] = isLow ? uphill : downhill;
+                incoming[entry] = isLow ? downhill : uphill;
+                undirected[entry] = graph.getLinkTransactionCount(linkId, GraphConstants.FLAT);
+                entry++;
+            }
+        }
+        offsets[vertexCount] = entry;
+
+        this.targets = Arrays.copyOf(neighbourTargets, entry);
+        this.outgoingCounts = Arrays.copyOf(outgoing, entry);
+        this.incomingCounts = Arrays.copyOf(incoming, entry);
+        this.undirectedCounts = Arrays.copyOf(undirected, entry);
+    }
+
+    /**
+     * Takes a new snapshot of the topology of a graph.
+     *
+     * @param graph the graph.
+     * @return a new snapshot of the topology of the graph.
+     */
+    public static GraphTopology build(final GraphReadMethods graph) {
+        return new GraphTopology(graph);
+    }
+
+    /**
+     * Returns a snapshot of the topology of a graph, reusing a cached snapshot
+     * if the structure of the graph has not changed since it was taken.
+     *
+     * @param graph the graph.
+     * @return a snapshot of the current topology of the graph.
+     */
+    public static GraphTopology of(final GraphReadMethods graph) {
+        final String key = String.valueOf(graph.getId());
+        synchronized (CACHE) {
+            final GraphTopology cached = CACHE.get(key);
+            if (cached != null && cached.isCurrent(graph)) {
+                return cached;
+            }
+        }
+
+        final GraphTopology topology = build(graph);
+        synchronized (CACHE) {
+            CACHE.put(key, topology);
+        }
+        return topology;
+    }
+
+    /**
+     * Returns true if this snapshot still describes the topology of a graph.
+     *
+     * @param graph the graph.
+     * @return true if this snapshot was taken from the graph and the
+     * structure of the graph has not been modified since.
+     */
+    public boolean isCurrent(final GraphReadMethods graph) {
+        // The structure modification counter can return to an earlier value after an undo, so prefer the generation
+        if (structureGeneration != -1) {
+            return structureGeneration == graph.getStructureGeneration();
+        }
+        return Objects.equals(graphId, graph.getId())
+                && structureModificationCounter == graph.getStructureModificationCounter()
+                && vertexIds.length == graph.getVertexCount()
+                && transactionCount == graph.getTransactionCount();
+    }
+
+    /**
+     * Returns the value of the structure modification counter of the graph
+     * when this snapshot was taken.
+     *
+     * @return the structure modification counter of the graph.
+     */
+    public long getStructureModificationCounter() {
+        return structureModificationCounter;
+    }
+
+    /**
+     * Returns the number of vertices.
+     *
+     * @return the number of vertices.
+     */
+    public int getVertexCount() {
+        return vertexIds.length;
+    }
+
+    /**
+     * Returns the id of the vertex at a position.
+     *
+     * @param position the position of the vertex.
+     * @return the id of the vertex.
+     */
+    public int getVertexId(final int position) {
+        return vertexIds[position];
+    }
+
+    /**
+     * Returns the position of a vertex.
+     *
+     * @param vertexId the id of the vertex.
+     * @return the position of the vertex, or -1 if the vertex was not in the
+     * graph.
+     */
+    public int getVertexPosition(final int vertexId) {
+        return vertexId >= 0 && vertexId < vertexPositions.length ? vertexPositions[vertexId] : -1;
+    }
+
+    /**
+     * Returns the neighbours of each vertex joined by any transaction,
+     * regardless of direction. The weight of each neighbour is the number of
+     * transactions joining them.
+     *
+     * @return the neighbours of each vertex.
+     */
+    public Adjacency getNeighbours() {
+        return getAdjacency(true, true, true);
+    }
+
+    /**
+     * Returns the neighbours of each vertex joined by the specified kinds of
+     * transaction. The weight of each neighbour is the number of these
+     * transactions joining them.
+     *
+     * @param includeIncoming include directed transactions from the neighbour
+     * to the vertex.
+     * @param includeOutgoing include directed transactions from the vertex to
+     * the neighbour.
+     * @param includeUndirected include undirected transactions.
+     * @return the neighbours of each vertex.
+     */
+    public synchronized Adjacency getAdjacency(final boolean includeIncoming, final boolean includeOutgoing, final boolean includeUndirected) {
+        final int key = (includeIncoming ? 1 : 0) | (includeOutgoing ? 2 : 0) | (includeUndirected ? 4 : 0);
+        if (adjacencies[key] == null) {
+            adjacencies[key] = createAdjacency(includeIncoming, includeOutgoing, includeUndirected);
+        }
+        return adjacencies[key];
+    }
+
+    private Adjacency createAdjacency(final boolean includeIncoming, final boolean includeOutgoing, final boolean includeUndirected) {
+        final int vertexCount = vertexIds.length;
+        final int[] adjacencyOffsets = new int[vertexCount + 1];
+        final int[] adjacencyTargets = new int[targets.length];
+        final float[] adjacencyWeights = new float[targets.length];
+        int adjacencyEntry = 0;
+        for (int position = 0; position < vertexCount; position++) {
+            adjacencyOffsets[position] = adjacencyEntry;
+            for (int entry = offsets[position]; entry < offsets[position + 1]; entry++) {
+                final int weight = (includeIncoming ? incomingCounts[entry] : 0)
+                        + (includeOutgoing ? outgoingCounts[entry] : 0)
+                        + (includeUndirected ? undirectedCounts[entry] : 0);
+                if (weight > 0) {
+                    adjacencyTargets[adjacencyEntry] = targets[entry];
+                    adjacencyWeights[adjacencyEntry] = weight;
+                    adjacencyEntry++;
+                }
+            }
+        }
+        adjacencyOffsets[vertexCount] = adjacencyEntry;
+
+        return new Adjacency(adjacencyOffsets,
+                Arrays.copyOf(adjacencyTargets, adjacencyEntry),
+                Arrays.copyOf(adjacencyWeights, adjacencyEntry));
+    }
+
+    /**
+     * The neighbours of every vertex in compressed sparse row form. The
+     * neighbours of the vertex at position p are the targets from
+     * {@code getOffsets()[p]} (inclusive) to {@code getOffsets()[p + 1]}
+     * (exclusive), in the order of the links of the vertex.
+     * <p>
+     * The arrays are shared and must not be modified.
+     */
+    public static final class Adjacency {
+
+        private final int[] offsets;
+        private final int[] targets;
+        private final float[] weights;
+
+        private Adjacency(final int[] offsets, final int[] targets, final float[] weights) {
+            this.offsets = offsets;
+            this.targets = targets;
+            this.weights = weights;
+        }
+
+        /**
+         * Returns the offset of the first neighbour of each vertex, followed by
+         * the total number of neighbours.
+         *
+         * @return the offsets, one longer than the number of vertices.
+         */
+        public int[] getOffsets() {
+            return offsets;
+        }
+
+        /**
+         * Returns the positions of the neighbours.
+         *
+         * @return the positions of the neighbours.
+         */
+        public int[] getTargets() {
+            return targets;
+        }
+
+        /**
+         * Returns the weights of the neighbours, which are the number of
+         * transactions joining each vertex to each neighbour.
+         *
+         * @return the weights of the neighbours.
+         */
+        public float[] getWeights() {
+            return weights;
+        }
+
+        /**
+         * Returns the number of neighbours of a vertex.
+         *
+         * @param position the position of the vertex.
+         * @return the number of neighbours of the vertex.
+         */
+        public int getDegree(final int position) {
+            return offsets[position + 1] - offsets[position];
+        }
+
+        /**
+         * Returns the total weight of the neighbours of a vertex.
+         *
+         * @param position the position of the vertex.
+         * @return the total weight of the neighbours of the vertex.
+         */
+        public float getWeightedDegree(final int position) {
+            float weightedDegree = 0;
+            for (int entry = offsets[position]; entry < offsets[position + 1]; entry++) {
+                weightedDegree += weights[entry];
+            }
+            return weightedDegree;
+        }
+
+        /**
+         * Returns the total number of neighbour entries across all vertices.
+         *
+         * @return the number of neighbour entries.
+         */
+        public int getEntryCount() {
+            return targets.length;
+        }
+    }
+}
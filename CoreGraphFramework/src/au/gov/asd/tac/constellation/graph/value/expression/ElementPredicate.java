@@ -0,0 +1,38 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.value.expression;
+
+import java.util.BitSet;
+
+/**
+ * A boolean expression that has been compiled to be evaluated over many
+ * elements at once.
+ *
+ * @author sirius
+ */
+public interface ElementPredicate {
+
+    /**
+     * Evaluates this predicate for a subset of elements.
+     *
+     * @param elements the ids of the elements.
+     * @param candidates the positions in elements of the elements to
+     * evaluate.
+     * @return a new BitSet holding the positions of the candidates for which
+     * this predicate is true.
+     */
+    BitSet evaluate(final int[] elements, final BitSet candidates);
+}
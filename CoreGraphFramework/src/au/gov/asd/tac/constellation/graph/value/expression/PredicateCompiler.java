@@ -0,0 +1,404 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.value.expression;
+
+import au.gov.asd.tac.constellation.graph.value.ComparisonOperation;
+import au.gov.asd.tac.constellation.graph.value.StringOperation;
+import au.gov.asd.tac.constellation.graph.value.constants.StringConstant;
+import au.gov.asd.tac.constellation.graph.value.expression.ExpressionParser.Expression;
+import au.gov.asd.tac.constellation.graph.value.expression.ExpressionParser.OperatorExpression;
+import au.gov.asd.tac.constellation.graph.value.expression.ExpressionParser.SequenceExpression;
+import au.gov.asd.tac.constellation.graph.value.expression.ExpressionParser.StringExpression;
+import au.gov.asd.tac.constellation.graph.value.expression.ExpressionParser.VariableExpression;
+import au.gov.asd.tac.constellation.graph.value.operations.Contains;
+import au.gov.asd.tac.constellation.graph.value.operations.EndsWith;
+import au.gov.asd.tac.constellation.graph.value.operations.Equals;
+import au.gov.asd.tac.constellation.graph.value.operations.GreaterThan;
+import au.gov.asd.tac.constellation.graph.value.operations.GreaterThanOrEquals;
+import au.gov.asd.tac.constellation.graph.value.operations.LessThan;
+import au.gov.asd.tac.constellation.graph.value.operations.LessThanOrEquals;
+import au.gov.asd.tac.constellation.graph.value.operations.NotEquals;
+import au.gov.asd.tac.constellation.graph.value.operations.StartsWith;
+import au.gov.asd.tac.constellation.graph.value.readables.BooleanReadable;
+import au.gov.asd.tac.constellation.graph.value.readables.DoubleReadable;
+import au.gov.asd.tac.constellation.graph.value.readables.FloatReadable;
+import au.gov.asd.tac.constellation.graph.value.readables.IntReadable;
+import au.gov.asd.tac.constellation.graph.value.readables.LongReadable;
+import au.gov.asd.tac.constellation.graph.value.readables.ObjectReadable;
+import au.gov.asd.tac.constellation.graph.value.readables.StringReadable;
+import au.gov.asd.tac.constellation.graph.value.variables.IntVariable;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Compiles an expression into an {@link ElementPredicate} that can be
+ * evaluated over many elements at once.
+ * <p>
+ * The {@link ExpressionCompiler} builds a tree of readables that resolves its
+ * operators through the {@link au.gov.asd.tac.constellation.graph.value.OperatorRegistry}
+ * and re-parses any constants for every element it is read for. This compiler
+ * handles the common forms of boolean query (comparisons between attributes
+ * and constants, string matching and the logical operators) by resolving the
+ * types of each operation once, parsing constants once, and evaluating whole
+ * sets of elements at a time so that the right hand side of an
+ * <code>and</code> or <code>or</code> is only evaluated for the elements that
+ * need it. The results are the same as those of the {@link ExpressionCompiler}.
+ * <p>
+ * Expressions that this compiler does not handle cause null to be returned,
+ * in which case the caller should use the {@link ExpressionCompiler}, which
+ * will also report any errors in the expression.
+ *
+ * @author sirius
+ */
+public class PredicateCompiler {
+
+    private static final int INT_LEVEL = 0;
+    private static final int LONG_LEVEL = 1;
+    private static final int FLOAT_LEVEL = 2;
+    private static final int DOUBLE_LEVEL = 3;
+
+    private static final ElementPredicate NONE = (elements, candidates) -> new BitSet();
+
+    private PredicateCompiler() {
+        // added private constructor to hide implicit public constructor - S1118.
+    }
+
+    /**
+     * Compiles an expression into an ElementPredicate.
+     *
+     * @param expression the expression to compile.
+     * @param variableProvider the provider of the variables referenced by the
+     * expression.
+     * @param index the index that the variables are read at. This will be
+     * written with each element id as the predicate is evaluated.
+     * @return an ElementPredicate for the expression, or null if the
+     * expression is not a boolean expression that this compiler can handle.
+     */
+    public static ElementPredicate compileSequenceExpression(final SequenceExpression expression, final VariableProvider variableProvider, final IntVariable index) {
+        if (expression == null) {
+            return null;
+        }
+        return toPredicate(compileSequence(expression, variableProvider, index), index);
+    }
+
+    private static Object compileSequence(final SequenceExpression expression, final VariableProvider variableProvider, final IntVariable index) {
+        final List<Expression> children = expression.getUnmodifiableChildren();
+        switch (children.size()) {
+            case 1:
+                return compileExpression(children.get(0), variableProvider, index);
+            case 2:
+                final OperatorExpression operator = (OperatorExpression) children.get(0);
+                final ElementPredicate right = toPredicate(compileExpression(children.get(1), variableProvider, index), index);
+                if (right == null) {
+                    return null;
+                }
+                switch (operator.getOperator()) {
+                    case NOT:
+                        return not(right);
+                    default:
+                        return null;
+                }
+            case 3:
+                final Object left = compileExpression(children.get(0), variableProvider, index);
+                final OperatorExpression operator2 = (OperatorExpression) children.get(1);
+                final Object right2 = compileExpression(children.get(2), variableProvider, index);
+                if (left == null || right2 == null) {
+                    return null;
+                }
+                return compileOperation(operator2, left, right2, index);
+            default:
+                return null;
+        }
+    }
+
+    private static Object compileExpression(final Expression expression, final VariableProvider variableProvider, final IntVariable index) {
+        if (expression instanceof SequenceExpression) {
+            return compileSequence((SequenceExpression) expression, variableProvider, index);
+        } else if (expression instanceof VariableExpression) {
+            return variableProvider.getVariable(((VariableExpression) expression).getContent(), index);
+        } else if (expression instanceof StringExpression) {
+            final String content = ((StringExpression) expression).getContent();
+            return (StringConstant) () -> content;
+        } else {
+            return null;
+        }
+    }
+
+    private static ElementPredicate compileOperation(final OperatorExpression operator, final Object left, final Object right, final IntVariable index) {
+        switch (operator.getOperator()) {
+            case AND:
+            case AND_AND:
+                return compileLogical(left, right, index, PredicateCompiler::and);
+            case OR:
+            case OR_OR:
+                return compileLogical(left, right, index, PredicateCompiler::or);
+            case EXCLUSIVE_OR:
+                return compileLogical(left, right, index, PredicateCompiler::xor);
+            case EQUALS:
+                if (isBoolean(left) && isBoolean(right)) {
+                    return compileLogical(left, right, index, (p1, p2) -> not(xor(p1, p2)));
+                } else if (isBoolean(left) && right instanceof StringConstant) {
+                    final String constant = ((StringConstant) right).readString();
+                    if (String.valueOf(true).equals(constant)) {
+                        return toPredicate(left, index);
+                    } else if (String.valueOf(false).equals(constant)) {
+                        return not(toPredicate(left, index));
+                    } else {
+                        return NONE;
+                    }
+                } else if (isObject(left) && right instanceof StringConstant) {
+                    final ObjectReadable readable = (ObjectReadable) left;
+                    final String constant = ((StringConstant) right).readString();
+                    return test(index, () -> readable.readObject().toString().equals(constant));
+                } else {
+                    return compileComparison(Equals.COMPARISON_OPERATION, left, right, index);
+                }
+            case NOT_EQUALS:
+                if (isBoolean(left) && isBoolean(right)) {
+                    return compileLogical(left, right, index, PredicateCompiler::xor);
+                }
+                return compileComparison(NotEquals.COMPARISON_OPERATION, left, right, index);
+            case GREATER_THAN:
+                return compileComparison(GreaterThan.COMPARISON_OPERATION, left, right, index);
+            case GREATER_THAN_OR_EQUALS:
+                return compileComparison(GreaterThanOrEquals.COMPARISON_OPERATION, left, right, index);
+            case LESS_THAN:
+                return compileComparison(LessThan.COMPARISON_OPERATION, left, right, index);
+            case LESS_THAN_OR_EQUALS:
+                return compileComparison(LessThanOrEquals.COMPARISON_OPERATION, left, right, index);
+            case CONTAINS:
+                return compileStringOperation(Contains.STRING_OPERATION, left, right, index);
+            case STARTS_WITH:
+                return compileStringOperation(StartsWith.STRING_OPERATION, left, right, index);
+            case ENDS_WITH:
+                return compileStringOperation(EndsWith.STRING_OPERATION, left, right, index);
+            default:
+                return null;
+        }
+    }
+
+    private interface LogicalOperation {
+
+        ElementPredicate apply(final ElementPredicate left, final ElementPredicate right);
+    }
+
+    private static ElementPredicate compileLogical(final Object left, final Object right, final IntVariable index, final LogicalOperation operation) {
+        final ElementPredicate leftPredicate = toPredicate(left, index);
+        final ElementPredicate rightPredicate = toPredicate(right, index);
+        if (leftPredicate == null || rightPredicate == null) {
+            return null;
+        }
+        return operation.apply(leftPredicate, rightPredicate);
+    }
+
+    private static ElementPredicate compileComparison(final ComparisonOperation operation, final Object left, final Object right, final IntVariable index) {
+        if (left instanceof StringConstant && right instanceof StringConstant) {
+            return null;
+        }
+        if (isString(left) || isString(right)) {
+            return compileStringOperation(operation::execute, left, right, index);
+        }
+
+        final int level = Math.max(getNumericLevel(left), getNumericLevel(right));
+        if ((!(left instanceof StringConstant) && getNumericLevel(left) < 0)
+                || (!(right instanceof StringConstant) && getNumericLevel(right) < 0)) {
+            return null;
+        }
+
+        try {
+            switch (level) {
+                case INT_LEVEL:
+                    if (right instanceof StringConstant) {
+                        final IntReadable l = (IntReadable) left;
+                        final int r = Integer.parseInt(((StringConstant) right).readString());
+                        return test(index, () -> operation.execute(l.readInt(), r));
+                    } else if (left instanceof StringConstant) {
+                        final int l = Integer.parseInt(((StringConstant) left).readString());
+                        final IntReadable r = (IntReadable) right;
+                        return test(index, () -> operation.execute(l, r.readInt()));
+                    } else {
+                        final IntReadable l = (IntReadable) left;
+                        final IntReadable r = (IntReadable) right;
+                        return test(index, () -> operation.execute(l.readInt(), r.readInt()));
+                    }
+                case LONG_LEVEL:
+                    if (right instanceof StringConstant) {
+                        final LongReadable l = (LongReadable) left;
+                        final long r = Long.parseLong(((StringConstant) right).readString());
+                        return test(index, () -> operation.execute(l.readLong(), r));
+                    } else if (left instanceof StringConstant) {
+                        final long l = Long.parseLong(((StringConstant) left).readString());
+                        final LongReadable r = (LongReadable) right;
+                        return test(index, () -> operation.execute(l, r.readLong()));
+                    } else {
+                        final LongReadable l = (LongReadable) left;
+                        final LongReadable r = (LongReadable) right;
+                        return test(index, () -> operation.execute(l.readLong(), r.readLong()));
+                    }
+                case FLOAT_LEVEL:
+                    if (right instanceof StringConstant) {
+                        final FloatReadable l = (FloatReadable) left;
+                        final float r = Float.parseFloat(((StringConstant) right).readString());
+                        return test(index, () -> operation.execute(l.readFloat(), r));
+                    } else if (left instanceof StringConstant) {
+                        final float l = Float.parseFloat(((StringConstant) left).readString());
+                        final FloatReadable r = (FloatReadable) right;
+                        return test(index, () -> operation.execute(l, r.readFloat()));
+                    } else {
+                        final FloatReadable l = (FloatReadable) left;
+                        final FloatReadable r = (FloatReadable) right;
+                        return test(index, () -> operation.execute(l.readFloat(), r.readFloat()));
+                    }
+                case DOUBLE_LEVEL:
+                    if (right instanceof StringConstant) {
+                        final DoubleReadable l = (DoubleReadable) left;
+                        final double r = Double.parseDouble(((StringConstant) right).readString());
+                        return test(index, () -> operation.execute(l.readDouble(), r));
+                    } else if (left instanceof StringConstant) {
+                        final double l = Double.parseDouble(((StringConstant) left).readString());
+                        final DoubleReadable r = (DoubleReadable) right;
+                        return test(index, () -> operation.execute(l, r.readDouble()));
+                    } else {
+                        final DoubleReadable l = (DoubleReadable) left;
+                        final DoubleReadable r = (DoubleReadable) right;
+                        return test(index, () -> operation.execute(l.readDouble(), r.readDouble()));
+                    }
+                default:
+                    return null;
+            }
+        } catch (final NumberFormatException ex) {
+            // Leave constants that are not numbers to the ExpressionCompiler, which fails in the same way every time.
+            return null;
+        }
+    }
+
+    private static ElementPredicate compileStringOperation(final StringOperation operation, final Object left, final Object right, final IntVariable index) {
+        if (left instanceof StringConstant && right instanceof StringConstant) {
+            return null;
+        } else if (left instanceof StringConstant && isString(right)) {
+            final String l = ((StringConstant) left).readString();
+            final StringReadable r = (StringReadable) right;
+            return test(index, () -> operation.execute(l, r.readString()));
+        } else if (isString(left) && right instanceof StringConstant) {
+            final StringReadable l = (StringReadable) left;
+            final String r = ((StringConstant) right).readString();
+            return test(index, () -> operation.execute(l.readString(), r));
+        } else if (isString(left) && isString(right)) {
+            final StringReadable l = (StringReadable) left;
+            final StringReadable r = (StringReadable) right;
+            return test(index, () -> operation.execute(l.readString(), r.readString()));
+        } else {
+            return null;
+        }
+    }
+
+    private static int getCategoryCount(final Object value) {
+        int count = 0;
+        if (value instanceof DoubleReadable) {
+            count++;
+        }
+        if (value instanceof StringReadable) {
+            count++;
+        }
+        if (value instanceof BooleanReadable) {
+            count++;
+        }
+        if (value instanceof ObjectReadable) {
+            count++;
+        }
+        return count;
+    }
+
+    private static int getNumericLevel(final Object value) {
+        if (!(value instanceof DoubleReadable) || getCategoryCount(value) != 1) {
+            return -1;
+        } else if (value instanceof IntReadable) {
+            return INT_LEVEL;
+        } else if (value instanceof LongReadable) {
+            return LONG_LEVEL;
+        } else if (value instanceof FloatReadable) {
+            return FLOAT_LEVEL;
+        } else {
+            return DOUBLE_LEVEL;
+        }
+    }
+
+    private static boolean isString(final Object value) {
+        return value instanceof StringReadable && !(value instanceof StringConstant) && getCategoryCount(value) == 1;
+    }
+
+    private static boolean isObject(final Object value) {
+        return value instanceof ObjectReadable && getCategoryCount(value) == 1;
+    }
+
+    private static boolean isBoolean(final Object value) {
+        return value instanceof ElementPredicate || (value instanceof BooleanReadable && getCategoryCount(value) == 1);
+    }
+
+    private static ElementPredicate toPredicate(final Object value, final IntVariable index) {
+        if (value instanceof ElementPredicate) {
+            return (ElementPredicate) value;
+        } else if (isBoolean(value)) {
+            return test(index, ((BooleanReadable) value)::readBoolean);
+        } else {
+            return null;
+        }
+    }
+
+    private static ElementPredicate test(final IntVariable index, final BooleanSupplier test) {
+        return (elements, candidates) -> {
+            final BitSet result = new BitSet(elements.length);
+            for (int position = candidates.nextSetBit(0); position >= 0; position = candidates.nextSetBit(position + 1)) {
+                index.writeInt(elements[position]);
+                if (test.getAsBoolean()) {
+                    result.set(position);
+                }
+            }
+            return result;
+        };
+    }
+
+    private static ElementPredicate and(final ElementPredicate left, final ElementPredicate right) {
+        return (elements, candidates) -> right.evaluate(elements, left.evaluate(elements, candidates));
+    }
+
+    private static ElementPredicate or(final ElementPredicate left, final ElementPredicate right) {
+        return (elements, candidates) -> {
+            final BitSet result = left.evaluate(elements, candidates);
+            final BitSet remaining = (BitSet) candidates.clone();
+            remaining.andNot(result);
+            result.or(right.evaluate(elements, remaining));
+            return result;
+        };
+    }
+
+    private static ElementPredicate xor(final ElementPredicate left, final ElementPredicate right) {
+        return (elements, candidates) -> {
+            final BitSet result = left.evaluate(elements, candidates);
+            result.xor(right.evaluate(elements, candidates));
+            return result;
+        };
+    }
+
+    private static ElementPredicate not(final ElementPredicate predicate) {
+        return (elements, candidates) -> {
+            final BitSet result = (BitSet) candidates.clone();
+            result.andNot(predicate.evaluate(elements, candidates));
+            return result;
+        };
+    }
+}
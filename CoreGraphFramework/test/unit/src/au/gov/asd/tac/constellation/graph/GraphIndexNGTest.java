@@ -0,0 +1,260 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph;
+
+import au.gov.asd.tac.constellation.graph.attribute.DoubleAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.IntegerAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.LongAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.StringAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.ZonedDateTimeAttributeDescription;
+import au.gov.asd.tac.constellation.graph.locking.GraphOperationMode;
+import au.gov.asd.tac.constellation.graph.undo.UndoGraphEdit;
+import au.gov.asd.tac.constellation.utilities.temporal.TimeZoneUtilities;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Set;
+import java.util.TreeSet;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Tests for the hash and ordered attribute indexes.
+ *
+ * @author sirius
+ */
+public class GraphIndexNGTest {
+
+    public GraphIndexNGTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+    }
+
+    @BeforeMethod
+    public void setUpMethod() throws Exception {
+    }
+
+    @AfterMethod
+    public void tearDownMethod() throws Exception {
+    }
+
+    private static Set<Integer> collect(final GraphIndexResult result) {
+        final Set<Integer> elements = new TreeSet<>();
+        final int count = result.getCount();
+        for (int i = 0; i < count; i++) {
+            elements.add(result.getNextElement());
+        }
+        assertEquals(result.getNextElement(), Graph.NOT_FOUND);
+        return elements;
+    }
+
+    private static Set<Integer> setOf(final int... elements) {
+        final Set<Integer> set = new TreeSet<>();
+        for (final int element : elements) {
+            set.add(element);
+        }
+        return set;
+    }
+
+    @Test
+    public void testUnorderedIntegerIndex() {
+        final StoreGraph graph = new StoreGraph();
+        final int attribute = graph.addAttribute(GraphElementType.VERTEX, IntegerAttributeDescription.ATTRIBUTE_NAME, "type", null, null, null);
+
+        final int[] vertices = new int[100];
+        for (int i = 0; i < vertices.length; i++) {
+            vertices[i] = graph.addVertex();
+            graph.setIntValue(attribute, vertices[i], i % 3);
+        }
+
+        assertTrue(graph.attributeSupportsIndexType(attribute, GraphIndexType.UNORDERED));
+        graph.setAttributeIndexType(attribute, GraphIndexType.UNORDERED);
+        assertEquals(graph.getAttributeIndexType(attribute), GraphIndexType.UNORDERED);
+
+        assertEquals(graph.getElementsWithAttributeValue(attribute, 0).getCount(), 34);
+        assertEquals(graph.getElementsWithAttributeValue(attribute, 1).getCount(), 33);
+        assertEquals(graph.getElementsWithAttributeValue(attribute, 7).getCount(), 0);
+        assertNull(graph.getElementsWithAttributeValueRange(attribute, 0, 2));
+
+        // Elements added after the index was created are indexed with the default value
+        final int extra = graph.addVertex();
+        assertEquals(graph.getElementsWithAttributeValue(attribute, 0).getCount(), 35);
+
+        graph.setIntValue(attribute, extra, 7);
+        assertEquals(collect(graph.getElementsWithAttributeValue(attribute, 7)), setOf(extra));
+        assertEquals(graph.getElementsWithAttributeValue(attribute, 0).getCount(), 34);
+
+        graph.removeVertex(extra);
+        assertEquals(graph.getElementsWithAttributeValue(attribute, 7).getCount(), 0);
+
+        // Query values are converted in the same way as set values
+        assertEquals(graph.getElementsWithAttributeValue(attribute, "2").getCount(), 33);
+    }
+
+    @Test
+    public void testOrderedLongIndex() {
+        final StoreGraph graph = new StoreGraph();
+        final int attribute = graph.addAttribute(GraphElementType.TRANSACTION, LongAttributeDescription.ATTRIBUTE_NAME, "time", null, null, null);
+        graph.setAttributeIndexType(attribute, GraphIndexType.ORDERED);
+
+        final int source = graph.addVertex();
+        final int destination = graph.addVertex();
+        final int[] transactions = new int[50];
+        for (int i = 0; i < transactions.length; i++) {
+            transactions[i] = graph.addTransaction(source, destination, true);
+            graph.setLongValue(attribute, transactions[i], i * 1000L);
+        }
+
+        assertEquals(collect(graph.getElementsWithAttributeValueRange(attribute, 10000L, 13000L)),
+                setOf(transactions[10], transactions[11], transactions[12], transactions[13]));
+        assertEquals(graph.getElementsWithAttributeValueRange(attribute, null, 5000L).getCount(), 6);
+        assertEquals(graph.getElementsWithAttributeValueRange(attribute, 45000L, null).getCount(), 5);
+        assertEquals(collect(graph.getElementsWithAttributeValueRange(attribute, 20000L, 20000L)), setOf(transactions[20]));
+        assertEquals(graph.getElementsWithAttributeValueRange(attribute, 100000L, 200000L).getCount(), 0);
+
+        graph.setLongValue(attribute, transactions[0], 11500L);
+        assertEquals(graph.getElementsWithAttributeValueRange(attribute, 10000L, 13000L).getCount(), 5);
+        assertEquals(graph.getElementsWithAttributeValueRange(attribute, null, 5000L).getCount(), 5);
+    }
+
+    @Test
+    public void testOrderedDoubleIndex() {
+        final StoreGraph graph = new StoreGraph();
+        final int attribute = graph.addAttribute(GraphElementType.VERTEX, DoubleAttributeDescription.ATTRIBUTE_NAME, "score", null, null, null);
+        graph.setAttributeIndexType(attribute, GraphIndexType.ORDERED);
+
+        final double[] values = {-3.5, -0.0, 0.0, 0.25, 2.0, Double.NEGATIVE_INFINITY, 1e10};
+        final int[] vertices = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            vertices[i] = graph.addVertex();
+            graph.setDoubleValue(attribute, vertices[i], values[i]);
+        }
+
+        assertEquals(collect(graph.getElementsWithAttributeValue(attribute, 0.0)), setOf(vertices[1], vertices[2]));
+        assertEquals(collect(graph.getElementsWithAttributeValueRange(attribute, -4.0, 0.25)),
+                setOf(vertices[0], vertices[1], vertices[2], vertices[3]));
+        assertEquals(collect(graph.getElementsWithAttributeValueRange(attribute, null, -3.5)), setOf(vertices[0], vertices[5]));
+    }
+
+    @Test
+    public void testStringIndex() {
+        final StoreGraph graph = new StoreGraph();
+        final int attribute = graph.addAttribute(GraphElementType.VERTEX, StringAttributeDescription.ATTRIBUTE_NAME, "identifier", null, null, null);
+        graph.setAttributeIndexType(attribute, GraphIndexType.ORDERED);
+
+        final int alpha = graph.addVertex();
+        graph.setStringValue(attribute, alpha, "alpha");
+        final int bravo = graph.addVertex();
+        graph.setStringValue(attribute, bravo, "bravo");
+        final int charlie = graph.addVertex();
+        graph.setStringValue(attribute, charlie, "charlie");
+        final int delta = graph.addVertex();
+        graph.setStringValue(attribute, delta, "d");
+        final int unset = graph.addVertex();
+
+        assertEquals(collect(graph.getElementsWithAttributeValue(attribute, "bravo")), setOf(bravo));
+        assertEquals(collect(graph.getElementsWithAttributeValue(attribute, null)), setOf(unset));
+        assertEquals(collect(graph.getElementsWithAttributeValueRange(attribute, "b", "d")), setOf(bravo, charlie, delta));
+
+        graph.clearValue(attribute, bravo);
+        assertEquals(graph.getElementsWithAttributeValue(attribute, "bravo").getCount(), 0);
+        assertEquals(collect(graph.getElementsWithAttributeValue(attribute, null)), setOf(bravo, unset));
+    }
+
+    @Test
+    public void testZonedDateTimeIndex() {
+        final StoreGraph graph = new StoreGraph();
+        final int attribute = graph.addAttribute(GraphElementType.VERTEX, ZonedDateTimeAttributeDescription.ATTRIBUTE_NAME, "datetime", null, null, null);
+        graph.setAttributeIndexType(attribute, GraphIndexType.ORDERED);
+
+        final ZonedDateTime start = ZonedDateTime.of(2020, 1, 1, 0, 0, 0, 0, TimeZoneUtilities.UTC);
+        final int[] vertices = new int[10];
+        for (int i = 0; i < vertices.length; i++) {
+            vertices[i] = graph.addVertex();
+            graph.setObjectValue(attribute, vertices[i], start.plusDays(i));
+        }
+
+        assertEquals(collect(graph.getElementsWithAttributeValueRange(attribute, start.plusDays(2), start.plusDays(4))),
+                setOf(vertices[2], vertices[3], vertices[4]));
+        assertEquals(collect(graph.getElementsWithAttributeValue(attribute, start.plusDays(9))), setOf(vertices[9]));
+
+        // The same instant in another zone is the same value, in both the hash and the sorted groups
+        final ZoneId brisbane = ZoneId.of("Australia/Brisbane");
+        final int zoned = graph.addVertex();
+        graph.setObjectValue(attribute, zoned, start.plusDays(3).withZoneSameInstant(brisbane));
+        assertEquals(collect(graph.getElementsWithAttributeValue(attribute, start.plusDays(3))), setOf(vertices[3], zoned));
+        assertEquals(collect(graph.getElementsWithAttributeValue(attribute, start.plusDays(9).withZoneSameInstant(brisbane))), setOf(vertices[9]));
+        assertEquals(collect(graph.getElementsWithAttributeValueRange(attribute,
+                start.plusDays(3).withZoneSameInstant(brisbane), start.plusDays(3))), setOf(vertices[3], zoned));
+    }
+
+    @Test
+    public void testIndexCopy() {
+        final StoreGraph graph = new StoreGraph();
+        final int attribute = graph.addAttribute(GraphElementType.VERTEX, IntegerAttributeDescription.ATTRIBUTE_NAME, "type", null, null, null);
+        graph.setAttributeIndexType(attribute, GraphIndexType.ORDERED);
+        for (int i = 0; i < 10; i++) {
+            graph.setIntValue(attribute, graph.addVertex(), i);
+        }
+
+        final StoreGraph copy = new StoreGraph(graph);
+        assertEquals(copy.getAttributeIndexType(attribute), GraphIndexType.ORDERED);
+        assertEquals(copy.getElementsWithAttributeValueRange(attribute, 2, 5).getCount(), 4);
+    }
+
+    @Test
+    public void testIndexUndoRedo() {
+        final StoreGraph graph = new StoreGraph();
+        final int attribute = graph.addAttribute(GraphElementType.VERTEX, StringAttributeDescription.ATTRIBUTE_NAME, "identifier", null, null, null);
+        graph.setAttributeIndexType(attribute, GraphIndexType.UNORDERED);
+        final int vertex = graph.addVertex();
+        graph.setStringValue(attribute, vertex, "before");
+
+        final UndoGraphEdit edit = new UndoGraphEdit();
+        graph.setGraphEdit(edit);
+        graph.setStringValue(attribute, vertex, "after");
+        final int added = graph.addVertex();
+        graph.setStringValue(attribute, added, "after");
+        graph.setGraphEdit(null);
+        edit.finish();
+
+        assertEquals(graph.getElementsWithAttributeValue(attribute, "before").getCount(), 0);
+        assertEquals(collect(graph.getElementsWithAttributeValue(attribute, "after")), setOf(vertex, added));
+
+        graph.setOperationMode(GraphOperationMode.UNDO);
+        edit.undo(graph);
+        graph.setOperationMode(GraphOperationMode.EXECUTE);
+        assertEquals(collect(graph.getElementsWithAttributeValue(attribute, "before")), setOf(vertex));
+        assertEquals(graph.getElementsWithAttributeValue(attribute, "after").getCount(), 0);
+
+        graph.setOperationMode(GraphOperationMode.REDO);
+        edit.execute(graph);
+        graph.setOperationMode(GraphOperationMode.EXECUTE);
+        assertEquals(graph.getElementsWithAttributeValue(attribute, "before").getCount(), 0);
+        assertEquals(collect(graph.getElementsWithAttributeValue(attribute, "after")), setOf(vertex, added));
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph;
+
+import au.gov.asd.tac.constellation.graph.attribute.BooleanAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.FloatAttributeDescription;
+import au.gov.asd.tac.constellation.graph.locking.GraphOperationMode;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertNull;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Value Changes Test.
+ *
+ * @author sirius
+ */
+public class ValueChangesNGTest {
+
+    private StoreGraph graph;
+    private int selectedAttr;
+    private int xAttr;
+    private int[] vertices;
+
+    public ValueChangesNGTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+    }
+
+    @BeforeMethod
+    public void setUpMethod() throws Exception {
+        graph = new StoreGraph();
+        selectedAttr = graph.addAttribute(GraphElementType.VERTEX, BooleanAttributeDescription.ATTRIBUTE_NAME, "selected", null, false, null);
+        xAttr = graph.addAttribute(GraphElementType.VERTEX, FloatAttributeDescription.ATTRIBUTE_NAME, "x", null, 0.0, null);
+        vertices = new int[10];
+        for (int i = 0; i < vertices.length; i++) {
+            vertices[i] = graph.addVertex();
+        }
+    }
+
+    @AfterMethod
+    public void tearDownMethod() throws Exception {
+    }
+
+    /**
+     * The distinct elements set since a modification count should be
+     * returned in ascending order.
+     */
+    @Test
+    public void testGetValueChanges() {
+        final long selectedCount = graph.getValueModificationCounter(selectedAttr);
+        graph.setBooleanValue(selectedAttr, vertices[7], true);
+        graph.setBooleanValue(selectedAttr, vertices[2], true);
+        final long midCount = graph.getValueModificationCounter(selectedAttr);
+        graph.setBooleanValue(selectedAttr, vertices[7], false);
+        graph.clearValue(selectedAttr, vertices[4]);
+
+        assertEquals(graph.getValueChanges(selectedAttr, selectedCount), new int[]{vertices[2], vertices[4], vertices[7]});
+        assertEquals(graph.getValueChanges(selectedAttr, midCount), new int[]{vertices[4], vertices[7]});
+        assertEquals(graph.getValueChanges(selectedAttr, graph.getValueModificationCounter(selectedAttr)), new int[0]);
+        assertEquals(graph.getValueChanges(xAttr, graph.getValueModificationCounter(xAttr)), new int[0]);
+
+        // A count that the attribute has never had is unknown.
+        assertNull(graph.getValueChanges(selectedAttr, graph.getValueModificationCounter(selectedAttr) + 1));
+    }
+
+    /**
+     * Only a bounded number of changes should be remembered.
+     */
+    @Test
+    public void testGetValueChangesOverflow() {
+        final long xCount = graph.getValueModificationCounter(xAttr);
+        for (int i = 0; i < ValueChangeLog.MAX_CAPACITY + 10; i++) {
+            graph.setFloatValue(xAttr, vertices[i % vertices.length], i);
+        }
+        final long midCount = graph.getValueModificationCounter(xAttr);
+        graph.setFloatValue(xAttr, vertices[3], 0);
+
+        assertNull(graph.getValueChanges(xAttr, xCount));
+        assertEquals(graph.getValueChanges(xAttr, midCount), new int[]{vertices[3]});
+    }
+
+    /**
+     * Changes to the modification count that are not value changes should
+     * make earlier changes unknown.
+     */
+    @Test
+    public void testGetValueChangesAfterOtherModification() {
+        final long selectedCount = graph.getValueModificationCounter(selectedAttr);
+        graph.setBooleanValue(selectedAttr, vertices[1], true);
+        graph.setPrimaryKey(GraphElementType.VERTEX, selectedAttr);
+
+        assertNull(graph.getValueChanges(selectedAttr, selectedCount));
+
+        final long keyCount = graph.getValueModificationCounter(selectedAttr);
+        graph.setBooleanValue(selectedAttr, vertices[5], true);
+        assertEquals(graph.getValueChanges(selectedAttr, keyCount), new int[]{vertices[5]});
+    }
+
+    /**
+     * Once an undo has wound the counter back, a counter reached before the
+     * undo should be unknown even when a later change brings the counter back
+     * to it.
+     */
+    @Test
+    public void testGetValueChangesAfterUndo() {
+        graph.setBooleanValue(selectedAttr, vertices[1], true);
+        final long seenCount = graph.getValueModificationCounter(selectedAttr);
+
+        graph.setOperationMode(GraphOperationMode.UNDO);
+        graph.setBooleanValue(selectedAttr, vertices[1], false);
+        graph.setOperationMode(GraphOperationMode.EXECUTE);
+        graph.setBooleanValue(selectedAttr, vertices[2], true);
+
+        assertEquals(graph.getValueModificationCounter(selectedAttr), seenCount);
+        assertNull(graph.getValueChanges(selectedAttr, seenCount));
+
+        final long laterCount = graph.getValueModificationCounter(selectedAttr) + 1;
+        graph.setBooleanValue(selectedAttr, vertices[3], true);
+        assertEquals(graph.getValueChanges(selectedAttr, laterCount), new int[0]);
+        graph.setBooleanValue(selectedAttr, vertices[4], true);
+        assertEquals(graph.getValueChanges(selectedAttr, laterCount), new int[]{vertices[4]});
+    }
+
+    /**
+     * A copy of a graph should not know about changes made before it was
+     * copied.
+     */
+    @Test
+    public void testGetValueChangesAfterCopy() {
+        final long selectedCount = graph.getValueModificationCounter(selectedAttr);
+        graph.setBooleanValue(selectedAttr, vertices[1], true);
+
+        final StoreGraph copy = new StoreGraph(graph);
+        assertNull(copy.getValueChanges(selectedAttr, selectedCount));
+        assertEquals(copy.getValueChanges(selectedAttr, copy.getValueModificationCounter(selectedAttr)), new int[0]);
+
+        final long copyCount = copy.getValueModificationCounter(selectedAttr);
+        copy.setBooleanValue(selectedAttr, vertices[6], true);
+        assertEquals(copy.getValueChanges(selectedAttr, copyCount), new int[]{vertices[6]});
+    }
+
+    /**
+     * A value generation should change whenever a value is set after the
+     * generation was read, and a graph changed after it was copied should not
+     * share a generation with its copy.
+     */
+    @Test
+    public void testValueGenerations() {
+        final long generation = graph.getValueGeneration(selectedAttr);
+        graph.setBooleanValue(selectedAttr, vertices[0], true);
+        graph.setBooleanValue(selectedAttr, vertices[1], true);
+        final long setGeneration = graph.getValueGeneration(selectedAttr);
+        assertNotEquals(setGeneration, generation);
+
+        graph.setBooleanValue(selectedAttr, vertices[2], true);
+        assertNotEquals(graph.getValueGeneration(selectedAttr), setGeneration);
+
+        graph.setBooleanValue(selectedAttr, vertices[3], true);
+        final StoreGraph copy = new StoreGraph(graph);
+        graph.setBooleanValue(selectedAttr, vertices[4], true);
+        assertNotEquals(graph.getValueGeneration(selectedAttr), copy.getValueGeneration(selectedAttr));
+    }
+}
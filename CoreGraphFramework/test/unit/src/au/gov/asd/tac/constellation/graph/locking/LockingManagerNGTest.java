@@ -0,0 +1,359 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.locking;
+
+import au.gov.asd.tac.constellation.graph.ReadableGraph;
+import au.gov.asd.tac.constellation.graph.WritableGraph;
+import au.gov.asd.tac.constellation.graph.schema.BareSchemaFactory;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.swing.SwingUtilities;
+import javax.swing.undo.UndoManager;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Locking Manager Test.
+ *
+ * @author sirius
+ */
+public class LockingManagerNGTest {
+
+    public LockingManagerNGTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+    }
+
+    @BeforeMethod
+    public void setUpMethod() throws Exception {
+    }
+
+    @AfterMethod
+    public void tearDownMethod() throws Exception {
+    }
+
+    /**
+     * A commit should not wait for a reader of the old copy of the graph, but
+     * the next writer should, and should then see every committed change.
+     *
+     * @throws InterruptedException
+     */
+    @Test(timeOut = 30000)
+    public void testCommitDoesNotWaitForReaders() throws InterruptedException {
+        final DualGraph graph = new DualGraph(new BareSchemaFactory().createSchema());
+
+        final WritableGraph first = graph.getWritableGraph("first", true);
+        first.addVertex();
+        first.commit();
+
+        // hold a read lock on the current read copy in another thread
+        final CountDownLatch reading = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Thread reader = new Thread(() -> {
+            final ReadableGraph rg = graph.getReadableGraph();
+            try {
+                reading.countDown();
+                release.await();
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } finally {
+                rg.release();
+            }
+        });
+        reader.start();
+        assertTrue(reading.await(10, TimeUnit.SECONDS));
+
+        // this commit has to bring the copy being read up to date, but returns without waiting
+        final WritableGraph second = graph.getWritableGraph("second", true);
+        second.addVertex();
+        second.commit();
+
+        final ReadableGraph rg = graph.getReadableGraph();
+        try {
+            assertEquals(rg.getVertexCount(), 2);
+        } finally {
+            rg.release();
+        }
+
+        // the copy for the next writer is still being read for longer than a writer that can't wait will wait
+        assertNull(graph.getWritableGraphNow("third", true));
+
+        release.countDown();
+        reader.join();
+
+        final WritableGraph third = graph.getWritableGraph("third", true);
+        try {
+            assertEquals(third.getVertexCount(), 2);
+            third.addVertex();
+        } finally {
+            third.commit();
+        }
+
+        final ReadableGraph rg2 = graph.getReadableGraph();
+        try {
+            assertEquals(rg2.getVertexCount(), 3);
+        } finally {
+            rg2.release();
+        }
+    }
+
+    /**
+     * A writer that can't wait for the write lock should not wait for the copy
+     * it writes to to catch up with the previous commit either.
+     *
+     * @throws InterruptedException
+     */
+    @Test(timeOut = 30000)
+    public void testWriteNowDoesNotWaitForCatchUp() throws InterruptedException {
+        final DualGraph graph = new DualGraph(new BareSchemaFactory().createSchema());
+
+        // hold a read lock on the current read copy in another thread until told to release it
+        final CountDownLatch reading = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Thread reader = new Thread(() -> {
+            final ReadableGraph rg = graph.getReadableGraph();
+            try {
+                reading.countDown();
+                release.await();
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } finally {
+                rg.release();
+            }
+        });
+        reader.start();
+        assertTrue(reading.await(10, TimeUnit.SECONDS));
+
+        final WritableGraph first = graph.getWritableGraph("first", true);
+        first.addVertex();
+        first.commit();
+
+        // the catch up is waiting for the reader, so the write lock is not available yet
+        assertNull(graph.getWritableGraphNow("second", true));
+
+        release.countDown();
+        reader.join();
+        WritableGraph second = graph.getWritableGraphNow("second", true);
+        while (second == null) {
+            Thread.sleep(10);
+            second = graph.getWritableGraphNow("second", true);
+        }
+        try {
+            assertEquals(second.getVertexCount(), 1);
+            second.addVertex();
+        } finally {
+            second.commit();
+        }
+    }
+
+    /**
+     * The spill file should be deleted once the edits spilled to it have been
+     * discarded from the undo history.
+     *
+     * @throws Exception
+     */
+    @Test(timeOut = 30000)
+    public void testSpillFileDeletedWithHistory() throws Exception {
+        final DualGraph graph = new DualGraph(new BareSchemaFactory().createSchema());
+        final UndoManager undoManager = new UndoManager();
+        graph.setUndoManager(undoManager);
+        graph.setUndoMemoryBudget(1);
+
+        for (int i = 0; i < 3; i++) {
+            final WritableGraph wg = graph.getWritableGraph("Add Vertex", true);
+            try {
+                wg.addVertex();
+            } finally {
+                wg.commit();
+            }
+        }
+
+        // the next writer waits for the last catch up, which spills the older edits
+        graph.getWritableGraph("Nothing", true).rollBack();
+        assertTrue(graph.getLockingManager().getSpilledBytes() > 0);
+
+        SwingUtilities.invokeAndWait(undoManager::discardAllEdits);
+        assertEquals(graph.getLockingManager().getSpilledBytes(), 0);
+
+        // a new file is created for edits spilled afterwards
+        for (int i = 0; i < 3; i++) {
+            final WritableGraph wg = graph.getWritableGraph("Add Vertex", true);
+            try {
+                wg.addVertex();
+            } finally {
+                wg.commit();
+            }
+        }
+        graph.getWritableGraph("Nothing", true).rollBack();
+        assertTrue(graph.getLockingManager().getSpilledBytes() > 0);
+    }
+
+    /**
+     * Turning off undo recording while writing should only apply to that edit,
+     * which clears the undo history, and the edits after it should be recorded
+     * as usual.
+     *
+     * @throws Exception
+     */
+    @Test(timeOut = 30000)
+    public void testUndoRecordingOffForOneEdit() throws Exception {
+        final DualGraph graph = new DualGraph(new BareSchemaFactory().createSchema());
+        final UndoManager undoManager = new UndoManager();
+        graph.setUndoManager(undoManager);
+
+        WritableGraph wg = graph.getWritableGraph("Recorded", true);
+        try {
+            wg.addVertex();
+        } finally {
+            wg.commit();
+        }
+        SwingUtilities.invokeAndWait(() -> assertTrue(undoManager.canUndo()));
+
+        wg = graph.getWritableGraph("Bulk Load", true);
+        try {
+            graph.setUndoRecording(false);
+            wg.addVertex();
+        } finally {
+            wg.commit();
+        }
+        SwingUtilities.invokeAndWait(() -> assertFalse(undoManager.canUndo()));
+
+        wg = graph.getWritableGraph("Also Recorded", true);
+        try {
+            wg.addVertex();
+        } finally {
+            wg.commit();
+        }
+        SwingUtilities.invokeAndWait(() -> assertEquals(undoManager.getUndoPresentationName(), "Undo Also Recorded"));
+    }
+
+    /**
+     * Waits for and holds on the read and write locks should be recorded, and
+     * the current holders reported, for each graph in the lock monitor.
+     *
+     * @throws Exception
+     */
+    @Test(timeOut = 30000)
+    public void testStatistics() throws Exception {
+        final DualGraph graph = new DualGraph(new BareSchemaFactory().createSchema());
+        final LockStatistics statistics = GraphLockMonitor.getDefault().getGraphs().stream()
+                .filter(graphStatistics -> graph.getId().equals(graphStatistics.getGraphId()))
+                .findFirst().orElseThrow();
+        final CompositeData[] graphs = (CompositeData[]) ManagementFactory.getPlatformMBeanServer()
+                .getAttribute(new ObjectName(GraphLockMonitor.OBJECT_NAME), "Graphs");
+        assertTrue(graphs.length > 0);
+
+        final ReadableGraph rg = graph.getReadableGraph();
+        try {
+            // nested reads count as a single hold
+            graph.getReadableGraph().release();
+            assertEquals(statistics.getReadHolders().size(), 1);
+            assertTrue(statistics.getReadHolders().get(0).startsWith(Thread.currentThread().getName()));
+            Thread.sleep(20);
+        } finally {
+            rg.release();
+        }
+        assertTrue(statistics.getReadHolders().isEmpty());
+        assertEquals(statistics.getReadWait().getCount(), 1);
+        assertEquals(statistics.getReadHold().getCount(), 1);
+        assertTrue(statistics.getReadHold().getMaxMillis() >= 20);
+        assertTrue(statistics.getReadHold().getPercentile99Millis() >= statistics.getReadHold().getMedianMillis());
+
+        final WritableGraph wg = graph.getWritableGraph("Add Vertex", true);
+        try {
+            assertTrue(statistics.getWriteHolder().startsWith("Add Vertex"));
+            wg.addVertex();
+        } finally {
+            wg.commit();
+        }
+        assertNull(statistics.getWriteHolder());
+        graph.getWritableGraph("Nothing", true).rollBack();
+        assertEquals(statistics.getWriteWait().getCount(), 2);
+        assertEquals(statistics.getWriteHold().getCount(), 2);
+        assertEquals(statistics.getCatchUpWait().getCount(), 1);
+        assertEquals(statistics.getReplay().getCount(), 1);
+
+        GraphLockMonitor.getDefault().reset();
+        assertEquals(statistics.getWriteHold().getCount(), 0);
+    }
+
+    /**
+     * A lock held for too long should be reported once while it is still
+     * held, along with the stack of the thread holding it.
+     */
+    @Test
+    public void testLongHoldReported() {
+        final DualGraph graph = new DualGraph(new BareSchemaFactory().createSchema());
+        final LockStatistics statistics = graph.getLockingManager().getStatistics();
+        final List<LogRecord> records = new ArrayList<>();
+        final Handler handler = new Handler() {
+            @Override
+            public void publish(final LogRecord logRecord) {
+                records.add(logRecord);
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        final Logger logger = Logger.getLogger(LockStatistics.class.getName());
+        logger.addHandler(handler);
+        try {
+            final ReadableGraph rg = graph.getReadableGraph();
+            try {
+                statistics.reportLongHolds(0);
+                statistics.reportLongHolds(0);
+            } finally {
+                rg.release();
+            }
+            statistics.reportLongHolds(0);
+
+            assertEquals(records.size(), 1);
+            assertEquals(records.get(0).getLevel(), Level.WARNING);
+            assertTrue(Arrays.stream(records.get(0).getThrown().getStackTrace())
+                    .anyMatch(element -> element.getMethodName().equals("testLongHoldReported")));
+        } finally {
+            logger.removeHandler(handler);
+        }
+    }
+}
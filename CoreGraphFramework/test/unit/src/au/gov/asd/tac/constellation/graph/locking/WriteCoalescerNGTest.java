@@ -0,0 +1,131 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.locking;
+
+import au.gov.asd.tac.constellation.graph.ReadableGraph;
+import au.gov.asd.tac.constellation.graph.WritableGraph;
+import au.gov.asd.tac.constellation.graph.schema.BareSchemaFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Write Coalescer Test.
+ *
+ * @author sirius
+ */
+public class WriteCoalescerNGTest {
+
+    public WriteCoalescerNGTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+    }
+
+    @BeforeMethod
+    public void setUpMethod() throws Exception {
+    }
+
+    @AfterMethod
+    public void tearDownMethod() throws Exception {
+    }
+
+    /**
+     * A burst of writes should be applied in order in a single write lock, and
+     * a write that fails should be rolled back without losing the others.
+     *
+     * @throws Exception
+     */
+    @Test(timeOut = 30000)
+    public void testCoalesce() throws Exception {
+        final DualGraph graph = new DualGraph(new BareSchemaFactory().createSchema());
+        final LockStatistics statistics = GraphLockMonitor.getDefault().getGraphs().stream()
+                .filter(graphStatistics -> graph.getId().equals(graphStatistics.getGraphId()))
+                .findFirst().orElseThrow();
+        final WriteCoalescer coalescer = new WriteCoalescer(graph, 500);
+
+        final List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            final boolean failing = i == 50;
+            futures.add(coalescer.submit("Add Vertex", true, null, wg -> {
+                wg.addVertex();
+                if (failing) {
+                    throw new IllegalStateException("failing write");
+                }
+                return null;
+            }));
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            if (i == 50) {
+                try {
+                    futures.get(i).get(10, TimeUnit.SECONDS);
+                    fail("the failing write should complete exceptionally");
+                } catch (final ExecutionException ex) {
+                    assertTrue(ex.getCause() instanceof IllegalStateException);
+                }
+            } else {
+                futures.get(i).get(10, TimeUnit.SECONDS);
+            }
+        }
+
+        final ReadableGraph rg = graph.getReadableGraph();
+        try {
+            assertEquals(rg.getVertexCount(), 99);
+        } finally {
+            rg.release();
+        }
+        assertEquals(statistics.getWriteHold().getCount(), 1);
+
+        // the writes after the failing one should also have been replayed onto the other copy of the graph
+        final WritableGraph next = graph.getWritableGraph("Add Vertex", true);
+        try {
+            next.addVertex();
+        } finally {
+            next.commit();
+        }
+        final ReadableGraph copy = graph.getReadableGraph();
+        try {
+            assertEquals(copy.getVertexCount(), 100);
+        } finally {
+            copy.release();
+        }
+
+        // writes with different names are still applied together, in order
+        final long writeHolds = statistics.getWriteHold().getCount();
+        final StringBuilder order = new StringBuilder();
+        final CompletableFuture<Void> first = coalescer.submit("First", true, null, wg -> order.append('a'));
+        final CompletableFuture<Void> second = coalescer.submit("Second", false, null, wg -> order.append('b'));
+        final CompletableFuture<Void> third = coalescer.submit("First", true, null, wg -> order.append('c'));
+        CompletableFuture.allOf(first, second, third).get(10, TimeUnit.SECONDS);
+        assertEquals(order.toString(), "abc");
+        assertEquals(statistics.getWriteHold().getCount(), writeHolds + 1);
+    }
+}
@@ -0,0 +1,355 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.processing;
+
+import au.gov.asd.tac.constellation.graph.GraphElementType;
+import au.gov.asd.tac.constellation.graph.StoreGraph;
+import au.gov.asd.tac.constellation.graph.attribute.DoubleAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.IntegerAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.LongAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.StringAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.ZonedDateTimeAttributeDescription;
+import au.gov.asd.tac.constellation.graph.processing.ColumnarRecordStore.ColumnType;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Columnar RecordStore Test.
+ *
+ * @author sirius
+ */
+public class ColumnarRecordStoreNGTest {
+
+    ColumnarRecordStore instance = null;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+    }
+
+    @BeforeMethod
+    public void setUpMethod() throws Exception {
+        instance = new ColumnarRecordStore();
+        instance.add();
+        instance.set("name", "alpha");
+        instance.setInt("count", 1);
+        instance.setDouble("score", 0.5);
+        instance.add();
+        instance.set("name", "beta");
+        instance.setInt("count", 2);
+        instance.setBoolean("flag", true);
+    }
+
+    @AfterMethod
+    public void tearDownMethod() throws Exception {
+    }
+
+    /**
+     * Test of typed getters and setters, of class ColumnarRecordStore.
+     */
+    @Test
+    public void testTypedValues() {
+        assertEquals(instance.size(), 2);
+        assertEquals(instance.keys(), Arrays.asList("name", "count", "score", "flag"));
+        assertEquals(instance.getColumnType("name"), ColumnType.STRING);
+        assertEquals(instance.getColumnType("count"), ColumnType.INTEGER);
+        assertEquals(instance.getColumnType("score"), ColumnType.DOUBLE);
+        assertEquals(instance.getColumnType("flag"), ColumnType.BOOLEAN);
+        assertNull(instance.getColumnType("missing"));
+
+        assertEquals(instance.getInt(0, "count"), 1);
+        assertEquals(instance.getInt(1, "count"), 2);
+        assertEquals(instance.getDouble(0, "score"), 0.5);
+        assertEquals(instance.getDouble(1, "score"), 0.0);
+        assertTrue(instance.getBoolean(1, "flag"));
+        assertFalse(instance.getBoolean(0, "flag"));
+
+        assertTrue(instance.hasValue(0, "score"));
+        assertFalse(instance.hasValue(1, "score"));
+        assertTrue(instance.isNull(1, "score"));
+    }
+
+    /**
+     * Test of get and set with Strings, of class ColumnarRecordStore.
+     */
+    @Test
+    public void testStringValues() {
+        assertEquals(instance.get(0, "count"), "1");
+        assertEquals(instance.get(0, "score"), "0.5");
+        assertEquals(instance.get(1, "flag"), "true");
+        assertNull(instance.get(1, "score"));
+        assertEquals(instance.values(0), Arrays.asList("alpha", "1", "0.5", null));
+        assertEquals(instance.getAll("name"), Arrays.asList("alpha", "beta"));
+
+        // A String that is exactly an integer keeps the column typed.
+        instance.set(0, "count", "42");
+        assertEquals(instance.getColumnType("count"), ColumnType.INTEGER);
+        assertEquals(instance.getInt(0, "count"), 42);
+
+        // Any other String converts the column without losing values.
+        instance.set(0, "count", "many");
+        assertEquals(instance.getColumnType("count"), ColumnType.STRING);
+        assertEquals(instance.get(0, "count"), "many");
+        assertEquals(instance.get(1, "count"), "2");
+        assertEquals(instance.getInt(1, "count"), 2);
+    }
+
+    /**
+     * Test of set with Objects, of class ColumnarRecordStore.
+     */
+    @Test
+    public void testObjectValues() {
+        final ColumnarRecordStore store = new ColumnarRecordStore();
+        store.add();
+        store.set("int", (Object) 3);
+        store.set("long", (Object) 4L);
+        store.set("double", (Object) 1.5F);
+        store.set("boolean", (Object) Boolean.FALSE);
+        store.set("datetime", (Object) Instant.ofEpochMilli(1000));
+        store.set("other", (Object) new StringBuilder("text"));
+
+        assertEquals(store.getColumnType("int"), ColumnType.INTEGER);
+        assertEquals(store.getColumnType("long"), ColumnType.LONG);
+        assertEquals(store.getColumnType("double"), ColumnType.DOUBLE);
+        assertEquals(store.getColumnType("boolean"), ColumnType.BOOLEAN);
+        assertEquals(store.getColumnType("datetime"), ColumnType.DATETIME);
+        assertEquals(store.getColumnType("other"), ColumnType.STRING);
+        assertEquals(store.get("datetime"), "1970-01-01 00:00:01.000 +00:00 [UTC]");
+        assertEquals(store.get("other"), "text");
+    }
+
+    /**
+     * Test of mixed types in a column, of class ColumnarRecordStore.
+     */
+    @Test
+    public void testMixedTypes() {
+        instance.setLong(0, "big", 5L);
+        instance.setInt(1, "big", 6);
+        assertEquals(instance.getColumnType("big"), ColumnType.LONG);
+        assertEquals(instance.getLong(1, "big"), 6L);
+
+        instance.setDouble(1, "count", 2.5);
+        assertEquals(instance.getColumnType("count"), ColumnType.STRING);
+        assertEquals(instance.get(0, "count"), "1");
+        assertEquals(instance.get(1, "count"), "2.5");
+    }
+
+    /**
+     * Test that setting a long value in an integer column widens the column
+     * instead of converting it to strings, of class ColumnarRecordStore.
+     */
+    @Test
+    public void testWidenToLong() {
+        instance.setLong(1, "count", 5000000000L);
+        assertEquals(instance.getColumnType("count"), ColumnType.LONG);
+        assertEquals(instance.getLong(0, "count"), 1L);
+        assertEquals(instance.getLong(1, "count"), 5000000000L);
+
+        instance.setInt(0, "count", 3);
+        assertEquals(instance.getColumnType("count"), ColumnType.LONG);
+        assertEquals(instance.get(0, "count"), "3");
+
+        instance.setInt(0, "total", 4);
+        instance.set(1, "total", "-5000000000");
+        assertEquals(instance.getColumnType("total"), ColumnType.LONG);
+        assertEquals(instance.getLong(0, "total"), 4L);
+        assertEquals(instance.getLong(1, "total"), -5000000000L);
+
+        instance.set(1, "total", "lots");
+        assertEquals(instance.getColumnType("total"), ColumnType.STRING);
+        assertEquals(instance.get(0, "total"), "4");
+    }
+
+    /**
+     * Test of datetimes, of class ColumnarRecordStore.
+    @Test
+    public void testDateTime() {
+        instance.setDateTime(0, "when", 1600000000123L);
+        final String value = instance.get(0, "when");
+        assertEquals(value, "2020-09-13 12:26:40.123 +00:00 [UTC]");
+
+        instance.set(1, "when", value);
+        assertEquals(instance.getColumnType("when"), ColumnType.DATETIME);
+        assertEquals(instance.getDateTime(1, "when"), 1600000000123L);
+
+        instance.set(1, "when", "2020-09-13 22:26:40.123 +10:00 [Australia/Brisbane]");
+        assertEquals(instance.getColumnType("when"), ColumnType.STRING);
+        assertEquals(instance.getDateTime(1, "when"), 1600000000123L);
+    }
+
+    /**
+     * Test of null values, of class ColumnarRecordStore.
+     */
+    @Test
+    public void testNullValues() {
+        instance.set(0, "count", (String) null);
+        assertEquals(instance.getColumnType("count"), ColumnType.INTEGER);
+        assertTrue(instance.hasValue(0, "count"));
+        assertTrue(instance.isNull(0, "count"));
+        assertNull(instance.get(0, "count"));
+        assertEquals(instance.getInt(0, "count"), 0);
+    }
+
+    /**
+     * Test of iteration, of class ColumnarRecordStore.
+     */
+    @Test
+    public void testIteration() {
+        instance.reset();
+        assertEquals(instance.index(), -1);
+        assertTrue(instance.next());
+        assertEquals(instance.get("name"), "alpha");
+        assertTrue(instance.next());
+        assertEquals(instance.getInt("count"), 2);
+        assertFalse(instance.next());
+    }
+
+    /**
+     * Test that capacity grows as records are added, of class
+     * ColumnarRecordStore.
+     */
+    @Test
+    public void testGrowth() {
+        final ColumnarRecordStore store = new ColumnarRecordStore();
+        for (int i = 0; i < 10000; i++) {
+            store.add();
+            store.setInt("value", i);
+            store.set("label", "label" + (i % 10));
+        }
+        assertEquals(store.size(), 10000);
+        assertEquals(store.getInt(9999, "value"), 9999);
+        assertEquals(store.get(9999, "label"), "label9");
+    }
+
+    /**
+     * Test of add method, of class ColumnarRecordStore.
+     */
+    @Test
+    public void testAdd() {
+        final ColumnarRecordStore store = new ColumnarRecordStore();
+        store.add(instance);
+        assertEquals(store.size(), 2);
+        assertEquals(store.getColumnType("count"), ColumnType.INTEGER);
+        assertEquals(store.getInt(1, "count"), 2);
+        assertFalse(store.hasValue(1, "score"));
+
+        final TabularRecordStore tabular = new TabularRecordStore();
+        tabular.add();
+        tabular.set("name", "gamma");
+        store.add(tabular);
+        assertEquals(store.size(), 3);
+        assertEquals(store.get(2, "name"), "gamma");
+    }
+
+    /**
+     * Test that typed columns are written to the graph with their native
+     * types by GraphRecordStoreUtilities.addRecordStoreToGraph.
+     */
+    @Test
+    public void testAddRecordStoreToGraph() {
+        final ColumnarRecordStore store = new ColumnarRecordStore();
+        store.add();
+        store.set(GraphRecordStoreUtilities.SOURCE + GraphRecordStoreUtilities.ID, "a");
+        store.setInt(GraphRecordStoreUtilities.SOURCE + "Count", 7);
+        store.set(GraphRecordStoreUtilities.DESTINATION + GraphRecordStoreUtilities.ID, "b");
+        store.setDouble(GraphRecordStoreUtilities.TRANSACTION + "Weight", 2.5);
+        store.setDateTime(GraphRecordStoreUtilities.TRANSACTION + "When", 1000L);
+        store.add();
+        store.set(GraphRecordStoreUtilities.SOURCE + GraphRecordStoreUtilities.ID, "a");
+        store.setInt(GraphRecordStoreUtilities.SOURCE + "Count", 8);
+
+        // A record with only typed values still creates a vertex.
+        store.add();
+        store.setInt(GraphRecordStoreUtilities.DESTINATION + "Count", 9);
+
+        final StoreGraph graph = new StoreGraph();
+        final List<Integer> vertices = GraphRecordStoreUtilities.addRecordStoreToGraph(graph, store, false, false, null);
+        assertEquals(vertices.size(), 3);
+        assertEquals(graph.getVertexCount(), 3);
+        assertEquals(graph.getTransactionCount(), 1);
+
+        final int countAttribute = graph.getAttribute(GraphElementType.VERTEX, "Count");
+        final int weightAttribute = graph.getAttribute(GraphElementType.TRANSACTION, "Weight");
+        final int whenAttribute = graph.getAttribute(GraphElementType.TRANSACTION, "When");
+        assertEquals(graph.getAttributeType(countAttribute), IntegerAttributeDescription.ATTRIBUTE_NAME);
+        assertEquals(graph.getAttributeType(weightAttribute), DoubleAttributeDescription.ATTRIBUTE_NAME);
+        assertEquals(graph.getAttributeType(whenAttribute), ZonedDateTimeAttributeDescription.ATTRIBUTE_NAME);
+
+        assertEquals(graph.getIntValue(countAttribute, vertices.get(0)), 8);
+        assertEquals(graph.getIntValue(countAttribute, vertices.get(2)), 9);
+        final int transaction = graph.getTransaction(0);
+        assertEquals(graph.getDoubleValue(weightAttribute, transaction), 2.5);
+        assertEquals(graph.getLongValue(whenAttribute, transaction), 1000L);
+    }
+
+    /**
+     * Test that a column given both integer and long values is written to the
+     * graph as a long attribute by GraphRecordStoreUtilities.addRecordStoreToGraph.
+     */
+    @Test
+    public void testAddRecordStoreToGraphMixedSetters() {
+        final ColumnarRecordStore store = new ColumnarRecordStore();
+        store.add();
+        store.set(GraphRecordStoreUtilities.SOURCE + GraphRecordStoreUtilities.ID, "a");
+        store.setInt(GraphRecordStoreUtilities.SOURCE + "Size", 7);
+        store.add();
+        store.set(GraphRecordStoreUtilities.SOURCE + GraphRecordStoreUtilities.ID, "b");
+        store.setLong(GraphRecordStoreUtilities.SOURCE + "Size", 5000000000L);
+
+        final StoreGraph graph = new StoreGraph();
+        final List<Integer> vertices = GraphRecordStoreUtilities.addRecordStoreToGraph(graph, store, false, false, null);
+        final int sizeAttribute = graph.getAttribute(GraphElementType.VERTEX, "Size");
+        assertEquals(graph.getAttributeType(sizeAttribute), LongAttributeDescription.ATTRIBUTE_NAME);
+        assertEquals(graph.getLongValue(sizeAttribute, vertices.get(0)), 7L);
+        assertEquals(graph.getLongValue(sizeAttribute, vertices.get(1)), 5000000000L);
+    }
+
+    /**
+     * Test that typed columns written to existing attributes of a different
+     * type are converted in the same way as String values.
+     */
+    @Test
+    public void testAddRecordStoreToGraphExistingAttributes() {
+        final StoreGraph graph = new StoreGraph();
+        final int whenAttribute = graph.addAttribute(GraphElementType.TRANSACTION, StringAttributeDescription.ATTRIBUTE_NAME, "When", null, null, null);
+        final int countAttribute = graph.addAttribute(GraphElementType.VERTEX, DoubleAttributeDescription.ATTRIBUTE_NAME, "Count", null, null, null);
+
+        final ColumnarRecordStore store = new ColumnarRecordStore();
+        store.add();
+        store.set(GraphRecordStoreUtilities.SOURCE + GraphRecordStoreUtilities.ID, "a");
+        store.setInt(GraphRecordStoreUtilities.SOURCE + "Count", 7);
+        store.set(GraphRecordStoreUtilities.DESTINATION + GraphRecordStoreUtilities.ID, "b");
+        store.setDateTime(GraphRecordStoreUtilities.TRANSACTION + "When", 1600000000123L);
+
+        final List<Integer> vertices = GraphRecordStoreUtilities.addRecordStoreToGraph(graph, store, false, false, null);
+        assertEquals(graph.getAttributeType(whenAttribute), StringAttributeDescription.ATTRIBUTE_NAME);
+        assertEquals(graph.getStringValue(whenAttribute, graph.getTransaction(0)), "2020-09-13 12:26:40.123 +00:00 [UTC]");
+        assertEquals(graph.getDoubleValue(countAttribute, vertices.get(0)), 7.0);
+    }
+}
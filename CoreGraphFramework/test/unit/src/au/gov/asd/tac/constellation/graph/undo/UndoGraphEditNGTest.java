@@ -0,0 +1,126 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.undo;
+
+import au.gov.asd.tac.constellation.graph.GraphElementType;
+import au.gov.asd.tac.constellation.graph.StoreGraph;
+import au.gov.asd.tac.constellation.graph.attribute.IntegerAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.LongAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.StringAttributeDescription;
+import java.io.IOException;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Undo Graph Edit Test.
+ *
+ * @author sirius
+ */
+public class UndoGraphEditNGTest {
+
+    public UndoGraphEditNGTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+    }
+
+    @BeforeMethod
+    public void setUpMethod() throws Exception {
+    }
+
+    @AfterMethod
+    public void tearDownMethod() throws Exception {
+    }
+
+    /**
+     * An edit that has been spilled to disk should still execute and undo,
+     * and should not hold its primitive state in memory afterwards.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testSpill() throws IOException {
+        final StoreGraph original = createGraph();
+        final StoreGraph copy = createGraph();
+
+        final UndoGraphEdit child = new UndoGraphEdit();
+        original.setGraphEdit(child);
+        final int first = original.addVertex();
+        original.setGraphEdit(null);
+        child.finish();
+
+        final UndoGraphEdit edit = new UndoGraphEdit();
+        edit.addChild(child);
+        original.setGraphEdit(edit);
+        final int intAttribute = original.getAttribute(GraphElementType.VERTEX, "int");
+        final int longAttribute = original.getAttribute(GraphElementType.VERTEX, "long");
+        final int nameAttribute = original.getAttribute(GraphElementType.VERTEX, "name");
+        int previous = first;
+        for (int i = 0; i < 1000; i++) {
+            final int vertex = original.addVertex();
+            original.setIntValue(intAttribute, vertex, i * 7);
+            original.setLongValue(longAttribute, vertex, i * 100000000000L);
+            original.setStringValue(nameAttribute, vertex, "vertex " + (i % 10));
+            original.addTransaction(previous, vertex, i % 2 == 0);
+            previous = vertex;
+        }
+        original.setGraphEdit(null);
+        edit.finish();
+
+        assertTrue(edit.getPrimitiveSize() > 0);
+        try (final UndoSpillFile file = new UndoSpillFile()) {
+            edit.spill(file);
+            assertEquals(edit.getPrimitiveSize(), 0L);
+            assertTrue(file.getSize() > 0);
+
+            edit.execute(copy);
+            assertEquals(edit.getPrimitiveSize(), 0L);
+            assertEquals(copy.getVertexCount(), 1001);
+            assertEquals(copy.getTransactionCount(), 1000);
+            for (int position = 0; position < original.getVertexCount(); position++) {
+                final int vertex = original.getVertex(position);
+                assertEquals(copy.getIntValue(intAttribute, vertex), original.getIntValue(intAttribute, vertex));
+                assertEquals(copy.getLongValue(longAttribute, vertex), original.getLongValue(longAttribute, vertex));
+                assertEquals(copy.getStringValue(nameAttribute, vertex), original.getStringValue(nameAttribute, vertex));
+            }
+
+            edit.undo(original);
+            edit.undo(copy);
+            assertEquals(edit.getPrimitiveSize(), 0L);
+            assertEquals(original.getVertexCount(), 0);
+            assertEquals(copy.getVertexCount(), 0);
+            assertEquals(original.getTransactionCount(), 0);
+        }
+    }
+
+    private static StoreGraph createGraph() {
+        final StoreGraph graph = new StoreGraph();
+        graph.addAttribute(GraphElementType.VERTEX, IntegerAttributeDescription.ATTRIBUTE_NAME, "int", "int", 0, null);
+        graph.addAttribute(GraphElementType.VERTEX, LongAttributeDescription.ATTRIBUTE_NAME, "long", "long", 0L, null);
+        graph.addAttribute(GraphElementType.VERTEX, StringAttributeDescription.ATTRIBUTE_NAME, "name", "name", null, null);
+        return graph;
+    }
+}
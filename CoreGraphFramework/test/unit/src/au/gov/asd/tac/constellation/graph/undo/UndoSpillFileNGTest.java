@@ -0,0 +1,96 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.undo;
+
+import java.util.Random;
+import static org.testng.Assert.assertEquals;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Undo Spill File Test.
+ *
+ * @author sirius
+ */
+public class UndoSpillFileNGTest {
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+    }
+
+    @BeforeMethod
+    public void setUpMethod() throws Exception {
+    }
+
+    @AfterMethod
+    public void tearDownMethod() throws Exception {
+    }
+
+    /**
+     * Arrays larger than the transfer buffer should be read back exactly as
+     * they were written, from consecutive positions in a region.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testWriteAndRead() throws Exception {
+        final Random random = new Random(1);
+        final long[] longs = new long[100000];
+        for (int i = 0; i < longs.length; i++) {
+            longs[i] = random.nextLong();
+        }
+        final short[] shorts = new short[3];
+        for (int i = 0; i < shorts.length; i++) {
+            shorts[i] = (short) random.nextInt();
+        }
+        final byte[] bytes = new byte[300000];
+        random.nextBytes(bytes);
+
+        try (final UndoSpillFile file = new UndoSpillFile()) {
+            final long length = (longs.length * 8L) + (shorts.length * 2L) + bytes.length;
+            final long first = file.allocate(1);
+            final long position = file.allocate(length);
+            assertEquals(position, 8L);
+            assertEquals(file.getSize(), 8L + ((length + 7) & ~7L));
+
+            long next = file.write(position, longs, longs.length);
+            next = file.write(next, shorts, shorts.length);
+            assertEquals(file.write(next, bytes, bytes.length), position + length);
+            file.write(first, new byte[]{42}, 1);
+
+            final long[] readLongs = new long[longs.length];
+            next = file.read(position, readLongs);
+            final short[] readShorts = new short[shorts.length];
+            next = file.read(next, readShorts);
+            final byte[] readBytes = new byte[bytes.length];
+            assertEquals(file.read(next, readBytes), position + length);
+            final byte[] readFirst = new byte[1];
+            file.read(first, readFirst);
+
+            assertEquals(readLongs, longs);
+            assertEquals(readShorts, shorts);
+            assertEquals(readBytes, bytes);
+            assertEquals(readFirst[0], 42);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.utilities;
+
+import au.gov.asd.tac.constellation.graph.GraphElementType;
+import au.gov.asd.tac.constellation.graph.ReadableGraph;
+import au.gov.asd.tac.constellation.graph.StoreGraph;
+import au.gov.asd.tac.constellation.graph.WritableGraph;
+import au.gov.asd.tac.constellation.graph.attribute.IntegerAttributeDescription;
+import au.gov.asd.tac.constellation.graph.locking.DualGraph;
+import au.gov.asd.tac.constellation.graph.schema.BareSchemaFactory;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Graph Topology Test.
+ *
+ * @author sirius
+ */
+public class GraphTopologyNGTest {
+
+    private StoreGraph graph;
+    private int vxA;
+    private int vxB;
+    private int vxC;
+    private int vxD;
+
+    public GraphTopologyNGTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+    }
+
+    @BeforeMethod
+    public void setUpMethod() throws Exception {
+        graph = new StoreGraph();
+        vxA = graph.addVertex();
+        vxB = graph.addVertex();
+        vxC = graph.addVertex();
+        vxD = graph.addVertex();
+
+        // A -> B twice, B -> A once, B - C undirected, C -> A, a loop on D
+        graph.addTransaction(vxA, vxB, true);
+        graph.addTransaction(vxA, vxB, true);
+        graph.addTransaction(vxB, vxA, true);
+        graph.addTransaction(vxB, vxC, false);
+        graph.addTransaction(vxC, vxA, true);
+        graph.addTransaction(vxD, vxD, true);
+    }
+
+    @AfterMethod
+    public void tearDownMethod() throws Exception {
+    }
+
+    /**
+     * Vertex ids and positions should match those of the graph.
+     */
+    @Test
+    public void testVertices() {
+        graph.removeVertex(vxB);
+        final GraphTopology topology = GraphTopology.build(graph);
+
+        assertEquals(topology.getVertexCount(), 3);
+        for (int position = 0; position < graph.getVertexCount(); position++) {
+            assertEquals(topology.getVertexId(position), graph.getVertex(position));
+            assertEquals(topology.getVertexPosition(graph.getVertex(position)), position);
+        }
+        assertEquals(topology.getVertexPosition(vxB), -1);
+        assertEquals(topology.getVertexPosition(1000), -1);
+    }
+
+    /**
+     * Each view should only include the requested transactions, weighted by
+     * the number of transactions.
+     */
+    @Test
+    public void testAdjacency() {
+        final GraphTopology topology = GraphTopology.build(graph);
+        final int a = topology.getVertexPosition(vxA);
+        final int b = topology.getVertexPosition(vxB);
+        final int c = topology.getVertexPosition(vxC);
+        final int d = topology.getVertexPosition(vxD);
+
+        final GraphTopology.Adjacency neighbours = topology.getNeighbours();
+        assertEquals(neighbours.getDegree(a), 2);
+        assertEquals(neighbours.getDegree(d), 0);
+        assertEquals(neighbours.getWeightedDegree(a), 4.0F);
+        assertEquals(neighbours.getWeightedDegree(b), 4.0F);
+        assertEquals(neighbours.getEntryCount(), 6);
+
+        final GraphTopology.Adjacency outgoing = topology.getAdjacency(false, true, false);
+        assertEquals(getWeight(outgoing, a, b), 2.0F);
+        assertEquals(getWeight(outgoing, b, a), 1.0F);
+        assertEquals(getWeight(outgoing, b, c), 0.0F);
+        assertEquals(getWeight(outgoing, c, a), 1.0F);
+        assertEquals(outgoing.getDegree(a), 1);
+
+        final GraphTopology.Adjacency incoming = topology.getAdjacency(true, false, true);
+        assertEquals(getWeight(incoming, a, b), 1.0F);
+        assertEquals(getWeight(incoming, a, c), 1.0F);
+        assertEquals(getWeight(incoming, b, a), 2.0F);
+        assertEquals(getWeight(incoming, b, c), 1.0F);
+        assertEquals(getWeight(incoming, c, b), 1.0F);
+        assertEquals(incoming.getDegree(c), 1);
+
+        assertSame(topology.getAdjacency(true, false, true), incoming);
+    }
+
+    /**
+     * Cached snapshots should be reused until the structure of the graph
+     * changes.
+     */
+    @Test
+    public void testOf() {
+        final GraphTopology topology = GraphTopology.of(graph);
+        assertTrue(topology.isCurrent(graph));
+        assertSame(GraphTopology.of(graph), topology);
+
+        graph.addTransaction(vxC, vxD, true);
+        assertFalse(topology.isCurrent(graph));
+        final GraphTopology updated = GraphTopology.of(graph);
+        assertNotSame(updated, topology);
+        assertEquals(updated.getAdjacency(false, true, false).getDegree(updated.getVertexPosition(vxC)), 2);
+
+        assertFalse(topology.isCurrent(new StoreGraph()));
+    }
+
+    /**
+     * A copy of the graph that is changed independently should not share a
+     * snapshot with the original, even when it has the same id and counters.
+     */
+    @Test
+    public void testIndependentCopy() {
+        final StoreGraph copy = new StoreGraph(graph);
+        final GraphTopology topology = GraphTopology.of(graph);
+        assertTrue(topology.isCurrent(copy));
+
+        graph.addTransaction(vxC, vxD, true);
+        copy.addTransaction(vxA, vxD, true);
+        assertEquals(copy.getId(), graph.getId());
+        assertEquals(copy.getStructureModificationCounter(), graph.getStructureModificationCounter());
+
+        final GraphTopology updated = GraphTopology.of(graph);
+        assertFalse(updated.isCurrent(copy));
+        final GraphTopology copied = GraphTopology.of(copy);
+        assertNotSame(copied, updated);
+        assertEquals(copied.getAdjacency(false, true, false).getDegree(copied.getVertexPosition(vxA)), 2);
+    }
+
+    /**
+     * Both copies of a dual graph should share a snapshot until the structure
+     * of the graph changes.
+     *
+     * @throws InterruptedException
+     */
+    @Test
+    public void testDualGraph() throws InterruptedException {
+        final DualGraph dualGraph = new DualGraph(new BareSchemaFactory().createSchema());
+        WritableGraph wg = dualGraph.getWritableGraph("Add Vertices", true);
+        final int attribute;
+        try {
+            wg.addVertex();
+            wg.addVertex();
+            attribute = wg.addAttribute(GraphElementType.VERTEX, IntegerAttributeDescription.ATTRIBUTE_NAME, "count", null, 0, null);
+        } finally {
+            wg.commit();
+        }
+
+        final GraphTopology topology;
+        ReadableGraph rg = dualGraph.getReadableGraph();
+        try {
+            topology = GraphTopology.of(rg);
+        } finally {
+            rg.release();
+        }
+
+        // Only values change, so the other copy should still share the snapshot
+        wg = dualGraph.getWritableGraph("Set Value", true);
+        try {
+            wg.setIntValue(attribute, wg.getVertex(0), 1);
+        } finally {
+            wg.commit();
+        }
+        rg = dualGraph.getReadableGraph();
+        try {
+            assertTrue(topology.isCurrent(rg));
+            assertSame(GraphTopology.of(rg), topology);
+        } finally {
+            rg.release();
+        }
+
+        wg = dualGraph.getWritableGraph("Add Vertex", true);
+        try {
+            wg.addVertex();
+        } finally {
+            wg.commit();
+        }
+        rg = dualGraph.getReadableGraph();
+        try {
+            assertFalse(topology.isCurrent(rg));
+            assertEquals(GraphTopology.of(rg).getVertexCount(), 3);
+        } finally {
+            rg.release();
+        }
+    }
+
+    private static float getWeight(final GraphTopology.Adjacency adjacency, final int source, final int target) {
+        for (int entry = adjacency.getOffsets()[source]; entry < adjacency.getOffsets()[source + 1]; entry++) {
+            if (adjacency.getTargets()[entry] == target) {
+                return adjacency.getWeights()[entry];
+            }
+        }
+        return 0.0F;
+    }
+}
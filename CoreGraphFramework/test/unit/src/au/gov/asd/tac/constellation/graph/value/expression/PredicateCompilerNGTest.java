@@ -0,0 +1,186 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.value.expression;
+
+import au.gov.asd.tac.constellation.graph.Graph;
+import au.gov.asd.tac.constellation.graph.GraphElementType;
+import au.gov.asd.tac.constellation.graph.StoreGraph;
+import au.gov.asd.tac.constellation.graph.attribute.BooleanAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.DoubleAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.FloatAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.IntegerAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.LongAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.StringAttributeDescription;
+import au.gov.asd.tac.constellation.graph.value.Operators;
+import au.gov.asd.tac.constellation.graph.value.readables.BooleanReadable;
+import au.gov.asd.tac.constellation.graph.value.readables.IntReadable;
+import au.gov.asd.tac.constellation.graph.value.values.IntValue;
+import java.util.BitSet;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Predicate Compiler Test.
+ *
+ * @author sirius
+ */
+public class PredicateCompilerNGTest {
+
+    private static final int VERTEX_COUNT = 20;
+
+    private StoreGraph graph;
+    private int[] vertices;
+    private BitSet all;
+    private IntValue index;
+    private VariableProvider variableProvider;
+
+    public PredicateCompilerNGTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        ExpressionParser.hideErrorPrompts(true);
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+    }
+
+    @BeforeMethod
+    public void setUpMethod() throws Exception {
+        graph = new StoreGraph();
+        final int xAttr = graph.addAttribute(GraphElementType.VERTEX, FloatAttributeDescription.ATTRIBUTE_NAME, "x", null, 0.0, null);
+        final int weightAttr = graph.addAttribute(GraphElementType.VERTEX, DoubleAttributeDescription.ATTRIBUTE_NAME, "weight", null, 0.0, null);
+        final int countAttr = graph.addAttribute(GraphElementType.VERTEX, IntegerAttributeDescription.ATTRIBUTE_NAME, "count", null, 0, null);
+        final int timeAttr = graph.addAttribute(GraphElementType.VERTEX, LongAttributeDescription.ATTRIBUTE_NAME, "time", null, 0L, null);
+        final int nameAttr = graph.addAttribute(GraphElementType.VERTEX, StringAttributeDescription.ATTRIBUTE_NAME, "name", null, null, null);
+        final int selectedAttr = graph.addAttribute(GraphElementType.VERTEX, BooleanAttributeDescription.ATTRIBUTE_NAME, "selected", null, false, null);
+
+        vertices = new int[VERTEX_COUNT];
+        for (int i = 0; i < VERTEX_COUNT; i++) {
+            vertices[i] = graph.addVertex();
+            graph.setFloatValue(xAttr, vertices[i], i * 0.5F);
+            graph.setDoubleValue(weightAttr, vertices[i], VERTEX_COUNT - i);
+            graph.setIntValue(countAttr, vertices[i], i % 7);
+            graph.setLongValue(timeAttr, vertices[i], 1000L * i);
+            graph.setStringValue(nameAttr, vertices[i], i % 5 == 0 ? null : "vertex" + i);
+            graph.setBooleanValue(selectedAttr, vertices[i], i % 3 == 0);
+        }
+
+        all = new BitSet(VERTEX_COUNT);
+        all.set(0, VERTEX_COUNT);
+        index = new IntValue();
+        variableProvider = (name, indexReadable) -> {
+            final int attribute = graph.getAttribute(GraphElementType.VERTEX, name);
+            return attribute == Graph.NOT_FOUND ? null : graph.createReadAttributeObject(attribute, indexReadable);
+        };
+    }
+
+    @AfterMethod
+    public void tearDownMethod() throws Exception {
+    }
+
+    /**
+     * Compiled predicates should match the same elements as the expressions
+     * created by the ExpressionCompiler.
+     */
+    @Test
+    public void testCompileSequenceExpression() {
+        final String[] queries = {
+            "x > '3.5'",
+            "'3.5' <= x",
+            "x == '2'",
+            "weight < x",
+            "count != '3'",
+            "count >= time",
+            "time > '5000'",
+            "name == 'vertex3'",
+            "name != 'vertex3'",
+            "name contains '1'",
+            "name startswith 'vertex1'",
+            "name endswith '2'",
+            "name == name",
+            "selected",
+            "selected == 'true'",
+            "selected == 'false'",
+            "selected == 'maybe'",
+            "!selected",
+            "selected && x > '2'",
+            "selected || count == '2'",
+            "selected ^ count > '3'",
+            "(x > '1' && x < '6') || !(name contains '4')",
+            "(x > '1') == selected",
+            "(x > '1') != selected"
+        };
+
+        for (final String query : queries) {
+            final ElementPredicate predicate = PredicateCompiler.compileSequenceExpression(ExpressionParser.parse(query), variableProvider, index);
+            assertNotNull(predicate, query);
+            assertEquals(predicate.evaluate(vertices, all), evaluate(query), query);
+        }
+    }
+
+    /**
+     * Only the candidate elements should be evaluated.
+     */
+    @Test
+    public void testEvaluateCandidates() {
+        final ElementPredicate predicate = PredicateCompiler.compileSequenceExpression(ExpressionParser.parse("x >= '0'"), variableProvider, index);
+        final BitSet candidates = new BitSet(VERTEX_COUNT);
+        candidates.set(2);
+        candidates.set(11);
+        assertEquals(predicate.evaluate(vertices, candidates), candidates);
+    }
+
+    /**
+     * Expressions that are not handled should not be compiled.
+     */
+    @Test
+    public void testCompileUnsupported() {
+        final String[] queries = {
+            "x",
+            "x + '1' > '2'",
+            "-x < '0'",
+            "x > 'three'",
+            "'1' == '1'",
+            "missing == '1'",
+            "name > x"
+        };
+
+        for (final String query : queries) {
+            assertNull(PredicateCompiler.compileSequenceExpression(ExpressionParser.parse(query), variableProvider, index), query);
+        }
+    }
+
+    private BitSet evaluate(final String query) {
+        final IntValue treeIndex = new IntValue();
+        final BooleanReadable readable = (BooleanReadable) ExpressionCompiler.compileSequenceExpression(ExpressionParser.parse(query), variableProvider, (IntReadable) treeIndex, Operators.getDefault());
+        final BitSet result = new BitSet(VERTEX_COUNT);
+        for (int position = 0; position < VERTEX_COUNT; position++) {
+            treeIndex.writeInt(vertices[position]);
+            if (readable.readBoolean()) {
+                result.set(position);
+            }
+        }
+        return result;
+    }
+}
@@ -18,6 +18,7 @@ package au.gov.asd.tac.constellation.graph.node;
 import au.gov.asd.tac.constellation.graph.Graph;
 import au.gov.asd.tac.constellation.graph.file.GraphDataObject;
 import au.gov.asd.tac.constellation.graph.manager.GraphManagerListener;
+import au.gov.asd.tac.constellation.preferences.ApplicationPreferenceKeys;
 import au.gov.asd.tac.constellation.utilities.memory.MemoryManager;
 import au.gov.asd.tac.constellation.utilities.visual.VisualManager;
 import java.io.IOException;
@@ -30,11 +31,14 @@ import java.util.Map;
 import java.util.TreeMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.prefs.Preferences;
+import javax.swing.SwingUtilities;
 import org.openide.awt.UndoRedo;
 import org.openide.nodes.AbstractNode;
 import org.openide.nodes.Children;
 import org.openide.nodes.Sheet;
 import org.openide.util.HelpCtx;
+import org.openide.util.NbPreferences;
 import org.openide.util.lookup.AbstractLookup;
 import org.openide.util.lookup.InstanceContent;
 import org.openide.windows.TopComponent;
@@ -50,6 +54,18 @@ public class GraphNode extends AbstractNode {
 
     private static final Map<String, GraphNode> GRAPHS = new HashMap<>();
     private static final List<GraphManagerListener> LISTENERS = new ArrayList<>();
+    private static final Preferences APPLICATION_PREFERENCES = NbPreferences.forModule(ApplicationPreferenceKeys.class);
+
+    static {
+        APPLICATION_PREFERENCES.addPreferenceChangeListener(event -> {
+            if (ApplicationPreferenceKeys.UNDO_MEMORY_BUDGET.equals(event.getKey())) {
+                SwingUtilities.invokeLater(() -> {
+                    final long undoMemoryBudget = getUndoMemoryBudget();
+                    GRAPHS.values().forEach(node -> node.graph.setUndoMemoryBudget(undoMemoryBudget));
+                });
+            }
+        });
+    }
 
     public static void addGraphManagerListener(final GraphManagerListener listener) {
         if (listener != null && !LISTENERS.contains(listener)) {
@@ -72,6 +88,16 @@ public class GraphNode extends AbstractNode {
         return graph != null ? GRAPHS.get(graph.getId()) : null;
     }
 
+    /**
+     * Return the undo memory budget, in bytes, from the application
+     * preferences.
+     *
+     * @return The undo memory budget in bytes.
+     */
+    private static long getUndoMemoryBudget() {
+        return APPLICATION_PREFERENCES.getInt(ApplicationPreferenceKeys.UNDO_MEMORY_BUDGET, ApplicationPreferenceKeys.UNDO_MEMORY_BUDGET_DEFAULT) * 1024L * 1024L;
+    }
+
     public static GraphNode getGraphNode(final String graphId) {
         return GRAPHS.get(graphId);
     }
@@ -158,6 +184,7 @@ public class GraphNode extends AbstractNode {
         this.tc = tc;
 
         graph.setUndoManager(undoRedoManager);
+        graph.setUndoMemoryBudget(getUndoMemoryBudget());
 
         GRAPHS.put(graph.getId(), GraphNode.this);
 
@@ -269,6 +296,9 @@ public class GraphNode extends AbstractNode {
     public void destroy() {
         GRAPHS.remove(graph.getId());
 
+        // Let the graph release the undo state it has spilled to disk.
+        undoRedoManager.discardAllEdits();
+
         try {
             super.destroy();
         } catch (final IOException ex) {
@@ -23,27 +23,49 @@ import au.gov.asd.tac.constellation.plugins.Plugin;
 import au.gov.asd.tac.constellation.plugins.PluginEnvironment;
 import au.gov.asd.tac.constellation.plugins.PluginException;
 import au.gov.asd.tac.constellation.plugins.PluginGraphs;
+import au.gov.asd.tac.constellation.plugins.PluginInfo;
 import au.gov.asd.tac.constellation.plugins.PluginInteraction;
 import au.gov.asd.tac.constellation.plugins.PluginNotificationLevel;
 import au.gov.asd.tac.constellation.plugins.PluginSynchronizer;
+import au.gov.asd.tac.constellation.plugins.PluginType;
 import au.gov.asd.tac.constellation.plugins.logging.ConstellationLogger;
 import au.gov.asd.tac.constellation.plugins.parameters.PluginParameters;
 import au.gov.asd.tac.constellation.plugins.reporting.GraphReport;
 import au.gov.asd.tac.constellation.plugins.reporting.GraphReportManager;
 import au.gov.asd.tac.constellation.plugins.reporting.PluginReport;
 import au.gov.asd.tac.constellation.utilities.gui.NotifyDisplayer;
-import au.gov.asd.tac.constellation.utilities.threadpool.ConstellationGlobalThreadPool;
+import au.gov.asd.tac.constellation.utilities.threadpool.ManagedBlocking;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.openide.util.lookup.ServiceProvider;
 
 /**
  * Instance that supports and manages the running environment for a plugin.
+ * <p>
+ * Plugins executed later run on one of two bounded work stealing pools: plugins
+ * that spend most of their time waiting on other systems, such as searches,
+ * imports and exports, run on a larger pool than those that are bound by the
+ * CPU. A plugin that waits for other plugins is not given a thread until they
+ * have finished if they were also executed later. A plugin that blocks while
+ * waiting for any other future, at a {@link PluginSynchronizer} gate, for the
+ * user to answer a parameter prompt or for the write lock of a graph lets its
+ * pool start another thread in its place, so plugins that depend on each other
+ * or on the user can't starve the pools. Other blocking calls should be made through
+ * {@link ManagedBlocking}.
  *
  * @author sirius
  */
@@ -57,7 +79,29 @@ public class DefaultPluginEnvironment extends PluginEnvironment {
     private static final List<Integer> recentExceptionAuditHashcodes = new ArrayList<>();
     private static final List<Integer> recentExceptionReportHashcodes = new ArrayList<>();
 
-    private final ExecutorService pluginExecutor = ConstellationGlobalThreadPool.getThreadPool().getCachedThreadPool();
+    private static final int CPU_PARALLELISM = Math.max(2, Runtime.getRuntime().availableProcessors());
+    private static final int IO_PARALLELISM = Math.max(16, 4 * CPU_PARALLELISM);
+    private static final Set<PluginType> IO_PLUGIN_TYPES = EnumSet.of(PluginType.IMPORT, PluginType.EXPORT, PluginType.SEARCH);
+
+    private static final ExecutorService CPU_PLUGIN_EXECUTOR = new ForkJoinPool(CPU_PARALLELISM, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+    private static final ExecutorService IO_PLUGIN_EXECUTOR = new ForkJoinPool(IO_PARALLELISM, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+
+    private static final ClassValue<Boolean> IO_BOUND = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(final Class<?> type) {
+            for (Class<?> pluginClass = type; pluginClass != null && pluginClass != Object.class; pluginClass = pluginClass.getSuperclass()) {
+                final PluginInfo info = pluginClass.getAnnotation(PluginInfo.class);
+                if (info != null) {
+                    return IO_PLUGIN_TYPES.contains(info.pluginType());
+                }
+            }
+            return false;
+        }
+    };
+
+    private final AtomicInteger waitingPluginCount = new AtomicInteger();
+    private final AtomicInteger queuedPluginCount = new AtomicInteger();
+    private final AtomicInteger runningPluginCount = new AtomicInteger();
 
     private static final String GRAPH_NULL_WARNING_MESSAGE = "{0} plugin was executed on a graph which was null";
 
@@ -70,77 +114,143 @@ public class DefaultPluginEnvironment extends PluginEnvironment {
             LOGGER.log(Level.INFO, GRAPH_NULL_WARNING_MESSAGE, plugin.getName());
         }
 
+        // Futures returned by this environment are waited for by continuing from them rather than by blocking a thread.
+        // Any other kind of Future still has to be waited for by the plugin's own thread.
+        final List<CompletableFuture<?>> predecessors = new ArrayList<>();
+        final List<Future<?>> blockingPredecessors = new ArrayList<>();
+        if (async != null) {
+            for (final Future<?> future : async) {
+                if (future instanceof CompletableFuture) {
+                    predecessors.add((CompletableFuture<?>) future);
+                } else if (future != null) {
+                    blockingPredecessors.add(future);
+                }
+            }
+        }
+
         final ThreadConstraints parentConstraints = ThreadConstraints.getConstraints();
-        return getPluginExecutor().submit(() -> {
-            Thread.currentThread().setName(THREAD_POOL_NAME);
-
-            // If a Future has been specified, don't do anything until the Future has completed.
-            // A typical use-case is an arrangement followed by a camera reset: obviously doing the reset before the
-            // vertices have been relocated is not sensible.
-            if (async != null) {
-                for (final Future<?> future : async) {
-                    if (future != null) {
+        final PluginFuture pluginFuture = new PluginFuture();
+        final ExecutorService executor = getPluginExecutor(plugin);
+        final Callable<Object> task = () -> {
+            queuedPluginCount.decrementAndGet();
+            if (!pluginFuture.start()) {
+                // Cancelled before it started.
+                return null;
+            }
+            runningPluginCount.incrementAndGet();
+            try {
+                pluginFuture.complete(runPluginLater(graph, plugin, parameters, interactive, blockingPredecessors, synchronizer, parentConstraints));
+            } catch (final RuntimeException | Error ex) {
+                pluginFuture.completeExceptionally(ex);
+                throw ex;
+            } finally {
+                runningPluginCount.decrementAndGet();
+                pluginFuture.finish();
+            }
+            return null;
+        };
+
+        if (predecessors.isEmpty()) {
+            submitPlugin(plugin, executor, task);
+        } else {
+            waitingPluginCount.incrementAndGet();
+            CompletableFuture.allOf(predecessors.toArray(new CompletableFuture<?>[predecessors.size()])).whenComplete((result, ex) -> {
+                waitingPluginCount.decrementAndGet();
+                if (ex != null) {
+                    final Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                    if (cause instanceof CancellationException) {
+                        // A plugin waiting on a cancelled plugin is cancelled as well.
+                        pluginFuture.cancel(false);
+                        return;
+                    }
+                    LOGGER.log(Level.SEVERE, "Execution Exception", cause);
+                }
+                submitPlugin(plugin, executor, task);
+            });
+        }
+
+        return pluginFuture;
+    }
+
+    private void submitPlugin(final Plugin plugin, final ExecutorService executor, final Callable<Object> task) {
+        queuedPluginCount.incrementAndGet();
+        try {
+            executor.submit(task);
+        } catch (final RejectedExecutionException ex) {
+            queuedPluginCount.decrementAndGet();
+            throw ex;
+        }
+        LOGGER.log(Level.FINE, "Scheduled {0}: {1} waiting, {2} queued, {3} running",
+                new Object[]{plugin.getName(), waitingPluginCount.get(), queuedPluginCount.get(), runningPluginCount.get()});
+    }
+
+    private Object runPluginLater(final Graph graph, final Plugin plugin,
+            final PluginParameters parameters, final boolean interactive,
+            final List<Future<?>> async, final PluginSynchronizer synchronizer,
+            final ThreadConstraints parentConstraints) {
+        Thread.currentThread().setName(THREAD_POOL_NAME);
+
+        // If a Future has been specified, don't do anything until the Future has completed.
+        // A typical use-case is an arrangement followed by a camera reset: obviously doing the reset before the
+        // vertices have been relocated is not sensible.
+        for (final Future<?> future : async) {
+            try {
+                // Predecessors that are not CompletableFutures can't be chained, so their wait blocks this worker.
+                if (!future.isDone()) {
+                    ManagedBlocking.block(() -> {
                         try {
                             future.get();
-                        } catch (final InterruptedException ex) {
-                            LOGGER.log(Level.SEVERE, "Execution interrupted", ex);
-                            Thread.currentThread().interrupt();
                         } catch (final ExecutionException ex) {
-                            LOGGER.log(Level.SEVERE, "Execution Exception", ex);
+                            // Reported by the get below.
                         }
-                    }
+                        return null;
+                    });
                 }
+                future.get();
+            } catch (final InterruptedException ex) {
+                LOGGER.log(Level.SEVERE, "Execution interrupted", ex);
+                Thread.currentThread().interrupt();
+            } catch (final ExecutionException ex) {
+                LOGGER.log(Level.SEVERE, "Execution Exception", ex);
             }
+        }
 
-            final ThreadConstraints callingConstraints = ThreadConstraints.getConstraints();
-            final boolean alwaysSilent = callingConstraints.isAlwaysSilent() || callingConstraints.getSilentCount() > 0;
-
-            PluginReport currentReport = null;
-            final GraphReport graphReport = graph == null ? null : GraphReportManager.getGraphReport(graph.getId());
-            // a graph report can have multiple plugin reports ... a plugin report can have multiple child plugin reports
-            if (graphReport != null) {     
-                final PluginReport parentThreadReport = parentConstraints.getCurrentReport();
-                final PluginReport existingReport = callingConstraints.getCurrentReport();
-                if (parentThreadReport == null && existingReport == null) {
-                    currentReport = graphReport.addPluginReport(plugin);
-                } else if (existingReport != null) {
-                    currentReport = existingReport.addChildReport(plugin);
-                } else if (parentThreadReport != null) {
-                    currentReport = parentThreadReport.addChildReport(plugin);
-                }
-                callingConstraints.setCurrentReport(currentReport);            
-            }
+        final ThreadConstraints callingConstraints = ThreadConstraints.getConstraints();
+        final boolean alwaysSilent = callingConstraints.isAlwaysSilent() || callingConstraints.getSilentCount() > 0;
 
-            try {
-                ConstellationLogger.getDefault().pluginStarted(plugin, parameters, graph);
-            } catch (final Exception ex) {
-                LOGGER.log(Level.SEVERE, ex.getLocalizedMessage());
+        PluginReport currentReport = null;
+        final GraphReport graphReport = graph == null ? null : GraphReportManager.getGraphReport(graph.getId());
+        // a graph report can have multiple plugin reports ... a plugin report can have multiple child plugin reports
+        if (graphReport != null) {     
+            final PluginReport parentThreadReport = parentConstraints.getCurrentReport();
+            final PluginReport existingReport = callingConstraints.getCurrentReport();
+            if (parentThreadReport == null && existingReport == null) {
+                currentReport = graphReport.addPluginReport(plugin);
+            } else if (existingReport != null) {
+                currentReport = existingReport.addChildReport(plugin);
+            } else if (parentThreadReport != null) {
+                currentReport = parentThreadReport.addChildReport(plugin);
             }
+            callingConstraints.setCurrentReport(currentReport);            
+        }
 
-            final PluginManager manager = new PluginManager(DefaultPluginEnvironment.this, plugin, graph, interactive, synchronizer);
-            final PluginGraphs graphs = new DefaultPluginGraphs(manager);
-            final PluginInteraction interaction = new DefaultPluginInteraction(manager, currentReport);
+        try {
+            ConstellationLogger.getDefault().pluginStarted(plugin, parameters, graph);
+        } catch (final Exception ex) {
+            LOGGER.log(Level.SEVERE, ex.getLocalizedMessage());
+        }
 
-            try {
-                if (parameters != null) {
-                    plugin.updateParameters(graph, parameters);
-                }
-                if (interactive && parameters != null) {
-                    if (interaction.prompt(plugin.getName(), parameters)) {
-                        ThreadConstraints calledConstraints = ThreadConstraints.getConstraints();
-                        calledConstraints.setAlwaysSilent(alwaysSilent);
-                        try {
-                            plugin.run(graphs, interaction, parameters);
-                        } finally {
-                            calledConstraints.setAlwaysSilent(false);
-                            calledConstraints.setSilentCount(0);
-                            if (synchronizer != null) {
-                                synchronizer.finished();
-                            }
-                        }
-                    }
-                } else {
-                    final ThreadConstraints calledConstraints = ThreadConstraints.getConstraints();
+        final PluginManager manager = new PluginManager(DefaultPluginEnvironment.this, plugin, graph, interactive, synchronizer);
+        final PluginGraphs graphs = new DefaultPluginGraphs(manager);
+        final PluginInteraction interaction = new DefaultPluginInteraction(manager, currentReport);
+
+        try {
+            if (parameters != null) {
+                plugin.updateParameters(graph, parameters);
+            }
+            if (interactive && parameters != null) {
+                if (interaction.prompt(plugin.getName(), parameters)) {
+                    ThreadConstraints calledConstraints = ThreadConstraints.getConstraints();
                     calledConstraints.setAlwaysSilent(alwaysSilent);
                     try {
                         plugin.run(graphs, interaction, parameters);
@@ -152,32 +262,44 @@ public class DefaultPluginEnvironment extends PluginEnvironment {
                         }
                     }
                 }
-            } catch (final InterruptedException ex) {
-                auditPluginError(plugin, ex);
-                reportException(plugin.getName(), interaction, currentReport, null, ex);
-                Thread.currentThread().interrupt();
-            } catch (final PluginException ex) {
-                auditPluginError(plugin, ex);
-                reportException(plugin.getName(), interaction, currentReport, ex.getNotificationLevel(), ex);
-            } catch (final Exception ex) {
-                auditPluginError(plugin, ex);
-                reportException(plugin.getName(), interaction, currentReport, PluginNotificationLevel.ERROR, ex);
-            } finally {
-                if (currentReport != null) {
-                    currentReport.stop();
-                    callingConstraints.setCurrentReport(null);
-                    currentReport.firePluginReportChangedEvent();
-                }
-
+            } else {
+                final ThreadConstraints calledConstraints = ThreadConstraints.getConstraints();
+                calledConstraints.setAlwaysSilent(alwaysSilent);
                 try {
-                    ConstellationLogger.getDefault().pluginStopped(plugin, parameters);
-                } catch (final Exception ex) {
-                    LOGGER.log(Level.SEVERE, ex.getLocalizedMessage());
+                    plugin.run(graphs, interaction, parameters);
+                } finally {
+                    calledConstraints.setAlwaysSilent(false);
+                    calledConstraints.setSilentCount(0);
+                    if (synchronizer != null) {
+                        synchronizer.finished();
+                    }
                 }
             }
+        } catch (final InterruptedException ex) {
+            auditPluginError(plugin, ex);
+            reportException(plugin.getName(), interaction, currentReport, null, ex);
+            Thread.currentThread().interrupt();
+        } catch (final PluginException ex) {
+            auditPluginError(plugin, ex);
+            reportException(plugin.getName(), interaction, currentReport, ex.getNotificationLevel(), ex);
+        } catch (final Exception ex) {
+            auditPluginError(plugin, ex);
+            reportException(plugin.getName(), interaction, currentReport, PluginNotificationLevel.ERROR, ex);
+        } finally {
+            if (currentReport != null) {
+                currentReport.stop();
+                callingConstraints.setCurrentReport(null);
+                currentReport.firePluginReportChangedEvent();
+            }
 
-            return null;
-        });
+            try {
+                ConstellationLogger.getDefault().pluginStopped(plugin, parameters);
+            } catch (final Exception ex) {
+                LOGGER.log(Level.SEVERE, ex.getLocalizedMessage());
+            }
+        }
+
+        return null;
     }
 
     @Override
@@ -403,7 +525,95 @@ public class DefaultPluginEnvironment extends PluginEnvironment {
     }
 
     protected ExecutorService getPluginExecutor() {
-        return pluginExecutor;
+        return CPU_PLUGIN_EXECUTOR;
+    }
+
+    /**
+     * Returns the executor that a plugin should run on. Plugins whose type is
+     * {@link PluginType#SEARCH}, {@link PluginType#IMPORT} or
+     * {@link PluginType#EXPORT} are expected to spend most of their time
+     * waiting for other systems and run on a larger pool.
+     *
+     * @param plugin the plugin.
+     * @return the executor to run the plugin on.
+     */
+    protected ExecutorService getPluginExecutor(final Plugin plugin) {
+        return IO_BOUND.get(plugin.getClass()) ? IO_PLUGIN_EXECUTOR : getPluginExecutor();
+    }
+
+    /**
+     * Returns the number of plugins that are waiting for other plugins to
+     * finish before they can be queued.
+     *
+     * @return the number of plugins waiting for other plugins.
+     */
+    public int getWaitingPluginCount() {
+        return waitingPluginCount.get();
+    }
+
+    /**
+     * Returns the number of plugins that are queued to run but have not
+     * started.
+     *
+     * @return the number of queued plugins.
+     */
+    public int getQueuedPluginCount() {
+        return queuedPluginCount.get();
+    }
+
+    /**
+     * Returns the number of plugins that are running.
+     *
+     * @return the number of running plugins.
+     */
+    public int getRunningPluginCount() {
+        return runningPluginCount.get();
+    }
+
+    /**
+     * The future returned for a plugin executed later. Cancelling it with
+     * interruption interrupts the thread running the plugin, as cancelling the
+     * future of a task submitted to an executor would.
+     */
+    private static final class PluginFuture extends CompletableFuture<Object> {
+
+        private Thread runner = null;
+
+        /**
+         * Called by the thread about to run the plugin.
+         *
+         * @return false if the plugin has been cancelled and shouldn't run.
+         */
+        private synchronized boolean start() {
+            if (isDone()) {
+                return false;
+            }
+            runner = Thread.currentThread();
+            return true;
+        }
+
+        /**
+         * Called by the thread that ran the plugin once it has finished, so
+         * that a late cancellation doesn't interrupt whatever the thread runs
+         * next.
+         */
+        private synchronized void finish() {
+            runner = null;
+            Thread.interrupted();
+        }
+
+        @Override
+        public boolean cancel(final boolean mayInterruptIfRunning) {
+            final boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled && mayInterruptIfRunning) {
+                synchronized (this) {
+                    if (runner != null) {
+                        runner.interrupt();
+                    }
+                }
+            }
+            return cancelled;
+        }
     }
 
     /**
@@ -26,6 +26,7 @@ import au.gov.asd.tac.constellation.utilities.color.ConstellationColor;
 import au.gov.asd.tac.constellation.utilities.gui.NotifyDisplayer;
 import au.gov.asd.tac.constellation.utilities.icon.UserInterfaceIconProvider;
 import au.gov.asd.tac.constellation.utilities.text.SeparatorConstants;
+import au.gov.asd.tac.constellation.utilities.threadpool.ManagedBlocking;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
@@ -291,10 +292,19 @@ public class DefaultPluginInteraction implements PluginInteraction, Cancellable
         boolean result = false;
 
         final PluginParametersSwingDialog dialog = new PluginParametersSwingDialog(promptName, parameters);
-        if (!parameters.hasMultiLineStringParameter()) {
-            dialog.showAndWait();
-        } else {
-            dialog.showAndWaitNoFocus();
+        try {
+            // The user can take as long as they like, so let the plugin pool run other plugins in the meantime.
+            ManagedBlocking.block(() -> {
+                if (!parameters.hasMultiLineStringParameter()) {
+                    dialog.showAndWait();
+                } else {
+                    dialog.showAndWaitNoFocus();
+                }
+                return null;
+            });
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
         }
         if (PluginParametersDialog.OK.equals(dialog.getResult())) {
             result = true;
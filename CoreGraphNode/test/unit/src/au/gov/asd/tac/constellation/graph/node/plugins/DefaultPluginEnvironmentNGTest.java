@@ -29,13 +29,18 @@ import au.gov.asd.tac.constellation.plugins.reporting.GraphReport;
 import au.gov.asd.tac.constellation.plugins.reporting.GraphReportManager;
 import au.gov.asd.tac.constellation.plugins.reporting.PluginReport;
 import au.gov.asd.tac.constellation.plugins.templates.SimplePlugin;
+import au.gov.asd.tac.constellation.utilities.threadpool.ManagedBlocking;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -52,6 +57,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.testfx.api.FxToolkit;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeClass;
@@ -285,6 +291,123 @@ public class DefaultPluginEnvironmentNGTest {
         assertEquals(result, expResult);
     }
 
+    /**
+     * A plugin waiting for another plugin should not be given a thread until
+     * the other plugin has finished.
+     */
+    @Test(timeOut = 30000)
+    public void testExecutePluginLaterWaitsForPredecessors() throws ExecutionException, InterruptedException {
+        System.out.println("executePluginLater waiting for predecessors");
+        final DefaultPluginEnvironment instance = new DefaultPluginEnvironment();
+        final PluginParameters parameters = mock(PluginParameters.class);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<String> finished = Collections.synchronizedList(new ArrayList<>());
+
+        final Plugin first = new SimplePlugin("first") {
+            @Override
+            protected void execute(final PluginGraphs graphs, final PluginInteraction interaction, final PluginParameters parameters) throws InterruptedException, PluginException {
+                release.await();
+                finished.add("first");
+            }
+        };
+        final Plugin second = new SimplePlugin("second") {
+            @Override
+            protected void execute(final PluginGraphs graphs, final PluginInteraction interaction, final PluginParameters parameters) throws InterruptedException, PluginException {
+                finished.add("second");
+            }
+        };
+
+        final Future<?> firstFuture = instance.executePluginLater(null, first, parameters, false, null, null);
+        final Future<?> secondFuture = instance.executePluginLater(null, second, parameters, false, Arrays.asList(firstFuture), null);
+        assertEquals(instance.getWaitingPluginCount(), 1);
+
+        release.countDown();
+        secondFuture.get();
+        assertEquals(finished, Arrays.asList("first", "second"));
+        assertEquals(instance.getWaitingPluginCount(), 0);
+    }
+
+    /**
+     * Plugins blocked in managed waits, such as parameter prompts, should not
+     * stop other plugins from running, even when there are more of them than
+     * threads in the pool.
+     */
+    @Test(timeOut = 30000)
+    public void testExecutePluginLaterWithBlockedPlugins() throws ExecutionException, InterruptedException {
+        System.out.println("executePluginLater with blocked plugins");
+        final DefaultPluginEnvironment instance = new DefaultPluginEnvironment();
+        final PluginParameters parameters = mock(PluginParameters.class);
+        final int blockedCount = 2 * Math.max(2, Runtime.getRuntime().availableProcessors());
+        final CountDownLatch blocked = new CountDownLatch(blockedCount);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        final List<Future<?>> blockedFutures = new ArrayList<>();
+        for (int i = 0; i < blockedCount; i++) {
+            final Plugin prompting = new SimplePlugin("prompting") {
+                @Override
+                protected void execute(final PluginGraphs graphs, final PluginInteraction interaction, final PluginParameters parameters) throws InterruptedException, PluginException {
+                    blocked.countDown();
+                    ManagedBlocking.block(() -> {
+                        release.await();
+                        return null;
+                    });
+                }
+            };
+            blockedFutures.add(instance.executePluginLater(null, prompting, parameters, false, null, null));
+        }
+        assertTrue(blocked.await(10, TimeUnit.SECONDS));
+
+        final CountDownLatch ran = new CountDownLatch(1);
+        final Plugin free = new SimplePlugin("free") {
+            @Override
+            protected void execute(final PluginGraphs graphs, final PluginInteraction interaction, final PluginParameters parameters) throws InterruptedException, PluginException {
+                ran.countDown();
+            }
+        };
+        instance.executePluginLater(null, free, parameters, false, null, null);
+        assertTrue(ran.await(10, TimeUnit.SECONDS));
+
+        release.countDown();
+        for (final Future<?> future : blockedFutures) {
+            future.get();
+        }
+    }
+
+    /**
+     * Cancelling a running plugin should interrupt it, and cancel the plugins
+     * waiting for it.
+     */
+    @Test(timeOut = 30000)
+    public void testExecutePluginLaterCancel() throws InterruptedException {
+        System.out.println("executePluginLater cancel");
+        final DefaultPluginEnvironment instance = new DefaultPluginEnvironment();
+        final PluginParameters parameters = mock(PluginParameters.class);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+
+        final Plugin plugin = new SimplePlugin("waiting") {
+            @Override
+            protected void execute(final PluginGraphs graphs, final PluginInteraction interaction, final PluginParameters parameters) throws InterruptedException, PluginException {
+                started.countDown();
+                try {
+                    new CountDownLatch(1).await();
+                } catch (final InterruptedException ex) {
+                    interrupted.countDown();
+                    throw ex;
+                }
+            }
+        };
+        final Plugin dependent = mock(Plugin.class);
+
+        final Future<?> future = instance.executePluginLater(null, plugin, parameters, false, null, null);
+        final Future<?> dependentFuture = instance.executePluginLater(null, dependent, parameters, false, Arrays.asList(future), null);
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        future.cancel(true);
+        assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+        assertTrue(dependentFuture.isCancelled());
+    }
+
     /**
      * Test of executePluginNow method, of class DefaultPluginEnvironment.
      */
@@ -139,16 +139,45 @@ public class ImportAttributeDefinition {
         this.overriddenAttributeId = overriddenAttributeId;
     }
 
-    public void setValue(final GraphWriteMethods graph, final int elementId, final String[] row, final int rowIndex) {
+    /**
+     * Returns true if this definition provides a value for each row, either
+     * from its column, from its default value or from the row index.
+     *
+     * @return true if this definition provides a value for each row.
+     */
+    public boolean providesValue() {
+        return (columnIndex == ImportConstants.ATTRIBUTE_NOT_ASSIGNED_TO_COLUMN && defaultValue != null)
+                || columnIndex >= 0 || columnIndex == rowIDColumnIndex;
+    }
+
+    /**
+     * Returns the translated value this definition provides for a row.
+     * <p>
+     * Translation does not modify the graph, so rows can be translated on
+     * worker threads and their values set on the graph later.
+     *
+     * @param row the values of the row.
+     * @param rowIndex the index of the row.
+     * @return the translated value, or null if this definition does not
+     * provide a value.
+     * @see #providesValue()
+     */
+    public String translateValue(final String[] row, final int rowIndex) {
         if (columnIndex == ImportConstants.ATTRIBUTE_NOT_ASSIGNED_TO_COLUMN && defaultValue != null) {
-            graph.setStringValue(getOverriddenAttributeId(), elementId, translator.translate(defaultValue, parameters));
+            return translator.translate(defaultValue, parameters);
         } else if (columnIndex >= 0) {
             final String cell = columnIndex < row.length ? row[columnIndex] : "";
-            graph.setStringValue(getOverriddenAttributeId(), elementId, translator.translate(cell, parameters));
+            return translator.translate(cell, parameters);
         } else if (columnIndex == rowIDColumnIndex) {
-            graph.setStringValue(getOverriddenAttributeId(), elementId, Integer.toString(rowIndex));
+            return Integer.toString(rowIndex);
         } else {
-            // Do nothing
+            return null;
+        }
+    }
+
+    public void setValue(final GraphWriteMethods graph, final int elementId, final String[] row, final int rowIndex) {
+        if (providesValue()) {
+            graph.setStringValue(getOverriddenAttributeId(), elementId, translateValue(row, rowIndex));
         }
     }
 
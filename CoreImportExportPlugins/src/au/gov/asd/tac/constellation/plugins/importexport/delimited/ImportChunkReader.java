@@ -0,0 +1,126 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.plugins.importexport.delimited;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Reads rows from an iterator on a background thread and hands them out in
+ * chunks.
+ * <p>
+ * At most {@code capacity} chunks are buffered, so the memory used is governed
+ * by the chunk size rather than the number of rows. The iterator is only ever
+ * accessed by the background thread.
+ *
+ * @author sirius
+ */
+final class ImportChunkReader implements AutoCloseable {
+
+    private static final List<String[]> END = Collections.emptyList();
+
+    private final BlockingQueue<List<String[]>> chunks;
+    private final Future<?> producer;
+    private volatile RuntimeException failure = null;
+    private boolean finished = false;
+
+    /**
+     * Starts reading rows.
+     *
+     * @param rows the rows to read.
+     * @param chunkSize the maximum number of rows in each chunk.
+     * @param capacity the maximum number of chunks to read ahead.
+     * @param executor the executor to read the rows on.
+     */
+    ImportChunkReader(final Iterator<String[]> rows, final int chunkSize, final int capacity, final ExecutorService executor) {
+        this.chunks = new ArrayBlockingQueue<>(capacity);
+        this.producer = executor.submit(() -> {
+            try {
+                List<String[]> chunk = new ArrayList<>(chunkSize);
+                while (rows.hasNext()) {
+                    chunk.add(rows.next());
+                    if (chunk.size() == chunkSize) {
+                        chunks.put(chunk);
+                        chunk = new ArrayList<>(chunkSize);
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    chunks.put(chunk);
+                }
+            } catch (final InterruptedException ex) {
+                // The consumer has stopped reading so there is nobody to pass the end of the rows to.
+                Thread.currentThread().interrupt();
+                return;
+            } catch (final RuntimeException ex) {
+                failure = ex;
+            }
+
+            try {
+                chunks.put(END);
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    /**
+     * Returns the next chunk of rows, waiting for it to be read if necessary.
+     *
+     * @return the next chunk of rows, or null if every row has been read.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     * @throws IOException if an error occurred while reading the rows.
+     */
+    List<String[]> next() throws InterruptedException, IOException {
+        if (finished) {
+            return null;
+        }
+
+        final List<String[]> chunk = chunks.take();
+        if (chunk == END) {
+            finished = true;
+            if (failure != null) {
+                // Parsers report read errors as runtime exceptions caused by an IOException.
+                if (failure instanceof UncheckedIOException) {
+                    throw ((UncheckedIOException) failure).getCause();
+                } else if (failure.getCause() instanceof IOException) {
+                    throw (IOException) failure.getCause();
+                } else {
+                    throw failure;
+                }
+            }
+            return null;
+        }
+
+        return chunk;
+    }
+
+    /**
+     * Stops reading rows. Any rows that have not been read are discarded.
+     */
+    @Override
+    public void close() {
+        producer.cancel(true);
+        chunks.clear();
+    }
+}
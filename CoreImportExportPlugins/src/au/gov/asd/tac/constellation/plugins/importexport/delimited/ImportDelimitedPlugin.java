@@ -50,21 +50,32 @@ import au.gov.asd.tac.constellation.plugins.parameters.types.ObjectParameterType
 import au.gov.asd.tac.constellation.plugins.parameters.types.ObjectParameterType.ObjectParameterValue;
 import au.gov.asd.tac.constellation.plugins.templates.PluginTags;
 import au.gov.asd.tac.constellation.plugins.templates.SimpleEditPlugin;
+import au.gov.asd.tac.constellation.preferences.ApplicationPreferenceKeys;
 import au.gov.asd.tac.constellation.utilities.color.ConstellationColor;
 import au.gov.asd.tac.constellation.utilities.icon.UserInterfaceIconProvider;
+import au.gov.asd.tac.constellation.utilities.threadpool.ConstellationGlobalThreadPool;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.DateTimeException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
 import javafx.application.Platform;
 import org.openide.awt.NotificationDisplayer;
 import org.openide.util.NbBundle;
+import org.openide.util.NbPreferences;
 import org.openide.util.lookup.ServiceProvider;
 
 /**
@@ -91,6 +102,9 @@ public class ImportDelimitedPlugin extends SimpleEditPlugin {
     public static final String IMPORTED_ROWS = "IMPORTED_ROWS";
     public static final String SKIPPED_ROWS = "SKIPPED_ROWS";
 
+    private static final int CHUNK_SIZE = 10000;
+    private static final int CHUNKS_IN_FLIGHT = 4;
+
     @Override
     public PluginParameters createParameters() {
         final PluginParameters params = new PluginParameters();
@@ -223,6 +237,11 @@ public class ImportDelimitedPlugin extends SimpleEditPlugin {
         });
     }
 
+    @Override
+    protected boolean isUndoRecorded() {
+        return NbPreferences.forModule(ApplicationPreferenceKeys.class).getBoolean(ApplicationPreferenceKeys.UNDO_RECORD_IMPORTS, ApplicationPreferenceKeys.UNDO_RECORD_IMPORTS_DEFAULT);
+    }
+
     @Override
     protected void edit(final GraphWriteMethods graph, final PluginInteraction interaction, final PluginParameters parameters) throws InterruptedException, PluginException {
         final ImportFileParser parser = (ImportFileParser) parameters.getParameters().get(PARSER_PARAMETER_ID).getObjectValue();
@@ -241,7 +260,6 @@ public class ImportDelimitedPlugin extends SimpleEditPlugin {
         final List<String> emptyFiles = new ArrayList<>();
         final List<String> invalidFiles = new ArrayList<>();
         final List<String> emptyRunConfigs = new ArrayList<>();
-        Map<String, Integer> results;
         int totalRows = 0;
         int totalImportedRows = 0;
         int totalSkippedRows = 0;
@@ -256,15 +274,26 @@ public class ImportDelimitedPlugin extends SimpleEditPlugin {
             }
         }
 
+        for (final ImportDefinition definition : definitions) {
+            // Determine if a positional attribute has been defined, if so update the overall flag
+            final boolean isPositional = attributeDefintionIsPositional(definition.getDefinitions(AttributeType.SOURCE_VERTEX), definition.getDefinitions(AttributeType.DESTINATION_VERTEX));
+            positionalAtrributesExist = (positionalAtrributesExist || isPositional);
+        }
+
         for (final File file : files) {
             interaction.setProgress(0, 0, "Reading File: " + file.getName(), true);
-            List<String[]> data = null;
-            int importedRowsPerFile = 0;
-            int skippedRowsPerFile = 0;
+            final List<DefinitionImporter> importers = new ArrayList<>();
+            for (final ImportDefinition definition : definitions) {
+                if (!definition.getDefinitions(AttributeType.SOURCE_VERTEX).isEmpty()
+                        || !definition.getDefinitions(AttributeType.DESTINATION_VERTEX).isEmpty()) {
+                    importers.add(new DefinitionImporter(definition, graph, initialiseWithSchema, skipInvalidRows));
+                }
+            }
 
-            try {
-                data = parser.parse(new InputSource(file), parserParameters);
-                dataSize = filesIncludeHeaders ? data.size() - 1 : data.size();
+            int rowCount = 0;
+            try (final Stream<String[]> rows = parser.stream(new InputSource(file), parserParameters)) {
+                rowCount = importRows(graph, rows.iterator(), importers, interaction, file.getName());
+                dataSize = filesIncludeHeaders ? rowCount - 1 : rowCount;
                 totalRows = totalRows + Integer.max(0, dataSize);
 
                 if (dataSize > 0) {
@@ -276,43 +305,21 @@ public class ImportDelimitedPlugin extends SimpleEditPlugin {
                 } else {
                     emptyFiles.add(file.getName());
                 }
-            } catch (FileNotFoundException ex) {
+            } catch (final FileNotFoundException ex) {
                 final String errorMsg = file.getPath() + " could not be found. Ignoring file during import.";
                 LOGGER.log(Level.INFO, errorMsg);
                 invalidFiles.add(file.getName());
-            } catch (IOException ex) {
+            } catch (final IOException | UncheckedIOException ex) {
                 final String errorMsg = file.getPath() + " could not be parsed. Removing file during import.";
                 LOGGER.log(Level.INFO, errorMsg);
                 invalidFiles.add(file.getName());
             }
 
-            if (data != null) {
-                for (final ImportDefinition definition : definitions) {
-
-                    if (definition.getDefinitions(AttributeType.SOURCE_VERTEX).isEmpty()) {
-                        // No source vertex definitions are set, the only option left is destination vertexes being mapped.
-                        // Process destination vertexes if defintions are defined, otherwise there is nothing to do.
-                        if (!definition.getDefinitions(AttributeType.DESTINATION_VERTEX).isEmpty()) {
-                            results = processDestinationVertices(definition, graph, data, initialiseWithSchema, skipInvalidRows, interaction, file.getName());
-                            importedRowsPerFile += results.get(IMPORTED_ROWS);
-                            skippedRowsPerFile += results.get(SKIPPED_ROWS);
-                        }
-                    } else if (definition.getDefinitions(AttributeType.DESTINATION_VERTEX).isEmpty()) {
-                        // Source defintions exist, but no destination definitions exist. Process the source definitions.
-                        results = processSourceVertices(definition, graph, data, initialiseWithSchema, skipInvalidRows, interaction, file.getName());
-                        importedRowsPerFile += results.get(IMPORTED_ROWS);
-                        skippedRowsPerFile += results.get(SKIPPED_ROWS);
-                    } else {
-                        // Both source and destination defintions exist, process them.
-                        results = processTransactions(definition, graph, data, initialiseWithSchema, skipInvalidRows, interaction, file.getName());
-                        importedRowsPerFile += results.get(IMPORTED_ROWS);
-                        skippedRowsPerFile += results.get(SKIPPED_ROWS);
-                    }
-
-                    // Determine if a positional attribute has been defined, if so update the overall flag
-                    final boolean isPositional = attributeDefintionIsPositional(definition.getDefinitions(AttributeType.SOURCE_VERTEX), definition.getDefinitions(AttributeType.DESTINATION_VERTEX));
-                    positionalAtrributesExist = (positionalAtrributesExist || isPositional);
-                }
+            int importedRowsPerFile = 0;
+            int skippedRowsPerFile = 0;
+            for (final DefinitionImporter importer : importers) {
+                importedRowsPerFile += importer.importedRows;
+                skippedRowsPerFile += importer.skippedRows;
             }
             totalImportedRows += importedRowsPerFile;
             totalSkippedRows += skippedRowsPerFile;
@@ -362,152 +369,329 @@ public class ImportDelimitedPlugin extends SimpleEditPlugin {
         return destAttributeDefinitions.stream().map(attribute -> attribute.getAttribute().getName()).anyMatch(name -> (VisualConcept.VertexAttribute.X.getName().equals(name) || VisualConcept.VertexAttribute.Y.getName().equals(name) || VisualConcept.VertexAttribute.Z.getName().equals(name)));
     }
 
-    private static Map<String, Integer> processSourceVertices(final ImportDefinition definition, final GraphWriteMethods graph, final List<String[]> data, final boolean initialiseWithSchema,
-            final boolean skipInvalidRows, final PluginInteraction interaction, final String source) throws InterruptedException, PluginException {
-        return processVertices(definition, graph, data, AttributeType.SOURCE_VERTEX, initialiseWithSchema, skipInvalidRows, interaction, source);
+    /**
+     * Imports rows in chunks.
+     * <p>
+     * The rows are parsed on a background thread, each chunk is filtered and
+     * translated by every importer on the shared worker pool, and the
+     * translated chunks are then written to the graph on this thread in the
+     * order they were read. Translators keep state between values, so each
+     * importer translates its chunks one at a time, while different importers
+     * translate in parallel. At most {@link #CHUNKS_IN_FLIGHT} chunks are read
+     * ahead, so the memory used depends on {@link #CHUNK_SIZE} rather than the
+     * size of the file.
+     *
+     * @return the number of rows read.
+     */
+    private static int importRows(final GraphWriteMethods graph, final Iterator<String[]> rows, final List<DefinitionImporter> importers,
+            final PluginInteraction interaction, final String source) throws InterruptedException, PluginException, IOException {
+        final ExecutorService workers = ConstellationGlobalThreadPool.getThreadPool().getFixedThreadPool();
+        final Deque<List<Future<TranslatedChunk>>> pending = new ArrayDeque<>();
+        final List<CompletableFuture<TranslatedChunk>> latest = new ArrayList<>(Collections.nCopies(importers.size(), CompletableFuture.completedFuture(null)));
+        int rowCount = 0;
+        int writtenRows = 0;
+
+        try (final ImportChunkReader reader = new ImportChunkReader(rows, CHUNK_SIZE, CHUNKS_IN_FLIGHT, ConstellationGlobalThreadPool.getThreadPool().getCachedThreadPool())) {
+            boolean finished = false;
+            while (true) {
+                while (!finished && pending.size() < CHUNKS_IN_FLIGHT) {
+                    final List<String[]> chunk = reader.next();
+                    if (chunk == null) {
+                        finished = true;
+                    } else {
+                        final int firstRow = rowCount;
+                        final List<Future<TranslatedChunk>> translations = new ArrayList<>(importers.size());
+                        for (int i = 0; i < importers.size(); i++) {
+                            final DefinitionImporter importer = importers.get(i);
+                            final CompletableFuture<TranslatedChunk> translation = latest.get(i).thenApplyAsync(previous -> importer.translate(chunk, firstRow), workers);
+                            latest.set(i, translation);
+                            translations.add(translation);
+                        }
+                        pending.add(translations);
+                        rowCount += chunk.size();
+                    }
+                }
+
+                final List<Future<TranslatedChunk>> translations = pending.poll();
+                if (translations == null) {
+                    return rowCount;
+                }
+
+                int chunkSize = 0;
+                for (int i = 0; i < importers.size(); i++) {
+                    final TranslatedChunk chunk = getTranslation(translations.get(i));
+                    importers.get(i).write(graph, chunk);
+                    chunkSize = chunk.size();
+                }
+                writtenRows += chunkSize;
+                interaction.setProgress(writtenRows, 0, "Importing: " + source + " (" + writtenRows + " rows)", true);
+            }
+        } finally {
+            for (final List<Future<TranslatedChunk>> translations : pending) {
+                translations.forEach(translation -> translation.cancel(true));
+            }
+        }
     }
 
-    private static Map<String, Integer> processDestinationVertices(final ImportDefinition definition, final GraphWriteMethods graph, final List<String[]> data, final boolean initialiseWithSchema,
-            final boolean skipInvalidRows, final PluginInteraction interaction, final String source) throws InterruptedException, PluginException {
-        return processVertices(definition, graph, data, AttributeType.DESTINATION_VERTEX, initialiseWithSchema, skipInvalidRows, interaction, source);
+    private static TranslatedChunk getTranslation(final Future<TranslatedChunk> translation) throws InterruptedException {
+        try {
+            return translation.get();
+        } catch (final ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
     }
 
-    private static Map<String, Integer> processVertices(final ImportDefinition definition, final GraphWriteMethods graph, final List<String[]> data, final AttributeType attributeType,
-            final boolean initialiseWithSchema, final boolean skipInvalidRows, final PluginInteraction interaction, final String source) throws InterruptedException, PluginException {
-        final List<ImportAttributeDefinition> attributeDefinitions = definition.getDefinitions(attributeType);
+    /**
+     * The values of a chunk of rows translated by a {@link DefinitionImporter},
+     * ready to be set on the graph.
+     */
+    private static final class TranslatedChunk {
+
+        private final int firstRow;
+        private final int size;
+        private final boolean[] included;
+        private final boolean[] directed;
+        private final String[][] values;
+        private final RuntimeException[] errors;
+
+        private TranslatedChunk(final int firstRow, final int size) {
+            this.firstRow = firstRow;
+            this.size = size;
+            this.included = new boolean[size];
+            this.directed = new boolean[size];
+            this.values = new String[size][];
+            this.errors = new RuntimeException[size];
+        }
 
-        addAttributes(graph, GraphElementType.VERTEX, attributeDefinitions);
+        private int size() {
+            return size;
+        }
+    }
 
-        int currentRow = 0;
-        int importedRows = 0;
-        int skippedRow = 0;
-        final Map<String, Integer> results = new HashMap<>();
-        final int totalRows = data.size() - definition.getFirstRow();
+    /**
+     * Imports rows using a single {@link ImportDefinition}. Rows with both
+     * source and destination vertex definitions create transactions; rows with
+     * only one of them create vertices.
+     * <p>
+     * Translating rows has no effect on the graph and may happen on any
+     * thread, but only one chunk may be translated at a time, and chunks must
+     * be written in order from the thread that owns the graph.
+     */
+    private static final class DefinitionImporter {
 
-        final RowFilter filter = definition.getRowFilter();
+        private final ImportDefinition definition;
+        private final boolean initialiseWithSchema;
+        private final boolean skipInvalidRows;
+        private final RowFilter filter;
 
-        for (int i = definition.getFirstRow(); i < data.size(); i++) {
-            interaction.setProgress(++currentRow, totalRows, "Importing Vertices: " + source, true);
+        private final boolean transactions;
+        private final int directedIx;
 
-            final String[] row = data.get(i);
-            int vertexId = -1;
+        // The definitions that provide values, in the order their values are translated, and the elements they apply to.
+        private final List<ImportAttributeDefinition> translatedDefinitions = new ArrayList<>();
+        private final List<AttributeType> translatedTypes = new ArrayList<>();
 
-            try {
+        private int importedRows = 0;
+        private int skippedRows = 0;
 
-                if (filter == null || filter.passesFilter(i - 1, row)) {
+        private DefinitionImporter(final ImportDefinition definition, final GraphWriteMethods graph, final boolean initialiseWithSchema, final boolean skipInvalidRows) {
+            this.definition = definition;
+            this.initialiseWithSchema = initialiseWithSchema;
+            this.skipInvalidRows = skipInvalidRows;
+            this.filter = definition.getRowFilter();
 
-                    vertexId = graph.addVertex();
-                    for (final ImportAttributeDefinition attributeDefinition : attributeDefinitions) {
-                        attributeDefinition.setValue(graph, vertexId, row, (i - 1));
-                    }
+            final List<ImportAttributeDefinition> sourceVertexDefinitions = definition.getDefinitions(AttributeType.SOURCE_VERTEX);
+            final List<ImportAttributeDefinition> destinationVertexDefinitions = definition.getDefinitions(AttributeType.DESTINATION_VERTEX);
+            final List<ImportAttributeDefinition> transactionDefinitions = definition.getDefinitions(AttributeType.TRANSACTION);
 
-                    if (initialiseWithSchema && graph.getSchema() != null) {
-                        graph.getSchema().completeVertex(graph, vertexId);
-                    }
+            if (sourceVertexDefinitions.isEmpty() || destinationVertexDefinitions.isEmpty()) {
+                // Only one of source and destination vertices are mapped, so each row creates a vertex.
+                transactions = false;
+                final List<ImportAttributeDefinition> vertexDefinitions = sourceVertexDefinitions.isEmpty() ? destinationVertexDefinitions : sourceVertexDefinitions;
+                addAttributes(graph, GraphElementType.VERTEX, vertexDefinitions);
+                directedIx = ImportConstants.ATTRIBUTE_NOT_ASSIGNED_TO_COLUMN;
 
-                    // Count the number of processed rows to notify in the status message
-                    ++importedRows;
+                addTranslatedDefinitions(vertexDefinitions, AttributeType.SOURCE_VERTEX);
+            } else {
+                transactions = true;
 
-                }
-            } catch (final DateTimeException | IllegalArgumentException | SecurityException ex) {
-                if (skipInvalidRows) {
-                    if (vertexId != -1) {
-                        graph.removeVertex(vertexId);
+                int directedColumn = ImportConstants.ATTRIBUTE_NOT_ASSIGNED_TO_COLUMN;
+                for (int i = 0; i < transactionDefinitions.size(); i++) {
+                    if (transactionDefinitions.get(i).getAttribute().getName().equals(DelimitedImportController.DIRECTED)) {
+                        directedColumn = transactionDefinitions.get(i).getColumnIndex();
+                        break;
                     }
-                    ++skippedRow;
-                } else {
-                    final PluginException plugEx = new PluginException(PluginNotificationLevel.ERROR, "Unable to complete import due to error with data. " + ex.getMessage() + ". The file can be imported if you select the Skip Invalid Rows checkbox next to the Import button.");
-                    plugEx.setStackTrace(ex.getStackTrace());
-                    throw plugEx;
                 }
-            }
-        }
-        results.put(IMPORTED_ROWS, importedRows);
-        results.put(SKIPPED_ROWS, skippedRow);
-        return results;
-    }
+                directedIx = directedColumn;
 
-    private static Map<String, Integer> processTransactions(final ImportDefinition definition, final GraphWriteMethods graph, final List<String[]> data, final boolean initialiseWithSchema, final boolean skipInvalidRows, final PluginInteraction interaction, final String source) throws InterruptedException, PluginException {
-        final List<ImportAttributeDefinition> sourceVertexDefinitions = definition.getDefinitions(AttributeType.SOURCE_VERTEX);
-        final List<ImportAttributeDefinition> destinationVertexDefinitions = definition.getDefinitions(AttributeType.DESTINATION_VERTEX);
-        final List<ImportAttributeDefinition> transactionDefinitions = definition.getDefinitions(AttributeType.TRANSACTION);
+                addAttributes(graph, GraphElementType.VERTEX, sourceVertexDefinitions);
+                addAttributes(graph, GraphElementType.VERTEX, destinationVertexDefinitions);
+                addAttributes(graph, GraphElementType.TRANSACTION, transactionDefinitions);
 
-        int directedIx = ImportConstants.ATTRIBUTE_NOT_ASSIGNED_TO_COLUMN;
-        for (int i = 0; i < transactionDefinitions.size(); i++) {
-            if (transactionDefinitions.get(i).getAttribute().getName().equals(DelimitedImportController.DIRECTED)) {
-                directedIx = transactionDefinitions.get(i).getColumnIndex();
-                break;
+                addTranslatedDefinitions(transactionDefinitions, AttributeType.TRANSACTION);
+                addTranslatedDefinitions(destinationVertexDefinitions, AttributeType.DESTINATION_VERTEX);
+                addTranslatedDefinitions(sourceVertexDefinitions, AttributeType.SOURCE_VERTEX);
             }
         }
 
-        addAttributes(graph, GraphElementType.VERTEX, sourceVertexDefinitions);
-        addAttributes(graph, GraphElementType.VERTEX, destinationVertexDefinitions);
-        addAttributes(graph, GraphElementType.TRANSACTION, transactionDefinitions);
+        private void addTranslatedDefinitions(final List<ImportAttributeDefinition> attributeDefinitions, final AttributeType attributeType) {
+            for (final ImportAttributeDefinition attributeDefinition : attributeDefinitions) {
+                // Transaction attributes are only set if they exist on the graph.
+                if (attributeDefinition.providesValue()
+                        && (attributeType != AttributeType.TRANSACTION || attributeDefinition.getOverriddenAttributeId() != Graph.NOT_FOUND)) {
+                    translatedDefinitions.add(attributeDefinition);
+                    translatedTypes.add(attributeType);
+                }
+            }
+        }
 
-        int currentRow = 0;
-        int importedRows = 0;
-        int skippedRow = 0;
-        final Map<String, Integer> results = new HashMap<>();
-        final int totalRows = data.size() - definition.getFirstRow();
+        /**
+         * Filters and translates a chunk of rows.
+         *
+         * @param rows the rows to translate.
+         * @param firstRow the index of the first row in the file.
+         * @return the translated values.
+         */
+        private TranslatedChunk translate(final List<String[]> rows, final int firstRow) {
+            final TranslatedChunk chunk = new TranslatedChunk(firstRow, rows.size());
+            for (int r = 0; r < rows.size(); r++) {
+                final int i = firstRow + r;
+                if (i < definition.getFirstRow()) {
+                    continue;
+                }
 
-        final RowFilter filter = definition.getRowFilter();
+                final String[] row = rows.get(r);
+                if (filter != null) {
+                    // The filter script engine is not thread safe.
+                    synchronized (filter) {
+                        if (!filter.passesFilter(i - 1, row)) {
+                            continue;
+                        }
+                    }
+                }
+                chunk.included[r] = true;
+                chunk.directed[r] = directedIx == ImportConstants.ATTRIBUTE_NOT_ASSIGNED_TO_COLUMN || Boolean.parseBoolean(row[directedIx]);
 
-        for (int i = definition.getFirstRow(); i < data.size(); i++) {
-            interaction.setProgress(++currentRow, totalRows, "Importing Transactions: " + source, true);
+                try {
+                    final String[] values = new String[translatedDefinitions.size()];
+                    for (int d = 0; d < values.length; d++) {
+                        values[d] = translatedDefinitions.get(d).translateValue(row, i - 1);
+                    }
+                    chunk.values[r] = values;
+                } catch (final DateTimeException | IllegalArgumentException | SecurityException ex) {
+                    chunk.errors[r] = ex;
+                }
+            }
+            return chunk;
+        }
 
-            final String[] row = data.get(i);
+        /**
+         * Writes a translated chunk of rows to the graph.
+         *
+         * @param graph the graph to write to.
+         * @param chunk the translated rows.
+         * @throws PluginException if a row is invalid and invalid rows are not
+         * being skipped.
+         */
+        private void write(final GraphWriteMethods graph, final TranslatedChunk chunk) throws PluginException {
+            for (int r = 0; r < chunk.size(); r++) {
+                if (chunk.included[r]) {
+                    if (transactions) {
+                        writeTransaction(graph, chunk, r);
+                    } else {
+                        writeVertex(graph, chunk, r);
+                    }
+                }
+            }
+        }
 
-            if (filter == null || filter.passesFilter(i - 1, row)) {
+        private void writeVertex(final GraphWriteMethods graph, final TranslatedChunk chunk, final int r) throws PluginException {
+            int vertexId = -1;
+            try {
+                if (chunk.errors[r] != null) {
+                    throw chunk.errors[r];
+                }
 
-                final int sourceVertexId = graph.addVertex();
-                final int destinationVertexId = graph.addVertex();
+                vertexId = graph.addVertex();
+                final String[] values = chunk.values[r];
+                for (int d = 0; d < values.length; d++) {
+                    graph.setStringValue(translatedDefinitions.get(d).getOverriddenAttributeId(), vertexId, values[d]);
+                }
 
-                final boolean isDirected = directedIx == ImportConstants.ATTRIBUTE_NOT_ASSIGNED_TO_COLUMN || Boolean.parseBoolean(row[directedIx]);
-                final int transactionId = graph.addTransaction(sourceVertexId, destinationVertexId, isDirected);
+                if (initialiseWithSchema && graph.getSchema() != null) {
+                    graph.getSchema().completeVertex(graph, vertexId);
+                }
 
-                try {
-                    for (final ImportAttributeDefinition attributeDefinition : transactionDefinitions) {
-                        if (attributeDefinition.getOverriddenAttributeId() != Graph.NOT_FOUND) {
-                            attributeDefinition.setValue(graph, transactionId, row, (i - 1));
-                        }
+                // Count the number of processed rows to notify in the status message
+                ++importedRows;
+            } catch (final DateTimeException | IllegalArgumentException | SecurityException ex) {
+                if (skipInvalidRows) {
+                    if (vertexId != -1) {
+                        graph.removeVertex(vertexId);
                     }
+                    ++skippedRows;
+                } else {
+                    throw createImportException(ex);
+                }
+            }
+        }
 
-                    for (final ImportAttributeDefinition attributeDefinition : destinationVertexDefinitions) {
-                        attributeDefinition.setValue(graph, destinationVertexId, row, (i - 1));
-                    }
+        private void writeTransaction(final GraphWriteMethods graph, final TranslatedChunk chunk, final int r) throws PluginException {
+            final int sourceVertexId = graph.addVertex();
+            final int destinationVertexId = graph.addVertex();
+            final int transactionId = graph.addTransaction(sourceVertexId, destinationVertexId, chunk.directed[r]);
 
-                    for (final ImportAttributeDefinition attributeDefinition : sourceVertexDefinitions) {
-                        attributeDefinition.setValue(graph, sourceVertexId, row, (i - 1));
-                    }
-                    if (initialiseWithSchema && graph.getSchema() != null) {
-                        graph.getSchema().completeVertex(graph, sourceVertexId);
-                        graph.getSchema().completeVertex(graph, destinationVertexId);
-                        graph.getSchema().completeTransaction(graph, transactionId);
+            try {
+                if (chunk.errors[r] != null) {
+                    throw chunk.errors[r];
+                }
+
+                final String[] values = chunk.values[r];
+                for (int d = 0; d < values.length; d++) {
+                    final int elementId;
+                    switch (translatedTypes.get(d)) {
+                        case TRANSACTION:
+                            elementId = transactionId;
+                            break;
+                        case DESTINATION_VERTEX:
+                            elementId = destinationVertexId;
+                            break;
+                        default:
+                            elementId = sourceVertexId;
+                            break;
                     }
+                    graph.setStringValue(translatedDefinitions.get(d).getOverriddenAttributeId(), elementId, values[d]);
+                }
 
-                    // Count the number of processed rows to notify in the status message
-                    ++importedRows;
+                if (initialiseWithSchema && graph.getSchema() != null) {
+                    graph.getSchema().completeVertex(graph, sourceVertexId);
+                    graph.getSchema().completeVertex(graph, destinationVertexId);
+                    graph.getSchema().completeTransaction(graph, transactionId);
+                }
 
-                } catch (final DateTimeException | IllegalArgumentException | SecurityException ex) {
-                    if (skipInvalidRows) {
-                        graph.removeTransaction(transactionId);
-                        graph.removeVertex(sourceVertexId);
-                        graph.removeVertex(destinationVertexId);
-                        ++skippedRow;
-                    } else {
-                        final PluginException plugEx = new PluginException(PluginNotificationLevel.ERROR, "Unable to complete import due to error with data. " + ex.getMessage() + ". The file can be imported if you select the Skip Invalid Rows checkbox next to the Import button.");
-                        plugEx.setStackTrace(ex.getStackTrace());
-                        throw plugEx;
-                    }
+                // Count the number of processed rows to notify in the status message
+                ++importedRows;
+
+            } catch (final DateTimeException | IllegalArgumentException | SecurityException ex) {
+                if (skipInvalidRows) {
+                    graph.removeTransaction(transactionId);
+                    graph.removeVertex(sourceVertexId);
+                    graph.removeVertex(destinationVertexId);
+                    ++skippedRows;
+                } else {
+                    throw createImportException(ex);
                 }
             }
-
         }
+    }
 
-        results.put(IMPORTED_ROWS, importedRows);
-        results.put(SKIPPED_ROWS, skippedRow);
-
-        return results;
+    private static PluginException createImportException(final RuntimeException ex) {
+        final PluginException plugEx = new PluginException(PluginNotificationLevel.ERROR, "Unable to complete import due to error with data. " + ex.getMessage() + ". The file can be imported if you select the Skip Invalid Rows checkbox next to the Import button.");
+        plugEx.setStackTrace(ex.getStackTrace());
+        return plugEx;
     }
 
     /**
@@ -20,9 +20,12 @@ import au.gov.asd.tac.constellation.utilities.file.FileExtensionConstants;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import javax.swing.filechooser.FileFilter;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
@@ -66,6 +69,28 @@ public class CSVImportFileParser extends ImportFileParser {
         return results;
     }
 
+    @Override
+    public Stream<String[]> stream(final InputSource input, final PluginParameters parameters) throws IOException {
+        final CSVParser csvFileParser = getCSVParser(input);
+        return StreamSupport.stream(csvFileParser.spliterator(), false)
+                .map(csvRecord -> {
+                    final String[] line = new String[csvRecord.size()];
+
+                    for (int i = 0; i < csvRecord.size(); i++) {
+                        line[i] = csvRecord.get(i);
+                    }
+
+                    return line;
+                })
+                .onClose(() -> {
+                    try {
+                        csvFileParser.close();
+                    } catch (final IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+    }
+
     @Override
     public List<String[]> preview(final InputSource input, final PluginParameters parameters, final int limit) throws IOException {
         // Leave the header on, as the importer expects this as the first entry.
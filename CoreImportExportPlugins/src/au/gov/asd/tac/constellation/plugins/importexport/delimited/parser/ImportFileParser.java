@@ -19,11 +19,13 @@ import au.gov.asd.tac.constellation.plugins.importexport.RefreshRequest;
 import au.gov.asd.tac.constellation.plugins.parameters.PluginParameter;
 import au.gov.asd.tac.constellation.plugins.parameters.PluginParameters;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 import javax.swing.filechooser.FileFilter;
 import org.openide.util.Lookup;
 import org.openide.util.lookup.ServiceProvider;
@@ -157,6 +159,26 @@ public abstract class ImportFileParser {
      */
     public abstract List<String[]> parse(final InputSource input, final PluginParameters parameters) throws IOException;
 
+    /**
+     * Returns a Stream of String arrays, each of which represents a row in the
+     * resulting table, that reads the file as the rows are consumed.
+     * <p>
+     * Unlike {@link #parse}, parsers that override this method never hold more
+     * than a few rows of the file in memory, so very large files can be
+     * imported. The default implementation parses the entire file. The stream
+     * must be closed once it is no longer needed, and may throw an
+     * {@link UncheckedIOException} if an error occurs while reading.
+     *
+     * @param input Input file
+     * @param parameters the parameters that configure the parse operation.
+     * @return a Stream of String arrays, each of which represents a row in the
+     * resulting table.
+     * @throws IOException if an error occurred while opening the file.
+     */
+    public Stream<String[]> stream(final InputSource input, final PluginParameters parameters) throws IOException {
+        return parse(input, parameters).stream();
+    }
+
     /**
      * Reads only {@code limit} lines and returns a List of String arrays, each
      * of which represents a row in the resulting table.
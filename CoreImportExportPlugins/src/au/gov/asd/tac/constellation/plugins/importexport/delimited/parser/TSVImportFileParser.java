@@ -23,9 +23,11 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 import javax.swing.filechooser.FileFilter;
 import org.apache.commons.lang3.StringUtils;
 import org.openide.util.lookup.ServiceProvider;
@@ -59,6 +61,20 @@ public class TSVImportFileParser extends ImportFileParser {
         return result;
     }
 
+    @Override
+    public Stream<String[]> stream(final InputSource input, final PluginParameters parameters) throws IOException {
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(input.getInputStream(), StandardCharsets.UTF_8.name()));
+        return reader.lines()
+                .map(line -> line.split(SeparatorConstants.TAB, -1))
+                .onClose(() -> {
+                    try {
+                        reader.close();
+                    } catch (final IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+    }
+
     @Override
     public List<String[]> preview(final InputSource input, final PluginParameters parameters, final int limit) throws IOException {
         final List<String[]> result = new ArrayList<>();
@@ -47,6 +47,7 @@ import au.gov.asd.tac.constellation.plugins.parameters.types.StringParameterType
 import au.gov.asd.tac.constellation.plugins.parameters.types.StringParameterValue;
 import au.gov.asd.tac.constellation.plugins.templates.PluginTags;
 import au.gov.asd.tac.constellation.plugins.templates.SimpleEditPlugin;
+import au.gov.asd.tac.constellation.preferences.ApplicationPreferenceKeys;
 import au.gov.asd.tac.constellation.utilities.color.ConstellationColor;
 import au.gov.asd.tac.constellation.utilities.icon.UserInterfaceIconProvider;
 import java.lang.reflect.InvocationTargetException;
@@ -60,6 +61,7 @@ import java.util.List;
 import javafx.application.Platform;
 import org.openide.awt.NotificationDisplayer;
 import org.openide.util.NbBundle;
+import org.openide.util.NbPreferences;
 import org.openide.util.lookup.ServiceProvider;
 
 @ServiceProvider(service = Plugin.class)
@@ -113,6 +115,11 @@ public class ImportJDBCPlugin extends SimpleEditPlugin {
         return params;
     }
 
+    @Override
+    protected boolean isUndoRecorded() {
+        return NbPreferences.forModule(ApplicationPreferenceKeys.class).getBoolean(ApplicationPreferenceKeys.UNDO_RECORD_IMPORTS, ApplicationPreferenceKeys.UNDO_RECORD_IMPORTS_DEFAULT);
+    }
+
     @Override
     protected void edit(final GraphWriteMethods graph, final PluginInteraction interaction, final PluginParameters parameters) throws InterruptedException, PluginException {
         final JDBCConnection connection = (JDBCConnection) parameters.getParameters().get(CONNECTION_PARAMETER_ID).getObjectValue();
@@ -80,8 +80,9 @@ public class ScriptAttributeTranslator extends AttributeTranslator {
         return params;
     }
 
+    // The same translator is shared by every import definition, and the compiled script and its bindings are not thread safe.
     @Override
-    public String translate(final String value, final PluginParameters parameters) {
+    public synchronized String translate(final String value, final PluginParameters parameters) {
 
         // Get the reqiested language and scripte
         final String script = parameters.getParameters().get(SCRIPT_PARAMETER_ID).getStringValue();
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.plugins.importexport.delimited;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Import Chunk Reader Test.
+ *
+ * @author sirius
+ */
+public class ImportChunkReaderNGTest {
+
+    private ExecutorService executor;
+
+    public ImportChunkReaderNGTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+    }
+
+    @BeforeMethod
+    public void setUpMethod() throws Exception {
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterMethod
+    public void tearDownMethod() throws Exception {
+        executor.shutdownNow();
+    }
+
+    /**
+     * An iterator over numbered rows that counts how many have been read.
+     */
+    private static Iterator<String[]> rows(final int count, final AtomicInteger read) {
+        return new Iterator<String[]>() {
+            @Override
+            public boolean hasNext() {
+                return read.get() < count;
+            }
+
+            @Override
+            public String[] next() {
+                return new String[]{Integer.toString(read.getAndIncrement())};
+            }
+        };
+    }
+
+    /**
+     * Test of next method, of class ImportChunkReader.
+     *
+     * @throws InterruptedException
+     * @throws IOException
+     */
+    @Test
+    public void testNext() throws InterruptedException, IOException {
+        final AtomicInteger read = new AtomicInteger();
+        final List<Integer> sizes = new ArrayList<>();
+        int expected = 0;
+        try (final ImportChunkReader reader = new ImportChunkReader(rows(25, read), 10, 2, executor)) {
+            List<String[]> chunk;
+            while ((chunk = reader.next()) != null) {
+                sizes.add(chunk.size());
+                for (final String[] row : chunk) {
+                    assertEquals(row[0], Integer.toString(expected++));
+                }
+            }
+            assertNull(reader.next());
+        }
+        assertEquals(sizes, List.of(10, 10, 5));
+        assertEquals(expected, 25);
+    }
+
+    /**
+     * The reader should stop reading once its buffer is full.
+     *
+     * @throws InterruptedException
+     * @throws IOException
+     */
+    @Test
+    public void testBoundedReadAhead() throws InterruptedException, IOException {
+        final AtomicInteger read = new AtomicInteger();
+        try (final ImportChunkReader reader = new ImportChunkReader(rows(1000000, read), 10, 2, executor)) {
+            reader.next();
+            Thread.sleep(200);
+            // One chunk taken, two buffered and at most one being filled.
+            assertTrue(read.get() <= 40, "read " + read.get());
+        }
+    }
+
+    /**
+     * IO errors from the parser should be reported by next.
+     *
+     * @throws InterruptedException
+     * @throws IOException
+     */
+    @Test(expectedExceptions = IOException.class)
+    public void testReadError() throws InterruptedException, IOException {
+        final Iterator<String[]> failing = new Iterator<String[]>() {
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public String[] next() {
+                throw new UncheckedIOException(new IOException("Read failed"));
+            }
+        };
+        try (final ImportChunkReader reader = new ImportChunkReader(failing, 10, 2, executor)) {
+            reader.next();
+        }
+    }
+}
@@ -17,13 +17,17 @@ package au.gov.asd.tac.constellation.plugins.importexport.delimited.parser;
 
 import au.gov.asd.tac.constellation.plugins.parameters.PluginParameters;
 import au.gov.asd.tac.constellation.utilities.file.FileExtensionConstants;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.security.SecureRandom;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import javax.swing.filechooser.FileFilter;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
@@ -211,4 +215,24 @@ public class CSVImportFileParserNGTest {
         Files.deleteIfExists(file1.toPath());
         Files.deleteIfExists(file3.toPath());
     }
+
+    /**
+     * Test of stream method, of class CSVImportFileParser.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testStream() throws IOException {
+        System.out.println("testStream");
+
+        final CSVImportFileParser instance = new CSVImportFileParser();
+        final InputSource input = new InputSource(new ByteArrayInputStream("a,b\n1,2\n".getBytes(StandardCharsets.UTF_8)));
+
+        try (final Stream<String[]> rows = instance.stream(input, pluginParametersMock)) {
+            final List<String[]> result = rows.collect(Collectors.toList());
+            assertEquals(result.size(), 2);
+            assertEquals(result.get(0), new String[]{"a", "b"});
+            assertEquals(result.get(1), new String[]{"1", "2"});
+        }
+    }
 }
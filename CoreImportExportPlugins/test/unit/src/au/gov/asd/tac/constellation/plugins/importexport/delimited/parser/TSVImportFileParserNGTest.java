@@ -16,9 +16,14 @@
 package au.gov.asd.tac.constellation.plugins.importexport.delimited.parser;
 
 import au.gov.asd.tac.constellation.utilities.file.FileExtensionConstants;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import javax.swing.filechooser.FileFilter;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
@@ -93,4 +98,24 @@ public class TSVImportFileParserNGTest {
         Files.deleteIfExists(file1.toPath());
         Files.deleteIfExists(file3.toPath());
     }
+
+    /**
+     * Test of stream method, of class TSVImportFileParser.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testStream() throws IOException {
+        System.out.println("testStream");
+
+        final TSVImportFileParser instance = new TSVImportFileParser();
+        final InputSource input = new InputSource(new ByteArrayInputStream("a\tb\n1\t\n".getBytes(StandardCharsets.UTF_8)));
+
+        try (final Stream<String[]> rows = instance.stream(input, null)) {
+            final List<String[]> result = rows.collect(Collectors.toList());
+            assertEquals(result.size(), 2);
+            assertEquals(result.get(0), new String[]{"a", "b"});
+            assertEquals(result.get(1), new String[]{"1", ""});
+        }
+    }
 }
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.plugins.importexport.translator;
+
+import au.gov.asd.tac.constellation.plugins.parameters.PluginParameters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import static org.testng.Assert.assertEquals;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Script Attribute Translator Test.
+ *
+ * @author sirius
+ */
+public class ScriptAttributeTranslatorNGTest {
+
+    public ScriptAttributeTranslatorNGTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+    }
+
+    @BeforeMethod
+    public void setUpMethod() throws Exception {
+    }
+
+    @AfterMethod
+    public void tearDownMethod() throws Exception {
+    }
+
+    /**
+     * The delimited import translates chunks of rows on several threads at
+     * once with the same translator, so every value should come back
+     * translated from itself and not from a value on another thread.
+     *
+     * @throws Exception
+     */
+    @Test(timeOut = 60000)
+    public void testTranslateConcurrently() throws Exception {
+        final ScriptAttributeTranslator translator = new ScriptAttributeTranslator();
+        final PluginParameters parameters = translator.createParameters();
+        parameters.getParameters().get(ScriptAttributeTranslator.SCRIPT_PARAMETER_ID).setStringValue("value = value + \"!\"");
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<List<String>>> results = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                final int first = thread * 1000;
+                results.add(executor.submit(() -> {
+                    final List<String> translated = new ArrayList<>();
+                    for (int i = first; i < first + 1000; i++) {
+                        translated.add(translator.translate(Integer.toString(i), parameters));
+                    }
+                    return translated;
+                }));
+            }
+
+            for (int thread = 0; thread < results.size(); thread++) {
+                final List<String> translated = results.get(thread).get();
+                for (int i = 0; i < translated.size(); i++) {
+                    assertEquals(translated.get(i), (thread * 1000 + i) + "!");
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -19,6 +19,8 @@ import au.gov.asd.tac.constellation.graph.Graph;
 import au.gov.asd.tac.constellation.graph.attribute.ZonedDateTimeAttributeDescription;
 import au.gov.asd.tac.constellation.graph.file.GraphDataObject;
 import au.gov.asd.tac.constellation.graph.file.GraphObjectUtilities;
+import au.gov.asd.tac.constellation.graph.file.io.GraphBinaryJournal;
+import au.gov.asd.tac.constellation.graph.file.io.GraphBinaryReader;
 import au.gov.asd.tac.constellation.graph.file.io.GraphJsonReader;
 import au.gov.asd.tac.constellation.graph.file.io.GraphParseException;
 import au.gov.asd.tac.constellation.graph.file.opener.GraphOpener;
@@ -121,6 +123,9 @@ public final class VisualGraphOpener extends GraphOpener {
                         // Backup the current actual file and replace it with the autosave file.
                         final File autosaved = new File(AutosaveUtilities.getAutosaveDir(), props.getProperty(AutosaveUtilities.ID) + FileExtensionConstants.STAR);
                         try {
+                            // Replay the autosave journal, keeping the format the file was saved in.
+                            GraphBinaryJournal.compact(autosaved, GraphBinaryReader.isBinaryGraph(f), new HandleIoProgress(String.format("Recovering %s...", f.getName())));
+
                             // make temp copy of any backup file that exists to try if we find both autosave and main file are corrupt
                             final File toBak = new File(f.getPath() + FileExtensionConstants.BACKUP);
                             if (toBak.exists()) {
@@ -136,7 +141,7 @@ public final class VisualGraphOpener extends GraphOpener {
                                 AutosaveUtilities.copyFile(autosaved, f);
                             }
                             
-                        } catch (final IOException ex) {
+                        } catch (final IOException | GraphParseException ex) {
                             LOGGER.log(Level.WARNING, "Copying autosaved file", ex);
                         }
                     }
@@ -22,6 +22,7 @@ import au.gov.asd.tac.constellation.graph.ReadableGraph;
 import au.gov.asd.tac.constellation.graph.file.GraphDataObject;
 import au.gov.asd.tac.constellation.graph.file.GraphObjectUtilities;
 import au.gov.asd.tac.constellation.graph.file.SaveNotification;
+import au.gov.asd.tac.constellation.graph.file.io.GraphBinaryWriter;
 import au.gov.asd.tac.constellation.graph.file.io.GraphJsonWriter;
 import au.gov.asd.tac.constellation.graph.file.nebula.NebulaDataObject;
 import au.gov.asd.tac.constellation.graph.file.save.AutosaveUtilities;
@@ -987,6 +988,7 @@ public final class VisualGraphTopComponent extends CloneableTopComponent impleme
             // Create a new file and write to it.
             final String tmpnam = String.format("%s_tmp%08x", name, gdo.hashCode());
             final GraphDataObject freshGdo = (GraphDataObject) gdo.createFromTemplate(gdo.getFolder(), tmpnam);
+            freshGdo.setBinaryFormat(gdo.isBinaryFormat());
             final BackgroundWriter writer = new BackgroundWriter(name, freshGdo, true);
             writer.execute();
             isSaved = true;
@@ -1062,6 +1064,7 @@ public final class VisualGraphTopComponent extends CloneableTopComponent impleme
             final File newFile = new File(folder.getPath(), name + ext);
             final FileObject fo = FileUtil.createData(newFile);
             final GraphDataObject freshGdo = (GraphDataObject) DataObject.find(fo);
+            freshGdo.setBinaryFormat(graphNode.getDataObject().isBinaryFormat());
             final BackgroundWriter writer = new BackgroundWriter(name, freshGdo, false);
             writer.execute();
         }
@@ -1131,8 +1134,12 @@ public final class VisualGraphTopComponent extends CloneableTopComponent impleme
                 }
 
                 try (OutputStream out = new BufferedOutputStream(freshGdo.getPrimaryFile().getOutputStream())) {
-                    // Write the graph.
-                    cancelled = new GraphJsonWriter().writeGraphToZip(copy, out, new HandleIoProgress("Writing..."));
+                    // Write the graph in the format chosen for its file.
+                    if (freshGdo.isBinaryFormat()) {
+                        cancelled = new GraphBinaryWriter().writeGraphToZip(copy, out, new HandleIoProgress("Writing..."));
+                    } else {
+                        cancelled = new GraphJsonWriter().writeGraphToZip(copy, out, new HandleIoProgress("Writing..."));
+                    }
                 }
                 SaveNotification.saved(freshGdo.getPrimaryFile().getPath());
             } catch (final Exception ex) {
@@ -16,9 +16,8 @@
 package au.gov.asd.tac.constellation.graph.interaction.plugins.io;
 
 import au.gov.asd.tac.constellation.graph.Graph;
-import au.gov.asd.tac.constellation.graph.GraphReadMethods;
 import au.gov.asd.tac.constellation.graph.ReadableGraph;
-import au.gov.asd.tac.constellation.graph.file.io.GraphJsonWriter;
+import au.gov.asd.tac.constellation.graph.file.io.GraphBinaryJournal;
 import au.gov.asd.tac.constellation.graph.file.save.AutosaveUtilities;
 import au.gov.asd.tac.constellation.graph.node.GraphNode;
 import au.gov.asd.tac.constellation.graph.processing.GraphRecordStoreUtilities;
@@ -53,6 +52,12 @@ import org.openide.util.lookup.ServiceProvider;
  * Autosave a single graph.
  * <p>
  * The caller has to go through the graphs and pass them one by one.
+ * <p>
+ * Autosaves are incremental: the graph's {@link GraphBinaryJournal} appends
+ * the elements, attribute definitions and attribute values that have changed
+ * to a journal beside a snapshot, and only writes a full snapshot when the
+ * journal grows too long. A graph whose generation counters have not moved
+ * since the last autosave is not read again.
  *
  * @author algol
  */
@@ -74,32 +79,35 @@ public final class AutosaveGraphPlugin extends SimplePlugin {
 
             interaction.setProgress(-1, -1, "Autosaving: " + graphId, true);
 
-            // We don't want to hold the user up while we're reading from a graph they might be using.
-            // Make a copy of the graph so that we can release the read lock as soon as possible.
-            GraphReadMethods copy;
-            ReadableGraph rg = graph.getReadableGraph();
-            try {
-                copy = rg.copy();
-            } finally {
-                rg.release();
-            }
-
-            interaction.setProgress(1, 0, "Finished", true);
-
             final File saveDir = AutosaveUtilities.getAutosaveDir();
 
             try {
                 final String gname = graph.getId() + FileExtensionConstants.STAR;
                 StatusDisplayer.getDefault().setStatusText(String.format("Auto saving %s as %s at %s...", graphId, gname, new Date()));
                 final File saveFile = new File(saveDir, gname);
-                new GraphJsonWriter().writeGraphToZip(copy, saveFile.getPath(), new HandleIoProgress("Autosaving..."));
 
-                ConstellationLoggerHelper.exportPropertyBuilder(
-                        this,
-                        GraphRecordStoreUtilities.getVertices(copy, false, false, false).getAll(GraphRecordStoreUtilities.SOURCE + VisualConcept.VertexAttribute.LABEL),
-                        saveFile,
-                        ConstellationLoggerHelper.SUCCESS
-                );
+                // The journal only holds the read lock while it encodes the changes since the last autosave, or writes a snapshot.
+                final GraphBinaryJournal journal = AutosaveUtilities.getJournal(graphId);
+                final int segmentCount = journal.getSegmentCount();
+                final boolean snapshotWritten = journal.checkpoint(graph, new HandleIoProgress("Autosaving..."));
+
+                interaction.setProgress(1, 0, "Finished", true);
+
+                // The journal compares the generation counters of the graph, so if it found nothing to write
+                // the graph has not changed since the last autosave and its vertices don't need to be read again.
+                if (snapshotWritten || journal.getSegmentCount() != segmentCount) {
+                    final ReadableGraph rg = graph.getReadableGraph();
+                    try {
+                        ConstellationLoggerHelper.exportPropertyBuilder(
+                                this,
+                                GraphRecordStoreUtilities.getVertices(rg, false, false, false).getAll(GraphRecordStoreUtilities.SOURCE + VisualConcept.VertexAttribute.LABEL),
+                                saveFile,
+                                ConstellationLoggerHelper.SUCCESS
+                        );
+                    } finally {
+                        rg.release();
+                    }
+                }
 
                 final Properties p = new Properties();
                 p.setProperty(AutosaveUtilities.ID, graph.getId());
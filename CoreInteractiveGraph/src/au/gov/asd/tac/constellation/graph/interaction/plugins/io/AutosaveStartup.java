@@ -16,7 +16,7 @@
 package au.gov.asd.tac.constellation.graph.interaction.plugins.io;
 
 import au.gov.asd.tac.constellation.graph.Graph;
-import au.gov.asd.tac.constellation.graph.file.io.GraphJsonReader;
+import au.gov.asd.tac.constellation.graph.file.io.GraphBinaryJournal;
 import au.gov.asd.tac.constellation.graph.file.io.GraphParseException;
 import au.gov.asd.tac.constellation.graph.file.opener.GraphOpener;
 import au.gov.asd.tac.constellation.graph.file.save.AutosaveUtilities;
@@ -84,10 +84,10 @@ public final class AutosaveStartup implements Runnable {
                                         setName(AUTOSAVE_THREAD_NAME);
                                         final String loading = String.format("Loading autosaved graph %s", name);
                                         try {
-                                            // Remove the "_auto" from the end and load the matching graph.
+                                            // Remove the "_auto" from the end and load the matching graph, replaying its journal.
                                             String path = f.getPath();
                                             path = path.substring(0, path.length() - 5);
-                                            final Graph g = new GraphJsonReader().readGraphZip(new File(path), new HandleIoProgress(loading));
+                                            final Graph g = GraphBinaryJournal.readGraph(new File(path), new HandleIoProgress(loading));
                                             GraphOpener.getDefault().openGraph(g, name, false);
 
                                             AutosaveUtilities.deleteAutosave(f);
@@ -59,6 +59,7 @@ package au.gov.asd.tac.constellation.graph.interaction.plugins.io;
  * made subject to such option by the copyright holder.
  */
 import au.gov.asd.tac.constellation.graph.Graph;
+import au.gov.asd.tac.constellation.graph.file.GraphDataObject;
 import au.gov.asd.tac.constellation.graph.interaction.plugins.io.screenshot.RecentGraphScreenshotUtilities;
 import au.gov.asd.tac.constellation.graph.node.GraphNode;
 import au.gov.asd.tac.constellation.utilities.file.FileExtensionConstants;
@@ -73,6 +74,7 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.swing.AbstractAction;
 import javax.swing.Action;
+import javax.swing.JCheckBox;
 import javax.swing.SwingUtilities;
 import javax.swing.filechooser.FileFilter;
 import org.apache.commons.lang3.StringUtils;
@@ -123,7 +125,9 @@ import org.openide.windows.WindowManager;
     "MSG_SaveAs_SameFileSelected_Title=Save Graph",
     "# {0} - file name",
     "MSG_SaveAs_FileInUse=The graph cannot be saved to {0}, since it is already in use by another graph.",
-    "MSG_SaveAs_FileInUse_Title=Save Graph"
+    "MSG_SaveAs_FileInUse_Title=Save Graph",
+    "MSG_SaveAs_BinaryFormat=Binary format",
+    "MSG_SaveAs_BinaryFormat_Tooltip=Save the graph in a compact binary format that is faster to save and open"
 })
 public class SaveAsAction extends AbstractAction implements ContextAwareAction {
 
@@ -186,8 +190,17 @@ public class SaveAsAction extends AbstractAction implements ContextAwareAction {
         final Collection<? extends SaveAsCapable> inst = lkpInfo.allInstances();
         if (!inst.isEmpty()) {
             final SaveAsCapable saveAs = inst.iterator().next();
-            FileChooser.openImmediateSaveDialog(getSaveFileChooser()).thenAccept(optionalFile -> optionalFile.ifPresent(file -> {
+
+            // Offer to save the graph in binary format; the format is remembered by the graph's data object.
+            final GraphDataObject gdo = context.lookup(GraphDataObject.class);
+            final JCheckBox binaryFormat = new JCheckBox(Bundle.MSG_SaveAs_BinaryFormat(), gdo != null && gdo.isBinaryFormat());
+            binaryFormat.setToolTipText(Bundle.MSG_SaveAs_BinaryFormat_Tooltip());
+            binaryFormat.setEnabled(gdo != null);
+            FileChooser.openImmediateSaveDialog(getSaveFileChooser().setAccessory(binaryFormat)).thenAccept(optionalFile -> optionalFile.ifPresent(file -> {
                 try {
+                    if (gdo != null) {
+                        gdo.setBinaryFormat(binaryFormat.isSelected());
+                    }
                     saveAs.saveAs(FileUtil.toFileObject(file.getParentFile()), file.getName());
 
                     // take a screenshot in a separate thread in parrallel
@@ -18,8 +18,10 @@ package au.gov.asd.tac.constellation.views.layers.query;
 import au.gov.asd.tac.constellation.graph.GraphElementType;
 import au.gov.asd.tac.constellation.graph.GraphReadMethods;
 import au.gov.asd.tac.constellation.graph.value.Access;
+import au.gov.asd.tac.constellation.graph.value.expression.ElementPredicate;
 import au.gov.asd.tac.constellation.graph.value.readables.BooleanReadable;
-import au.gov.asd.tac.constellation.graph.value.readables.IntReadable;
+import au.gov.asd.tac.constellation.graph.value.variables.IntVariable;
+import java.util.BitSet;
 import org.apache.commons.lang3.StringUtils;
 
 /**
@@ -37,6 +39,8 @@ public class BitMaskQuery {
     private boolean visible;
     private long mask;
     private BooleanReadable result;
+    private ElementPredicate predicate;
+    private IntVariable index;
 
     public BitMaskQuery(final Query query, final int bitIndex, final String description) {
         this.query = query;
@@ -89,14 +93,17 @@ public class BitMaskQuery {
         return (activeQueryBitMask & (1 << bitIndex + 1)) == 0;
     }
 
-    public boolean update(final GraphReadMethods graph, final IntReadable index) {
+    public boolean update(final GraphReadMethods graph, final IntVariable index) {
+        this.index = index;
         if (StringUtils.isNotBlank(query.getQueryString()) && bitIndex != 0) {
             final Object compiledExpression = query.compile(graph, index);
             if (compiledExpression != null) {
                 this.result = Access.getDefault().getRegistry(BooleanReadable.class).convert(compiledExpression);
+                this.predicate = query.compilePredicate(graph, index);
             }
         } else {
             this.result = null;
+            this.predicate = null;
         }
         return true;
     }
@@ -109,6 +116,35 @@ public class BitMaskQuery {
         }
     }
 
+    /**
+     * Update the bit masks of many elements at once. This is equivalent to
+     * calling {@link #updateBitMask(long)} for each element in turn, but
+     * evaluates the query over all of the elements together where possible.
+     *
+     * @param elements the ids of the elements.
+     * @param bitMasks the bit masks of the elements, which are updated in
+     * place.
+     */
+    public void updateBitMasks(final int[] elements, final long[] bitMasks) {
+        if (result == null) {
+            for (int position = 0; position < elements.length; position++) {
+                bitMasks[position] &= mask;
+            }
+        } else if (predicate == null) {
+            for (int position = 0; position < elements.length; position++) {
+                index.writeInt(elements[position]);
+                bitMasks[position] = updateBitMask(bitMasks[position]);
+            }
+        } else {
+            final BitSet candidates = new BitSet(elements.length);
+            candidates.set(0, elements.length);
+            final BitSet matches = predicate.evaluate(elements, candidates);
+            for (int position = 0; position < elements.length; position++) {
+                bitMasks[position] = matches.get(position) ? bitMasks[position] | (1L << bitIndex) : bitMasks[position] & mask;
+            }
+        }
+    }
+
     protected void setIndex(final int i) {
         this.bitIndex = i;
         this.mask = 0xFFFFFFFFFFFFFFFFL ^ (1L << i + 1);
@@ -172,12 +172,23 @@ public class BitMaskQueryCollection {
     public void updateBitMasks(final GraphWriteMethods graph, final int bitMaskAttributeId, final int visibleAttributeId) {
         if (this.update(graph)) {
             final int elementCount = elementType.getElementCount(graph);
+            final int[] elements = new int[elementCount];
+            final long[] bitMasks = new long[elementCount];
             for (int position = 0; position < elementCount; position++) {
-                final int elementId = elementType.getElement(graph, position);
-                index.writeInt(elementId);
-                final long bitMask = graph.getLongValue(bitMaskAttributeId, elementId);
-                final long updatedBitMask = updateBitMask(bitMask);
-                graph.setFloatValue(visibleAttributeId, elementId, (updatedBitMask & activeQueriesBitMask) == 0 ? 0.0F : 1.0F);
+                elements[position] = elementType.getElement(graph, position);
+                bitMasks[position] = graph.getLongValue(bitMaskAttributeId, elements[position]);
+            }
+
+            for (final BitMaskQuery updateQuery : updateQueries) {
+                updateQuery.updateBitMasks(elements, bitMasks);
+            }
+
+            // Only write visibilities that have changed so that unchanged elements are not redrawn.
+            for (int position = 0; position < elementCount; position++) {
+                final float visibility = (bitMasks[position] & activeQueriesBitMask) == 0 ? 0.0F : 1.0F;
+                if (graph.getFloatValue(visibleAttributeId, elements[position]) != visibility) {
+                    graph.setFloatValue(visibleAttributeId, elements[position], visibility);
+                }
             }
         }
     }
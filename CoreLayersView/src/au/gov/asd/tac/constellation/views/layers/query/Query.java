@@ -19,11 +19,14 @@ import au.gov.asd.tac.constellation.graph.Graph;
 import au.gov.asd.tac.constellation.graph.GraphElementType;
 import au.gov.asd.tac.constellation.graph.GraphReadMethods;
 import au.gov.asd.tac.constellation.graph.value.Operators;
+import au.gov.asd.tac.constellation.graph.value.expression.ElementPredicate;
 import au.gov.asd.tac.constellation.graph.value.expression.ExpressionCompiler;
 import au.gov.asd.tac.constellation.graph.value.expression.ExpressionParser;
 import au.gov.asd.tac.constellation.graph.value.expression.ExpressionParser.SequenceExpression;
+import au.gov.asd.tac.constellation.graph.value.expression.PredicateCompiler;
 import au.gov.asd.tac.constellation.graph.value.expression.VariableProvider;
 import au.gov.asd.tac.constellation.graph.value.readables.IntReadable;
+import au.gov.asd.tac.constellation.graph.value.variables.IntVariable;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
@@ -69,6 +72,22 @@ public class Query {
         return result;
     }
 
+    /**
+     * Compiles this query into a predicate that can be evaluated for many
+     * elements at once.
+     *
+     * @param graph the graph to compile the query against.
+     * @param index the index that the attributes of the graph are read at.
+     * @return the compiled predicate, or null if this query can only be
+     * evaluated by the object returned from
+     * {@link #compile(GraphReadMethods, IntReadable)}.
+     */
+    public ElementPredicate compilePredicate(final GraphReadMethods graph, final IntVariable index) {
+        final SequenceExpression expression = ExpressionParser.parse(queryString);
+        final GraphVariableProvider variableProvider = new GraphVariableProvider(graph, elementType);
+        return PredicateCompiler.compileSequenceExpression(expression, variableProvider, index);
+    }
+
     public int[] getAttributeIds() {
         return attributeIds;
     }
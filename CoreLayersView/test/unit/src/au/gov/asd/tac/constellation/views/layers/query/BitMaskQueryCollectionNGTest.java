@@ -16,6 +16,9 @@
 package au.gov.asd.tac.constellation.views.layers.query;
 
 import au.gov.asd.tac.constellation.graph.GraphElementType;
+import au.gov.asd.tac.constellation.graph.StoreGraph;
+import au.gov.asd.tac.constellation.graph.attribute.FloatAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.LongAttributeDescription;
 import static org.testng.Assert.assertEquals;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.AfterMethod;
@@ -121,6 +124,48 @@ public class BitMaskQueryCollectionNGTest {
         assertEquals(result, expResult);
     }
 
+    /**
+     * Test of updateBitMasks method, of class BitMaskQueryCollection.
+     */
+    @Test
+    public void testUpdateBitMasks() {
+        final StoreGraph graph = new StoreGraph();
+        final int bitMaskAttr = graph.addAttribute(GraphElementType.VERTEX, LongAttributeDescription.ATTRIBUTE_NAME, "layer_bitmask", null, 0L, null);
+        final int visibleAttr = graph.addAttribute(GraphElementType.VERTEX, FloatAttributeDescription.ATTRIBUTE_NAME, "layer_visibility", null, 1.0F, null);
+        final int xAttr = graph.addAttribute(GraphElementType.VERTEX, FloatAttributeDescription.ATTRIBUTE_NAME, "x", null, 0.0F, null);
+        final int[] vertices = new int[8];
+        for (int i = 0; i < vertices.length; i++) {
+            vertices[i] = graph.addVertex();
+            graph.setFloatValue(xAttr, vertices[i], i);
+        }
+
+        // the first query is compiled to a predicate, the second is evaluated element by element
+        final BitMaskQueryCollection instance = new BitMaskQueryCollection(GraphElementType.VERTEX);
+        final BitMaskQuery query1 = new BitMaskQuery(new Query(GraphElementType.VERTEX, "x > '2'"), 1, "Above 2");
+        query1.setVisibility(true);
+        instance.add(query1);
+        final BitMaskQuery query2 = new BitMaskQuery(new Query(GraphElementType.VERTEX, "-x < '-4'"), 2, "Above 4");
+        query2.setVisibility(true);
+        instance.add(query2);
+
+        instance.setActiveQueries(0b10L);
+        instance.updateBitMasks(graph, bitMaskAttr, visibleAttr);
+        for (int i = 0; i < vertices.length; i++) {
+            assertEquals(graph.getFloatValue(visibleAttr, vertices[i]), i > 2 ? 1.0F : 0.0F);
+        }
+
+        // nothing has changed so no visibilities should be written
+        final long visibleModificationCounter = graph.getValueModificationCounter(visibleAttr);
+        instance.updateBitMasks(graph, bitMaskAttr, visibleAttr);
+        assertEquals(graph.getValueModificationCounter(visibleAttr), visibleModificationCounter);
+
+        instance.setActiveQueries(0b100L);
+        instance.updateBitMasks(graph, bitMaskAttr, visibleAttr);
+        for (int i = 0; i < vertices.length; i++) {
+            assertEquals(graph.getFloatValue(visibleAttr, vertices[i]), i > 4 ? 1.0F : 0.0F);
+        }
+    }
+
     /**
      * Test of add method, of class BitMaskQueryCollection.
      */
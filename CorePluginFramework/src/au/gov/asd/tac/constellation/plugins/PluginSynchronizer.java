@@ -15,12 +15,18 @@
  */
 package au.gov.asd.tac.constellation.plugins;
 
+import java.util.concurrent.ForkJoinPool;
+
 /**
  * A PluginSynchronizer synchronizes the running of multiple plugins on
  * different threads. Plugins can divide their execution into a number of life
  * cycle stages and the PluginSynchronizer ensures that the corresponding life
  * cycle stage of all plugins has finished before the next stage can begin for
  * any plugin in the group.
+ * <p>
+ * Waiting at a gate is a managed block, so a plugin running in a
+ * {@link ForkJoinPool} lets the pool start another thread while it waits. This
+ * means a group can be larger than the pool its plugins run on.
  *
  * @author sirius
  */
@@ -62,13 +68,25 @@ public class PluginSynchronizer {
 
                     // Else wait for the remaining threads
                 } else {
-                    while (currentGateNumber == g && outstandingPluginCount > 0) {
-                        try {
-                            lock.wait();
-                        } catch (InterruptedException ex) {
-                            remainingPluginCount--;
-                            throw ex;
-                        }
+                    final int waitingGate = g;
+                    try {
+                        ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+                            @Override
+                            public boolean block() throws InterruptedException {
+                                if (!isReleasable()) {
+                                    lock.wait();
+                                }
+                                return isReleasable();
+                            }
+
+                            @Override
+                            public boolean isReleasable() {
+                                return currentGateNumber != waitingGate || outstandingPluginCount <= 0;
+                            }
+                        });
+                    } catch (InterruptedException ex) {
+                        remainingPluginCount--;
+                        throw ex;
                     }
                 }
             }
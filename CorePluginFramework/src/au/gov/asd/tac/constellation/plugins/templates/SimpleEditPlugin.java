@@ -78,6 +78,21 @@ public abstract class SimpleEditPlugin extends AbstractPlugin {
         return true;
     }
 
+    /**
+     * Returns whether the edit this plugin makes to the graph is recorded for
+     * undo.
+     *
+     * Plugins that load large amounts of data can return false to save holding
+     * the undo state of the load. The edit then can't be undone, and the undo
+     * history before it is discarded.
+     *
+     * @return a boolean specifying whether the edit this plugin makes to the
+     * graph is recorded for undo.
+     */
+    protected boolean isUndoRecorded() {
+        return true;
+    }
+
     @Override
     public final void run(final PluginGraphs graphs, final PluginInteraction interaction, final PluginParameters parameters) throws InterruptedException, PluginException, RuntimeException {
 
@@ -100,6 +115,9 @@ public abstract class SimpleEditPlugin extends AbstractPlugin {
                 boolean cancelled = false;
                 Object description = null;
                 WritableGraph writableGraph = graph.getWritableGraph(getName(), isSignificant(), this);
+                if (!isUndoRecorded()) {
+                    graph.setUndoRecording(false);
+                }
 
                 try {
                     interaction.setExecutionStage(1, totalSteps, PluginExecutionStageConstants.RUNNING, "Editing...", true);
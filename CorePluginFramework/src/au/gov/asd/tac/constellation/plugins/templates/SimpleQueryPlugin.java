@@ -93,6 +93,21 @@ public abstract class SimpleQueryPlugin extends AbstractPlugin {
         return true;
     }
 
+    /**
+     * Returns whether the edit this plugin makes to the graph is recorded for
+     * undo.
+     *
+     * Plugins that load large amounts of data can return false to save holding
+     * the undo state of the load. The edit then can't be undone, and the undo
+     * history before it is discarded.
+     *
+     * @return a boolean specifying whether the edit this plugin makes to the
+     * graph is recorded for undo.
+     */
+    protected boolean isUndoRecorded() {
+        return true;
+    }
+
     @Override
     public final void run(final PluginGraphs graphs, final PluginInteraction interaction, final PluginParameters parameters) throws InterruptedException, PluginException {
 
@@ -151,6 +166,9 @@ public abstract class SimpleQueryPlugin extends AbstractPlugin {
                 }
 
                 WritableGraph writableGraph = graph.getWritableGraph(getName(), isSignificant(), this);
+                if (!isUndoRecorded()) {
+                    graph.setUndoRecording(false);
+                }
 
                 try {
                     if (inControlOfProgress) {
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.plugins;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.testng.Assert.assertEquals;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Plugin Synchronizer Test.
+ *
+ * @author sirius
+ */
+public class PluginSynchronizerNGTest {
+
+    public PluginSynchronizerNGTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+    }
+
+    @BeforeMethod
+    public void setUpMethod() throws Exception {
+    }
+
+    @AfterMethod
+    public void tearDownMethod() throws Exception {
+    }
+
+    /**
+     * Every plugin in a group should pass a gate together, even when the group
+     * is larger than the pool it runs on.
+     *
+     * @throws Exception
+     */
+    @Test(timeOut = 30000)
+    public void testGroupLargerThanPool() throws Exception {
+        final int pluginCount = 8;
+        final PluginSynchronizer synchronizer = new PluginSynchronizer(pluginCount);
+        final AtomicInteger arrived = new AtomicInteger();
+        final ForkJoinPool pool = new ForkJoinPool(1);
+        try {
+            final Future<?>[] futures = new Future<?>[pluginCount];
+            for (int plugin = 0; plugin < pluginCount; plugin++) {
+                futures[plugin] = pool.submit(() -> {
+                    arrived.incrementAndGet();
+                    synchronizer.waitForGate(0);
+                    // every plugin has to have reached the gate before any of them pass it
+                    assertEquals(arrived.get(), pluginCount);
+                    synchronizer.finished();
+                    return null;
+                });
+            }
+            for (final Future<?> future : futures) {
+                future.get(20, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
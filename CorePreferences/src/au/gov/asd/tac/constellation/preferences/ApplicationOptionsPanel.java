@@ -78,6 +78,22 @@ final class ApplicationOptionsPanel extends javax.swing.JPanel {
         autosaveSpinner.getModel().setValue(autosaveFrequency);
     }
 
+    public int getUndoMemoryBudget() {
+        return (Integer) undoBudgetSpinner.getModel().getValue();
+    }
+
+    public void setUndoMemoryBudget(final int undoMemoryBudget) {
+        undoBudgetSpinner.getModel().setValue(undoMemoryBudget);
+    }
+
+    public boolean isUndoRecordImportsSelected() {
+        return undoImportsCheckBox.isSelected();
+    }
+
+    public void setUndoRecordImports(final boolean undoRecordImports) {
+        undoImportsCheckBox.setSelected(undoRecordImports);
+    }
+
     public boolean isWelcomeOnStartupSelected() {
         return startupWelcomeCheckbox.isSelected();
     }
@@ -162,6 +178,11 @@ final class ApplicationOptionsPanel extends javax.swing.JPanel {
         autosaveCheckBox = new JCheckBox();
         autosaveSpinner = new JSpinner();
         autosaveLabel = new JLabel();
+        undoPanel = new JPanel();
+        undoBudgetLabel = new JLabel();
+        undoBudgetSpinner = new JSpinner();
+        undoBudgetUnitLabel = new JLabel();
+        undoImportsCheckBox = new JCheckBox();
         startupPanel = new JPanel();
         startupWelcomeCheckbox = new JCheckBox();
         startupWhatsNewCheckbox = new JCheckBox();
@@ -230,6 +251,43 @@ final class ApplicationOptionsPanel extends javax.swing.JPanel {
                 .addContainerGap(GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
         );
 
+        undoPanel.setBorder(BorderFactory.createTitledBorder(NbBundle.getMessage(ApplicationOptionsPanel.class, "ApplicationOptionsPanel.undoPanel.border.title"))); // NOI18N
+
+        Mnemonics.setLocalizedText(undoBudgetLabel, NbBundle.getMessage(ApplicationOptionsPanel.class, "ApplicationOptionsPanel.undoBudgetLabel.text")); // NOI18N
+
+        undoBudgetSpinner.setModel(new SpinnerNumberModel(256, 16, null, 16));
+
+        Mnemonics.setLocalizedText(undoBudgetUnitLabel, NbBundle.getMessage(ApplicationOptionsPanel.class, "ApplicationOptionsPanel.undoBudgetUnitLabel.text")); // NOI18N
+
+        Mnemonics.setLocalizedText(undoImportsCheckBox, NbBundle.getMessage(ApplicationOptionsPanel.class, "ApplicationOptionsPanel.undoImportsCheckBox.text")); // NOI18N
+
+        GroupLayout undoPanelLayout = new GroupLayout(undoPanel);
+        undoPanel.setLayout(undoPanelLayout);
+        undoPanelLayout.setHorizontalGroup(undoPanelLayout.createParallelGroup(GroupLayout.Alignment.LEADING)
+            .addGroup(undoPanelLayout.createSequentialGroup()
+                .addGap(20, 20, 20)
+                .addGroup(undoPanelLayout.createParallelGroup(GroupLayout.Alignment.LEADING)
+                    .addGroup(undoPanelLayout.createSequentialGroup()
+                        .addComponent(undoBudgetLabel)
+                        .addPreferredGap(LayoutStyle.ComponentPlacement.UNRELATED)
+                        .addComponent(undoBudgetSpinner, GroupLayout.PREFERRED_SIZE, 70, GroupLayout.PREFERRED_SIZE)
+                        .addPreferredGap(LayoutStyle.ComponentPlacement.RELATED)
+                        .addComponent(undoBudgetUnitLabel))
+                    .addComponent(undoImportsCheckBox))
+                .addContainerGap(GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
+        );
+        undoPanelLayout.setVerticalGroup(undoPanelLayout.createParallelGroup(GroupLayout.Alignment.LEADING)
+            .addGroup(undoPanelLayout.createSequentialGroup()
+                .addContainerGap()
+                .addGroup(undoPanelLayout.createParallelGroup(GroupLayout.Alignment.BASELINE)
+                    .addComponent(undoBudgetLabel)
+                    .addComponent(undoBudgetSpinner, GroupLayout.PREFERRED_SIZE, GroupLayout.DEFAULT_SIZE, GroupLayout.PREFERRED_SIZE)
+                    .addComponent(undoBudgetUnitLabel))
+                .addPreferredGap(LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(undoImportsCheckBox)
+                .addContainerGap(GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
+        );
+
         startupPanel.setBorder(BorderFactory.createTitledBorder(NbBundle.getMessage(ApplicationOptionsPanel.class, "ApplicationOptionsPanel.startupPanel.border.title"))); // NOI18N
 
         Mnemonics.setLocalizedText(startupWelcomeCheckbox, NbBundle.getMessage(ApplicationOptionsPanel.class, "ApplicationOptionsPanel.startupWelcomeCheckbox.text")); // NOI18N
@@ -416,6 +474,7 @@ final class ApplicationOptionsPanel extends javax.swing.JPanel {
                 .addGroup(layout.createParallelGroup(GroupLayout.Alignment.TRAILING)
                     .addComponent(startupPanel, GroupLayout.DEFAULT_SIZE, GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
                     .addComponent(autosavePanel, GroupLayout.DEFAULT_SIZE, GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+                    .addComponent(undoPanel, GroupLayout.DEFAULT_SIZE, GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
                     .addGroup(GroupLayout.Alignment.LEADING, layout.createSequentialGroup()
                         .addComponent(userDirectoryLabel)
                         .addPreferredGap(LayoutStyle.ComponentPlacement.RELATED)
@@ -437,6 +496,8 @@ final class ApplicationOptionsPanel extends javax.swing.JPanel {
                 .addGap(18, 18, 18)
                 .addComponent(autosavePanel, GroupLayout.PREFERRED_SIZE, GroupLayout.DEFAULT_SIZE, GroupLayout.PREFERRED_SIZE)
                 .addPreferredGap(LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(undoPanel, GroupLayout.PREFERRED_SIZE, GroupLayout.DEFAULT_SIZE, GroupLayout.PREFERRED_SIZE)
+                .addPreferredGap(LayoutStyle.ComponentPlacement.RELATED)
                 .addComponent(startupPanel, GroupLayout.PREFERRED_SIZE, GroupLayout.DEFAULT_SIZE, GroupLayout.PREFERRED_SIZE)
                 .addPreferredGap(LayoutStyle.ComponentPlacement.RELATED)
                 .addComponent(webserverPanel, GroupLayout.PREFERRED_SIZE, GroupLayout.DEFAULT_SIZE, GroupLayout.PREFERRED_SIZE)
@@ -527,6 +588,11 @@ final class ApplicationOptionsPanel extends javax.swing.JPanel {
     private JPanel startupPanel;
     private JCheckBox startupWelcomeCheckbox;
     private JCheckBox startupWhatsNewCheckbox;
+    private JLabel undoBudgetLabel;
+    private JSpinner undoBudgetSpinner;
+    private JLabel undoBudgetUnitLabel;
+    private JCheckBox undoImportsCheckBox;
+    private JPanel undoPanel;
     private JButton userDirectoryButton;
     private JLabel userDirectoryLabel;
     private JTextField userDirectoryText;
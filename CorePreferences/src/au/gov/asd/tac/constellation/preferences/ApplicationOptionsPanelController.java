@@ -38,7 +38,7 @@ import org.openide.util.NbPreferences;
         position = 0)
 @org.openide.util.NbBundle.Messages({
     "AdvancedOption_DisplayName=Application",
-    "AdvancedOption_Keywords=directory autosave startup display webserver jupyter notebook python"
+    "AdvancedOption_Keywords=directory autosave undo startup display webserver jupyter notebook python"
 })
 public final class ApplicationOptionsPanelController extends OptionsPanelController {
 
@@ -72,6 +72,8 @@ public final class ApplicationOptionsPanelController extends OptionsPanelControl
         applicationOptionsPanel.setUserDirectory(ApplicationPreferenceKeys.getUserDir(prefs));
         applicationOptionsPanel.setAutosaveEnabled(prefs.getBoolean(ApplicationPreferenceKeys.AUTOSAVE_ENABLED, ApplicationPreferenceKeys.AUTOSAVE_ENABLED_DEFAULT));
         applicationOptionsPanel.setAutosaveFrequency(prefs.getInt(ApplicationPreferenceKeys.AUTOSAVE_SCHEDULE, ApplicationPreferenceKeys.AUTOSAVE_SCHEDULE_DEFAULT));
+        applicationOptionsPanel.setUndoMemoryBudget(prefs.getInt(ApplicationPreferenceKeys.UNDO_MEMORY_BUDGET, ApplicationPreferenceKeys.UNDO_MEMORY_BUDGET_DEFAULT));
+        applicationOptionsPanel.setUndoRecordImports(prefs.getBoolean(ApplicationPreferenceKeys.UNDO_RECORD_IMPORTS, ApplicationPreferenceKeys.UNDO_RECORD_IMPORTS_DEFAULT));
         applicationOptionsPanel.setWelcomeOnStartup(prefs.getBoolean(ApplicationPreferenceKeys.WELCOME_ON_STARTUP, ApplicationPreferenceKeys.WELCOME_ON_STARTUP_DEFAULT));
         applicationOptionsPanel.setWhatsNewOnStartup(prefs.getBoolean(ApplicationPreferenceKeys.TUTORIAL_ON_STARTUP, ApplicationPreferenceKeys.TUTORIAL_ON_STARTUP_DEFAULT));
         applicationOptionsPanel.setWebserverPort(prefs.getInt(ApplicationPreferenceKeys.WEBSERVER_PORT, ApplicationPreferenceKeys.WEBSERVER_PORT_DEFAULT));
@@ -96,6 +98,8 @@ public final class ApplicationOptionsPanelController extends OptionsPanelControl
                 prefs.put(ApplicationPreferenceKeys.USER_DIR, applicationOptionsPanel.getUserDirectory());
                 prefs.putBoolean(ApplicationPreferenceKeys.AUTOSAVE_ENABLED, applicationOptionsPanel.isAustosaveEnabled());
                 prefs.putInt(ApplicationPreferenceKeys.AUTOSAVE_SCHEDULE, applicationOptionsPanel.getAustosaveFrequency());
+                prefs.putInt(ApplicationPreferenceKeys.UNDO_MEMORY_BUDGET, applicationOptionsPanel.getUndoMemoryBudget());
+                prefs.putBoolean(ApplicationPreferenceKeys.UNDO_RECORD_IMPORTS, applicationOptionsPanel.isUndoRecordImportsSelected());
                 prefs.putBoolean(ApplicationPreferenceKeys.WELCOME_ON_STARTUP, applicationOptionsPanel.isWelcomeOnStartupSelected());
                 prefs.putBoolean(ApplicationPreferenceKeys.TUTORIAL_ON_STARTUP, applicationOptionsPanel.isWhatsNewOnStartupSelected());
                 prefs.putInt(ApplicationPreferenceKeys.WEBSERVER_PORT, applicationOptionsPanel.getWebserverPort());
@@ -119,6 +123,7 @@ public final class ApplicationOptionsPanelController extends OptionsPanelControl
 
         return applicationOptionsPanel.getUserDirectory() != null
                 && applicationOptionsPanel.getAustosaveFrequency() > 0
+                && applicationOptionsPanel.getUndoMemoryBudget() > 0
                 && applicationOptionsPanel.getWebserverPort() > 0
                 && applicationOptionsPanel.getNotebookDirectory() != null
                 && applicationOptionsPanel.getRestDirectory() != null
@@ -134,6 +139,8 @@ public final class ApplicationOptionsPanelController extends OptionsPanelControl
         return !(applicationOptionsPanel.getUserDirectory().equals(prefs.get(ApplicationPreferenceKeys.USER_DIR, ApplicationPreferenceKeys.USER_DIR_DEFAULT))
                 && applicationOptionsPanel.isAustosaveEnabled() == prefs.getBoolean(ApplicationPreferenceKeys.AUTOSAVE_ENABLED, ApplicationPreferenceKeys.AUTOSAVE_ENABLED_DEFAULT)
                 && applicationOptionsPanel.getAustosaveFrequency() == prefs.getInt(ApplicationPreferenceKeys.AUTOSAVE_SCHEDULE, ApplicationPreferenceKeys.AUTOSAVE_SCHEDULE_DEFAULT)
+                && applicationOptionsPanel.getUndoMemoryBudget() == prefs.getInt(ApplicationPreferenceKeys.UNDO_MEMORY_BUDGET, ApplicationPreferenceKeys.UNDO_MEMORY_BUDGET_DEFAULT)
+                && applicationOptionsPanel.isUndoRecordImportsSelected() == prefs.getBoolean(ApplicationPreferenceKeys.UNDO_RECORD_IMPORTS, ApplicationPreferenceKeys.UNDO_RECORD_IMPORTS_DEFAULT)
                 && applicationOptionsPanel.isWelcomeOnStartupSelected() == prefs.getBoolean(ApplicationPreferenceKeys.WELCOME_ON_STARTUP, ApplicationPreferenceKeys.WELCOME_ON_STARTUP_DEFAULT)
                 && applicationOptionsPanel.isWhatsNewOnStartupSelected() == prefs.getBoolean(ApplicationPreferenceKeys.TUTORIAL_ON_STARTUP, ApplicationPreferenceKeys.TUTORIAL_ON_STARTUP_DEFAULT)
                 && applicationOptionsPanel.getWebserverPort() == prefs.getInt(ApplicationPreferenceKeys.WEBSERVER_PORT, ApplicationPreferenceKeys.WEBSERVER_PORT_DEFAULT)
@@ -82,6 +82,14 @@ public final class ApplicationPreferenceKeys {
     public static final String AUTOSAVE_SCHEDULE = "autosaveSchedule";
     public static final int AUTOSAVE_SCHEDULE_DEFAULT = 5;
 
+    /**
+     * Undo. The memory budget is in megabytes.
+     */
+    public static final String UNDO_MEMORY_BUDGET = "undoMemoryBudget";
+    public static final int UNDO_MEMORY_BUDGET_DEFAULT = 256;
+    public static final String UNDO_RECORD_IMPORTS = "undoRecordImports";
+    public static final boolean UNDO_RECORD_IMPORTS_DEFAULT = false;
+
     /**
      * Whats New window.
      */
@@ -27,6 +27,7 @@ import au.gov.asd.tac.constellation.views.tableview.state.TableViewState;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -56,7 +57,9 @@ public class ActiveTableReference {
     private final Map<Integer, ObservableList<String>> elementIdToRowIndex;
 
     /**
-     * Holds a map of table rows to graph element IDs.
+     * Holds a map of table rows to graph element IDs. Rows are matched by
+     * identity so that the text of every cell does not have to be created to
+     * hash them.
      */
     private final Map<ObservableList<String>, Integer> rowToElementIdIndex;
 
@@ -115,7 +118,7 @@ public class ActiveTableReference {
         this.columnIndex = new CopyOnWriteArrayList<>();
 
         this.elementIdToRowIndex = new HashMap<>();
-        this.rowToElementIdIndex = new HashMap<>();
+        this.rowToElementIdIndex = new IdentityHashMap<>();
 
         this.pageFactory = pageFactory;
 
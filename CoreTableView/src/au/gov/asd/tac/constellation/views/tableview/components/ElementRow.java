@@ -0,0 +1,77 @@
+/*
+ * Copyright 2010-2022 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.views.tableview.components;
+
+import javafx.collections.ObservableListBase;
+
+/**
+ * A row of the table that creates the text of its cells from a
+ * {@link TableData} as they are looked at. Rows never change, a new row is
+ * created when the table data is updated.
+ *
+ * @author formalhaunt
+ */
+final class ElementRow extends ObservableListBase<String> {
+
+    private final TableData tableData;
+    private final int row;
+
+    ElementRow(final TableData tableData, final int row) {
+        this.tableData = tableData;
+        this.row = row;
+    }
+
+    /**
+     * Gets the table data this row belongs to.
+     *
+     * @return the table data
+     */
+    TableData getTableData() {
+        return tableData;
+    }
+
+    /**
+     * Gets the position of this row in its table data.
+     *
+     * @return the position of this row
+     */
+    int getRow() {
+        return row;
+    }
+
+    @Override
+    public String get(final int index) {
+        return tableData.getDisplayText(row, index);
+    }
+
+    @Override
+    public int size() {
+        return tableData.getColumnCount();
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (o instanceof ElementRow && ((ElementRow) o).tableData == tableData && ((ElementRow) o).row == row) {
+            return true;
+        }
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode();
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2010-2022 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.views.tableview.components;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import javafx.collections.ObservableList;
+import javafx.scene.control.TableColumn;
+
+/**
+ * Sorts the rows of the table in the same order as the comparator of the
+ * table, but compares rows created from the same {@link TableData} using the
+ * ranks of their values. This avoids creating the text of every cell in the
+ * sorted columns and parsing it each time two rows are compared.
+ * <p/>
+ * Any rows that are not from the same table data, or columns that are not
+ * sorted by a {@link TableDataComparator}, are compared with the comparator of
+ * the table.
+ *
+ * @author formalhaunt
+ */
+final class ElementRowComparator implements Comparator<ObservableList<String>> {
+
+    private final List<TableColumn<ObservableList<String>, ?>> sortOrder;
+    private final Comparator<? super ObservableList<String>> tableComparator;
+
+    private TableData rankedTableData = null;
+    private int[][] ranks = null;
+
+    /**
+     * Creates a new row comparator.
+     *
+     * @param sortOrder the columns the table is sorted by
+     * @param tableComparator the comparator of the table
+     */
+    ElementRowComparator(final List<TableColumn<ObservableList<String>, ?>> sortOrder,
+            final Comparator<? super ObservableList<String>> tableComparator) {
+        this.sortOrder = new ArrayList<>(sortOrder);
+        this.tableComparator = tableComparator;
+    }
+
+    @Override
+    public int compare(final ObservableList<String> row1, final ObservableList<String> row2) {
+        if (row1 instanceof ElementRow && row2 instanceof ElementRow) {
+            final ElementRow elementRow1 = (ElementRow) row1;
+            final ElementRow elementRow2 = (ElementRow) row2;
+            final int[][] columnRanks = getRanks(elementRow1.getTableData());
+            if (columnRanks != null && elementRow1.getTableData() == elementRow2.getTableData()) {
+                for (int i = 0; i < columnRanks.length; i++) {
+                    final int result = Integer.compare(columnRanks[i][elementRow1.getRow()],
+                            columnRanks[i][elementRow2.getRow()]);
+                    if (result != 0) {
+                        return sortOrder.get(i).getSortType() == TableColumn.SortType.DESCENDING ? -result : result;
+                    }
+                }
+                return 0;
+            }
+        }
+        return tableComparator.compare(row1, row2);
+    }
+
+    /**
+     * Gets the ranks of the sorted columns in the given table data.
+     *
+     * @param tableData the table data
+     * @return the ranks of the sorted columns, or null if they can not be
+     * compared by rank
+     */
+    private int[][] getRanks(final TableData tableData) {
+        if (tableData != rankedTableData) {
+            rankedTableData = tableData;
+            ranks = new int[sortOrder.size()][];
+            for (int i = 0; i < ranks.length; i++) {
+                final TableColumn<ObservableList<String>, ?> column = sortOrder.get(i);
+                final int position = tableData.getColumnPosition(column);
+                if (position < 0 || !(column.getComparator() instanceof TableDataComparator)) {
+                    ranks = null;
+                    break;
+                }
+                ranks[i] = tableData.getRanks(position);
+            }
+        }
+        return ranks;
+    }
+}
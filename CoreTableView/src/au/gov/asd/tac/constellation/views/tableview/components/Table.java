@@ -19,7 +19,6 @@ import au.gov.asd.tac.constellation.graph.Graph;
 import au.gov.asd.tac.constellation.graph.GraphAttribute;
 import au.gov.asd.tac.constellation.graph.GraphElementType;
 import au.gov.asd.tac.constellation.graph.ReadableGraph;
-import au.gov.asd.tac.constellation.graph.attribute.interaction.AbstractAttributeInteraction;
 import au.gov.asd.tac.constellation.graph.processing.GraphRecordStoreUtilities;
 import au.gov.asd.tac.constellation.graph.schema.visual.concept.VisualConcept;
 import au.gov.asd.tac.constellation.utilities.datastructure.ImmutableObjectCache;
@@ -35,7 +34,7 @@ import au.gov.asd.tac.constellation.views.tableview.tasks.UpdateColumnsTask;
 import au.gov.asd.tac.constellation.views.tableview.tasks.UpdateDataTask;
 import au.gov.asd.tac.constellation.views.tableview.utilities.ColumnIndexSort;
 import au.gov.asd.tac.constellation.views.tableview.utilities.TableViewUtilities;
-import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -44,10 +43,12 @@ import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import javafx.application.Platform;
+import javafx.beans.binding.Bindings;
+import javafx.beans.binding.ObjectBinding;
 import javafx.beans.property.ReadOnlyObjectProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.value.ChangeListener;
-import javafx.collections.FXCollections;
+import javafx.beans.value.ObservableValue;
 import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
@@ -86,6 +87,18 @@ public class Table {
 
     private final UpdateColumnsTask updateColumnsTask;
 
+    /**
+     * The data from the last update, kept so that the next update only needs
+     * to read the attribute values that have changed.
+     */
+    private TableData tableData;
+
+    /**
+     * The comparator used to sort the rows, which follows the comparator of
+     * the table.
+     */
+    private final ObjectBinding<Comparator<? super ObservableList<String>>> rowComparator;
+
     /**
      * Creates a new table.
      *
@@ -104,6 +117,12 @@ public class Table {
 
         this.updateColumnsTask = new UpdateColumnsTask(this);
 
+        this.rowComparator = Bindings.createObjectBinding(() -> {
+            final Comparator<ObservableList<String>> tableComparator = tableView.getComparator();
+            return tableComparator == null ? null
+                    : new ElementRowComparator(tableView.getSortOrder(), tableComparator);
+        }, tableView.comparatorProperty());
+
         this.tableSelectionListener = new TableSelectionListener(this);
         this.selectedOnlySelectionListener = new SelectedOnlySelectionListener(this);
 
@@ -122,6 +141,17 @@ public class Table {
         return tableView;
     }
 
+    /**
+     * Gets the comparator that the rows of the table should be sorted with.
+     * This sorts in the same order as the comparator of the table but can
+     * compare rows without creating the text of their cells.
+     *
+     * @return the row comparator
+     */
+    public ObservableValue<Comparator<? super ObservableList<String>>> getRowComparator() {
+        return rowComparator;
+    }
+
     /**
      * Gets the currently selected row in the table.
      *
@@ -277,45 +307,34 @@ public class Table {
                 getActiveTableReference().getRowToElementIdIndex().clear();
 
                 // Build table data based on attribute values on the graph
-                final List<ObservableList<String>> rows = new ArrayList<>();
+                final List<ObservableList<String>> rows;
                 final ReadableGraph readableGraph = graph.getReadableGraph();
                 try {
+                    final IntStream elementIds;
+                    final int selectedAttributeId;
                     if (state.getElementType() == GraphElementType.TRANSACTION) {
-                        final int selectedAttributeId = VisualConcept.TransactionAttribute.SELECTED.get(readableGraph);
-                        final int transactionCount = readableGraph.getTransactionCount();
-
-                        IntStream.range(0, transactionCount).forEach(transactionPosition -> {
-                            final int transactionId = readableGraph.getTransaction(transactionPosition);
-                            boolean isSelected = false;
-
-                            if (selectedAttributeId != Graph.NOT_FOUND) {
-                                isSelected = readableGraph.getBooleanValue(selectedAttributeId, transactionId);
-                            }
-
-                            // If it is not in selected only mode then just add every row but if it is
-                            // in selected only mode, only add the ones that are selected in the graph
-                            if (!state.isSelectedOnly() || isSelected) {
-                                rows.add(getRowDataForTransaction(readableGraph, transactionId));
-                            }
-                        });
+                        selectedAttributeId = VisualConcept.TransactionAttribute.SELECTED.get(readableGraph);
+                        elementIds = IntStream.range(0, readableGraph.getTransactionCount())
+                                .map(readableGraph::getTransaction);
                     } else {
-                        final int selectedAttributeId = VisualConcept.VertexAttribute.SELECTED.get(readableGraph);
-                        final int vertexCount = readableGraph.getVertexCount();
-
-                        IntStream.range(0, vertexCount).forEach(vertexPosition -> {
-                            final int vertexId = readableGraph.getVertex(vertexPosition);
-                            boolean isSelected = false;
+                        selectedAttributeId = VisualConcept.VertexAttribute.SELECTED.get(readableGraph);
+                        elementIds = IntStream.range(0, readableGraph.getVertexCount())
+                                .map(readableGraph::getVertex);
+                    }
 
-                            if (selectedAttributeId != Graph.NOT_FOUND) {
-                                isSelected = readableGraph.getBooleanValue(selectedAttributeId, vertexId);
-                            }
+                    // If it is not in selected only mode then just add every row but if it is
+                    // in selected only mode, only add the ones that are selected in the graph
+                    final int[] rowElementIds = elementIds
+                            .filter(elementId -> !state.isSelectedOnly()
+                            || (selectedAttributeId != Graph.NOT_FOUND
+                            && readableGraph.getBooleanValue(selectedAttributeId, elementId)))
+                            .toArray();
 
-                            // If it is not in selected only mode then just add every row but if it is
-                            // in selected only mode, only add the ones that are selected in the graph
-                            if (!state.isSelectedOnly() || isSelected) {
-                                rows.add(getRowDataForVertex(readableGraph, vertexId));
-                            }
-                        });
+                    tableData = createTableData(readableGraph, state.getElementType(), rowElementIds);
+                    rows = tableData.getRows();
+                    for (int row = 0; row < rows.size(); row++) {
+                        getActiveTableReference().getElementIdToRowIndex().put(tableData.getElementId(row), rows.get(row));
+                        getActiveTableReference().getRowToElementIdIndex().put(rows.get(row), tableData.getElementId(row));
                     }
                 } finally {
                     readableGraph.release();
@@ -476,6 +495,27 @@ public class Table {
         return getParentComponent().getActiveTableReference().getColumnIndex();
     }
 
+    /**
+     * Gets the rows that the table will display for the given elements. The
+     * data of the previous update is reused where the graph has not changed
+     * since then, and the text of each cell is only created when it is first
+     * displayed.
+     *
+     * @param readableGraph the graph to build the rows from
+     * @param elementType the type of elements the rows represent, vertex or
+     * transaction
+     * @param elementIds the IDs of the elements in the graph, one for each row
+     * @return the table data holding the rows
+     * @see TableData
+     */
+    protected TableData createTableData(final ReadableGraph readableGraph,
+            final GraphElementType elementType,
+            final int[] elementIds) {
+        return tableData == null
+                ? new TableData(readableGraph, elementType, elementIds, getColumnIndex(), displayTextCache)
+                : tableData.update(readableGraph, elementType, elementIds, getColumnIndex());
+    }
+
     /**
      * For a given vertex on the graph construct a row for the table give the
      * current column settings. If the column is a transaction column then a
@@ -487,20 +527,8 @@ public class Table {
      */
     protected ObservableList<String> getRowDataForVertex(final ReadableGraph readableGraph,
             final int vertexId) {
-        final ObservableList<String> rowData = FXCollections.observableArrayList();
-
-        getColumnIndex().forEach(column -> {
-            final int attributeId = readableGraph
-                    .getAttribute(column.getAttribute().getElementType(),
-                            column.getAttribute().getName());
-            final AbstractAttributeInteraction<?> interaction = AbstractAttributeInteraction
-                    .getInteraction(column.getAttribute().getAttributeType());
-            final Object attributeValue = readableGraph
-                    .getObjectValue(attributeId, vertexId);
-            final String displayableValue = interaction.getDisplayText(attributeValue);
-
-            rowData.add(displayableValue);
-        });
+        final ObservableList<String> rowData = TableData.getRow(readableGraph, GraphElementType.VERTEX,
+                vertexId, getColumnIndex(), displayTextCache);
 
         getActiveTableReference().getElementIdToRowIndex().put(vertexId, rowData);
         getActiveTableReference().getRowToElementIdIndex().put(rowData, vertexId);
@@ -524,41 +552,8 @@ public class Table {
      */
     protected ObservableList<String> getRowDataForTransaction(final ReadableGraph readableGraph,
             final int transactionId) {
-        final ObservableList<String> rowData = FXCollections.observableArrayList();
-
-        getColumnIndex().forEach(column -> {
-            final int attributeId = readableGraph.getAttribute(
-                    column.getAttribute().getElementType(),
-                    column.getAttribute().getName()
-            );
-            final AbstractAttributeInteraction<?> interaction = AbstractAttributeInteraction
-                    .getInteraction(column.getAttribute().getAttributeType());
-
-            final Object attributeValue;
-            if (attributeId != Graph.NOT_FOUND) {
-                switch (column.getAttributeNamePrefix()) {
-                    case GraphRecordStoreUtilities.SOURCE:
-                        final int sourceVertexId = readableGraph.getTransactionSourceVertex(transactionId);
-                        attributeValue = readableGraph.getObjectValue(attributeId, sourceVertexId);
-                        break;
-                    case GraphRecordStoreUtilities.TRANSACTION:
-                        attributeValue = readableGraph.getObjectValue(attributeId, transactionId);
-                        break;
-                    case GraphRecordStoreUtilities.DESTINATION:
-                        final int destinationVertexId = readableGraph.getTransactionDestinationVertex(transactionId);
-                        attributeValue = readableGraph.getObjectValue(attributeId, destinationVertexId);
-                        break;
-                    default:
-                        attributeValue = null;
-                }
-            } else {
-                attributeValue = null;
-            }
-            
-            // avoid duplicate strings objects and make a massivse saving on memory use
-            final String displayableValue = displayTextCache.deduplicate(interaction.getDisplayText(attributeValue));
-            rowData.add(displayableValue);
-        });
+        final ObservableList<String> rowData = TableData.getRow(readableGraph, GraphElementType.TRANSACTION,
+                transactionId, getColumnIndex(), displayTextCache);
 
         getActiveTableReference().getElementIdToRowIndex().put(transactionId, rowData);
         getActiveTableReference().getRowToElementIdIndex().put(rowData, transactionId);
@@ -0,0 +1,560 @@
+/*
+ * Copyright 2010-2022 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.views.tableview.components;
+
+import au.gov.asd.tac.constellation.graph.Graph;
+import au.gov.asd.tac.constellation.graph.GraphElementType;
+import au.gov.asd.tac.constellation.graph.GraphReadMethods;
+import au.gov.asd.tac.constellation.graph.attribute.ByteAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.DoubleAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.FloatAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.IntegerAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.LongAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.ShortAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.interaction.AbstractAttributeInteraction;
+import au.gov.asd.tac.constellation.graph.processing.GraphRecordStoreUtilities;
+import au.gov.asd.tac.constellation.utilities.datastructure.ImmutableObjectCache;
+import au.gov.asd.tac.constellation.views.tableview.api.Column;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.scene.control.TableColumn;
+
+/**
+ * A column oriented snapshot of the values displayed in the table.
+ * <p/>
+ * The attribute values of every row are read from the graph into one array
+ * per column, using primitive arrays for numeric attributes. The text
+ * displayed in a cell is only created when the cell is first looked at, which
+ * is normally only when the page containing it is shown. Rows are lightweight
+ * views over these columns rather than lists of strings.
+ * <p/>
+ * A snapshot can be updated from a newer version of the graph, in which case
+ * the columns whose attribute values have not been modified are shared with
+ * the previous snapshot, along with any text that has already been created
+ * for them. Modification counters go back down on undo, so a column is only
+ * shared if its value generation, which never repeats, is also unchanged.
+ *
+ * @author formalhaunt
+ */
+public class TableData {
+
+    private final String graphId;
+    private final GraphElementType elementType;
+    private final int[] elementIds;
+    private final ColumnValues[] columnValues;
+    private final Map<TableColumn<?, ?>, Integer> columnPositions;
+    private final long structureModificationCounter;
+    private final long structureGeneration;
+    private final long attributeModificationCounter;
+    private final ImmutableObjectCache displayTextCache;
+
+    private List<ObservableList<String>> rows = null;
+
+    /**
+     * Creates a new snapshot of the table data.
+     *
+     * @param graph the graph to read the attribute values from
+     * @param elementType the type of elements that make up the rows,
+     * {@link GraphElementType#VERTEX} or {@link GraphElementType#TRANSACTION}
+     * @param elementIds the ids of the elements, one for each row
+     * @param columns the columns of the table
+     * @param displayTextCache a cache used to share the text of equal cells
+     */
+    public TableData(final GraphReadMethods graph,
+            final GraphElementType elementType,
+            final int[] elementIds,
+            final List<Column> columns,
+            final ImmutableObjectCache displayTextCache) {
+        this(graph, elementType, elementIds, columns, displayTextCache, null);
+    }
+
+    private TableData(final GraphReadMethods graph,
+            final GraphElementType elementType,
+            final int[] elementIds,
+            final List<Column> columns,
+            final ImmutableObjectCache displayTextCache,
+            final TableData previous) {
+        this.graphId = graph.getId();
+        this.elementType = elementType;
+        this.elementIds = elementIds;
+        this.displayTextCache = displayTextCache;
+        this.structureModificationCounter = graph.getStructureModificationCounter();
+        this.structureGeneration = graph.getStructureGeneration();
+        this.attributeModificationCounter = graph.getAttributeModificationCounter();
+
+        // The previous values can only be reused if every row still reads from
+        // the same elements of the same graph and the attributes have not been changed
+        final Map<String, ColumnValues> reusableValues = new HashMap<>();
+        if (previous != null
+                && Objects.equals(previous.graphId, graphId)
+                && previous.elementType == elementType
+                && previous.structureModificationCounter == structureModificationCounter
+                && previous.structureGeneration == structureGeneration
+                && previous.attributeModificationCounter == attributeModificationCounter
+                && Arrays.equals(previous.elementIds, elementIds)) {
+            for (final ColumnValues values : previous.columnValues) {
+                reusableValues.put(values.getKey(), values);
+            }
+        }
+
+        this.columnValues = new ColumnValues[columns.size()];
+        this.columnPositions = new IdentityHashMap<>();
+        final Map<String, int[]> valueElementIds = new HashMap<>();
+        for (int position = 0; position < columnValues.length; position++) {
+            final Column column = columns.get(position);
+            final int attributeId = graph.getAttribute(
+                    column.getAttribute().getElementType(),
+                    column.getAttribute().getName()
+            );
+            final String attributeType = column.getAttribute().getAttributeType();
+            final long valueModificationCounter = attributeId == Graph.NOT_FOUND
+                    ? 0 : graph.getValueModificationCounter(attributeId);
+            final long valueGeneration = attributeId == Graph.NOT_FOUND
+                    ? 0 : graph.getValueGeneration(attributeId);
+
+            final ColumnValues reusable = reusableValues.get(ColumnValues.getKey(
+                    column.getAttributeNamePrefix(), attributeId, attributeType));
+            if (reusable != null && reusable.valueModificationCounter == valueModificationCounter
+                    && reusable.valueGeneration == valueGeneration) {
+                columnValues[position] = reusable;
+            } else {
+                columnValues[position] = new ColumnValues(graph, column.getAttributeNamePrefix(),
+                        attributeId, attributeType, valueModificationCounter, valueGeneration,
+                        valueElementIds.computeIfAbsent(Objects.toString(column.getAttributeNamePrefix()),
+                                prefix -> getValueElementIds(graph, column.getAttributeNamePrefix())));
+            }
+
+            if (column.getTableColumn() != null) {
+                columnPositions.putIfAbsent(column.getTableColumn(), position);
+            }
+        }
+    }
+
+    /**
+     * Creates a new snapshot of the table data from a newer version of the
+     * graph. Columns whose attribute values have not been modified since this
+     * snapshot was created are shared with the new snapshot.
+     *
+     * @param graph the graph to read the attribute values from
+     * @param elementType the type of elements that make up the rows
+     * @param elementIds the ids of the elements, one for each row
+     * @param columns the columns of the table
+     * @return the new snapshot
+     */
+    public TableData update(final GraphReadMethods graph,
+            final GraphElementType elementType,
+            final int[] elementIds,
+            final List<Column> columns) {
+        return new TableData(graph, elementType, elementIds, columns, displayTextCache, this);
+    }
+
+    /**
+     * Gets the ids of the elements the values of a column are read from. For a
+     * transaction table this depends on whether the column belongs to the
+     * source vertex, the destination vertex or the transaction itself.
+     *
+     * @param graph the graph to read the transaction ends from
+     * @param attributeNamePrefix the prefix of the column
+     * @return the ids of the elements to read, or null if the column has no
+     * values for this table
+     */
+    private int[] getValueElementIds(final GraphReadMethods graph, final String attributeNamePrefix) {
+        if (elementType != GraphElementType.TRANSACTION || GraphRecordStoreUtilities.TRANSACTION.equals(attributeNamePrefix)) {
+            return elementIds;
+        }
+        if (!GraphRecordStoreUtilities.SOURCE.equals(attributeNamePrefix)
+                && !GraphRecordStoreUtilities.DESTINATION.equals(attributeNamePrefix)) {
+            return null;
+        }
+
+        final int[] valueElementIds = new int[elementIds.length];
+        for (int row = 0; row < elementIds.length; row++) {
+            valueElementIds[row] = getValueElementId(graph, elementType, elementIds[row], attributeNamePrefix);
+        }
+        return valueElementIds;
+    }
+
+    /**
+     * Gets the id of the element the value of a column is read from for a
+     * single row.
+     *
+     * @param graph the graph to read the transaction ends from
+     * @param elementType the type of elements that make up the rows
+     * @param elementId the id of the element displayed in the row
+     * @param attributeNamePrefix the prefix of the column
+     * @return the id of the element to read, or {@link Graph#NOT_FOUND} if the
+     * column has no value for this table
+     */
+    private static int getValueElementId(final GraphReadMethods graph,
+            final GraphElementType elementType,
+            final int elementId,
+            final String attributeNamePrefix) {
+        if (elementType != GraphElementType.TRANSACTION || GraphRecordStoreUtilities.TRANSACTION.equals(attributeNamePrefix)) {
+            return elementId;
+        } else if (GraphRecordStoreUtilities.SOURCE.equals(attributeNamePrefix)) {
+            return graph.getTransactionSourceVertex(elementId);
+        } else if (GraphRecordStoreUtilities.DESTINATION.equals(attributeNamePrefix)) {
+            return graph.getTransactionDestinationVertex(elementId);
+        } else {
+            return Graph.NOT_FOUND;
+        }
+    }
+
+    /**
+     * Reads the text displayed in a single row straight from the graph,
+     * without building a snapshot of every column.
+     *
+     * @param graph the graph to read the attribute values from
+     * @param elementType the type of elements that make up the rows
+     * @param elementId the id of the element displayed in the row
+     * @param columns the columns of the table
+     * @param displayTextCache a cache used to share the text of equal cells
+     * @return the text of each column of the row
+     */
+    public static ObservableList<String> getRow(final GraphReadMethods graph,
+            final GraphElementType elementType,
+            final int elementId,
+            final List<Column> columns,
+            final ImmutableObjectCache displayTextCache) {
+        final ObservableList<String> row = FXCollections.observableArrayList();
+        for (final Column column : columns) {
+            final int attributeId = graph.getAttribute(
+                    column.getAttribute().getElementType(),
+                    column.getAttribute().getName()
+            );
+            final AbstractAttributeInteraction<?> interaction = AbstractAttributeInteraction
+                    .getInteraction(column.getAttribute().getAttributeType());
+            final int valueElementId = getValueElementId(graph, elementType, elementId, column.getAttributeNamePrefix());
+            final Object value = attributeId == Graph.NOT_FOUND || valueElementId == Graph.NOT_FOUND
+                    ? null : graph.getObjectValue(attributeId, valueElementId);
+            row.add(displayTextCache.deduplicate(interaction.getDisplayText(value)));
+        }
+        return row;
+    }
+
+    /**
+     * Gets the type of the elements that make up the rows.
+     *
+     * @return the element type
+     */
+    public GraphElementType getElementType() {
+        return elementType;
+    }
+
+    /**
+     * Gets the number of rows.
+     *
+     * @return the number of rows
+     */
+    public int getRowCount() {
+        return elementIds.length;
+    }
+
+    /**
+     * Gets the number of columns.
+     *
+     * @return the number of columns
+     */
+    public int getColumnCount() {
+        return columnValues.length;
+    }
+
+    /**
+     * Gets the id of the element that is displayed in a row.
+     *
+     * @param row the row
+     * @return the id of the element
+     */
+    public int getElementId(final int row) {
+        return elementIds[row];
+    }
+
+    /**
+     * Gets the position of a table column in this snapshot.
+     *
+     * @param tableColumn the table column
+     * @return the position of the column, or -1 if it is not in this snapshot
+     */
+    public int getColumnPosition(final TableColumn<?, ?> tableColumn) {
+        final Integer position = columnPositions.get(tableColumn);
+        return position == null ? -1 : position;
+    }
+
+    /**
+     * Gets the text displayed in a cell, creating it if this is the first time
+     * the cell has been looked at.
+     *
+     * @param row the row of the cell
+     * @param column the column of the cell
+     * @return the text displayed in the cell
+     */
+    public String getDisplayText(final int row, final int column) {
+        return columnValues[column].getDisplayText(row, displayTextCache);
+    }
+
+    /**
+     * Gets the rank of every row in a column, where rows with equal values
+     * share the same rank and a row with a smaller rank sorts before a row
+     * with a larger one. The order is that of {@link TableDataComparator}
+     * applied to the displayed text, with empty cells first, but numeric
+     * columns are ordered without creating their text.
+     *
+     * @param column the column
+     * @return the rank of each row
+     */
+    public int[] getRanks(final int column) {
+        return columnValues[column].getRanks(displayTextCache);
+    }
+
+    /**
+     * Gets the rows of the table. Each row is a read only list holding the
+     * text of its cells that is created as the cells are looked at.
+     *
+     * @return the rows of the table
+     */
+    public synchronized List<ObservableList<String>> getRows() {
+        if (rows == null) {
+            final List<ObservableList<String>> newRows = new ArrayList<>(elementIds.length);
+            for (int row = 0; row < elementIds.length; row++) {
+                newRows.add(new ElementRow(this, row));
+            }
+            rows = Collections.unmodifiableList(newRows);
+        }
+        return rows;
+    }
+
+    /**
+     * The values of a single column.
+     */
+    private static final class ColumnValues {
+
+        private final String attributeNamePrefix;
+        private final int attributeId;
+        private final String attributeType;
+        private final long valueModificationCounter;
+        private final long valueGeneration;
+        private final AbstractAttributeInteraction<?> interaction;
+
+        // Exactly one of these holds the values, unless the column has no values
+        private final long[] integers;
+        private final double[] decimals;
+        private final Object[] objects;
+
+        private final int rowCount;
+        private final String[] displayText;
+        private final boolean[] formatted;
+        private int[] ranks = null;
+
+        ColumnValues(final GraphReadMethods graph,
+                final String attributeNamePrefix,
+                final int attributeId,
+                final String attributeType,
+                final long valueModificationCounter,
+                final long valueGeneration,
+                final int[] valueElementIds) {
+            this.attributeNamePrefix = attributeNamePrefix;
+            this.attributeId = attributeId;
+            this.attributeType = attributeType;
+            this.valueModificationCounter = valueModificationCounter;
+            this.valueGeneration = valueGeneration;
+            this.interaction = AbstractAttributeInteraction.getInteraction(attributeType);
+
+            long[] integerValues = null;
+            double[] decimalValues = null;
+            Object[] objectValues = null;
+            if (attributeId == Graph.NOT_FOUND || valueElementIds == null) {
+                rowCount = valueElementIds == null ? 0 : valueElementIds.length;
+            } else {
+                rowCount = valueElementIds.length;
+                switch (attributeType) {
+                    case IntegerAttributeDescription.ATTRIBUTE_NAME:
+                        integerValues = new long[rowCount];
+                        for (int row = 0; row < rowCount; row++) {
+                            integerValues[row] = graph.getIntValue(attributeId, valueElementIds[row]);
+                        }
+                        break;
+                    case LongAttributeDescription.ATTRIBUTE_NAME:
+                        integerValues = new long[rowCount];
+                        for (int row = 0; row < rowCount; row++) {
+                            integerValues[row] = graph.getLongValue(attributeId, valueElementIds[row]);
+                        }
+                        break;
+                    case ShortAttributeDescription.ATTRIBUTE_NAME:
+                        integerValues = new long[rowCount];
+                        for (int row = 0; row < rowCount; row++) {
+                            integerValues[row] = graph.getShortValue(attributeId, valueElementIds[row]);
+                        }
+                        break;
+                    case ByteAttributeDescription.ATTRIBUTE_NAME:
+                        integerValues = new long[rowCount];
+                        for (int row = 0; row < rowCount; row++) {
+                            integerValues[row] = graph.getByteValue(attributeId, valueElementIds[row]);
+                        }
+                        break;
+                    case FloatAttributeDescription.ATTRIBUTE_NAME:
+                        decimalValues = new double[rowCount];
+                        for (int row = 0; row < rowCount; row++) {
+                            decimalValues[row] = graph.getFloatValue(attributeId, valueElementIds[row]);
+                        }
+                        break;
+                    case DoubleAttributeDescription.ATTRIBUTE_NAME:
+                        decimalValues = new double[rowCount];
+                        for (int row = 0; row < rowCount; row++) {
+                            decimalValues[row] = graph.getDoubleValue(attributeId, valueElementIds[row]);
+                        }
+                        break;
+                    default:
+                        objectValues = new Object[rowCount];
+                        for (int row = 0; row < rowCount; row++) {
+                            objectValues[row] = graph.getObjectValue(attributeId, valueElementIds[row]);
+                        }
+                        break;
+                }
+            }
+            this.integers = integerValues;
+            this.decimals = decimalValues;
+            this.objects = objectValues;
+
+            this.displayText = new String[rowCount];
+            this.formatted = new boolean[rowCount];
+        }
+
+        static String getKey(final String attributeNamePrefix, final int attributeId, final String attributeType) {
+            return attributeNamePrefix + ":" + attributeId + ":" + attributeType;
+        }
+
+        String getKey() {
+            return getKey(attributeNamePrefix, attributeId, attributeType);
+        }
+
+        /**
+         * Gets the value of a row in the type the attribute interaction
+         * expects.
+         */
+        private Object getValue(final int row) {
+            if (integers != null) {
+                switch (attributeType) {
+                    case IntegerAttributeDescription.ATTRIBUTE_NAME:
+                        return (int) integers[row];
+                    case ShortAttributeDescription.ATTRIBUTE_NAME:
+                        return (short) integers[row];
+                    case ByteAttributeDescription.ATTRIBUTE_NAME:
+                        return (byte) integers[row];
+                    default:
+                        return integers[row];
+                }
+            } else if (decimals != null) {
+                return FloatAttributeDescription.ATTRIBUTE_NAME.equals(attributeType)
+                        ? (Object) (float) decimals[row] : (Object) decimals[row];
+            } else if (objects != null) {
+                return objects[row];
+            } else {
+                return null;
+            }
+        }
+
+        synchronized String getDisplayText(final int row, final ImmutableObjectCache displayTextCache) {
+            if (rowCount == 0) {
+                // The column has no values for this table
+                return interaction.getDisplayText(null);
+            }
+            if (!formatted[row]) {
+                // avoid duplicate strings objects and make a massive saving on memory use
+                displayText[row] = displayTextCache.deduplicate(interaction.getDisplayText(getValue(row)));
+                formatted[row] = true;
+            }
+            return displayText[row];
+        }
+
+        synchronized int[] getRanks(final ImmutableObjectCache displayTextCache) {
+            if (ranks == null) {
+                if (integers != null || decimals != null) {
+                    ranks = rankNumbers();
+                } else {
+                    ranks = rankText(displayTextCache);
+                }
+            }
+            return ranks;
+        }
+
+        private int[] rankNumbers() {
+            final double[] values = new double[rowCount];
+            for (int row = 0; row < rowCount; row++) {
+                values[row] = integers != null ? integers[row] : decimals[row];
+            }
+
+            final double[] distinct = values.clone();
+            Arrays.sort(distinct);
+            int distinctCount = 0;
+            for (int i = 0; i < distinct.length; i++) {
+                if (distinctCount == 0 || Double.compare(distinct[distinctCount - 1], distinct[i]) != 0) {
+                    distinct[distinctCount++] = distinct[i];
+                }
+            }
+
+            final int[] rowRanks = new int[rowCount];
+            for (int row = 0; row < rowCount; row++) {
+                rowRanks[row] = Arrays.binarySearch(distinct, 0, distinctCount, values[row]);
+            }
+            return rowRanks;
+        }
+
+        private int[] rankText(final ImmutableObjectCache displayTextCache) {
+            if (rowCount == 0) {
+                return new int[0];
+            }
+
+            final String[] text = new String[rowCount];
+            int textCount = 0;
+            for (int row = 0; row < rowCount; row++) {
+                final String rowText = getDisplayText(row, displayTextCache);
+                if (rowText != null) {
+                    text[textCount++] = rowText;
+                }
+            }
+
+            final TableDataComparator comparator = new TableDataComparator();
+            Arrays.sort(text, 0, textCount, comparator);
+
+            // Empty cells have a rank of 0 and all other text ranks after them
+            final Map<String, Integer> textRanks = new HashMap<>();
+            int rank = 0;
+            String previousText = null;
+            for (int i = 0; i < textCount; i++) {
+                if (previousText == null || comparator.compare(previousText, text[i]) != 0) {
+                    rank++;
+                }
+                textRanks.putIfAbsent(text[i], rank);
+                previousText = text[i];
+            }
+
+            final int[] rowRanks = new int[rowCount];
+            for (int row = 0; row < rowCount; row++) {
+                final String rowText = displayText[row];
+                rowRanks[row] = rowText == null ? 0 : textRanks.get(rowText);
+            }
+            return rowRanks;
+        }
+    }
+}
@@ -152,7 +152,7 @@ public class TableViewPageFactory implements Callback<Integer, Node> {
 
             // Re-bind the sorted row list comparator property
             tablePane.getActiveTableReference().getSortedRowList().comparatorProperty()
-                    .bind(tablePane.getTable().getTableView().comparatorProperty());
+                    .bind(tablePane.getTable().getRowComparator());
 
             // Restore the selection
             if (tablePane.getParentComponent().getCurrentState() != null) {
@@ -89,7 +89,7 @@ public final class TablePane extends BorderPane {
         table = new Table(this);
 
         activeTableReference.getSortedRowList().comparatorProperty()
-                .bind(table.getTableView().comparatorProperty());
+                .bind(table.getRowComparator());
 
         // Setup the UI components
         this.tableToolbar = new TableToolbar(this);
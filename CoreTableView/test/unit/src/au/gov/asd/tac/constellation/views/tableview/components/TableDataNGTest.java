@@ -0,0 +1,269 @@
+/*
+ * Copyright 2010-2022 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.views.tableview.components;
+
+import au.gov.asd.tac.constellation.graph.GraphAttribute;
+import au.gov.asd.tac.constellation.graph.GraphElementType;
+import au.gov.asd.tac.constellation.graph.StoreGraph;
+import au.gov.asd.tac.constellation.graph.attribute.FloatAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.IntegerAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.StringAttributeDescription;
+import au.gov.asd.tac.constellation.graph.locking.GraphOperationMode;
+import au.gov.asd.tac.constellation.graph.processing.GraphRecordStoreUtilities;
+import au.gov.asd.tac.constellation.utilities.datastructure.ImmutableObjectCache;
+import au.gov.asd.tac.constellation.views.tableview.api.Column;
+import java.util.ArrayList;
+import java.util.List;
+import javafx.collections.ObservableList;
+import javafx.scene.control.TableColumn;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotSame;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertSame;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Table Data Test.
+ *
+ * @author formalhaunt
+ */
+public class TableDataNGTest {
+
+    private StoreGraph graph;
+    private int nameAttr;
+    private int countAttr;
+    private int xAttr;
+    private int weightAttr;
+    private int[] vertices;
+    private int[] transactions;
+
+    public TableDataNGTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+    }
+
+    @BeforeMethod
+    public void setUpMethod() throws Exception {
+        graph = new StoreGraph();
+        nameAttr = graph.addAttribute(GraphElementType.VERTEX, StringAttributeDescription.ATTRIBUTE_NAME, "name", null, null, null);
+        countAttr = graph.addAttribute(GraphElementType.VERTEX, IntegerAttributeDescription.ATTRIBUTE_NAME, "count", null, 0, null);
+        xAttr = graph.addAttribute(GraphElementType.VERTEX, FloatAttributeDescription.ATTRIBUTE_NAME, "x", null, 0.0F, null);
+        weightAttr = graph.addAttribute(GraphElementType.TRANSACTION, FloatAttributeDescription.ATTRIBUTE_NAME, "weight", null, 0.0F, null);
+
+        final String[] names = {"v10", null, "v2", "v1", "v2"};
+        final int[] counts = {3, -1, 12, 3, 0};
+        final float[] xs = {1.5F, -2.0F, 0.0F, 10.25F, 1.5F};
+        vertices = new int[names.length];
+        for (int i = 0; i < vertices.length; i++) {
+            vertices[i] = graph.addVertex();
+            graph.setStringValue(nameAttr, vertices[i], names[i]);
+            graph.setIntValue(countAttr, vertices[i], counts[i]);
+            graph.setFloatValue(xAttr, vertices[i], xs[i]);
+        }
+
+        transactions = new int[2];
+        transactions[0] = graph.addTransaction(vertices[0], vertices[2], true);
+        transactions[1] = graph.addTransaction(vertices[3], vertices[1], true);
+        graph.setFloatValue(weightAttr, transactions[0], 0.5F);
+        graph.setFloatValue(weightAttr, transactions[1], 7.0F);
+    }
+
+    @AfterMethod
+    public void tearDownMethod() throws Exception {
+    }
+
+    /**
+     * The rows of a vertex table should hold the displayed value of each
+     * vertex attribute.
+     */
+    @Test
+    public void testVertexRows() {
+        final List<Column> columns = List.of(
+                createColumn(GraphRecordStoreUtilities.SOURCE, nameAttr),
+                createColumn(GraphRecordStoreUtilities.SOURCE, countAttr),
+                createColumn(GraphRecordStoreUtilities.SOURCE, xAttr));
+        final TableData tableData = new TableData(graph, GraphElementType.VERTEX, vertices, columns, new ImmutableObjectCache());
+
+        assertEquals(vertices.length, tableData.getRowCount());
+        assertEquals(3, tableData.getColumnCount());
+        assertEquals(vertices[3], tableData.getElementId(3));
+
+        final List<ObservableList<String>> rows = tableData.getRows();
+        assertEquals(List.of("v10", "3", "1.5"), rows.get(0));
+        assertNull(rows.get(1).get(0));
+        assertEquals(List.of("-1", "-2.0"), rows.get(1).subList(1, 3));
+        assertEquals(List.of("v1", "3", "10.25"), rows.get(3));
+        assertSame(rows, tableData.getRows());
+    }
+
+    /**
+     * The rows of a transaction table should hold the values of the source
+     * vertex, the destination vertex and the transaction in their columns.
+     */
+    @Test
+    public void testTransactionRows() {
+        final List<Column> columns = List.of(
+                createColumn(GraphRecordStoreUtilities.SOURCE, nameAttr),
+                createColumn(GraphRecordStoreUtilities.TRANSACTION, weightAttr),
+                createColumn(GraphRecordStoreUtilities.DESTINATION, nameAttr));
+        final TableData tableData = new TableData(graph, GraphElementType.TRANSACTION, transactions, columns, new ImmutableObjectCache());
+
+        final List<ObservableList<String>> rows = tableData.getRows();
+        assertEquals(List.of("v10", "0.5", "v2"), rows.get(0));
+        assertEquals("v1", rows.get(1).get(0));
+        assertEquals("7.0", rows.get(1).get(1));
+        assertNull(rows.get(1).get(2));
+    }
+
+    /**
+     * Sorting rows by their ranks should give the same order as sorting their
+     * displayed values with the table data comparator.
+     */
+    @Test
+    public void testGetRanks() {
+        final List<Column> columns = List.of(
+                createColumn(GraphRecordStoreUtilities.SOURCE, nameAttr),
+                createColumn(GraphRecordStoreUtilities.SOURCE, countAttr),
+                createColumn(GraphRecordStoreUtilities.SOURCE, xAttr));
+        final TableData tableData = new TableData(graph, GraphElementType.VERTEX, vertices, columns, new ImmutableObjectCache());
+        final TableDataComparator comparator = new TableDataComparator();
+
+        for (int column = 0; column < tableData.getColumnCount(); column++) {
+            final int[] ranks = tableData.getRanks(column);
+            for (int row1 = 0; row1 < tableData.getRowCount(); row1++) {
+                for (int row2 = 0; row2 < tableData.getRowCount(); row2++) {
+                    final String text1 = tableData.getDisplayText(row1, column);
+                    final String text2 = tableData.getDisplayText(row2, column);
+                    final int expected = text1 == null && text2 == null ? 0 : Integer.signum(comparator.compare(text1, text2));
+                    assertEquals(column + ":" + row1 + ":" + row2, expected, Integer.signum(Integer.compare(ranks[row1], ranks[row2])));
+                }
+            }
+        }
+    }
+
+    /**
+     * The row comparator should sort rows by the ranks of the sorted columns.
+     */
+    @Test
+    public void testElementRowComparator() {
+        final Column nameColumn = createColumn(GraphRecordStoreUtilities.SOURCE, nameAttr);
+        final Column countColumn = createColumn(GraphRecordStoreUtilities.SOURCE, countAttr);
+        final TableData tableData = new TableData(graph, GraphElementType.VERTEX, vertices, List.of(nameColumn, countColumn), new ImmutableObjectCache());
+
+        countColumn.getTableColumn().setSortType(TableColumn.SortType.DESCENDING);
+        final ElementRowComparator comparator = new ElementRowComparator(
+                List.of(countColumn.getTableColumn(), nameColumn.getTableColumn()), (row1, row2) -> {
+                    throw new AssertionError("Rows should be compared by rank");
+                });
+
+        final List<ObservableList<String>> rows = new ArrayList<>(tableData.getRows());
+        rows.sort(comparator);
+
+        final List<Integer> sortedIds = new ArrayList<>();
+        rows.forEach(row -> sortedIds.add(tableData.getElementId(((ElementRow) row).getRow())));
+        assertEquals(List.of(vertices[2], vertices[3], vertices[0], vertices[4], vertices[1]), sortedIds);
+    }
+
+    /**
+     * Updating the table data should only read the columns that have been
+     * modified.
+     */
+    @Test
+    public void testUpdate() {
+        final List<Column> columns = List.of(
+                createColumn(GraphRecordStoreUtilities.SOURCE, nameAttr),
+                createColumn(GraphRecordStoreUtilities.SOURCE, countAttr));
+        final TableData tableData = new TableData(graph, GraphElementType.VERTEX, vertices, columns, new ImmutableObjectCache());
+        final int[] nameRanks = tableData.getRanks(0);
+        final int[] countRanks = tableData.getRanks(1);
+
+        graph.setIntValue(countAttr, vertices[1], 100);
+        final TableData updatedTableData = tableData.update(graph, GraphElementType.VERTEX, vertices, columns);
+
+        assertSame(nameRanks, updatedTableData.getRanks(0));
+        assertNotSame(countRanks, updatedTableData.getRanks(1));
+        assertEquals("100", updatedTableData.getDisplayText(1, 1));
+        assertEquals("-1", tableData.getDisplayText(1, 1));
+
+        // Different rows can not reuse any values
+        final int[] someVertices = {vertices[0], vertices[2]};
+        final TableData selectedTableData = updatedTableData.update(graph, GraphElementType.VERTEX, someVertices, columns);
+        assertNotSame(nameRanks, selectedTableData.getRanks(0));
+        assertEquals(List.of("v2", "12"), selectedTableData.getRows().get(1));
+    }
+
+    /**
+     * A column should not be reused when undoing a change brings its
+     * modification counter back to the value it had in the previous table
+     * data.
+     */
+    @Test
+    public void testUpdateAfterUndo() {
+        final List<Column> columns = List.of(
+                createColumn(GraphRecordStoreUtilities.SOURCE, nameAttr),
+                createColumn(GraphRecordStoreUtilities.SOURCE, countAttr));
+        final TableData tableData = new TableData(graph, GraphElementType.VERTEX, vertices, columns, new ImmutableObjectCache());
+        final int[] nameRanks = tableData.getRanks(0);
+        final int[] countRanks = tableData.getRanks(1);
+        final long countModificationCounter = graph.getValueModificationCounter(countAttr);
+
+        graph.setOperationMode(GraphOperationMode.UNDO);
+        graph.setIntValue(countAttr, vertices[1], 50);
+        graph.setOperationMode(GraphOperationMode.EXECUTE);
+        graph.setIntValue(countAttr, vertices[2], 60);
+        assertEquals(countModificationCounter, graph.getValueModificationCounter(countAttr));
+
+        final TableData updatedTableData = tableData.update(graph, GraphElementType.VERTEX, vertices, columns);
+        assertSame(nameRanks, updatedTableData.getRanks(0));
+        assertNotSame(countRanks, updatedTableData.getRanks(1));
+        assertEquals("50", updatedTableData.getDisplayText(1, 1));
+        assertEquals("60", updatedTableData.getDisplayText(2, 1));
+    }
+
+    /**
+     * A single row should hold the same text as the row of a whole table.
+     */
+    @Test
+    public void testGetRow() {
+        final List<Column> columns = List.of(
+                createColumn(GraphRecordStoreUtilities.SOURCE, nameAttr),
+                createColumn(GraphRecordStoreUtilities.SOURCE, countAttr),
+                createColumn(GraphRecordStoreUtilities.TRANSACTION, weightAttr),
+                createColumn(GraphRecordStoreUtilities.DESTINATION, nameAttr));
+        final TableData tableData = new TableData(graph, GraphElementType.TRANSACTION, transactions, columns, new ImmutableObjectCache());
+
+        for (int row = 0; row < transactions.length; row++) {
+            assertEquals(tableData.getRows().get(row),
+                    TableData.getRow(graph, GraphElementType.TRANSACTION, transactions[row], columns, new ImmutableObjectCache()));
+        }
+    }
+
+    private Column createColumn(final String prefix, final int attribute) {
+        final TableColumn<ObservableList<String>, String> tableColumn = new TableColumn<>(prefix + graph.getAttributeName(attribute));
+        tableColumn.setComparator(new TableDataComparator());
+        return new Column(prefix, new GraphAttribute(graph, attribute), tableColumn);
+    }
+}
@@ -772,15 +772,14 @@ public class TableNGTest {
         final ObservableList<String> row1 = FXCollections.observableList(List.of("row1Column1", "row1Column2"));
         final ObservableList<String> row2 = FXCollections.observableList(List.of("row2Column1", "row2Column2"));
 
-        testUpdateData(GraphElementType.TRANSACTION, false, row1, row2, null, null, List.of(row1, row2));
+        testUpdateData(GraphElementType.TRANSACTION, false, new int[]{101, 102}, List.of(row1, row2));
     }
 
     @Test
     public void updateDataTransactionStateSelectedOnly() {
-        final ObservableList<String> row1 = FXCollections.observableList(List.of("row1Column1", "row1Column2"));
         final ObservableList<String> row2 = FXCollections.observableList(List.of("row2Column1", "row2Column2"));
 
-        testUpdateData(GraphElementType.TRANSACTION, true, row1, row2, null, null, List.of(row2));
+        testUpdateData(GraphElementType.TRANSACTION, true, new int[]{102}, List.of(row2));
     }
 
     @Test
@@ -788,15 +787,14 @@ public class TableNGTest {
         final ObservableList<String> row1 = FXCollections.observableList(List.of("row1Column1", "row1Column2"));
         final ObservableList<String> row2 = FXCollections.observableList(List.of("row2Column1", "row2Column2"));
 
-        testUpdateData(GraphElementType.VERTEX, false, null, null, row1, row2, List.of(row1, row2));
+        testUpdateData(GraphElementType.VERTEX, false, new int[]{201, 202}, List.of(row1, row2));
     }
 
     @Test
     public void updateDataVertexStateSelectedOnly() {
-        final ObservableList<String> row1 = FXCollections.observableList(List.of("row1Column1", "row1Column2"));
         final ObservableList<String> row2 = FXCollections.observableList(List.of("row2Column1", "row2Column2"));
 
-        testUpdateData(GraphElementType.VERTEX, true, null, null, row1, row2, List.of(row2));
+        testUpdateData(GraphElementType.VERTEX, true, new int[]{202}, List.of(row2));
     }
 
     @Test
@@ -947,27 +945,19 @@ public class TableNGTest {
     }
 
     /**
-     * Tests the update data method. If the initial state's element type is
-     * vertex, then the parameters transaction row 1 and 2 can be null. And vice
-     * versa.
+     * Tests the update data method. The graph has transactions 101 and 102 and
+     * vertices 201 and 202, of which 102 and 202 are selected.
      *
      * @param stateElementType the initial element type in the table state
      * @param isSelectedOnlyMode true if the table's initial state is in
      * selected only mode, false otherwise
-     * @param transactionRow1 row 1 that represents a transaction element in the
-     * graph
-     * @param transactionRow2 row 2 that represents a transaction element in the
-     * graph
-     * @param vertexRow1 row 1 that represents a vertex element in the graph
-     * @param vertexRow2 row 2 that represents a vertex element in the graph
+     * @param expectedElementIds the IDs of the elements that are expected to be
+     * added to the table
      * @param expectedRows the expected rows that will be added to the table
      */
     private void testUpdateData(final GraphElementType stateElementType,
             final boolean isSelectedOnlyMode,
-            final ObservableList<String> transactionRow1,
-            final ObservableList<String> transactionRow2,
-            final ObservableList<String> vertexRow1,
-            final ObservableList<String> vertexRow2,
+            final int[] expectedElementIds,
             final List<ObservableList<String>> expectedRows) {
         final TableViewState tableViewState = new TableViewState();
         tableViewState.setElementType(stateElementType);
@@ -1010,12 +1000,19 @@ public class TableNGTest {
         when(readableGraph.getBooleanValue(22, 201)).thenReturn(false);
         when(readableGraph.getBooleanValue(22, 202)).thenReturn(true);
 
-        // Mock the transaction row creation
-        doReturn(transactionRow1).when(table).getRowDataForTransaction(readableGraph, 101);
-        doReturn(transactionRow2).when(table).getRowDataForTransaction(readableGraph, 102);
+        // Mock the table data creation
+        final TableData tableData = mock(TableData.class);
+        when(tableData.getRows()).thenReturn(expectedRows);
+
+        final Map<Integer, ObservableList<String>> expectedElementIdToRowIndex = new HashMap<>();
+        final Map<ObservableList<String>, Integer> expectedRowToElementIdIndex = new HashMap<>();
+        for (int row = 0; row < expectedElementIds.length; row++) {
+            when(tableData.getElementId(row)).thenReturn(expectedElementIds[row]);
+            expectedElementIdToRowIndex.put(expectedElementIds[row], expectedRows.get(row));
+            expectedRowToElementIdIndex.put(expectedRows.get(row), expectedElementIds[row]);
+        }
 
-        doReturn(vertexRow1).when(table).getRowDataForVertex(readableGraph, 201);
-        doReturn(vertexRow2).when(table).getRowDataForVertex(readableGraph, 202);
+        doReturn(tableData).when(table).createTableData(readableGraph, stateElementType, expectedElementIds);
 
         try (final MockedStatic<Platform> platformMockedStatic = Mockito.mockStatic(Platform.class)) {
             platformMockedStatic.when(() -> Platform.runLater(any(Runnable.class)))
@@ -1040,8 +1037,8 @@ public class TableNGTest {
             table.updateData(graph, tableViewState, progressBar);
         }
 
-        assertTrue(elementIdToRowIndex.isEmpty());
-        assertTrue(rowToElementIdIndex.isEmpty());
+        assertEquals(expectedElementIdToRowIndex, elementIdToRowIndex);
+        assertEquals(expectedRowToElementIdIndex, rowToElementIdIndex);
 
         verify(tablePane).setCenter(progressPane);
 
@@ -36,6 +36,7 @@ import javafx.application.Platform;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.ReadOnlyObjectProperty;
 import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
 import javafx.collections.FXCollections;
 import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
@@ -95,7 +96,7 @@ public class TableViewPageFactoryNGTest {
     private Set<ObservableList<String>> selectedOnlySelectedRows;
 
     private ObjectProperty<Comparator<? super ObservableList<String>>> sortedRowListComparator;
-    private ObjectProperty<Comparator<ObservableList<String>>> tableViewComparator;
+    private ObservableValue<Comparator<? super ObservableList<String>>> rowComparator;
 
     private TableViewPageFactory tableViewPageFactory;
 
@@ -135,7 +136,7 @@ public class TableViewPageFactoryNGTest {
         tableSortTypeListener = mock(ChangeListener.class);
 
         sortedRowListComparator = mock(ObjectProperty.class);
-        tableViewComparator = mock(ObjectProperty.class);
+        rowComparator = mock(ObservableValue.class);
 
         sortedRowList = spy(new SortedList<>(FXCollections.observableArrayList()));
         selectedOnlySelectedRows = new HashSet<>();
@@ -155,13 +156,13 @@ public class TableViewPageFactoryNGTest {
         when(sortedRowList.comparatorProperty()).thenReturn(sortedRowListComparator);
 
         when(table.getTableView()).thenReturn(tableView);
+        when(table.getRowComparator()).thenReturn(rowComparator);
         when(table.getSelectedProperty()).thenReturn(selectedProperty);
         when(table.getTableSelectionListener()).thenReturn(tableSelectionListener);
         when(table.getSelectedOnlySelectionListener()).thenReturn(selectedOnlySelectionListener);
 
         when(selectionModel.getSelectedItems()).thenReturn(selectedItems);
 
-        when(tableView.comparatorProperty()).thenReturn(tableViewComparator);
         when(tableView.getSelectionModel()).thenReturn(selectionModel);
 
         when(tableViewTopComponent.getCurrentGraph()).thenReturn(graph);
@@ -304,7 +305,7 @@ public class TableViewPageFactoryNGTest {
 
         verify(tableView).setItems(FXCollections.observableList(List.of(row1, row2)));
 
-        verify(sortedRowListComparator).bind(tableViewComparator);
+        verify(sortedRowListComparator).bind(rowComparator);
 
         verify(tableViewPageFactory).restoreSort(currentSort);
 
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.utilities.threadpool;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Runs calls that block, such as waiting for a dialog or a lock, so that a
+ * {@link ForkJoinPool} running the calling thread can start another thread in
+ * its place while it waits. Outside a ForkJoinPool the call is simply made.
+ *
+ * @author sirius
+ */
+public final class ManagedBlocking {
+
+    private ManagedBlocking() {
+    }
+
+    /**
+     * A call that may block.
+     *
+     * @param <T> the type of the result of the call.
+     */
+    @FunctionalInterface
+    public interface BlockingCall<T> {
+
+        T call() throws InterruptedException;
+    }
+
+    /**
+     * Makes a call that may block.
+     *
+     * @param <T> the type of the result of the call.
+     * @param call the call to make.
+     * @return the result of the call.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    public static <T> T block(final BlockingCall<T> call) throws InterruptedException {
+        final Blocker<T> blocker = new Blocker<>(call);
+        ForkJoinPool.managedBlock(blocker);
+        return blocker.result;
+    }
+
+    private static final class Blocker<T> implements ForkJoinPool.ManagedBlocker {
+
+        private final BlockingCall<T> call;
+        private boolean done = false;
+        private T result = null;
+
+        private Blocker(final BlockingCall<T> call) {
+            this.call = call;
+        }
+
+        @Override
+        public boolean block() throws InterruptedException {
+            result = call.call();
+            done = true;
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return done;
+        }
+    }
+}
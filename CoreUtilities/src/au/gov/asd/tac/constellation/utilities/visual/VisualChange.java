@@ -125,6 +125,33 @@ public final class VisualChange implements Comparable<VisualChange> {
         return Arrays.equals(changeList, other.changeList);
     }
 
+    /**
+     * Determines whether every item in another VisualChange is also in this
+     * change. A change without a changeList covers every change whose items all
+     * have indices below its size.
+     *
+     * @param other
+     * @return boolean indicating whether processing this change would also
+     * process every item in the other change.
+     */
+    public boolean covers(final VisualChange other) {
+        if (other == null) {
+            return false;
+        }
+        if (changeList != null) {
+            return hasSameChangeList(other);
+        }
+        if (other.changeList == null) {
+            return true;
+        }
+        for (final int element : other.changeList) {
+            if (element >= changeListSize) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Get the index of the element that has been changed at the specified
      * position in this change list.
@@ -305,12 +305,14 @@ public abstract class VisualProcessor {
             final List<VisualChange> currentChanges = masterChangeMap.get(getMasterProperty(change.property));
             boolean equivilantChangePresent = false;
             for (final VisualChange currentChange : currentChanges) {
-                if (currentChange.hasSameChangeList(change)) {
+                if (currentChange.covers(change)) {
                     equivilantChangePresent = true;
                     break;
                 }
             }
             if (!equivilantChangePresent) {
+                // A change to every item makes earlier changes to some of those items redundant.
+                currentChanges.removeIf(change::covers);
                 currentChanges.add(change);
             }
         });
@@ -115,6 +115,26 @@ public class VisualChangeNGTest {
         assertFalse(vc3.hasSameChangeList(vc));
     }
 
+    /**
+     * Test of covers method, of class VisualChange.
+     */
+    @Test
+    public void testCovers() {
+        System.out.println("covers");
+        
+        final VisualProperty property = mock(VisualProperty.class);
+        final VisualChange all = new VisualChange(property, null, 10, 0);
+        final VisualChange some = new VisualChange(property, new int[]{2, 7}, -1, 0);
+        final VisualChange outside = new VisualChange(property, new int[]{2, 10}, -1, 0);
+        
+        assertTrue(all.covers(some));
+        assertFalse(all.covers(outside));
+        assertFalse(some.covers(all));
+        assertTrue(some.covers(new VisualChange(property, new int[]{2, 7}, -1, 0)));
+        assertTrue(all.covers(new VisualChange(property, null, 10, 0)));
+        assertFalse(all.covers(null));
+    }
+
     /**
      * Test of getElement method, of class VisualChange.
      */
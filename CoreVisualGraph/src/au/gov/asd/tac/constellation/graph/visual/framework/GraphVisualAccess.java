@@ -177,6 +177,7 @@ public final class GraphVisualAccess implements VisualAccess {
                 globalModCount = currentGlobalModCount;
             }
             long count;
+            Long previousCount;
             boolean attributesChanged = false;
             boolean verticesRebuilding = false;
             boolean connectionsRebuilding = false;
@@ -399,8 +400,9 @@ public final class GraphVisualAccess implements VisualAccess {
             // Handle changes to vertex colors
             if (recordChanges) {
                 count = vertexColor == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(vertexColor);
-                if (!Objects.equals(count, modCounts.put(VisualConcept.VertexAttribute.COLOR, count)) || vertexColorChanged) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.VERTEX_COLOR).forItems(accessGraph.getVertexCount()).build());
+                previousCount = modCounts.put(VisualConcept.VertexAttribute.COLOR, count);
+                if (!Objects.equals(count, previousCount) || vertexColorChanged) {
+                    changes.add(buildVertexChange(VisualProperty.VERTEX_COLOR, vertexColor, previousCount, verticesRebuilding || attributesChanged || vertexColorChanged));
                 }
             }
 
@@ -419,8 +421,9 @@ public final class GraphVisualAccess implements VisualAccess {
             // Handle changes to transaction colors
             if (recordChanges) {
                 count = transactionColor == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(transactionColor);
-                if (!Objects.equals(count, modCounts.put(VisualConcept.TransactionAttribute.COLOR, count)) || transactionColorChanged) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.CONNECTION_COLOR).forItems(connectionElementTypes.length).build());
+                previousCount = modCounts.put(VisualConcept.TransactionAttribute.COLOR, count);
+                if (!Objects.equals(count, previousCount) || transactionColorChanged) {
+                    changes.add(buildConnectionChange(VisualProperty.CONNECTION_COLOR, transactionColor, previousCount, connectionsRebuilding || attributesChanged || transactionColorChanged));
                 }
             }
 
@@ -480,98 +483,205 @@ public final class GraphVisualAccess implements VisualAccess {
 
                 // Handle stand-alone changes to vertex visual attributes
                 count = vertexX == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(vertexX);
-                if (!Objects.equals(count, modCounts.put(VisualConcept.VertexAttribute.X, count))) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.VERTEX_X).forItems(accessGraph.getVertexCount()).build());
+                previousCount = modCounts.put(VisualConcept.VertexAttribute.X, count);
+                if (!Objects.equals(count, previousCount)) {
+                    changes.add(buildVertexChange(VisualProperty.VERTEX_X, vertexX, previousCount, verticesRebuilding || attributesChanged));
                 }
                 count = vertexY == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(vertexY);
-                if (!Objects.equals(count, modCounts.put(VisualConcept.VertexAttribute.Y, count))) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.VERTEX_Y).forItems(accessGraph.getVertexCount()).build());
+                previousCount = modCounts.put(VisualConcept.VertexAttribute.Y, count);
+                if (!Objects.equals(count, previousCount)) {
+                    changes.add(buildVertexChange(VisualProperty.VERTEX_Y, vertexY, previousCount, verticesRebuilding || attributesChanged));
                 }
                 count = vertexZ == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(vertexZ);
-                if (!Objects.equals(count, modCounts.put(VisualConcept.VertexAttribute.Z, count))) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.VERTEX_Z).forItems(accessGraph.getVertexCount()).build());
+                previousCount = modCounts.put(VisualConcept.VertexAttribute.Z, count);
+                if (!Objects.equals(count, previousCount)) {
+                    changes.add(buildVertexChange(VisualProperty.VERTEX_Z, vertexZ, previousCount, verticesRebuilding || attributesChanged));
                 }
                 count = vertexX2 == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(vertexX2);
-                if (!Objects.equals(count, modCounts.put(VisualConcept.VertexAttribute.X2, count))) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.VERTEX_X2).forItems(accessGraph.getVertexCount()).build());
+                previousCount = modCounts.put(VisualConcept.VertexAttribute.X2, count);
+                if (!Objects.equals(count, previousCount)) {
+                    changes.add(buildVertexChange(VisualProperty.VERTEX_X2, vertexX2, previousCount, verticesRebuilding || attributesChanged));
                 }
                 count = vertexY2 == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(vertexY2);
-                if (!Objects.equals(count, modCounts.put(VisualConcept.VertexAttribute.Y2, count))) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.VERTEX_Y2).forItems(accessGraph.getVertexCount()).build());
+                previousCount = modCounts.put(VisualConcept.VertexAttribute.Y2, count);
+                if (!Objects.equals(count, previousCount)) {
+                    changes.add(buildVertexChange(VisualProperty.VERTEX_Y2, vertexY2, previousCount, verticesRebuilding || attributesChanged));
                 }
                 count = vertexZ2 == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(vertexZ2);
-                if (!Objects.equals(count, modCounts.put(VisualConcept.VertexAttribute.Z2, count))) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.VERTEX_Z2).forItems(accessGraph.getVertexCount()).build());
+                previousCount = modCounts.put(VisualConcept.VertexAttribute.Z2, count);
+                if (!Objects.equals(count, previousCount)) {
+                    changes.add(buildVertexChange(VisualProperty.VERTEX_Z2, vertexZ2, previousCount, verticesRebuilding || attributesChanged));
                 }
                 count = vertexBackgroundIcon == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(vertexBackgroundIcon);
-                if (!Objects.equals(count, modCounts.put(VisualConcept.VertexAttribute.BACKGROUND_ICON, count))) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.VERTEX_BACKGROUND_ICON).forItems(accessGraph.getVertexCount()).build());
+                previousCount = modCounts.put(VisualConcept.VertexAttribute.BACKGROUND_ICON, count);
+                if (!Objects.equals(count, previousCount)) {
+                    changes.add(buildVertexChange(VisualProperty.VERTEX_BACKGROUND_ICON, vertexBackgroundIcon, previousCount, verticesRebuilding || attributesChanged));
                 }
                 count = vertexForegroundIcon == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(vertexForegroundIcon);
-                if (!Objects.equals(count, modCounts.put(VisualConcept.VertexAttribute.FOREGROUND_ICON, count))) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.VERTEX_FOREGROUND_ICON).forItems(accessGraph.getVertexCount()).build());
+                previousCount = modCounts.put(VisualConcept.VertexAttribute.FOREGROUND_ICON, count);
+                if (!Objects.equals(count, previousCount)) {
+                    changes.add(buildVertexChange(VisualProperty.VERTEX_FOREGROUND_ICON, vertexForegroundIcon, previousCount, verticesRebuilding || attributesChanged));
                 }
                 count = vertexSelected == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(vertexSelected);
-                if (!Objects.equals(count, modCounts.put(VisualConcept.VertexAttribute.SELECTED, count))) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.VERTEX_SELECTED).forItems(accessGraph.getVertexCount()).build());
+                previousCount = modCounts.put(VisualConcept.VertexAttribute.SELECTED, count);
+                if (!Objects.equals(count, previousCount)) {
+                    changes.add(buildVertexChange(VisualProperty.VERTEX_SELECTED, vertexSelected, previousCount, verticesRebuilding || attributesChanged));
                 }
                 count = vertexVisibility == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(vertexVisibility);
-                if (!Objects.equals(count, modCounts.put(VisualConcept.VertexAttribute.VISIBILITY, count))) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.VERTEX_VISIBILITY).forItems(accessGraph.getVertexCount()).build());
+                previousCount = modCounts.put(VisualConcept.VertexAttribute.VISIBILITY, count);
+                if (!Objects.equals(count, previousCount)) {
+                    changes.add(buildVertexChange(VisualProperty.VERTEX_VISIBILITY, vertexVisibility, previousCount, verticesRebuilding || attributesChanged));
                 }
                 count = vertexLayerVisibility == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(vertexLayerVisibility);
-                if (!Objects.equals(count, modCounts.put(LayersConcept.VertexAttribute.LAYER_VISIBILITY, count))) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.VERTEX_VISIBILITY).forItems(accessGraph.getVertexCount()).build());
+                previousCount = modCounts.put(LayersConcept.VertexAttribute.LAYER_VISIBILITY, count);
+                if (!Objects.equals(count, previousCount)) {
+                    changes.add(buildVertexChange(VisualProperty.VERTEX_VISIBILITY, vertexLayerVisibility, previousCount, verticesRebuilding || attributesChanged));
                 }
                 count = vertexDimmed == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(vertexDimmed);
-                if (!Objects.equals(count, modCounts.put(VisualConcept.VertexAttribute.DIMMED, count))) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.VERTEX_DIM).forItems(accessGraph.getVertexCount()).build());
+                previousCount = modCounts.put(VisualConcept.VertexAttribute.DIMMED, count);
+                if (!Objects.equals(count, previousCount)) {
+                    changes.add(buildVertexChange(VisualProperty.VERTEX_DIM, vertexDimmed, previousCount, verticesRebuilding || attributesChanged));
                 }
                 count = vertexRadius == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(vertexRadius);
-                if (!Objects.equals(count, modCounts.put(VisualConcept.VertexAttribute.NODE_RADIUS, count))) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.VERTEX_RADIUS).forItems(accessGraph.getVertexCount()).build());
+                previousCount = modCounts.put(VisualConcept.VertexAttribute.NODE_RADIUS, count);
+                if (!Objects.equals(count, previousCount)) {
+                    changes.add(buildVertexChange(VisualProperty.VERTEX_RADIUS, vertexRadius, previousCount, verticesRebuilding || attributesChanged));
                 }
                 count = vertexBlaze == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(vertexBlaze);
-                if (!Objects.equals(count, modCounts.put(VisualConcept.VertexAttribute.BLAZE, count))) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.VERTEX_BLAZED).forItems(accessGraph.getVertexCount()).build());
-                    changes.add(new VisualChangeBuilder(VisualProperty.VERTEX_BLAZE_ANGLE).forItems(accessGraph.getVertexCount()).build());
-                    changes.add(new VisualChangeBuilder(VisualProperty.VERTEX_BLAZE_COLOR).forItems(accessGraph.getVertexCount()).build());
+                previousCount = modCounts.put(VisualConcept.VertexAttribute.BLAZE, count);
+                if (!Objects.equals(count, previousCount)) {
+                    changes.add(buildVertexChange(VisualProperty.VERTEX_BLAZED, vertexBlaze, previousCount, verticesRebuilding || attributesChanged));
+                    changes.add(buildVertexChange(VisualProperty.VERTEX_BLAZE_ANGLE, vertexBlaze, previousCount, verticesRebuilding || attributesChanged));
+                    changes.add(buildVertexChange(VisualProperty.VERTEX_BLAZE_COLOR, vertexBlaze, previousCount, verticesRebuilding || attributesChanged));
                 }
 
                 // Handle stand-alone changes to transaction visual attributes
                 count = transactionSelected == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(transactionSelected);
-                if (!Objects.equals(count, modCounts.put(VisualConcept.TransactionAttribute.SELECTED, count))) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.CONNECTION_SELECTED).forItems(connectionElementTypes.length).build());
+                previousCount = modCounts.put(VisualConcept.TransactionAttribute.SELECTED, count);
+                if (!Objects.equals(count, previousCount)) {
+                    changes.add(buildConnectionChange(VisualProperty.CONNECTION_SELECTED, transactionSelected, previousCount, connectionsRebuilding || attributesChanged));
                 }
                 count = transactionDirected == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(transactionDirected);
-                if (!Objects.equals(count, modCounts.put(VisualConcept.TransactionAttribute.DIRECTED, count))) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.CONNECTION_DIRECTED).forItems(connectionElementTypes.length).build());
+                previousCount = modCounts.put(VisualConcept.TransactionAttribute.DIRECTED, count);
+                if (!Objects.equals(count, previousCount)) {
+                    changes.add(buildConnectionChange(VisualProperty.CONNECTION_DIRECTED, transactionDirected, previousCount, connectionsRebuilding || attributesChanged));
                 }
                 count = transactionVisibility == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(transactionVisibility);
-                if (!Objects.equals(count, modCounts.put(VisualConcept.TransactionAttribute.VISIBILITY, count))) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.CONNECTION_VISIBILITY).forItems(connectionElementTypes.length).build());
+                previousCount = modCounts.put(VisualConcept.TransactionAttribute.VISIBILITY, count);
+                if (!Objects.equals(count, previousCount)) {
+                    changes.add(buildConnectionChange(VisualProperty.CONNECTION_VISIBILITY, transactionVisibility, previousCount, connectionsRebuilding || attributesChanged));
                 }
                 count = transactionLayerVisibility == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(transactionLayerVisibility);
-                if (!Objects.equals(count, modCounts.put(LayersConcept.TransactionAttribute.LAYER_VISIBILITY, count))) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.CONNECTION_VISIBILITY).forItems(connectionElementTypes.length).build());
+                previousCount = modCounts.put(LayersConcept.TransactionAttribute.LAYER_VISIBILITY, count);
+                if (!Objects.equals(count, previousCount)) {
+                    changes.add(buildConnectionChange(VisualProperty.CONNECTION_VISIBILITY, transactionLayerVisibility, previousCount, connectionsRebuilding || attributesChanged));
                 }
                 count = transactionDimmed == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(transactionDimmed);
-                if (!Objects.equals(count, modCounts.put(VisualConcept.TransactionAttribute.DIMMED, count))) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.CONNECTION_DIM).forItems(connectionElementTypes.length).build());
+                previousCount = modCounts.put(VisualConcept.TransactionAttribute.DIMMED, count);
+                if (!Objects.equals(count, previousCount)) {
+                    changes.add(buildConnectionChange(VisualProperty.CONNECTION_DIM, transactionDimmed, previousCount, connectionsRebuilding || attributesChanged));
                 }
                 count = transactionLineStyle == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(transactionLineStyle);
-                if (!Objects.equals(count, modCounts.put(VisualConcept.TransactionAttribute.LINE_STYLE, count))) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.CONNECTION_LINESTYLE).forItems(connectionElementTypes.length).build());
+                previousCount = modCounts.put(VisualConcept.TransactionAttribute.LINE_STYLE, count);
+                if (!Objects.equals(count, previousCount)) {
+                    changes.add(buildConnectionChange(VisualProperty.CONNECTION_LINESTYLE, transactionLineStyle, previousCount, connectionsRebuilding || attributesChanged));
                 }
                 count = transactionWidth == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(transactionWidth);
-                if (!Objects.equals(count, modCounts.put(VisualConcept.TransactionAttribute.WIDTH, count))) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.CONNECTION_WIDTH).forItems(connectionElementTypes.length).build());
+                previousCount = modCounts.put(VisualConcept.TransactionAttribute.WIDTH, count);
+                if (!Objects.equals(count, previousCount)) {
+                    changes.add(buildConnectionChange(VisualProperty.CONNECTION_WIDTH, transactionWidth, previousCount, connectionsRebuilding || attributesChanged));
                 }
             }
         }
         return changes;
     }
 
+    /**
+     * Build a change to a vertex property. When the value changes since the
+     * last update are known, only the positions of the changed vertices are
+     * included so that the processor does not have to refresh every vertex.
+     *
+     * @param property the changed property.
+     * @param attribute the attribute providing the property.
+     * @param previousCount the value modification count of the attribute at
+     * the last update.
+     * @param allChanged whether every vertex should be considered changed.
+     * @return a {@link VisualChange} for the changed vertices.
+     */
+    private VisualChange buildVertexChange(final VisualProperty property, final int attribute, final Long previousCount, final boolean allChanged) {
+        final int[] changedVertices = allChanged ? null : getValueChanges(attribute, previousCount);
+        if (changedVertices == null) {
+            return new VisualChangeBuilder(property).forItems(accessGraph.getVertexCount()).build();
+        }
+
+        int changeCount = 0;
+        for (final int vertex : changedVertices) {
+            if (accessGraph.vertexExists(vertex)) {
+                changedVertices[changeCount++] = accessGraph.getVertexPosition(vertex);
+            }
+        }
+        return new VisualChangeBuilder(property).forItems(Arrays.copyOf(changedVertices, changeCount)).build();
+    }
+
+    /**
+     * Build a change to a connection property. When the value changes since
+     * the last update are known, only the connections of the links holding
+     * the changed transactions are included, since the connections of a link
+     * are laid out contiguously and may each depend on any of its
+     * transactions.
+     *
+     * @param property the changed property.
+     * @param attribute the attribute providing the property.
+     * @param previousCount the value modification count of the attribute at
+     * the last update.
+     * @param allChanged whether every connection should be considered changed.
+     * @return a {@link VisualChange} for the changed connections.
+     */
+    private VisualChange buildConnectionChange(final VisualProperty property, final int attribute, final Long previousCount, final boolean allChanged) {
+        final int[] changedTransactions = allChanged ? null : getValueChanges(attribute, previousCount);
+        if (changedTransactions == null) {
+            return new VisualChangeBuilder(property).forItems(connectionElementTypes.length).build();
+        }
+
+        // Collect the positions of the changed links sparsely, since a change usually touches few of them.
+        final int[] changedLinks = new int[changedTransactions.length];
+        int linkCount = 0;
+        for (final int transaction : changedTransactions) {
+            if (accessGraph.transactionExists(transaction)) {
+                changedLinks[linkCount++] = accessGraph.getLinkPosition(accessGraph.getTransactionLink(transaction));
+            }
+        }
+        Arrays.sort(changedLinks, 0, linkCount);
+
+        int distinctLinkCount = 0;
+        int changeCount = 0;
+        for (int i = 0; i < linkCount; i++) {
+            if (i == 0 || changedLinks[i] != changedLinks[i - 1]) {
+                final int linkPosition = changedLinks[i];
+                changedLinks[distinctLinkCount++] = linkPosition;
+                changeCount += getLinkEndPosition(linkPosition) - linkStartingPositions[linkPosition];
+            }
+        }
+
+        final int[] changedConnections = new int[changeCount];
+        int i = 0;
+        for (int link = 0; link < distinctLinkCount; link++) {
+            final int linkPosition = changedLinks[link];
+            for (int position = linkStartingPositions[linkPosition]; position < getLinkEndPosition(linkPosition); position++) {
+                changedConnections[i++] = position;
+            }
+        }
+        return new VisualChangeBuilder(property).forItems(changedConnections).build();
+    }
+
+    private int getLinkEndPosition(final int linkPosition) {
+        return linkPosition + 1 < linkStartingPositions.length ? linkStartingPositions[linkPosition + 1] : connectionElementTypes.length;
+    }
+
+    private int[] getValueChanges(final int attribute, final Long previousCount) {
+        return attribute == Graph.NOT_FOUND || previousCount == null ? null : accessGraph.getValueChanges(attribute, previousCount);
+    }
+
     private void recalculateVisualAttributes(final GraphReadMethods rg) {
         graphBackgroundColor = VisualConcept.GraphAttribute.BACKGROUND_COLOR.get(rg);
         graphHighlightColor = VisualConcept.GraphAttribute.HIGHLIGHT_COLOR.get(rg);